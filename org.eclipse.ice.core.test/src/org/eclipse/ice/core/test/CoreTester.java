@@ -471,7 +471,7 @@ public class CoreTester {
 	 * updates from the ICEUpdater.
 	 */
 	@Test
-	public void checkRealtimeUpdates() {
+	public void checkRealtimeUpdates() throws InterruptedException {
 
 		// Local Declarations
 		FakeGeometryBuilder fakeGeometryBuilder = new FakeGeometryBuilder();
@@ -498,7 +498,10 @@ public class CoreTester {
 
 		// Make sure posting a valid message works
 		assertEquals("OK", iCECore.postUpdateMessage(msg));
-		// Get the FakeItem and make sure it was updated
+		// Wait for the update to be delivered and make sure the FakeItem was
+		// updated
+		assertTrue(iCECore.getUpdatePipeline().awaitIdle(5000));
+		assertEquals(2, iCECore.getUpdatePipeline().getProcessedCount());
 		assertTrue(fakeGeometryBuilder.getLastFakeItem().wasUpdated());
 
 		// Make sure posting a null message fails
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.core.test;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.ice.core.iCore.ILazyPersistenceProvider;
+import org.eclipse.ice.datastructures.ICEObject.ICEObject;
+import org.eclipse.ice.datastructures.ICEObject.Identifiable;
+import org.eclipse.ice.item.Item;
+
+/**
+ * This is a fake implementation of the lazy persistence interface. It stores
+ * the headers of two Items with ids 1 and 3 and counts how many times an Item
+ * is loaded. Loading is slow so that concurrent requests overlap, and the
+ * loading of one Item can be held until a latch is released.
+ */
+public class FakeLazyPersistenceProvider extends FakePersistenceProvider
+		implements ILazyPersistenceProvider {
+
+	/**
+	 * The number of times loadItem() was called.
+	 */
+	private final AtomicInteger loadCount = new AtomicInteger();
+
+	/**
+	 * The Items that were loaded, keyed by their ids.
+	 */
+	private final ConcurrentHashMap<Integer, FakeItem> loadedItems = new ConcurrentHashMap<Integer, FakeItem>();
+
+	/**
+	 * The id of the Item whose loading is held, or -1 if no Item is held.
+	 */
+	private volatile int heldId = -1;
+
+	/**
+	 * The latch that holds the loading of the held Item.
+	 */
+	private volatile CountDownLatch gate;
+
+	/**
+	 * This operation holds the loading of an Item until the latch is released.
+	 *
+	 * @param itemID
+	 *            The id of the Item that should be held.
+	 * @param latch
+	 *            The latch that must be released before the Item is loaded.
+	 */
+	public void holdItem(int itemID, CountDownLatch latch) {
+		gate = latch;
+		heldId = itemID;
+	}
+
+	/**
+	 * This operation returns the Item that was loaded with the given id.
+	 *
+	 * @param itemID
+	 *            The id of the Item.
+	 * @return The loaded Item or null if it was not loaded.
+	 */
+	public FakeItem getLoadedItem(int itemID) {
+		return loadedItems.get(itemID);
+	}
+
+	/**
+	 * This operation returns the number of times loadItem() was called.
+	 *
+	 * @return The number of loaded Items.
+	 */
+	public int getLoadCount() {
+		return loadCount.get();
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see ILazyPersistenceProvider#loadItemHeaders()
+	 */
+	@Override
+	public ArrayList<Identifiable> loadItemHeaders() {
+
+		// Local Declarations
+		ArrayList<Identifiable> headers = new ArrayList<Identifiable>();
+
+		for (int id : new int[] { 1, 3 }) {
+			ICEObject header = new ICEObject();
+			header.setId(id);
+			headers.add(header);
+		}
+
+		return headers;
+	}
+
+	/**
+	 * (non-Javadoc)
+	 *
+	 * @see IPersistenceProvider#loadItem(int itemID)
+	 */
+	@Override
+	public Item loadItem(int itemID) {
+
+		loadCount.incrementAndGet();
+
+		// Take long enough for other threads to ask for the same Item
+		try {
+			Thread.sleep(100);
+			if (itemID == heldId) {
+				gate.await();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		FakeItem item = new FakeItem(null);
+		item.setId(itemID);
+		loadedItems.put(itemID, item);
+
+		return item;
+	}
+}
@@ -23,6 +23,7 @@ import java.io.File;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IProjectDescription;
@@ -562,4 +563,142 @@ public class ItemManagerTester {
 		return;
 
 	}
-}
\ No newline at end of file
+
+	/**
+	 * <p>
+	 * This operation checks that an Item from an ILazyPersistenceProvider is
+	 * only loaded once when several threads ask for it at the same time.
+	 * </p>
+	 *
+	 */
+	@Test
+	public void checkConcurrentLazyLoading() throws InterruptedException {
+
+		// Local Declarations
+		final ItemManager lazyManager = new ItemManager();
+		FakeLazyPersistenceProvider lazyProvider = new FakeLazyPersistenceProvider();
+		final Form[] forms = new Form[8];
+		Thread[] threads = new Thread[forms.length];
+
+		// Only the headers should be loaded at first
+		lazyManager.setPersistenceProvider(lazyProvider);
+		lazyManager.loadItems(null);
+		assertEquals(0, lazyProvider.getLoadCount());
+		assertEquals(2, lazyManager.retrieveItemList().size());
+
+		// Ask for the same Item from several threads
+		for (int i = 0; i < threads.length; i++) {
+			final int index = i;
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					forms[index] = lazyManager.retrieveItem(1);
+				}
+			};
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		// The Item should have been loaded once and shared
+		assertEquals(1, lazyProvider.getLoadCount());
+		for (Form form : forms) {
+			assertNotNull(form);
+			assertTrue(form == forms[0]);
+		}
+		assertEquals(2, lazyManager.retrieveItemList().size());
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation checks that loading one Item from an
+	 * ILazyPersistenceProvider does not keep other Items from being loaded.
+	 * </p>
+	 *
+	 */
+	@Test(timeout = 10000)
+	public void checkIndependentLazyLoading() throws InterruptedException {
+
+		// Local Declarations
+		final ItemManager lazyManager = new ItemManager();
+		FakeLazyPersistenceProvider lazyProvider = new FakeLazyPersistenceProvider();
+		CountDownLatch latch = new CountDownLatch(1);
+		final Form[] forms = new Form[1];
+		Thread thread = null;
+
+		// Hold the first Item while it is loading
+		lazyManager.setPersistenceProvider(lazyProvider);
+		lazyManager.loadItems(null);
+		lazyProvider.holdItem(1, latch);
+		thread = new Thread() {
+			@Override
+			public void run() {
+				forms[0] = lazyManager.retrieveItem(1);
+			}
+		};
+		thread.start();
+		while (lazyProvider.getLoadCount() == 0) {
+			Thread.sleep(10);
+		}
+
+		// The other Item should load while the first one is held
+		assertNotNull(lazyManager.retrieveItem(3));
+		assertNull(forms[0]);
+
+		// Release the first Item
+		latch.countDown();
+		thread.join();
+		assertNotNull(forms[0]);
+		assertEquals(2, lazyProvider.getLoadCount());
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation checks that an Item from an ILazyPersistenceProvider
+	 * reloads its project data if it was asked to while it was loading.
+	 * </p>
+	 *
+	 */
+	@Test(timeout = 10000)
+	public void checkReloadWhileLazyLoading() throws InterruptedException {
+
+		// Local Declarations
+		final ItemManager lazyManager = new ItemManager();
+		FakeLazyPersistenceProvider lazyProvider = new FakeLazyPersistenceProvider();
+		CountDownLatch latch = new CountDownLatch(1);
+		Thread thread = null;
+
+		// Hold the first Item while it is loading
+		lazyManager.setPersistenceProvider(lazyProvider);
+		lazyManager.loadItems(null);
+		lazyProvider.holdItem(1, latch);
+		thread = new Thread() {
+			@Override
+			public void run() {
+				lazyManager.retrieveItem(1);
+			}
+		};
+		thread.start();
+
+		// Wait for the provider to start loading the Item, then reload
+		while (lazyProvider.getLoadCount() == 0) {
+			Thread.sleep(10);
+		}
+		lazyManager.reloadProjectData();
+
+		// The Item should reload its data when it is done loading
+		latch.countDown();
+		thread.join();
+		assertTrue(lazyProvider.getLoadedItem(1).wasRefreshed());
+
+		// Items that were not loaded are not loaded by the reload
+		assertEquals(1, lazyProvider.getLoadCount());
+
+		return;
+	}
+}
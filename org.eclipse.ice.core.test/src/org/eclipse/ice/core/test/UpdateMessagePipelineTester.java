@@ -0,0 +1,247 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings
+ *******************************************************************************/
+package org.eclipse.ice.core.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.eclipse.ice.core.internal.UpdateMessagePipeline;
+import org.eclipse.ice.core.internal.itemmanager.ItemManager;
+import org.eclipse.ice.item.messaging.Message;
+import org.junit.Test;
+
+/**
+ * This class is responsible for testing the UpdateMessagePipeline. It also
+ * contains a load test that posts messages from several threads and prints
+ * the rates of the pipeline.
+ */
+public class UpdateMessagePipelineTester {
+
+	/**
+	 * This operation checks that messages are delivered to their Items in
+	 * order and that invalid updates are rejected.
+	 */
+	@Test
+	public void checkDelivery() throws InterruptedException {
+
+		RecordingItemManager manager = new RecordingItemManager(null);
+		UpdateMessagePipeline pipeline = new UpdateMessagePipeline(manager);
+
+		// Post interleaved updates for three Items
+		for (int i = 0; i < 30; i++) {
+			assertTrue(pipeline.post(createUpdate(i % 3, "message" + i)));
+		}
+		assertTrue(pipeline.awaitIdle(5000));
+
+		// Each Item should have received its messages in order
+		for (int id = 0; id < 3; id++) {
+			List<String> messages = manager.getMessages(id);
+			assertEquals(10, messages.size());
+			for (int i = 0; i < 10; i++) {
+				assertEquals("message" + (3 * i + id), messages.get(i));
+			}
+		}
+		assertEquals(30, pipeline.getReceivedCount());
+		assertEquals(30, pipeline.getProcessedCount());
+		assertEquals(0, pipeline.getDroppedCount());
+
+		// Invalid updates should be rejected
+		assertFalse(pipeline.post("not json"));
+		assertFalse(pipeline.post("{\"item_id\":\"1\", \"posts\":[]}"));
+		assertFalse(pipeline.post("{\"posts\":[]}"));
+		assertEquals(30, pipeline.getReceivedCount());
+
+		pipeline.shutdown();
+
+		return;
+	}
+
+	/**
+	 * This operation checks that messages are dropped instead of blocking the
+	 * client when the queue is full.
+	 */
+	@Test
+	public void checkDropping() throws InterruptedException {
+
+		// Block the dispatch thread
+		CountDownLatch latch = new CountDownLatch(1);
+		RecordingItemManager manager = new RecordingItemManager(latch);
+		UpdateMessagePipeline pipeline = new UpdateMessagePipeline(manager, 10);
+
+		// Fill the queue
+		int accepted = 0;
+		for (int i = 0; i < 50; i++) {
+			if (pipeline.post(createUpdate(1, "message" + i))) {
+				accepted++;
+			}
+		}
+		assertTrue(accepted < 50);
+		assertEquals(50 - accepted, pipeline.getDroppedCount());
+		assertTrue(pipeline.getDroppedRate() > 0.0);
+
+		// Release the dispatch thread and make sure the rest arrive
+		latch.countDown();
+		assertTrue(pipeline.awaitIdle(5000));
+		assertEquals(accepted, pipeline.getProcessedCount());
+		assertEquals(accepted, manager.getMessages(1).size());
+
+		pipeline.shutdown();
+
+		return;
+	}
+
+	/**
+	 * This operation posts many messages from several threads, like a set of
+	 * simulations reporting their progress, and prints the rates.
+	 */
+	@Test
+	public void checkLoad() throws InterruptedException {
+
+		// Local Declarations
+		final int numThreads = 4, numPosts = 5000;
+		RecordingItemManager manager = new RecordingItemManager(null);
+		final UpdateMessagePipeline pipeline = new UpdateMessagePipeline(
+				manager);
+		ArrayList<Thread> threads = new ArrayList<Thread>();
+
+		// Post the messages
+		long start = System.nanoTime();
+		for (int i = 0; i < numThreads; i++) {
+			final int itemId = i;
+			Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int j = 0; j < numPosts; j++) {
+						pipeline.post(createUpdate(itemId, "progress " + j));
+					}
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertTrue(pipeline.awaitIdle(30000));
+		long elapsed = System.nanoTime() - start;
+
+		System.out.println("UpdateMessagePipelineTester Message: "
+				+ "messages/s posted = " + (numThreads * numPosts * 1.0e9 / elapsed)
+				+ ", received rate = " + pipeline.getReceivedRate()
+				+ ", processed rate = " + pipeline.getProcessedRate()
+				+ ", dropped = " + pipeline.getDroppedCount());
+
+		// Every message must be accounted for
+		assertEquals(numThreads * numPosts, pipeline.getReceivedCount());
+		assertEquals(pipeline.getReceivedCount(),
+				pipeline.getProcessedCount() + pipeline.getDroppedCount());
+		assertTrue(pipeline.getProcessedRate() > 1000.0);
+
+		pipeline.shutdown();
+
+		return;
+	}
+
+	/**
+	 * This operation creates a JSON update with a single message.
+	 *
+	 * @param itemId
+	 *            The id of the Item
+	 * @param content
+	 *            The content of the message
+	 * @return The update
+	 */
+	private static String createUpdate(int itemId, String content) {
+		return "{\"item_id\":\"" + itemId + "\", "
+				+ "\"client_key\":\"1234567890ABCDEFGHIJ\", "
+				+ "\"posts\":[{\"type\":\"UPDATER_STARTED\",\"message\":\""
+				+ content + "\"}]}";
+	}
+
+	/**
+	 * An ItemManager that records the content of the messages posted to each
+	 * Item instead of posting them.
+	 */
+	private static class RecordingItemManager extends ItemManager {
+
+		/**
+		 * The content of the messages by Item id.
+		 */
+		private final HashMap<Integer, List<String>> messages = new HashMap<Integer, List<String>>();
+
+		/**
+		 * A latch that blocks the dispatch thread until it is released, or
+		 * null.
+		 */
+		private final CountDownLatch latch;
+
+		/**
+		 * The constructor.
+		 *
+		 * @param blockingLatch
+		 *            A latch that blocks the dispatch thread, or null
+		 */
+		public RecordingItemManager(CountDownLatch blockingLatch) {
+			latch = blockingLatch;
+		}
+
+		/**
+		 * (non-Javadoc)
+		 *
+		 * @see ItemManager#postUpdateMessages(int, List)
+		 */
+		@Override
+		public int postUpdateMessages(int itemId, List<Message> batch) {
+
+			// Wait until the test releases the thread
+			if (latch != null) {
+				try {
+					latch.await();
+				} catch (InterruptedException e) {
+					e.printStackTrace();
+				}
+			}
+
+			synchronized (messages) {
+				List<String> itemMessages = messages.get(itemId);
+				if (itemMessages == null) {
+					itemMessages = new ArrayList<String>();
+					messages.put(itemId, itemMessages);
+				}
+				for (Message msg : batch) {
+					itemMessages.add(msg.getMessage());
+				}
+			}
+
+			return batch.size();
+		}
+
+		/**
+		 * This operation returns the content of the messages posted to an
+		 * Item.
+		 *
+		 * @param itemId
+		 *            The id of the Item
+		 * @return The content of the messages
+		 */
+		public List<String> getMessages(int itemId) {
+			synchronized (messages) {
+				return new ArrayList<String>(messages.get(itemId));
+			}
+		}
+	}
+}
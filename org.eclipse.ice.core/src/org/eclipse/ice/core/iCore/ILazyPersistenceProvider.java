@@ -0,0 +1,38 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings
+ *******************************************************************************/
+package org.eclipse.ice.core.iCore;
+
+import java.util.ArrayList;
+
+import org.eclipse.ice.datastructures.ICEObject.Identifiable;
+
+/**
+ * <p>
+ * An extension of IPersistenceProvider for providers that can describe the
+ * Items they store without loading them. Clients use the headers to publish
+ * the available Items immediately and call loadItem() for an Item only when it
+ * is first needed.
+ * </p>
+ */
+public interface ILazyPersistenceProvider extends IPersistenceProvider {
+
+	/**
+	 * <p>
+	 * Returns a lightweight header with the id, name and description of every
+	 * Item in the persistence piece. The full Items are not loaded.
+	 * </p>
+	 *
+	 * @return <p>
+	 *         The list of Item headers.
+	 *         </p>
+	 */
+	public ArrayList<Identifiable> loadItemHeaders();
+}
@@ -23,7 +23,6 @@ import java.util.Dictionary;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.servlet.ServletException;
 import javax.ws.rs.ApplicationPath;
@@ -51,7 +50,6 @@ import org.eclipse.ice.io.serializable.IOService;
 import org.eclipse.ice.item.ICompositeItemBuilder;
 import org.eclipse.ice.item.ItemBuilder;
 import org.eclipse.ice.item.SerializedItemBuilder;
-import org.eclipse.ice.item.messaging.Message;
 import org.osgi.framework.Bundle;
 import org.osgi.service.component.ComponentContext;
 import org.osgi.service.http.HttpContext;
@@ -60,14 +58,6 @@ import org.osgi.service.http.NamespaceException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
-import com.google.gson.JsonParser;
-import com.google.gson.JsonPrimitive;
 import com.sun.jersey.spi.container.servlet.ServletContainer;
 
 /**
@@ -118,10 +108,9 @@ public class Core extends Application implements ICore {
 	private IPersistenceProvider provider;
 
 	/**
-	 * An AtomicBoolean to lock and unlock the update operation with hardware.
-	 * True if locked, false if not.
+	 * The pipeline that delivers update messages to the Items.
 	 */
-	private AtomicBoolean updateLock;
+	private UpdateMessagePipeline updatePipeline;
 
 	/**
 	 * An alternative constructor that allows the Core to be constructed with a
@@ -142,8 +131,8 @@ public class Core extends Application implements ICore {
 					"ICore Message: Unable to load workspace!");
 		}
 
-		// Set the update lock
-		updateLock = new AtomicBoolean(false);
+		// Start the update pipeline
+		updatePipeline = new UpdateMessagePipeline(itemManager);
 
 		return;
 	}
@@ -164,8 +153,8 @@ public class Core extends Application implements ICore {
 					"ICore Message: Unable to load workspace!");
 		}
 
-		// Set the update lock
-		updateLock = new AtomicBoolean(false);
+		// Start the update pipeline
+		updatePipeline = new UpdateMessagePipeline(itemManager);
 
 		return;
 	}
@@ -203,6 +192,8 @@ public class Core extends Application implements ICore {
 	 * This operation stops the Core.
 	 */
 	public void stop() {
+		// Deliver the pending updates
+		updatePipeline.shutdown();
 		// Update everything in the ItemManager that requires it
 		itemManager.persistItems();
 	}
@@ -788,63 +779,6 @@ public class Core extends Application implements ICore {
 		return String.valueOf(newItemId);
 	}
 
-	/**
-	 * This private operation creates an instance of the Message class from a
-	 * string using a JSON parser.
-	 *
-	 * This operation is synchronized so that the core can't be overloaded.
-	 *
-	 * @param messageString
-	 *            The original message, as a string
-	 * @return list list of built messages.
-	 */
-	private ArrayList<Message> buildMessagesFromString(String messageString) {
-
-		// Create the ArrayList of messages
-		ArrayList<Message> messages = new ArrayList<Message>();
-
-		// Create the parser and gson utility
-		JsonParser parser = new JsonParser();
-		GsonBuilder builder = new GsonBuilder();
-		Gson gson = builder.create();
-
-		// Catch any exceptions and return the empty list
-		try {
-
-			// Make the string a json string
-			JsonElement messageJson = parser.parse(messageString);
-			JsonObject messageJsonObject = messageJson.getAsJsonObject();
-
-			// Get the Item id from the json
-			JsonPrimitive itemIdJson = messageJsonObject
-					.getAsJsonPrimitive("item_id");
-			int itemId = itemIdJson.getAsInt();
-
-			// Get the array of posts from the message
-			JsonArray jsonMessagesList = messageJsonObject
-					.getAsJsonArray("posts");
-
-			// Load the list
-			for (int i = 0; i < jsonMessagesList.size(); i++) {
-				// Get the message as a json element
-				JsonElement jsonMessage = jsonMessagesList.get(i);
-				// Marshal it into a message
-				Message tmpMessage = gson.fromJson(jsonMessage, Message.class);
-				// Set the item id
-				tmpMessage.setItemId(itemId);
-				// Put it in the list
-				messages.add(tmpMessage);
-			}
-		} catch (JsonParseException e) {
-			// Log the message
-			System.err.println("Core Message: "
-					+ "JSON parsing failed for message " + messageString);
-			logger.error(getClass().getName() + " Exception!", e);
-		}
-
-		return messages;
-	}
-
 	/**
 	 * (non-Javadoc)
 	 *
@@ -853,41 +787,34 @@ public class Core extends Application implements ICore {
 	@Override
 	public String postUpdateMessage(String message) {
 
-		// Lock the operation
-		updateLock.set(true);
-
 		// Local Declarations
 		String retVal = null;
 
-		// Print the message if debugging is enabled
-		// if (debuggingEnabled) {
-		logger.info(
+		logger.debug(
 				"Core Message: " + "Update received with message: " + message);
-				// }
 
-		// Only process the message if it exists and is not empty
+		// Only process the message if it exists and is not empty. It is
+		// application/x-www-form-encoded, so the content follows the first "="
 		if (message != null && !message.isEmpty() && message.contains("=")) {
-			// Split the message on "=" since it is
-			// application/x-www-form-encoded
-			String[] messageParts = message.split("=");
-			if (messageParts.length > 1) {
-				// Get the message object.
-				ArrayList<Message> msgList = buildMessagesFromString(
-						messageParts[1]);
-				// Post the messages if there are any. Fail otherwise.
-				if (!msgList.isEmpty()) {
-					for (int i = 0; i < msgList.size(); i++) {
-						Message msg = msgList.get(i);
-						itemManager.postUpdateMessage(msg);
-					}
-					// Set the return value
-					retVal = "OK";
-				}
+			// Queue the messages for the Items. Fail if there are none or if
+			// the Core is overloaded.
+			if (updatePipeline.post(message.substring(message.indexOf('=') + 1))) {
+				retVal = "OK";
 			}
 		}
 
-		// Unlock the operation and return safely
-		return (updateLock.getAndSet(false)) ? retVal : null;
+		return retVal;
+	}
+
+	/**
+	 * This operation returns the pipeline that delivers update messages to the
+	 * Items. It can be used to check the rates at which messages are received,
+	 * processed and dropped.
+	 *
+	 * @return The pipeline
+	 */
+	public UpdateMessagePipeline getUpdatePipeline() {
+		return updatePipeline;
 	}
 
 }
@@ -0,0 +1,409 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings
+ *******************************************************************************/
+package org.eclipse.ice.core.internal;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.ice.core.internal.itemmanager.ItemManager;
+import org.eclipse.ice.item.messaging.Message;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * <p>
+ * The UpdateMessagePipeline accepts the update messages posted to the Core
+ * and delivers them to the Items asynchronously. Messages are parsed on the
+ * thread that posts them with a parser shared by all threads and placed in a
+ * bounded queue. A single dispatch thread drains the queue in batches, groups
+ * the Messages of each batch by Item id and posts each group to the
+ * ItemManager in the order in which the Messages were received.
+ * </p>
+ * <p>
+ * The pipeline never blocks the clients that post messages. Messages that do
+ * not fit in the queue are dropped and counted. The pipeline reports the
+ * number of Messages received, processed and dropped and their rates since it
+ * was created.
+ * </p>
+ */
+public class UpdateMessagePipeline {
+
+	/**
+	 * Logger for handling event messages and other information.
+	 */
+	private static final Logger logger = LoggerFactory
+			.getLogger(UpdateMessagePipeline.class);
+
+	/**
+	 * The default number of Messages that can wait in the queue.
+	 */
+	public static final int DEFAULT_CAPACITY = 10000;
+
+	/**
+	 * The largest number of Messages dispatched in one batch.
+	 */
+	private static final int maxBatchSize = 1000;
+
+	/**
+	 * The JSON parser. It does not keep any state, so it is shared by all
+	 * threads.
+	 */
+	private static final JsonParser parser = new JsonParser();
+
+	/**
+	 * The Gson instance used to read Messages. It is thread-safe.
+	 */
+	private static final Gson gson = new GsonBuilder().create();
+
+	/**
+	 * The ItemManager to which the Messages are posted.
+	 */
+	private final ItemManager itemManager;
+
+	/**
+	 * The Messages waiting to be dispatched.
+	 */
+	private final ArrayBlockingQueue<Message> queue;
+
+	/**
+	 * The executor that runs the dispatch thread.
+	 */
+	private final ExecutorService dispatcher;
+
+	/**
+	 * The number of Messages received, processed and dropped.
+	 */
+	private final AtomicLong received = new AtomicLong(),
+			processed = new AtomicLong(), dropped = new AtomicLong();
+
+	/**
+	 * The time in nanoseconds at which the pipeline was created.
+	 */
+	private final long startTime;
+
+	/**
+	 * True until the pipeline is shut down.
+	 */
+	private volatile boolean running = true;
+
+	/**
+	 * The constructor. It starts the dispatch thread.
+	 *
+	 * @param manager
+	 *            The ItemManager to which the Messages are posted
+	 * @param capacity
+	 *            The number of Messages that can wait in the queue
+	 */
+	public UpdateMessagePipeline(ItemManager manager, int capacity) {
+
+		itemManager = manager;
+		queue = new ArrayBlockingQueue<Message>(Math.max(1, capacity));
+		startTime = System.nanoTime();
+
+		// Create the dispatch thread
+		dispatcher = Executors.newSingleThreadExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "ICE Update Dispatcher");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		dispatcher.execute(new Runnable() {
+			@Override
+			public void run() {
+				dispatch();
+			}
+		});
+	}
+
+	/**
+	 * The constructor. It uses the default capacity.
+	 *
+	 * @param manager
+	 *            The ItemManager to which the Messages are posted
+	 */
+	public UpdateMessagePipeline(ItemManager manager) {
+		this(manager, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * This operation parses a JSON update and queues its Messages. The update
+	 * is an object with an "item_id" and an array of "posts".
+	 *
+	 * @param json
+	 *            The update
+	 * @return True if the update contained Messages and all of them were
+	 *         queued, false otherwise.
+	 */
+	public boolean post(String json) {
+
+		// Local Declarations
+		ArrayList<Message> messages = parse(json);
+		boolean queued = !messages.isEmpty() && running;
+
+		// Queue the messages, dropping those that do not fit
+		if (queued) {
+			received.addAndGet(messages.size());
+			for (Message msg : messages) {
+				if (!queue.offer(msg)) {
+					dropped.incrementAndGet();
+					queued = false;
+				}
+			}
+			if (!queued) {
+				logger.warn("UpdateMessagePipeline Message: The queue is "
+						+ "full. Dropped update messages for Item "
+						+ messages.get(0).getItemId());
+			}
+		}
+
+		return queued;
+	}
+
+	/**
+	 * This operation creates Messages from a JSON update.
+	 *
+	 * @param json
+	 *            The update
+	 * @return The Messages or an empty list if the update could not be parsed
+	 */
+	private ArrayList<Message> parse(String json) {
+
+		// Local Declarations
+		ArrayList<Message> messages = new ArrayList<Message>();
+
+		// Catch any exceptions and return the empty list
+		try {
+			// Make the string a json object
+			JsonObject messageJsonObject = parser.parse(json)
+					.getAsJsonObject();
+
+			// Get the Item id from the json
+			JsonPrimitive itemIdJson = messageJsonObject
+					.getAsJsonPrimitive("item_id");
+			int itemId = itemIdJson.getAsInt();
+
+			// Get the array of posts from the message and load the list
+			JsonArray jsonMessagesList = messageJsonObject
+					.getAsJsonArray("posts");
+			for (JsonElement jsonMessage : jsonMessagesList) {
+				Message tmpMessage = gson.fromJson(jsonMessage, Message.class);
+				tmpMessage.setItemId(itemId);
+				messages.add(tmpMessage);
+			}
+		} catch (JsonParseException | IllegalStateException
+				| NullPointerException | NumberFormatException e) {
+			logger.error("UpdateMessagePipeline Message: "
+					+ "JSON parsing failed for message " + json, e);
+			messages.clear();
+		}
+
+		return messages;
+	}
+
+	/**
+	 * This operation is run by the dispatch thread. It drains the queue in
+	 * batches and posts the Messages of each Item together until the pipeline
+	 * is shut down and the queue is empty.
+	 */
+	private void dispatch() {
+
+		// Local Declarations
+		ArrayList<Message> batch = new ArrayList<Message>(maxBatchSize);
+		LinkedHashMap<Integer, List<Message>> itemBatches = new LinkedHashMap<Integer, List<Message>>();
+
+		while (running || !queue.isEmpty()) {
+			// Wait for the next message
+			try {
+				Message first = queue.poll(100, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+			} catch (InterruptedException e) {
+				logger.error(getClass().getName() + " Exception!", e);
+				running = false;
+				continue;
+			}
+			queue.drainTo(batch, maxBatchSize - 1);
+
+			// Group the messages by Item, keeping their order
+			for (Message msg : batch) {
+				List<Message> itemBatch = itemBatches.get(msg.getItemId());
+				if (itemBatch == null) {
+					itemBatch = new ArrayList<Message>();
+					itemBatches.put(msg.getItemId(), itemBatch);
+				}
+				itemBatch.add(msg);
+			}
+
+			// Post them
+			for (Map.Entry<Integer, List<Message>> entry : itemBatches
+					.entrySet()) {
+				try {
+					itemManager.postUpdateMessages(entry.getKey(),
+							entry.getValue());
+				} catch (RuntimeException e) {
+					logger.error(getClass().getName() + " Exception!", e);
+				}
+			}
+
+			// Publish the progress and reset for the next batch
+			synchronized (processed) {
+				processed.addAndGet(batch.size());
+				processed.notifyAll();
+			}
+			batch.clear();
+			itemBatches.clear();
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation blocks until all of the Messages that were queued have
+	 * been dispatched or the timeout expires.
+	 *
+	 * @param timeout
+	 *            The maximum time to wait in milliseconds
+	 * @return True if all of the Messages were dispatched, false otherwise
+	 * @throws InterruptedException
+	 *             An exception indicating that the wait was interrupted
+	 */
+	public boolean awaitIdle(long timeout) throws InterruptedException {
+
+		long deadline = System.currentTimeMillis() + timeout;
+
+		synchronized (processed) {
+			while (processed.get() < received.get() - dropped.get()) {
+				long remaining = deadline - System.currentTimeMillis();
+				if (remaining <= 0) {
+					return false;
+				}
+				processed.wait(remaining);
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * This operation stops accepting Messages and waits for up to ten seconds
+	 * for the queued Messages to be dispatched.
+	 */
+	public void shutdown() {
+
+		running = false;
+		dispatcher.shutdown();
+		try {
+			if (!dispatcher.awaitTermination(10, TimeUnit.SECONDS)) {
+				logger.warn("UpdateMessagePipeline Message: " + queue.size()
+						+ " update messages were not dispatched.");
+			}
+		} catch (InterruptedException e) {
+			logger.error(getClass().getName() + " Exception!", e);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation returns the number of Messages received.
+	 *
+	 * @return The number of Messages
+	 */
+	public long getReceivedCount() {
+		return received.get();
+	}
+
+	/**
+	 * This operation returns the number of Messages posted to the
+	 * ItemManager.
+	 *
+	 * @return The number of Messages
+	 */
+	public long getProcessedCount() {
+		return processed.get();
+	}
+
+	/**
+	 * This operation returns the number of Messages dropped because the queue
+	 * was full.
+	 *
+	 * @return The number of Messages
+	 */
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+	/**
+	 * This operation returns the number of Messages received per second since
+	 * the pipeline was created.
+	 *
+	 * @return The rate
+	 */
+	public double getReceivedRate() {
+		return getRate(received.get());
+	}
+
+	/**
+	 * This operation returns the number of Messages processed per second since
+	 * the pipeline was created.
+	 *
+	 * @return The rate
+	 */
+	public double getProcessedRate() {
+		return getRate(processed.get());
+	}
+
+	/**
+	 * This operation returns the number of Messages dropped per second since
+	 * the pipeline was created.
+	 *
+	 * @return The rate
+	 */
+	public double getDroppedRate() {
+		return getRate(dropped.get());
+	}
+
+	/**
+	 * This operation computes a rate per second since the pipeline was
+	 * created.
+	 *
+	 * @param count
+	 *            The number of events
+	 * @return The rate
+	 */
+	private double getRate(long count) {
+
+		long elapsed = System.nanoTime() - startTime;
+
+		return (elapsed > 0) ? count * 1.0e9 / elapsed : 0.0;
+	}
+}
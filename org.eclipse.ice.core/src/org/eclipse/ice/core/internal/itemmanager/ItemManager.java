@@ -14,10 +14,18 @@ package org.eclipse.ice.core.internal.itemmanager;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import org.eclipse.core.resources.IProject;
+import org.eclipse.ice.core.iCore.ILazyPersistenceProvider;
 import org.eclipse.ice.core.iCore.IPersistenceProvider;
 import org.eclipse.ice.datastructures.ICEObject.Identifiable;
 import org.eclipse.ice.datastructures.form.Form;
@@ -49,6 +57,12 @@ import org.slf4j.LoggerFactory;
  * persists all currently active Items by calling persistItems().
  * </p>
  * <p>
+ * If the provider is an ILazyPersistenceProvider, loadItems() only loads the
+ * headers of the persisted Items. Each Item is loaded from the provider the
+ * first time it is requested by id, so the cost of starting up depends on the
+ * number of Items that are opened instead of the number that are stored.
+ * </p>
+ * <p>
  * The process output file of an Item can be retrieved by calling
  * getOutputFile() and passing the id of the Item as an argument. Retrieving an
  * output file and retrieving a Form are separated because they are treated as
@@ -67,11 +81,40 @@ public class ItemManager implements ItemListener {
 	/**
 	 * <p>
 	 * This is a list of all of the items that are managed by the ItemManger.
-	 * The key is the Item Id and the value is a reference to the Item.
+	 * The key is the Item Id and the value is a reference to the Item. It is
+	 * concurrent because Items are loaded lazily from several threads.
 	 * </p>
 	 *
 	 */
-	private HashMap<Integer, Item> itemList;
+	private ConcurrentHashMap<Integer, Item> itemList;
+
+	/**
+	 * <p>
+	 * The headers of the Items that are stored by an ILazyPersistenceProvider
+	 * but that have not been loaded yet. The key is the Item Id and the value
+	 * is the header. Items are moved to the itemList when they are loaded.
+	 * </p>
+	 */
+	private ConcurrentHashMap<Integer, Identifiable> unloadedItems;
+
+	/**
+	 * <p>
+	 * The tasks that are loading Items from the persistence provider right
+	 * now. The key is the Item Id. Threads that ask for an Item that is being
+	 * loaded wait on its task so that each Item is only loaded once, but
+	 * different Items can be loaded at the same time.
+	 * </p>
+	 */
+	private ConcurrentHashMap<Integer, FutureTask<Item>> loadingItems;
+
+	/**
+	 * <p>
+	 * The ids of the Items that were being loaded when the Items were asked to
+	 * reload their project data. These Items reload their data as soon as
+	 * they are loaded since they may have been read before the request.
+	 * </p>
+	 */
+	private Set<Integer> pendingReloads;
 
 	/**
 	 * <p>
@@ -141,7 +184,11 @@ public class ItemManager implements ItemListener {
 		// Setup the lists
 		itemBuilderList = new HashMap<String, ItemBuilder>();
 		compositeBuilders = new ArrayList<ICompositeItemBuilder>();
-		itemList = new HashMap<Integer, Item>();
+		itemList = new ConcurrentHashMap<Integer, Item>();
+		unloadedItems = new ConcurrentHashMap<Integer, Identifiable>();
+		loadingItems = new ConcurrentHashMap<Integer, FutureTask<Item>>();
+		pendingReloads = Collections
+				.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
 
 	}
 
@@ -312,7 +359,7 @@ public class ItemManager implements ItemListener {
 
 		// Retrieve the Form if and only if the Item id is greater than zero and
 		// is also in the list of Items.
-		if (itemID > 0 && this.itemList.containsKey(itemID)) {
+		if (itemID > 0 && getItem(itemID) != null) {
 			form = this.itemList.get(itemID).getForm();
 		}
 
@@ -345,7 +392,8 @@ public class ItemManager implements ItemListener {
 						itemBuilderList.values()));
 			}
 			// Get the list of Items and see if any disabled ones can be
-			// re-enabled because this builder is their parent.
+			// re-enabled because this builder is their parent. Items that are
+			// not loaded yet pick up the builder when they are loaded.
 			for (int i = 0; i < itemList.values().size(); i++) {
 				Item item = (Item) itemList.values().toArray()[i];
 				if (!item.isEnabled()
@@ -500,7 +548,7 @@ public class ItemManager implements ItemListener {
 		// Check the id
 		if (itemId > 0) {
 			// Get the Item
-			item = itemList.get(itemId);
+			item = getItem(itemId);
 			if (item != null) {
 				// Set the status if the Item is actually in the map
 				status = item.getStatus();
@@ -584,37 +632,40 @@ public class ItemManager implements ItemListener {
 	 */
 	public void loadItems(IProject projectSpace) {
 
+		// Local Declarations
+		TreeSet<Integer> keys = null;
+
 		// Make sure the persistence provider is available before requesting
 		// information from it.
 		if (provider != null) {
-			// Get all of the Items
-			ArrayList<Item> oldItems = provider.loadItems();
-			// Put all of the Items in to the list if the provider was able to
-			// load anything.
-			if (oldItems != null && !(oldItems.isEmpty())) {
-				// Loop over each Item and load it up
-				for (Item item : oldItems) {
-					// Reconstruct the Item to use the proper subclass by
-					// searching the builders for the builder with the
-					// appropriate name.
-					if (itemBuilderList.containsKey(item.getItemBuilderName())) {
-						ItemBuilder builder = itemBuilderList.get(item
-								.getItemBuilderName());
-						rebuildItem(builder, item, projectSpace);
-					} else {
-						logger.info("ItemManager Message: "
-								+ "Builder not found for " + item.getName()
-								+ " " + item.getId() + " with builder "
-								+ item.getItemBuilderName()
-								+ ". It will be disabled.");
-						// Otherwise just put the Item in the list, but disable
-						// it. It can still be read, just not processed.
-						item.disable(true);
-						itemList.put(item.getId(), item);
+			// Save the project space so that it can be given to Items that
+			// are loaded later
+			loadedProject = projectSpace;
+			if (provider instanceof ILazyPersistenceProvider) {
+				// Only get the headers and load the Items on demand
+				ArrayList<Identifiable> headers = ((ILazyPersistenceProvider) provider)
+						.loadItemHeaders();
+				if (headers != null) {
+					for (Identifiable header : headers) {
+						unloadedItems.put(header.getId(), header);
+					}
+				}
+			} else {
+				// Get all of the Items
+				ArrayList<Item> oldItems = provider.loadItems();
+				// Put all of the Items in to the list if the provider was able
+				// to load anything.
+				if (oldItems != null) {
+					// Loop over each Item and load it up
+					for (Item item : oldItems) {
+						addLoadedItem(item, projectSpace);
 					}
 				}
-				// Get the keys from the map and sort them
-				TreeSet<Integer> keys = new TreeSet<Integer>(itemList.keySet());
+			}
+			// Get the keys from the maps and sort them
+			keys = new TreeSet<Integer>(itemList.keySet());
+			keys.addAll(unloadedItems.keySet());
+			if (!keys.isEmpty()) {
 				// Set the next sequential id such that it is equal to one plus
 				// the last id in the set of Items from the provider. This will
 				// keep any new items from possibly colliding with old ones in
@@ -634,13 +685,141 @@ public class ItemManager implements ItemListener {
 				logger.info("Unable to load items in bulk from "
 						+ "the IPersistenceProvider.");
 			}
-			// Save the project space
-			loadedProject = projectSpace;
+		}
+
+		return;
 
+	}
+
+	/**
+	 * This operation adds an Item that was loaded from the persistence provider
+	 * to the list of Items. The Item is reconstructed to use the proper
+	 * subclass by searching the builders for the builder with the appropriate
+	 * name. If the builder is not available, the Item is added but disabled.
+	 *
+	 * @param item
+	 *            The Item that was loaded.
+	 * @param projectSpace
+	 *            The project space that the Item should use for its work.
+	 */
+	private void addLoadedItem(Item item, IProject projectSpace) {
+
+		if (item == null) {
+			return;
+		}
+
+		if (itemBuilderList.containsKey(item.getItemBuilderName())) {
+			ItemBuilder builder = itemBuilderList
+					.get(item.getItemBuilderName());
+			rebuildItem(builder, item, projectSpace);
+		} else {
+			logger.info("ItemManager Message: " + "Builder not found for "
+					+ item.getName() + " " + item.getId() + " with builder "
+					+ item.getItemBuilderName() + ". It will be disabled.");
+			// Otherwise just put the Item in the list, but disable it. It can
+			// still be read, just not processed.
+			item.disable(true);
+			itemList.put(item.getId(), item);
 		}
 
 		return;
+	}
+
+	/**
+	 * This operation returns the Item with the specified id. If the Item has
+	 * not been loaded from the persistence provider yet, it is loaded now.
+	 * This operation may be called from several threads at once. A thread
+	 * that asks for an Item that is being loaded waits for it instead of
+	 * loading and rebuilding it a second time, but it does not wait for other
+	 * Items.
+	 *
+	 * @param itemId
+	 *            The id of the Item.
+	 * @return The Item or null if there is no Item with that id.
+	 */
+	private Item getItem(final int itemId) {
+
+		// Local Declarations
+		Item item = itemList.get(itemId);
+		FutureTask<Item> task = null, loadingTask = null;
+
+		// Load the Item if it is only known by its header
+		if (item == null && unloadedItems.containsKey(itemId)) {
+			task = new FutureTask<Item>(new Callable<Item>() {
+				@Override
+				public Item call() {
+					return loadItem(itemId);
+				}
+			});
+			// Only the first thread runs the task, the others wait for it
+			loadingTask = loadingItems.putIfAbsent(itemId, task);
+			if (loadingTask == null) {
+				loadingTask = task;
+				task.run();
+			}
+			try {
+				item = loadingTask.get();
+			} catch (InterruptedException e) {
+				logger.error(getClass().getName() + " Exception!", e);
+				Thread.currentThread().interrupt();
+			} catch (ExecutionException e) {
+				logger.error(getClass().getName() + " Exception!", e);
+			}
+		}
+
+		return item;
+	}
+
+	/**
+	 * This operation loads an Item from the persistence provider and moves it
+	 * from the unloaded Items to the list of Items. It is only called by the
+	 * loading task for that Item in getItem().
+	 *
+	 * @param itemId
+	 *            The id of the Item.
+	 * @return The Item or null if it could not be loaded.
+	 */
+	private Item loadItem(int itemId) {
+
+		// Local Declarations
+		Item item = null;
+
+		try {
+			// Check again since another task may have loaded it already
+			item = itemList.get(itemId);
+			if (item == null && unloadedItems.containsKey(itemId)) {
+				logger.info("ItemManager Message: Loading Item " + itemId
+						+ " from the provider.");
+				addLoadedItem(provider.loadItem(itemId), loadedProject);
+				unloadedItems.remove(itemId);
+				item = itemList.get(itemId);
+			}
+		} finally {
+			loadingItems.remove(itemId);
+		}
+
+		// Reload the data if it was requested while the Item was loading
+		if (pendingReloads.remove(itemId) && item != null) {
+			item.reloadProjectData();
+		}
+
+		return item;
+	}
+
+	/**
+	 * This operation directs all of the Items to reload their project data.
+	 * Items that are being loaded are marked first so that they reload their
+	 * data when they are done. Items that are not loaded yet are not touched
+	 * since they read the current data when they are loaded.
+	 */
+	private void reloadLoadedItems() {
 
+		pendingReloads.addAll(loadingItems.keySet());
+		for (Item item : itemList.values()) {
+			item.reloadProjectData();
+		}
+
+		return;
 	}
 
 	/**
@@ -671,6 +850,8 @@ public class ItemManager implements ItemListener {
 		if (provider != null) {
 			logger.info("ItemManager Message: Updating all Items with "
 					+ "Persistence Provider.");
+			// Items that were never loaded have not changed since they were
+			// persisted, so only the loaded Items are updated.
 			for (Item item : itemList.values()) {
 				provider.updateItem(item);
 			}
@@ -704,7 +885,7 @@ public class ItemManager implements ItemListener {
 		// Local Declarations
 		File outputFile = null;
 
-		if (itemList.containsKey(id)) {
+		if (getItem(id) != null) {
 			outputFile = itemList.get(id).getOutputFile();
 		}
 
@@ -736,7 +917,7 @@ public class ItemManager implements ItemListener {
 		FormStatus status = FormStatus.InfoError;
 
 		// Find the item if the id is valid
-		if (itemList.keySet().contains(itemId)) {
+		if (getItem(itemId) != null) {
 			Item item = itemList.get(itemId);
 			// Try to cancel the task. This kills all processes regardless of
 			// name for now.
@@ -756,9 +937,7 @@ public class ItemManager implements ItemListener {
 	public void reloadItemData() {
 
 		// Send a reload signal to all of the Items
-		for (Item item : itemList.values()) {
-			item.reloadProjectData();
-		}
+		reloadLoadedItems();
 
 		return;
 	}
@@ -787,7 +966,7 @@ public class ItemManager implements ItemListener {
 
 		logger.info("Update Message Item Id is " + itemId);
 		// Push the message if possible
-		if (itemList.containsKey(itemId)) {
+		if (getItem(itemId) != null) {
 			// Grab the Item
 			Item messagedItem = itemList.get(itemId);
 			// Post the message
@@ -797,6 +976,37 @@ public class ItemManager implements ItemListener {
 		return retVal;
 	}
 
+	/**
+	 * This operation posts a batch of Messages to a single Item. The Item is
+	 * only looked up once for the whole batch and the Messages are posted in
+	 * order.
+	 *
+	 * @param itemId
+	 *            The id of the Item
+	 * @param messages
+	 *            The Messages for the Item
+	 * @return The number of Messages to which the Item was able to respond
+	 */
+	public int postUpdateMessages(int itemId, List<Message> messages) {
+
+		// Local Declarations
+		int numPosted = 0;
+		Item messagedItem = getItem(itemId);
+
+		logger.debug("Posting " + messages.size()
+				+ " update messages to Item " + itemId);
+		// Push the messages if possible
+		if (messagedItem != null) {
+			for (Message msg : messages) {
+				if (messagedItem.update(msg)) {
+					numPosted++;
+				}
+			}
+		}
+
+		return numPosted;
+	}
+
 	/**
 	 * (non-Javadoc)
 	 *
@@ -810,9 +1020,7 @@ public class ItemManager implements ItemListener {
 		// Direct all of the Items to reload their data
 		logger.info("ItemManager Message: "
 				+ "Reloading all Item project data.");
-		for (Item item : itemList.values()) {
-			item.reloadProjectData();
-		}
+		reloadLoadedItems();
 
 		return;
 	}
@@ -833,10 +1041,16 @@ public class ItemManager implements ItemListener {
 		// Local Declarations
 		ArrayList<Identifiable> items = new ArrayList<Identifiable>();
 
-		// Retrieve the list
+		// Retrieve the list, including the Items that are not loaded yet
 		for (Identifiable i : this.itemList.values()) {
 			items.add(i);
 		}
+		for (Identifiable i : this.unloadedItems.values()) {
+			// Skip Items that were loaded while the list was read
+			if (!itemList.containsKey(i.getId())) {
+				items.add(i);
+			}
+		}
 
 		return items;
 	}
@@ -874,7 +1088,7 @@ public class ItemManager implements ItemListener {
 		id = form.getItemID();
 
 		// Make sure the Id is valid and then find its parent
-		if (itemList.containsKey(id)) {
+		if (getItem(id) != null) {
 			currentItem = itemList.get(id);
 			status = currentItem.submitForm(form);
 		}
@@ -934,7 +1148,7 @@ public class ItemManager implements ItemListener {
 		// Check the Item id and actionName for validity
 		if (itemId > 0 && actionName != null) {
 			// Retrieve the Item from the map if it exists
-			tmpItem = itemList.get(itemId);
+			tmpItem = getItem(itemId);
 			if (tmpItem != null) {
 				status = tmpItem.process(actionName);
 			}
@@ -967,7 +1181,7 @@ public class ItemManager implements ItemListener {
 
 		// Try to delete the Item if and only if the Item's id is greater than
 		// zero and it is in the list of Items and set the return value.
-		if (itemID > 0 && this.itemList.containsKey(itemID)) {
+		if (itemID > 0 && getItem(itemID) != null) {
 			// If the provider exists, delete the Item from the provider
 			if (this.provider != null) {
 				Item item = itemList.get(itemID);
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.csv.test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.ice.csv.CSVParser;
+
+/**
+ * This class times the {@link CSVParser} on a file with several MB of
+ * postprocessor values. It parses the file with one thread and with four and
+ * compares both to reading its lines and converting each value from a String.
+ * It is not part of the test suite and is launched by hand.
+ */
+public class CSVParserBenchmark {
+
+	/**
+	 * The main operation. It writes the file to the system's temporary
+	 * directory and deletes it afterward.
+	 *
+	 * @param args
+	 *            The number of rows to write, optional.
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+
+		// Write a file with several MB of postprocessor values, with the 14
+		// significant digits that MOOSE uses
+		File file = File.createTempFile("CSVParserBenchmark", ".csv");
+		int nRows = (args.length > 0 ? Integer.parseInt(args[0]) : 100000);
+		int nColumns = 5;
+		Random random = new Random(1);
+		FileWriter writer = new FileWriter(file);
+		writer.write("# Postprocessors\ntime,a,b,c,d\n");
+		for (int i = 0; i < nRows; i++) {
+			writer.write(Integer.toString(i));
+			for (int j = 1; j < nColumns; j++) {
+				writer.write(String.format(",%.13e", random.nextDouble()));
+			}
+			writer.write("\n");
+		}
+		writer.close();
+
+		try {
+			// Parse it with one thread and with several
+			long start = System.nanoTime();
+			CSVParser serialParser = new CSVParser(true, 1);
+			serialParser.parse(file);
+			double serialTime = (System.nanoTime() - start) / 1.0e6;
+			start = System.nanoTime();
+			CSVParser parallelParser = new CSVParser(true, 4);
+			parallelParser.parse(file);
+			double parallelTime = (System.nanoTime() - start) / 1.0e6;
+
+			// Read it the way CSVPlot used to
+			start = System.nanoTime();
+			List<Double> values = new ArrayList<Double>();
+			BufferedReader reader = new BufferedReader(new FileReader(file));
+			String line;
+			reader.readLine();
+			reader.readLine();
+			while ((line = reader.readLine()) != null) {
+				for (String value : line.trim().split(",")) {
+					values.add(Double.valueOf(value.trim()));
+				}
+			}
+			reader.close();
+			double stringTime = (System.nanoTime() - start) / 1.0e6;
+
+			System.out.println("CSVParserBenchmark Message: " + file.length()
+					/ 1024 + " KB, one thread = " + serialTime
+					+ " ms, four threads = " + parallelTime
+					+ " ms, Strings = " + stringTime + " ms");
+		} finally {
+			file.delete();
+		}
+
+		return;
+	}
+}
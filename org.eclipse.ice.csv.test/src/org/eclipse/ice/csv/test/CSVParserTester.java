@@ -0,0 +1,227 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.csv.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.ice.csv.CSVParser;
+import org.junit.Test;
+
+/**
+ * This class tests the {@link CSVParser}.
+ */
+public class CSVParserTester {
+
+	/**
+	 * The contents of a small file with comments, a header and white space.
+	 */
+	private static final String contents = "# A comment\n"
+			+ "t, x , y # The header\r\n" + "\n" + "0,1.5,-2e3\r\n"
+			+ "   # An indented comment\n" + "1 ,0.00740898494001999,\n"
+			+ "2,abc,3,4\n" + "3,2.0700000000E-06";
+
+	/**
+	 * Checks that lines are split like they were by String.split().
+	 */
+	@Test
+	public void checkReadLines() {
+
+		List<String[]> lines = CSVParser.readLines(wrap(contents));
+		assertEquals(5, lines.size());
+		assertArrayEquals(new String[] { "t", "x", "y" }, lines.get(0));
+		assertArrayEquals(new String[] { "0", "1.5", "-2e3" }, lines.get(1));
+		assertArrayEquals(new String[] { "1", "0.00740898494001999" },
+				lines.get(2));
+		assertArrayEquals(new String[] { "2", "abc", "3", "4" }, lines.get(3));
+		assertArrayEquals(new String[] { "3", "2.0700000000E-06" },
+				lines.get(4));
+
+		// Empty values are only dropped at the end of a line
+		lines = CSVParser.readLines(wrap(",a,,b,,\n"));
+		assertArrayEquals(new String[] { "", "a", "", "b" }, lines.get(0));
+
+		return;
+	}
+
+	/**
+	 * Checks that the columns and the header are parsed.
+	 */
+	@Test
+	public void checkParse() throws IOException {
+
+		CSVParser parser = new CSVParser(true);
+		assertTrue(parser.parse(wrap(contents)));
+		assertArrayEquals(new String[] { "t", "x", "y" }, parser.getHeader());
+		assertEquals(3, parser.getNumberOfColumns());
+		assertEquals(4, parser.getNumberOfRows());
+		assertArrayEquals(new double[] { 0.0, 1.0, 2.0, 3.0 },
+				parser.getColumn(0), 0.0);
+		// Values that are missing or are not numbers are NaN
+		assertArrayEquals(new double[] { 1.5, 0.00740898494001999,
+				Double.NaN, 2.0700000000E-06 }, parser.getColumn(1), 0.0);
+		assertArrayEquals(new double[] { -2000.0, Double.NaN, 3.0,
+				Double.NaN }, parser.getColumn(2), 0.0);
+
+		// Without a header, the first line is data
+		parser = new CSVParser(false);
+		assertTrue(parser.parse(wrap("1,2\n3,4,5\n")));
+		assertNull(parser.getHeader());
+		assertEquals(2, parser.getNumberOfColumns());
+		assertArrayEquals(new double[] { 2.0, 4.0 }, parser.getColumn(1), 0.0);
+
+		// Empty files have no columns
+		assertTrue(parser.parse(wrap("# Nothing\n\n")));
+		assertEquals(0, parser.getNumberOfColumns());
+		assertEquals(0, parser.getNumberOfRows());
+
+		// Files that do not exist cannot be parsed
+		assertFalse(parser.parse(new File("notAFile.csv")));
+
+		// Contents that are read from a stream are parsed the same way
+		parser = new CSVParser(true);
+		assertTrue(parser.parse(CSVParser.read(new ByteArrayInputStream(
+				contents.getBytes(StandardCharsets.UTF_8)))));
+		assertEquals(3, parser.getNumberOfColumns());
+		assertEquals(4, parser.getNumberOfRows());
+
+		return;
+	}
+
+	/**
+	 * Checks that numbers are parsed exactly like Double.parseDouble() does.
+	 */
+	@Test
+	public void checkNumbers() {
+
+		// Write random numbers in several formats
+		Random random = new Random(1);
+		StringBuilder builder = new StringBuilder();
+		List<String> numbers = new ArrayList<String>();
+		for (int i = 0; i < 10000; i++) {
+			double number = (random.nextDouble() - 0.5)
+					* Math.pow(10.0, random.nextInt(40) - 20);
+			numbers.add(Double.toString(number));
+			numbers.add(String.format("%.6e", number));
+			numbers.add(String.format("%.10f", number));
+			numbers.add(Long.toString(random.nextInt()));
+		}
+		numbers.add("-0.0");
+		numbers.add("Infinity");
+		numbers.add("1e400");
+		numbers.add("+.5");
+		for (String number : numbers) {
+			builder.append(number).append('\n');
+		}
+
+		CSVParser parser = new CSVParser(false);
+		assertTrue(parser.parse(wrap(builder.toString())));
+		double[] column = parser.getColumn(0);
+		assertEquals(numbers.size(), column.length);
+		for (int i = 0; i < column.length; i++) {
+			assertEquals(numbers.get(i), Double.doubleToLongBits(Double
+					.parseDouble(numbers.get(i))), Double
+					.doubleToLongBits(column[i]));
+		}
+
+		return;
+	}
+
+	/**
+	 * Checks that a file that is split into several chunks is parsed the same
+	 * way with several threads and with one, and that the mapped and stream
+	 * buffers give the same values. The timing of large files is compared in
+	 * {@link CSVParserBenchmark}.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void checkMultipleChunks() throws IOException {
+
+		// Write a file that is just large enough for two chunks of 1 MB, with
+		// the 14 significant digits that MOOSE uses
+		String separator = System.getProperty("file.separator");
+		File file = new File(System.getProperty("user.home") + separator
+				+ "ICETests" + separator + "CSVParser.csv");
+		int nRows = 25000, nColumns = 5;
+		Random random = new Random(1);
+		FileWriter writer = new FileWriter(file);
+		writer.write("# Postprocessors\ntime,a,b,c,d\n");
+		for (int i = 0; i < nRows; i++) {
+			writer.write(Integer.toString(i));
+			for (int j = 1; j < nColumns; j++) {
+				writer.write(String.format(",%.13e", random.nextDouble()));
+			}
+			writer.write("\n");
+		}
+		writer.close();
+
+		try {
+			assertTrue(file.length() > 2 << 20);
+
+			// Parse it with one thread and with several
+			CSVParser serialParser = new CSVParser(true, 1);
+			assertTrue(serialParser.parse(file));
+			CSVParser parallelParser = new CSVParser(true, 4);
+			assertTrue(parallelParser.parse(file));
+			assertEquals(nRows, serialParser.getNumberOfRows());
+			assertEquals(nRows, parallelParser.getNumberOfRows());
+			for (int j = 0; j < nColumns; j++) {
+				assertArrayEquals(serialParser.getColumn(j),
+						parallelParser.getColumn(j), 0.0);
+			}
+
+			// The mapped file and the stream give the same values
+			CSVParser mappedParser = new CSVParser(true, 4);
+			assertTrue(mappedParser.parse(CSVParser.map(file)));
+			CSVParser streamParser = new CSVParser(true, 4);
+			assertTrue(streamParser.parse(CSVParser.read(new FileInputStream(
+					file))));
+			for (int j = 0; j < nColumns; j++) {
+				assertArrayEquals(serialParser.getColumn(j),
+						mappedParser.getColumn(j), 0.0);
+				assertArrayEquals(serialParser.getColumn(j),
+						streamParser.getColumn(j), 0.0);
+			}
+		} finally {
+			file.delete();
+		}
+
+		return;
+	}
+
+	/**
+	 * Puts a String in a buffer.
+	 *
+	 * @param string
+	 *            the String
+	 * @return the buffer
+	 */
+	private ByteBuffer wrap(String string) {
+		return ByteBuffer.wrap(string.getBytes(StandardCharsets.UTF_8));
+	}
+}
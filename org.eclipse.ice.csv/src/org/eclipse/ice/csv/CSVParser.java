@@ -0,0 +1,717 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.csv;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class parses CSV files that hold columns of numbers, like the
+ * postprocessor files written by MOOSE. The numbers are parsed straight from
+ * the bytes of the file into a double array for each column. Large files are
+ * memory-mapped and split into chunks of lines that are parsed at the same
+ * time.
+ *
+ * The lines are handled the same way by all of the CSV readers in ICE. Lines
+ * that start with "#" are comments and are skipped, and everything after a "#"
+ * in a line is ignored. The rest of the line is split on commas and each value
+ * is trimmed. Blank lines are skipped. If the file has a header, it is the
+ * first line that is not skipped and it sets the number of columns. Otherwise,
+ * the first line of data sets it. Extra values in a line are ignored, and
+ * missing values or values that are not numbers are NaN.
+ */
+public class CSVParser {
+
+	/**
+	 * Logger for handling event messages and other information.
+	 */
+	private static final Logger logger = LoggerFactory
+			.getLogger(CSVParser.class);
+
+	/**
+	 * The smallest number of bytes that is worth parsing in its own thread.
+	 */
+	private static final int minChunkSize = 1 << 20;
+
+	/**
+	 * The smallest file that is memory-mapped instead of read into memory.
+	 */
+	private static final long minMapSize = 1 << 22;
+
+	/**
+	 * The powers of ten that are exactly represented by a double.
+	 */
+	private static final double[] powersOfTen = { 1e0, 1e1, 1e2, 1e3, 1e4,
+			1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+			1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	/**
+	 * Whether or not the files have a header.
+	 */
+	private final boolean hasHeader;
+
+	/**
+	 * The largest number of threads used to parse a file.
+	 */
+	private final int poolSize;
+
+	/**
+	 * The header of the last file, or null if it does not have one.
+	 */
+	private String[] header;
+
+	/**
+	 * The columns of the last file and the number of rows in them.
+	 */
+	private double[][] columns = new double[0][];
+	private int nRows;
+
+	/**
+	 * The constructor. The files are parsed with as many threads as there are
+	 * processors.
+	 *
+	 * @param hasHeader
+	 *            Whether or not the first line of the files is a header.
+	 */
+	public CSVParser(boolean hasHeader) {
+		this(hasHeader, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * The constructor.
+	 *
+	 * @param hasHeader
+	 *            Whether or not the first line of the files is a header.
+	 * @param poolSize
+	 *            The largest number of threads used to parse a file.
+	 */
+	public CSVParser(boolean hasHeader, int poolSize) {
+		this.hasHeader = hasHeader;
+		this.poolSize = Math.max(1, poolSize);
+	}
+
+	/**
+	 * Reads the contents of a local file. Files smaller than
+	 * {@link #minMapSize} are read into memory and larger ones are
+	 * memory-mapped.
+	 *
+	 * @param file
+	 *            The file.
+	 * @return A buffer with the contents of the file.
+	 * @throws IOException
+	 *             If the file cannot be read or is larger than 2 GB.
+	 */
+	public static ByteBuffer read(File file) throws IOException {
+		if (file.length() < minMapSize) {
+			return read(new FileInputStream(file));
+		}
+		return map(file);
+	}
+
+	/**
+	 * Memory-maps a file for reading. The mapping lasts until the buffer is
+	 * garbage collected, so it should not be used for files that another
+	 * process may still be writing. Reading past the end of a file that was
+	 * truncated after it was mapped throws an {@link InternalError}, and on
+	 * Windows the file cannot be truncated or rewritten while it is mapped.
+	 *
+	 * @param file
+	 *            The file.
+	 * @return A read-only buffer with the contents of the file.
+	 * @throws IOException
+	 *             If the file cannot be read or is larger than 2 GB.
+	 */
+	public static ByteBuffer map(File file) throws IOException {
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+		try {
+			// The mapping stays valid after the channel is closed
+			FileChannel channel = randomAccessFile.getChannel();
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0,
+					channel.size());
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+
+	/**
+	 * Reads the contents of a file that is not on the local file system, or
+	 * that should not be mapped, into memory. The stream is closed afterward.
+	 *
+	 * @param input
+	 *            The stream of the file.
+	 * @return A buffer with the contents of the file.
+	 * @throws IOException
+	 *             If the stream cannot be read.
+	 */
+	public static ByteBuffer read(InputStream input) throws IOException {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		try {
+			byte[] bytes = new byte[8192];
+			int count;
+			while ((count = input.read(bytes)) > 0) {
+				output.write(bytes, 0, count);
+			}
+		} finally {
+			input.close();
+		}
+		return ByteBuffer.wrap(output.toByteArray());
+	}
+
+	/**
+	 * Splits the lines of a CSV file into their values without converting
+	 * them. Comments and blank lines are skipped, and empty values at the end
+	 * of a line are dropped like {@link String#split(String)} does.
+	 *
+	 * @param buffer
+	 *            The contents of the file, from its position to its limit.
+	 * @return The values of each line.
+	 */
+	public static List<String[]> readLines(ByteBuffer buffer) {
+
+		List<String[]> lines = new ArrayList<String[]>();
+		int[] range = new int[2];
+
+		int end = buffer.limit();
+		int lineStart = buffer.position();
+		while (lineStart < end) {
+			int lineEnd = findLineEnd(buffer, lineStart, end);
+			if (findContent(buffer, lineStart, lineEnd, range)) {
+				lines.add(split(buffer, range[0], range[1]));
+			}
+			lineStart = lineEnd + 1;
+		}
+
+		return lines;
+	}
+
+	/**
+	 * Parses a CSV file. Large files are memory-mapped, see
+	 * {@link #map(File)}.
+	 *
+	 * @param file
+	 *            The file.
+	 * @return True if the file was parsed, false if it could not be read.
+	 */
+	public boolean parse(File file) {
+		try {
+			return parse(read(file));
+		} catch (IOException e) {
+			logger.error(getClass().getName()
+					+ " Exception! Could not read in data from file: "
+					+ file.getName() + ".", e);
+			clear();
+			return false;
+		}
+	}
+
+	/**
+	 * Parses the contents of a CSV file.
+	 *
+	 * @param buffer
+	 *            The contents of the file, from its position to its limit.
+	 * @return True if the contents were parsed, false otherwise.
+	 */
+	public boolean parse(ByteBuffer buffer) {
+
+		clear();
+
+		// Find the first line that is not skipped
+		int[] range = new int[2];
+		int end = buffer.limit();
+		int lineStart = buffer.position();
+		int lineEnd = lineStart;
+		boolean found = false;
+		while (!found && lineStart < end) {
+			lineEnd = findLineEnd(buffer, lineStart, end);
+			found = findContent(buffer, lineStart, lineEnd, range);
+			if (!found) {
+				lineStart = lineEnd + 1;
+			}
+		}
+		if (!found) {
+			return true;
+		}
+
+		// Get the number of columns from it and read the header
+		String[] names = split(buffer, range[0], range[1]);
+		int nColumns = names.length;
+		int dataStart = lineStart;
+		if (hasHeader) {
+			header = names;
+			dataStart = lineEnd + 1;
+		}
+
+		// Split the data into chunks that end at the end of a line
+		int size = Math.max(0, end - dataStart);
+		int nChunks = Math.max(1, Math.min(poolSize, size / minChunkSize));
+		List<Chunk> chunks = new ArrayList<Chunk>(nChunks);
+		int chunkStart = dataStart;
+		for (int i = 1; i <= nChunks && chunkStart < end; i++) {
+			int chunkEnd = end;
+			if (i < nChunks) {
+				int split = dataStart + (int) ((long) size * i / nChunks);
+				chunkEnd = Math.min(end, findLineEnd(buffer,
+						Math.max(split, chunkStart), end) + 1);
+			}
+			chunks.add(new Chunk(buffer.duplicate(), chunkStart, chunkEnd,
+					nColumns));
+			chunkStart = chunkEnd;
+		}
+
+		// Parse the chunks. Don't bother with threads for a single chunk.
+		if (chunks.size() <= 1) {
+			for (Chunk chunk : chunks) {
+				chunk.call();
+			}
+		} else {
+			ExecutorService executor = Executors.newFixedThreadPool(chunks
+					.size());
+			try {
+				for (Future<Chunk> future : executor.invokeAll(chunks)) {
+					future.get();
+				}
+			} catch (InterruptedException | ExecutionException e) {
+				logger.error(getClass().getName() + " Exception!", e);
+				clear();
+				return false;
+			} finally {
+				executor.shutdown();
+			}
+		}
+
+		// Put the chunks together
+		for (Chunk chunk : chunks) {
+			nRows += chunk.nRows;
+		}
+		columns = new double[nColumns][nRows];
+		int row = 0;
+		for (Chunk chunk : chunks) {
+			for (int j = 0; j < nColumns; j++) {
+				System.arraycopy(chunk.columns[j], 0, columns[j], row,
+						chunk.nRows);
+			}
+			row += chunk.nRows;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Gets the header of the last file.
+	 *
+	 * @return The names of the columns, or null if the files do not have a
+	 *         header or the last file was empty.
+	 */
+	public String[] getHeader() {
+		return header;
+	}
+
+	/**
+	 * Gets the number of columns in the last file.
+	 *
+	 * @return The number of columns.
+	 */
+	public int getNumberOfColumns() {
+		return columns.length;
+	}
+
+	/**
+	 * Gets the number of rows of data in the last file.
+	 *
+	 * @return The number of rows.
+	 */
+	public int getNumberOfRows() {
+		return nRows;
+	}
+
+	/**
+	 * Gets a column of the last file. The array is not copied.
+	 *
+	 * @param index
+	 *            The index of the column.
+	 * @return The values in the column.
+	 */
+	public double[] getColumn(int index) {
+		return columns[index];
+	}
+
+	/**
+	 * Drops the data of the last file.
+	 */
+	private void clear() {
+		header = null;
+		columns = new double[0][];
+		nRows = 0;
+	}
+
+	/**
+	 * Finds the end of a line.
+	 *
+	 * @param buffer
+	 *            The contents of the file.
+	 * @param start
+	 *            The start of the line.
+	 * @param end
+	 *            The end of the contents.
+	 * @return The index of the new line character, or the end.
+	 */
+	private static int findLineEnd(ByteBuffer buffer, int start, int end) {
+		int i = start;
+		while (i < end && buffer.get(i) != '\n') {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Finds the values in a line without the comment and the white space
+	 * around them.
+	 *
+	 * @param buffer
+	 *            The contents of the file.
+	 * @param start
+	 *            The start of the line.
+	 * @param end
+	 *            The end of the line.
+	 * @param range
+	 *            An array for the first and the last index of the values.
+	 * @return False if there are no values in the line.
+	 */
+	private static boolean findContent(ByteBuffer buffer, int start, int end,
+			int[] range) {
+		// Lines that start with the comment symbol are skipped, otherwise the
+		// line is clipped at it
+		int i = start;
+		while (i < end && buffer.get(i) != '#') {
+			i++;
+		}
+		return trim(buffer, start, i, range);
+	}
+
+	/**
+	 * Finds the next comma.
+	 *
+	 * @param buffer
+	 *            The contents of the file.
+	 * @param start
+	 *            The index to start at.
+	 * @param last
+	 *            The last index to check.
+	 * @return The index of the comma, or the index after the last one.
+	 */
+	private static int findComma(ByteBuffer buffer, int start, int last) {
+		int i = start;
+		while (i <= last && buffer.get(i) != ',') {
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * Finds the first and the last character that is not white space.
+	 *
+	 * @param buffer
+	 *            The contents of the file.
+	 * @param start
+	 *            The first index.
+	 * @param end
+	 *            The index after the last one.
+	 * @param range
+	 *            An array for the first and the last index.
+	 * @return False if there is only white space.
+	 */
+	private static boolean trim(ByteBuffer buffer, int start, int end,
+			int[] range) {
+		while (start < end && buffer.get(start) <= ' '
+				&& buffer.get(start) >= 0) {
+			start++;
+		}
+		while (end > start && buffer.get(end - 1) <= ' '
+				&& buffer.get(end - 1) >= 0) {
+			end--;
+		}
+		range[0] = start;
+		range[1] = end - 1;
+		return start < end;
+	}
+
+	/**
+	 * Splits the values in a line on commas. Empty values at the end of the
+	 * line are dropped like {@link String#split(String)} does.
+	 *
+	 * @param buffer
+	 *            The contents of the file.
+	 * @param first
+	 *            The first index of the values.
+	 * @param last
+	 *            The last index of the values.
+	 * @return The trimmed values.
+	 */
+	private static String[] split(ByteBuffer buffer, int first, int last) {
+		List<String> values = new ArrayList<String>();
+		int valueStart = first;
+		while (valueStart <= last) {
+			int valueEnd = findComma(buffer, valueStart, last);
+			values.add(decode(buffer, valueStart, valueEnd));
+			valueStart = valueEnd + 1;
+		}
+		int size = values.size();
+		while (size > 0 && values.get(size - 1).isEmpty()) {
+			size--;
+		}
+		return values.subList(0, size).toArray(new String[size]);
+	}
+
+	/**
+	 * Decodes a trimmed value as UTF-8.
+	 *
+	 * @param buffer
+	 *            The contents of the file.
+	 * @param start
+	 *            The first index.
+	 * @param end
+	 *            The index after the last one.
+	 * @return The value.
+	 */
+	private static String decode(ByteBuffer buffer, int start, int end) {
+		int[] range = new int[2];
+		if (!trim(buffer, start, end, range)) {
+			return "";
+		}
+		byte[] bytes = new byte[range[1] - range[0] + 1];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = buffer.get(range[0] + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Parses the lines between two indices into columns.
+	 */
+	private static class Chunk implements Callable<Chunk> {
+
+		/**
+		 * The contents of the file. Each chunk has its own view of it.
+		 */
+		private final ByteBuffer buffer;
+
+		/**
+		 * The start of the first line and the end of the last one.
+		 */
+		private final int start, end;
+
+		/**
+		 * The columns and the number of rows in them.
+		 */
+		private final double[][] columns;
+		private int nRows;
+
+		/**
+		 * A buffer for values that are not parsed by
+		 * {@link #parseDouble(int, int)}.
+		 */
+		private char[] chars = new char[32];
+
+		/**
+		 * The constructor.
+		 *
+		 * @param buffer
+		 *            The contents of the file.
+		 * @param start
+		 *            The start of the first line.
+		 * @param end
+		 *            The end of the last line.
+		 * @param nColumns
+		 *            The number of columns.
+		 */
+		private Chunk(ByteBuffer buffer, int start, int end, int nColumns) {
+			this.buffer = buffer;
+			this.start = start;
+			this.end = end;
+			// Guess the number of rows from the size of a short number
+			int capacity = Math.max(16, (end - start)
+					/ (Math.max(1, nColumns) * 8));
+			columns = new double[nColumns][capacity];
+		}
+
+		@Override
+		public Chunk call() {
+			int[] range = new int[2];
+			int[] value = new int[2];
+			int nColumns = columns.length;
+
+			int lineStart = start;
+			while (lineStart < end) {
+				int lineEnd = findLineEnd(buffer, lineStart, end);
+				if (findContent(buffer, lineStart, lineEnd, range)) {
+					// Make room for the row
+					if (nColumns > 0 && nRows == columns[0].length) {
+						for (int j = 0; j < nColumns; j++) {
+							double[] column = new double[nRows * 2];
+							System.arraycopy(columns[j], 0, column, 0, nRows);
+							columns[j] = column;
+						}
+					}
+					// Parse the values, which are NaN if they are missing
+					int valueStart = range[0];
+					for (int j = 0; j < nColumns; j++) {
+						double number = Double.NaN;
+						if (valueStart <= range[1]) {
+							int valueEnd = findComma(buffer, valueStart,
+									range[1]);
+							if (trim(buffer, valueStart, valueEnd, value)) {
+								number = parseDouble(value[0], value[1] + 1);
+							}
+							valueStart = valueEnd + 1;
+						}
+						columns[j][nRows] = number;
+					}
+					nRows++;
+				}
+				lineStart = lineEnd + 1;
+			}
+
+			return this;
+		}
+
+		/**
+		 * Parses a number. Numbers with at most 15 significant digits and
+		 * small exponents are computed directly from their digits, which is
+		 * exact because the digits and the power of ten are both exact
+		 * doubles. Other numbers are parsed by
+		 * {@link Double#parseDouble(String)}.
+		 *
+		 * @param first
+		 *            The first index of the number.
+		 * @param end
+		 *            The index after the number.
+		 * @return The number, or NaN if it is not a number.
+		 */
+		private double parseDouble(int first, int end) {
+
+			int i = first;
+			byte c = buffer.get(i);
+			boolean negative = c == '-';
+			if (negative || c == '+') {
+				i++;
+			}
+
+			// Read the digits before and after the decimal point
+			long mantissa = 0;
+			int nDigits = 0, exponent = 0;
+			boolean hasDigits = false, isFraction = false;
+			for (; i < end; i++) {
+				c = buffer.get(i);
+				if (c >= '0' && c <= '9') {
+					hasDigits = true;
+					if (isFraction) {
+						exponent--;
+					}
+					if (mantissa != 0 || c != '0') {
+						mantissa = mantissa * 10 + (c - '0');
+						if (++nDigits > 15) {
+							return parseSlowly(first, end);
+						}
+					}
+				} else if (c == '.' && !isFraction) {
+					isFraction = true;
+				} else {
+					break;
+				}
+			}
+			if (!hasDigits) {
+				return parseSlowly(first, end);
+			}
+
+			// Read the exponent
+			if (i < end && (buffer.get(i) == 'e' || buffer.get(i) == 'E')) {
+				i++;
+				boolean negativeExponent = false;
+				if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+					negativeExponent = buffer.get(i) == '-';
+					i++;
+				}
+				int power = 0;
+				int exponentStart = i;
+				for (; i < end && (c = buffer.get(i)) >= '0' && c <= '9'; i++) {
+					if (power < 10000) {
+						power = power * 10 + (c - '0');
+					}
+				}
+				if (i == exponentStart) {
+					return parseSlowly(first, end);
+				}
+				exponent += negativeExponent ? -power : power;
+			}
+
+			// Anything else is left to the slow path
+			if (i != end) {
+				return parseSlowly(first, end);
+			}
+
+			double number;
+			if (mantissa == 0) {
+				number = 0.0;
+			} else if (exponent >= 0 && exponent <= 22) {
+				number = mantissa * powersOfTen[exponent];
+			} else if (exponent < 0 && exponent >= -22) {
+				number = mantissa / powersOfTen[-exponent];
+			} else {
+				return parseSlowly(first, end);
+			}
+
+			return negative ? -number : number;
+		}
+
+		/**
+		 * Parses a number with {@link Double#parseDouble(String)}.
+		 *
+		 * @param first
+		 *            The first index of the number.
+		 * @param end
+		 *            The index after the number.
+		 * @return The number, or NaN if it is not a number.
+		 */
+		private double parseSlowly(int first, int end) {
+			int length = end - first;
+			if (chars.length < length) {
+				chars = new char[length];
+			}
+			for (int i = 0; i < length; i++) {
+				chars[i] = (char) (buffer.get(first + i) & 0xff);
+			}
+			try {
+				return Double.parseDouble(new String(chars, 0, length));
+			} catch (NumberFormatException e) {
+				return Double.NaN;
+			}
+		}
+	}
+}
@@ -16,6 +16,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -224,6 +225,81 @@ public class DataComponentTester {
 
 	}
 
+	/**
+	 * <p>
+	 * This operation checks that Entries are found by name after they are
+	 * added, renamed, deleted and copied. Entry names are not unique, so it
+	 * also checks that the first Entry with a name is returned and that all of
+	 * the Entries with a name are deleted.
+	 * </p>
+	 */
+	@Test
+	public void checkIndexedLookup() {
+
+		// Local Declarations
+		Entry first = new Entry(), second = new Entry(), third = new Entry();
+		first.setName("variable");
+		second.setName("variable");
+		third.setName("function");
+
+		// Add the Entries
+		dataComponent = new DataComponent();
+		dataComponent.addEntry(first);
+		dataComponent.addEntry(second);
+		dataComponent.addEntry(third);
+		assertTrue(dataComponent.contains("variable"));
+		assertEquals(first, dataComponent.retrieveEntry("variable"));
+		assertEquals(third, dataComponent.retrieveEntry("function"));
+		assertNull(dataComponent.retrieveEntry("block"));
+
+		// Renaming an Entry must update the lookup
+		first.setName("block");
+		assertEquals(first, dataComponent.retrieveEntry("block"));
+		assertEquals(second, dataComponent.retrieveEntry("variable"));
+
+		// Delete both Entries with the same name, even though they are next to
+		// each other
+		second.setName("block");
+		dataComponent.deleteEntry("block");
+		assertFalse(dataComponent.contains("block"));
+		assertEquals(1, dataComponent.retrieveAllEntries().size());
+		assertEquals(third, dataComponent.retrieveEntry("function"));
+
+		// Changing the list directly must be noticed too
+		dataComponent.retrieveAllEntries().remove(0);
+		dataComponent.addEntry(first);
+		assertNull(dataComponent.retrieveEntry("function"));
+		assertEquals(first, dataComponent.retrieveEntry("block"));
+
+		// Even if an Entry is replaced in place
+		dataComponent.retrieveAllEntries().set(0, third);
+		assertEquals(third, dataComponent.retrieveEntry("function"));
+		assertNull(dataComponent.retrieveEntry("block"));
+		dataComponent.retrieveAllEntries().set(0, first);
+		assertEquals(first, dataComponent.retrieveEntry("block"));
+
+		// Copying another Entry into an Entry renames it
+		Entry renamed = new Entry();
+		renamed.setName("renamed");
+		dataComponent.addEntry(renamed);
+		assertEquals(renamed, dataComponent.retrieveEntry("renamed"));
+		renamed.copy(third);
+		assertNull(dataComponent.retrieveEntry("renamed"));
+		assertEquals(renamed, dataComponent.retrieveEntry("function"));
+		dataComponent.deleteEntry("function");
+
+		// Copies must be indexed and notice renamed Entries
+		DataComponent copy = (DataComponent) dataComponent.clone();
+		Entry copiedEntry = copy.retrieveEntry("block");
+		assertNotNull(copiedEntry);
+		copiedEntry.setName("copy");
+		assertNull(copy.retrieveEntry("block"));
+		assertEquals(copiedEntry, copy.retrieveEntry("copy"));
+		assertEquals(first, dataComponent.retrieveEntry("block"));
+
+		return;
+	}
+
 	/**
 	 * <p>
 	 * This operation checks the ability of the DataComponent to update its
@@ -0,0 +1,144 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+
+import org.eclipse.ice.datastructures.ICEObject.ICEObject;
+import org.eclipse.ice.datastructures.jaxbclassprovider.JAXBContextRegistry;
+import org.junit.Test;
+
+/**
+ * This class is responsible for testing the JAXBContextRegistry. It checks that
+ * contexts are cached by class set and that (un)marshallers are reused by the
+ * same thread. It also compares the throughput of cached and uncached
+ * round-trips of the SimpleJAXBTestClass.
+ */
+public class JAXBContextRegistryTester {
+
+	/**
+	 * This operation checks that contexts are cached and shared.
+	 */
+	@Test
+	public void checkContexts() throws JAXBException {
+
+		ArrayList<Class> classList = new ArrayList<Class>();
+		classList.add(SimpleJAXBTestClass.class);
+		classList.add(ICEObject.class);
+
+		// The order of the classes should not matter
+		JAXBContext context = JAXBContextRegistry.getContext(classList);
+		assertSame(context, JAXBContextRegistry.getContext(ICEObject.class,
+				SimpleJAXBTestClass.class));
+		assertNotSame(context,
+				JAXBContextRegistry.getContext(SimpleJAXBTestClass.class));
+
+		// The marshallers should be reused by this thread
+		Marshaller marshaller = JAXBContextRegistry.getMarshaller(context,
+				true);
+		assertSame(marshaller, JAXBContextRegistry.getMarshaller(context,
+				false));
+		assertEquals(Boolean.FALSE,
+				marshaller.getProperty(Marshaller.JAXB_FORMATTED_OUTPUT));
+		Unmarshaller unmarshaller = JAXBContextRegistry
+				.getUnmarshaller(context);
+		assertSame(unmarshaller,
+				JAXBContextRegistry.getUnmarshaller(context));
+
+		// Clearing the cache should force a new context
+		JAXBContextRegistry.clear();
+		assertEquals(0, JAXBContextRegistry.size());
+		assertNotSame(context, JAXBContextRegistry.getContext(classList));
+
+		return;
+	}
+
+	/**
+	 * This operation compares the time needed to round-trip an object through
+	 * XML with and without the registry. The results are printed so that they
+	 * can be compared between builds, but they are not checked since they
+	 * depend on the load of the machine.
+	 */
+	@Test
+	public void checkThroughput() throws JAXBException {
+
+		int iterations = 200;
+		long uncachedTime, cachedTime, start;
+		SimpleJAXBTestClass testObject = new SimpleJAXBTestClass();
+		testObject.setInt(42);
+
+		// Round-trip with a new context every time
+		start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			JAXBContext context = JAXBContext
+					.newInstance(SimpleJAXBTestClass.class);
+			roundTrip(testObject, context.createMarshaller(),
+					context.createUnmarshaller());
+		}
+		uncachedTime = System.nanoTime() - start;
+
+		// Round-trip with the registry, which should hand out the same
+		// context every time
+		JAXBContext cachedContext = JAXBContextRegistry
+				.getContext(SimpleJAXBTestClass.class);
+		start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			JAXBContext context = JAXBContextRegistry
+					.getContext(SimpleJAXBTestClass.class);
+			assertSame(cachedContext, context);
+			roundTrip(testObject,
+					JAXBContextRegistry.getMarshaller(context, false),
+					JAXBContextRegistry.getUnmarshaller(context));
+		}
+		cachedTime = System.nanoTime() - start;
+
+		System.out.println("JAXBContextRegistryTester Message: "
+				+ "round-trips/s uncached = "
+				+ (iterations * 1.0e9 / uncachedTime) + ", cached = "
+				+ (iterations * 1.0e9 / cachedTime));
+
+		return;
+	}
+
+	/**
+	 * This operation writes an object to XML and reads it back.
+	 *
+	 * @param object
+	 *            The object to write.
+	 * @param marshaller
+	 *            The marshaller to use.
+	 * @param unmarshaller
+	 *            The unmarshaller to use.
+	 */
+	private void roundTrip(SimpleJAXBTestClass object, Marshaller marshaller,
+			Unmarshaller unmarshaller) throws JAXBException {
+
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		marshaller.marshal(object, outputStream);
+		SimpleJAXBTestClass readObject = (SimpleJAXBTestClass) unmarshaller
+				.unmarshal(new ByteArrayInputStream(outputStream
+						.toByteArray()));
+		assertEquals(object.getInt(), readObject.getInt());
+
+		return;
+	}
+}
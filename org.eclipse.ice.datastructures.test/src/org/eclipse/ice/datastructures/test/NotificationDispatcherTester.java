@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.ice.datastructures.ICEObject.ICEObject;
+import org.eclipse.ice.datastructures.ICEObject.IUpdateable;
+import org.eclipse.ice.datastructures.ICEObject.IUpdateableListener;
+import org.eclipse.ice.datastructures.ICEObject.NotificationDispatcher;
+import org.junit.Test;
+
+/**
+ * This class is responsible for testing the NotificationDispatcher. It checks
+ * that notifications are delivered, that notifications from one source are
+ * merged and never delivered concurrently, and that the counters are updated.
+ */
+public class NotificationDispatcherTester {
+
+	/**
+	 * This operation checks that a notification posted to the dispatcher is
+	 * delivered to every listener and that the counters reflect it.
+	 */
+	@Test
+	public void checkDelivery() throws InterruptedException {
+
+		NotificationDispatcher dispatcher = new NotificationDispatcher(2, 16,
+				Executors.defaultThreadFactory());
+		ICEObject source = new ICEObject();
+		final CountDownLatch latch = new CountDownLatch(2);
+		ArrayList<IUpdateableListener> listeners = new ArrayList<IUpdateableListener>();
+
+		// Add two listeners that count down the latch
+		for (int i = 0; i < 2; i++) {
+			listeners.add(new IUpdateableListener() {
+				@Override
+				public void update(IUpdateable component) {
+					latch.countDown();
+				}
+			});
+		}
+
+		// Post the update and wait for it
+		dispatcher.post(source, listeners);
+		assertTrue(latch.await(2, TimeUnit.SECONDS));
+		assertEquals(1, dispatcher.getPostedCount());
+		assertEquals(1, dispatcher.getDispatchedCount());
+		assertEquals(0, dispatcher.getDroppedCount());
+		assertTrue(dispatcher.getMaxLatency() >= dispatcher
+				.getAverageLatency());
+
+		// Null arguments should be ignored
+		dispatcher.post(null, listeners);
+		dispatcher.post(source, null);
+		assertEquals(1, dispatcher.getPostedCount());
+
+		// A listener that fails is counted as a failure, not as a drop
+		final CountDownLatch failLatch = new CountDownLatch(1);
+		ArrayList<IUpdateableListener> failingListeners = new ArrayList<IUpdateableListener>();
+		failingListeners.add(new IUpdateableListener() {
+			@Override
+			public void update(IUpdateable component) {
+				failLatch.countDown();
+				throw new IllegalStateException("Failing listener");
+			}
+		});
+		dispatcher.post(new ICEObject(), failingListeners);
+		assertTrue(failLatch.await(2, TimeUnit.SECONDS));
+		for (int i = 0; i < 40 && dispatcher.getQueueDepth() > 0; i++) {
+			Thread.sleep(50);
+		}
+		assertEquals(1, dispatcher.getFailedCount());
+		assertEquals(0, dispatcher.getDroppedCount());
+
+		dispatcher.shutdown();
+
+		return;
+	}
+
+	/**
+	 * This operation checks that a burst of notifications from one source is
+	 * merged and that the listeners of that source are never updated
+	 * concurrently.
+	 */
+	@Test
+	public void checkCoalescing() throws InterruptedException {
+
+		final NotificationDispatcher dispatcher = new NotificationDispatcher(4,
+				16, Executors.defaultThreadFactory());
+		ICEObject source = new ICEObject();
+		final AtomicInteger updates = new AtomicInteger();
+		final AtomicBoolean inUpdate = new AtomicBoolean(false);
+		final AtomicBoolean overlapped = new AtomicBoolean(false);
+		ArrayList<IUpdateableListener> listeners = new ArrayList<IUpdateableListener>();
+
+		// Use a long window so that the whole burst lands in it
+		dispatcher.setCoalescingWindow(200);
+		assertEquals(200, dispatcher.getCoalescingWindow());
+
+		listeners.add(new IUpdateableListener() {
+			@Override
+			public void update(IUpdateable component) {
+				if (!inUpdate.compareAndSet(false, true)) {
+					overlapped.set(true);
+				}
+				updates.incrementAndGet();
+				inUpdate.set(false);
+			}
+		});
+
+		// Post a burst of updates
+		for (int i = 0; i < 1000; i++) {
+			dispatcher.post(source, listeners);
+		}
+
+		// Wait for everything to drain
+		for (int i = 0; i < 40 && dispatcher.getQueueDepth() > 0; i++) {
+			Thread.sleep(50);
+		}
+		assertEquals(0, dispatcher.getQueueDepth());
+
+		// The burst should have been merged into far fewer deliveries
+		assertTrue(updates.get() >= 1);
+		assertTrue(updates.get() < 1000);
+		assertEquals(1000, dispatcher.getPostedCount());
+		assertEquals(1000 - updates.get(), dispatcher.getMergedCount());
+		assertFalse(overlapped.get());
+
+		dispatcher.shutdown();
+
+		return;
+	}
+
+	/**
+	 * This operation checks that notifications that do not fit in a saturated
+	 * worker pool are still delivered, and never on the posting thread.
+	 */
+	@Test
+	public void checkSaturation() throws InterruptedException {
+
+		// One worker and one queue slot fill up with two sources
+		NotificationDispatcher dispatcher = new NotificationDispatcher(1, 1,
+				Executors.defaultThreadFactory());
+		final CountDownLatch blocker = new CountDownLatch(1);
+		final CountDownLatch delivered = new CountDownLatch(5);
+		final Thread poster = Thread.currentThread();
+		final AtomicBoolean onPoster = new AtomicBoolean(false);
+		ArrayList<IUpdateableListener> listeners = new ArrayList<IUpdateableListener>();
+		listeners.add(new IUpdateableListener() {
+			@Override
+			public void update(IUpdateable component) {
+				if (Thread.currentThread() == poster) {
+					onPoster.set(true);
+				}
+				try {
+					blocker.await(2, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				delivered.countDown();
+			}
+		});
+
+		// Post from five sources while the worker is blocked
+		for (int i = 0; i < 5; i++) {
+			dispatcher.post(new ICEObject(), listeners);
+		}
+		assertTrue(dispatcher.getOverflowCount() > 0);
+		assertFalse(onPoster.get());
+
+		// Everything is delivered once the worker is free
+		blocker.countDown();
+		assertTrue(delivered.await(2, TimeUnit.SECONDS));
+		assertFalse(onPoster.get());
+		assertEquals(0, dispatcher.getDroppedCount());
+
+		dispatcher.shutdown();
+
+		return;
+	}
+
+	/**
+	 * This operation checks that ICEObject notifications are delivered through
+	 * the default dispatcher.
+	 */
+	@Test
+	public void checkDefaultDispatcher() {
+
+		ICEObject iceObject = new ICEObject();
+		TestComponentListener listener = new TestComponentListener();
+		long posted = NotificationDispatcher.getDefault().getPostedCount();
+
+		iceObject.register(listener);
+		iceObject.setName("Dispatched");
+		assertTrue(listener.wasNotified());
+		assertTrue(NotificationDispatcher.getDefault().getPostedCount() > posted);
+
+		return;
+	}
+}
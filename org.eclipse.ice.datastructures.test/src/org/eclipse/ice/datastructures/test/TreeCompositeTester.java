@@ -1122,6 +1122,153 @@ public class TreeCompositeTester extends SelectiveComponentVisitor {
 
 	}
 
+	/**
+	 * <p>
+	 * This operation checks that children and Entries can be found by name and
+	 * by path and that the lookups stay correct when children are added,
+	 * removed, renamed and copied.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkChildLookup() {
+
+		// Local Declarations
+		TreeComposite root = new TreeComposite();
+		TreeComposite kernels = new TreeComposite();
+		TreeComposite diff = new TreeComposite();
+		TreeComposite time = new TreeComposite();
+		DataComponent diffData = new DataComponent();
+		Entry variable = new Entry();
+
+		// Build Kernels/diff with a variable Entry and Kernels/time
+		root.setName("Root");
+		kernels.setName("Kernels");
+		diff.setName("diff");
+		time.setName("time");
+		variable.setName("variable");
+		variable.setValue("u");
+		diffData.addEntry(variable);
+		diff.addComponent(diffData);
+		kernels.setNextChild(diff);
+		kernels.setNextChild(time);
+		root.setNextChild(kernels);
+
+		// Check the lookups
+		assertEquals(kernels, root.getChildByName("Kernels"));
+		assertNull(root.getChildByName("Mesh"));
+		assertEquals(diff, root.getChildByPath("Kernels/diff"));
+		assertEquals(diff, root.getChildByPath("/Kernels/diff/"));
+		assertNull(root.getChildByPath("Kernels/convection"));
+		assertNull(root.getChildByPath(null));
+		assertEquals(variable, root.getEntryByPath("Kernels/diff/variable"));
+		assertEquals(variable, diff.getEntryByPath("variable"));
+		assertNull(root.getEntryByPath("Kernels/time/variable"));
+		assertNull(root.getEntryByPath("Kernels/diff/function"));
+
+		// Renaming a child must update the lookup
+		diff.setName("diffusion");
+		assertNull(root.getChildByPath("Kernels/diff"));
+		assertEquals(diff, root.getChildByPath("Kernels/diffusion"));
+
+		// Removing a child must update the lookup but leave the others alone
+		kernels.removeChild(diff);
+		assertNull(kernels.getChildByName("diffusion"));
+		assertEquals(time, kernels.getChildByName("time"));
+		assertEquals(1, kernels.getNumberOfChildren());
+		assertNull(diff.getParent());
+
+		// Children with the same name are kept, but only an equal child is
+		// rejected
+		TreeComposite otherTime = new TreeComposite();
+		otherTime.setName("time");
+		otherTime.setId(5);
+		kernels.setNextChild(otherTime);
+		kernels.setNextChild((TreeComposite) otherTime.clone());
+		assertEquals(2, kernels.getNumberOfChildren());
+		assertEquals(time, kernels.getChildByName("time"));
+		kernels.removeChild(time);
+		assertEquals(otherTime, kernels.getChildByName("time"));
+
+		// Copies must be indexed too
+		TreeComposite copy = (TreeComposite) root.clone();
+		assertEquals(otherTime, copy.getChildByPath("Kernels/time"));
+		assertFalse(otherTime == copy.getChildByPath("Kernels/time"));
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation builds a tree with many children, like the blocks of a
+	 * large MOOSE input file, and compares the time needed to find every child
+	 * by name with the index and with a linear search of the children. It also
+	 * checks that building and removing children does not take quadratic time.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkLookupPerformance() {
+
+		// Local Declarations
+		int numChildren = 5000;
+		TreeComposite tree = new TreeComposite();
+		TreeComposite child = null;
+		long indexedTime, linearTime;
+
+		// Add the children
+		long start = System.nanoTime();
+		for (int i = 0; i < numChildren; i++) {
+			child = new TreeComposite();
+			child.setName("block" + i);
+			child.setDescription("Block " + i);
+			tree.setNextChild(child);
+		}
+		long buildTime = System.nanoTime() - start;
+		assertEquals(numChildren, tree.getNumberOfChildren());
+
+		// Find every child with the index
+		start = System.nanoTime();
+		for (int i = 0; i < numChildren; i++) {
+			assertEquals("block" + i, tree.getChildByName("block" + i)
+					.getName());
+		}
+		indexedTime = System.nanoTime() - start;
+
+		// Find every child with a linear search
+		start = System.nanoTime();
+		for (int i = 0; i < numChildren; i++) {
+			String name = "block" + i;
+			child = null;
+			for (int j = 0; j < tree.getNumberOfChildren(); j++) {
+				if (tree.getChildAtIndex(j).getName().equals(name)) {
+					child = tree.getChildAtIndex(j);
+					break;
+				}
+			}
+			assertNotNull(child);
+		}
+		linearTime = System.nanoTime() - start;
+
+		// Remove every other child
+		start = System.nanoTime();
+		for (int i = 0; i < numChildren; i += 2) {
+			tree.removeChild(tree.getChildByName("block" + i));
+		}
+		long removeTime = System.nanoTime() - start;
+		assertEquals(numChildren / 2, tree.getNumberOfChildren());
+		assertNull(tree.getChildByName("block0"));
+		assertNotNull(tree.getChildByName("block1"));
+
+		System.out.println("TreeCompositeTester Message: " + numChildren
+				+ " children, build = " + buildTime / 1000000 + " ms, "
+				+ "indexed lookups = " + indexedTime / 1000000 + " ms, "
+				+ "linear lookups = " + linearTime / 1000000 + " ms, "
+				+ "removals = " + removeTime / 1000000 + " ms");
+
+		return;
+	}
+
 	/**
 	 * This operation adds a component of the specified type to the map.
 	 * 
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.ice.datastructures.ICEObject.IUpdateBatchListener;
+import org.eclipse.ice.datastructures.ICEObject.IUpdateable;
+import org.eclipse.ice.datastructures.ICEObject.UpdateBatch;
+import org.eclipse.ice.datastructures.form.DataComponent;
+import org.eclipse.ice.datastructures.form.Entry;
+import org.eclipse.ice.datastructures.form.Form;
+import org.junit.Test;
+
+/**
+ * This class is responsible for testing the UpdateBatch and the beginUpdate()
+ * and endUpdate() operations on ICEObject.
+ */
+public class UpdateBatchTester {
+
+	/**
+	 * This operation checks that notifications are deferred while a batch is
+	 * open and delivered once it is closed, with the aggregated ids.
+	 */
+	@Test
+	public void checkBatch() throws InterruptedException {
+
+		Form form = new Form();
+		form.setId(7);
+		DataComponent component = new DataComponent();
+		component.setId(3);
+		Entry entry = new Entry();
+		entry.setId(11);
+		TestComponentListener entryListener = new TestComponentListener();
+		TestComponentListener componentListener = new TestComponentListener();
+		final CountDownLatch latch = new CountDownLatch(1);
+		final AtomicReference<List<Integer>> ids = new AtomicReference<List<Integer>>();
+
+		entry.register(entryListener);
+		form.register(new IUpdateBatchListener() {
+			@Override
+			public void update(IUpdateable component) {
+				// Should not be called for a batch
+			}
+
+			@Override
+			public void batchUpdated(IUpdateable component,
+					List<Integer> changedIds) {
+				ids.set(changedIds);
+				latch.countDown();
+			}
+		});
+		component.register(componentListener);
+
+		// Open a nested batch and change the tree
+		UpdateBatch batch = form.beginUpdate();
+		assertNotNull(batch);
+		assertSame(batch, UpdateBatch.getCurrent());
+		assertSame(form, batch.getOwner());
+		try (UpdateBatch nested = form.beginUpdate()) {
+			assertSame(batch, nested);
+			entry.setValue("batched");
+			component.addEntry(entry);
+			form.addComponent(component);
+		}
+
+		// Nothing should be delivered until the outer batch closes
+		assertSame(batch, UpdateBatch.getCurrent());
+		assertFalse(entryListener.wasNotified());
+		assertFalse(componentListener.wasNotified());
+		form.endUpdate();
+		assertNull(UpdateBatch.getCurrent());
+
+		// Check the aggregated notification
+		assertTrue(entryListener.wasNotified());
+		assertTrue(componentListener.wasNotified());
+		assertTrue(latch.await(2, TimeUnit.SECONDS));
+		assertTrue(ids.get().contains(11));
+		assertTrue(ids.get().contains(3));
+		assertTrue(ids.get().contains(7));
+		assertEquals(3, ids.get().size());
+
+		// Closing again should do nothing
+		form.endUpdate();
+		batch.close();
+		assertNull(UpdateBatch.getCurrent());
+
+		return;
+	}
+}
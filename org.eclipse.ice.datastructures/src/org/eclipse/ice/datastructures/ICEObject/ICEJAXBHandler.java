@@ -22,9 +22,12 @@ import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
 
+import org.eclipse.ice.datastructures.jaxbclassprovider.JAXBContextRegistry;
+
 /**
  * This class is responsible for reading and writing JAXB-annotated classes into
- * and out of ICE.
+ * and out of ICE. JAXBContexts and (un)marshallers are reused through the
+ * JAXBContextRegistry.
  * 
  * @author Jay Jay Billings
  */
@@ -49,7 +52,6 @@ public class ICEJAXBHandler {
 
 		// Initialize local variables
 		JAXBContext context;
-		Class[] clazzArray = {};
 
 		// If the input args are null, throw an exception
 		if (classList == null) {
@@ -62,8 +64,9 @@ public class ICEJAXBHandler {
 		}
 
 		// Create new instance of object from file and then return it.
-		context = JAXBContext.newInstance(classList.toArray(clazzArray));
-		Unmarshaller unmarshaller = context.createUnmarshaller();
+		context = JAXBContextRegistry.getContext(classList);
+		Unmarshaller unmarshaller = JAXBContextRegistry
+				.getUnmarshaller(context);
 		// New object created
 		Object dataFromFile = unmarshaller.unmarshal(inputStream);
 
@@ -93,7 +96,6 @@ public class ICEJAXBHandler {
 			JAXBException, IOException {
 
 		JAXBContext jaxbContext = null;
-		Class[] classArray = {};
 
 		// Throw exceptions if input args are null
 		if (dataObject == null) {
@@ -126,11 +128,9 @@ public class ICEJAXBHandler {
 
 		// Create the context and marshal the data if classes were determined
 		if (classList.size() > 0) {
-			jaxbContext = JAXBContext
-					.newInstance(classList.toArray(classArray));
-			Marshaller marshaller = jaxbContext.createMarshaller();
-			marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT,
-					Boolean.TRUE);
+			jaxbContext = JAXBContextRegistry.getContext(classList);
+			Marshaller marshaller = JAXBContextRegistry.getMarshaller(
+					jaxbContext, true);
 			// Write to file
 			marshaller.marshal(dataObject, outputStream);
 		}
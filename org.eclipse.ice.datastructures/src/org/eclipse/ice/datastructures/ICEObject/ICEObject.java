@@ -224,7 +224,9 @@ public class ICEObject implements IUpdateable {
 	/**
 	 * <p>
 	 * This protected operation notifies the listeners of the ICEObject that its
-	 * state has changed.
+	 * state has changed. The notification is delivered asynchronously by the
+	 * shared NotificationDispatcher, which merges repeated notifications from
+	 * this object that have not been delivered yet.
 	 * </p>
 	 * 
 	 */
@@ -232,20 +234,43 @@ public class ICEObject implements IUpdateable {
 
 		// Only process the update if there are listeners
 		if (listeners != null && !listeners.isEmpty()) {
-			// Create a thread on which to notify the listeners.
-			Thread notifierThread = new Thread() {
-				@Override
-				public void run() {
-					// Loop over all listeners and update them
-					for (int i = 0; i < listeners.size(); i++) {
-						listeners.get(i).update(ICEObject.this);
-					}
-					return;
-				}
-			};
-
-			// Launch the thread and do the notifications
-			notifierThread.start();
+			// Hand the notification to the shared dispatcher
+			NotificationDispatcher.getDefault().post(this, listeners);
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation opens an UpdateBatch on the current thread. Until the
+	 * batch is closed, notifications from this ICEObject and from every other
+	 * IUpdateable that changes on this thread are deferred. When it is closed,
+	 * each of them notifies its listeners once and the listeners of this
+	 * ICEObject receive a single, aggregated notification.
+	 * </p>
+	 * <p>
+	 * The returned batch can be used in a try-with-resources statement or
+	 * closed with endUpdate(). Calls may be nested.
+	 * </p>
+	 *
+	 * @return The batch that is open on the current thread.
+	 */
+	public UpdateBatch beginUpdate() {
+		return UpdateBatch.begin(this, listeners);
+	}
+
+	/**
+	 * <p>
+	 * This operation closes the UpdateBatch that was opened on the current
+	 * thread by beginUpdate(). It does nothing if no batch is open.
+	 * </p>
+	 */
+	public void endUpdate() {
+
+		UpdateBatch batch = UpdateBatch.getCurrent();
+		if (batch != null) {
+			batch.close();
 		}
 
 		return;
@@ -0,0 +1,39 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.ICEObject;
+
+import java.util.List;
+
+/**
+ * <p>
+ * The IUpdateBatchListener interface extends IUpdateableListener for listeners
+ * that want a single, aggregated event when an UpdateBatch opened on the
+ * IUpdateable they observe is closed.
+ * </p>
+ * <p>
+ * Listeners that only realize IUpdateableListener receive one regular update
+ * from the batch owner instead.
+ * </p>
+ */
+public interface IUpdateBatchListener extends IUpdateableListener {
+
+	/**
+	 * This operation notifies the listener that a batch of updates on the
+	 * IUpdateable it observes has been committed.
+	 * 
+	 * @param component
+	 *            The IUpdateable on which the batch was opened.
+	 * @param changedIds
+	 *            The ids of every IUpdateable that changed during the batch,
+	 *            in the order in which they first changed.
+	 */
+	public void batchUpdated(IUpdateable component, List<Integer> changedIds);
+}
@@ -0,0 +1,665 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.ICEObject;
+
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * The NotificationDispatcher delivers IUpdateable change notifications to
+ * their IUpdateableListeners on a shared, bounded pool of worker threads
+ * instead of on a new Thread per notification.
+ * </p>
+ * <p>
+ * Notifications from the same source are always delivered in order and never
+ * concurrently. If a source posts again while a notification for it is still
+ * waiting to be delivered, the two are merged into one since listeners only
+ * receive the source itself and will read its latest state anyway. A
+ * coalescing window (in milliseconds) can be set to hold notifications back
+ * for a short time so that bursts of setter calls collapse into a single
+ * update. If a notification arrives while the source is being delivered, it is
+ * delivered again once the current delivery finishes.
+ * </p>
+ * <p>
+ * If the worker pool and its queue are saturated, the notification is parked
+ * in an overflow queue that the workers drain as they finish. Listeners are
+ * never updated on the posting thread, which may be holding locks. Since a
+ * source has at most one pending notification, the overflow queue never holds
+ * more entries than there are sources.
+ * </p>
+ * <p>
+ * The worker threads are created by a ThreadFactory that can be provided to
+ * the constructor, which makes it possible to use lightweight threads on
+ * runtimes that support them. The shared instance used by ICEObject is
+ * available from {@link #getDefault()}.
+ * </p>
+ */
+public class NotificationDispatcher {
+
+	/**
+	 * Logger for handling event messages and other information.
+	 */
+	private static final Logger logger = LoggerFactory
+			.getLogger(NotificationDispatcher.class);
+
+	/**
+	 * The default maximum number of notifications that may wait in the queue of
+	 * the worker pool.
+	 */
+	public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+	/**
+	 * The shared dispatcher used by ICEObject and its subclasses.
+	 */
+	private static final NotificationDispatcher defaultDispatcher = new NotificationDispatcher(
+			Math.max(4, 2 * Runtime.getRuntime().availableProcessors()),
+			DEFAULT_QUEUE_CAPACITY, new NotifierThreadFactory("ICE Notifier"));
+
+	/**
+	 * The worker pool on which notifications are delivered.
+	 */
+	private final ThreadPoolExecutor executor;
+
+	/**
+	 * The timer used to delay notifications when a coalescing window is set.
+	 * It is created the first time it is needed.
+	 */
+	private ScheduledExecutorService timer;
+
+	/**
+	 * The channels for all sources that have undelivered notifications or
+	 * that are currently being delivered, keyed by identity. This map is also
+	 * the lock that guards the state of every channel.
+	 */
+	private final Map<IUpdateable, Channel> channels;
+
+	/**
+	 * The channels that were rejected by the saturated worker pool, in the
+	 * order they were rejected. It is guarded by the lock on the channel map.
+	 */
+	private final ArrayDeque<Channel> overflow;
+
+	/**
+	 * The task that delivers the channels in the overflow queue.
+	 */
+	private final Runnable overflowTask = new Runnable() {
+		@Override
+		public void run() {
+			drainOverflow();
+		}
+	};
+
+	/**
+	 * The coalescing window in milliseconds.
+	 */
+	private volatile long coalescingWindow;
+
+	/**
+	 * The number of notifications posted to the dispatcher.
+	 */
+	private final AtomicLong postedCount = new AtomicLong();
+
+	/**
+	 * The number of notifications merged into a pending notification from the
+	 * same source.
+	 */
+	private final AtomicLong mergedCount = new AtomicLong();
+
+	/**
+	 * The number of notifications that could not be delivered because the
+	 * dispatcher was shut down.
+	 */
+	private final AtomicLong droppedCount = new AtomicLong();
+
+	/**
+	 * The number of times a listener threw an exception while it was updated.
+	 */
+	private final AtomicLong failedCount = new AtomicLong();
+
+	/**
+	 * The number of deliveries made to the listeners of a source.
+	 */
+	private final AtomicLong dispatchedCount = new AtomicLong();
+
+	/**
+	 * The number of notifications put in the overflow queue because the worker
+	 * pool was saturated.
+	 */
+	private final AtomicLong overflowCount = new AtomicLong();
+
+	/**
+	 * The sum of all dispatch latencies in nanoseconds.
+	 */
+	private final AtomicLong totalLatency = new AtomicLong();
+
+	/**
+	 * The largest dispatch latency in nanoseconds.
+	 */
+	private final AtomicLong maxLatency = new AtomicLong();
+
+	/**
+	 * The constructor.
+	 *
+	 * @param poolSize
+	 *            The maximum number of worker threads.
+	 * @param queueCapacity
+	 *            The maximum number of notifications that may wait for a
+	 *            worker thread.
+	 * @param threadFactory
+	 *            The factory used to create worker threads.
+	 */
+	public NotificationDispatcher(int poolSize, int queueCapacity,
+			ThreadFactory threadFactory) {
+
+		// Create the bounded pool and let idle workers die off
+		executor = new ThreadPoolExecutor(poolSize, poolSize, 30L,
+				TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(
+						queueCapacity), threadFactory);
+		executor.allowCoreThreadTimeOut(true);
+
+		channels = new IdentityHashMap<IUpdateable, Channel>();
+		overflow = new ArrayDeque<Channel>();
+		coalescingWindow = 0L;
+
+		return;
+	}
+
+	/**
+	 * This operation returns the shared dispatcher used by ICEObject.
+	 *
+	 * @return The default dispatcher.
+	 */
+	public static NotificationDispatcher getDefault() {
+		return defaultDispatcher;
+	}
+
+	/**
+	 * This operation sets the coalescing window. Notifications are held back
+	 * for this many milliseconds after the first pending notification from a
+	 * source so that any further notifications from it in that time are merged.
+	 *
+	 * @param milliseconds
+	 *            The window in milliseconds. Values less than or equal to zero
+	 *            disable the delay, although notifications that are still
+	 *            queued will continue to be merged.
+	 */
+	public void setCoalescingWindow(long milliseconds) {
+		coalescingWindow = Math.max(0L, milliseconds);
+	}
+
+	/**
+	 * This operation returns the coalescing window.
+	 *
+	 * @return The window in milliseconds.
+	 */
+	public long getCoalescingWindow() {
+		return coalescingWindow;
+	}
+
+	/**
+	 * This operation posts a notification that the source has changed. The
+	 * listeners will be updated asynchronously with the source.
+	 *
+	 * @param source
+	 *            The IUpdateable that changed.
+	 * @param listeners
+	 *            The listeners of the source. The list is read when the
+	 *            notification is delivered, not when it is posted.
+	 */
+	public void post(IUpdateable source,
+			List<IUpdateableListener> listeners) {
+
+		// Local Declarations
+		Channel channel = null;
+
+		if (source == null || listeners == null) {
+			return;
+		}
+
+		// Defer the notification if a batch is open on this thread
+		UpdateBatch batch = UpdateBatch.getCurrent();
+		if (batch != null) {
+			batch.defer(this, source, listeners);
+			return;
+		}
+		postedCount.incrementAndGet();
+
+		synchronized (channels) {
+			channel = channels.get(source);
+			if (channel != null) {
+				channel.listeners = listeners;
+				if (!channel.running || channel.dirty) {
+					// Merge it with the notification that is already waiting
+					mergedCount.incrementAndGet();
+				} else {
+					// Deliver again after the current delivery
+					channel.dirty = true;
+					channel.postTime = System.nanoTime();
+				}
+				return;
+			}
+			channel = new Channel(source, listeners);
+			channels.put(source, channel);
+		}
+
+		// Schedule the new channel outside of the lock
+		schedule(channel);
+
+		return;
+	}
+
+	/**
+	 * This operation hands a channel to the worker pool, either immediately or
+	 * after the coalescing window has passed.
+	 *
+	 * @param channel
+	 *            The channel to schedule.
+	 */
+	private void schedule(final Channel channel) {
+
+		long window = coalescingWindow;
+
+		if (window > 0L) {
+			try {
+				getTimer().schedule(new Runnable() {
+					@Override
+					public void run() {
+						submit(channel);
+					}
+				}, window, TimeUnit.MILLISECONDS);
+			} catch (RejectedExecutionException e) {
+				submit(channel);
+			}
+		} else {
+			submit(channel);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation submits a channel to the worker pool. If the pool is
+	 * saturated, the channel is put in the overflow queue. If the pool is shut
+	 * down, the notification is dropped.
+	 *
+	 * @param channel
+	 *            The channel to submit.
+	 */
+	private void submit(Channel channel) {
+
+		try {
+			executor.execute(channel);
+		} catch (RejectedExecutionException e) {
+			if (executor.isShutdown()) {
+				drop(channel);
+			} else {
+				overflowCount.incrementAndGet();
+				synchronized (channels) {
+					overflow.add(channel);
+				}
+				// The pool may have drained before the channel was parked, so
+				// try to start a drain. If that is rejected too, the tasks
+				// that fill the queue will drain it when they finish.
+				try {
+					executor.execute(overflowTask);
+				} catch (RejectedExecutionException e2) {
+					if (executor.isShutdown()) {
+						dropOverflow();
+					}
+				}
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation delivers the channels in the overflow queue until it is
+	 * empty. It is only called on worker threads.
+	 */
+	private void drainOverflow() {
+
+		Channel channel;
+
+		while (true) {
+			synchronized (channels) {
+				channel = overflow.poll();
+			}
+			if (channel == null) {
+				return;
+			}
+			channel.deliver();
+		}
+	}
+
+	/**
+	 * This operation drops the channels in the overflow queue after the
+	 * dispatcher was shut down.
+	 */
+	private void dropOverflow() {
+
+		Channel channel;
+
+		while (true) {
+			synchronized (channels) {
+				channel = overflow.poll();
+			}
+			if (channel == null) {
+				return;
+			}
+			drop(channel);
+		}
+	}
+
+	/**
+	 * This operation drops the notification of a channel.
+	 *
+	 * @param channel
+	 *            The channel to drop.
+	 */
+	private void drop(Channel channel) {
+		synchronized (channels) {
+			channels.remove(channel.source);
+		}
+		droppedCount.incrementAndGet();
+	}
+
+	/**
+	 * This operation returns the timer used for the coalescing window,
+	 * creating it if needed.
+	 *
+	 * @return The timer.
+	 */
+	private synchronized ScheduledExecutorService getTimer() {
+		if (timer == null) {
+			timer = Executors.newSingleThreadScheduledExecutor(
+					new NotifierThreadFactory("ICE Notifier Timer"));
+		}
+		return timer;
+	}
+
+	/**
+	 * This operation records the latency of a single delivery.
+	 *
+	 * @param latency
+	 *            The time from posting to delivery in nanoseconds.
+	 */
+	private void recordLatency(long latency) {
+
+		long currentMax;
+
+		dispatchedCount.incrementAndGet();
+		totalLatency.addAndGet(latency);
+		do {
+			currentMax = maxLatency.get();
+		} while (latency > currentMax
+				&& !maxLatency.compareAndSet(currentMax, latency));
+
+		return;
+	}
+
+	/**
+	 * This operation returns the number of sources with notifications that
+	 * have not yet been fully delivered.
+	 *
+	 * @return The queue depth.
+	 */
+	public int getQueueDepth() {
+		synchronized (channels) {
+			return channels.size();
+		}
+	}
+
+	/**
+	 * This operation returns the number of notifications posted to the
+	 * dispatcher.
+	 *
+	 * @return The number of posted notifications.
+	 */
+	public long getPostedCount() {
+		return postedCount.get();
+	}
+
+	/**
+	 * This operation returns the number of notifications that were merged
+	 * into another pending notification from the same source.
+	 *
+	 * @return The number of merged notifications.
+	 */
+	public long getMergedCount() {
+		return mergedCount.get();
+	}
+
+	/**
+	 * This operation returns the number of notifications that were dropped
+	 * because the dispatcher was shut down.
+	 *
+	 * @return The number of dropped notifications.
+	 */
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	/**
+	 * This operation returns the number of deliveries made to the listeners of
+	 * a source.
+	 *
+	 * @return The number of deliveries.
+	 */
+	public long getDispatchedCount() {
+		return dispatchedCount.get();
+	}
+
+	/**
+	 * This operation returns the number of times a listener threw an exception
+	 * while it was updated. Failed updates are not counted as dropped.
+	 *
+	 * @return The number of failed listener updates.
+	 */
+	public long getFailedCount() {
+		return failedCount.get();
+	}
+
+	/**
+	 * This operation returns the number of notifications that were put in the
+	 * overflow queue because the worker pool was saturated.
+	 *
+	 * @return The number of overflowed notifications.
+	 */
+	public long getOverflowCount() {
+		return overflowCount.get();
+	}
+
+	/**
+	 * This operation returns the average time between posting a notification
+	 * and delivering it.
+	 *
+	 * @return The average dispatch latency in nanoseconds, or 0 if nothing has
+	 *         been delivered.
+	 */
+	public long getAverageLatency() {
+		long count = dispatchedCount.get();
+		return (count > 0L) ? totalLatency.get() / count : 0L;
+	}
+
+	/**
+	 * This operation returns the largest time between posting a notification
+	 * and delivering it.
+	 *
+	 * @return The maximum dispatch latency in nanoseconds.
+	 */
+	public long getMaxLatency() {
+		return maxLatency.get();
+	}
+
+	/**
+	 * This operation stops the dispatcher. Notifications that are already
+	 * queued are delivered, but new ones are dropped.
+	 */
+	public void shutdown() {
+
+		synchronized (this) {
+			if (timer != null) {
+				timer.shutdown();
+			}
+		}
+		executor.shutdown();
+
+		return;
+	}
+
+	/**
+	 * A Channel holds the delivery state of a single source. It is only
+	 * modified while holding the lock on the channel map.
+	 */
+	private class Channel implements Runnable {
+
+		/**
+		 * The source whose listeners should be updated.
+		 */
+		private final IUpdateable source;
+
+		/**
+		 * The listeners of the source.
+		 */
+		private List<IUpdateableListener> listeners;
+
+		/**
+		 * The time at which the oldest undelivered notification was posted.
+		 */
+		private long postTime;
+
+		/**
+		 * True if the listeners are currently being updated.
+		 */
+		private boolean running;
+
+		/**
+		 * True if a notification was posted during the current delivery.
+		 */
+		private boolean dirty;
+
+		/**
+		 * The constructor.
+		 *
+		 * @param source
+		 *            The source whose listeners should be updated.
+		 * @param listeners
+		 *            The listeners of the source.
+		 */
+		private Channel(IUpdateable source,
+				List<IUpdateableListener> listeners) {
+			this.source = source;
+			this.listeners = listeners;
+			postTime = System.nanoTime();
+		}
+
+		/**
+		 * This operation delivers the notification on a worker thread and
+		 * then delivers anything that overflowed while the pool was busy.
+		 */
+		@Override
+		public void run() {
+			deliver();
+			drainOverflow();
+		}
+
+		/**
+		 * This operation delivers the notification and then repeats the
+		 * delivery as long as new notifications arrived in the meantime.
+		 */
+		private void deliver() {
+
+			List<IUpdateableListener> currentListeners;
+			long currentPostTime;
+
+			while (true) {
+				synchronized (channels) {
+					running = true;
+					dirty = false;
+					currentListeners = listeners;
+					currentPostTime = postTime;
+				}
+
+				recordLatency(System.nanoTime() - currentPostTime);
+
+				// Loop over all listeners and update them
+				for (int i = 0; i < currentListeners.size(); i++) {
+					try {
+						currentListeners.get(i).update(source);
+					} catch (RuntimeException e) {
+						failedCount.incrementAndGet();
+						logger.error("NotificationDispatcher Message: "
+								+ "Listener failed to process update.", e);
+					}
+				}
+
+				synchronized (channels) {
+					if (!dirty) {
+						running = false;
+						channels.remove(source);
+						return;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * This ThreadFactory creates named daemon threads so that pending
+	 * notifications never keep the platform from shutting down.
+	 */
+	private static class NotifierThreadFactory implements ThreadFactory {
+
+		/**
+		 * The prefix of the thread names.
+		 */
+		private final String prefix;
+
+		/**
+		 * The number of threads created so far.
+		 */
+		private final AtomicInteger count = new AtomicInteger();
+
+		/**
+		 * The constructor.
+		 *
+		 * @param prefix
+		 *            The prefix of the thread names.
+		 */
+		private NotifierThreadFactory(String prefix) {
+			this.prefix = prefix;
+		}
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, prefix + "-"
+					+ count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
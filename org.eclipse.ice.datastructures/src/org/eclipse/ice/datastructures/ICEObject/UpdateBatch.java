@@ -0,0 +1,265 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.ICEObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * An UpdateBatch defers the notifications of every IUpdateable that changes on
+ * the current thread until the batch is closed. It is opened with
+ * {@link ICEObject#beginUpdate()} and closed with
+ * {@link ICEObject#endUpdate()} or {@link #close()}, which makes it usable in
+ * a try-with-resources statement:
+ * </p>
+ * 
+ * <pre>
+ * try (UpdateBatch batch = form.beginUpdate()) {
+ * 	// Fill in the Form...
+ * }
+ * </pre>
+ * <p>
+ * Batches are scoped to the thread that opened them. Since Forms and their
+ * Components are filled in on a single thread by readers and copy operations,
+ * this covers the whole subtree being modified without requiring parent
+ * references. Batches may be nested, in which case only the outermost batch
+ * delivers notifications.
+ * </p>
+ * <p>
+ * When the outermost batch is closed, each IUpdateable that changed notifies
+ * its listeners exactly once. The owner of the batch then notifies its
+ * listeners once, with IUpdateBatchListeners receiving the ids of everything
+ * that changed.
+ * </p>
+ */
+public class UpdateBatch implements AutoCloseable {
+
+	/**
+	 * The batch that is open on the current thread, if any.
+	 */
+	private static final ThreadLocal<UpdateBatch> currentBatch = new ThreadLocal<UpdateBatch>();
+
+	/**
+	 * The IUpdateable on which the outermost batch was opened.
+	 */
+	private final IUpdateable owner;
+
+	/**
+	 * The listeners of the owner.
+	 */
+	private final List<IUpdateableListener> ownerListeners;
+
+	/**
+	 * The dispatcher used to deliver the owner's notification.
+	 */
+	private NotificationDispatcher ownerDispatcher;
+
+	/**
+	 * The number of times the batch has been opened and not yet closed.
+	 */
+	private int depth;
+
+	/**
+	 * The sources that changed during the batch, in the order in which they
+	 * first changed.
+	 */
+	private final List<IUpdateable> changedSources;
+
+	/**
+	 * The deferred notification for each source that changed, keyed by
+	 * identity.
+	 */
+	private final Map<IUpdateable, DeferredNotification> deferred;
+
+	/**
+	 * The constructor.
+	 * 
+	 * @param owner
+	 *            The IUpdateable on which the batch is opened.
+	 * @param ownerListeners
+	 *            The listeners of the owner.
+	 */
+	private UpdateBatch(IUpdateable owner,
+			List<IUpdateableListener> ownerListeners) {
+		this.owner = owner;
+		this.ownerListeners = ownerListeners;
+		ownerDispatcher = NotificationDispatcher.getDefault();
+		depth = 0;
+		changedSources = new ArrayList<IUpdateable>();
+		deferred = new IdentityHashMap<IUpdateable, DeferredNotification>();
+	}
+
+	/**
+	 * This operation opens a batch on the current thread. If a batch is already
+	 * open, it is nested in that batch and the existing batch is returned.
+	 * 
+	 * @param owner
+	 *            The IUpdateable on which the batch is opened.
+	 * @param ownerListeners
+	 *            The listeners of the owner.
+	 * @return The batch that is open on the current thread.
+	 */
+	static UpdateBatch begin(IUpdateable owner,
+			List<IUpdateableListener> ownerListeners) {
+
+		UpdateBatch batch = currentBatch.get();
+
+		if (batch == null) {
+			batch = new UpdateBatch(owner, ownerListeners);
+			currentBatch.set(batch);
+		}
+		batch.depth++;
+
+		return batch;
+	}
+
+	/**
+	 * This operation returns the batch that is open on the current thread.
+	 * 
+	 * @return The open batch or null if there is none.
+	 */
+	public static UpdateBatch getCurrent() {
+		return currentBatch.get();
+	}
+
+	/**
+	 * This operation returns the IUpdateable on which the outermost batch was
+	 * opened.
+	 * 
+	 * @return The owner of the batch.
+	 */
+	public IUpdateable getOwner() {
+		return owner;
+	}
+
+	/**
+	 * This operation records a notification so that it can be delivered when
+	 * the batch is closed.
+	 * 
+	 * @param dispatcher
+	 *            The dispatcher that would have delivered the notification.
+	 * @param source
+	 *            The IUpdateable that changed.
+	 * @param listeners
+	 *            The listeners of the source.
+	 */
+	void defer(NotificationDispatcher dispatcher, IUpdateable source,
+			List<IUpdateableListener> listeners) {
+
+		DeferredNotification notification = deferred.get(source);
+
+		if (notification == null) {
+			notification = new DeferredNotification();
+			deferred.put(source, notification);
+			changedSources.add(source);
+		}
+		notification.dispatcher = dispatcher;
+		notification.listeners = listeners;
+
+		if (source == owner) {
+			ownerDispatcher = dispatcher;
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation closes one level of the batch. When the outermost level
+	 * is closed, the deferred notifications are delivered.
+	 */
+	@Override
+	public void close() {
+
+		// Ignore batches that are already closed or belong to another thread
+		if (depth <= 0 || currentBatch.get() != this) {
+			return;
+		}
+
+		depth--;
+		if (depth == 0) {
+			currentBatch.remove();
+			commit();
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation delivers one notification for every IUpdateable that
+	 * changed during the batch and the aggregated notification for the owner.
+	 */
+	private void commit() {
+
+		// Local Declarations
+		List<Integer> changedIds = new ArrayList<Integer>(
+				changedSources.size());
+		ArrayList<IUpdateableListener> wrappedListeners;
+
+		// Nothing to do if nothing changed
+		if (changedSources.isEmpty()) {
+			return;
+		}
+
+		// Notify the listeners of each changed source once
+		for (IUpdateable source : changedSources) {
+			changedIds.add(source.getId());
+			if (source != owner) {
+				DeferredNotification notification = deferred.get(source);
+				notification.dispatcher.post(source, notification.listeners);
+			}
+		}
+
+		// Notify the owner's listeners, giving the batch listeners the ids
+		if (ownerListeners != null && !ownerListeners.isEmpty()) {
+			final List<Integer> ids = Collections
+					.unmodifiableList(changedIds);
+			wrappedListeners = new ArrayList<IUpdateableListener>(
+					ownerListeners.size());
+			for (int i = 0; i < ownerListeners.size(); i++) {
+				final IUpdateableListener listener = ownerListeners.get(i);
+				if (listener instanceof IUpdateBatchListener) {
+					wrappedListeners.add(new IUpdateableListener() {
+						@Override
+						public void update(IUpdateable component) {
+							((IUpdateBatchListener) listener).batchUpdated(
+									component, ids);
+						}
+					});
+				} else {
+					wrappedListeners.add(listener);
+				}
+			}
+			ownerDispatcher.post(owner, wrappedListeners);
+		}
+
+		return;
+	}
+
+	/**
+	 * A notification that was deferred by the batch.
+	 */
+	private static class DeferredNotification {
+
+		/**
+		 * The dispatcher that should deliver the notification.
+		 */
+		private NotificationDispatcher dispatcher;
+
+		/**
+		 * The listeners of the source.
+		 */
+		private List<IUpdateableListener> listeners;
+	}
+}
@@ -13,9 +13,13 @@
 package org.eclipse.ice.datastructures.form;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 
+import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlTransient;
 
 import org.eclipse.ice.datastructures.ICEObject.Component;
 import org.eclipse.ice.datastructures.ICEObject.ICEObject;
@@ -41,6 +45,22 @@ public class DataComponent extends ICEObject implements Component,
 	@XmlElement(name = "Entry")
 	private ArrayList<Entry> entries;
 
+	/**
+	 * An index of the first Entry with each name. It is built when it is first
+	 * needed and discarded when Entries are renamed. It is also rebuilt when
+	 * the list of Entries was changed by anything but addEntry(), including
+	 * changes made through the list returned by retrieveAllEntries().
+	 */
+	@XmlTransient
+	private HashMap<String, Entry> entryIndex = null;
+
+	/**
+	 * The modification count of the list of Entries when the index was last
+	 * brought up to date.
+	 */
+	@XmlTransient
+	private int indexedModCount = 0;
+
 	/**
 	 * <p>
 	 * The Constructor
@@ -50,7 +70,7 @@ public class DataComponent extends ICEObject implements Component,
 	public DataComponent() {
 
 		// Setup the list of Entries
-		entries = new ArrayList<Entry>();
+		entries = new EntryList();
 
 	}
 
@@ -68,7 +88,15 @@ public class DataComponent extends ICEObject implements Component,
 
 		// Add the Entry if it is not null
 		if (newEntry != null) {
+			// Index it right away if the index is up to date
+			boolean indexed = isEntryIndexCurrent();
 			entries.add(newEntry);
+			if (indexed) {
+				if (!entryIndex.containsKey(newEntry.getName())) {
+					entryIndex.put(newEntry.getName(), newEntry);
+				}
+				indexedModCount = getModCount();
+			}
 			// Register the data component as a listener of the Entry
 			newEntry.register(this);
 			// Notify the listeners that the component has changed
@@ -111,6 +139,7 @@ public class DataComponent extends ICEObject implements Component,
 		// Clear the list of Entries if it is not already empty
 		if (!entries.isEmpty()) {
 			entries.clear();
+			entryIndex = null;
 			notifyListeners();
 		}
 
@@ -129,19 +158,19 @@ public class DataComponent extends ICEObject implements Component,
 	 */
 	public void deleteEntry(String entryName) {
 
-		// FIXME - Entry names are not necessarily unique!
-
-		// Local Declarations
-		int i = 0;
-
 		// Make sure the entryName is not null
 		if (entryName != null) {
-			// Find and delete the Entry or Entries with this name. A linear
-			// search is OK since the list should be small
-			for (i = 0; i < entries.size(); i++) {
-				if (entries.get(i).getName().equals(entryName)) {
-					entries.remove(i);
+			// Find and delete the Entry or Entries with this name if there
+			// are any. Entry names are not necessarily unique, so the whole
+			// list is searched, backwards so that removals do not skip
+			// Entries.
+			if (getEntryIndex().containsKey(entryName)) {
+				for (int i = entries.size() - 1; i >= 0; i--) {
+					if (entryName.equals(entries.get(i).getName())) {
+						entries.remove(i);
+					}
 				}
+				entryIndex = null;
 			}
 
 			// Notify the listeners
@@ -165,14 +194,55 @@ public class DataComponent extends ICEObject implements Component,
 	 *         </p>
 	 */
 	public Entry retrieveEntry(String entryName) {
+		return getEntryIndex().get(entryName);
+	}
 
-		for (Entry j : entries) {
-			if (j.getName().equals(entryName)) {
-				return j;
+	/**
+	 * This operation returns the index of the first Entry with each name,
+	 * rebuilding it if it was discarded or the list of Entries was changed
+	 * since it was last used.
+	 * 
+	 * @return The index of the Entries
+	 */
+	private HashMap<String, Entry> getEntryIndex() {
+
+		if (!isEntryIndexCurrent()) {
+			// Index the Entries, keeping the first Entry with each name
+			entryIndex = new HashMap<String, Entry>();
+			for (Entry entry : entries) {
+				if (!entryIndex.containsKey(entry.getName())) {
+					entryIndex.put(entry.getName(), entry);
+				}
 			}
+			indexedModCount = getModCount();
 		}
 
-		return null;
+		return entryIndex;
+	}
+
+	/**
+	 * This operation returns true if the index of the Entries exists and the
+	 * list of Entries has not been changed since it was last brought up to
+	 * date.
+	 * 
+	 * @return True if the index can be used, false otherwise
+	 */
+	private boolean isEntryIndexCurrent() {
+		return entryIndex != null && indexedModCount == getModCount();
+	}
+
+	/**
+	 * This operation returns the modification count of the list of Entries.
+	 * 
+	 * @return The modification count
+	 */
+	private int getModCount() {
+		// JAXB normally fills the list created by the constructor, but make
+		// sure that any other list is replaced before it is used
+		if (!(entries instanceof EntryList)) {
+			entries = new EntryList(entries);
+		}
+		return ((EntryList) entries).getModCount();
 	}
 
 	/**
@@ -208,6 +278,11 @@ public class DataComponent extends ICEObject implements Component,
 	 * This operation will return all of the Entries in the Form regardless of
 	 * their dependency or preparation status.
 	 * </p>
+	 * <p>
+	 * The list is the one stored by the DataComponent. Changes made to it
+	 * directly are noticed by retrieveEntry() and contains(), but listeners
+	 * are not notified of them.
+	 * </p>
 	 * 
 	 * @return <p>
 	 *         The list of all Entries stored in the Form.
@@ -235,14 +310,7 @@ public class DataComponent extends ICEObject implements Component,
 	 *         </p>
 	 */
 	public boolean contains(String entryName) {
-
-		for (Entry i : entries) {
-			if (i.getName().equals(entryName)) {
-				return true;
-			}
-		}
-
-		return false;
+		return getEntryIndex().containsKey(entryName);
 	}
 
 	/**
@@ -339,10 +407,13 @@ public class DataComponent extends ICEObject implements Component,
 
 			// reset entries
 			entries.clear();
+			entryIndex = null;
 
-			// Copy entries
+			// Copy entries and listen to them like addEntry() does
 			for (int i = 0; i < otherDataComponent.entries.size(); i++) {
-				entries.add((Entry) otherDataComponent.entries.get(i).clone());
+				Entry entry = (Entry) otherDataComponent.entries.get(i).clone();
+				entries.add(entry);
+				entry.register(this);
 			}
 
 			notifyListeners();
@@ -411,4 +482,89 @@ public class DataComponent extends ICEObject implements Component,
 
 	}
 
+	/**
+	 * This operation is called by an Entry of this DataComponent when it is
+	 * renamed. It discards the index of the Entries.
+	 * 
+	 * @param entry
+	 *            The Entry that was renamed
+	 */
+	void entryRenamed(Entry entry) {
+
+		entryIndex = null;
+
+		return;
+	}
+
+	/**
+	 * This operation is called by JAXB after the DataComponent is read from
+	 * XML. It registers the DataComponent with its Entries like addEntry()
+	 * does.
+	 * 
+	 * @param unmarshaller
+	 *            The Unmarshaller
+	 * @param parent
+	 *            The parent object in the XML tree
+	 */
+	void afterUnmarshal(Unmarshaller unmarshaller, Object parent) {
+
+		for (Entry entry : entries) {
+			entry.register(this);
+		}
+		entryIndex = null;
+
+		return;
+	}
+
+	/**
+	 * The list of Entries of a DataComponent. It exposes the modification
+	 * count of the list so that the DataComponent can tell when its index is
+	 * out of date, and it also counts the replacement of an Entry by set(),
+	 * which ArrayList does not.
+	 */
+	private static class EntryList extends ArrayList<Entry> {
+
+		/**
+		 * The serial version ID.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The constructor.
+		 */
+		public EntryList() {
+			super();
+		}
+
+		/**
+		 * The constructor. It copies the Entries of another list.
+		 * 
+		 * @param otherEntries
+		 *            The Entries
+		 */
+		public EntryList(Collection<Entry> otherEntries) {
+			super(otherEntries);
+		}
+
+		/**
+		 * (non-Javadoc)
+		 * 
+		 * @see java.util.ArrayList#set(int, java.lang.Object)
+		 */
+		@Override
+		public Entry set(int index, Entry entry) {
+			modCount++;
+			return super.set(index, entry);
+		}
+
+		/**
+		 * This operation returns the number of times the list was changed.
+		 * 
+		 * @return The modification count
+		 */
+		public int getModCount() {
+			return modCount;
+		}
+	}
+
 }
\ No newline at end of file
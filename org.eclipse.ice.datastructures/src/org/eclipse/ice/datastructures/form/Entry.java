@@ -299,6 +299,41 @@ public class Entry extends ICEObject implements IUpdateable {
 		return;
 	}
 
+	/**
+	 * This operation overrides ICEObject.setName() to tell the DataComponents
+	 * that contain the Entry that its name changed. They index their Entries
+	 * by name and must know right away, before the listeners are notified.
+	 * 
+	 * @see ICEObject#setName(String)
+	 */
+	@Override
+	public void setName(String name) {
+
+		super.setName(name);
+		if (name != null) {
+			notifyRenamed();
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation tells the DataComponents that contain the Entry that its
+	 * name changed.
+	 */
+	private void notifyRenamed() {
+
+		if (listeners != null) {
+			for (IUpdateableListener listener : listeners) {
+				if (listener instanceof DataComponent) {
+					((DataComponent) listener).entryRenamed(this);
+				}
+			}
+		}
+
+		return;
+	}
+
 	/**
 	 * This Entry returns the allowed values for the Entry and should only be
 	 * used when the AllowedValueType is defined as Discrete, in which case the
@@ -750,8 +785,13 @@ public class Entry extends ICEObject implements IUpdateable {
 			return;
 		}
 
-		// copy from super class
+		// copy from super class, which may change the name without calling
+		// setName()
+		String oldName = getName();
 		super.copy(otherEntry);
+		if (oldName == null ? getName() != null : !oldName.equals(getName())) {
+			notifyRenamed();
+		}
 
 		// Copy current values
 		this.allowedValueType = otherEntry.allowedValueType;
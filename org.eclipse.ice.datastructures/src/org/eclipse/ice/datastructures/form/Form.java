@@ -348,38 +348,44 @@ public class Form extends ICEObject implements Composite {
 			return;
 		}
 
-		// Copy contents into super and current object
-		super.copy(otherForm);
-
-		// Copy action list - Deep copy
-		if (otherForm.actionList == null) {
-			this.actionList = null;
-		} else {
-			// Make sure it is initialized!
-			if (this.actionList != null) {
-				this.actionList.clear();
+		// Defer notifications until the whole Form has been copied
+		beginUpdate();
+		try {
+			// Copy contents into super and current object
+			super.copy(otherForm);
+
+			// Copy action list - Deep copy
+			if (otherForm.actionList == null) {
+				this.actionList = null;
 			} else {
-				this.actionList = new ArrayList<String>();
-			}
-			for (int i = 0; i < otherForm.actionList.size(); i++) {
-				this.actionList.add(otherForm.actionList.get(i));
+				// Make sure it is initialized!
+				if (this.actionList != null) {
+					this.actionList.clear();
+				} else {
+					this.actionList = new ArrayList<String>();
+				}
+				for (int i = 0; i < otherForm.actionList.size(); i++) {
+					this.actionList.add(otherForm.actionList.get(i));
+				}
 			}
-		}
 
-		// Copy components - Deep copy
-		this.componentList.clear();
-		for (int i = 0; i < otherForm.componentList.size(); i++) {
-			Identifiable compWithId = (Identifiable) otherForm.componentList
-					.get(i).clone();
-			this.componentList.add((Component) compWithId);
-		}
+			// Copy components - Deep copy
+			this.componentList.clear();
+			for (int i = 0; i < otherForm.componentList.size(); i++) {
+				Identifiable compWithId = (Identifiable) otherForm.componentList
+						.get(i).clone();
+				this.componentList.add((Component) compWithId);
+			}
 
-		// Copy the Item information
-		this.itemID = otherForm.itemID;
-		this.canProcess = otherForm.canProcess;
+			// Copy the Item information
+			this.itemID = otherForm.itemID;
+			this.canProcess = otherForm.canProcess;
 
-		// Throw up a flare
-		this.notifyListeners();
+			// Throw up a flare
+			this.notifyListeners();
+		} finally {
+			endUpdate();
+		}
 
 	}
 
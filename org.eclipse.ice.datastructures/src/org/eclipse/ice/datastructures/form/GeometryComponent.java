@@ -26,6 +26,7 @@ import org.eclipse.ice.datastructures.ICEObject.Component;
 import org.eclipse.ice.datastructures.ICEObject.ICEObject;
 import org.eclipse.ice.datastructures.ICEObject.IUpdateable;
 import org.eclipse.ice.datastructures.ICEObject.IUpdateableListener;
+import org.eclipse.ice.datastructures.ICEObject.NotificationDispatcher;
 import org.eclipse.ice.datastructures.componentVisitor.IComponentVisitor;
 import org.eclipse.ice.datastructures.form.geometry.ICEGeometry;
 
@@ -266,27 +267,13 @@ public class GeometryComponent extends ICEObject implements Component,
 	@Override
 	protected void notifyListeners() {
 
-		final GeometryComponent geometryComponent = this;
-
 		// If the listeners are empty, return
 		if (this.listeners == null || this.listeners.isEmpty()) {
 			return;
 		}
-		// Create a thread object that notifies all listeners
-
-		Thread notifyThread = new Thread() {
-
-			@Override
-			public void run() {
-				// Loop over all listeners and update them
-				for (int i = 0; i < listeners.size(); i++) {
-					listeners.get(i).update(geometryComponent);
-				}
-			}
-		};
 
-		// Start the thread
-		notifyThread.start();
+		// Let the shared dispatcher notify all listeners
+		NotificationDispatcher.getDefault().post(this, listeners);
 
 	}
 
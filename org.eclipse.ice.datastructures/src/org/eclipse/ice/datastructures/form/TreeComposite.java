@@ -13,6 +13,7 @@
 package org.eclipse.ice.datastructures.form;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 
 import javax.xml.bind.annotation.XmlAccessType;
@@ -239,6 +240,31 @@ public class TreeComposite extends ICEObject implements Composite,
 	@XmlAttribute
 	private boolean active = false;
 
+	/**
+	 * An index of the children by name. Each list holds the children with that
+	 * name in the order in which they appear in the set of children. It is
+	 * built when it is first needed, children appended to the set are indexed
+	 * the next time it is used and it is discarded when children are renamed
+	 * or the set is replaced.
+	 */
+	@XmlTransient
+	private HashMap<String, ArrayList<TreeComposite>> childIndex = null;
+
+	/**
+	 * The number of children at the front of the set that are in the child
+	 * index.
+	 */
+	@XmlTransient
+	private int numIndexedChildren = 0;
+
+	/**
+	 * An index of the child exemplars by name. It is only used to speed up
+	 * the exemplar check, so a miss always falls back to a search of the
+	 * exemplars.
+	 */
+	@XmlTransient
+	private HashMap<String, ArrayList<TreeComposite>> exemplarIndex = null;
+
 	/**
 	 * <p>
 	 * The constructor.
@@ -359,12 +385,111 @@ public class TreeComposite extends ICEObject implements Composite,
 
 		// If there is a list of child exemplars, a check needs to be performed.
 		if (hasChildExemplars()) {
-			// Make sure the new child matches one of the exemplars.
-			canAdd = childExemplars.contains(cNode);
+			// Make sure the new child matches one of the exemplars. Check the
+			// exemplars with the same name first since equal trees always
+			// have the same name.
+			canAdd = (findByName(getExemplarIndex(), cNode) != null)
+					|| childExemplars.contains(cNode);
 		}
 		return canAdd;
 	}
 
+	/**
+	 * This operation returns the index of the children by name, creating it
+	 * if needed and indexing any children that were appended to the set since
+	 * it was last used.
+	 * 
+	 * @return The index of the children
+	 */
+	private HashMap<String, ArrayList<TreeComposite>> getChildIndex() {
+
+		// Start over if the index was discarded or children were removed
+		// without updating it
+		if (childIndex == null || numIndexedChildren > children.size()) {
+			childIndex = new HashMap<String, ArrayList<TreeComposite>>();
+			numIndexedChildren = 0;
+		}
+
+		// Index the children that are not in the index yet
+		for (; numIndexedChildren < children.size(); numIndexedChildren++) {
+			TreeComposite child = children.get(numIndexedChildren);
+			addToIndex(childIndex, child);
+			// Children read from XML do not know their parent, but they need
+			// it to tell the parent when they are renamed.
+			if (child.parent == null) {
+				child.parent = this;
+			}
+		}
+
+		return childIndex;
+	}
+
+	/**
+	 * This operation returns the index of the child exemplars by name,
+	 * creating it if needed.
+	 * 
+	 * @return The index of the child exemplars
+	 */
+	private HashMap<String, ArrayList<TreeComposite>> getExemplarIndex() {
+
+		if (exemplarIndex == null) {
+			exemplarIndex = new HashMap<String, ArrayList<TreeComposite>>();
+			for (TreeComposite exemplar : childExemplars) {
+				addToIndex(exemplarIndex, exemplar);
+			}
+		}
+
+		return exemplarIndex;
+	}
+
+	/**
+	 * This operation adds a tree to the end of the list of trees with its name
+	 * in an index.
+	 * 
+	 * @param index
+	 *            The index
+	 * @param tree
+	 *            The tree to add
+	 */
+	private static void addToIndex(HashMap<String, ArrayList<TreeComposite>> index,
+			TreeComposite tree) {
+
+		ArrayList<TreeComposite> namedTrees = index.get(tree.getName());
+		if (namedTrees == null) {
+			namedTrees = new ArrayList<TreeComposite>(1);
+			index.put(tree.getName(), namedTrees);
+		}
+		namedTrees.add(tree);
+
+		return;
+	}
+
+	/**
+	 * This operation returns the first tree in an index that is equal to the
+	 * given tree. Only the trees with the same name are compared.
+	 * 
+	 * @param index
+	 *            The index
+	 * @param tree
+	 *            The tree to find
+	 * @return The tree from the index or null if the index does not contain
+	 *         an equal tree
+	 */
+	private static TreeComposite findByName(
+			HashMap<String, ArrayList<TreeComposite>> index, TreeComposite tree) {
+
+		ArrayList<TreeComposite> namedTrees = index.get(tree.getName());
+		if (namedTrees != null) {
+			for (TreeComposite namedTree : namedTrees) {
+				if (namedTree == tree || tree.equals(namedTree)) {
+					return namedTree;
+				}
+			}
+		}
+
+		return null;
+	}
+
 	/**
 	 * <p>
 	 * This operation sets add a child to the list of children managed by this
@@ -386,7 +511,8 @@ public class TreeComposite extends ICEObject implements Composite,
 
 		// Only add the child if it is not null and already in this tree. Also
 		// make sure that it is part of the exemplar list, if required.
-		if (cNode != null && !children.contains(cNode) && cNode != this
+		if (cNode != null && cNode != this
+				&& findByName(getChildIndex(), cNode) == null
 				&& checkExemplars(cNode)) {
 			// Set the sibling links if there is more than one child in the list
 			if (!children.isEmpty()) {
@@ -461,29 +587,46 @@ public class TreeComposite extends ICEObject implements Composite,
 
 		// Try to remove the child if it is not null, and make sure the child
 		// belongs to the set for this tree
-		if (cNode != null && children.contains(cNode)) {
+		TreeComposite child = (cNode != null) ? findByName(getChildIndex(),
+				cNode) : null;
+		if (child != null) {
 			// Re-link the siblings to point to each other, previous first
-			if (cNode.previousSibling != null) {
-				cNode.previousSibling.nextSibling = cNode.nextSibling;
+			if (child.previousSibling != null) {
+				child.previousSibling.nextSibling = child.nextSibling;
 			}
 			// Next siblings next
-			if (cNode.nextSibling != null) {
-				cNode.nextSibling.previousSibling = cNode.previousSibling;
+			if (child.nextSibling != null) {
+				child.nextSibling.previousSibling = child.previousSibling;
 			}
 			// Get the index of this child in the list before removing it so
 			// that the iterator index can be fixed
-			int i = children.indexOf(cNode);
-			// Remove the child and break out of the loop
-			children.remove(cNode);
+			int i = 0;
+			while (children.get(i) != child) {
+				i++;
+			}
+			// Remove the child from the list and the index
+			children.remove(i);
+			ArrayList<TreeComposite> namedChildren = childIndex.get(child
+					.getName());
+			for (int j = 0; j < namedChildren.size(); j++) {
+				if (namedChildren.get(j) == child) {
+					namedChildren.remove(j);
+					break;
+				}
+			}
+			if (namedChildren.isEmpty()) {
+				childIndex.remove(child.getName());
+			}
+			numIndexedChildren--;
 			// Remove the parent link of the child
-			cNode.parent = null;
+			child.parent = null;
 			// Fix the currentChildIndex iterator if needed
 			if (currentChildIndex > i) {
 				currentChildIndex--;
 			}
 			// Unregister listeners from the removed child.
 			for (IUpdateableListener listener : listeners) {
-				cNode.unregister(listener);
+				child.unregister(listener);
 			}
 			// Notify any listeners
 			notifyListeners();
@@ -493,6 +636,110 @@ public class TreeComposite extends ICEObject implements Composite,
 
 	}
 
+	/**
+	 * This operation returns the first child with the given name. It uses an
+	 * index of the children, so it does not depend on the number of children.
+	 * 
+	 * @param name
+	 *            The name of the child
+	 * @return The child or null if there is not a child with that name
+	 */
+	public TreeComposite getChildByName(String name) {
+
+		ArrayList<TreeComposite> namedChildren = getChildIndex().get(name);
+
+		return (namedChildren != null) ? namedChildren.get(0) : null;
+	}
+
+	/**
+	 * This operation returns the descendant at the end of a path of child
+	 * names separated by slashes, such as "Kernels/diff". The first name is
+	 * the name of a child of this tree and the first child with each name is
+	 * followed. Empty names are skipped, so "/Kernels/diff/" is the same path.
+	 * The time required depends only on the depth of the path.
+	 * 
+	 * @param path
+	 *            The path of child names
+	 * @return The descendant or null if the path does not exist
+	 */
+	public TreeComposite getChildByPath(String path) {
+
+		// Local Declarations
+		TreeComposite tree = this;
+
+		if (path == null) {
+			return null;
+		}
+
+		// Walk down the tree one name at a time
+		for (String name : path.split("/")) {
+			if (!name.isEmpty()) {
+				tree = tree.getChildByName(name);
+				if (tree == null) {
+					break;
+				}
+			}
+		}
+
+		return tree;
+	}
+
+	/**
+	 * This operation returns the Entry at the end of a path such as
+	 * "Kernels/diff/variable". Everything before the last slash is a path of
+	 * child names as in getChildByPath() and the last name is the name of an
+	 * Entry in one of the DataComponents of that descendant. A path without a
+	 * slash names an Entry in the data nodes of this tree.
+	 * 
+	 * @param path
+	 *            The path of the Entry
+	 * @return The first Entry with that name in the data nodes of the
+	 *         descendant or null if it does not exist
+	 */
+	public Entry getEntryByPath(String path) {
+
+		// Local Declarations
+		Entry entry = null;
+
+		if (path != null) {
+			// Find the tree that holds the Entry
+			int split = path.lastIndexOf('/');
+			TreeComposite tree = (split < 0) ? this : getChildByPath(path
+					.substring(0, split));
+			String entryName = path.substring(split + 1);
+			// Look for the Entry in its DataComponents
+			if (tree != null) {
+				for (Component node : tree.dataNodes) {
+					if (node instanceof DataComponent) {
+						entry = ((DataComponent) node).retrieveEntry(entryName);
+						if (entry != null) {
+							break;
+						}
+					}
+				}
+			}
+		}
+
+		return entry;
+	}
+
+	/**
+	 * This operation overrides ICEObject.setName() to tell the parent, which
+	 * indexes its children by name, that the name changed.
+	 * 
+	 * @see ICEObject#setName(String)
+	 */
+	@Override
+	public void setName(String name) {
+
+		if (name != null && parent != null) {
+			parent.childIndex = null;
+		}
+		super.setName(name);
+
+		return;
+	}
+
 	/**
 	 * <p>
 	 * This operation returns the number of children of this TreeComposite.
@@ -816,8 +1063,14 @@ public class TreeComposite extends ICEObject implements Composite,
 		for (IUpdateableListener listener : listenersCopy) {
 			unregister(listener);
 		}
-		// Copy ICEObject contents
+		// Copy ICEObject contents. The parent has to rebuild its index if the
+		// name changes.
+		String oldName = objectName;
 		super.copy(otherTreeComposite);
+		if (parent != null && objectName != null
+				&& !objectName.equals(oldName)) {
+			parent.childIndex = null;
+		}
 
 		// Copy contents - look at differences between "shallow", "deep", and
 		// nullaries
@@ -833,6 +1086,7 @@ public class TreeComposite extends ICEObject implements Composite,
 
 		// Clear the list of children to prepare for a deep copy
 		this.children.clear();
+		this.childIndex = null;
 
 		// Performs a deep copy. Please note that children's parents are reset!
 		for (int i = 0; i < otherTreeComposite.children.size(); i++) {
@@ -876,6 +1130,7 @@ public class TreeComposite extends ICEObject implements Composite,
 
 		// Copy the exemplars
 		this.childExemplars.clear();
+		this.exemplarIndex = null;
 		for (int i = 0; i < otherTreeComposite.childExemplars.size(); i++) {
 			this.childExemplars
 					.add((TreeComposite) otherTreeComposite.childExemplars.get(
@@ -933,6 +1188,7 @@ public class TreeComposite extends ICEObject implements Composite,
 		// Check that the incoming list is valid
 		if (exemplars != null) {
 			childExemplars = (ArrayList<TreeComposite>) exemplars.clone();
+			exemplarIndex = null;
 		}
 
 		return;
@@ -968,6 +1224,7 @@ public class TreeComposite extends ICEObject implements Composite,
 			// Add the new child exemplar
 			TreeComposite cloneExemplar = (TreeComposite) exemplar.clone();
 			childExemplars.add(cloneExemplar);
+			exemplarIndex = null;
 		}
 
 		return;
@@ -24,6 +24,7 @@ import javax.xml.bind.annotation.XmlTransient;
 
 import org.eclipse.ice.datastructures.ICEObject.IUpdateable;
 import org.eclipse.ice.datastructures.ICEObject.IUpdateableListener;
+import org.eclipse.ice.datastructures.ICEObject.NotificationDispatcher;
 import org.eclipse.ice.datastructures.form.GeometryComponent;
 import org.eclipse.ice.viz.service.geometry.shapes.Geometry;
 import org.eclipse.ice.viz.service.geometry.shapes.IShape;
@@ -365,27 +366,13 @@ public class ICEGeometry implements IUpdateable, IUpdateableListener {
 	 */
 	protected void notifyListeners() {
 
-		final ICEGeometry geometry = this;
-
 		// If the listeners are empty, return
 		if (this.listeners == null || this.listeners.isEmpty()) {
 			return;
 		}
-		// Create a thread object that notifies all listeners
-
-		Thread notifyThread = new Thread() {
-
-			@Override
-			public void run() {
-				// Loop over all listeners and update them
-				for (int i = 0; i < listeners.size(); i++) {
-					listeners.get(i).update(geometry);
-				}
-			}
-		};
 
-		// Start the thread
-		notifyThread.start();
+		// Let the shared dispatcher notify all listeners
+		NotificationDispatcher.getDefault().post(this, listeners);
 
 	}
 
@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.jaxbclassprovider;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+
+/**
+ * <p>
+ * The JAXBContextRegistry is a thread-safe cache of JAXBContexts shared by all
+ * of the XML readers and writers in ICE. Creating a JAXBContext is very
+ * expensive, so contexts are created once for each distinct set of classes and
+ * reused afterwards. The order in which the classes are given does not matter.
+ * </p>
+ * <p>
+ * JAXBContexts are thread-safe, but Marshallers and Unmarshallers are not. The
+ * registry keeps one Marshaller and one Unmarshaller per context for each
+ * thread so that they can be reused without synchronization. They must not be
+ * shared with other threads or kept after the (un)marshalling call completes.
+ * </p>
+ */
+public final class JAXBContextRegistry {
+
+	/**
+	 * The cached contexts keyed by the set of classes used to create them.
+	 */
+	private static final ConcurrentHashMap<Set<Class<?>>, JAXBContext> contexts = new ConcurrentHashMap<Set<Class<?>>, JAXBContext>();
+
+	/**
+	 * The Marshallers of the current thread keyed by context.
+	 */
+	private static final ThreadLocal<Map<JAXBContext, Marshaller>> marshallers = new ThreadLocal<Map<JAXBContext, Marshaller>>() {
+		@Override
+		protected Map<JAXBContext, Marshaller> initialValue() {
+			return new IdentityHashMap<JAXBContext, Marshaller>();
+		}
+	};
+
+	/**
+	 * The Unmarshallers of the current thread keyed by context.
+	 */
+	private static final ThreadLocal<Map<JAXBContext, Unmarshaller>> unmarshallers = new ThreadLocal<Map<JAXBContext, Unmarshaller>>() {
+		@Override
+		protected Map<JAXBContext, Unmarshaller> initialValue() {
+			return new IdentityHashMap<JAXBContext, Unmarshaller>();
+		}
+	};
+
+	/**
+	 * The constructor. This class only has static operations.
+	 */
+	private JAXBContextRegistry() {
+	}
+
+	/**
+	 * This operation returns the JAXBContext for the given classes, creating
+	 * it if it has not been created before.
+	 *
+	 * @param classes
+	 *            The classes that the context must know about.
+	 * @return The JAXBContext for the classes.
+	 * @throws JAXBException
+	 *             An exception indicating that the context could not be
+	 *             created.
+	 */
+	public static JAXBContext getContext(Class<?>... classes)
+			throws JAXBException {
+		return getContext(Arrays.asList(classes));
+	}
+
+	/**
+	 * This operation returns the JAXBContext for the given classes, creating
+	 * it if it has not been created before.
+	 *
+	 * @param classes
+	 *            The classes that the context must know about.
+	 * @return The JAXBContext for the classes.
+	 * @throws JAXBException
+	 *             An exception indicating that the context could not be
+	 *             created.
+	 */
+	public static JAXBContext getContext(Collection<? extends Class> classes)
+			throws JAXBException {
+
+		// Local Declarations
+		Set<Class<?>> classSet = new HashSet<Class<?>>();
+		Set<Class<?>> key;
+		JAXBContext context;
+
+		if (classes == null) {
+			throw new NullPointerException("JAXBContextRegistry Error: "
+					+ "The class list cannot be null.");
+		}
+
+		// Look up the context
+		for (Class<?> clazz : classes) {
+			classSet.add(clazz);
+		}
+		key = Collections.unmodifiableSet(classSet);
+		context = contexts.get(key);
+
+		if (context == null) {
+			// Only one thread should pay for building a given context
+			synchronized (contexts) {
+				context = contexts.get(key);
+				if (context == null) {
+					context = JAXBContext.newInstance(key
+							.toArray(new Class<?>[key.size()]));
+					contexts.put(key, context);
+				}
+			}
+		}
+
+		return context;
+	}
+
+	/**
+	 * This operation returns the Marshaller of the current thread for the
+	 * context.
+	 *
+	 * @param context
+	 *            The context of the Marshaller.
+	 * @param formatted
+	 *            True if the output should be pretty-printed, false otherwise.
+	 * @return The Marshaller.
+	 * @throws JAXBException
+	 *             An exception indicating that the Marshaller could not be
+	 *             created.
+	 */
+	public static Marshaller getMarshaller(JAXBContext context,
+			boolean formatted) throws JAXBException {
+
+		Map<JAXBContext, Marshaller> threadMarshallers = marshallers.get();
+		Marshaller marshaller = threadMarshallers.get(context);
+
+		if (marshaller == null) {
+			marshaller = context.createMarshaller();
+			threadMarshallers.put(context, marshaller);
+		}
+		marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT,
+				Boolean.valueOf(formatted));
+
+		return marshaller;
+	}
+
+	/**
+	 * This operation returns the Unmarshaller of the current thread for the
+	 * context.
+	 *
+	 * @param context
+	 *            The context of the Unmarshaller.
+	 * @return The Unmarshaller.
+	 * @throws JAXBException
+	 *             An exception indicating that the Unmarshaller could not be
+	 *             created.
+	 */
+	public static Unmarshaller getUnmarshaller(JAXBContext context)
+			throws JAXBException {
+
+		Map<JAXBContext, Unmarshaller> threadUnmarshallers = unmarshallers
+				.get();
+		Unmarshaller unmarshaller = threadUnmarshallers.get(context);
+
+		if (unmarshaller == null) {
+			unmarshaller = context.createUnmarshaller();
+			threadUnmarshallers.put(context, unmarshaller);
+		}
+
+		return unmarshaller;
+	}
+
+	/**
+	 * This operation returns the number of cached contexts.
+	 *
+	 * @return The number of contexts.
+	 */
+	public static int size() {
+		return contexts.size();
+	}
+
+	/**
+	 * This operation removes all cached contexts. It should be called if the
+	 * classes the contexts were created from are being unloaded. Only the
+	 * Marshallers and Unmarshallers of the calling thread are released; those
+	 * of other threads are never handed out again and are released when the
+	 * threads end.
+	 */
+	public static void clear() {
+		contexts.clear();
+		marshallers.remove();
+		unmarshallers.remove();
+	}
+}
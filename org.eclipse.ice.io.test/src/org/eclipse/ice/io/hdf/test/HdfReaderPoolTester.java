@@ -0,0 +1,345 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.io.hdf.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import ncsa.hdf.hdf5lib.HDF5Constants;
+import ncsa.hdf.hdf5lib.exceptions.HDF5Exception;
+
+import org.eclipse.ice.io.hdf.HdfIOFactory;
+import org.eclipse.ice.io.hdf.HdfIORegistry;
+import org.eclipse.ice.io.hdf.HdfReaderPool;
+import org.eclipse.ice.io.hdf.IHdfIORegistry;
+import org.eclipse.ice.io.hdf.IHdfReadable;
+import org.eclipse.ice.reactor.AssemblyType;
+import org.eclipse.ice.reactor.LWRComponentReader;
+import org.eclipse.ice.reactor.LWRComponentWriter;
+import org.eclipse.ice.reactor.LWRDataProvider;
+import org.eclipse.ice.reactor.pwr.FuelAssembly;
+import org.eclipse.ice.reactor.pwr.PressurizedWaterReactor;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * <p>
+ * This class tests the HdfReaderPool class with several files that each hold
+ * a PWR with pin powers in all of its assemblies. It also prints the time
+ * needed to read the files one after another and with the pool.
+ * </p>
+ */
+public class HdfReaderPoolTester {
+
+	/**
+	 * The number of files, the size of the core and of the assemblies.
+	 */
+	private static final int nFiles = 6, coreSize = 7, nPins = 17;
+
+	/**
+	 * The reactor in the files.
+	 */
+	private static PressurizedWaterReactor reactor;
+
+	/**
+	 * The URIs of the test files.
+	 */
+	private static List<URI> uris;
+
+	/**
+	 * This operation writes the test files.
+	 */
+	@BeforeClass
+	public static void beforeClass() {
+
+		// Put an assembly with pin powers at every location of the core
+		reactor = new PressurizedWaterReactor(coreSize);
+		reactor.setName("Reactor");
+		FuelAssembly assembly = new FuelAssembly("Assembly", nPins);
+		reactor.addAssembly(AssemblyType.Fuel, assembly);
+		Random random = new Random(1);
+		for (int row = 0; row < coreSize; row++) {
+			for (int column = 0; column < coreSize; column++) {
+				reactor.setAssemblyLocation(AssemblyType.Fuel,
+						assembly.getName(), row, column);
+				LWRDataProvider provider = reactor
+						.getAssemblyDataProviderAtLocation(AssemblyType.Fuel,
+								row, column);
+				for (int t = 0; t < 2; t++) {
+					for (int i = 0; i < nPins; i++) {
+						for (int j = 0; j < nPins; j++) {
+							provider.addData("Pin Power", random.nextDouble(),
+									0.01, i, j, 0, "W", t);
+						}
+					}
+				}
+			}
+		}
+
+		// Write the files
+		String separator = System.getProperty("file.separator");
+		String path = System.getProperty("user.home") + separator + "ICETests"
+				+ separator + "readerPool";
+		LWRComponentWriter writer = new LWRComponentWriter();
+		uris = new ArrayList<URI>();
+		for (int i = 0; i < nFiles; i++) {
+			URI uri = new File(path + i + ".h5").toURI();
+			assertTrue(writer.write(reactor, uri));
+			uris.add(uri);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation removes the test files.
+	 */
+	@AfterClass
+	public static void afterClass() {
+		for (URI uri : uris) {
+			new File(uri).delete();
+		}
+	}
+
+	/**
+	 * <p>
+	 * This operation checks that the pool reads every file and counts the
+	 * bytes and objects that were read.
+	 * </p>
+	 */
+	@Test
+	public void checkReading() {
+
+		HdfReaderPool pool = new HdfReaderPool(3);
+
+		// A file that does not exist is not read or counted
+		String separator = System.getProperty("file.separator");
+		URI badURI = new File(System.getProperty("user.home") + separator
+				+ "ICETests" + separator + "notAFile.h5").toURI();
+		try {
+			assertTrue(pool.readObjects(badURI).get().isEmpty());
+		} catch (InterruptedException | ExecutionException e) {
+			fail();
+		}
+		assertEquals(0, pool.getBytesRead());
+		assertEquals(0, pool.getObjectsRead());
+
+		// Read all of the files with the same reader
+		List<Future<IHdfReadable>> futures = pool.read(uris,
+				new LWRComponentReader());
+		assertEquals(nFiles, futures.size());
+		long bytes = 0;
+		for (int i = 0; i < nFiles; i++) {
+			try {
+				assertEquals(reactor, futures.get(i).get());
+			} catch (InterruptedException | ExecutionException e) {
+				fail();
+			}
+			bytes += new File(uris.get(i)).length();
+		}
+		assertEquals(bytes, pool.getBytesRead());
+		assertEquals(nFiles, pool.getObjectsRead());
+		assertTrue(pool.getReadTime() > 0.0);
+		assertTrue(pool.getBytesPerSecond() > 0.0);
+		assertTrue(pool.getObjectsPerSecond() > 0.0);
+
+		// Reset the statistics
+		pool.resetStatistics();
+		assertEquals(0, pool.getBytesRead());
+		assertEquals(0, pool.getObjectsRead());
+		assertEquals(0.0, pool.getReadTime(), 0.0);
+
+		pool.shutdown();
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation checks that the pool reads the objects of several files
+	 * at the same time with the shared factories of the registry.
+	 * </p>
+	 */
+	@Test
+	public void checkReadingObjects() {
+
+		// Register a factory for points
+		IHdfIORegistry oldRegistry = HdfIOFactory.getHdfIORegistry();
+		HdfIORegistry registry = new HdfIORegistry();
+		registry.registerHdfIOFactory(new PointIOFactory());
+		HdfIOFactory.setHdfIORegistry(registry);
+
+		// Write files with different points
+		String separator = System.getProperty("file.separator");
+		String path = System.getProperty("user.home") + separator + "ICETests"
+				+ separator + "pointPool";
+		List<URI> pointURIs = new ArrayList<URI>();
+		List<List<Object>> points = new ArrayList<List<Object>>();
+		for (int i = 0; i < nFiles; i++) {
+			List<Object> filePoints = new ArrayList<Object>();
+			for (int j = 0; j < 200; j++) {
+				filePoints.add(new Point(i * 1000 + j, i + j * 0.5));
+			}
+			URI uri = new File(path + i + ".h5").toURI();
+			new HdfIOFactory().writeObjects(uri, filePoints);
+			pointURIs.add(uri);
+			points.add(filePoints);
+		}
+
+		// Read them all at once
+		HdfReaderPool pool = new HdfReaderPool(nFiles);
+		try {
+			List<Future<List<Object>>> futures = pool.readObjects(pointURIs);
+			for (int i = 0; i < nFiles; i++) {
+				// The groups are read in the order of their names
+				List<Object> filePoints = futures.get(i).get();
+				assertEquals(200, filePoints.size());
+				assertEquals(new HashSet<Object>(points.get(i)),
+						new HashSet<Object>(filePoints));
+			}
+			assertEquals(nFiles * 200, pool.getObjectsRead());
+		} catch (InterruptedException | ExecutionException e) {
+			fail();
+		} finally {
+			pool.shutdown();
+			HdfIOFactory.unsetHdfIORegistry(registry);
+			if (oldRegistry != null) {
+				HdfIOFactory.setHdfIORegistry(oldRegistry);
+			}
+			for (URI uri : pointURIs) {
+				new File(uri).delete();
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation times reading the files one after another and with the
+	 * pool. It does not check that the pool is faster, since that depends on
+	 * the number of processors.
+	 * </p>
+	 */
+	@Test
+	public void checkThroughput() {
+
+		// Read the files one after another
+		LWRComponentReader reader = new LWRComponentReader();
+		long start = System.nanoTime();
+		for (URI uri : uris) {
+			assertEquals(reactor, reader.read(uri));
+		}
+		double serialTime = (System.nanoTime() - start) / 1.0e9;
+
+		// Read them with the pool
+		HdfReaderPool pool = new HdfReaderPool(0);
+		for (Future<IHdfReadable> future : pool.read(uris, reader)) {
+			try {
+				assertEquals(reactor, future.get());
+			} catch (InterruptedException | ExecutionException e) {
+				fail();
+			}
+		}
+		pool.shutdown();
+
+		System.out.println("HdfReaderPoolTester Message: " + nFiles
+				+ " files, " + Runtime.getRuntime().availableProcessors()
+				+ " processors, serial = " + serialTime + " s, pool = "
+				+ pool.getReadTime() + " s, " + pool.getBytesPerSecond()
+				/ 1.0e6 + " MB/s, " + pool.getObjectsPerSecond()
+				+ " objects/s");
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * A point with an integer and a double attribute.
+	 * </p>
+	 */
+	private static class Point {
+
+		private final int id;
+		private final double value;
+
+		public Point(int id, double value) {
+			this.id = id;
+			this.value = value;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			return object instanceof Point && ((Point) object).id == id
+					&& ((Point) object).value == value;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * id + Double.valueOf(value).hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return "Point " + id;
+		}
+	}
+
+	/**
+	 * <p>
+	 * A factory that writes and reads Points as attributes of their groups.
+	 * </p>
+	 */
+	private static class PointIOFactory extends HdfIOFactory {
+
+		@Override
+		public List<Class<?>> getSupportedClasses() {
+			List<Class<?>> classes = new ArrayList<Class<?>>();
+			classes.add(Point.class);
+			return classes;
+		}
+
+		@Override
+		public String getTag(Class<?> supportedClass) {
+			return (supportedClass == Point.class ? "Point" : null);
+		}
+
+		@Override
+		public Object read(int groupId, String tag) throws HDF5Exception {
+			return new Point((Integer) readAttribute(groupId, "id",
+					HDF5Constants.H5T_NATIVE_INT), (Double) readAttribute(
+					groupId, "value", HDF5Constants.H5T_NATIVE_DOUBLE));
+		}
+
+		@Override
+		public void writeObjectData(int groupId, Object object)
+				throws HDF5Exception {
+			Point point = (Point) object;
+			writeAttribute(groupId, "id", HDF5Constants.H5T_NATIVE_INT,
+					point.id);
+			writeAttribute(groupId, "value", HDF5Constants.H5T_NATIVE_DOUBLE,
+					point.value);
+		}
+	}
+}
@@ -11,15 +11,16 @@
  *******************************************************************************/
 package org.eclipse.ice.io.csv;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 
 import javax.naming.OperationNotSupportedException;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.ice.csv.CSVParser;
 import org.eclipse.ice.datastructures.ICEObject.ListComponent;
 import org.eclipse.ice.datastructures.form.Entry;
 import org.eclipse.ice.datastructures.form.Form;
@@ -34,7 +35,9 @@ import org.slf4j.LoggerFactory;
  * the ListComponent is a line of the file, split and trimmed but uncast.
  * Clients must know the concrete type to which they want to cast.
  *
- * Comments are ignored and begin with the "#" character.
+ * Comments are ignored and begin with the "#" character. The lines are split
+ * by the {@link CSVParser}, which handles them the same way as the other CSV
+ * readers in ICE.
  *
  * @author Jay Jay Billings
  *
@@ -73,29 +76,16 @@ public class CSVReader implements IReader {
 		lines.setDescription(file.getName());
 
 		try {
-			// Grab the contents of the file
-			BufferedReader reader = new BufferedReader(new InputStreamReader(
-					file.getContents()));
-			String line = null;
-			while ((line = reader.readLine()) != null) {
-				// Skip lines that pure comments
-				if (!line.startsWith("#")) {
-					// Clip the line if it has a comment symbol in it to be
-					// everything before the symbol
-					if (line.contains("#")) {
-						int index = line.indexOf("#");
-						line = line.substring(0, index);
-					}
-					// Clean up any crap on the line
-					String[] lineArray = line.trim().split(",");
-					// And clean up any crap on each split piece
-					for (String element : lineArray) {
-						element = element.trim();
-					}
-					// Put the lines in the list
-					lines.add(lineArray);
-				}
+			// Grab the contents of the file. Large local files are mapped.
+			ByteBuffer buffer;
+			IPath location = file.getLocation();
+			if (location != null && location.toFile().isFile()) {
+				buffer = CSVParser.read(location.toFile());
+			} else {
+				buffer = CSVParser.read(file.getContents());
 			}
+			// Split the lines, skipping the comments, and put them in the list
+			lines.addAll(CSVParser.readLines(buffer));
 			form.addComponent(lines);
 		} catch (CoreException e) {
 			// Complain
@@ -67,16 +67,6 @@ public class HdfIOFactory implements IHdfIOFactory {
 	 * an attribute is a 1D array with 1 element.
 	 */
 	private static final long[] attributeDims = new long[] { 1 };
-	/**
-	 * A buffer that contains a single double value. Helps avoid having to
-	 * create a new double array for double attributes.
-	 */
-	private static final Double[] doubleAttributeBuffer = new Double[1];
-	/**
-	 * A buffer that contains a single integer value. Helps avoid having to
-	 * create a new integer array for integer attributes.
-	 */
-	private static final Integer[] integerAttributeBuffer = new Integer[1];
 
 	/**
 	 * The IHdfIORegistry implementation that is running as an OSGi Declarative
@@ -979,7 +969,8 @@ public class HdfIOFactory implements IHdfIOFactory {
 
 	/**
 	 * Gets a buffer used for writing or reading an HDF5 attribute. Currently
-	 * supports doubles and integers.
+	 * supports doubles and integers. A new buffer is created for each call,
+	 * because the factories are shared and files may be read concurrently.
 	 * 
 	 * @param type
 	 *            The data type, e.g. {@link HDF5Constants#H5T_NATIVE_DOUBLE} or
@@ -991,9 +982,9 @@ public class HdfIOFactory implements IHdfIOFactory {
 		Object[] buffer = null;
 
 		if (type == HDF5Constants.H5T_NATIVE_DOUBLE) {
-			buffer = doubleAttributeBuffer;
+			buffer = new Double[1];
 		} else if (type == HDF5Constants.H5T_NATIVE_INT) {
-			buffer = integerAttributeBuffer;
+			buffer = new Integer[1];
 		} else {
 			throwException("Unsupported data type.", -1);
 		}
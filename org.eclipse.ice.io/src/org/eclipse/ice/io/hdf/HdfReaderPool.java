@@ -0,0 +1,346 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.io.hdf;
+
+import java.io.File;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * This class reads several HDF5 files at the same time with a fixed pool of
+ * threads. Each file is read by a single thread with its own
+ * {@link HdfIOFactory} or with an {@link IHdfReader}, and the results are
+ * returned as Futures in the order the files were submitted.
+ * </p>
+ * <p>
+ * The HDF5 library only lets one thread call it at a time, so the time spent
+ * in the library is not shared between the threads. What is done in parallel
+ * is the work of the factories and readers between the calls, like building
+ * the objects from the data that was read, which is usually most of the time
+ * spent reading a file.
+ * </p>
+ * <p>
+ * The pool keeps the number of bytes and objects it has read and the time
+ * spent reading them, so that its throughput can be measured.
+ * </p>
+ */
+public class HdfReaderPool {
+
+	/**
+	 * Logger for handling event messages and other information.
+	 */
+	private static final Logger logger = LoggerFactory
+			.getLogger(HdfReaderPool.class);
+
+	/**
+	 * The threads that read the files.
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * The number of bytes and objects that have been read.
+	 */
+	private long bytesRead, objectsRead;
+
+	/**
+	 * The time in nanoseconds when at least one file was being read, not
+	 * including the current reads.
+	 */
+	private long readTime;
+
+	/**
+	 * The number of files being read and the time when the first one started.
+	 */
+	private int activeReads;
+	private long activeStart;
+
+	/**
+	 * The constructor.
+	 *
+	 * @param poolSize
+	 *            The number of files that can be read at the same time. If it
+	 *            is not positive, the number of processors is used.
+	 */
+	public HdfReaderPool(int poolSize) {
+
+		if (poolSize <= 0) {
+			poolSize = Runtime.getRuntime().availableProcessors();
+		}
+
+		// Use daemon threads so that a pool that is not shut down does not
+		// keep the application running.
+		executor = Executors.newFixedThreadPool(poolSize, new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "HdfReaderPool-"
+						+ count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+		return;
+	}
+
+	/**
+	 * Reads all objects from a file like {@link HdfIOFactory#readObjects(URI)}
+	 * in one of the threads of the pool.
+	 *
+	 * @param uri
+	 *            The URI of the file that should contain readable objects.
+	 * @return A Future for the List of objects read from the file, which is
+	 *         empty if the file could not be read.
+	 */
+	public Future<List<Object>> readObjects(final URI uri) {
+		return executor.submit(new ReadTask<List<Object>>(uri) {
+			@Override
+			protected List<Object> read() {
+				return new HdfIOFactory().readObjects(uri);
+			}
+
+			@Override
+			protected int getNumberOfObjects(List<Object> objects) {
+				return objects.size();
+			}
+		});
+	}
+
+	/**
+	 * Reads all objects from several files at the same time.
+	 *
+	 * @param uris
+	 *            The URIs of the files.
+	 * @return The Futures for the objects of each file, in the same order as
+	 *         the URIs.
+	 */
+	public List<Future<List<Object>>> readObjects(List<URI> uris) {
+		List<Future<List<Object>>> futures = new ArrayList<Future<List<Object>>>();
+		for (URI uri : uris) {
+			futures.add(readObjects(uri));
+		}
+		return futures;
+	}
+
+	/**
+	 * Reads a tree from a file with an IHdfReader in one of the threads of the
+	 * pool. If the same reader is used for several files, it must be safe to
+	 * use from several threads at once.
+	 *
+	 * @param uri
+	 *            The URI of the file.
+	 * @param reader
+	 *            The reader for the file.
+	 * @return A Future for the tree read from the file, which is null if the
+	 *         file could not be read.
+	 */
+	public Future<IHdfReadable> read(final URI uri, final IHdfReader reader) {
+		return executor.submit(new ReadTask<IHdfReadable>(uri) {
+			@Override
+			protected IHdfReadable read() {
+				return reader.read(uri);
+			}
+
+			@Override
+			protected int getNumberOfObjects(IHdfReadable readable) {
+				return readable != null ? 1 : 0;
+			}
+		});
+	}
+
+	/**
+	 * Reads the trees from several files at the same time with an IHdfReader,
+	 * which must be safe to use from several threads at once.
+	 *
+	 * @param uris
+	 *            The URIs of the files.
+	 * @param reader
+	 *            The reader for the files.
+	 * @return The Futures for the tree of each file, in the same order as the
+	 *         URIs.
+	 */
+	public List<Future<IHdfReadable>> read(List<URI> uris, IHdfReader reader) {
+		List<Future<IHdfReadable>> futures = new ArrayList<Future<IHdfReadable>>();
+		for (URI uri : uris) {
+			futures.add(read(uri, reader));
+		}
+		return futures;
+	}
+
+	/**
+	 * Gets the number of bytes in the files that have been read.
+	 *
+	 * @return The number of bytes.
+	 */
+	public synchronized long getBytesRead() {
+		return bytesRead;
+	}
+
+	/**
+	 * Gets the number of objects that have been read. A tree read with an
+	 * IHdfReader counts as one object.
+	 *
+	 * @return The number of objects.
+	 */
+	public synchronized long getObjectsRead() {
+		return objectsRead;
+	}
+
+	/**
+	 * Gets the time during which at least one file was being read. Files that
+	 * are read at the same time are only counted once.
+	 *
+	 * @return The time in seconds.
+	 */
+	public synchronized double getReadTime() {
+		long time = readTime;
+		if (activeReads > 0) {
+			time += System.nanoTime() - activeStart;
+		}
+		return time / 1.0e9;
+	}
+
+	/**
+	 * Gets the number of bytes read per second of read time.
+	 *
+	 * @return The throughput, or 0 if nothing was read.
+	 */
+	public synchronized double getBytesPerSecond() {
+		double time = getReadTime();
+		return time > 0.0 ? bytesRead / time : 0.0;
+	}
+
+	/**
+	 * Gets the number of objects read per second of read time.
+	 *
+	 * @return The throughput, or 0 if nothing was read.
+	 */
+	public synchronized double getObjectsPerSecond() {
+		double time = getReadTime();
+		return time > 0.0 ? objectsRead / time : 0.0;
+	}
+
+	/**
+	 * Resets the numbers of bytes and objects read and the read time. Files
+	 * that are being read are still counted when they are done.
+	 */
+	public synchronized void resetStatistics() {
+		bytesRead = 0;
+		objectsRead = 0;
+		readTime = 0;
+		activeStart = System.nanoTime();
+	}
+
+	/**
+	 * Stops the pool after the files that were submitted have been read. No
+	 * more files can be submitted.
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	/**
+	 * Records the start of a read.
+	 */
+	private synchronized void readStarted() {
+		if (activeReads++ == 0) {
+			activeStart = System.nanoTime();
+		}
+	}
+
+	/**
+	 * Records the end of a read.
+	 *
+	 * @param bytes
+	 *            The number of bytes in the file.
+	 * @param objects
+	 *            The number of objects read from the file.
+	 */
+	private synchronized void readFinished(long bytes, int objects) {
+		bytesRead += bytes;
+		objectsRead += objects;
+		if (--activeReads == 0) {
+			readTime += System.nanoTime() - activeStart;
+		}
+	}
+
+	/**
+	 * A task that reads one file and records it in the statistics of the pool.
+	 *
+	 * @param <T>
+	 *            The type of the result of the read.
+	 */
+	private abstract class ReadTask<T> implements Callable<T> {
+
+		/**
+		 * The URI of the file.
+		 */
+		private final URI uri;
+
+		/**
+		 * The constructor.
+		 *
+		 * @param uri
+		 *            The URI of the file.
+		 */
+		protected ReadTask(URI uri) {
+			this.uri = uri;
+		}
+
+		/**
+		 * Reads the file.
+		 *
+		 * @return The result of the read.
+		 */
+		protected abstract T read();
+
+		/**
+		 * Gets the number of objects in the result of the read.
+		 *
+		 * @param result
+		 *            The result of the read.
+		 * @return The number of objects.
+		 */
+		protected abstract int getNumberOfObjects(T result);
+
+		@Override
+		public T call() {
+			T result = null;
+			readStarted();
+			try {
+				result = read();
+			} catch (RuntimeException e) {
+				logger.error(getClass().getName() + " Exception!", e);
+				throw e;
+			} finally {
+				// Only count the files that something was read from
+				int objects = result != null ? getNumberOfObjects(result) : 0;
+				long bytes = objects > 0 ? new File(uri).length() : 0;
+				readFinished(bytes, objects);
+			}
+			return result;
+		}
+	}
+}
@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.io.hdf;
+
+/**
+ * <p>
+ * An interface for data that is read from a {@link LazyHdfFile} when it is
+ * first needed instead of when the rest of the file is read. The file calls
+ * these operations while it is locked, so they must not lock anything that
+ * another thread could hold while it waits for the file.
+ * </p>
+ */
+public interface ILazyHdfReadable {
+
+	/**
+	 * <p>
+	 * This operation reads the data from the file.
+	 * </p>
+	 *
+	 * @param file
+	 *            <p>
+	 *            The open file to read the data from.
+	 *            </p>
+	 * @return <p>
+	 *         The size of the data that was read, in the units of the capacity
+	 *         of the file's cache, or a negative number if it could not be
+	 *         read.
+	 *         </p>
+	 */
+	public long load(LazyHdfFile file);
+
+	/**
+	 * <p>
+	 * This operation drops the data read by load() so that it can be garbage
+	 * collected. It is read again by load() the next time it is needed.
+	 * </p>
+	 */
+	public void unload();
+
+}
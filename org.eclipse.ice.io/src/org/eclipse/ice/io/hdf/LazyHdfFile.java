@@ -0,0 +1,267 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.io.hdf;
+
+import java.io.File;
+import java.net.URI;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import ncsa.hdf.object.FileFormat;
+import ncsa.hdf.object.h5.H5File;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * The LazyHdfFile class keeps an HDF5 file open for reading so that parts of
+ * it can be read when they are first needed. These parts are
+ * {@link ILazyHdfReadable}s. The ones that were read are kept in a least
+ * recently used cache. When the total size of the cache is larger than its
+ * capacity, the least recently used ones are unloaded and they are read again
+ * the next time they are needed.
+ * </p>
+ * <p>
+ * This class is thread-safe. The file is only read while this object is
+ * locked, so other code that reads the file after it was opened, like the
+ * readers that create the ILazyHdfReadables, should synchronize on it too.
+ * After the file is closed, the parts that were read are kept and the others
+ * can no longer be read.
+ * </p>
+ */
+public class LazyHdfFile {
+
+	/**
+	 * Logger for handling event messages and other information.
+	 */
+	private static final Logger logger = LoggerFactory
+			.getLogger(LazyHdfFile.class);
+
+	/**
+	 * <p>
+	 * The file, or null if it is closed.
+	 * </p>
+	 */
+	private H5File h5File;
+
+	/**
+	 * <p>
+	 * The parts that were read and their sizes, from the least to the most
+	 * recently used.
+	 * </p>
+	 */
+	private final LinkedHashMap<ILazyHdfReadable, Long> cache;
+
+	/**
+	 * <p>
+	 * The capacity and the total size of the cache.
+	 * </p>
+	 */
+	private final long capacity;
+	private long size;
+
+	/**
+	 * <p>
+	 * The constructor. It opens the file for reading.
+	 * </p>
+	 *
+	 * @param uri
+	 *            <p>
+	 *            The URI of the file.
+	 *            </p>
+	 * @param capacity
+	 *            <p>
+	 *            The total size of the parts that are kept after they were
+	 *            read. The part that was read last is always kept.
+	 *            </p>
+	 */
+	public LazyHdfFile(URI uri, long capacity) {
+
+		this.capacity = capacity;
+		this.cache = new LinkedHashMap<ILazyHdfReadable, Long>(16, 0.75f, true);
+
+		// Open the file with read-only access like
+		// HdfFileFactory.openH5File()
+		if (uri != null && new File(uri).exists()) {
+			FileFormat fileFormat = FileFormat
+					.getFileFormat(FileFormat.FILE_TYPE_HDF5);
+			try {
+				H5File file = (H5File) fileFormat.createInstance(
+						new File(uri).getPath(), FileFormat.READ);
+				if (file != null && file.exists() && file.open() != -1) {
+					h5File = file;
+				}
+			} catch (Exception e) {
+				logger.error("LazyHdfFile Exception!", e);
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Returns true if the file is open.
+	 * </p>
+	 *
+	 * @return <p>
+	 *         True if the file is open, false if it could not be opened or it
+	 *         was closed.
+	 *         </p>
+	 */
+	public synchronized boolean isOpen() {
+		return h5File != null;
+	}
+
+	/**
+	 * <p>
+	 * Returns the file. It should only be read while this object is locked.
+	 * </p>
+	 *
+	 * @return <p>
+	 *         The open file, or null if it is closed.
+	 *         </p>
+	 */
+	public synchronized H5File getH5File() {
+		return h5File;
+	}
+
+	/**
+	 * <p>
+	 * Reads a part of the file if it is not in the cache and makes it the most
+	 * recently used part.
+	 * </p>
+	 *
+	 * @param readable
+	 *            <p>
+	 *            The part to read.
+	 *            </p>
+	 * @return <p>
+	 *         True if the part is in the cache, false if it could not be read.
+	 *         </p>
+	 */
+	public synchronized boolean load(ILazyHdfReadable readable) {
+
+		// Nothing needs to be read if it is in the cache
+		if (readable == null) {
+			return false;
+		} else if (cache.get(readable) != null) {
+			return true;
+		} else if (h5File == null) {
+			return false;
+		}
+
+		// Read it and add it to the cache
+		long readableSize = readable.load(this);
+		if (readableSize < 0) {
+			return false;
+		}
+		cache.put(readable, readableSize);
+		size += readableSize;
+
+		// Unload the least recently used parts until the cache fits
+		Iterator<Map.Entry<ILazyHdfReadable, Long>> iterator = cache
+				.entrySet().iterator();
+		while (size > capacity && cache.size() > 1) {
+			Map.Entry<ILazyHdfReadable, Long> eldest = iterator.next();
+			iterator.remove();
+			size -= eldest.getValue();
+			eldest.getKey().unload();
+		}
+
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * Removes a part from the cache without unloading it, so that it keeps its
+	 * data. This is used when the data is changed and can no longer be read
+	 * again from the file.
+	 * </p>
+	 *
+	 * @param readable
+	 *            <p>
+	 *            The part to remove.
+	 *            </p>
+	 */
+	public synchronized void release(ILazyHdfReadable readable) {
+		Long readableSize = cache.remove(readable);
+		if (readableSize != null) {
+			size -= readableSize;
+		}
+	}
+
+	/**
+	 * <p>
+	 * Reads a part of the file if it is not in the cache and removes it from
+	 * the cache, so that it keeps its data. Both are done while this object is
+	 * locked, so other parts that are read meanwhile cannot unload it. This is
+	 * used before the data is changed.
+	 * </p>
+	 *
+	 * @param readable
+	 *            <p>
+	 *            The part to read and remove.
+	 *            </p>
+	 * @return <p>
+	 *         True if the part has its data, false if it could not be read.
+	 *         </p>
+	 */
+	public synchronized boolean detach(ILazyHdfReadable readable) {
+
+		// Remove it if it is in the cache
+		if (readable == null) {
+			return false;
+		}
+		Long readableSize = cache.remove(readable);
+		if (readableSize != null) {
+			size -= readableSize;
+			return true;
+		} else if (h5File == null) {
+			return false;
+		}
+
+		// Read it without adding it to the cache
+		return readable.load(this) >= 0;
+	}
+
+	/**
+	 * <p>
+	 * Returns the number of parts in the cache.
+	 * </p>
+	 *
+	 * @return <p>
+	 *         The number of parts.
+	 *         </p>
+	 */
+	public synchronized int getNumberOfLoadedParts() {
+		return cache.size();
+	}
+
+	/**
+	 * <p>
+	 * Closes the file. The parts in the cache keep their data.
+	 * </p>
+	 */
+	public synchronized void close() {
+		if (h5File != null) {
+			HdfFileFactory.closeH5File(h5File);
+			h5File = null;
+		}
+		cache.clear();
+		size = 0;
+	}
+
+}
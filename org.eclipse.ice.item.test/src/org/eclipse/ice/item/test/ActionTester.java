@@ -14,8 +14,16 @@ package org.eclipse.ice.item.test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
 
 import org.eclipse.ice.datastructures.form.Form;
+import org.eclipse.ice.datastructures.form.FormStatus;
+import org.eclipse.ice.item.Item;
+import org.eclipse.ice.item.ItemStatusListener;
+import org.eclipse.ice.item.action.Action;
+import org.eclipse.ice.item.action.IActionStatusListener;
 import org.junit.Test;
 
 /**
@@ -63,4 +71,62 @@ public class ActionTester {
 
 		return;
 	}
+
+	/**
+	 * This operation checks that changes of the status of an Action are
+	 * published to its listeners and forwarded to the Item that is processing
+	 * it.
+	 */
+	@Test
+	public void checkStatusListeners() {
+
+		// Local Declarations
+		final ArrayList<FormStatus> actionStatuses = new ArrayList<FormStatus>();
+		final ArrayList<FormStatus> itemStatuses = new ArrayList<FormStatus>();
+		final TestItem item = new TestItem(null);
+
+		// Listen to the Action
+		testAction = new TestAction();
+		testAction.addStatusListener(new IActionStatusListener() {
+			@Override
+			public void statusChanged(Action action, FormStatus status) {
+				assertSame(testAction, action);
+				actionStatuses.add(status);
+			}
+		});
+
+		// Listen to the Item and let it process the Action
+		item.addStatusListener(new ItemStatusListener() {
+			@Override
+			public void statusChanged(Item changedItem, FormStatus status) {
+				assertSame(item, changedItem);
+				itemStatuses.add(status);
+			}
+		});
+		item.processTestAction(testAction);
+
+		// Change the status. Repeating a status should not publish it again.
+		testAction.changeStatus(FormStatus.NeedsInfo);
+		testAction.changeStatus(FormStatus.NeedsInfo);
+		testAction.changeStatus(FormStatus.Processed);
+
+		// Check the Action's listener
+		assertEquals(2, actionStatuses.size());
+		assertEquals(FormStatus.NeedsInfo, actionStatuses.get(0));
+		assertEquals(FormStatus.Processed, actionStatuses.get(1));
+
+		// Check the Item's listener
+		assertEquals(3, itemStatuses.size());
+		assertEquals(FormStatus.Processing, itemStatuses.get(0));
+		assertEquals(FormStatus.NeedsInfo, itemStatuses.get(1));
+		assertEquals(FormStatus.Processed, itemStatuses.get(2));
+		assertEquals(FormStatus.Processed, item.getStatus());
+
+		// Once the Item is done, the Action should not change it anymore
+		testAction.changeStatus(FormStatus.InfoError);
+		assertEquals(3, itemStatuses.size());
+		assertEquals(FormStatus.Processed, item.getStatus());
+
+		return;
+	}
 }
\ No newline at end of file
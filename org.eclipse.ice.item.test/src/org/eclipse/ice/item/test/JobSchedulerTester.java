@@ -0,0 +1,287 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings
+ *******************************************************************************/
+package org.eclipse.ice.item.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.ice.datastructures.form.FormStatus;
+import org.eclipse.ice.item.Item;
+import org.eclipse.ice.item.jobLauncher.JobScheduler;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class is responsible for testing the JobScheduler. It uses Items that
+ * finish shortly after they are launched on their own threads.
+ */
+public class JobSchedulerTester {
+
+	/**
+	 * The names of the jobs in the order in which they were launched.
+	 */
+	private List<String> launches;
+
+	/**
+	 * The number of jobs that are running and the largest number of jobs that
+	 * ran at the same time.
+	 */
+	private AtomicInteger running, maxRunning;
+
+	/**
+	 * This operation resets the counters before each test.
+	 */
+	@Before
+	public void before() {
+		launches = Collections.synchronizedList(new ArrayList<String>());
+		running = new AtomicInteger();
+		maxRunning = new AtomicInteger();
+	}
+
+	/**
+	 * This operation checks that jobs are only launched after the jobs they
+	 * depend on and that the metrics are recorded.
+	 */
+	@Test
+	public void checkDependencies() {
+
+		// Create a diamond: b and c depend on a and d depends on both
+		JobScheduler scheduler = new JobScheduler();
+		Item a = new ScheduledItem("a", 0), b = new ScheduledItem("b", 0);
+		Item c = new ScheduledItem("c", 0), d = new ScheduledItem("d", 0);
+		scheduler.addJob(a);
+		scheduler.addJob(b, a);
+		scheduler.addJob(c, a);
+		scheduler.addJob(d, b, c);
+
+		assertEquals(FormStatus.Processed, scheduler.run());
+		assertEquals(4, launches.size());
+		assertEquals("a", launches.get(0));
+		assertEquals("d", launches.get(3));
+		assertEquals(4, scheduler.getCompletedCount());
+
+		// Check the metrics
+		assertTrue(scheduler.getThroughput() > 0.0);
+		assertTrue(scheduler.getAverageTime(JobScheduler.Stage.Running) > 0.0);
+		assertTrue(scheduler.getAverageTime(JobScheduler.Stage.Dependencies) > 0.0);
+
+		// Dependencies must be added first
+		try {
+			new JobScheduler().addJob(b, a);
+			fail("JobSchedulerTester: Unknown dependencies must be rejected.");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation checks that the number of jobs and cores of a host is
+	 * limited.
+	 */
+	@Test
+	public void checkHostLimits() {
+
+		// Limit the host to two jobs
+		JobScheduler scheduler = new JobScheduler();
+		scheduler.setHostLimits(JobScheduler.LOCAL_HOST, 2, 8);
+		for (int i = 0; i < 6; i++) {
+			scheduler.addJob(new ScheduledItem("job" + i, 0));
+		}
+		assertEquals(FormStatus.Processed, scheduler.run());
+		assertEquals(6, launches.size());
+		assertEquals(2, maxRunning.get());
+
+		// Each job needs one core, so a single core serializes them
+		before();
+		scheduler = new JobScheduler();
+		scheduler.setHostLimits(JobScheduler.LOCAL_HOST, 4, 1);
+		for (int i = 0; i < 4; i++) {
+			scheduler.addJob(new ScheduledItem("job" + i, 0));
+		}
+		assertEquals(FormStatus.Processed, scheduler.run());
+		assertEquals(1, maxRunning.get());
+		assertTrue(scheduler.getAverageTime(JobScheduler.Stage.Queue) > 0.0);
+
+		// Remote hosts do not get the limits of the local machine
+		scheduler = new JobScheduler();
+		scheduler.setDefaultHostLimits(8, 16);
+		assertEquals(8, scheduler.getMaxJobs(JobScheduler.LOCAL_HOST));
+		assertEquals(16, scheduler.getMaxCores(JobScheduler.LOCAL_HOST));
+		assertEquals(JobScheduler.DEFAULT_REMOTE_MAX_JOBS,
+				scheduler.getMaxJobs("remote.host.invalid"));
+		assertEquals(JobScheduler.DEFAULT_REMOTE_MAX_CORES,
+				scheduler.getMaxCores("remote.host.invalid"));
+		scheduler.setRemoteHostLimits(2, 4);
+		assertEquals(2, scheduler.getMaxJobs("remote.host.invalid"));
+		assertEquals(4, scheduler.getMaxCores("remote.host.invalid"));
+		assertEquals(8, scheduler.getMaxJobs(JobScheduler.LOCAL_HOST));
+
+		return;
+	}
+
+	/**
+	 * This operation checks that failed jobs are retried and that the jobs
+	 * depending on a job that failed for good are not launched.
+	 */
+	@Test
+	public void checkRetries() {
+
+		// A job that fails twice succeeds on the third attempt
+		JobScheduler scheduler = new JobScheduler();
+		scheduler.setMaxRetries(2);
+		scheduler.addJob(new ScheduledItem("flaky", 2));
+		assertEquals(FormStatus.Processed, scheduler.run());
+		assertEquals(3, launches.size());
+		assertEquals(2, scheduler.getRetryCount());
+
+		// A job that keeps failing stops its dependents
+		before();
+		scheduler = new JobScheduler();
+		scheduler.setMaxRetries(1);
+		Item broken = new ScheduledItem("broken", 10);
+		Item other = new ScheduledItem("other", 0);
+		scheduler.addJob(broken);
+		scheduler.addJob(other);
+		scheduler.addJob(new ScheduledItem("dependent", 0), broken, other);
+		assertEquals(FormStatus.InfoError, scheduler.run());
+		assertEquals(1, scheduler.getCompletedCount());
+		assertFalse(launches.contains("dependent"));
+		assertEquals(2, Collections.frequency(launches, "broken"));
+
+		return;
+	}
+
+	/**
+	 * This operation checks that a job whose dependencies failed is only
+	 * counted once and never launched, and that the other jobs keep running.
+	 */
+	@Test
+	public void checkFailedDependencies() {
+
+		// Both dependencies of a job fail while a long job runs on its own
+		JobScheduler scheduler = new JobScheduler();
+		Item first = new ScheduledItem("first", 1);
+		Item second = new ScheduledItem("second", 1);
+		Item independent = new ScheduledItem("independent", 0, 500);
+		scheduler.addJob(first);
+		scheduler.addJob(second);
+		scheduler.addJob(independent);
+		scheduler.addJob(new ScheduledItem("dependent", 0), first, second);
+		assertEquals(FormStatus.InfoError, scheduler.run());
+		assertEquals(FormStatus.Processed, independent.getStatus());
+		assertEquals(1, scheduler.getCompletedCount());
+		assertFalse(launches.contains("dependent"));
+
+		// One dependency fails before the other one succeeds
+		before();
+		scheduler = new JobScheduler();
+		Item broken = new ScheduledItem("broken", 1);
+		Item slow = new ScheduledItem("slow", 0, 200);
+		scheduler.addJob(broken);
+		scheduler.addJob(slow);
+		scheduler.addJob(new ScheduledItem("dependent", 0), broken, slow);
+		assertEquals(FormStatus.InfoError, scheduler.run());
+		assertEquals(FormStatus.Processed, slow.getStatus());
+		assertEquals(1, scheduler.getCompletedCount());
+		assertFalse(launches.contains("dependent"));
+
+		return;
+	}
+
+	/**
+	 * An Item that finishes on its own thread shortly after it is launched.
+	 */
+	private class ScheduledItem extends Item {
+
+		/**
+		 * The number of times the job fails before it succeeds.
+		 */
+		private int failures;
+
+		/**
+		 * The time the job runs in milliseconds.
+		 */
+		private final long duration;
+
+		/**
+		 * The constructor.
+		 *
+		 * @param name
+		 *            The name of the job
+		 * @param numFailures
+		 *            The number of times the job fails before it succeeds
+		 */
+		public ScheduledItem(String name, int numFailures) {
+			this(name, numFailures, 20);
+		}
+
+		/**
+		 * The constructor.
+		 *
+		 * @param name
+		 *            The name of the job
+		 * @param numFailures
+		 *            The number of times the job fails before it succeeds
+		 * @param millis
+		 *            The time the job runs in milliseconds
+		 */
+		public ScheduledItem(String name, int numFailures, long millis) {
+			super(null);
+			setName(name);
+			failures = numFailures;
+			duration = millis;
+		}
+
+		/**
+		 * (non-Javadoc)
+		 *
+		 * @see org.eclipse.ice.item.Item#process(java.lang.String)
+		 */
+		@Override
+		public FormStatus process(String actionName) {
+
+			// Record the launch
+			launches.add(getName());
+			int count = running.incrementAndGet();
+			synchronized (maxRunning) {
+				maxRunning.set(Math.max(count, maxRunning.get()));
+			}
+
+			// Finish on another thread
+			final FormStatus result = (failures-- > 0) ? FormStatus.InfoError
+					: FormStatus.Processed;
+			setStatus(FormStatus.Processing);
+			new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						Thread.sleep(duration);
+					} catch (InterruptedException e) {
+						e.printStackTrace();
+					}
+					running.decrementAndGet();
+					setStatus(result);
+				}
+			}).start();
+
+			return FormStatus.Processing;
+		}
+	}
+}
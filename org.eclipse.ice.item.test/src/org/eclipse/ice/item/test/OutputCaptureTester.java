@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings
+ *******************************************************************************/
+package org.eclipse.ice.item.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.StringWriter;
+
+import org.eclipse.ice.item.action.OutputCapture;
+import org.junit.Test;
+
+/**
+ * This class is responsible for testing the OutputCapture.
+ */
+public class OutputCaptureTester {
+
+	/**
+	 * This operation checks that both streams are copied completely, that the
+	 * ring buffer keeps the end of the output and that the counters are
+	 * correct.
+	 */
+	@Test
+	public void checkCapture() throws InterruptedException {
+
+		// Local Declarations
+		StringBuilder outBuilder = new StringBuilder();
+		StringBuilder errBuilder = new StringBuilder();
+		StringWriter outWriter = new StringWriter();
+		StringWriter errWriter = new StringWriter();
+		int capacity = 64;
+
+		// Create some output
+		for (int i = 0; i < 10000; i++) {
+			outBuilder.append("out" + i + "\n");
+			errBuilder.append("err" + i + "\n");
+		}
+		String out = outBuilder.toString(), err = errBuilder.toString();
+
+		// Capture it
+		OutputCapture capture = new OutputCapture(outWriter, errWriter,
+				capacity, 10);
+		capture.start(new ByteArrayInputStream(out.getBytes()),
+				new ByteArrayInputStream(err.getBytes()));
+		assertTrue(capture.waitFor());
+
+		// Check the files, which have "\r\n" line terminators
+		assertEquals(out.replace("\n", "\r\n"), outWriter.toString());
+		assertEquals(err.replace("\n", "\r\n"), errWriter.toString());
+
+		// Check the counters
+		assertEquals(out.length(), capture.getStdOutCount());
+		assertEquals(err.length(), capture.getStdErrCount());
+		assertEquals(out.length() + err.length() - capacity,
+				capture.getDroppedCount());
+		assertTrue(capture.getThroughput() > 0.0);
+
+		// The tail should be full and end with a complete line
+		String tail = capture.getTail();
+		assertEquals(capacity, tail.length());
+		assertTrue(tail.endsWith("9999\n"));
+
+		return;
+	}
+
+	/**
+	 * This operation checks that a short output fits in the ring buffer.
+	 */
+	@Test
+	public void checkShortOutput() throws InterruptedException {
+
+		StringWriter outWriter = new StringWriter();
+		StringWriter errWriter = new StringWriter();
+		OutputCapture capture = new OutputCapture(outWriter, errWriter);
+
+		capture.start(new ByteArrayInputStream("Hello".getBytes()),
+				new ByteArrayInputStream(new byte[0]));
+		assertTrue(capture.waitFor());
+		assertEquals("Hello", capture.getTail());
+		assertEquals(0, capture.getDroppedCount());
+		// The last line is terminated in the file
+		assertEquals("Hello\r\n", outWriter.toString());
+		assertEquals("", errWriter.toString());
+
+		return;
+	}
+
+	/**
+	 * This operation checks that every kind of line terminator is written as
+	 * "\r\n", like the output was when it was read line by line.
+	 */
+	@Test
+	public void checkLineTerminators() throws InterruptedException {
+
+		StringWriter outWriter = new StringWriter();
+		StringWriter errWriter = new StringWriter();
+		OutputCapture capture = new OutputCapture(outWriter, errWriter);
+		String out = "unix\nwindows\r\nmac\r\n\nend";
+
+		capture.start(new ByteArrayInputStream(out.getBytes()),
+				new ByteArrayInputStream(new byte[0]));
+		assertTrue(capture.waitFor());
+		assertEquals("unix\r\nwindows\r\nmac\r\n\r\nend\r\n",
+				outWriter.toString());
+		// The tail keeps the output as it was read
+		assertEquals(out, capture.getTail());
+
+		return;
+	}
+
+	/**
+	 * This operation checks that a line is flushed to the writer while the
+	 * process is quiet and before the stream is closed.
+	 */
+	@Test
+	public void checkQuietOutput() throws IOException, InterruptedException {
+
+		// Local Declarations
+		StringWriter outWriter = new StringWriter();
+		PipedOutputStream process = new PipedOutputStream();
+		PipedInputStream output = new PipedInputStream(process);
+		long interval = 200;
+
+		// Write a line through a buffered writer and keep the stream open
+		OutputCapture capture = new OutputCapture(new BufferedWriter(
+				outWriter), new StringWriter(), 64, interval);
+		capture.start(output, new ByteArrayInputStream(new byte[0]));
+		process.write("line\n".getBytes());
+		process.flush();
+
+		// The line should reach the file within the flush interval
+		long deadline = System.currentTimeMillis() + interval;
+		while (outWriter.toString().isEmpty()
+				&& System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertEquals("line\r\n", outWriter.toString());
+
+		process.close();
+		assertTrue(capture.waitFor());
+
+		return;
+	}
+}
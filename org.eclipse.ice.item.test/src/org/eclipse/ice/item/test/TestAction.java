@@ -53,6 +53,17 @@ public class TestAction extends Action {
 		return null;
 	}
 
+	/**
+	 * This operation changes the status of the TestAction so that the status
+	 * listeners can be tested.
+	 * 
+	 * @param newStatus
+	 *            The new status
+	 */
+	public void changeStatus(FormStatus newStatus) {
+		setStatus(newStatus);
+	}
+
 	/**
 	 * (non-Javadoc)
 	 * 
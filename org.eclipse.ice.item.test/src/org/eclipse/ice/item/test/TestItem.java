@@ -24,6 +24,7 @@ import org.eclipse.ice.datastructures.form.FormStatus;
 import org.eclipse.ice.io.serializable.IReader;
 import org.eclipse.ice.io.serializable.IWriter;
 import org.eclipse.ice.item.Item;
+import org.eclipse.ice.item.action.Action;
 import org.eclipse.ice.item.messaging.Message;
 
 /**
@@ -212,6 +213,22 @@ public class TestItem extends Item {
 		return;
 	}
 
+	/**
+	 * This operation makes the TestItem process the given Action so that the
+	 * ItemTester can check that changes of its status are published.
+	 * 
+	 * @param testAction
+	 *            The Action to process.
+	 */
+	public void processTestAction(Action testAction) {
+
+		action = testAction;
+		observeAction(action);
+		setStatus(FormStatus.Processing);
+
+		return;
+	}
+
 	/**
 	 * <p>
 	 * This operation fakes setting some preferences, but calls
@@ -13,6 +13,7 @@
 package org.eclipse.ice.item.test.moose;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -22,10 +23,12 @@ import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.util.ArrayList;
+import java.util.List;
 
 import org.eclipse.ice.datastructures.form.AdaptiveTreeComposite;
 import org.eclipse.ice.datastructures.form.DataComponent;
 import org.eclipse.ice.datastructures.form.TreeComposite;
+import org.eclipse.ice.item.utilities.moose.Block;
 import org.eclipse.ice.item.utilities.moose.MOOSEFileHandler;
 import org.eclipse.ice.item.utilities.moose.Parameter;
 import org.junit.Test;
@@ -130,6 +133,60 @@ public class MOOSEFileHandlerTester {
 
 	}
 
+	/**
+	 * This operation checks that the TreeComposites built from the blocks of
+	 * the full gold-standard YAML file are the same as those loaded by
+	 * loadYAML() and prints how fast they are indexed and converted. The YAML
+	 * file is only parsed once so that the time of the index builder is not
+	 * hidden by the time of the parser.
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void checkIndexingYAMLTrees() throws IOException {
+
+		// Local Declarations
+		String separator = System.getProperty("file.separator");
+		String userDir = System.getProperty("user.home") + separator
+				+ "ICETests" + separator + "itemData";
+		String yamlFilePath = userDir + separator + "bison.yaml";
+		String syntaxFilePath = userDir + separator + "bison.syntax";
+		MOOSEFileHandler handler = new MOOSEFileHandler();
+		int numRuns = 20;
+		ArrayList<TreeComposite> trees = null;
+
+		// Load the blocks and the "hard" paths once
+		ArrayList<TreeComposite> reference = handler.loadYAML(yamlFilePath);
+		List<Block> blocks = handler.loadYAMLBlocks(yamlFilePath);
+		ArrayList<String> hardPaths = handler.loadActionSyntax(syntaxFilePath);
+		assertNotNull(blocks);
+		assertNotNull(hardPaths);
+
+		// Warm up, then time the conversion of the blocks
+		handler.loadYAMLTrees(blocks, hardPaths);
+		long start = System.nanoTime();
+		for (int i = 0; i < numRuns; i++) {
+			trees = handler.loadYAMLTrees(blocks, hardPaths);
+		}
+		double time = (System.nanoTime() - start) / 1.0e6 / numRuns;
+		System.out.println("MOOSEFileHandlerTester Message: "
+				+ "Indexed and converted " + blocks.size() + " blocks in "
+				+ time + " ms.");
+
+		// The trees should match those loaded directly from the file
+		assertEquals(34, trees.size());
+		assertEquals(reference, trees);
+		assertTrue(trees.get(17) instanceof AdaptiveTreeComposite);
+		assertTrue(trees.get(23) instanceof AdaptiveTreeComposite);
+
+		// Without an action syntax file, no types should be set up
+		trees = handler.loadYAMLTrees(blocks, null);
+		assertEquals(34, trees.size());
+		assertFalse(trees.get(17) instanceof AdaptiveTreeComposite);
+
+		return;
+	}
+
 	/**
 	 * This method is responsible for checking that action syntax file is
 	 * correctly loaded.
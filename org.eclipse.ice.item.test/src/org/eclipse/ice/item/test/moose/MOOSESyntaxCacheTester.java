@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.test.moose;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.eclipse.ice.datastructures.form.AdaptiveTreeComposite;
+import org.eclipse.ice.datastructures.form.Form;
+import org.eclipse.ice.datastructures.form.TreeComposite;
+import org.eclipse.ice.item.nuclear.MOOSEModel;
+import org.eclipse.ice.item.utilities.moose.MOOSEFileHandler;
+import org.eclipse.ice.item.utilities.moose.MOOSESyntaxCache;
+import org.junit.Test;
+
+/**
+ * This class tests the MOOSESyntaxCache.
+ */
+public class MOOSESyntaxCacheTester {
+
+	/**
+	 * This operation checks that a specification read through the cache, from
+	 * the YAML file, from memory or from the cache directory, is the same as
+	 * the one read by the MOOSEFileHandler.
+	 *
+	 * @throws IOException
+	 */
+	@Test
+	public void checkCaching() throws IOException {
+
+		// Local Declarations
+		String separator = System.getProperty("file.separator");
+		String userDir = System.getProperty("user.home") + separator
+				+ "ICETests" + separator + "itemData";
+		String yamlFilePath = userDir + separator + "bison.yaml";
+		File cacheDirectory = new File(userDir, "syntaxCacheTest");
+		String fingerprint = MOOSESyntaxCache.getFingerprint("localhost",
+				"/home/moose/bison-opt", 1024, 1000);
+		MOOSEFileHandler handler = new MOOSEFileHandler();
+		long start;
+
+		// Start from an empty cache
+		clearDirectory(cacheDirectory);
+		MOOSESyntaxCache.clearSharedTrees();
+		MOOSESyntaxCache cache = new MOOSESyntaxCache(cacheDirectory);
+		assertNull(cache.read(fingerprint));
+
+		// Load the reference specification
+		start = System.nanoTime();
+		TreeComposite reference = getTree(handler.createYAMLForm(handler
+				.loadYAML(yamlFilePath)));
+		long yamlTime = System.nanoTime() - start;
+		assertTrue(reference.getChildAtIndex(17) instanceof AdaptiveTreeComposite);
+
+		// Load it through the cache
+		TreeComposite tree = getTree(cache.read(fingerprint, yamlFilePath));
+		assertEquals(reference, tree);
+		assertEquals(1, cacheDirectory.listFiles().length);
+
+		// Load it again from memory. The trees must not be shared.
+		start = System.nanoTime();
+		TreeComposite memoryTree = getTree(cache.read(fingerprint));
+		long memoryTime = System.nanoTime() - start;
+		assertEquals(reference, memoryTree);
+		tree.getChildAtIndex(0).setName("Changed");
+		assertFalse("Changed".equals(memoryTree.getChildAtIndex(0).getName()));
+
+		// Load it from the cache directory, like after a restart
+		MOOSESyntaxCache.clearSharedTrees();
+		start = System.nanoTime();
+		TreeComposite diskTree = getTree(new MOOSESyntaxCache(cacheDirectory)
+				.read(fingerprint));
+		long diskTime = System.nanoTime() - start;
+		assertEquals(reference, diskTree);
+		assertTrue(diskTree.getChildAtIndex(17) instanceof AdaptiveTreeComposite);
+
+		System.out.println("MOOSESyntaxCacheTester Message: YAML = "
+				+ yamlTime / 1.0e6 + " ms, memory = " + memoryTime / 1.0e6
+				+ " ms, cache file = " + diskTime / 1.0e6 + " ms");
+
+		// A new build of the app is not cached
+		assertNull(cache.read(MOOSESyntaxCache.getFingerprint("localhost",
+				"/home/moose/bison-opt", 1024, 2000)));
+
+		// A damaged cache file is ignored and removed
+		MOOSESyntaxCache.clearSharedTrees();
+		for (File file : cacheDirectory.listFiles()) {
+			Files.write(file.toPath(), new byte[] { 1, 2, 3 });
+		}
+		assertNull(cache.read(fingerprint));
+		assertEquals(0, cacheDirectory.listFiles().length);
+
+		// An empty specification, like one from a failed --yaml run, is not
+		// cached
+		File emptyYamlFile = new File(userDir, "syntaxCacheEmpty.yaml");
+		File emptySyntaxFile = new File(userDir, "syntaxCacheEmpty.syntax");
+		Files.write(emptyYamlFile.toPath(), "[]".getBytes());
+		Files.write(emptySyntaxFile.toPath(), new byte[0]);
+		String emptyFingerprint = MOOSESyntaxCache.getFingerprint("localhost",
+				"/home/moose/empty-opt", 1024, 1000);
+		assertEquals(0, getTree(cache.read(emptyFingerprint,
+				emptyYamlFile.getPath())).getNumberOfChildren());
+		assertEquals(0, cacheDirectory.listFiles().length);
+		assertNull(cache.read(emptyFingerprint));
+		emptyYamlFile.delete();
+		emptySyntaxFile.delete();
+
+		// Clean up
+		clearDirectory(cacheDirectory);
+		cacheDirectory.delete();
+		MOOSESyntaxCache.clearSharedTrees();
+
+		return;
+	}
+
+	/**
+	 * This operation returns the MOOSE tree of a Form.
+	 *
+	 * @param form
+	 *            The Form
+	 * @return The tree
+	 */
+	private TreeComposite getTree(Form form) {
+		assertNotNull(form);
+		return (TreeComposite) form
+				.getComponent(MOOSEModel.mooseTreeCompositeId);
+	}
+
+	/**
+	 * This operation deletes the files in a directory.
+	 *
+	 * @param directory
+	 *            The directory
+	 */
+	private void clearDirectory(File directory) {
+		if (directory.isDirectory()) {
+			for (File file : directory.listFiles()) {
+				file.delete();
+			}
+		}
+	}
+}
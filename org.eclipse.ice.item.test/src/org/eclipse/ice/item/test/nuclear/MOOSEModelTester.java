@@ -34,6 +34,8 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.ice.datastructures.ICEObject.Component;
+import org.eclipse.ice.datastructures.form.AllowedValueType;
+import org.eclipse.ice.datastructures.form.BasicEntryContentProvider;
 import org.eclipse.ice.datastructures.form.DataComponent;
 import org.eclipse.ice.datastructures.form.Entry;
 import org.eclipse.ice.datastructures.form.Form;
@@ -513,6 +515,126 @@ public class MOOSEModelTester {
 		return;
 	}
 
+	/**
+	 * This operation merges synthetic trees shaped like a MOOSE YAML spec and
+	 * a MOOSE input file with an increasing number of blocks and prints the
+	 * merge times. The trees are wide, like the Kernels and AuxKernels of a
+	 * large input file, so the times grow quadratically if children are found
+	 * by searching the whole set. It also checks the merged tree.
+	 */
+	@Test
+	public void checkMergePerformance() {
+
+		// Local Declarations
+		int numBlocks = 10;
+		MergingMOOSEModel model = new MergingMOOSEModel();
+
+		for (int numSubBlocks : new int[] { 250, 1000, 4000 }) {
+			// Create the trees
+			TreeComposite yamlTree = createMergeTree(numBlocks, 0);
+			TreeComposite inputTree = createMergeTree(numBlocks, numSubBlocks);
+
+			// Merge them
+			long start = System.nanoTime();
+			model.merge(inputTree, yamlTree);
+			long mergeTime = System.nanoTime() - start;
+			System.out.println("MOOSEModelTester Message: Merged "
+					+ numBlocks * numSubBlocks + " blocks in " + mergeTime
+					/ 1000000 + " ms.");
+
+			// Check the merged tree. The parameter should now be discrete.
+			TreeComposite lastBlock = yamlTree.getChildByName("Block"
+					+ (numBlocks - 1));
+			assertEquals(numSubBlocks, lastBlock.getNumberOfChildren());
+			Entry variable = yamlTree.getEntryByPath("Block3/sub"
+					+ (numSubBlocks - 1) + "/variable");
+			assertNotNull(variable);
+			assertEquals("v", variable.getValue());
+			assertEquals(AllowedValueType.Discrete, variable.getValueType());
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation creates a tree for checkMergePerformance(). Each
+	 * top-level block has a "*" child exemplar with a discrete "variable"
+	 * parameter and the given number of sub-blocks with a "variable"
+	 * parameter.
+	 *
+	 * @param numBlocks
+	 *            The number of top-level blocks
+	 * @param numSubBlocks
+	 *            The number of sub-blocks of each top-level block
+	 * @return The tree
+	 */
+	private TreeComposite createMergeTree(int numBlocks, int numSubBlocks) {
+
+		// Local Declarations
+		TreeComposite root = new TreeComposite();
+		ArrayList<String> allowedValues = new ArrayList<String>();
+		allowedValues.add("u");
+		allowedValues.add("v");
+
+		for (int i = 0; i < numBlocks; i++) {
+			// Create the top-level block
+			TreeComposite block = new TreeComposite();
+			block.setName("Block" + i);
+			block.addComponent(new DataComponent());
+
+			// Create its exemplar
+			BasicEntryContentProvider provider = new BasicEntryContentProvider();
+			provider.setAllowedValueType(AllowedValueType.Discrete);
+			provider.setAllowedValues(allowedValues);
+			Entry discreteEntry = new Entry(provider);
+			discreteEntry.setName("variable");
+			DataComponent exemplarNode = new DataComponent();
+			exemplarNode.addEntry(discreteEntry);
+			TreeComposite exemplar = new TreeComposite();
+			exemplar.setName("*");
+			exemplar.addComponent(exemplarNode);
+			block.addChildExemplar(exemplar);
+
+			// Create the sub-blocks
+			for (int j = 0; j < numSubBlocks; j++) {
+				DataComponent subBlockNode = new DataComponent();
+				for (String name : new String[] { "variable", "block",
+						"function" }) {
+					Entry entry = new Entry();
+					entry.setName(name);
+					entry.setValue(name.equals("variable") ? "v" : name);
+					subBlockNode.addEntry(entry);
+				}
+				TreeComposite subBlock = new TreeComposite();
+				subBlock.setName("sub" + j);
+				subBlock.addComponent(subBlockNode);
+				block.setNextChild(subBlock);
+			}
+
+			root.setNextChild(block);
+		}
+
+		return root;
+	}
+
+	/**
+	 * A MOOSEModel that exposes mergeTrees() to the tests.
+	 */
+	private static class MergingMOOSEModel extends MOOSEModel {
+
+		/**
+		 * This operation merges an input tree into a YAML tree.
+		 *
+		 * @param inputTree
+		 *            The input tree
+		 * @param yamlTree
+		 *            The YAML tree
+		 */
+		public void merge(TreeComposite inputTree, TreeComposite yamlTree) {
+			mergeTrees(inputTree, yamlTree);
+		}
+	}
+
 	/**
 	 * Closes the MOOSE tester workspace created in the BeforeClass method.
 	 */
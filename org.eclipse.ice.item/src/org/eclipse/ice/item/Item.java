@@ -28,6 +28,7 @@ import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import javax.xml.bind.annotation.XmlAnyElement;
 import javax.xml.bind.annotation.XmlAttribute;
@@ -77,6 +78,7 @@ import org.eclipse.ice.io.serializable.IOService;
 import org.eclipse.ice.io.serializable.IReader;
 import org.eclipse.ice.io.serializable.IWriter;
 import org.eclipse.ice.item.action.Action;
+import org.eclipse.ice.item.action.IActionStatusListener;
 import org.eclipse.ice.item.action.TaggedOutputWriterAction;
 import org.eclipse.ice.item.jobLauncher.JobLauncherForm;
 import org.eclipse.ice.item.messaging.Message;
@@ -268,6 +270,11 @@ import org.slf4j.LoggerFactory;
  * calls to update the listeners on their own, although some protected utility
  * operations like notifyListenersOfProjectChange() exist.
  * 
+ * Changes of the status of an Item are published to ItemStatusListeners as they
+ * happen. Subclasses should change the status with setStatus() and register
+ * the Actions they execute with observeAction() so that changes made by the
+ * Action on its own thread are published too.
+ * 
  * Every Item has a directory at its disposal for storing preferences or scratch
  * data. This directory can be retrieved by subclasses by calling
  * getPreferencesDirectory(). This directory should only include preferences,
@@ -439,6 +446,29 @@ public class Item implements IComponentVisitor, Identifiable,
 	@XmlTransient()
 	protected ArrayList<ItemListener> listeners;
 
+	/**
+	 * The list of listeners observing the status of this Item.
+	 */
+	@XmlTransient()
+	private final CopyOnWriteArrayList<ItemStatusListener> statusListeners = new CopyOnWriteArrayList<ItemStatusListener>();
+
+	/**
+	 * The listener that forwards the status of the current Action to the Item
+	 * while the Item is processing.
+	 */
+	@XmlTransient()
+	private final IActionStatusListener actionStatusListener = new IActionStatusListener() {
+		@Override
+		public void statusChanged(Action source, FormStatus newStatus) {
+			// Only follow the current Action and only while it is running
+			if (source == action && enabled
+					&& (FormStatus.Processing.equals(status) || FormStatus.NeedsInfo
+							.equals(status))) {
+				setStatus(newStatus);
+			}
+		}
+	};
+
 	/**
 	 * Reference to the IOService that provides IReaders and IWriters for the
 	 * Item.
@@ -835,7 +865,7 @@ public class Item implements IComponentVisitor, Identifiable,
 			// Figure out whether to submit it to the Action
 			if (!status.equals(FormStatus.NeedsInfo)) {
 				// Mark the Item's status as "In Review"
-				status = FormStatus.InReview;
+				setStatus(FormStatus.InReview);
 				// And do the review! - Review the Entries
 				retVal = reviewEntries(preparedForm);
 				// Overwrite the current Form if the review passed
@@ -865,7 +895,7 @@ public class Item implements IComponentVisitor, Identifiable,
 		}
 
 		// Set the status
-		status = retVal;
+		setStatus(retVal);
 
 		return retVal;
 	}
@@ -930,6 +960,7 @@ public class Item implements IComponentVisitor, Identifiable,
 				// Otherwise write the file to a tagged output if requested -
 				// first create the action
 				action = new TaggedOutputWriterAction();
+				observeAction(action);
 				// Setup the IFile handle
 				outputFile = project.getFile(filename + ".dat");
 				try {
@@ -969,7 +1000,7 @@ public class Item implements IComponentVisitor, Identifiable,
 		// Reset the status and return. It should only be updated if the Item is
 		// enabled.
 		if (enabled) {
-			status = retStatus;
+			setStatus(retStatus);
 			return retStatus;
 		} else {
 			return FormStatus.Unacceptable;
@@ -1003,7 +1034,7 @@ public class Item implements IComponentVisitor, Identifiable,
 			// Try to cancel the action
 			action.cancel();
 			// Reset the state to "ready" since it was clearly able to process.
-			status = FormStatus.ReadyToProcess;
+			setStatus(FormStatus.ReadyToProcess);
 		}
 
 		return status;
@@ -1034,12 +1065,76 @@ public class Item implements IComponentVisitor, Identifiable,
 			// Determine if the status is currently dictated by the Action. If
 			// the Action is currently running, then the Item will be in either
 			// one of the FormStatus.NeedsInfo or FormStatus.Processing states.
-			status = action.getStatus();
+			setStatus(action.getStatus());
 		}
 
 		return status;
 	}
 
+	/**
+	 * This operation sets the status of the Item and notifies the status
+	 * listeners if it changed.
+	 * 
+	 * @param newStatus
+	 *            The new status of the Item.
+	 */
+	protected void setStatus(FormStatus newStatus) {
+
+		// Local Declarations
+		FormStatus oldStatus = status;
+
+		// Set the status and publish the change
+		status = newStatus;
+		if (newStatus != null && newStatus != oldStatus) {
+			for (ItemStatusListener listener : statusListeners) {
+				listener.statusChanged(this, newStatus);
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation registers the Item as a listener of the Action so that
+	 * changes to the status of the Action are published as changes to the
+	 * status of the Item while the Item is processing. Subclasses should call
+	 * it for each Action they execute.
+	 * 
+	 * @param newAction
+	 *            The Action that will be executed by the Item.
+	 */
+	protected void observeAction(Action newAction) {
+		if (newAction != null) {
+			newAction.addStatusListener(actionStatusListener);
+		}
+	}
+
+	/**
+	 * This operation adds a listener that is notified whenever the status of
+	 * the Item changes.
+	 * 
+	 * @param listener
+	 *            The new listener that is subscribing to the status of the
+	 *            Item.
+	 */
+	public void addStatusListener(ItemStatusListener listener) {
+		if (listener != null) {
+			statusListeners.addIfAbsent(listener);
+		}
+		return;
+	}
+
+	/**
+	 * This operation removes a status listener from the Item.
+	 * 
+	 * @param listener
+	 *            The listener that should no longer be notified.
+	 */
+	public void removeStatusListener(ItemStatusListener listener) {
+		statusListeners.remove(listener);
+		return;
+	}
+
 	/**
 	 * This protected operation setups the Entries, DataComponents and Form for
 	 * a subclass of Item. Subclasses should tailor this operation as needed.
@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings
+ *******************************************************************************/
+package org.eclipse.ice.item;
+
+import org.eclipse.ice.datastructures.form.FormStatus;
+
+/**
+ * This interface is realized by classes that observe the status of an Item,
+ * such as the MultiLauncher or the UI, so that they can react to a change of
+ * status when it happens instead of polling getStatus(). Listeners are
+ * notified on the thread that changed the status, which is often the thread of
+ * a running Action, so they should return quickly.
+ */
+public interface ItemStatusListener {
+
+	/**
+	 * This operation informs the listener that the status of the Item has
+	 * changed.
+	 * 
+	 * @param item
+	 *            The Item whose status changed.
+	 * @param status
+	 *            The new status of the Item.
+	 */
+	public void statusChanged(Item item, FormStatus status);
+}
@@ -13,6 +13,7 @@
 package org.eclipse.ice.item.action;
 
 import java.util.Dictionary;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.eclipse.ice.datastructures.form.Form;
 import org.eclipse.ice.datastructures.form.FormStatus;
@@ -35,6 +36,11 @@ import org.slf4j.LoggerFactory;
  * Actions may update the dictionary passed to execute() at their discretion, so
  * keep in mind that it may change if you depend on it in the client class.
  * 
+ * Clients that need to react to changes in the status of the Action can
+ * register an IActionStatusListener instead of polling getStatus().
+ * Subclasses must change the status with setStatus() for the listeners to be
+ * notified.
+ * 
  * @author Jay Jay Billings
  */
 public abstract class Action {
@@ -71,6 +77,11 @@ public abstract class Action {
 	 */
 	protected FormStatus status;
 
+	/**
+	 * The listeners that are notified when the status changes.
+	 */
+	private final CopyOnWriteArrayList<IActionStatusListener> statusListeners = new CopyOnWriteArrayList<IActionStatusListener>();
+
 	/**
 	 * <p>
 	 * The Constructor
@@ -171,4 +182,50 @@ public abstract class Action {
 	public FormStatus getStatus() {
 		return status;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * This operation sets the status of the Action and notifies the status
+	 * listeners if it changed.
+	 * 
+	 * @param newStatus
+	 *            The new status
+	 */
+	protected void setStatus(FormStatus newStatus) {
+
+		// Local Declarations
+		FormStatus oldStatus = status;
+
+		// Set the status and publish the change
+		status = newStatus;
+		if (newStatus != null && newStatus != oldStatus) {
+			for (IActionStatusListener listener : statusListeners) {
+				listener.statusChanged(this, newStatus);
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation registers a listener that is notified when the status of
+	 * the Action changes.
+	 * 
+	 * @param listener
+	 *            The listener
+	 */
+	public void addStatusListener(IActionStatusListener listener) {
+		if (listener != null) {
+			statusListeners.addIfAbsent(listener);
+		}
+	}
+
+	/**
+	 * This operation unregisters a status listener.
+	 * 
+	 * @param listener
+	 *            The listener
+	 */
+	public void removeStatusListener(IActionStatusListener listener) {
+		statusListeners.remove(listener);
+	}
+}
@@ -0,0 +1,33 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings
+ *******************************************************************************/
+package org.eclipse.ice.item.action;
+
+import org.eclipse.ice.datastructures.form.FormStatus;
+
+/**
+ * This interface is realized by classes that need to know when the status of
+ * an Action changes, such as the Item that executed it. Listeners are notified
+ * on the thread that changed the status, which is usually the thread of the
+ * Action, so they should return quickly.
+ */
+public interface IActionStatusListener {
+
+	/**
+	 * This operation informs the listener that the status of the Action has
+	 * changed.
+	 * 
+	 * @param action
+	 *            The Action whose status changed.
+	 * @param status
+	 *            The new status of the Action.
+	 */
+	public void statusChanged(Action action, FormStatus status);
+}
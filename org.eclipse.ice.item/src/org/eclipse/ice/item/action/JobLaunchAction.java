@@ -12,13 +12,11 @@
  *******************************************************************************/
 package org.eclipse.ice.item.action;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.nio.file.Files;
@@ -30,6 +28,8 @@ import java.util.Date;
 import java.util.Dictionary;
 import java.util.Enumeration;
 import java.util.Hashtable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -318,6 +318,12 @@ import org.eclipse.remote.core.exception.RemoteConnectionException;
  *
  * The cancel() operation attempts to kill the process if it is still running.
  *
+ * Changes of the status are published to IActionStatusListeners as they happen
+ * and getCompletion() returns a future that is completed with the final status
+ * when the launch thread finishes. The launch thread waits for the process to
+ * exit and for the login Form to be submitted instead of polling, so clients
+ * should register for these notifications rather than poll getStatus().
+ *
  * This class launches the job on a separate thread. An AtomicReference is used
  * for managing access to the Form information an the LoginInfoForm is used
  * simply as an internal reference to the current Form within an operation. It
@@ -348,6 +354,19 @@ public class JobLaunchAction extends Action implements Runnable {
 	 */
 	private AtomicBoolean formSubmitted;
 
+	/**
+	 * A latch that is released when the Form has been submitted or the launch
+	 * has been cancelled. The launch thread waits on it before connecting to a
+	 * remote machine.
+	 */
+	private CountDownLatch formLatch;
+
+	/**
+	 * The future that is completed with the final status of the Action when the
+	 * launch thread finishes.
+	 */
+	private CompletableFuture<FormStatus> completion = new CompletableFuture<FormStatus>();
+
 	/**
 	 * AtomicBoolean to handle cancellations.
 	 */
@@ -447,6 +466,18 @@ public class JobLaunchAction extends Action implements Runnable {
 	 */
 	private long maxFileSize;
 
+	/**
+	 * The number of characters of the most recent output that are kept in
+	 * memory. The default is one million and it can be set with a VM argument
+	 * called "max_output_buffer_size".
+	 */
+	private int outputBufferSize;
+
+	/**
+	 * The capture of the output of the current or last stage of the job.
+	 */
+	private volatile OutputCapture outputCapture;
+
 	private IRemoteConnection connection;
 
 	private IRemoteConnectionType connectionType;
@@ -471,6 +502,14 @@ public class JobLaunchAction extends Action implements Runnable {
 			maxFileSize = 52428800;
 		}
 
+		// Get the size of the output buffer from the system properties
+		String bufferSize = System.getProperty("max_output_buffer_size");
+		if (bufferSize != null) {
+			outputBufferSize = Integer.parseInt(bufferSize);
+		} else {
+			outputBufferSize = OutputCapture.DEFAULT_CAPACITY;
+		}
+
 		return;
 	}
 
@@ -739,13 +778,13 @@ public class JobLaunchAction extends Action implements Runnable {
 				// // Look for still running jobs and watch them
 				// Otherwise something has gone really wrong and the launch
 				// is over.
-				status = FormStatus.InfoError;
+				setStatus(FormStatus.InfoError);
 				return;
 			}
 		}
 
 		// Return the right flag if everything worked
-		status = FormStatus.Processed;
+		setStatus(FormStatus.Processed);
 
 		return;
 	}
@@ -836,7 +875,6 @@ public class JobLaunchAction extends Action implements Runnable {
 		// Log the output
 		stdOutStream = job.getInputStream();
 		stdErrStream = job.getErrorStream();
-		logOutput(stdOutStream, stdErrStream);
 		if (logOutput(stdOutStream, stdErrStream).equals(FormStatus.InfoError)) {
 			// Throw an error if the streaming fails
 			return FormStatus.InfoError;
@@ -873,38 +911,20 @@ public class JobLaunchAction extends Action implements Runnable {
 		// Local Declarations
 		int exitValue = -32; // Totally arbitrary
 
-		// Wait until the job exits. By convention an exit code of
-		// zero means that the job has succeeded. Watch it until it
-		// finishes.
-		while (exitValue != 0) {
-			// Try to get the exit value of the job
-			try {
-				exitValue = (isLocal.get()) ? job.exitValue() : remoteJob
-						.exitValue();
-			} catch (IllegalThreadStateException e) {
-				// Complain, but keep watching
-				logger.error(getClass().getName() + " Exception!",e);
-			}
-			// Give it a second
-			try {
-				Thread.currentThread();
-				Thread.sleep(1000);
-			} catch (InterruptedException e) {
-				// Complain
-				logger.error(getClass().getName() + " Exception!",e);
-			}
-
-			// If for some reason the job has failed,
-			// it shouldn't be alive and we should break;
+		// Wait until the job exits. This blocks the launch thread without
+		// polling, so the exit is noticed as soon as it happens.
+		try {
 			if (isLocal.get()) {
-				if (!job.isAlive()) {
-					break;
-				}
-			} else {
-				if (remoteJob.isCompleted()) {
-					break;
+				if (job != null) {
+					exitValue = job.waitFor();
 				}
+			} else if (remoteJob != null) {
+				exitValue = remoteJob.waitFor();
 			}
+		} catch (InterruptedException e) {
+			// Complain
+			logger.error(getClass().getName() + " Exception!",e);
+			Thread.currentThread().interrupt();
 		}
 		logger.info("JobLaunchAction Message: Exit value = " + exitValue);
 
@@ -923,44 +943,42 @@ public class JobLaunchAction extends Action implements Runnable {
 	protected FormStatus logOutput(InputStream output, InputStream errors) {
 
 		// Local Declarations
-		InputStreamReader stdOutStreamReader, stdErrStreamReader;
-		BufferedReader stdOutReader, stdErrReader;
-		String nextLine;
-
-		// Setup the BufferedReader that will get stdout from the process.
-		stdOutStreamReader = new InputStreamReader(output);
-		stdOutReader = new BufferedReader(stdOutStreamReader);
-		// Setup the BufferedReader that will get stderr from the process.
-		stdErrStreamReader = new InputStreamReader(errors);
-		stdErrReader = new BufferedReader(stdErrStreamReader);
-
-		// Catch the stdout and stderr output
+		OutputCapture capture = new OutputCapture(stdOut, stdErr,
+				outputBufferSize, OutputCapture.DEFAULT_FLUSH_INTERVAL);
+
+		// Drain both streams at the same time so that the process can never
+		// block on a full pipe
+		outputCapture = capture;
+		capture.start(output, errors);
 		try {
-			// Write to the stdOut file
-			while ((nextLine = stdOutReader.readLine()) != null) {
-				stdOut.write(nextLine);
-				// MUST put a new line for this type of writer. "\r\n" works on
-				// Windows and Unix-based systems.
-				stdOut.write("\r\n");
-				stdOut.flush();
+			if (!capture.waitFor()) {
+				return FormStatus.InfoError;
 			}
-			// Write to the stdErr file
-			while ((nextLine = stdErrReader.readLine()) != null) {
-				stdErr.write(nextLine);
-				// MUST put a new line for this type of writer. "\r\n" works on
-				// Windows and Unix-based systems.
-				stdErr.write("\r\n");
-				stdErr.flush();
-			}
-		} catch (IOException e) {
+		} catch (InterruptedException e) {
 			// Or fail and complain about it.
 			logger.error(getClass().getName() + " Exception!",e);
 			return FormStatus.InfoError;
 		}
 
+		logger.info("JobLaunchAction Message: Captured "
+				+ capture.getStdOutCount() + " characters of output and "
+				+ capture.getStdErrCount() + " characters of errors at "
+				+ (long) capture.getThroughput() + " characters/s.");
+
 		return FormStatus.Processing;
 	}
 
+	/**
+	 * This operation returns the capture of the output of the current or last
+	 * stage of the job. Clients can use it to show the most recent output
+	 * without reading the output files.
+	 *
+	 * @return The capture or null if nothing has been launched yet
+	 */
+	public OutputCapture getOutputCapture() {
+		return outputCapture;
+	}
+
 	/**
 	 * This operation launches the job on a remote machine.
 	 */
@@ -997,17 +1015,17 @@ public class JobLaunchAction extends Action implements Runnable {
 				localStorageDir);
 		String launchCMDFileName = "";
 
-		// Block until the Form is submitted
-		while (!formSubmitted.get()) {
-			try {
-				Thread.sleep(100);
-			} catch (InterruptedException e1) {
-				// Complain
-				logger.error(getClass().getName() + " Exception!", e1);
-				return;
-			}
-			// DEBUG - logger.info("Form not yet submitted.");
-		} // FIXME - Need to be able to cancel!
+		// Block until the Form is submitted or the launch is cancelled
+		try {
+			formLatch.await();
+		} catch (InterruptedException e1) {
+			// Complain
+			logger.error(getClass().getName() + " Exception!", e1);
+			return;
+		}
+		if (cancelled.get()) {
+			return;
+		}
 
 		// Write the command script that contains all of the commands to launch.
 		try {
@@ -1026,7 +1044,7 @@ public class JobLaunchAction extends Action implements Runnable {
 
 			if (connectionType == null) {
 				logger.info("Invalid ConnectionType! Cannot create a new IRemoteConnection.");
-				status = FormStatus.InfoError;
+				setStatus(FormStatus.InfoError);
 				return;
 			}
 
@@ -1040,7 +1058,7 @@ public class JobLaunchAction extends Action implements Runnable {
 						+ shortDate.format(currentDate));
 			} catch (RemoteConnectionException e3) {
 				e3.printStackTrace();
-				status = FormStatus.InfoError;
+				setStatus(FormStatus.InfoError);
 				return;
 			}
 
@@ -1058,7 +1076,7 @@ public class JobLaunchAction extends Action implements Runnable {
 			} catch (RemoteConnectionException e) {
 				// TODO Auto-generated catch block
 				logger.error(getClass().getName() + " Exception!",e);
-				status = FormStatus.InfoError;
+				setStatus(FormStatus.InfoError);
 				return;
 			}
 		}
@@ -1069,7 +1087,7 @@ public class JobLaunchAction extends Action implements Runnable {
 		} catch (RemoteConnectionException e) {
 			// Print diagnostic information and fail
 			logger.error(getClass().getName() + " Exception!",e);
-			status = FormStatus.InfoError;
+			setStatus(FormStatus.InfoError);
 			return;
 		}
 
@@ -1093,7 +1111,7 @@ public class JobLaunchAction extends Action implements Runnable {
 						.getWorkingDirectory()));
 			} catch (CoreException e1) {
 				logger.error(getClass().getName() + " Exception!", e1);
-				status = FormStatus.InfoError;
+				setStatus(FormStatus.InfoError);
 				return;
 			}
 
@@ -1141,7 +1159,7 @@ public class JobLaunchAction extends Action implements Runnable {
 			} catch (CoreException e) {
 				// Print diagnostic information and fail
 				logger.error(getClass().getName() + " Exception!",e);
-				status = FormStatus.InfoError;
+				setStatus(FormStatus.InfoError);
 				return;
 			}
 
@@ -1181,7 +1199,7 @@ public class JobLaunchAction extends Action implements Runnable {
 			} catch (IOException e) {
 				// Print diagnostic information and fail
 				logger.error(getClass().getName() + " Exception!",e);
-				status = FormStatus.InfoError;
+				setStatus(FormStatus.InfoError);
 				return;
 			}
 			// Log the ouput
@@ -1190,7 +1208,7 @@ public class JobLaunchAction extends Action implements Runnable {
 			if (logOutput(stdOutStream, stdErrStream).equals(
 					FormStatus.InfoError)) {
 				// Throw an error if the streaming fails
-				status = FormStatus.InfoError;
+				setStatus(FormStatus.InfoError);
 				return;
 			}
 			// Monitor the job
@@ -1265,7 +1283,7 @@ public class JobLaunchAction extends Action implements Runnable {
 		}
 
 		// Set the status
-		status = FormStatus.Processed;
+		setStatus(FormStatus.Processed);
 
 		// Close the connection
 		connection.close();
@@ -1348,14 +1366,15 @@ public class JobLaunchAction extends Action implements Runnable {
 			formAtomic.set((LoginInfoForm) form);
 			jschUIInfo.setForm((LoginInfoForm) form);
 
-			// Mark the Form as submitted
+			// Mark the Form as submitted and release the launch thread
 			formSubmitted.set(true);
+			formLatch.countDown();
 
 			// Set the status
 			logger.info("SETTING FLAG TO PROCESSING");
-			status = FormStatus.Processing;
+			setStatus(FormStatus.Processing);
 		} else {
-			status = FormStatus.InfoError;
+			setStatus(FormStatus.InfoError);
 		}
 		return status;
 	}
@@ -1374,13 +1393,15 @@ public class JobLaunchAction extends Action implements Runnable {
 		Thread processThread = new Thread(this);
 		formSubmitted = new AtomicBoolean();
 		formSubmitted.set(true);
+		formLatch = new CountDownLatch(1);
+		completion = new CompletableFuture<FormStatus>();
 
 		// Determine if this is a local launch or not
 		String hostname = dictionary.get("hostname");
 		isLocal.set(isLocalhost(hostname));
 
 		// Set the default value of the status to processing
-		status = FormStatus.Processing;
+		setStatus(FormStatus.Processing);
 
 		// Set the dictionary reference
 		execDictionary = dictionary;
@@ -1408,7 +1429,12 @@ public class JobLaunchAction extends Action implements Runnable {
 			formAtomic = new AtomicReference<LoginInfoForm>();
 
 			// Set the status
-			status = FormStatus.NeedsInfo;
+			setStatus(FormStatus.NeedsInfo);
+		}
+
+		// Release the launch thread right away if no Form is needed
+		if (formSubmitted.get()) {
+			formLatch.countDown();
 		}
 
 		// Start the thread
@@ -1461,8 +1487,11 @@ public class JobLaunchAction extends Action implements Runnable {
 	@Override
 	public FormStatus cancel() {
 
-		// Throw the flag
+		// Throw the flag and release the launch thread if it is waiting
 		cancelled.set(true);
+		if (formLatch != null) {
+			formLatch.countDown();
+		}
 
 		// Stop local jobs
 		if (isLocal.get() && job != null) {
@@ -1526,6 +1555,39 @@ public class JobLaunchAction extends Action implements Runnable {
 	@Override
 	public void run() {
 
+		try {
+			launch();
+		} finally {
+			// A launch that ends without a final status has failed
+			if (!cancelled.get()
+					&& (FormStatus.Processing.equals(status) || FormStatus.NeedsInfo
+							.equals(status))) {
+				setStatus(FormStatus.InfoError);
+			}
+			// Publish the final status
+			completion.complete(status);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation returns a future that is completed with the final status
+	 * of the Action when the launch finishes. Clients can wait on it or attach
+	 * callbacks to it instead of polling getStatus().
+	 *
+	 * @return The future for the final status of the launch
+	 */
+	public CompletableFuture<FormStatus> getCompletion() {
+		return completion;
+	}
+
+	/**
+	 * This operation performs the launch on the launch thread. It is called by
+	 * run().
+	 */
+	private void launch() {
+
 		// Local Declarations
 		String executable = null, inputFile = null, hostname = null;
 		String stdOutFileName = null, stdErrFileName = null;
@@ -1547,7 +1609,7 @@ public class JobLaunchAction extends Action implements Runnable {
 		if (executable == null || (uploadInput && inputFile == null)
 				|| stdOutFileName == null || stdErrFileName == null
 				|| hostname == null) {
-			status = FormStatus.InfoError;
+			setStatus(FormStatus.InfoError);
 			return;
 		}
 
@@ -1600,7 +1662,7 @@ public class JobLaunchAction extends Action implements Runnable {
 		} catch (IOException e) {
 			// Complain
 			logger.error(getClass().getName() + " Exception!",e);
-			status = FormStatus.InfoError;
+			setStatus(FormStatus.InfoError);
 			return;
 		}
 
@@ -0,0 +1,388 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings
+ *******************************************************************************/
+package org.eclipse.ice.item.action;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class captures the standard output and standard error streams of a
+ * launched process. Each stream is drained on its own thread so that a process
+ * that fills one of its pipes can never block on it while the other one is
+ * being read. The output is copied in blocks to the writers given to the
+ * constructor, which are flushed periodically instead of after every line.
+ * They are also flushed whenever the stream has no more output ready, so a
+ * line that a quiet process printed does not wait in the writer for the next
+ * block.
+ * Every line is written to the writers with a "\r\n" terminator, which works
+ * on Windows and Unix-based systems, and the last line is terminated even if
+ * the process did not end it. This is the same output that was written when
+ * the streams were read line by line.
+ * <p>
+ * The most recent output of both streams is also kept in memory in a ring
+ * buffer of fixed size so that clients, like the console view, can show the
+ * tail of the output without reading the files. Output that is pushed out of
+ * the ring buffer is counted as dropped. It is still written to the files.
+ * </p>
+ * <p>
+ * The capture also counts the number of characters read from each stream. It
+ * is used for both local and remote launches by the JobLaunchAction.
+ * </p>
+ */
+public class OutputCapture {
+
+	/**
+	 * Logger for handling event messages and other information.
+	 */
+	private static final Logger logger = LoggerFactory
+			.getLogger(OutputCapture.class);
+
+	/**
+	 * The default size of the ring buffer, one million characters.
+	 */
+	public static final int DEFAULT_CAPACITY = 1048576;
+
+	/**
+	 * The default time between flushes of the writers in milliseconds.
+	 */
+	public static final long DEFAULT_FLUSH_INTERVAL = 500;
+
+	/**
+	 * The size of the blocks that are read from the streams.
+	 */
+	private static final int blockSize = 8192;
+
+	/**
+	 * The writers for standard output and standard error.
+	 */
+	private final Writer stdOut, stdErr;
+
+	/**
+	 * The ring buffer that holds the most recent output.
+	 */
+	private final char[] ring;
+
+	/**
+	 * The position in the ring buffer where the next character is written.
+	 */
+	private int ringHead = 0;
+
+	/**
+	 * The number of characters currently stored in the ring buffer.
+	 */
+	private int ringSize = 0;
+
+	/**
+	 * The time between flushes of the writers in milliseconds.
+	 */
+	private final long flushInterval;
+
+	/**
+	 * The number of characters read from standard output and standard error.
+	 */
+	private final AtomicLong stdOutCount = new AtomicLong(), stdErrCount = new AtomicLong();
+
+	/**
+	 * The number of characters that were pushed out of the ring buffer.
+	 */
+	private final AtomicLong droppedCount = new AtomicLong();
+
+	/**
+	 * The time in nanoseconds at which the capture started and stopped.
+	 */
+	private volatile long startTime, stopTime;
+
+	/**
+	 * The threads that drain the streams.
+	 */
+	private Thread stdOutThread, stdErrThread;
+
+	/**
+	 * True if writing to one of the writers failed.
+	 */
+	private volatile boolean failed = false;
+
+	/**
+	 * The constructor.
+	 *
+	 * @param stdOutWriter
+	 *            The writer to which standard output is copied
+	 * @param stdErrWriter
+	 *            The writer to which standard error is copied
+	 * @param capacity
+	 *            The number of characters that are kept in memory
+	 * @param flushMillis
+	 *            The time between flushes of the writers in milliseconds
+	 */
+	public OutputCapture(Writer stdOutWriter, Writer stdErrWriter,
+			int capacity, long flushMillis) {
+		stdOut = stdOutWriter;
+		stdErr = stdErrWriter;
+		ring = new char[Math.max(capacity, 1)];
+		flushInterval = flushMillis;
+	}
+
+	/**
+	 * The constructor. It uses the default capacity and flush interval.
+	 *
+	 * @param stdOutWriter
+	 *            The writer to which standard output is copied
+	 * @param stdErrWriter
+	 *            The writer to which standard error is copied
+	 */
+	public OutputCapture(Writer stdOutWriter, Writer stdErrWriter) {
+		this(stdOutWriter, stdErrWriter, DEFAULT_CAPACITY,
+				DEFAULT_FLUSH_INTERVAL);
+	}
+
+	/**
+	 * This operation starts draining the streams on their own threads. It
+	 * returns immediately.
+	 *
+	 * @param output
+	 *            The standard output of the process
+	 * @param errors
+	 *            The standard error of the process
+	 */
+	public void start(InputStream output, InputStream errors) {
+
+		startTime = System.nanoTime();
+		stdOutThread = createDrain(output, stdOut, stdOutCount, "stdout");
+		stdErrThread = createDrain(errors, stdErr, stdErrCount, "stderr");
+		stdOutThread.start();
+		stdErrThread.start();
+
+		return;
+	}
+
+	/**
+	 * This operation blocks until both streams have been drained and the
+	 * writers have been flushed. It does not close the writers.
+	 *
+	 * @return True if all of the output was written, false if writing failed
+	 * @throws InterruptedException
+	 *             An exception indicating that the wait was interrupted
+	 */
+	public boolean waitFor() throws InterruptedException {
+
+		if (stdOutThread != null) {
+			stdOutThread.join();
+		}
+		if (stdErrThread != null) {
+			stdErrThread.join();
+		}
+		stopTime = System.nanoTime();
+
+		return !failed;
+	}
+
+	/**
+	 * This operation creates a thread that copies a stream to a writer and to
+	 * the ring buffer. The characters in the ring buffer are not changed, but
+	 * the line terminators written to the writer are replaced by "\r\n".
+	 *
+	 * @param stream
+	 *            The stream to drain
+	 * @param writer
+	 *            The writer to which the stream is copied
+	 * @param counter
+	 *            The counter of characters for the stream
+	 * @param name
+	 *            The name of the stream
+	 * @return The thread
+	 */
+	private Thread createDrain(final InputStream stream, final Writer writer,
+			final AtomicLong counter, String name) {
+
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+
+				// Local Declarations
+				Reader reader = new InputStreamReader(stream);
+				char[] block = new char[blockSize];
+				char[] lines = new char[2 * blockSize];
+				long lastFlush = System.currentTimeMillis();
+				boolean afterReturn = false, lineOpen = false;
+				int count, length;
+
+				try {
+					while ((count = reader.read(block)) != -1) {
+						counter.addAndGet(count);
+						append(block, count);
+						// End every line with "\r\n". Lines end at "\n", "\r"
+						// or "\r\n" like they do for BufferedReader.
+						length = 0;
+						for (int i = 0; i < count; i++) {
+							char c = block[i];
+							if (c == '\n' && afterReturn) {
+								afterReturn = false;
+							} else if (c == '\n' || c == '\r') {
+								lines[length++] = '\r';
+								lines[length++] = '\n';
+								afterReturn = (c == '\r');
+								lineOpen = false;
+							} else {
+								lines[length++] = c;
+								afterReturn = false;
+								lineOpen = true;
+							}
+						}
+						// Write the block and flush it if it is time or if the
+						// process is quiet and the next read would block
+						synchronized (writer) {
+							writer.write(lines, 0, length);
+							if (!reader.ready()
+									|| System.currentTimeMillis() - lastFlush >= flushInterval) {
+								writer.flush();
+								lastFlush = System.currentTimeMillis();
+							}
+						}
+					}
+					synchronized (writer) {
+						// Terminate the last line
+						if (lineOpen) {
+							writer.write("\r\n");
+						}
+						writer.flush();
+					}
+				} catch (IOException e) {
+					logger.error(getClass().getName() + " Exception!", e);
+					failed = true;
+				} finally {
+					try {
+						reader.close();
+					} catch (IOException e) {
+						logger.error(getClass().getName() + " Exception!", e);
+					}
+				}
+
+				return;
+			}
+		}, "ICE Output Capture (" + name + ")");
+		thread.setDaemon(true);
+
+		return thread;
+	}
+
+	/**
+	 * This operation adds characters to the ring buffer, dropping the oldest
+	 * characters if it is full.
+	 *
+	 * @param block
+	 *            The characters
+	 * @param count
+	 *            The number of characters in the block to add
+	 */
+	private void append(char[] block, int count) {
+
+		// Local Declarations
+		int offset = 0;
+
+		synchronized (ring) {
+			// Only the end of blocks that are bigger than the ring can be kept
+			if (count > ring.length) {
+				offset = count - ring.length;
+				droppedCount.addAndGet(offset);
+			}
+			for (int i = offset; i < count; i++) {
+				ring[ringHead] = block[i];
+				ringHead = (ringHead + 1) % ring.length;
+			}
+			// Count the characters that were overwritten
+			int added = count - offset;
+			if (ringSize + added > ring.length) {
+				droppedCount.addAndGet(ringSize + added - ring.length);
+				ringSize = ring.length;
+			} else {
+				ringSize += added;
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation returns the most recent output of both streams in the
+	 * order in which it was read.
+	 *
+	 * @return The contents of the ring buffer
+	 */
+	public String getTail() {
+
+		synchronized (ring) {
+			int start = (ringHead - ringSize + ring.length) % ring.length;
+			StringBuilder builder = new StringBuilder(ringSize);
+			if (start + ringSize <= ring.length) {
+				builder.append(ring, start, ringSize);
+			} else {
+				builder.append(ring, start, ring.length - start);
+				builder.append(ring, 0, ringSize - (ring.length - start));
+			}
+			return builder.toString();
+		}
+	}
+
+	/**
+	 * This operation returns the number of characters read from standard
+	 * output.
+	 *
+	 * @return The number of characters
+	 */
+	public long getStdOutCount() {
+		return stdOutCount.get();
+	}
+
+	/**
+	 * This operation returns the number of characters read from standard
+	 * error.
+	 *
+	 * @return The number of characters
+	 */
+	public long getStdErrCount() {
+		return stdErrCount.get();
+	}
+
+	/**
+	 * This operation returns the number of characters that were pushed out of
+	 * the ring buffer.
+	 *
+	 * @return The number of dropped characters
+	 */
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	/**
+	 * This operation returns the average throughput of the capture since it
+	 * started, in characters per second.
+	 *
+	 * @return The throughput
+	 */
+	public double getThroughput() {
+
+		long end = (stopTime > 0) ? stopTime : System.nanoTime();
+		long elapsed = end - startTime;
+
+		if (startTime == 0 || elapsed <= 0) {
+			return 0.0;
+		}
+
+		return (stdOutCount.get() + stdErrCount.get()) * 1.0e9 / elapsed;
+	}
+}
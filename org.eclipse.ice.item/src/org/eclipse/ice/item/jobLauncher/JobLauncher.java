@@ -25,6 +25,11 @@ import java.util.ArrayList;
 import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
@@ -937,8 +942,10 @@ public class JobLauncher extends Item {
 				// Create the output files in the project space
 				createOutputFiles();
 
-				// Launch the action
+				// Launch the action and publish its status changes
 				action = new JobLaunchAction();
+				observeAction(action);
+				final CountDownLatch executed = new CountDownLatch(1);
 
 				// If we have a valid connection then give it to the action
 				IRemoteConnection remoteConnection = getRemoteConnection(actionDataMap
@@ -965,22 +972,30 @@ public class JobLauncher extends Item {
 								ticks);
 						try {
 							// Execute the Action
-							status = action.execute(actionDataMap);
+							setStatus(action.execute(actionDataMap));
+							executed.countDown();
 
 							// While its processing, keep the progress bar going
-							while (!status.equals(FormStatus.Processed)
-									&& !status.equals(FormStatus.InfoError)) {
-								monitor.subTask("Executing the Job");
-								Thread.sleep(1000);
-								// Check for Cancellation
-								if (monitor.isCanceled()) {
-									status = action.cancel();
-									return Status.CANCEL_STATUS;
+							// until the launch completes. The wait is only
+							// bounded so that cancellation can be checked.
+							CompletableFuture<FormStatus> completion = ((JobLaunchAction) action)
+									.getCompletion();
+							monitor.subTask("Executing the Job");
+							while (!completion.isDone()) {
+								try {
+									completion.get(1, TimeUnit.SECONDS);
+								} catch (TimeoutException e) {
+									// Check for Cancellation
+									if (monitor.isCanceled()) {
+										setStatus(action.cancel());
+										return Status.CANCEL_STATUS;
+									}
 								}
 							}
-						} catch (InterruptedException e) {
+						} catch (InterruptedException | ExecutionException e) {
 							logger.error(getClass().getName() + " Exception!",e);
 						} finally {
+							executed.countDown();
 							monitor.subTask("Job Launched Successfully.");
 							monitor.worked(100);
 							monitor.done();
@@ -989,20 +1004,20 @@ public class JobLauncher extends Item {
 					}
 				};
 
-				// Schedule it for execution
-				launchJob.schedule();
-
 				// Set the status as processing, if it fails
 				// the Job will set the status correctly
-				status = FormStatus.Processing;
+				setStatus(FormStatus.Processing);
+
+				// Schedule it for execution
+				launchJob.schedule();
 
 				// Invoke the output streaming thread
 				streamOutputData();
 
-				// Sleep the thread for a sec to give
-				// the Action time to do its thing
+				// Give the Action up to a second to start so that a request
+				// for more information is returned right away
 				try {
-					Thread.sleep(1000);
+					executed.await(1, TimeUnit.SECONDS);
 				} catch (InterruptedException e) {
 					logger.error(getClass().getName() + " Exception!",e);
 				}
@@ -1012,7 +1027,7 @@ public class JobLauncher extends Item {
 			} else {
 				localStatus = FormStatus.InfoError;
 
-				status = localStatus;
+				setStatus(localStatus);
 
 				return status;
 			}
@@ -1029,7 +1044,7 @@ public class JobLauncher extends Item {
 	 */
 	@Override
 	public FormStatus cancelProcess() {
-		status = super.cancelProcess();
+		setStatus(super.cancelProcess());
 		if (status.equals(FormStatus.ReadyToProcess)) {
 			launchJob.cancel();
 		}
@@ -1094,10 +1109,15 @@ public class JobLauncher extends Item {
 						}
 						// Flush!
 						outputFileBufferedWriter.flush();
-						// Sleep for a bit
-						Thread.currentThread();
-						Thread.sleep(100);
-						status = action.getStatus();
+						// Wait for a bit, but stop as soon as the launch is
+						// done
+						try {
+							((JobLaunchAction) action).getCompletion().get(100,
+									TimeUnit.MILLISECONDS);
+						} catch (TimeoutException | ExecutionException e) {
+							// Keep streaming
+						}
+						setStatus(action.getStatus());
 					}
 					// Close stdout
 					stdoutBufferredReader.close();
@@ -1232,6 +1252,87 @@ public class JobLauncher extends Item {
 		return hosts;
 	}
 
+	/**
+	 * This operation selects the host on which the job will be launched. It
+	 * does nothing if the host has not been added to this JobLauncher.
+	 *
+	 * @param hostname
+	 *            The hostname of the host that should be selected.
+	 */
+	public void setSelectedHost(String hostname) {
+
+		if (hostname != null && hostsTable != null && hosts.contains(hostname)) {
+			// Find the row of the host and select it
+			for (int rowId : hostsTable.getRowIds()) {
+				if (hostname.equals(hostsTable.getRow(rowId).get(0).getValue())) {
+					ArrayList<Integer> selection = new ArrayList<Integer>();
+					selection.add(rowId);
+					hostsTable.setSelectedRows(selection);
+					break;
+				}
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation returns the number of cores that the job will occupy when
+	 * it is launched. It is the number of MPI processes multiplied by the
+	 * number of threads per process, which is the larger of the number of
+	 * OpenMP and TBB threads. It is always at least 1.
+	 *
+	 * @return The number of cores
+	 */
+	public int getRequiredCores() {
+
+		// Local Declarations
+		int numProcs = 1, numThreads = 1;
+		DataComponent parallelData = null;
+
+		if (form != null) {
+			parallelData = (DataComponent) form
+					.getComponent(JobLauncherForm.parallelId);
+		}
+		if (parallelData != null) {
+			numProcs = getPositiveValue(parallelData,
+					"Number of MPI Processes");
+			numThreads = Math.max(
+					getPositiveValue(parallelData, "Number of OpenMP Threads"),
+					getPositiveValue(parallelData, "Number of TBB Threads"));
+		}
+
+		return numProcs * numThreads;
+	}
+
+	/**
+	 * This operation returns the integer value of an Entry in a DataComponent
+	 * or 1 if the Entry does not exist or its value is not a positive integer.
+	 *
+	 * @param component
+	 *            The component that contains the Entry
+	 * @param entryName
+	 *            The name of the Entry
+	 * @return The value
+	 */
+	private int getPositiveValue(DataComponent component, String entryName) {
+
+		// Local Declarations
+		int value = 1;
+		Entry entry = component.retrieveEntry(entryName);
+
+		if (entry != null) {
+			try {
+				value = Math.max(1, Integer.parseInt(entry.getValue()));
+			} catch (NumberFormatException e) {
+				logger.info("JobLauncher Message: Invalid value for "
+						+ entryName + ", " + entry.getValue());
+			}
+		}
+
+		return value;
+	}
+
 	/**
 	 * <p>
 	 * This operation directs the JobLauncher to enable MPI support for this
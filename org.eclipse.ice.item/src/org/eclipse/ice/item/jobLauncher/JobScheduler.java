@@ -0,0 +1,966 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings
+ *******************************************************************************/
+package org.eclipse.ice.item.jobLauncher;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.ice.datastructures.form.FormStatus;
+import org.eclipse.ice.item.Item;
+import org.eclipse.ice.item.ItemStatusListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * The JobScheduler launches a set of jobs whose dependencies form a directed
+ * acyclic graph. A job is only launched after all of the jobs it depends on
+ * have been processed successfully. Jobs are added with addJob() and their
+ * dependencies must be added before them, so the graph can never contain a
+ * cycle.
+ * </p>
+ * <p>
+ * Jobs that are ready to launch are placed in the queue of a host. The hosts
+ * of a JobLauncher are the hosts returned by its getAllHosts() operation and
+ * the job is queued on the one with the least work per core. Every other Item
+ * runs on the local host. Each host launches at most a fixed number of jobs at
+ * a time and shares a fixed number of cores between them. The number of cores
+ * of a JobLauncher is given by getRequiredCores(), the number of MPI processes
+ * times the number of OpenMP or TBB threads. The queues are strictly first in,
+ * first out so that a job that needs many cores is never overtaken by a stream
+ * of smaller jobs. A job that needs more cores than the host has is launched
+ * when it is alone on the host.
+ * </p>
+ * <p>
+ * The number of processors of this machine says nothing about a remote host,
+ * so hosts that are not the local machine have separate, conservative default
+ * limits of one job at a time. Both defaults can be changed and each host can
+ * be configured with setHostLimits().
+ * </p>
+ * <p>
+ * Jobs that fail are queued again until they have been retried the maximum
+ * number of times. The jobs that depend on a job that failed for good are not
+ * launched.
+ * </p>
+ * <p>
+ * The scheduler runs on the thread that calls run() and only wakes up when one
+ * of the running jobs publishes a change of status, with a periodic check as a
+ * fallback for Items that do not publish their status. It records the number
+ * of jobs completed per minute and the time jobs spend in each Stage.
+ * </p>
+ * <p>
+ * Subclasses may override prepare() to configure a job right before it is
+ * launched and statusChanged() to follow the progress of the jobs.
+ * </p>
+ */
+public class JobScheduler {
+
+	/**
+	 * Logger for handling event messages and other information.
+	 */
+	private static final Logger logger = LoggerFactory
+			.getLogger(JobScheduler.class);
+
+	/**
+	 * The name of the host used for Items that are not JobLaunchers.
+	 */
+	public static final String LOCAL_HOST = "localhost";
+
+	/**
+	 * The default maximum number of jobs and cores of a remote host.
+	 */
+	public static final int DEFAULT_REMOTE_MAX_JOBS = 1,
+			DEFAULT_REMOTE_MAX_CORES = 1;
+
+	/**
+	 * The name of the action that is processed to launch a job.
+	 */
+	public static final String LAUNCH_ACTION = "Launch the Job";
+
+	/**
+	 * The stages of a job for which the scheduler records the time spent.
+	 */
+	public enum Stage {
+		/**
+		 * The time between the start of the scheduler, or the failure of the
+		 * last attempt, and the moment all dependencies were processed.
+		 */
+		Dependencies,
+		/**
+		 * The time spent in the queue of a host waiting for a free slot and
+		 * enough free cores.
+		 */
+		Queue,
+		/**
+		 * The time between the launch and the end of the job.
+		 */
+		Running
+	}
+
+	/**
+	 * A job in the graph.
+	 */
+	private static class Node {
+
+		/**
+		 * The Item that is launched.
+		 */
+		private final Item job;
+
+		/**
+		 * The jobs this job depends on.
+		 */
+		private final ArrayList<Node> dependencies = new ArrayList<Node>();
+
+		/**
+		 * The jobs that depend on this job.
+		 */
+		private final ArrayList<Node> dependents = new ArrayList<Node>();
+
+		/**
+		 * The number of dependencies that have not been processed yet.
+		 */
+		private int pendingDependencies;
+
+		/**
+		 * The number of times the job has failed.
+		 */
+		private int failures;
+
+		/**
+		 * True if the job or one of its dependencies failed for good.
+		 */
+		private boolean failed;
+
+		/**
+		 * The host on which the job is queued or running, or null.
+		 */
+		private Host host;
+
+		/**
+		 * The number of cores the job occupies on its host.
+		 */
+		private int cores;
+
+		/**
+		 * The last status of the job seen by the scheduler.
+		 */
+		private FormStatus status = FormStatus.ReadyToProcess;
+
+		/**
+		 * The time at which the current stage started.
+		 */
+		private long stageStart;
+
+		/**
+		 * The constructor.
+		 *
+		 * @param item
+		 *            The Item that is launched.
+		 */
+		private Node(Item item) {
+			job = item;
+		}
+	}
+
+	/**
+	 * A host with its queue and the resources used by running jobs.
+	 */
+	private static class Host {
+
+		/**
+		 * The name of the host.
+		 */
+		private final String name;
+
+		/**
+		 * The jobs waiting to be launched on this host.
+		 */
+		private final ArrayDeque<Node> queue = new ArrayDeque<Node>();
+
+		/**
+		 * The maximum number of jobs that may run at the same time.
+		 */
+		private int maxJobs;
+
+		/**
+		 * The number of cores shared by the running jobs.
+		 */
+		private int maxCores;
+
+		/**
+		 * The number of running jobs.
+		 */
+		private int runningJobs;
+
+		/**
+		 * The number of cores used by running jobs and requested by queued
+		 * jobs.
+		 */
+		private int usedCores, queuedCores;
+
+		/**
+		 * True if the limits of the host were set explicitly.
+		 */
+		private boolean configured;
+
+		/**
+		 * True if the host is not the local machine.
+		 */
+		private boolean remote;
+
+		/**
+		 * The constructor.
+		 *
+		 * @param hostname
+		 *            The name of the host.
+		 */
+		private Host(String hostname) {
+			name = hostname;
+		}
+
+		/**
+		 * This operation returns the amount of work per core on the host.
+		 *
+		 * @return The load
+		 */
+		private double getLoad() {
+			return (double) (usedCores + queuedCores) / maxCores;
+		}
+	}
+
+	/**
+	 * The jobs in the order in which they were added.
+	 */
+	private final ArrayList<Node> nodes = new ArrayList<Node>();
+
+	/**
+	 * The nodes of the jobs. Items override equals(), so the map compares
+	 * them by reference.
+	 */
+	private final IdentityHashMap<Item, Node> nodeMap = new IdentityHashMap<Item, Node>();
+
+	/**
+	 * The hosts by name.
+	 */
+	private final LinkedHashMap<String, Host> hosts = new LinkedHashMap<String, Host>();
+
+	/**
+	 * The jobs that are currently running.
+	 */
+	private final ArrayList<Node> runningNodes = new ArrayList<Node>();
+
+	/**
+	 * The jobs whose status changed since the scheduler last checked them.
+	 */
+	private final LinkedBlockingQueue<Item> statusEvents = new LinkedBlockingQueue<Item>();
+
+	/**
+	 * The listener registered with each running job to wake up the scheduler.
+	 */
+	private final ItemStatusListener jobListener;
+
+	/**
+	 * The default maximum number of jobs and cores of the local host.
+	 */
+	private int defaultMaxJobs, defaultMaxCores;
+
+	/**
+	 * The default maximum number of jobs and cores of a remote host.
+	 */
+	private int remoteMaxJobs = DEFAULT_REMOTE_MAX_JOBS,
+			remoteMaxCores = DEFAULT_REMOTE_MAX_CORES;
+
+	/**
+	 * The number of times a failed job is launched again.
+	 */
+	private int maxRetries = 0;
+
+	/**
+	 * True if run() was called.
+	 */
+	private boolean started = false;
+
+	/**
+	 * True if the scheduler was cancelled.
+	 */
+	private volatile boolean cancelled = false;
+
+	/**
+	 * The number of jobs that finished, successfully or not.
+	 */
+	private int finishedJobs = 0;
+
+	/**
+	 * The number of jobs that were processed successfully and the number of
+	 * retries. Guarded by this.
+	 */
+	private int completedJobs = 0, retries = 0;
+
+	/**
+	 * The total time in nanoseconds and the number of samples for each Stage.
+	 * Guarded by this.
+	 */
+	private final long[] stageTimes = new long[Stage.values().length],
+			stageCounts = new long[Stage.values().length];
+
+	/**
+	 * The time at which run() was called and the time at which it returned.
+	 */
+	private volatile long startTime, stopTime;
+
+	/**
+	 * The constructor. By default, the local host runs one job per available
+	 * processor of this machine and shares that many cores, and each remote
+	 * host runs one job at a time.
+	 */
+	public JobScheduler() {
+
+		defaultMaxJobs = Runtime.getRuntime().availableProcessors();
+		defaultMaxCores = defaultMaxJobs;
+
+		jobListener = new ItemStatusListener() {
+			@Override
+			public void statusChanged(Item item, FormStatus status) {
+				statusEvents.offer(item);
+			}
+		};
+	}
+
+	/**
+	 * This operation adds a job to the scheduler. It must be called before
+	 * run().
+	 *
+	 * @param job
+	 *            The Item to launch. Its Form must be ready to process.
+	 * @param dependencies
+	 *            The jobs that must be processed successfully before this job
+	 *            is launched. They must have been added already.
+	 */
+	public void addJob(Item job, Item... dependencies) {
+
+		// Local Declarations
+		Node node = null, dependency = null;
+
+		if (job == null || nodeMap.containsKey(job)) {
+			throw new IllegalArgumentException("JobScheduler Error: "
+					+ "The job is null or was already added.");
+		} else if (started) {
+			throw new IllegalStateException("JobScheduler Error: "
+					+ "Jobs cannot be added after the scheduler started.");
+		}
+
+		// Link the job to its dependencies
+		node = new Node(job);
+		for (Item item : dependencies) {
+			dependency = nodeMap.get(item);
+			if (dependency == null) {
+				throw new IllegalArgumentException("JobScheduler Error: "
+						+ "The dependency " + item + " was not added.");
+			}
+			if (!node.dependencies.contains(dependency)) {
+				node.dependencies.add(dependency);
+				dependency.dependents.add(node);
+			}
+		}
+		node.pendingDependencies = node.dependencies.size();
+
+		// Find the cores and create the queues for the hosts
+		if (job instanceof JobLauncher) {
+			node.cores = ((JobLauncher) job).getRequiredCores();
+		} else {
+			node.cores = 1;
+		}
+		for (String hostname : getHostnames(job)) {
+			getHost(hostname);
+		}
+
+		nodes.add(node);
+		nodeMap.put(job, node);
+
+		return;
+	}
+
+	/**
+	 * This operation sets the maximum number of jobs and cores for a host.
+	 *
+	 * @param hostname
+	 *            The name of the host
+	 * @param maxJobs
+	 *            The maximum number of jobs that may run at the same time
+	 * @param maxCores
+	 *            The number of cores shared by the running jobs
+	 */
+	public void setHostLimits(String hostname, int maxJobs, int maxCores) {
+
+		Host host = getHost(hostname);
+		host.maxJobs = Math.max(1, maxJobs);
+		host.maxCores = Math.max(1, maxCores);
+		host.configured = true;
+
+		return;
+	}
+
+	/**
+	 * This operation sets the maximum number of jobs and cores for the local
+	 * host if it has not been configured with setHostLimits().
+	 *
+	 * @param maxJobs
+	 *            The maximum number of jobs that may run at the same time
+	 * @param maxCores
+	 *            The number of cores shared by the running jobs
+	 */
+	public void setDefaultHostLimits(int maxJobs, int maxCores) {
+		defaultMaxJobs = Math.max(1, maxJobs);
+		defaultMaxCores = Math.max(1, maxCores);
+		for (Host host : hosts.values()) {
+			if (!host.configured && !host.remote) {
+				host.maxJobs = defaultMaxJobs;
+				host.maxCores = defaultMaxCores;
+			}
+		}
+	}
+
+	/**
+	 * This operation sets the maximum number of jobs and cores for the remote
+	 * hosts that have not been configured with setHostLimits().
+	 *
+	 * @param maxJobs
+	 *            The maximum number of jobs that may run at the same time
+	 * @param maxCores
+	 *            The number of cores shared by the running jobs
+	 */
+	public void setRemoteHostLimits(int maxJobs, int maxCores) {
+		remoteMaxJobs = Math.max(1, maxJobs);
+		remoteMaxCores = Math.max(1, maxCores);
+		for (Host host : hosts.values()) {
+			if (!host.configured && host.remote) {
+				host.maxJobs = remoteMaxJobs;
+				host.maxCores = remoteMaxCores;
+			}
+		}
+	}
+
+	/**
+	 * This operation returns the maximum number of jobs that may run on a host
+	 * at the same time.
+	 *
+	 * @param hostname
+	 *            The name of the host
+	 * @return The maximum number of jobs
+	 */
+	public int getMaxJobs(String hostname) {
+		Host host = hosts.get(hostname);
+		if (host != null) {
+			return host.maxJobs;
+		}
+		return isLocalHost(hostname) ? defaultMaxJobs : remoteMaxJobs;
+	}
+
+	/**
+	 * This operation returns the number of cores shared by the running jobs
+	 * of a host.
+	 *
+	 * @param hostname
+	 *            The name of the host
+	 * @return The number of cores
+	 */
+	public int getMaxCores(String hostname) {
+		Host host = hosts.get(hostname);
+		if (host != null) {
+			return host.maxCores;
+		}
+		return isLocalHost(hostname) ? defaultMaxCores : remoteMaxCores;
+	}
+
+	/**
+	 * This operation sets the number of times a job that fails is launched
+	 * again. It is zero by default.
+	 *
+	 * @param retries
+	 *            The number of retries
+	 */
+	public void setMaxRetries(int retries) {
+		maxRetries = Math.max(0, retries);
+	}
+
+	/**
+	 * This operation launches all of the jobs and blocks until they have
+	 * finished or the scheduler is cancelled. It may only be called once.
+	 *
+	 * @return FormStatus.Processed if all of the jobs were processed
+	 *         successfully, FormStatus.InfoError otherwise.
+	 */
+	public FormStatus run() {
+
+		if (started) {
+			throw new IllegalStateException("JobScheduler Error: "
+					+ "The scheduler can only be run once.");
+		}
+		started = true;
+		startTime = System.nanoTime();
+
+		// Queue the jobs without dependencies
+		for (Node node : nodes) {
+			node.stageStart = startTime;
+			if (node.pendingDependencies == 0) {
+				makeReady(node);
+			}
+		}
+
+		// Launch jobs until all of them have finished
+		while (finishedJobs < nodes.size() && !cancelled) {
+			dispatch();
+			if (runningNodes.isEmpty()) {
+				// Jobs that finished or failed right away may have queued
+				// other jobs. Launch them without waiting.
+				if (hasQueuedJobs()) {
+					continue;
+				}
+				// Otherwise nothing can finish anymore
+				if (finishedJobs < nodes.size()) {
+					logger.error("JobScheduler Message: No jobs are "
+							+ "running but " + (nodes.size() - finishedJobs)
+							+ " have not finished.");
+				}
+				break;
+			}
+			waitForStatusChange();
+			// Check all of the running jobs since more than one may have
+			// changed
+			for (Node node : new ArrayList<Node>(runningNodes)) {
+				update(node, node.job.getStatus());
+			}
+		}
+
+		// Stop the jobs that are still running if the scheduler was cancelled
+		for (Node node : runningNodes) {
+			node.job.removeStatusListener(jobListener);
+			node.job.cancelProcess();
+		}
+		stopTime = System.nanoTime();
+
+		logger.info("JobScheduler Message: " + completedJobs + " of "
+				+ nodes.size() + " jobs processed, " + getThroughput()
+				+ " jobs/min.");
+
+		return (completedJobs == nodes.size()) ? FormStatus.Processed
+				: FormStatus.InfoError;
+	}
+
+	/**
+	 * This operation cancels the scheduler. No more jobs are launched and the
+	 * running jobs are cancelled before run() returns.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * This operation is called right before a job is launched. It does
+	 * nothing by default.
+	 *
+	 * @param job
+	 *            The job that will be launched
+	 * @param dependencies
+	 *            The jobs it depends on, in the order they were given to
+	 *            addJob(). All of them were processed successfully.
+	 */
+	protected void prepare(Item job, List<Item> dependencies) {
+		// Nothing to do by default
+	}
+
+	/**
+	 * This operation is called when the status of a job changes. It is called
+	 * on the scheduler thread and does nothing by default.
+	 *
+	 * @param job
+	 *            The job
+	 * @param status
+	 *            The new status of the job
+	 */
+	protected void statusChanged(Item job, FormStatus status) {
+		// Nothing to do by default
+	}
+
+	/**
+	 * This operation returns the names of the hosts on which a job may run.
+	 *
+	 * @param job
+	 *            The job
+	 * @return The hostnames
+	 */
+	private List<String> getHostnames(Item job) {
+
+		// Local Declarations
+		ArrayList<String> hostnames = new ArrayList<String>();
+
+		if (job instanceof JobLauncher
+				&& ((JobLauncher) job).getAllHosts() != null) {
+			hostnames.addAll(((JobLauncher) job).getAllHosts());
+		}
+		if (hostnames.isEmpty()) {
+			hostnames.add(LOCAL_HOST);
+		}
+
+		return hostnames;
+	}
+
+	/**
+	 * This operation returns a host, creating it with the default local or remote
+	 * limits if
+	 * it does not exist.
+	 *
+	 * @param hostname
+	 *            The name of the host
+	 * @return The host
+	 */
+	private Host getHost(String hostname) {
+
+		Host host = hosts.get(hostname);
+
+		if (host == null) {
+			host = new Host(hostname);
+			host.remote = !isLocalHost(hostname);
+			host.maxJobs = host.remote ? remoteMaxJobs : defaultMaxJobs;
+			host.maxCores = host.remote ? remoteMaxCores : defaultMaxCores;
+			hosts.put(hostname, host);
+		}
+
+		return host;
+	}
+
+	/**
+	 * This operation checks whether a hostname is the local machine, the same
+	 * way that the JobLaunchAction does.
+	 *
+	 * @param hostname
+	 *            The name of the host
+	 * @return True if the host is the local machine, false otherwise
+	 */
+	private boolean isLocalHost(String hostname) {
+
+		// Local Declarations
+		boolean retVal = false;
+
+		if (LOCAL_HOST.equals(hostname) || "127.0.0.1".equals(hostname)
+				|| "localhost.localdomain".equals(hostname)) {
+			retVal = true;
+		} else {
+			try {
+				retVal = InetAddress.getLocalHost().getHostName()
+						.equals(hostname);
+			} catch (UnknownHostException e) {
+				logger.error(getClass().getName() + " Exception!", e);
+			}
+		}
+
+		return retVal;
+	}
+
+	/**
+	 * This operation places a job whose dependencies were all processed in the
+	 * queue of the least loaded of its hosts.
+	 *
+	 * @param node
+	 *            The job
+	 */
+	private void makeReady(Node node) {
+
+		// Local Declarations
+		Host host = null;
+		long now = System.nanoTime();
+
+		// Jobs whose dependencies failed are never launched
+		if (node.failed) {
+			return;
+		}
+
+		// Pick the host with the least work per core
+		for (String hostname : getHostnames(node.job)) {
+			Host candidate = getHost(hostname);
+			if (host == null || candidate.getLoad() < host.getLoad()) {
+				host = candidate;
+			}
+		}
+
+		// Queue the job
+		recordStage(Stage.Dependencies, now - node.stageStart);
+		node.stageStart = now;
+		node.host = host;
+		host.queue.add(node);
+		host.queuedCores += node.cores;
+
+		return;
+	}
+
+	/**
+	 * This operation launches the jobs at the heads of the host queues as long
+	 * as the hosts have free slots and enough free cores.
+	 */
+	private void dispatch() {
+
+		for (Host host : hosts.values()) {
+			while (!host.queue.isEmpty() && host.runningJobs < host.maxJobs) {
+				Node node = host.queue.peek();
+				int cores = Math.min(node.cores, host.maxCores);
+				// Wait for the cores to free up unless the host is idle
+				if (host.runningJobs > 0
+						&& host.usedCores + cores > host.maxCores) {
+					break;
+				}
+				host.queue.poll();
+				host.queuedCores -= node.cores;
+				host.runningJobs++;
+				host.usedCores += cores;
+				launch(node);
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation checks whether any host has jobs in its queue.
+	 *
+	 * @return True if a job is waiting to be launched, false otherwise
+	 */
+	private boolean hasQueuedJobs() {
+
+		for (Host host : hosts.values()) {
+			if (!host.queue.isEmpty()) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * This operation launches a job on its host.
+	 *
+	 * @param node
+	 *            The job
+	 */
+	private void launch(Node node) {
+
+		// Local Declarations
+		ArrayList<Item> dependencies = new ArrayList<Item>();
+		long now = System.nanoTime();
+
+		recordStage(Stage.Queue, now - node.stageStart);
+		node.stageStart = now;
+
+		// Configure the job
+		if (node.job instanceof JobLauncher) {
+			((JobLauncher) node.job).setSelectedHost(node.host.name);
+		}
+		for (Node dependency : node.dependencies) {
+			dependencies.add(dependency.job);
+		}
+		prepare(node.job, dependencies);
+
+		// Launch it
+		logger.info("JobScheduler Message: Launching job " + node.job.getName()
+				+ " with id " + node.job.getId() + " on " + node.host.name);
+		runningNodes.add(node);
+		node.job.addStatusListener(jobListener);
+		update(node, node.job.process(LAUNCH_ACTION));
+
+		return;
+	}
+
+	/**
+	 * This operation handles the status of a running job.
+	 *
+	 * @param node
+	 *            The job
+	 * @param status
+	 *            The current status of the job
+	 */
+	private void update(Node node, FormStatus status) {
+
+		if (status != node.status) {
+			node.status = status;
+			statusChanged(node.job, status);
+		}
+
+		// Nothing else to do while it is running
+		if (FormStatus.Processing.equals(status)
+				|| FormStatus.NeedsInfo.equals(status)) {
+			return;
+		}
+
+		// Free the resources of the host
+		Host host = node.host;
+		host.runningJobs--;
+		host.usedCores -= Math.min(node.cores, host.maxCores);
+		runningNodes.remove(node);
+		node.job.removeStatusListener(jobListener);
+		long now = System.nanoTime();
+		recordStage(Stage.Running, now - node.stageStart);
+		node.stageStart = now;
+
+		if (FormStatus.Processed.equals(status)) {
+			// Release the jobs that depend on this one
+			finishedJobs++;
+			synchronized (this) {
+				completedJobs++;
+			}
+			for (Node dependent : node.dependents) {
+				dependent.pendingDependencies--;
+				if (dependent.pendingDependencies == 0 && !dependent.failed) {
+					makeReady(dependent);
+				}
+			}
+		} else if (node.failures < maxRetries) {
+			// Try again
+			node.failures++;
+			synchronized (this) {
+				retries++;
+			}
+			logger.info("JobScheduler Message: Job " + node.job.getName()
+					+ " failed with status " + status + ", retry "
+					+ node.failures + " of " + maxRetries + ".");
+			makeReady(node);
+		} else {
+			logger.error("JobScheduler Message: Job " + node.job.getName()
+					+ " failed with status " + status + ".");
+			fail(node);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation marks a job and all of the jobs that depend on it as
+	 * failed. Each job is only counted as finished once, even if several of
+	 * its dependencies fail.
+	 *
+	 * @param node
+	 *            The job
+	 */
+	private void fail(Node node) {
+
+		// Local Declarations
+		ArrayDeque<Node> failedNodes = new ArrayDeque<Node>();
+
+		node.failed = true;
+		failedNodes.add(node);
+		while (!failedNodes.isEmpty()) {
+			Node failedNode = failedNodes.poll();
+			finishedJobs++;
+			for (Node dependent : failedNode.dependents) {
+				if (!dependent.failed) {
+					dependent.failed = true;
+					failedNodes.add(dependent);
+				}
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation blocks the scheduler until one of the running jobs
+	 * reports a change of status. It gives up after a second so that jobs
+	 * that do not publish their status are still checked.
+	 */
+	private void waitForStatusChange() {
+
+		try {
+			// Wait for the first change and drop the rest since all of the
+			// running jobs are checked anyway
+			if (statusEvents.poll(1, TimeUnit.SECONDS) != null) {
+				statusEvents.clear();
+			}
+		} catch (InterruptedException e) {
+			logger.error(getClass().getName() + " Exception!", e);
+			cancelled = true;
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation records the time a job spent in a stage.
+	 *
+	 * @param stage
+	 *            The stage
+	 * @param nanos
+	 *            The time in nanoseconds
+	 */
+	private synchronized void recordStage(Stage stage, long nanos) {
+		stageTimes[stage.ordinal()] += nanos;
+		stageCounts[stage.ordinal()]++;
+	}
+
+	/**
+	 * This operation returns the average time jobs spent in a stage.
+	 *
+	 * @param stage
+	 *            The stage
+	 * @return The average time in milliseconds or 0 if no job went through
+	 *         the stage
+	 */
+	public synchronized double getAverageTime(Stage stage) {
+
+		long count = stageCounts[stage.ordinal()];
+
+		return (count > 0) ? stageTimes[stage.ordinal()] / (count * 1.0e6)
+				: 0.0;
+	}
+
+	/**
+	 * This operation returns the number of jobs processed successfully per
+	 * minute since the scheduler started.
+	 *
+	 * @return The throughput in jobs per minute
+	 */
+	public synchronized double getThroughput() {
+
+		long end = (stopTime > 0) ? stopTime : System.nanoTime();
+		long elapsed = end - startTime;
+
+		if (startTime == 0 || elapsed <= 0) {
+			return 0.0;
+		}
+
+		return completedJobs * 6.0e10 / elapsed;
+	}
+
+	/**
+	 * This operation returns the number of jobs that were processed
+	 * successfully.
+	 *
+	 * @return The number of jobs
+	 */
+	public synchronized int getCompletedCount() {
+		return completedJobs;
+	}
+
+	/**
+	 * This operation returns the number of times a failed job was launched
+	 * again.
+	 *
+	 * @return The number of retries
+	 */
+	public synchronized int getRetryCount() {
+		return retries;
+	}
+}
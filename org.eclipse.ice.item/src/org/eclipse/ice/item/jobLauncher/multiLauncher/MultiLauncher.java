@@ -14,6 +14,7 @@ package org.eclipse.ice.item.jobLauncher.multiLauncher;
 
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -31,6 +32,7 @@ import org.eclipse.ice.datastructures.form.ResourceComponent;
 import org.eclipse.ice.datastructures.resource.ICEResource;
 import org.eclipse.ice.item.Item;
 import org.eclipse.ice.item.jobLauncher.JobLauncherForm;
+import org.eclipse.ice.item.jobLauncher.JobScheduler;
 
 /**
  * <p>
@@ -55,20 +57,23 @@ import org.eclipse.ice.item.jobLauncher.JobLauncherForm;
  * details. (See the JobLauncherForm for reference.)
  * </p>
  * <p>
- * When jobs are launched in sequential mode, the MultiLauncher launches a
- * thread and monitors each job launcher until it finishes, then launches the
- * next or breaks out if there was an error. When jobs are launched in parallel,
- * the job launchers are processed asynchronously.
+ * The jobs are launched by a JobScheduler. In sequential mode, each job
+ * depends on the one before it, so it is only launched once the previous job
+ * finished and its input is chained to the output of that job. The remaining
+ * jobs are not launched if there was an error. In parallel mode, the jobs do
+ * not depend on each other and are launched as soon as their hosts have free
+ * slots and cores. The limits of the local host and the number of retries of
+ * failed jobs are read from the "multilauncher_max_jobs_per_host",
+ * "multilauncher_max_cores_per_host" and "multilauncher_max_retries" system
+ * properties. Remote hosts run one job at a time unless the
+ * "multilauncher_max_jobs_per_remote_host" and
+ * "multilauncher_max_cores_per_remote_host" properties are set.
  * </p>
  * <p>
  * This class implements Runnable and uses itself as the thread. The run()
- * operation works overtime: it handles all updates to the ResourceComponent
- * from the launchers, it handles all job launch for the sequential launch and
- * it polls the running jobs constantly to update the status if it is launched
- * in parallel. This is implemented with two blocks. The first handles the
- * sequential execution if it is required and the second updates both the
- * parallel execution status and the ResourceComponent. I think, ideally, this
- * would be separated out to a couple of separate threads.
+ * operation runs the scheduler, updates the status of the MultiLauncher when
+ * the status of one of the jobs changes and collects the output of the jobs in
+ * the ResourceComponent once they have all finished.
  * </p>
  * 
  * @author Jay Jay Billings
@@ -141,6 +146,11 @@ public class MultiLauncher extends Item implements Runnable {
 	 */
 	private Item needyLauncher;
 
+	/**
+	 * The scheduler of the current or last launch.
+	 */
+	private volatile JobScheduler scheduler;
+
 	/**
 	 * <p>
 	 * The constructor.
@@ -312,13 +322,7 @@ public class MultiLauncher extends Item implements Runnable {
 				// sequential mode not parallel mode.
 				isSequential.set(!isParallel);
 				// Launch the jobs
-				if (isParallel) {
-					// In parallel
-					launcherStatus = launchInParallel();
-				} else {
-					// In sequence
-					launcherStatus = launchSequentially();
-				}
+				launcherStatus = launchJobs();
 			}
 		} else if (!(runningLaunchers.isEmpty())) {
 			// Return "Processing" if the MultiLauncher is already working.
@@ -326,7 +330,7 @@ public class MultiLauncher extends Item implements Runnable {
 		}
 
 		// Set the final launcherStatus that will be preserved.
-		multiLaunchStatus.set(launcherStatus);
+		updateStatus(launcherStatus);
 
 		return launcherStatus;
 	}
@@ -434,14 +438,14 @@ public class MultiLauncher extends Item implements Runnable {
 					form.markReady(true);
 				}
 				// Set the launcherStatus
-				multiLaunchStatus.set(launcherStatus);
+				updateStatus(launcherStatus);
 			} else {
 				// Submit the Form to the needy launcher
 				needyLauncher.submitForm(preparedForm);
 				logger.info("MultiLauncher Message: "
 						+ "Submitting sub-form to needy launcher.");
 				launcherStatus = FormStatus.Processing;
-				multiLaunchStatus.set(launcherStatus);
+				updateStatus(launcherStatus);
 			}
 		}
 
@@ -450,21 +454,21 @@ public class MultiLauncher extends Item implements Runnable {
 
 	/**
 	 * <p>
-	 * This operation launches the jobs sequentially. It starts the
-	 * MultiLauncher thread to do this.
+	 * This operation launches the jobs. It starts the MultiLauncher thread to
+	 * run the scheduler.
 	 * </p>
 	 * 
 	 * @return <p>
 	 *         The launch status.
 	 *         </p>
 	 */
-	private FormStatus launchSequentially() {
+	private FormStatus launchJobs() {
 
 		// Local Declarations
 		Thread launchThread = new Thread(this);
 
 		// Set the status flag
-		multiLaunchStatus.set(FormStatus.Processing);
+		updateStatus(FormStatus.Processing);
 
 		// Launch the thread
 		launchThread.start();
@@ -473,49 +477,66 @@ public class MultiLauncher extends Item implements Runnable {
 	}
 
 	/**
-	 * <p>
-	 * This operation launches the jobs in parallel. They jobs are launched
-	 * asynchronously on their own threads, which they manage, so that this
-	 * operation need not be threaded.
-	 * </p>
+	 * This operation returns the scheduler of the current or last launch. It
+	 * can be used to check the throughput and wait times of the jobs.
 	 * 
-	 * @return <p>
-	 *         The launch status.
-	 *         </p>
+	 * @return The scheduler or null if the jobs have not been launched
 	 */
-	private FormStatus launchInParallel() {
+	public JobScheduler getScheduler() {
+		return scheduler;
+	}
 
-		// Local Declarations
-		FormStatus retVal = FormStatus.InfoError;
-		Thread launchThread = new Thread(this);
+	/**
+	 * This operation creates the scheduler that launches the jobs. It chains
+	 * the input of each job to the output of the job it depends on and updates
+	 * the status of the MultiLauncher when the status of a job changes.
+	 * 
+	 * @return The scheduler
+	 */
+	private JobScheduler createScheduler() {
 
-		// Launch each job
-		for (Item job : runningLaunchers) {
-			// Launch the job if the Form is ready to process
-			if (job.getStatus().equals(FormStatus.ReadyToProcess)) {
-				logger.info("MultiLauncher Message: "
-						+ "Launching parallel job " + job.getName()
-						+ " with id " + job.getId());
-				// Launch it
-				retVal = job.process("Launch the Job");
-			} else {
-				logger.info("MultiLauncher Message: "
-						+ "Unable to launch parallel job!");
-				logger.info("MultiLauncher Message: " + "Failed job name = "
-						+ job.getName());
-				logger.info("MultiLauncher Message: " + "Failed job id = "
-						+ job.getId());
-				break; // Otherwise throw the error.
+		// Local Declarations
+		int processors = Runtime.getRuntime().availableProcessors();
+		JobScheduler jobScheduler = new JobScheduler() {
+			@Override
+			protected void prepare(Item job, List<Item> dependencies) {
+				// Set the input file to the output file of the last job if
+				// it is necessary.
+				if (!dependencies.isEmpty()) {
+					setupChainedInput(getOutputFilename(dependencies
+							.get(dependencies.size() - 1)), job);
+				}
 			}
-		}
-
-		// Set the status flag
-		multiLaunchStatus.set(FormStatus.Processing);
-
-		// Launch the thread
-		launchThread.start();
 
-		return retVal;
+			@Override
+			protected void statusChanged(Item job, FormStatus status) {
+				// Ask for more information if any job needs it
+				FormStatus launchStatus = FormStatus.Processing;
+				for (Item launcher : runningLaunchers) {
+					if (launcher.getStatus().equals(FormStatus.NeedsInfo)) {
+						launchStatus = FormStatus.NeedsInfo;
+						break;
+					}
+				}
+				updateStatus(launchStatus);
+			}
+		};
+
+		// Configure the limits
+		jobScheduler.setDefaultHostLimits(
+				Integer.getInteger("multilauncher_max_jobs_per_host",
+						processors),
+				Integer.getInteger("multilauncher_max_cores_per_host",
+						processors));
+		jobScheduler.setRemoteHostLimits(Integer.getInteger(
+				"multilauncher_max_jobs_per_remote_host",
+				JobScheduler.DEFAULT_REMOTE_MAX_JOBS), Integer.getInteger(
+				"multilauncher_max_cores_per_remote_host",
+				JobScheduler.DEFAULT_REMOTE_MAX_CORES));
+		jobScheduler.setMaxRetries(Integer.getInteger(
+				"multilauncher_max_retries", 0));
+
+		return jobScheduler;
 	}
 
 	/**
@@ -706,100 +727,29 @@ public class MultiLauncher extends Item implements Runnable {
 	public void run() {
 
 		// Local Declarations
-		Item job = null;
 		FormStatus launchStatus = FormStatus.InfoError;
-		String lastFilename = null;
-		boolean checkStatus = true;
-		ArrayList<FormStatus> runningLauncherStatuses = new ArrayList<FormStatus>();
+		Item previousJob = null;
 
 		/*----- Read the documentation on the class before editing this! -----*/
 
-		// Sequential launch block. Make sure we are in the correct mode.
-		if (isSequential.get()) {
-			// Loop over all of the launchers
-			for (int i = 0; i < runningLaunchers.size(); i++) {
-				// Get and launch the job
-				job = runningLaunchers.get(i);
-				logger.info("MultiLauncher Message: "
-						+ "Launching sequential job #" + (i + 1) + ", "
-						+ job.getName());
-				// Set the input file to the output file of the last code it is
-				// necessary.
-				if (i > 0) {
-					setupChainedInput(lastFilename, job);
-				}
-				job.process("Launch the Job");
-				// Launch the job
-				launchStatus = job.getStatus();
-				// Start the status checking loop
-				multiLaunchStatus.set(launchStatus);
-				while (launchStatus.equals(FormStatus.Processing)
-						|| launchStatus.equals(FormStatus.NeedsInfo)) {
-					// The thread shouldn't poll the job continuously. Let it
-					// sleep some.
-					try {
-						Thread.sleep(100);
-					} catch (InterruptedException e) {
-						// TODO Auto-generated catch block
-						logger.error(getClass().getName() + " Exception!",e);
-					}
-					// Update the status
-					launchStatus = job.getStatus();
-					multiLaunchStatus.set(launchStatus);
-				}
-				// Break if there is some kind of error
-				if (multiLaunchStatus.get().equals(FormStatus.InfoError)) {
-					break;
-				}
-				// Get the name of the last output file
-				lastFilename = getOutputFilename(job);
+		// Build the graph of jobs. Sequential jobs depend on the one before.
+		scheduler = createScheduler();
+		for (Item job : runningLaunchers) {
+			if (isSequential.get() && previousJob != null) {
+				scheduler.addJob(job, previousJob);
+			} else {
+				scheduler.addJob(job);
 			}
+			previousJob = job;
 		}
 
-		// Setup the list of launcher statuses before going into the update
-		// block.
-		for (Item launcher : runningLaunchers) {
-			runningLauncherStatuses.add(launcher.getStatus());
-		}
+		// Launch the jobs and wait for them to finish
+		launchStatus = scheduler.run();
+		logger.info("MultiLauncher Message: Jobs per minute = "
+				+ scheduler.getThroughput() + ", average queue time = "
+				+ scheduler.getAverageTime(JobScheduler.Stage.Queue) + " ms");
+		updateStatus(launchStatus);
 
-		// Status update block.
-		while (checkStatus) {
-			// Loop over all of the launchers and get their statuses.
-			for (int i = 0; i < runningLaunchers.size(); i++) {
-				Item launcher = runningLaunchers.get(i);
-				runningLauncherStatuses.set(i, launcher.getStatus());
-			}
-			// Check the status. This switch works by checking if an instance of
-			// any of the launchers is in a particular state and setting the
-			// status of the MultiLauncher to that state. First, quit if there
-			// is an error.
-			if (runningLauncherStatuses.contains(FormStatus.InfoError)) {
-				launchStatus = FormStatus.InfoError;
-				checkStatus = false;
-			} else if (runningLauncherStatuses.contains(FormStatus.NeedsInfo)) {
-				// Else look for a launcher that needs more information
-				launchStatus = FormStatus.NeedsInfo;
-			} else if (runningLauncherStatuses.contains(FormStatus.Processing)) {
-				// Else look for a launcher that is still processing
-				launchStatus = FormStatus.Processing;
-			} else {
-				// We're processed! Since all of the other statuses except
-				// Processed are covered in the process() operation, break out
-				// of the thread.
-				launchStatus = FormStatus.Processed;
-				checkStatus = false;
-			}
-			// Update the status on the thread.
-			multiLaunchStatus.set(launchStatus);
-			// The thread shouldn't poll the jobs continuously. Let it
-			// sleep some.
-			try {
-				Thread.sleep(100);
-			} catch (InterruptedException e) {
-				// TODO Auto-generated catch block
-				logger.error(getClass().getName() + " Exception!",e);
-			}
-		}
 		// Add the output if the status does not indicate an error
 		if (launchStatus.equals(FormStatus.Processed)) {
 			// Get the ResourceComponent for the MultiLauncher and clear its
@@ -823,6 +773,18 @@ public class MultiLauncher extends Item implements Runnable {
 
 	}
 
+	/**
+	 * This operation sets the status of the MultiLauncher and publishes it to
+	 * the status listeners.
+	 * 
+	 * @param newStatus
+	 *            The new status
+	 */
+	private void updateStatus(FormStatus newStatus) {
+		multiLaunchStatus.set(newStatus);
+		setStatus(newStatus);
+	}
+
 	/**
 	 * This operation overrides the MasterDetailsComponent visitor from the Item
 	 * base class to search for the MasterDetailsComponent in the
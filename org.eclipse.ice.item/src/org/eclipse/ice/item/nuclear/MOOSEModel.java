@@ -26,7 +26,10 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
@@ -34,6 +37,7 @@ import java.util.Stack;
 import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.XmlTransient;
 
+import org.eclipse.core.filesystem.IFileInfo;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IProject;
@@ -55,10 +59,13 @@ import org.eclipse.ice.io.serializable.IReader;
 import org.eclipse.ice.io.serializable.IWriter;
 import org.eclipse.ice.item.Item;
 import org.eclipse.ice.item.ItemType;
+import org.eclipse.ice.item.utilities.moose.MOOSESyntaxCache;
 import org.eclipse.remote.core.IRemoteConnection;
 import org.eclipse.remote.core.IRemoteConnectionHostService;
 import org.eclipse.remote.core.IRemoteConnectionType;
+import org.eclipse.remote.core.IRemoteFileService;
 import org.eclipse.remote.core.IRemoteServicesManager;
+import org.eclipse.remote.core.exception.RemoteConnectionException;
 import org.osgi.service.prefs.BackingStoreException;
 
 /**
@@ -118,6 +125,13 @@ public class MOOSEModel extends Item {
 	@XmlTransient
 	protected static final String mooseProcessActionString = "Write MOOSE File";
 
+	/**
+	 * The name of the folder in the MOOSE folder of the project space in which
+	 * the MOOSESyntaxCache stores the specifications of the MOOSE apps.
+	 */
+	@XmlTransient
+	protected static final String syntaxCacheFolderName = ".syntaxcache";
+
 	/**
 	 * The list of MOOSE applications available for this Model.
 	 */
@@ -421,6 +435,21 @@ public class MOOSEModel extends Item {
 			// Create the URI from the user's application path
 			URI uri = URI.create(mooseExecutableName);
 			IFile yamlFile = null, syntaxFile = null;
+			boolean generated = false;
+
+			// Use the cached specification if this build of the app was
+			// loaded before
+			MOOSESyntaxCache cache = new MOOSESyntaxCache(new File(mooseFolder
+					.getLocation().toOSString(), syntaxCacheFolderName));
+			String fingerprint = getExecutableFingerprint(uri);
+			Form cachedForm = (fingerprint != null) ? cache.read(fingerprint)
+					: null;
+			if (cachedForm != null) {
+				tmpParentTree = (TreeComposite) cachedForm
+						.getComponent(mooseTreeCompositeId);
+				mooseParentTree.copy(tmpParentTree);
+				return;
+			}
 
 			if ("ssh".equals(uri.getScheme())) {
 
@@ -431,7 +460,7 @@ public class MOOSEModel extends Item {
 				if (remoteConnection != null) {
 					RemoteYamlSyntaxGenerator generator = new RemoteYamlSyntaxGenerator(remoteConnection, mooseFolder,
 							uri.getRawPath());
-					generator.generate();
+					generated = generator.generate().isOK();
 				}
 
 				String animal = Paths.get(uri.getRawPath()).getFileName().toString();
@@ -470,6 +499,7 @@ public class MOOSEModel extends Item {
 						throw new Exception("Error in creating the YAML/Syntax files. Job return codes were " + code1
 								+ " and " + code2);
 					}
+					generated = true;
 				} catch (Exception e) {
 					logger.error(getClass().getName() + " Exception!",e);
 				}
@@ -488,8 +518,13 @@ public class MOOSEModel extends Item {
 			// Load the tree if the file exists
 			if (yamlFile.exists() && syntaxFile.exists() && reader != null) {
 
-				// Read the file and get the returned Form
-				Form readerForm = reader.read(yamlFile);
+				// Read the file and get the returned Form. Cache it only if the
+				// executable could be identified and both files were
+				// generated successfully, otherwise they may be stale or
+				// partial.
+				Form readerForm = (fingerprint != null && generated) ? cache.read(
+						fingerprint, yamlFile.getLocation().toOSString())
+						: reader.read(yamlFile);
 
 				// Get the TreeComposite from the read-in Form
 				tmpParentTree = (TreeComposite) readerForm.getComponent(mooseTreeCompositeId);
@@ -511,6 +546,50 @@ public class MOOSEModel extends Item {
 		return;
 	}
 
+	/**
+	 * This operation computes the fingerprint of a MOOSE executable, from its
+	 * host, path, size and modification time, for the MOOSESyntaxCache.
+	 *
+	 * @param uri
+	 *            The URI of the executable, either a file or an ssh URI
+	 * @return The fingerprint or null if the executable could not be found
+	 */
+	private String getExecutableFingerprint(URI uri) {
+
+		// Local Declarations
+		String fingerprint = null;
+
+		try {
+			if ("ssh".equals(uri.getScheme())) {
+				// Ask the remote host about the executable
+				IRemoteConnection remoteConnection = getRemoteConnectionReference(uri
+						.getHost());
+				if (remoteConnection != null) {
+					remoteConnection.open(null);
+					IFileInfo info = remoteConnection
+							.getService(IRemoteFileService.class)
+							.getResource(uri.getRawPath()).fetchInfo();
+					if (info.exists()) {
+						fingerprint = MOOSESyntaxCache.getFingerprint(
+								uri.getHost(), uri.getRawPath(),
+								info.getLength(), info.getLastModified());
+					}
+				}
+			} else {
+				File execFile = new File(uri);
+				if (execFile.isFile()) {
+					fingerprint = MOOSESyntaxCache.getFingerprint("localhost",
+							execFile.getAbsolutePath(), execFile.length(),
+							execFile.lastModified());
+				}
+			}
+		} catch (RemoteConnectionException | IllegalArgumentException e) {
+			logger.error(getClass().getName() + " Exception!", e);
+		}
+
+		return fingerprint;
+	}
+
 	/**
 	 * This method returns an IRemoteConnection stored in the Remote Preferences
 	 * that corresponds to the provided hostname.
@@ -703,10 +782,7 @@ public class MOOSEModel extends Item {
 			topLevelYamlTrees.add(child);
 		}
 
-		// First, we'll begin by creating a HashMap of the YAML tree
-		HashMap<String, TreeComposite> yamlMap = (HashMap<String, TreeComposite>) buildYamlMap(yamlTree);
-
-		// Then, create a HashMap of all the input trees
+		// Create a HashMap of all the input trees
 		HashMap<String, TreeComposite> inputMap = (HashMap<String, TreeComposite>) buildInputMap(inputTree);
 
 		// Lastly, now create a HashMap of the exemplar children defined in the
@@ -724,7 +800,7 @@ public class MOOSEModel extends Item {
 		// Now walk through the input tree again, this time
 		// copying over the nodes from the input tree into the YAML
 		// tree
-		mergeInputIntoYaml(inputMap, yamlMap, yamlTree);
+		mergeInputIntoYaml(inputMap, yamlTree);
 
 		// Set all the active data nodes on the tree
 		setActiveDataNodes(yamlTree);
@@ -732,46 +808,6 @@ public class MOOSEModel extends Item {
 		return;
 	}
 
-	/**
-	 * This utility method is responsible for taking in a TreeComposite loaded
-	 * from a MOOSE YAML spec, and constructs a Map of all its nodes, keyed on a
-	 * String pathname (relative to the root).
-	 *
-	 * Used exclusively by {@link #reviewEntries(Form)
-	 * MOOSEModel.reviewEntries(...)}.
-	 *
-	 * @param yamlTree
-	 *            The TreeComposite loaded from a MOOSE YAML spec.
-	 * @return A Map containing all the YAML tree's nodes, keyed on pathname.
-	 */
-	private Map<String, TreeComposite> buildYamlMap(TreeComposite yamlTree) {
-
-		// Local declarations
-		HashMap<String, TreeComposite> yamlMap = new HashMap<String, TreeComposite>();
-
-		// Create an empty stack for TreeComposites
-		Stack<TreeComposite> treeStack = new Stack<TreeComposite>();
-		treeStack.push(null);
-
-		// Push the top level TreeComposites from the YAML spec
-		// first on top
-		for (TreeComposite topLevelTree : topLevelYamlTrees) {
-			treeStack.push(topLevelTree);
-		}
-
-		// Pop one of the top-level trees off to start.
-		TreeComposite tree = treeStack.pop();
-
-		while (tree != null) {
-			// Put the tree in the Map, keyed on path name
-			yamlMap.put(tree.getName(), tree);
-			// Pop the next tree off the stack
-			tree = treeStack.pop();
-		}
-
-		return yamlMap;
-	}
-
 	/**
 	 * This utility method is responsible for taking a TreeComposite loaded from
 	 * a MOOSE input file, and constructs a Map of all its nodes keyed on a
@@ -793,6 +829,7 @@ public class MOOSEModel extends Item {
 		TreeComposite tree = null;
 		String treeName = "";
 		int prevNameIndex = -1;
+		Set<TreeComposite> topLevelTrees = createIdentitySet(topLevelInputTrees);
 
 		// Create an empty stack for TreeComposites
 		Stack<TreeComposite> treeStack = new Stack<TreeComposite>();
@@ -834,7 +871,7 @@ public class MOOSEModel extends Item {
 
 			// If the next tree in the stack is a top-level tree,
 			// clear the path name
-			if (topLevelInputTrees.contains(treeStack.peek())) {
+			if (topLevelTrees.contains(treeStack.peek())) {
 				treeName = "";
 			}
 
@@ -874,6 +911,7 @@ public class MOOSEModel extends Item {
 		TreeComposite tree = null, oneUpTree = null;
 		String treeName = "";
 		int prevNameIndex = -1;
+		Set<TreeComposite> topLevelTrees = createIdentitySet(topLevelYamlTrees);
 
 		// Create an empty stack for TreeComposites
 		Stack<TreeComposite> treeStack = new Stack<TreeComposite>();
@@ -906,7 +944,7 @@ public class MOOSEModel extends Item {
 
 			// If the next tree in the stack is a top-level tree,
 			// clear the path name
-			if (topLevelYamlTrees.contains(treeStack.peek())) {
+			if (topLevelTrees.contains(treeStack.peek())) {
 				treeName = "";
 			}
 
@@ -938,6 +976,23 @@ public class MOOSEModel extends Item {
 		return exemplarMap;
 	}
 
+	/**
+	 * This utility method creates a set of trees that are compared by
+	 * reference. The map builders use it to check whether the next tree on
+	 * their stacks is a top-level tree without comparing whole trees.
+	 *
+	 * @param trees
+	 *            The trees to put in the set
+	 * @return The set
+	 */
+	private static Set<TreeComposite> createIdentitySet(List<TreeComposite> trees) {
+
+		Set<TreeComposite> set = Collections.newSetFromMap(new IdentityHashMap<TreeComposite, Boolean>());
+		set.addAll(trees);
+
+		return set;
+	}
+
 	/**
 	 * This method is responsible for append a "blank" TreeComposite to the
 	 * input tree's list of child exemplars. This enables a MOOSE user to add
@@ -1229,33 +1284,28 @@ public class MOOSEModel extends Item {
 				inputNode = (DataComponent) inputCur.getDataNodes().get(0);
 
 				// Check if inputCur has the same parameter on it
-				for (int j = 0; j < inputNode.retrieveAllEntries().size(); j++) {
+				Entry inputParameter = inputNode.retrieveEntry(exemplarParam.getName());
+				if (inputParameter != null) {
 
-					// Get the next inputParameter
-					Entry inputParameter = inputNode.retrieveAllEntries().get(j);
+					// Clone the YAML parameter
+					Entry paramClone = (Entry) exemplarParam.clone();
 
-					if (inputParameter.getName().equals(exemplarParam.getName())) {
+					// Merge Data from the input parameter into it
+					paramClone.setDescription(inputParameter.getDescription());
+					paramClone.setId(inputParameter.getId());
+					paramClone.setTag(inputParameter.getTag());
+					paramClone.setRequired(inputParameter.isRequired());
+					paramClone.setReady(inputParameter.isReady());
 
-						// Clone the YAML parameter
-						Entry paramClone = (Entry) exemplarParam.clone();
+					// Set the value
+					String oldValue = inputParameter.getValue();
+					paramClone.setValue(paramClone.getAllowedValues().contains(oldValue) ? oldValue
+							: paramClone.getAllowedValues().get(0));
 
-						// Merge Data from the input parameter into it
-						paramClone.setDescription(inputParameter.getDescription());
-						paramClone.setId(inputParameter.getId());
-						paramClone.setTag(inputParameter.getTag());
-						paramClone.setRequired(inputParameter.isRequired());
-						paramClone.setReady(inputParameter.isReady());
+					// Set the new parameter on the data node
+					inputNode.deleteEntry(inputParameter.getName());
+					inputNode.addEntry(paramClone);
 
-						// Set the value
-						String oldValue = inputParameter.getValue();
-						paramClone.setValue(paramClone.getAllowedValues().contains(oldValue) ? oldValue
-								: paramClone.getAllowedValues().get(0));
-
-						// Set the new parameter on the data node
-						inputNode.deleteEntry(inputParameter.getName());
-						inputNode.addEntry(paramClone);
-
-					}
 				}
 			}
 		}
@@ -1272,10 +1322,11 @@ public class MOOSEModel extends Item {
 	 *
 	 * @param inputMap
 	 *            The HashMap of the imported MOOSE data TreeComposite.
-	 * @param yamlMap
+	 * @param yamlTree
+	 *            The TreeComposite loaded from the MOOSE YAML spec. Its
+	 *            top-level children are looked up by name.
 	 */
-	private void mergeInputIntoYaml(HashMap<String, TreeComposite> inputMap, HashMap<String, TreeComposite> yamlMap,
-			TreeComposite yamlTree) {
+	private void mergeInputIntoYaml(HashMap<String, TreeComposite> inputMap, TreeComposite yamlTree) {
 
 		// Local declarations
 		TreeComposite inputCur = null, yamlCur = null;
@@ -1289,12 +1340,11 @@ public class MOOSEModel extends Item {
 			key = tree.getName();
 			inputCur = inputMap.get(key);
 
-			// Try to find the key in the new YAML map (if not found, will just
+			// Try to find the key in the YAML tree (if not found, will just
 			// be chucked out the window)
-			if (yamlMap.containsKey(key)) {
+			yamlCur = yamlTree.getChildByName(key);
+			if (yamlCur != null) {
 
-				// Get the matching YAML version
-				yamlCur = yamlMap.get(key);
 				// Set the exemplar children of the input tree
 				inputCur.setChildExemplars(yamlCur.getChildExemplars());
 
@@ -1323,28 +1373,23 @@ public class MOOSEModel extends Item {
 					treeType = TreeType.fromString(exemplar.getClass().toString());
 					if (treeType != null && treeType == TreeType.AdaptiveTreeComposite) {
 						String childName = exemplar.getName();
-						yamlCur.resetChildIterator();
-						TreeComposite childCur = null;
 
 						// Look for a child matching the name of the exemplar
 						// that is an AdaptiveTreeComposite
-						while ((childCur = yamlCur.getNextChild()) != null) {
-							if (childCur.getName().equals(childName)) {
-
-								// Clone the exemplar with all the "types" data
-								// already entered
-								AdaptiveTreeComposite adapChild = (AdaptiveTreeComposite) exemplar.clone();
-								// Set the new AdaptiveTreeComposite in the
-								// yamlCur's list of children
-								yamlCur.removeChild(childCur);
-								yamlCur.setNextChild(adapChild);
-								// Copy the actual child's data in
-								adapChild.copy(childCur);
-								// Set the adaptive type
-								setAdaptiveType(adapChild);
-								// Git off mah lawn!
-								break;
-							}
+						TreeComposite childCur = yamlCur.getChildByName(childName);
+						if (childCur != null) {
+
+							// Clone the exemplar with all the "types" data
+							// already entered
+							AdaptiveTreeComposite adapChild = (AdaptiveTreeComposite) exemplar.clone();
+							// Set the new AdaptiveTreeComposite in the
+							// yamlCur's list of children
+							yamlCur.removeChild(childCur);
+							yamlCur.setNextChild(adapChild);
+							// Copy the actual child's data in
+							adapChild.copy(childCur);
+							// Set the adaptive type
+							setAdaptiveType(adapChild);
 						}
 					}
 				}
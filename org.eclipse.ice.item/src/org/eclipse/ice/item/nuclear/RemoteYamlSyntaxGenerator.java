@@ -200,6 +200,24 @@ public class RemoteYamlSyntaxGenerator {
 						1, errorMessage, null);
 			}
 
+			// The files may be stale or partial if either job failed
+			try {
+				yamlRemoteJob.waitFor();
+				syntaxRemoteJob.waitFor();
+			} catch (InterruptedException e) {
+				logger.error(getClass().getName() + " Exception!",e);
+			}
+			if (yamlRemoteJob.exitValue() != 0
+					|| syntaxRemoteJob.exitValue() != 0) {
+				String errorMessage = "Error in creating the YAML/Syntax "
+						+ "files. Job return codes were "
+						+ yamlRemoteJob.exitValue() + " and "
+						+ syntaxRemoteJob.exitValue();
+				logger.error(getClass().getName() + " " + errorMessage);
+				return new Status(IStatus.ERROR, "org.eclipse.ice.item.nuclear",
+						1, errorMessage, null);
+			}
+
 		}
 
 		return Status.OK_STATUS;
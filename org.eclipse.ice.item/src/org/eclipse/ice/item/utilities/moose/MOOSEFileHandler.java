@@ -23,9 +23,12 @@ import java.net.URI;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Stack;
 
@@ -354,12 +357,46 @@ public class MOOSEFileHandler implements IReader, IWriter {
 			throws IOException {
 
 		// Local Declarations
-		InputStream input = null;
-		String syntaxFilePath, treeName;
 		ArrayList<String> hardPathsList = null;
-		ArrayList<TreeComposite> trees = new ArrayList<TreeComposite>();
-		Map<String, TreeComposite> treeMap = null;
-		TreeComposite oneUpTree = null;
+
+		// Load the blocks. Quit if the path is boned.
+		ArrayList<Block> blocks = loadYAMLBlocks(filePath);
+		if (blocks == null) {
+			return null;
+		}
+
+		// Define the file path of the action syntax file
+		int yamlIndex = filePath.indexOf(".yaml");
+		String syntaxFilePath = filePath.substring(0, yamlIndex) + ".syntax";
+
+		// Load the list of all "hard" paths from the action syntax file
+		try {
+			hardPathsList = loadActionSyntax(syntaxFilePath);
+		} catch (IOException e) {
+			logger.error(getClass().getName() + " Exception!",e);
+		}
+
+		return loadYAMLTrees(blocks, hardPathsList);
+	}
+
+	/**
+	 * This operation parses a MOOSE YAML file at the specified path into
+	 * YAMLBlocks, without converting them to TreeComposites. The top-level
+	 * blocks are active.
+	 * 
+	 * @param filePath
+	 *            The file path from which the MOOSE blocks written in YAML
+	 *            should be read. If the path is null or empty, the operation
+	 *            returns without doing any work.
+	 * @return The top-level blocks of the MOOSE input file specification or
+	 *         null if the path is null or empty.
+	 * @throws IOException
+	 */
+	public ArrayList<Block> loadYAMLBlocks(String filePath) throws IOException {
+
+		// Local Declarations
+		InputStream input = null;
+		ArrayList<Block> blocks = new ArrayList<Block>();
 
 		// Quit if the path is boned
 		if (filePath == null || filePath.isEmpty()) {
@@ -387,7 +424,7 @@ public class MOOSEFileHandler implements IReader, IWriter {
 			Block block = new YAMLBlock();
 			block.loadFromMap((Map<String, Object>) list.get(i));
 			block.active = true;
-			trees.add(block.toTreeComposite());
+			blocks.add(block);
 		}
 
 		// Close the files
@@ -398,84 +435,86 @@ public class MOOSEFileHandler implements IReader, IWriter {
 			logger.error(getClass().getName() + " Exception!",e);
 		}
 
-		// Put all the names of top-level nodes into a list (we use this later)
-		ArrayList<String> topLevelNodes = new ArrayList<String>();
-		for (TreeComposite node : trees) {
-			topLevelNodes.add(node.getName());
+		return blocks;
+	}
+
+	/**
+	 * This operation converts the YAMLBlocks of a MOOSE YAML file to a
+	 * fully-configured set of ICE TreeComposites. The blocks are indexed by
+	 * path and those that match a "hard" path of the action syntax file and
+	 * have a "&lt;type&gt;" child exemplar are replaced by
+	 * AdaptiveTreeComposites.
+	 * 
+	 * @param blocks
+	 *            The top-level blocks loaded by loadYAMLBlocks()
+	 * @param hardPathsList
+	 *            The "hard" paths loaded by loadActionSyntax(), or null if
+	 *            there are none
+	 * @return The MOOSE input file specification, exactly as returned by
+	 *         loadYAML().
+	 */
+	public ArrayList<TreeComposite> loadYAMLTrees(List<Block> blocks,
+			List<String> hardPathsList) {
+
+		// Local Declarations
+		String treeName;
+		ArrayList<TreeComposite> trees = new ArrayList<TreeComposite>();
+		Map<String, TreeComposite> treeMap = null;
+
+		// Convert the blocks to TreeComposites
+		for (Block block : blocks) {
+			trees.add(block.toTreeComposite());
+		}
+
+		// Without an action syntax file, there are no types to set up
+		if (hardPathsList == null) {
+			hardPathsList = new ArrayList<String>();
+		}
+
+		// Clean the "hard" paths of the excess return carriage at the end
+		ArrayList<String> cleanPaths = new ArrayList<String>(
+				hardPathsList.size());
+		for (String path : hardPathsList) {
+			cleanPaths.add(path.endsWith("\r") ? path.substring(0,
+					path.length() - 1) : path);
 		}
+		HashSet<String> hardPaths = new HashSet<String>(cleanPaths);
+
 		// Instantiate a HashMap that all TreeComposites and their exemplar
-		// children trees can be added to, keyed by absolute path name
+		// children trees can be added to, keyed by absolute path name. The
+		// paths of the trees that match a "hard" path are mapped to the paths
+		// of their parents, or to null for top-level trees.
 		treeMap = new HashMap<String, TreeComposite>();
+		HashMap<String, String> hardPathParents = new HashMap<String, String>();
 
-		// Create empty stack for TreeComposites
-		Stack<TreeComposite> treeStack = new Stack<TreeComposite>();
-		treeStack.push(null);
-
-		// Push the top level TreeComposites from the ArrayList first on first
+		// Walk the trees depth first in a single pass. The path of each tree
+		// is pushed with it, so the trees never need to be compared with each
+		// other. The top level TreeComposites are pushed first, in order.
+		ArrayDeque<TreeComposite> treeStack = new ArrayDeque<TreeComposite>();
+		ArrayDeque<String> pathStack = new ArrayDeque<String>();
 		for (TreeComposite tree : trees) {
 			treeStack.push(tree);
+			pathStack.push(tree.getName());
 		}
-		// Pop one of the top-level trees off to start.
-		TreeComposite tree = treeStack.pop();
 		ArrayList<TreeComposite> childExemplars;
-		treeName = "";
-		int prevNameIndex;
-		while (tree != null) {
-
-			// Append to the tree name
-			treeName += "/" + tree.getName();
+		while (!treeStack.isEmpty()) {
 
 			// Put the tree in the Map, keyed on path name
-			treeMap.put((treeName.startsWith("/") ? treeName.substring(1)
-					: treeName), tree);
+			TreeComposite tree = treeStack.pop();
+			treeName = pathStack.pop();
+			treeMap.put(treeName, tree);
+			if (hardPaths.contains(treeName)) {
+				int slashIndex = treeName.lastIndexOf('/');
+				hardPathParents.put(treeName, (slashIndex < 0) ? null
+						: treeName.substring(0, slashIndex));
+			}
 
 			// Push child exemplars to the top of the tree stack
 			childExemplars = tree.getChildExemplars();
 			for (int i = (childExemplars.size() - 1); i >= 0; i--) {
 				treeStack.push(childExemplars.get(i));
+				pathStack.push(treeName + "/" + childExemplars.get(i).getName());
 			}
-
-			// If the next tree in the stack is a top-level tree, clear the
-			// path name
-			if (trees.contains(treeStack.peek())) {
-				treeName = "";
-			}
-
-			// Otherwise, if the current tree didn't have child exemplars to
-			// push onto the stack, remove the last "part" of the path name, as
-			// we'll be going back up one level
-			else if (childExemplars.isEmpty()) {
-
-				// Get the name of the tree one level up
-				prevNameIndex = treeName.lastIndexOf("/" + tree.getName());
-				treeName = treeName.substring(0, prevNameIndex);
-
-				// Go up another level if the next tree in the stack isn't
-				// a child exemplar of the current tree referenced by treeName
-				oneUpTree = treeMap.get(treeName.substring(1));
-				if (oneUpTree != null
-						&& !oneUpTree.getChildExemplars().contains(
-								treeStack.peek())) {
-					prevNameIndex = treeName.lastIndexOf("/");
-					treeName = ((prevNameIndex == 0 || prevNameIndex == -1) ? treeName
-							: treeName.substring(0, prevNameIndex));
-				}
-
-			}
-
-			// Pop the next tree off the stack
-			tree = treeStack.pop();
-		}
-
-		// Define the file path of the action syntax file
-		int yamlIndex = filePath.indexOf(".yaml");
-		syntaxFilePath = filePath.substring(0, yamlIndex) + ".syntax";
-
-		// Load the list of all "hard" paths from the action syntax file
-		try {
-			hardPathsList = loadActionSyntax(syntaxFilePath);
-		} catch (IOException e) {
-			logger.error(getClass().getName() + " Exception!",e);
 		}
 
 		// Begin looking through the TreeComposites for matches to the list of
@@ -487,13 +526,10 @@ public class MOOSEFileHandler implements IReader, IWriter {
 		ArrayList<TreeComposite> types, currChildExemplars;
 		DataComponent typeParameters = null, treeParameters = null;
 
-		for (String path : hardPathsList) {
-
-			// Clean the path of the excess return carriage at the end
-			cleanPath = (path.endsWith("\r") ? path.substring(0,
-					path.length() - 1) : path);
+		for (String path : cleanPaths) {
 
 			// Get the tree with the corresponding hard path
+			cleanPath = path;
 			currTree = treeMap.get(cleanPath);
 
 			// Check if there is a corresponding tree at all (depends on the
@@ -576,13 +612,8 @@ public class MOOSEFileHandler implements IReader, IWriter {
 
 					// Check if this tree is a child exemplar of something (ie.
 					// isn't a top-level node)
-					if (!topLevelNodes.contains(currTree.getName())) {
-
-						// Get the name of the tree that this
-						// AdaptiveTreeComposite is a child exemplar of
-						prevNameIndex = cleanPath.indexOf("/"
-								+ currTree.getName());
-						treeName = cleanPath.substring(0, prevNameIndex);
+					treeName = hardPathParents.get(cleanPath);
+					if (treeName != null) {
 
 						// Re-set the AdaptiveTreeComposite as a child exemplar
 						// of whatever tree it belongs to
@@ -601,8 +632,8 @@ public class MOOSEFileHandler implements IReader, IWriter {
 
 		// Reconstruct the top level nodes into an ArrayList
 		ArrayList<TreeComposite> newTrees = new ArrayList<TreeComposite>();
-		for (String nodeName : topLevelNodes) {
-			newTrees.add(treeMap.get(nodeName));
+		for (TreeComposite node : trees) {
+			newTrees.add(treeMap.get(node.getName()));
 		}
 
 		return newTrees;
@@ -838,6 +869,37 @@ public class MOOSEFileHandler implements IReader, IWriter {
 		return null;
 	}
 
+	/**
+	 * This operation creates a Form from TreeComposites loaded from a MOOSE
+	 * YAML specification, exactly like read() does for a YAML file. The
+	 * TreeComposites are cloned, so they can be shared by several Forms.
+	 * 
+	 * @param yamlTrees
+	 *            The TreeComposites returned by loadYAML() or loadYAMLTrees()
+	 * @return The Form with the root TreeComposite of the specification
+	 */
+	public Form createYAMLForm(List<TreeComposite> yamlTrees) {
+
+		// Local declarations
+		Form returnForm = new Form();
+		TreeComposite rootNode = new TreeComposite();
+
+		// Clone the blocks into the root node
+		for (TreeComposite block : yamlTrees) {
+			rootNode.setNextChild((TreeComposite) block.clone());
+		}
+
+		// Set the Identifiable data on the TreeComposite
+		rootNode.setId(MOOSEModel.mooseTreeCompositeId);
+		rootNode.setDescription("The tree of input data for this problem.");
+		rootNode.setName("Input Data");
+
+		// Add it to the return Form
+		returnForm.addComponent(rootNode);
+
+		return returnForm;
+	}
+
 	/**
 	 * This method converts the non-AuxVariable 'variable' Entries in the tree
 	 * to contain only the discrete list of available Variable sub-blocks.
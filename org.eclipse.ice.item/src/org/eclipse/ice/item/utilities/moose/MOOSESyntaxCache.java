@@ -0,0 +1,594 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.utilities.moose;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.ice.datastructures.form.Form;
+import org.eclipse.ice.datastructures.form.TreeComposite;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * This class caches the input specification of MOOSE applications so that
+ * the YAML and action syntax files do not have to be generated and parsed
+ * every time a MOOSEModel loads an application. Specifications are keyed by a
+ * fingerprint of the application's executable: its host, path, size and
+ * modification time. A new build of the application has a new fingerprint.
+ * </p>
+ * <p>
+ * The cache has two levels. The TreeComposites of the specifications that
+ * were loaded are shared in memory by all instances of this class, and so by
+ * all MOOSEModels. They are never modified: every Form returned by the cache
+ * gets its own clones. The YAMLBlocks and "hard" paths of the specifications
+ * are also written to a directory in a compact binary format, in which each
+ * distinct String is stored once, so that they can be reloaded without
+ * SnakeYAML when ICE is restarted.
+ * </p>
+ */
+public class MOOSESyntaxCache {
+
+	/**
+	 * Logger for handling event messages and other information.
+	 */
+	private static final Logger logger = LoggerFactory
+			.getLogger(MOOSESyntaxCache.class);
+
+	/**
+	 * The first int of a cache file.
+	 */
+	private static final int magicNumber = 0x4D4F4F53;
+
+	/**
+	 * The version of the format of the cache files. It must be changed when
+	 * the format or the way YAMLBlocks are converted to TreeComposites
+	 * changes.
+	 */
+	private static final int formatVersion = 1;
+
+	/**
+	 * The largest number of specifications kept in memory.
+	 */
+	private static final int maxSharedTrees = 8;
+
+	/**
+	 * The specifications loaded by all the caches, keyed by fingerprint, from
+	 * the least to the most recently used.
+	 */
+	private static final Map<String, ArrayList<TreeComposite>> sharedTrees = new LinkedHashMap<String, ArrayList<TreeComposite>>(
+			16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(
+				Map.Entry<String, ArrayList<TreeComposite>> eldest) {
+			return size() > maxSharedTrees;
+		}
+	};
+
+	/**
+	 * The directory in which the cache files are stored.
+	 */
+	private final File directory;
+
+	/**
+	 * The handler used to parse YAML files and build the TreeComposites.
+	 */
+	private final MOOSEFileHandler handler = new MOOSEFileHandler();
+
+	/**
+	 * The constructor.
+	 *
+	 * @param cacheDirectory
+	 *            The directory in which the cache files are stored. It is
+	 *            created when the first file is stored.
+	 */
+	public MOOSESyntaxCache(File cacheDirectory) {
+		directory = cacheDirectory;
+	}
+
+	/**
+	 * This operation creates the fingerprint of a MOOSE executable.
+	 *
+	 * @param host
+	 *            The host on which the executable is located
+	 * @param path
+	 *            The absolute path of the executable
+	 * @param size
+	 *            The size of the executable in bytes
+	 * @param lastModified
+	 *            The modification time of the executable in milliseconds
+	 * @return The fingerprint
+	 */
+	public static String getFingerprint(String host, String path, long size,
+			long lastModified) {
+		return host + ":" + path + ":" + size + ":" + lastModified;
+	}
+
+	/**
+	 * This operation returns the specification of an application if it is
+	 * cached in memory or in the cache directory.
+	 *
+	 * @param fingerprint
+	 *            The fingerprint of the application's executable
+	 * @return A Form with a new copy of the specification, exactly like the
+	 *         one read by MOOSEFileHandler.read() from the YAML file, or null
+	 *         if the application is not cached.
+	 */
+	public Form read(String fingerprint) {
+
+		// Local Declarations
+		ArrayList<TreeComposite> trees;
+
+		// Check the memory first
+		synchronized (sharedTrees) {
+			trees = sharedTrees.get(fingerprint);
+		}
+
+		// Then check the cache directory
+		if (trees == null) {
+			File file = getFile(fingerprint);
+			if (file.isFile()) {
+				try {
+					trees = readFile(file, fingerprint);
+				} catch (IOException | RuntimeException e) {
+					logger.error(getClass().getName() + " Exception!", e);
+					file.delete();
+				}
+			}
+			if (trees == null) {
+				return null;
+			}
+			synchronized (sharedTrees) {
+				sharedTrees.put(fingerprint, trees);
+			}
+		}
+
+		return handler.createYAMLForm(trees);
+	}
+
+	/**
+	 * This operation loads the specification of an application from its YAML
+	 * and action syntax files and caches it. Empty specifications, from files
+	 * that were not generated properly, are not cached.
+	 *
+	 * @param fingerprint
+	 *            The fingerprint of the application's executable
+	 * @param yamlFilePath
+	 *            The path of the YAML file. The action syntax file must be
+	 *            next to it and have the same name with the .syntax extension.
+	 * @return A Form with a new copy of the specification, exactly like the
+	 *         one read by MOOSEFileHandler.read() from the YAML file, or null
+	 *         if the YAML file path is null or empty.
+	 * @throws IOException
+	 *             Thrown when the YAML or action syntax file cannot be read
+	 */
+	public Form read(String fingerprint, String yamlFilePath)
+			throws IOException {
+
+		// Parse the files
+		ArrayList<Block> blocks = handler.loadYAMLBlocks(yamlFilePath);
+		if (blocks == null) {
+			return null;
+		}
+		ArrayList<String> hardPaths = handler.loadActionSyntax(yamlFilePath
+				.substring(0, yamlFilePath.indexOf(".yaml")) + ".syntax");
+		if (blocks.isEmpty()) {
+			return handler.createYAMLForm(handler.loadYAMLTrees(blocks,
+					hardPaths));
+		}
+
+		// Write them to the cache directory. The specification can still be
+		// used if this fails.
+		try {
+			writeFile(getFile(fingerprint), fingerprint, blocks, hardPaths);
+		} catch (IOException e) {
+			logger.error(getClass().getName() + " Exception!", e);
+		}
+
+		// Build the trees and share them
+		ArrayList<TreeComposite> trees = handler.loadYAMLTrees(blocks,
+				hardPaths);
+		synchronized (sharedTrees) {
+			sharedTrees.put(fingerprint, trees);
+		}
+
+		return handler.createYAMLForm(trees);
+	}
+
+	/**
+	 * This operation removes all the specifications that are shared in
+	 * memory. The cache files are kept.
+	 */
+	public static void clearSharedTrees() {
+		synchronized (sharedTrees) {
+			sharedTrees.clear();
+		}
+	}
+
+	/**
+	 * This operation returns the cache file of an application.
+	 *
+	 * @param fingerprint
+	 *            The fingerprint of the application's executable
+	 * @return The file. It may not exist.
+	 */
+	private File getFile(String fingerprint) {
+		return new File(directory, String.format("%08x",
+				fingerprint.hashCode())
+				+ ".bin");
+	}
+
+	/**
+	 * This operation writes the blocks and "hard" paths of a specification to
+	 * a cache file. The file is written next to its final location and then
+	 * moved, so that a partially written file is never read.
+	 *
+	 * @param file
+	 *            The cache file
+	 * @param fingerprint
+	 *            The fingerprint of the application's executable
+	 * @param blocks
+	 *            The top-level blocks of the specification
+	 * @param hardPaths
+	 *            The "hard" paths of the action syntax file
+	 * @throws IOException
+	 *             Thrown when the file cannot be written
+	 */
+	private void writeFile(File file, String fingerprint, List<Block> blocks,
+			List<String> hardPaths) throws IOException {
+
+		// Create the directory if needed
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("MOOSESyntaxCache Message: Could not create "
+					+ "the cache directory " + directory);
+		}
+
+		File tmpFile = new File(directory, file.getName() + ".tmp");
+		try (BlockWriter writer = new BlockWriter(tmpFile)) {
+			writer.output.writeInt(magicNumber);
+			writer.output.writeInt(formatVersion);
+			writer.writeString(fingerprint);
+			writer.output.writeInt(blocks.size());
+			for (Block block : blocks) {
+				writer.writeBlock(block);
+			}
+			writer.writeStrings(hardPaths);
+		}
+		Files.move(tmpFile.toPath(), file.toPath(),
+				StandardCopyOption.REPLACE_EXISTING);
+
+		return;
+	}
+
+	/**
+	 * This operation reads a specification from a cache file and builds its
+	 * TreeComposites.
+	 *
+	 * @param file
+	 *            The cache file
+	 * @param fingerprint
+	 *            The fingerprint of the application's executable
+	 * @return The TreeComposites or null if the file was written by another
+	 *         version or for another application with the same hash code.
+	 * @throws IOException
+	 *             Thrown when the file cannot be read
+	 */
+	private ArrayList<TreeComposite> readFile(File file, String fingerprint)
+			throws IOException {
+
+		// Local Declarations
+		ArrayList<Block> blocks = new ArrayList<Block>();
+		ArrayList<String> hardPaths;
+
+		try (BlockReader reader = new BlockReader(file)) {
+			if (reader.input.readInt() != magicNumber
+					|| reader.input.readInt() != formatVersion
+					|| !fingerprint.equals(reader.readString())) {
+				return null;
+			}
+			int numBlocks = reader.input.readInt();
+			for (int i = 0; i < numBlocks; i++) {
+				blocks.add(reader.readBlock());
+			}
+			hardPaths = reader.readStrings();
+		}
+
+		return handler.loadYAMLTrees(blocks, hardPaths);
+	}
+
+	/**
+	 * This class writes YAMLBlocks to a cache file. Each distinct String is
+	 * written once and then referenced by its index.
+	 */
+	private static class BlockWriter implements AutoCloseable {
+
+		/**
+		 * The stream to the file.
+		 */
+		private final DataOutputStream output;
+
+		/**
+		 * The indices of the Strings written so far.
+		 */
+		private final HashMap<String, Integer> stringIndices = new HashMap<String, Integer>();
+
+		/**
+		 * The constructor.
+		 *
+		 * @param file
+		 *            The file to write
+		 * @throws IOException
+		 *             Thrown when the file cannot be opened
+		 */
+		public BlockWriter(File file) throws IOException {
+			output = new DataOutputStream(new BufferedOutputStream(
+					new FileOutputStream(file), 1 << 16));
+		}
+
+		/**
+		 * This operation writes a String, which may be null. New Strings are
+		 * written as their length and UTF-8 bytes, the others as -2 minus
+		 * their index and null as -1.
+		 *
+		 * @param value
+		 *            The String
+		 * @throws IOException
+		 */
+		public void writeString(String value) throws IOException {
+			if (value == null) {
+				output.writeInt(-1);
+			} else {
+				Integer index = stringIndices.get(value);
+				if (index != null) {
+					output.writeInt(-2 - index);
+				} else {
+					byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+					output.writeInt(bytes.length);
+					output.write(bytes);
+					stringIndices.put(value, stringIndices.size());
+				}
+			}
+		}
+
+		/**
+		 * This operation writes a list of Strings, which may be null.
+		 *
+		 * @param values
+		 *            The Strings
+		 * @throws IOException
+		 */
+		public void writeStrings(List<String> values) throws IOException {
+			if (values == null) {
+				output.writeInt(-1);
+			} else {
+				output.writeInt(values.size());
+				for (String value : values) {
+					writeString(value);
+				}
+			}
+		}
+
+		/**
+		 * This operation writes a block, its parameters and its subblocks.
+		 *
+		 * @param block
+		 *            The block
+		 * @throws IOException
+		 */
+		public void writeBlock(Block block) throws IOException {
+
+			writeString(block.getName());
+			writeString(block.getType());
+			writeString(block.getDescription());
+			writeString(block.getComment());
+			output.writeBoolean(block.isActive());
+
+			// Write the parameters
+			List<Parameter> parameters = block.getParameters();
+			output.writeInt(parameters == null ? -1 : parameters.size());
+			if (parameters != null) {
+				for (Parameter parameter : parameters) {
+					writeString(parameter.getName());
+					writeString(parameter.getDescription());
+					writeString(parameter.getComment());
+					writeString(parameter.getCpp_type());
+					writeString(parameter.getGroup_name());
+					writeString(parameter.getDefault());
+					writeStrings(parameter.getOptions());
+					output.writeBoolean(parameter.isRequired());
+					output.writeBoolean(parameter.isEnabled());
+				}
+			}
+
+			// Write the subblocks
+			List<Block> subblocks = block.getSubblocks();
+			output.writeInt(subblocks == null ? -1 : subblocks.size());
+			if (subblocks != null) {
+				for (Block subblock : subblocks) {
+					writeBlock(subblock);
+				}
+			}
+
+			return;
+		}
+
+		/**
+		 * (non-Javadoc)
+		 *
+		 * @see java.lang.AutoCloseable#close()
+		 */
+		@Override
+		public void close() throws IOException {
+			output.close();
+		}
+	}
+
+	/**
+	 * This class reads the YAMLBlocks written by a BlockWriter.
+	 */
+	private static class BlockReader implements AutoCloseable {
+
+		/**
+		 * The stream from the file.
+		 */
+		private final DataInputStream input;
+
+		/**
+		 * The Strings read so far, by index.
+		 */
+		private final ArrayList<String> strings = new ArrayList<String>();
+
+		/**
+		 * The constructor.
+		 *
+		 * @param file
+		 *            The file to read
+		 * @throws IOException
+		 *             Thrown when the file cannot be opened
+		 */
+		public BlockReader(File file) throws IOException {
+			input = new DataInputStream(new BufferedInputStream(
+					new FileInputStream(file), 1 << 16));
+		}
+
+		/**
+		 * This operation reads a String written by BlockWriter.writeString().
+		 *
+		 * @return The String
+		 * @throws IOException
+		 */
+		public String readString() throws IOException {
+
+			String value = null;
+			int code = input.readInt();
+
+			if (code >= 0) {
+				byte[] bytes = new byte[code];
+				input.readFully(bytes);
+				value = new String(bytes, StandardCharsets.UTF_8);
+				strings.add(value);
+			} else if (code < -1) {
+				value = strings.get(-2 - code);
+			}
+
+			return value;
+		}
+
+		/**
+		 * This operation reads a list of Strings written by
+		 * BlockWriter.writeStrings().
+		 *
+		 * @return The Strings or null
+		 * @throws IOException
+		 */
+		public ArrayList<String> readStrings() throws IOException {
+
+			ArrayList<String> values = null;
+			int size = input.readInt();
+
+			if (size >= 0) {
+				values = new ArrayList<String>(size);
+				for (int i = 0; i < size; i++) {
+					values.add(readString());
+				}
+			}
+
+			return values;
+		}
+
+		/**
+		 * This operation reads a block written by BlockWriter.writeBlock().
+		 *
+		 * @return The block
+		 * @throws IOException
+		 */
+		public Block readBlock() throws IOException {
+
+			Block block = new YAMLBlock();
+			block.setName(readString());
+			block.setType(readString());
+			block.setDescription(readString());
+			block.setComment(readString());
+			block.setActive(input.readBoolean());
+
+			// Read the parameters
+			int numParameters = input.readInt();
+			if (numParameters >= 0) {
+				ArrayList<Parameter> parameters = new ArrayList<Parameter>(
+						numParameters);
+				for (int i = 0; i < numParameters; i++) {
+					Parameter parameter = new Parameter();
+					parameter.setName(readString());
+					parameter.setDescription(readString());
+					parameter.setComment(readString());
+					parameter.setCpp_type(readString());
+					parameter.setGroup_name(readString());
+					parameter.setDefault(readString());
+					// The options are split on whitespace, and none of them
+					// contains any
+					ArrayList<String> options = readStrings();
+					if (options != null) {
+						parameter.setOptions(String.join(" ", options));
+					}
+					parameter.setRequired(input.readBoolean());
+					parameter.setEnabled(input.readBoolean());
+					parameters.add(parameter);
+				}
+				block.setParameters(parameters);
+			} else {
+				block.setParameters(null);
+			}
+
+			// Read the subblocks
+			int numSubblocks = input.readInt();
+			if (numSubblocks >= 0) {
+				ArrayList<Block> subblocks = new ArrayList<Block>(numSubblocks);
+				for (int i = 0; i < numSubblocks; i++) {
+					subblocks.add(readBlock());
+				}
+				block.setSubblocks(subblocks);
+			} else {
+				block.setSubblocks(null);
+			}
+
+			return block;
+		}
+
+		/**
+		 * (non-Javadoc)
+		 *
+		 * @see java.lang.AutoCloseable#close()
+		 */
+		@Override
+		public void close() throws IOException {
+			input.close();
+		}
+	}
+}
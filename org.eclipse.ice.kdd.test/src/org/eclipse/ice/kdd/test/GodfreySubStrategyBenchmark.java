@@ -0,0 +1,240 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.kdd.test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import org.eclipse.ice.analysistool.IData;
+import org.eclipse.ice.kdd.kddmath.IDataMatrix;
+import org.eclipse.ice.kdd.kddmath.KDDMatrix;
+import org.eclipse.ice.kdd.kddstrategy.godfreystrategy.AxialPower;
+import org.eclipse.ice.kdd.kddstrategy.godfreystrategy.PinPowerDifference;
+import org.eclipse.ice.kdd.kddstrategy.godfreystrategy.RadialPower;
+import org.eclipse.ice.kdd.test.fakeobjects.SimpleData;
+
+/**
+ * This class times the Godfrey sub-strategies and the KDDMatrix operations
+ * they rely on for a full-core pin power map of 193 assemblies with 17x17
+ * pins and 24 axial levels. It prints the times of each step. It is not part
+ * of the test suite and is launched by hand. The results of the
+ * sub-strategies are checked by their own testers.
+ */
+public class GodfreySubStrategyBenchmark {
+
+	/**
+	 * The size of the full-core pin power map.
+	 */
+	private static final int nAssemblies = 193, nAxial = 24, nPins = 17;
+
+	/**
+	 * The number of times each step is repeated after a warm up run.
+	 */
+	private static final int nRuns = 3;
+
+	/**
+	 * The loaded and reference pin powers.
+	 */
+	private static HashMap<Integer, ArrayList<IDataMatrix>> loaded, reference;
+
+	/**
+	 * The symmetry weights, all 1.0 like for full symmetry.
+	 */
+	private static HashMap<Integer, ArrayList<KDDMatrix>> weights;
+
+	/**
+	 * The main operation. It creates the pin power maps and times the
+	 * sub-strategies and the matrix operations.
+	 *
+	 * @param args
+	 *            Not used.
+	 */
+	public static void main(String[] args) {
+
+		loaded = createPinPowers(new Random(1));
+		reference = createPinPowers(new Random(2));
+
+		// The weights are shared like in GodfreyStrategy.calculateWeights()
+		KDDMatrix weight = new KDDMatrix(nPins, nPins);
+		for (int i = 0; i < nPins; i++) {
+			for (int j = 0; j < nPins; j++) {
+				weight.setValue(i, j, 1.0);
+			}
+		}
+		weights = new HashMap<Integer, ArrayList<KDDMatrix>>();
+		for (int l = 0; l < nAssemblies; l++) {
+			ArrayList<KDDMatrix> matrices = new ArrayList<KDDMatrix>();
+			for (int k = 0; k < nAxial; k++) {
+				matrices.add(weight);
+			}
+			weights.put(l, matrices);
+		}
+
+		timeSubStrategies();
+		timeMatrixOperations();
+
+		return;
+	}
+
+	/**
+	 * This operation times the sub-strategies. They are run without a
+	 * PinPowerDifference so that they do not depend on the workspace for their
+	 * results.
+	 */
+	private static void timeSubStrategies() {
+
+		// Local Declarations
+		HashMap<String, String> properties = new HashMap<String, String>();
+		properties.put("Difference Type", "Basic");
+		PinPowerDifference difference;
+		AxialPower axialPower;
+		RadialPower radialPower;
+		long start;
+		double differenceTime = 0.0, axialTime = 0.0, radialTime = 0.0;
+
+		for (int i = 0; i <= nRuns; i++) {
+			start = System.nanoTime();
+			difference = new PinPowerDifference(loaded, reference, properties);
+			difference.executeStrategy();
+			differenceTime = (System.nanoTime() - start) / 1.0e6;
+
+			start = System.nanoTime();
+			axialPower = new AxialPower(null, loaded, reference, weights);
+			axialPower.executeStrategy();
+			axialTime = (System.nanoTime() - start) / 1.0e6;
+
+			start = System.nanoTime();
+			radialPower = new RadialPower(null, loaded, reference, weights);
+			radialPower.executeStrategy();
+			radialTime = (System.nanoTime() - start) / 1.0e6;
+		}
+
+		System.out.println("GodfreySubStrategyBenchmark Message: "
+				+ "PinPowerDifference = " + differenceTime
+				+ " ms, AxialPower = " + axialTime + " ms, RadialPower = "
+				+ radialTime + " ms");
+
+		return;
+	}
+
+	/**
+	 * This operation times the KDDMatrix operations on every matrix of the pin
+	 * power map.
+	 */
+	private static void timeMatrixOperations() {
+
+		// Copy the pin powers into KDDMatrices
+		ArrayList<KDDMatrix> matrices = new ArrayList<KDDMatrix>();
+		ArrayList<KDDMatrix> refMatrices = new ArrayList<KDDMatrix>();
+		for (int l = 0; l < nAssemblies; l++) {
+			for (int k = 0; k < nAxial; k++) {
+				matrices.add(toKDDMatrix(loaded.get(l).get(k)));
+				refMatrices.add(toKDDMatrix(reference.get(l).get(k)));
+			}
+		}
+
+		// Time each operation over all of the matrices
+		long subtractTime = 0, scaleTime = 0, normalizeTime = 0, transposeTime = 0;
+		long start;
+		for (int i = 0; i <= nRuns; i++) {
+			start = System.nanoTime();
+			for (int m = 0; m < matrices.size(); m++) {
+				matrices.get(m).subtract(refMatrices.get(m));
+			}
+			subtractTime = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			for (int m = 0; m < matrices.size(); m++) {
+				matrices.get(m).scaleByUncertainty(refMatrices.get(m));
+			}
+			scaleTime = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			for (KDDMatrix matrix : refMatrices) {
+				matrix.rowNormalize();
+			}
+			normalizeTime = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			for (KDDMatrix matrix : matrices) {
+				matrix.transpose();
+			}
+			transposeTime = System.nanoTime() - start;
+		}
+
+		System.out.println("GodfreySubStrategyBenchmark Message: "
+				+ matrices.size() + " matrices, subtract = " + subtractTime
+				/ 1.0e6 + " ms, scaleByUncertainty = " + scaleTime / 1.0e6
+				+ " ms, rowNormalize = " + normalizeTime / 1.0e6
+				+ " ms, transpose = " + transposeTime / 1.0e6 + " ms");
+
+		return;
+	}
+
+	/**
+	 * This operation creates a random pin power map. Only the first pin of
+	 * each axial level has a position, which is all AxialPower needs.
+	 *
+	 * @param random
+	 *            The random number generator
+	 * @return The pin powers of each assembly by axial level
+	 */
+	private static HashMap<Integer, ArrayList<IDataMatrix>> createPinPowers(
+			Random random) {
+
+		HashMap<Integer, ArrayList<IDataMatrix>> pinPowers = new HashMap<Integer, ArrayList<IDataMatrix>>();
+		ArrayList<Double> position = new ArrayList<Double>();
+		for (int l = 0; l < nAssemblies; l++) {
+			ArrayList<IDataMatrix> matrices = new ArrayList<IDataMatrix>();
+			for (int k = 0; k < nAxial; k++) {
+				ArrayList<IData> elements = new ArrayList<IData>();
+				for (int i = 0; i < nPins * nPins; i++) {
+					SimpleData data = new SimpleData("Data",
+							0.5 + random.nextDouble());
+					data.setUncertainty(0.01 * random.nextDouble());
+					if (i == 0) {
+						position.clear();
+						position.add(0.0);
+						position.add(0.0);
+						position.add(10.0 * (k + 1));
+						data.setPosition(position);
+					}
+					elements.add(data);
+				}
+				matrices.add(new IDataMatrix(nPins, nPins, elements));
+			}
+			pinPowers.put(l, matrices);
+		}
+
+		return pinPowers;
+	}
+
+	/**
+	 * This operation copies the values of an IDataMatrix into a KDDMatrix.
+	 *
+	 * @param matrix
+	 *            The IDataMatrix
+	 * @return The KDDMatrix
+	 */
+	private static KDDMatrix toKDDMatrix(IDataMatrix matrix) {
+		KDDMatrix kddMatrix = new KDDMatrix(matrix.numberOfRows(),
+				matrix.numberOfColumns());
+		for (int i = 0; i < matrix.numberOfRows(); i++) {
+			for (int j = 0; j < matrix.numberOfColumns(); j++) {
+				kddMatrix.setValue(i, j, matrix.getElementValue(i, j));
+			}
+		}
+		return kddMatrix;
+	}
+}
@@ -542,6 +542,68 @@ public class KDDMatrixTester {
 		
 	}
 	
+	/**
+	 * <p>
+	 * Checks the operations that work on the primitive elements of the
+	 * KDDMatrix without boxing them.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkPrimitiveOperations() {
+
+		// Create a 2x3 matrix from an array
+		double[] elements = { 1.0, -2.0, 3.0, 4.0, 5.0, -6.0 };
+		KDDMatrix m = new KDDMatrix(elements, 2, 3);
+		assertEquals(-2.0, m.getValue(0, 1), 0.0);
+		assertEquals(Double.valueOf(4.0), m.getElement(1, 0));
+
+		// Set a value
+		m.setValue(1, 2, 7.0);
+		assertEquals(Double.valueOf(7.0), m.getElement(1, 2));
+
+		// Check the smallest and largest elements
+		assertEquals(-2.0, m.getMinElement(), 0.0);
+		assertEquals(7.0, m.getMaxElement(), 0.0);
+		assertTrue(Double.isNaN(new KDDMatrix().getMinElement()));
+
+		// Copy a row
+		double[] row = new double[3];
+		m.copyRow(1, row);
+		assertEquals(4.0, row[0], 0.0);
+		assertEquals(5.0, row[1], 0.0);
+		assertEquals(7.0, row[2], 0.0);
+		assertEquals(Double.valueOf(5.0), m.getRow(1).getElement(0, 1));
+		assertNull(m.getRow(2));
+
+		// Scale it
+		m.scale(2.0);
+		assertEquals(-4.0, m.getValue(0, 1), 0.0);
+		assertEquals(14.0, m.getValue(1, 2), 0.0);
+
+		// Add and subtract a matrix of the same size
+		KDDMatrix other = new KDDMatrix(2, 3);
+		other.setValue(0, 0, 1.0);
+		assertTrue(m.add(other));
+		assertEquals(3.0, m.getValue(0, 0), 0.0);
+		assertTrue(m.subtract(other));
+		assertEquals(2.0, m.getValue(0, 0), 0.0);
+
+		// Transpose a square matrix in place
+		KDDMatrix square = new KDDMatrix(new double[] { 1.0, 2.0, 3.0, 4.0,
+				5.0, 6.0, 7.0, 8.0, 9.0 }, 3, 3);
+		square.transpose();
+		assertEquals(4.0, square.getValue(0, 1), 0.0);
+		assertEquals(6.0, square.getValue(2, 1), 0.0);
+		assertEquals(5.0, square.getValue(1, 1), 0.0);
+
+		// Zero it
+		square.zeroMatrix();
+		assertEquals(0.0, square.getMaxElement(), 0.0);
+
+		return;
+	}
+
 	/**
 	 * <p>
 	 * Tests that we can pull row and column vectors from this Matrix
@@ -0,0 +1,216 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.kdd.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.eclipse.ice.kdd.kddmath.KDDMatrix;
+import org.eclipse.ice.kdd.kddstrategy.kmeansclustering.ClusterKDDMatrix;
+import org.eclipse.ice.kdd.kddstrategy.kmeansclustering.ParallelKMeansStrategy;
+import org.junit.Test;
+
+/**
+ * <p>
+ * This class is used to unit test the ParallelKMeansStrategy and the parallel
+ * KMeans clustering of the ClusterKDDMatrix that it uses. The data are
+ * well-separated groups of points around known centers, so that the clusters
+ * are known in advance.
+ * </p>
+ */
+public class ParallelKMeansStrategyTester {
+
+	/**
+	 * The centers of the groups of points.
+	 */
+	private static final double[][] centers = { { 0.0, 0.0 },
+			{ 10.0, 10.0 }, { -10.0, 10.0 } };
+
+	/**
+	 * <p>
+	 * Checks that the clustering finds the groups of points, converges before
+	 * the maximum number of iterations and is repeatable for a given seed.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkClustering() {
+
+		int nPoints = 3000;
+		ClusterKDDMatrix matrix = createMatrix(nPoints, 2, new Random(1));
+
+		// Cluster all of the rows
+		int nIterations = matrix.cluster(3, 100, 1.0e-9, 0, 1);
+		assertTrue(nIterations > 0 && nIterations < 100);
+		checkClusters(matrix, nPoints);
+
+		// The same seed produces the same clusters
+		ArrayList<KDDMatrix> means = matrix.getClusterMeans();
+		assertEquals(nIterations, matrix.cluster(3, 100, 1.0e-9, 0, 1));
+		assertEquals(means, matrix.getClusterMeans());
+
+		// Cluster with mini-batches
+		nIterations = matrix.cluster(3, 500, 1.0e-3, 256, 1);
+		assertTrue(nIterations > 0 && nIterations <= 500);
+		checkClusters(matrix, nPoints);
+
+		// More clusters than rows is not allowed
+		try {
+			new ClusterKDDMatrix(new ArrayList<Double>(), 0, 2).cluster(1, 10,
+					0.0, 0, 1);
+			assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Checks that we can execute the strategy and get and set its properties.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkExecuteStrategy() {
+
+		ParallelKMeansStrategy kmeans = new ParallelKMeansStrategy(
+				createMatrix(100, 2, new Random(2)));
+
+		// Check the default properties
+		assertEquals("2", kmeans.getProperty("Number of Clusters"));
+		assertEquals("100", kmeans.getProperty("Maximum Iterations"));
+		assertEquals("1.0E-6", kmeans.getProperty("Tolerance"));
+		assertEquals("0", kmeans.getProperty("Mini-Batch Size"));
+		assertEquals("1", kmeans.getProperty("Random Seed"));
+		assertEquals("Euclidean", kmeans.getProperty("Distance Measure"));
+		assertEquals(6, kmeans.getPropertiesAsEntryList().size());
+
+		// Execute it
+		assertTrue(kmeans.executeStrategy());
+		assertEquals(2, kmeans.getNumberOfClusters());
+		assertTrue(kmeans.getNumberOfIterations() > 0);
+
+		// Changing a property re-runs the strategy
+		assertTrue(kmeans.setProperty("Number of Clusters", "3"));
+		assertEquals(3, kmeans.getNumberOfClusters());
+
+		// Invalid values are rejected
+		assertFalse(kmeans.setProperty("Tolerance", "small"));
+		assertEquals("1.0E-6", kmeans.getProperty("Tolerance"));
+		assertFalse(kmeans.setProperty("Number of Clusters", "1000"));
+		assertFalse(kmeans.setProperty("hello", "value"));
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Times the parallel clustering against the original clustering for a
+	 * larger data set. It only prints the times, since they depend on the
+	 * machine.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkTiming() {
+
+		int nPoints = 10000, nIterations = 10;
+		ClusterKDDMatrix matrix = createMatrix(nPoints, 8, new Random(3));
+		long start;
+		double originalTime = 0.0, parallelTime = 0.0, miniBatchTime = 0.0;
+
+		for (int i = 0; i < 3; i++) {
+			start = System.nanoTime();
+			matrix.cluster(3, nIterations);
+			originalTime = (System.nanoTime() - start) / 1.0e6;
+
+			start = System.nanoTime();
+			matrix.cluster(3, nIterations, 0.0, 0, 1);
+			parallelTime = (System.nanoTime() - start) / 1.0e6;
+
+			start = System.nanoTime();
+			matrix.cluster(3, nIterations, 0.0, 1000, 1);
+			miniBatchTime = (System.nanoTime() - start) / 1.0e6;
+		}
+
+		System.out.println("ParallelKMeansStrategyTester Message: "
+				+ 3 * nPoints + " rows, " + nIterations
+				+ " iterations, original = " + originalTime
+				+ " ms, parallel = " + parallelTime + " ms, mini-batch = "
+				+ miniBatchTime + " ms");
+		assertEquals(3 * nPoints, matrix.getNumberOfClusterElements(0)
+				+ matrix.getNumberOfClusterElements(1)
+				+ matrix.getNumberOfClusterElements(2));
+
+		return;
+	}
+
+	/**
+	 * This operation checks that each cluster holds one of the groups of
+	 * points.
+	 * 
+	 * @param matrix
+	 *            The clustered matrix
+	 * @param nPoints
+	 *            The number of points in each group
+	 */
+	private void checkClusters(ClusterKDDMatrix matrix, int nPoints) {
+		assertEquals(3, matrix.getNumberOfClusters());
+		boolean[] found = new boolean[centers.length];
+		for (int k = 0; k < 3; k++) {
+			assertEquals(nPoints, matrix.getNumberOfClusterElements(k));
+			KDDMatrix mean = matrix.getClusterMeans().get(k);
+			for (int c = 0; c < centers.length; c++) {
+				if (Math.abs(mean.getValue(0, 0) - centers[c][0]) < 0.5
+						&& Math.abs(mean.getValue(1, 0) - centers[c][1]) < 0.5) {
+					found[c] = true;
+				}
+			}
+		}
+		for (boolean center : found) {
+			assertTrue(center);
+		}
+	}
+
+	/**
+	 * This operation creates a matrix with a group of points around each of
+	 * the centers. The columns past the second are noise around zero.
+	 * 
+	 * @param nPoints
+	 *            The number of points in each group
+	 * @param nCols
+	 *            The number of columns of the matrix
+	 * @param random
+	 *            The random number generator
+	 * @return The matrix
+	 */
+	private ClusterKDDMatrix createMatrix(int nPoints, int nCols,
+			Random random) {
+		ArrayList<Double> elements = new ArrayList<Double>();
+		for (double[] center : centers) {
+			for (int i = 0; i < nPoints; i++) {
+				for (int j = 0; j < nCols; j++) {
+					elements.add((j < 2 ? center[j] : 0.0)
+							+ random.nextGaussian());
+				}
+			}
+		}
+		return new ClusterKDDMatrix(elements, centers.length * nPoints, nCols);
+	}
+}
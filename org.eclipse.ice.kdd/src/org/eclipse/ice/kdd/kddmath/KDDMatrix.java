@@ -13,6 +13,7 @@
 package org.eclipse.ice.kdd.kddmath;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import org.eclipse.ice.analysistool.IData;
 import org.eclipse.ice.analysistool.IDataProvider;
@@ -31,6 +32,13 @@ import org.slf4j.LoggerFactory;
  * methods for matrix arithmetic, transposition, normalizing rows and columns,
  * and scaling by an uncertainty matrix.
  * </p>
+ * <p>
+ * The elements are stored in a contiguous array of doubles in row major order.
+ * The getElement() and setElement() operations of IAbstractMatrix box their
+ * values, so clients that loop over large matrices should use getValue() and
+ * setValue() instead. The arithmetic operations work on the array directly
+ * and in place when both matrices are KDDMatrices of the same size.
+ * </p>
  * 
  * @author Alex McCaskey
  */
@@ -44,12 +52,12 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 
 	/**
 	 * <p>
-	 * The individual elements of this matrix. This is a list of n*m double
-	 * values for a given matrix of size nxm.
+	 * The individual elements of this matrix. This is an array of n*m double
+	 * values, in row major order, for a given matrix of size nxm.
 	 * </p>
 	 * 
 	 */
-	protected ArrayList<Double> elements;
+	protected double[] elements;
 
 	/**
 	 * <p>
@@ -86,7 +94,7 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	public KDDMatrix(IDataProvider data) throws IllegalArgumentException {
 
 		// Initialize the elements array
-		elements = new ArrayList<Double>();
+		elements = new double[0];
 
 		// Initialize the number of rows and columns
 		nCols = 0;
@@ -121,6 +129,15 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 			return false;
 		}
 
+		// Subtract the arrays directly if we can
+		if (hasSameSize(matToSubtract)) {
+			double[] otherElements = ((KDDMatrix) matToSubtract).elements;
+			for (int i = 0; i < nRows * nCols; i++) {
+				elements[i] -= otherElements[i];
+			}
+			return true;
+		}
+
 		// Perform the subtraction
 		for (int i = 0; i < nRows; i++) {
 			for (int j = 0; j < nCols; j++) {
@@ -147,6 +164,15 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 			return false;
 		}
 
+		// Add the arrays directly if we can
+		if (hasSameSize(matToAdd)) {
+			double[] otherElements = ((KDDMatrix) matToAdd).elements;
+			for (int i = 0; i < nRows * nCols; i++) {
+				elements[i] += otherElements[i];
+			}
+			return true;
+		}
+
 		// Perform the addition
 		for (int i = 0; i < nRows; i++) {
 			for (int j = 0; j < nCols; j++) {
@@ -167,29 +193,20 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 */
 	public void rowNormalize() {
 
-		// Local ArrayList to collect all row sums
-		ArrayList<Double> rowSums = new ArrayList<Double>();
-
-		// Initialize one rowSum to 0.0
-		Double rowSum = 0.0;
+		// Local Declarations
+		double rowSum;
+		int rowStart;
 
-		// Calculate the sum of each row, then add it to the
-		// array list
+		// Calculate the sum of each row, then divide each
+		// element of the row by it
 		for (int i = 0; i < nRows; i++) {
-			for (int j = 0; j < nCols; j++) {
-				rowSum = rowSum + getElement(i, j);
-			}
-			// Add the sum to the list
-			rowSums.add(rowSum);
-			// Reset the sum
+			rowStart = i * nCols;
 			rowSum = 0.0;
-		}
-
-		// Now go through each element and divide it
-		// by its row sum
-		for (int i = 0; i < nRows; i++) {
-			for (int j = 0; j < nCols; j++) {
-				setElement(i, j, getElement(i, j) / rowSums.get(i));
+			for (int j = rowStart; j < rowStart + nCols; j++) {
+				rowSum = rowSum + elements[j];
+			}
+			for (int j = rowStart; j < rowStart + nCols; j++) {
+				elements[j] = elements[j] / rowSum;
 			}
 		}
 
@@ -223,6 +240,14 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 			return false;
 		}
 
+		// Divide the arrays directly if we can
+		if (hasSameSize(uncertainty)) {
+			for (int i = 0; i < nRows * nCols; i++) {
+				elements[i] = elements[i] / uncertainty.elements[i];
+			}
+			return true;
+		}
+
 		// Divide each element by the corresponding
 		// uncertainty element
 		for (int i = 0; i < nRows; i++) {
@@ -258,7 +283,7 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 			return null;
 		}
 
-		return elements.get(nCols * rowIndex + colIndex);
+		return elements[nCols * rowIndex + colIndex];
 	}
 
 	/**
@@ -289,11 +314,124 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 		}
 
 		// Set the value
-		elements.set(nCols * rowIndex + colIndex, value);
+		elements[nCols * rowIndex + colIndex] = value;
 
 		return true;
 	}
 
+	/**
+	 * <p>
+	 * Get the value of the element at the given row and column index without
+	 * boxing it. The indices are not checked, so this operation is meant for
+	 * loops over the elements of the matrix.
+	 * </p>
+	 * 
+	 * @param rowIndex
+	 * @param colIndex
+	 * @return The value of the element
+	 */
+	public double getValue(int rowIndex, int colIndex) {
+		return elements[nCols * rowIndex + colIndex];
+	}
+
+	/**
+	 * <p>
+	 * Set the value of the element at the given row and column index without
+	 * boxing it. The indices are not checked, so this operation is meant for
+	 * loops over the elements of the matrix.
+	 * </p>
+	 * 
+	 * @param rowIndex
+	 * @param colIndex
+	 * @param value
+	 */
+	public void setValue(int rowIndex, int colIndex, double value) {
+		elements[nCols * rowIndex + colIndex] = value;
+	}
+
+	/**
+	 * <p>
+	 * This method multiplies every element of this KDDMatrix by the given
+	 * factor.
+	 * </p>
+	 * 
+	 * @param factor
+	 */
+	public void scale(double factor) {
+		for (int i = 0; i < nRows * nCols; i++) {
+			elements[i] = elements[i] * factor;
+		}
+	}
+
+	/**
+	 * <p>
+	 * Return the smallest element in this matrix, or NaN if it is empty.
+	 * </p>
+	 * 
+	 * @return
+	 */
+	public double getMinElement() {
+		if (nRows * nCols == 0) {
+			return Double.NaN;
+		}
+		double min = elements[0];
+		for (int i = 1; i < nRows * nCols; i++) {
+			if (Double.compare(elements[i], min) < 0) {
+				min = elements[i];
+			}
+		}
+		return min;
+	}
+
+	/**
+	 * <p>
+	 * Return the largest element in this matrix, or NaN if it is empty.
+	 * </p>
+	 * 
+	 * @return
+	 */
+	public double getMaxElement() {
+		if (nRows * nCols == 0) {
+			return Double.NaN;
+		}
+		double max = elements[0];
+		for (int i = 1; i < nRows * nCols; i++) {
+			if (Double.compare(elements[i], max) > 0) {
+				max = elements[i];
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * <p>
+	 * Copy the row at the given index into the given array, which must hold at
+	 * least numberOfColumns() values. This lets clients read the rows of the
+	 * matrix without creating a KDDMatrix for each of them.
+	 * </p>
+	 * 
+	 * @param index
+	 * @param row
+	 */
+	public void copyRow(int index, double[] row) {
+		System.arraycopy(elements, index * nCols, row, 0, nCols);
+	}
+
+	/**
+	 * <p>
+	 * This utility method indicates whether or not the given matrix is a
+	 * KDDMatrix of the same size as this one, in which case the arithmetic
+	 * operations can work on the element arrays directly.
+	 * </p>
+	 * 
+	 * @param matrix
+	 * @return
+	 */
+	private boolean hasSameSize(IAbstractMatrix<Double> matrix) {
+		return matrix instanceof KDDMatrix && matrix.numberOfRows() == nRows
+				&& matrix.numberOfColumns() == nCols;
+	}
+
 	/**
 	 * <p>
 	 * Returns the number of rows in this matrix
@@ -339,30 +477,29 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 			nCols = oldNRows;
 		} else {
 
-			// This method assumes that the IDataProvider
-			// has already been validated, since the KDDMatrix wouldn't
-			// have been constructed otherwise.
-
-			// Get the IData elements
-			ArrayList<IData> dataElements = dataProvider
-					.getDataAtCurrentTime("Data");
-
-			// Transpose swaps the number of rows and cols
-			nRows = oldNCols;
-			nCols = oldNRows;
-
-			KDDMatrix oldMatrix = new KDDMatrix(
-					(ArrayList<Double>) elements.clone(), oldNRows, oldNCols);
-
-			elements.clear();
-			for (int i = 0; i < nRows * nCols; i++) {
-				elements.add(0.0);
-			}
-
-			for (int i = 0; i < nRows; i++) {
-				for (int j = 0; j < nCols; j++) {
-					setElement(i, j, oldMatrix.getElement(j, i));
+			// Square matrices can be transposed in place
+			if (nRows == nCols) {
+				double temp;
+				for (int i = 0; i < nRows; i++) {
+					for (int j = i + 1; j < nCols; j++) {
+						temp = elements[i * nCols + j];
+						elements[i * nCols + j] = elements[j * nCols + i];
+						elements[j * nCols + i] = temp;
+					}
 				}
+			} else {
+				// Transpose swaps the number of rows and cols
+				nRows = oldNCols;
+				nCols = oldNRows;
+
+				// Copy the old elements into their new positions
+				double[] transposed = new double[nRows * nCols];
+				for (int i = 0; i < oldNRows; i++) {
+					for (int j = 0; j < oldNCols; j++) {
+						transposed[j * nCols + i] = elements[i * oldNCols + j];
+					}
+				}
+				elements = transposed;
 			}
 
 		}
@@ -378,7 +515,7 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * 
 	 */
 	public KDDMatrix() {
-		elements = new ArrayList<Double>();
+		elements = new double[0];
 		nRows = 0;
 		nCols = 0;
 	}
@@ -412,10 +549,8 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * @return
 	 */
 	public int addRow() {
-		// Add for the number of columns
-		for (int i = 0; i < nCols; i++) {
-			elements.add(0.0);
-		}
+		// Add zeros for the number of columns
+		elements = Arrays.copyOf(elements, (nRows + 1) * nCols);
 		// Add to the row
 		nRows += 1;
 		return nRows;
@@ -430,10 +565,13 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * @return
 	 */
 	public int addColumn() {
-		// Add for the number of rows
+		// Add a zero to the end of each row
+		double[] newElements = new double[nRows * (nCols + 1)];
 		for (int i = 0; i < nRows; i++) {
-			elements.add(((i + 1) * nCols) + i, 0.0);
+			System.arraycopy(elements, i * nCols, newElements,
+					i * (nCols + 1), nCols);
 		}
+		elements = newElements;
 		// Add to the cols
 		nCols += 1;
 
@@ -451,9 +589,7 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	@Override
 	public boolean deleteRow() {
 		// Remove for the number of columns
-		for (int i = 0; i < nCols; i++) {
-			elements.remove(elements.size() - 1);
-		}
+		elements = Arrays.copyOf(elements, (nRows - 1) * nCols);
 		// Remove a row
 		nRows -= 1;
 		return true;
@@ -469,10 +605,13 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 */
 	@Override
 	public boolean deleteColumn() {
-		// Remove for the number of rows
+		// Remove the last element of each row
+		double[] newElements = new double[nRows * (nCols - 1)];
 		for (int i = 0; i < nRows; i++) {
-			elements.remove(((i + 1) * nCols) - i - 1);
+			System.arraycopy(elements, i * nCols, newElements,
+					i * (nCols - 1), nCols - 1);
 		}
+		elements = newElements;
 		// Remove a Column
 		nCols -= 1;
 		return true;
@@ -549,8 +688,9 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 					"Invalid number of data elements. Must have nRows * nCols data elements.");
 		}
 		// Add the elements
+		elements = new double[nRows * nCols];
 		for (int i = 0; i < nRows * nCols; i++) {
-			elements.add(dataElements.get(i).getValue());
+			elements[i] = dataElements.get(i).getValue();
 		}
 
 		return;
@@ -578,14 +718,14 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * @return
 	 */
 	public KDDMatrix getRow(int index) {
-		KDDMatrix retVector = new KDDMatrix(1, nCols);
-		for (int i = 0; i < nCols; i++) {
-			if (!retVector.setElement(0, i, getElement(index, i))) {
-				logger.info("THIS WQAS FALSE");
-				return null;
-			}
+		// Return null if out of range
+		if (index < 0 || index >= nRows) {
+			return null;
 		}
 
+		KDDMatrix retVector = new KDDMatrix(1, nCols);
+		copyRow(index, retVector.elements);
+
 		return retVector;
 	}
 
@@ -616,10 +756,7 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	public KDDMatrix(int nRows, int nCols) {
 		this.nRows = nRows;
 		this.nCols = nCols;
-		elements = new ArrayList<Double>();
-		for (int i = 0; i < this.nRows * this.nCols; i++) {
-			elements.add(0.0);
-		}
+		elements = new double[nRows * nCols];
 	}
 
 	/**
@@ -643,12 +780,14 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 			if (otherMatrix.numberOfColumns() != nCols
 					|| otherMatrix.numberOfRows() != nRows) {
 				retVal = false;
-			}
-			// Then make sure all the elements are the same
-			for (int i = 0; i < nRows; i++) {
-				for (int j = 0; j < nCols; j++) {
-					if (!otherMatrix.getElement(i, j).equals(getElement(i, j))) {
+			} else {
+				// Then make sure all the elements are the same, like
+				// Double.equals() would
+				for (int i = 0; i < nRows * nCols; i++) {
+					if (Double.doubleToLongBits(elements[i]) != Double
+							.doubleToLongBits(otherMatrix.elements[i])) {
 						retVal = false;
+						break;
 					}
 				}
 			}
@@ -676,7 +815,7 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 		// Compute the hashcode
 		hash = 31 * hash + this.nCols;
 		hash = 31 * hash + this.nRows;
-		hash = 31 * hash + this.elements.hashCode();
+		hash = 31 * hash + Arrays.hashCode(this.elements);
 		hash = 31 * hash + this.dataProvider.hashCode();
 
 		// Done, return
@@ -693,6 +832,25 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * @param nCols
 	 */
 	public KDDMatrix(ArrayList<Double> elements, int nRows, int nCols) {
+		this.nRows = nRows;
+		this.nCols = nCols;
+		this.elements = new double[elements.size()];
+		for (int i = 0; i < elements.size(); i++) {
+			this.elements[i] = elements.get(i);
+		}
+	}
+
+	/**
+	 * <p>
+	 * The Constructor. The matrix uses the given array of row major elements
+	 * directly instead of copying it.
+	 * </p>
+	 * 
+	 * @param elements
+	 * @param nRows
+	 * @param nCols
+	 */
+	public KDDMatrix(double[] elements, int nRows, int nCols) {
 		this.nRows = nRows;
 		this.nCols = nCols;
 		this.elements = elements;
@@ -714,11 +872,7 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	}
 
 	public void zeroMatrix() {
-		for (int i = 0; i < nRows; i++) {
-			for (int j = 0; j < nCols; j++) {
-				setElement(i, j, 0.0);
-			}
-		}
+		Arrays.fill(elements, 0, nRows * nCols, 0.0);
 	}
 
 	public void printMatrix() {
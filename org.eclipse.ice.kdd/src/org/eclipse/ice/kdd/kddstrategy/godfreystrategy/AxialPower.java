@@ -135,20 +135,21 @@ public class AxialPower extends GodfreySubStrategy {
 		int nRows = loadedPinPowers.get(0).get(0).numberOfRows();
 		int nCols = loadedPinPowers.get(0).get(0).numberOfColumns();
 		double sum = 0.0, weightSum = 0.0;
+		IDataMatrix pinPowers;
+		KDDMatrix weight, difference;
 		KDDMatrix axialMesh = new KDDMatrix(nAxial + 1, 1);
 		axialMesh.setElement(nAxial, 0, 0.0);
 
 		// Calculate the Axial Power
 		for (int k = 0; k < nAxial; k++) {
 			for (int l = 0; l < nAssemblies; l++) {
+				pinPowers = loadedPinPowers.get(l).get(k);
+				weight = weights.get(l).get(k);
 				for (int i = 0; i < nRows; i++) {
 					for (int j = 0; j < nCols; j++) {
-						sum = sum
-								+ loadedPinPowers.get(l).get(k)
-										.getElementValue(i, j)
-								* weights.get(l).get(k).getElement(i, j);
-						weightSum = weightSum
-								+ weights.get(l).get(k).getElement(i, j);
+						sum = sum + pinPowers.getElementValue(i, j)
+								* weight.getValue(i, j);
+						weightSum = weightSum + weight.getValue(i, j);
 					}
 				}
 			}
@@ -166,14 +167,14 @@ public class AxialPower extends GodfreySubStrategy {
 		if (calculateDiffs) {
 			for (int k = 0; k < nAxial; k++) {
 				for (int l = 0; l < nAssemblies; l++) {
+					difference = differences.getPinPowerDifference().get(l)
+							.get(k);
+					weight = weights.get(l).get(k);
 					for (int i = 0; i < nRows; i++) {
 						for (int j = 0; j < nCols; j++) {
-							sum = sum
-									+ differences.getPinPowerDifference()
-											.get(l).get(k).getElement(i, j)
-									* weights.get(l).get(k).getElement(i, j);
-							weightSum = weightSum
-									+ weights.get(l).get(k).getElement(i, j);
+							sum = sum + difference.getValue(i, j)
+									* weight.getValue(i, j);
+							weightSum = weightSum + weight.getValue(i, j);
 						}
 					}
 				}
@@ -228,7 +229,8 @@ public class AxialPower extends GodfreySubStrategy {
 	 */
 	private boolean createAsset() {
 		ArrayList<String> fileContents = new ArrayList<String>();
-		String line = "", contents = "";
+		String line = "";
+		StringBuilder contents = new StringBuilder();
 		DecimalFormat formatter = new DecimalFormat("#.####");
 
 		// Get the default project, which should be
@@ -288,13 +290,13 @@ public class AxialPower extends GodfreySubStrategy {
 		// Convert the ArrayList to one string
 		// so we can use the getBytes method
 		for (String s : fileContents) {
-			contents = contents + s + "\n";
+			contents.append(s).append("\n");
 		}
 
 		// Create the IFile with a ByteArrayInputStream
 		try {
-			file.create(new ByteArrayInputStream(contents.getBytes()), false,
-					null);
+			file.create(new ByteArrayInputStream(contents.toString()
+					.getBytes()), false, null);
 		} catch (CoreException e) {
 			logger.error(getClass().getName() + " Exception!",e);
 			return false;
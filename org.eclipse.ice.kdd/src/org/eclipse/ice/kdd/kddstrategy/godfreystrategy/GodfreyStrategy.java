@@ -270,7 +270,8 @@ public class GodfreyStrategy extends CompositeStrategy {
 	private boolean createAsset() {
 		ArrayList<URI> uris = new ArrayList<URI>();
 		ArrayList<String> fileContents = new ArrayList<String>();
-		String line = "", contents = "";
+		String line = "";
+		StringBuilder contents = new StringBuilder();
 
 		// Get the default project, which should be
 		// the only element in getProjects()
@@ -348,13 +349,13 @@ public class GodfreyStrategy extends CompositeStrategy {
 		// Convert the ArrayList to one string
 		// so we can use the getBytes method
 		for (String s : fileContents) {
-			contents = contents + s + "\n";
+			contents.append(s).append("\n");
 		}
 
 		// Create the IFile with a ByteArrayInputStream
 		try {
-			file.create(new ByteArrayInputStream(contents.getBytes()), false,
-					null);
+			file.create(new ByteArrayInputStream(contents.toString()
+					.getBytes()), false, null);
 		} catch (CoreException e) {
 			logger.error(getClass().getName() + " Exception!",e);
 			return false;
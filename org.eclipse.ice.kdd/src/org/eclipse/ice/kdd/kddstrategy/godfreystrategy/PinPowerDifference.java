@@ -120,6 +120,7 @@ public class PinPowerDifference extends GodfreySubStrategy {
 		int nRows = loadedPinPowers.get(0).get(0).numberOfRows();
 		int nCols = loadedPinPowers.get(0).get(0).numberOfColumns();
 		KDDMatrix matrix, uncertainMatrix;
+		IDataMatrix loaded, ref;
 		ArrayList<KDDMatrix> matrices;
 		ArrayList<KDDMatrix> unMatrices;
 
@@ -131,52 +132,32 @@ public class PinPowerDifference extends GodfreySubStrategy {
 			for (int k = 0; k < nAxial; k++) {
 				matrix = new KDDMatrix(nRows, nCols);
 				uncertainMatrix = new KDDMatrix(nRows, nCols);
+				loaded = loadedPinPowers.get(l).get(k);
+				ref = refPinPowers.get(l).get(k);
 				for (int i = 0; i < nRows; i++) {
 					for (int j = 0; j < nCols; j++) {
 						if ("Relative".equals(differenceType)) {
 
 							// Subtract the data, relative type
-							matrix.setElement(
-									i,
-									j,
-									(loadedPinPowers.get(l).get(k)
-											.getElementValue(i, j) - refPinPowers
-											.get(l).get(k)
-											.getElementValue(i, j))
-											/ refPinPowers.get(l).get(k)
-													.getElementValue(i, j));
+							matrix.setValue(i, j, (loaded.getElementValue(i, j)
+									- ref.getElementValue(i, j))
+									/ ref.getElementValue(i, j));
 
 							// Subtract the uncertainties, relative type
-							uncertainMatrix
-									.setElement(
-											i,
-											j,
-											(loadedPinPowers
-													.get(l)
-													.get(k)
-													.getElementUncertainty(i, j) - refPinPowers
-													.get(l)
-													.get(k)
-													.getElementUncertainty(i, j))
-													/ refPinPowers
-															.get(l)
-															.get(k)
-															.getElementUncertainty(
-																	i, j));
+							uncertainMatrix.setValue(i, j,
+									(loaded.getElementUncertainty(i, j)
+											- ref.getElementUncertainty(i, j))
+											/ ref.getElementUncertainty(i, j));
 
 						} else {
 							// Subtract the data, basic type
-							matrix.setElement(i, j,
-									loadedPinPowers.get(l).get(k)
-											.getElementValue(i, j)
-											- refPinPowers.get(l).get(k)
-													.getElementValue(i, j));
+							matrix.setValue(i, j, loaded.getElementValue(i, j)
+									- ref.getElementValue(i, j));
 
 							// Subtract the uncertainties, basic type
-							uncertainMatrix.setElement(i, j, loadedPinPowers
-									.get(l).get(k).getElementUncertainty(i, j)
-									- refPinPowers.get(l).get(k)
-											.getElementUncertainty(i, j));
+							uncertainMatrix.setValue(i, j,
+									loaded.getElementUncertainty(i, j)
+											- ref.getElementUncertainty(i, j));
 						}
 					}
 				}
@@ -204,7 +185,8 @@ public class PinPowerDifference extends GodfreySubStrategy {
 	 */
 	private boolean createAsset() {
 		ArrayList<String> fileContents = new ArrayList<String>();
-		String line = "", contents = "";
+		String line = "";
+		StringBuilder contents = new StringBuilder();
 		DecimalFormat formatter = new DecimalFormat("#.####");
 
 		// Get the default project, which should be
@@ -275,13 +257,13 @@ public class PinPowerDifference extends GodfreySubStrategy {
 		// Convert the ArrayList to one string
 		// so we can use the getBytes method
 		for (String s : fileContents) {
-			contents = contents + s + "\n";
+			contents.append(s).append("\n");
 		}
 
 		// Create the IFile with a ByteArrayInputStream
 		try {
-			file.create(new ByteArrayInputStream(contents.getBytes()), false,
-					null);
+			file.create(new ByteArrayInputStream(contents.toString()
+					.getBytes()), false, null);
 		} catch (CoreException e) {
 			logger.error(getClass().getName() + " Exception!",e);
 			return false;
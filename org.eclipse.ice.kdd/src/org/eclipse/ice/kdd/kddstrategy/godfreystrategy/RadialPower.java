@@ -131,6 +131,9 @@ public class RadialPower extends GodfreySubStrategy {
 		double diffSum = 0.0, rmsSum = 0.0, diffSumRms = 0.0;
 		ArrayList<KDDMatrix> dr = new ArrayList<KDDMatrix>();
 		KDDMatrix matrix, diffMat, drMat;
+		ArrayList<IDataMatrix> assemblyPowers;
+		ArrayList<KDDMatrix> assemblyWeights, assemblyDiffs = null;
+		double power, difference, weight;
 
 		// Make sure we run the difference algorithm.
 		if (calculateDiffs && !differences.executeStrategy()) {
@@ -142,30 +145,32 @@ public class RadialPower extends GodfreySubStrategy {
 			matrix = new KDDMatrix(nRows, nCols);
 			diffMat = new KDDMatrix(nRows, nCols);
 			drMat = new KDDMatrix(nRows, nCols);
+			assemblyPowers = loadedPinPowers.get(l);
+			assemblyWeights = weights.get(l);
+			if (calculateDiffs) {
+				assemblyDiffs = differences.getPinPowerDifference().get(l);
+			}
 			for (int i = 0; i < nRows; i++) {
 				for (int j = 0; j < nCols; j++) {
 					for (int k = 0; k < nAxial; k++) {
+						weight = assemblyWeights.get(k).getValue(i, j);
 						sum = sum
-								+ loadedPinPowers.get(l).get(k)
-										.getElementValue(i, j)
-								* weights.get(l).get(k).getElement(i, j);
+								+ assemblyPowers.get(k).getElementValue(i, j)
+								* weight;
 						if (calculateDiffs) {
 							diffSum = diffSum
-									+ differences.getPinPowerDifference()
-											.get(l).get(k).getElement(i, j)
-									* weights.get(l).get(k).getElement(i, j);
+									+ assemblyDiffs.get(k).getValue(i, j)
+									* weight;
 						}
-						weightSum = weightSum
-								+ weights.get(l).get(k).getElement(i, j);
+						weightSum = weightSum + weight;
 					}
-					matrix.setElement(i, j,
-							Math.sqrt(Math.abs(sum / weightSum)));
+					matrix.setValue(i, j, Math.sqrt(Math.abs(sum / weightSum)));
 					if (calculateDiffs) {
-						diffMat.setElement(i, j,
+						diffMat.setValue(i, j,
 								Math.sqrt(Math.abs(diffSum / weightSum)));
 						radialPowerDiff.add(diffMat);
 					}
-					drMat.setElement(i, j, weightSum);
+					drMat.setValue(i, j, weightSum);
 					sum = 0.0;
 					weightSum = 0.0;
 					diffSum = 0.0;
@@ -178,30 +183,25 @@ public class RadialPower extends GodfreySubStrategy {
 
 		// Calculate Radial avgs and rms
 		for (int l = 0; l < nAssemblies; l++) {
+			drMat = dr.get(l);
+			assemblyPowers = loadedPinPowers.get(l);
+			if (calculateDiffs) {
+				assemblyDiffs = differences.getPinPowerDifference().get(l);
+			}
 			for (int i = 0; i < nRows; i++) {
 				for (int j = 0; j < nCols; j++) {
+					weight = drMat.getValue(i, j);
 					for (int k = 0; k < nAxial; k++) {
-						sum = sum
-								+ loadedPinPowers.get(l).get(k)
-										.getElementValue(i, j)
-								* dr.get(l).getElement(i, j);
-
-						rmsSum = rmsSum
-								+ Math.pow(loadedPinPowers.get(l).get(k)
-										.getElementValue(i, j), 2)
-								* dr.get(l).getElement(i, j);
+						power = assemblyPowers.get(k).getElementValue(i, j);
+						sum = sum + power * weight;
+						rmsSum = rmsSum + Math.pow(power, 2) * weight;
 						if (calculateDiffs) {
-							diffSum = diffSum
-									+ differences.getPinPowerDifference()
-											.get(l).get(k).getElement(i, j)
-									* dr.get(l).getElement(i, j);
-							diffSumRms = diffSumRms
-									+ Math.pow(differences
-											.getPinPowerDifference().get(l)
-											.get(k).getElement(i, j), 2)
-									* dr.get(l).getElement(i, j);
+							difference = assemblyDiffs.get(k).getValue(i, j);
+							diffSum = diffSum + difference * weight;
+							diffSumRms = diffSumRms + Math.pow(difference, 2)
+									* weight;
 						}
-						weightSum = weightSum + dr.get(l).getElement(i, j);
+						weightSum = weightSum + weight;
 					}
 				}
 			}
@@ -230,7 +230,8 @@ public class RadialPower extends GodfreySubStrategy {
 	private boolean createAsset() {
 
 		ArrayList<String> fileContents = new ArrayList<String>();
-		String line = "", contents = "";
+		String line = "";
+		StringBuilder contents = new StringBuilder();
 		DecimalFormat formatter = new DecimalFormat("#.####");
 
 		// Get the default project, which should be
@@ -310,13 +311,13 @@ public class RadialPower extends GodfreySubStrategy {
 		// Convert the ArrayList to one string
 		// so we can use the getBytes method
 		for (String s : fileContents) {
-			contents = contents + s + "\n";
+			contents.append(s).append("\n");
 		}
 
 		// Create the IFile with a ByteArrayInputStream
 		try {
-			file.create(new ByteArrayInputStream(contents.getBytes()), false,
-					null);
+			file.create(new ByteArrayInputStream(contents.toString()
+					.getBytes()), false, null);
 		} catch (CoreException e) {
 			logger.error(getClass().getName() + " Exception!",e);
 			return false;
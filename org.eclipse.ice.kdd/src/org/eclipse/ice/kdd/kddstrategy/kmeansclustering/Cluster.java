@@ -126,12 +126,10 @@ public class Cluster {
 		}
 
 		// Divide by the number of elements in this cluster
-		for (int i = 0; i < nRows; i++) {
-			if (!data.isEmpty()) {
-				sumVector.setElement(i, 0,
-						sumVector.getElement(i, 0) / data.size());
-			} else {
-				sumVector.setElement(i, 0, sumVector.getElement(i, 0));
+		if (!data.isEmpty()) {
+			for (int i = 0; i < nRows; i++) {
+				sumVector.setValue(i, 0, sumVector.getValue(i, 0)
+						/ data.size());
 			}
 		}
 
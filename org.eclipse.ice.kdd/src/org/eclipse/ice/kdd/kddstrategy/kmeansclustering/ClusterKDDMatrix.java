@@ -15,7 +15,11 @@ package org.eclipse.ice.kdd.kddstrategy.kmeansclustering;
 import java.io.ByteArrayInputStream;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -43,6 +47,18 @@ public class ClusterKDDMatrix extends KDDMatrix {
 	private static final Logger logger = LoggerFactory
 			.getLogger(ClusterKDDMatrix.class);
 	
+	/**
+	 * The pool that assigns the rows to their clusters in parallel, shared by
+	 * all matrices.
+	 */
+	private static final ForkJoinPool pool = new ForkJoinPool();
+
+	/**
+	 * The number of rows below which an assignment task is not split any
+	 * further.
+	 */
+	private static final int rowThreshold = 512;
+
 	/**
 	 * The distance metric
 	 */
@@ -190,6 +206,266 @@ public class ClusterKDDMatrix extends KDDMatrix {
 		return;
 	}
 
+	/**
+	 * <p>
+	 * This method performs a KMeans cluster algorithm on the rows of this
+	 * matrix with the Euclidean distance, producing the same Clusters as
+	 * cluster(int, int). The initial centroids are chosen with the KMeans++
+	 * seeding, the rows are assigned to their nearest centroid in parallel and
+	 * the centroids are updated only with the rows that changed clusters. The
+	 * iterations stop when no centroid moves by more than the tolerance.
+	 * </p>
+	 * <p>
+	 * If the batch size is positive and smaller than the number of rows, the
+	 * centroids are refined with mini-batches of that many random rows
+	 * instead, and all of the rows are assigned to the final centroids.
+	 * </p>
+	 * 
+	 * @param nClusters
+	 *            The number of clusters to produce
+	 * @param maxIterations
+	 *            The largest number of iterations used to refine the clusters
+	 * @param tolerance
+	 *            The largest distance a centroid may move in an iteration for
+	 *            the clusters to be considered converged
+	 * @param batchSize
+	 *            The number of rows in a mini-batch, or 0 to use all of the
+	 *            rows in each iteration
+	 * @param seed
+	 *            The seed of the random number generator used to pick the
+	 *            initial centroids and the mini-batches
+	 * @return The number of iterations performed
+	 * @throws IllegalArgumentException
+	 *             If the number of clusters is not between 1 and the number of
+	 *             rows, or if the number of iterations is negative
+	 */
+	public int cluster(int nClusters, int maxIterations, double tolerance,
+			int batchSize, long seed) throws IllegalArgumentException {
+
+		// Check the arguments
+		if (nClusters < 1 || nClusters > nRows) {
+			throw new IllegalArgumentException("ClusterKDDMatrix Message: "
+					+ "Cannot produce " + nClusters + " clusters from "
+					+ nRows + " rows.");
+		} else if (maxIterations < 0) {
+			throw new IllegalArgumentException("ClusterKDDMatrix Message: "
+					+ "The number of iterations cannot be negative.");
+		}
+
+		// Local Declarations
+		Random random = new Random(seed);
+		double[] centroids = new double[nClusters * nCols];
+		double[] oldCentroids = new double[nClusters * nCols];
+		int[] assignments = new int[nRows];
+		int nIterations = 0;
+
+		// Clear any old clusters from a previous run
+		clusters.clear();
+
+		// Choose the initial centroids
+		seedCentroids(centroids, nClusters, random);
+
+		if (batchSize > 0 && batchSize < nRows) {
+			// Refine the centroids with mini-batches of random rows. Each
+			// centroid moves towards the rows of the batch assigned to it by
+			// one over the number of rows it has been assigned so far.
+			int[] batch = new int[batchSize];
+			int[] batchAssignments = new int[batchSize];
+			int[] counts = new int[nClusters];
+			while (nIterations < maxIterations) {
+				for (int i = 0; i < batchSize; i++) {
+					batch[i] = random.nextInt(nRows);
+				}
+				pool.invoke(new AssignmentTask(elements, nCols, centroids,
+						nClusters, batch, batchAssignments, 0, batchSize));
+				System.arraycopy(centroids, 0, oldCentroids, 0,
+						centroids.length);
+				for (int i = 0; i < batchSize; i++) {
+					int k = batchAssignments[i];
+					double rate = 1.0 / ++counts[k];
+					int rowOffset = batch[i] * nCols;
+					int centroidOffset = k * nCols;
+					for (int j = 0; j < nCols; j++) {
+						centroids[centroidOffset + j] += rate
+								* (elements[rowOffset + j] - centroids[centroidOffset
+										+ j]);
+					}
+				}
+				nIterations++;
+				if (getLargestShift(oldCentroids, centroids, nClusters) <= tolerance) {
+					break;
+				}
+			}
+
+			// Assign all of the rows to the final centroids
+			pool.invoke(new AssignmentTask(elements, nCols, centroids,
+					nClusters, null, assignments, 0, nRows));
+		} else {
+			// Refine the centroids with all of the rows. The sums of the rows
+			// of each cluster are kept so that only the rows that changed
+			// clusters need to be added and removed.
+			int[] newAssignments = new int[nRows];
+			double[] sums = new double[nClusters * nCols];
+			int[] counts = new int[nClusters];
+			Arrays.fill(assignments, -1);
+			while (nIterations < maxIterations) {
+				pool.invoke(new AssignmentTask(elements, nCols, centroids,
+						nClusters, null, newAssignments, 0, nRows));
+				nIterations++;
+
+				// Move the rows that changed clusters
+				boolean moved = false;
+				for (int i = 0; i < nRows; i++) {
+					int from = assignments[i], to = newAssignments[i];
+					if (from != to) {
+						int rowOffset = i * nCols;
+						if (from >= 0) {
+							int fromOffset = from * nCols;
+							for (int j = 0; j < nCols; j++) {
+								sums[fromOffset + j] -= elements[rowOffset + j];
+							}
+							counts[from]--;
+						}
+						int toOffset = to * nCols;
+						for (int j = 0; j < nCols; j++) {
+							sums[toOffset + j] += elements[rowOffset + j];
+						}
+						counts[to]++;
+						assignments[i] = to;
+						moved = true;
+					}
+				}
+				if (!moved) {
+					break;
+				}
+
+				// Compute the new centroids. Empty clusters keep theirs.
+				System.arraycopy(centroids, 0, oldCentroids, 0,
+						centroids.length);
+				for (int k = 0; k < nClusters; k++) {
+					if (counts[k] > 0) {
+						int offset = k * nCols;
+						for (int j = 0; j < nCols; j++) {
+							centroids[offset + j] = sums[offset + j]
+									/ counts[k];
+						}
+					}
+				}
+				if (getLargestShift(oldCentroids, centroids, nClusters) <= tolerance) {
+					break;
+				}
+			}
+
+			// Without iterations, the rows still belong to the seeds
+			if (nIterations == 0) {
+				pool.invoke(new AssignmentTask(elements, nCols, centroids,
+						nClusters, null, assignments, 0, nRows));
+			}
+		}
+
+		// Create the clusters from the assignments
+		for (int k = 0; k < nClusters; k++) {
+			clusters.add(new Cluster(k));
+		}
+		for (int i = 0; i < nRows; i++) {
+			clusters.get(assignments[i]).addVector(
+					new KDDMatrix(Arrays.copyOfRange(elements, i * nCols,
+							(i + 1) * nCols), nCols, 1));
+		}
+
+		// Debug
+		for (Cluster c : clusters) {
+			logger.info("\n[ICE KDD] Cluster " + c.getClusterIndex() + " has "
+					+ c.numberOfElements() + " data elements after \n\t"
+					+ "parallel KMeans clustering algorithm with "
+					+ nIterations + " iterations.");
+		}
+
+		return nIterations;
+	}
+
+	/**
+	 * <p>
+	 * This method chooses the initial centroids with the KMeans++ seeding. The
+	 * first centroid is a random row and each of the others is a row picked
+	 * with a probability proportional to its squared distance to the nearest
+	 * centroid chosen so far.
+	 * </p>
+	 * 
+	 * @param centroids
+	 *            The array that receives the centroids, one after the other
+	 * @param nClusters
+	 *            The number of centroids to choose
+	 * @param random
+	 *            The random number generator
+	 */
+	private void seedCentroids(double[] centroids, int nClusters,
+			Random random) {
+
+		// The squared distance of each row to its nearest centroid
+		double[] distances = new double[nRows];
+		Arrays.fill(distances, Double.POSITIVE_INFINITY);
+
+		int row = random.nextInt(nRows);
+		System.arraycopy(elements, row * nCols, centroids, 0, nCols);
+		for (int k = 1; k < nClusters; k++) {
+			// Update the distances with the last centroid
+			pool.invoke(new SeedingTask(elements, nCols, centroids, k - 1,
+					distances, 0, nRows));
+
+			// Pick the next row
+			double total = 0.0;
+			for (int i = 0; i < nRows; i++) {
+				total += distances[i];
+			}
+			if (total > 0.0) {
+				double target = random.nextDouble() * total;
+				row = 0;
+				while (row < nRows - 1
+						&& (target -= distances[row]) >= 0.0) {
+					row++;
+				}
+				// Never pick a row that is already a centroid
+				while (distances[row] == 0.0) {
+					row = (row == 0 ? nRows : row) - 1;
+				}
+			} else {
+				row = random.nextInt(nRows);
+			}
+			System.arraycopy(elements, row * nCols, centroids, k * nCols,
+					nCols);
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This method returns the largest Euclidean distance between the old and
+	 * new positions of the centroids.
+	 * </p>
+	 * 
+	 * @param oldCentroids
+	 * @param centroids
+	 * @param nClusters
+	 * @return
+	 */
+	private double getLargestShift(double[] oldCentroids, double[] centroids,
+			int nClusters) {
+		double largestShift = 0.0;
+		for (int k = 0; k < nClusters; k++) {
+			int offset = k * nCols;
+			double shift = 0.0;
+			for (int j = 0; j < nCols; j++) {
+				double difference = centroids[offset + j]
+						- oldCentroids[offset + j];
+				shift += difference * difference;
+			}
+			largestShift = Math.max(largestShift, shift);
+		}
+		return Math.sqrt(largestShift);
+	}
+
 	/**
 	 * <p>
 	 * Return the largest element in this matrix.
@@ -198,7 +474,7 @@ public class ClusterKDDMatrix extends KDDMatrix {
 	 * @return
 	 */
 	private Double getMaxMatrixElement() {
-		return Collections.max(elements);
+		return getMaxElement();
 	}
 
 	/**
@@ -209,7 +485,7 @@ public class ClusterKDDMatrix extends KDDMatrix {
 	 * @return
 	 */
 	private Double getMinMatrixElement() {
-		return Collections.min(elements);
+		return getMinElement();
 	}
 
 	/**
@@ -290,7 +566,8 @@ public class ClusterKDDMatrix extends KDDMatrix {
 		}
 
 		// Local declarations to write data to file
-		String line = "", contents = "";
+		String line = "";
+		StringBuilder contents = new StringBuilder();
 		ArrayList<String> fileContents = new ArrayList<String>();
 
 		// Loop over all the clusters...
@@ -317,13 +594,13 @@ public class ClusterKDDMatrix extends KDDMatrix {
 		// Convert the arraylist to one string
 		// so we can use the getBytes method
 		for (String s : fileContents) {
-			contents = contents + s + "\n";
+			contents.append(s).append("\n");
 		}
 
 		// Create the IFile with a ByteArrayInputStream
 		try {
-			file.create(new ByteArrayInputStream(contents.getBytes()), false,
-					null);
+			file.create(new ByteArrayInputStream(contents.toString()
+					.getBytes()), false, null);
 		} catch (CoreException e) {
 			logger.error(getClass().getName() + " Exception!",e);
 			// Maybe check if file is there, delete it...
@@ -400,4 +677,151 @@ public class ClusterKDDMatrix extends KDDMatrix {
 		return;
 	}
 
+	/**
+	 * <p>
+	 * AssignmentTask assigns a range of rows to their nearest centroid,
+	 * splitting the range between the threads of the pool.
+	 * </p>
+	 */
+	private static class AssignmentTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The elements of the matrix and the centroids, in row major order.
+		 */
+		private final double[] elements, centroids;
+
+		/**
+		 * The number of columns and clusters, and the range of rows.
+		 */
+		private final int nCols, nClusters, start, end;
+
+		/**
+		 * The indices of the rows to assign, or null to assign the rows
+		 * themselves.
+		 */
+		private final int[] rows;
+
+		/**
+		 * The index of the nearest centroid of each row.
+		 */
+		private final int[] assignments;
+
+		public AssignmentTask(double[] elements, int nCols,
+				double[] centroids, int nClusters, int[] rows,
+				int[] assignments, int start, int end) {
+			this.elements = elements;
+			this.nCols = nCols;
+			this.centroids = centroids;
+			this.nClusters = nClusters;
+			this.rows = rows;
+			this.assignments = assignments;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+
+			// Split the range until it is small enough
+			if (end - start > rowThreshold) {
+				int middle = (start + end) >>> 1;
+				invokeAll(new AssignmentTask(elements, nCols, centroids,
+						nClusters, rows, assignments, start, middle),
+						new AssignmentTask(elements, nCols, centroids,
+								nClusters, rows, assignments, middle, end));
+				return;
+			}
+
+			for (int i = start; i < end; i++) {
+				int rowOffset = (rows == null ? i : rows[i]) * nCols;
+				int nearest = 0;
+				double nearestDistance = Double.POSITIVE_INFINITY;
+				for (int k = 0; k < nClusters; k++) {
+					// Stop adding up as soon as this centroid is farther
+					int offset = k * nCols;
+					double distance = 0.0;
+					for (int j = 0; j < nCols && distance < nearestDistance; j++) {
+						double difference = elements[rowOffset + j]
+								- centroids[offset + j];
+						distance += difference * difference;
+					}
+					if (distance < nearestDistance) {
+						nearestDistance = distance;
+						nearest = k;
+					}
+				}
+				assignments[i] = nearest;
+			}
+
+			return;
+		}
+	}
+
+	/**
+	 * <p>
+	 * SeedingTask lowers the squared distance of each row in a range to its
+	 * nearest centroid with the distance to a new centroid, splitting the
+	 * range between the threads of the pool.
+	 * </p>
+	 */
+	private static class SeedingTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The elements of the matrix, the centroids and the squared distance
+		 * of each row to its nearest centroid.
+		 */
+		private final double[] elements, centroids, distances;
+
+		/**
+		 * The number of columns, the index of the new centroid and the range of
+		 * rows.
+		 */
+		private final int nCols, centroid, start, end;
+
+		public SeedingTask(double[] elements, int nCols, double[] centroids,
+				int centroid, double[] distances, int start, int end) {
+			this.elements = elements;
+			this.nCols = nCols;
+			this.centroids = centroids;
+			this.centroid = centroid;
+			this.distances = distances;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+
+			// Split the range until it is small enough
+			if (end - start > rowThreshold) {
+				int middle = (start + end) >>> 1;
+				invokeAll(new SeedingTask(elements, nCols, centroids,
+						centroid, distances, start, middle), new SeedingTask(
+						elements, nCols, centroids, centroid, distances,
+						middle, end));
+				return;
+			}
+
+			int offset = centroid * nCols;
+			for (int i = start; i < end; i++) {
+				int rowOffset = i * nCols;
+				double distance = 0.0;
+				for (int j = 0; j < nCols; j++) {
+					double difference = elements[rowOffset + j]
+							- centroids[offset + j];
+					distance += difference * difference;
+				}
+				if (distance < distances[i]) {
+					distances[i] = distance;
+				}
+			}
+
+			return;
+		}
+	}
+
 }
\ No newline at end of file
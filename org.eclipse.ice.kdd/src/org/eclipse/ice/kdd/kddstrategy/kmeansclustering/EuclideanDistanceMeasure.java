@@ -32,12 +32,12 @@ public class EuclideanDistanceMeasure implements DistanceMeasure {
 					"Error: Vector lengths not equal.");
 		}
 		// Initialize a sum variable
-		Double sum = 0.0, temp = 0.0;
+		double sum = 0.0, temp = 0.0;
 
 		// Sum up (c_i - a_i)^2
 		for (int i = 0; i < vector1.numberOfRows(); i++) {
-			temp = vector1.getElement(i, 0) - vector2.getElement(i, 0);
-			sum += Math.pow(temp, 2);
+			temp = vector1.getValue(i, 0) - vector2.getValue(i, 0);
+			sum += temp * temp;
 		}
 
 		return Math.sqrt(sum);
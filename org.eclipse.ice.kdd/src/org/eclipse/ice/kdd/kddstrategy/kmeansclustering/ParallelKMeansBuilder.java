@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.kdd.kddstrategy.kmeansclustering;
+
+import java.util.ArrayList;
+
+import org.eclipse.ice.analysistool.IDataProvider;
+import org.eclipse.ice.datastructures.form.Entry;
+import org.eclipse.ice.kdd.kddstrategy.IStrategyBuilder;
+import org.eclipse.ice.kdd.kddstrategy.KDDStrategy;
+
+/**
+ * The ParallelKMeansBuilder is a realization of the KDDStrategyBuilder and is
+ * used to validate incoming data and return a new instance of the
+ * ParallelKMeansStrategy. It accepts the same data as the RawKMeansBuilder.
+ */
+public class ParallelKMeansBuilder implements IStrategyBuilder {
+
+	/**
+	 * Reference to the ParallelKMeansStrategy to build and return.
+	 */
+	private ParallelKMeansStrategy kmeans = null;
+
+	/*
+	 * Implements a method in IStrategyBuilder.
+	 */
+	@Override
+	public KDDStrategy build(ArrayList<IDataProvider> data) {
+		if (kmeans != null) {
+			return kmeans;
+		} else {
+			return null;
+		}
+	}
+
+	/*
+	 * Implements a method in IStrategyBuilder.
+	 */
+	@Override
+	public String getStrategyName() {
+		return "Parallel KMeans Clustering";
+	}
+
+	/*
+	 * Implements a method in IStrategyBuilder.
+	 */
+	@Override
+	public boolean isAvailable(ArrayList<IDataProvider> dataToCheck) {
+
+		// Create the matrix to cluster
+		ClusterKDDMatrix matrix = RawKMeansBuilder.createMatrix(dataToCheck);
+		if (matrix == null) {
+			return false;
+		}
+
+		// Create the Strategy
+		kmeans = new ParallelKMeansStrategy(matrix);
+
+		return true;
+	}
+
+	/*
+	 * Implements a method in IStrategyBuilder.
+	 */
+	@Override
+	public ArrayList<Entry> getStrategyPropertiesAsEntries() {
+		ArrayList<Entry> retEntries = new ArrayList<Entry>();
+		return retEntries;
+	}
+}
@@ -0,0 +1,282 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.kdd.kddstrategy.kmeansclustering;
+
+import java.util.ArrayList;
+
+import org.eclipse.ice.analysistool.IDataProvider;
+import org.eclipse.ice.datastructures.form.AllowedValueType;
+import org.eclipse.ice.datastructures.form.Entry;
+import org.eclipse.ice.kdd.kddstrategy.KDDStrategy;
+
+/**
+ * <p>
+ * ParallelKMeansStrategy is a subclass of KDDStrategy that runs the parallel
+ * KMeans clustering algorithm of the ClusterKDDMatrix on a raw data set
+ * (matrix). Unlike the RawKMeansStrategy, it seeds the centroids with the
+ * KMeans++ algorithm and refines them until they stop moving by more than a
+ * tolerance or the maximum number of iterations is reached, optionally with
+ * mini-batches of random rows for large data sets. It creates the same file of
+ * cluster points as the RawKMeansStrategy.
+ * </p>
+ * <p>
+ * It expects the same IDataProvider features as the RawKMeansStrategy: "Data",
+ * "Number of Rows" and "Number of Columns".
+ * </p>
+ */
+public class ParallelKMeansStrategy extends KDDStrategy {
+	/**
+	 * <p>
+	 * Reference to this ParallelKMeansStrategy's ClusterKDDMatrix that clusters
+	 * its matrix data into N centroids.
+	 * </p>
+	 * 
+	 */
+	private ClusterKDDMatrix matrixToCluster;
+
+	/**
+	 * <p>
+	 * The number of iterations performed by the last execution of this
+	 * strategy.
+	 * </p>
+	 * 
+	 */
+	private int nIterations;
+
+	/**
+	 * <p>
+	 * The constructor, takes an array of IDataProviders. By convention, the
+	 * first IDataProvider of that array will be the loaded data to be analyzed.
+	 * Any other IDataProviders will be reference or extra data.
+	 * </p>
+	 * 
+	 * @param data
+	 * @throws IllegalArgumentException
+	 */
+	public ParallelKMeansStrategy(ArrayList<IDataProvider> data)
+			throws IllegalArgumentException {
+		super("Parallel KMeans", data);
+
+		// Create the matrix to cluster
+		matrixToCluster = new ClusterKDDMatrix(data.get(0));
+
+		// Initialize and populate the properties
+		// map for this IAnalysisAsset
+		setDefaultProperties();
+	}
+
+	/**
+	 * <p>
+	 * Constructor used for injecting a specific ClusterKDDMatrix. Primarily
+	 * used for unit testing.
+	 * </p>
+	 * 
+	 * @param matrix
+	 */
+	public ParallelKMeansStrategy(ClusterKDDMatrix matrix) {
+		super("Parallel KMeans", null);
+		matrixToCluster = matrix;
+
+		setDefaultProperties();
+	}
+
+	/**
+	 * <p>
+	 * This operation puts the default properties of this IAnalysisAsset in its
+	 * properties map.
+	 * </p>
+	 * 
+	 */
+	private void setDefaultProperties() {
+		properties.put("Number of Clusters", "2");
+		properties.put("Maximum Iterations", "100");
+		properties.put("Tolerance", "1.0E-6");
+		properties.put("Mini-Batch Size", "0");
+		properties.put("Random Seed", "1");
+		properties.put("Visualization Dimension", "2");
+		properties.put("Distance Measure", "Euclidean");
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the asset's properties as a list of Entry objects.
+	 * </p>
+	 * 
+	 * @return
+	 */
+	@Override
+	public ArrayList<Entry> getPropertiesAsEntryList() {
+		ArrayList<Entry> retList = new ArrayList<Entry>();
+
+		Entry nClusters = new Entry() {
+			@Override
+			public void setup() {
+				// Set the particulars
+				this.objectName = "Number of Clusters";
+				this.uniqueId = 1;
+				this.objectDescription = "Indicate the number of clusters to produce.";
+				// Set the data sources list
+				allowedValueType = AllowedValueType.Continuous;
+			}
+		};
+		retList.add(nClusters);
+
+		Entry nIters = new Entry() {
+			@Override
+			public void setup() {
+				// Set the particulars
+				this.objectName = "Maximum Iterations";
+				this.uniqueId = 2;
+				this.objectDescription = "Indicate the largest number of iterations to use in this clustering algorithm.";
+				// Set the data sources list
+				allowedValueType = AllowedValueType.Continuous;
+			}
+		};
+		retList.add(nIters);
+
+		Entry tolerance = new Entry() {
+			@Override
+			public void setup() {
+				// Set the particulars
+				this.objectName = "Tolerance";
+				this.uniqueId = 3;
+				this.objectDescription = "Indicate the largest centroid shift at which the clusters are converged.";
+				// Set the data sources list
+				allowedValueType = AllowedValueType.Continuous;
+			}
+		};
+		retList.add(tolerance);
+
+		Entry batchSize = new Entry() {
+			@Override
+			public void setup() {
+				// Set the particulars
+				this.objectName = "Mini-Batch Size";
+				this.uniqueId = 4;
+				this.objectDescription = "Indicate the number of rows in each mini-batch, or 0 to use all of the rows.";
+				// Set the data sources list
+				allowedValueType = AllowedValueType.Continuous;
+			}
+		};
+		retList.add(batchSize);
+
+		Entry seed = new Entry() {
+			@Override
+			public void setup() {
+				// Set the particulars
+				this.objectName = "Random Seed";
+				this.uniqueId = 5;
+				this.objectDescription = "Indicate the seed used to pick the initial centroids and mini-batches.";
+				// Set the data sources list
+				allowedValueType = AllowedValueType.Continuous;
+			}
+		};
+		retList.add(seed);
+
+		Entry dm = new Entry() {
+			@Override
+			public void setup() {
+				// Set the particulars
+				this.objectName = "Distance Measure";
+				this.uniqueId = 6;
+				this.objectDescription = "Indicate the distance measure to use in this clustering algorithm.";
+
+				// Set the data sources list
+				allowedValueType = AllowedValueType.Discrete;
+				allowedValues.add("Euclidean");
+			}
+		};
+		retList.add(dm);
+
+		return retList;
+	}
+
+	/**
+	 * <p>
+	 * Return the number of clusters after the kmeans clustering algorithm is
+	 * executed.
+	 * </p>
+	 * 
+	 * @return
+	 */
+	public int getNumberOfClusters() {
+		return matrixToCluster.getNumberOfClusters();
+	}
+
+	/**
+	 * <p>
+	 * Return the number of iterations performed by the last execution of the
+	 * kmeans clustering algorithm.
+	 * </p>
+	 * 
+	 * @return
+	 */
+	public int getNumberOfIterations() {
+		return nIterations;
+	}
+
+	@Override
+	public boolean executeStrategy() {
+
+		// Get a copy of the old matrix, just in case this
+		// fails
+		ClusterKDDMatrix oldMatrix = new ClusterKDDMatrix();
+		oldMatrix.copy(matrixToCluster);
+
+		try {
+			// Get the clusters, watching for invalid properties
+			nIterations = matrixToCluster.cluster(
+					Integer.parseInt(properties.get("Number of Clusters")),
+					Integer.parseInt(properties.get("Maximum Iterations")),
+					Double.parseDouble(properties.get("Tolerance")),
+					Integer.parseInt(properties.get("Mini-Batch Size")),
+					Long.parseLong(properties.get("Random Seed")));
+		} catch (IllegalArgumentException ex) {
+			// Fail if invalid properties
+			logger.error(getClass().getName() + " Exception!", ex);
+			return false;
+		}
+
+		// Create the Asset
+		if (!createAsset()) {
+			// If it failed, reset the old ClusterKDDMatrix
+			matrixToCluster = oldMatrix;
+			return false;
+		} else {
+			return true;
+		}
+	}
+
+	protected boolean createAsset() {
+		// Get the number of dimensions to visualize this data in
+		String dimensions = properties.get("Visualization Dimension");
+		int d = 0;
+		// Convert it to an integer, if you can
+		try {
+			d = Integer.parseInt(dimensions);
+		} catch (NumberFormatException ex) {
+			logger.error(getClass().getName() + " Exception!", ex);
+			return false;
+		}
+
+		// We need to scale the clusters if its dimensionality
+		// is greater than 3 (can't visualize it efficiently otherwise)
+		if (matrixToCluster.numberOfColumns() > 3 && (d > 0 && d < 3)) {
+			matrixToCluster.scaleData(d);
+		}
+
+		// Now construct the URI for ICE to use
+		uri = matrixToCluster.plot();
+		return true;
+	}
+}
@@ -58,9 +58,32 @@ public class RawKMeansBuilder implements IStrategyBuilder {
 	@Override
 	public boolean isAvailable(ArrayList<IDataProvider> dataToCheck) {
 
+		// Create the matrix to cluster
+		ClusterKDDMatrix matrix = createMatrix(dataToCheck);
+		if (matrix == null) {
+			return false;
+		}
+
+		// Create the Strategy
+		kmeans = new RawKMeansStrategy(matrix);
+
+		return true;
+	}
+
+	/**
+	 * This operation validates the incoming data and creates the
+	 * ClusterKDDMatrix to cluster from it. It is shared with the
+	 * ParallelKMeansBuilder.
+	 * 
+	 * @param dataToCheck
+	 *            The data providers
+	 * @return The matrix, or null if the data is not valid
+	 */
+	static ClusterKDDMatrix createMatrix(ArrayList<IDataProvider> dataToCheck) {
+
 		// Make sure we have only one data provider
 		if (dataToCheck.isEmpty() || dataToCheck.size() != 1) {
-			return false;
+			return null;
 		}
 
 		// Get the data provider
@@ -71,7 +94,7 @@ public class RawKMeansBuilder implements IStrategyBuilder {
 		if (!provider.getFeatureList().contains("Data")
 				|| !provider.getFeatureList().contains("Number of Rows")
 				|| !provider.getFeatureList().contains("Number of Columns")) {
-			return false;
+			return null;
 		}
 
 		// Make sure those features, since they exist contain
@@ -83,17 +106,17 @@ public class RawKMeansBuilder implements IStrategyBuilder {
 		ArrayList<IData> dataElements = provider.getDataAtCurrentTime("Data");
 
 		if (rowElements.size() != 1 || colElements.size() != 1) {
-			return false;
+			return null;
 		}
 
 		// We've made it here, the nRows and nCols are valid
 		double nDRows = rowElements.get(0).getValue();
 		double nDCols = colElements.get(0).getValue();
 		if (nDRows != (int) rowElements.get(0).getValue()) {
-			return false;
+			return null;
 		}
 		if (nDCols != (int) colElements.get(0).getValue()) {
-			return false;
+			return null;
 		}
 
 		// Cast them to integers
@@ -102,7 +125,7 @@ public class RawKMeansBuilder implements IStrategyBuilder {
 
 		// Make sure we have the correct number of data elements
 		if (dataElements.size() != nRows * nCols) {
-			return false;
+			return null;
 		}
 
 		// Convert them to Doubles for ClusterKDDMatrix
@@ -111,11 +134,7 @@ public class RawKMeansBuilder implements IStrategyBuilder {
 			elements.add(data.getValue());
 		}
 
-		// Create the Strategy
-		kmeans = new RawKMeansStrategy(new ClusterKDDMatrix(elements, nRows,
-				nCols));
-
-		return true;
+		return new ClusterKDDMatrix(elements, nRows, nCols);
 	}
 
 	/*
@@ -0,0 +1,284 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.materials.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+
+import org.eclipse.ice.datastructures.ICEObject.ICEList;
+import org.eclipse.ice.datastructures.form.Material;
+import org.eclipse.ice.materials.IndexedMaterialsDatabase;
+import org.eclipse.ice.materials.MaterialWritableTableFormat;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * This class is responsible for testing the IndexedMaterialsDatabase class.
+ * The database files are written in the $HOME/ICETests directory, which must
+ * exist in advance.
+ */
+public class IndexedMaterialsDatabaseTester {
+
+	/**
+	 * The test file used for the database modified by the user.
+	 */
+	private File userTestFile;
+
+	/**
+	 * The test file used as a default database that isn't modified by the user.
+	 */
+	private File defaultTestFile;
+
+	/**
+	 * The journal of the user test file.
+	 */
+	private File journalFile;
+
+	/**
+	 * The materials in the test files.
+	 */
+	private ArrayList<Material> materials;
+
+	/**
+	 * This operation writes CO2, H2O and the isotopes of iron to the test
+	 * files.
+	 */
+	@Before
+	public void before() {
+
+		// Get the file handle for the test files
+		String separator = System.getProperty("file.separator");
+		String path = System.getProperty("user.home") + separator + "ICETests"
+				+ separator;
+		userTestFile = new File(path + "userIndexedMaterialDatabase.xml");
+		defaultTestFile = new File(path + "defaultIndexedMaterialDatabase.xml");
+		journalFile = new File(userTestFile.getPath() + ".journal");
+		journalFile.delete();
+
+		// Create the materials
+		materials = new ArrayList<Material>();
+		materials.add(TestMaterialFactory.createCO2());
+		materials.add(TestMaterialFactory.createH2O());
+		materials.add(createElement("56Fe", 55.93));
+		materials.add(createElement("Fe", 55.85));
+		materials.add(createElement("54Fe", 53.94));
+		materials.add(createElement("Ferrite", 55.85));
+
+		// Write them
+		ICEList<Material> jaxbMaterialsList = new ICEList<Material>();
+		jaxbMaterialsList.setList(materials);
+		try {
+			JAXBContext jaxbContext = JAXBContext.newInstance(ICEList.class,
+					Material.class);
+			Marshaller jaxbMarshaller = jaxbContext.createMarshaller();
+			jaxbMarshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+			jaxbMarshaller.marshal(jaxbMaterialsList, userTestFile);
+			jaxbMarshaller.marshal(jaxbMaterialsList, defaultTestFile);
+		} catch (JAXBException e) {
+			e.printStackTrace();
+			fail();
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation removes the test files.
+	 */
+	@After
+	public void after() {
+		userTestFile.delete();
+		defaultTestFile.delete();
+		journalFile.delete();
+	}
+
+	/**
+	 * This operation checks that the database loads the files and that
+	 * changes are kept across restarts and removed by restoreDefaults().
+	 */
+	@Test
+	public void checkDatabase() {
+
+		// Start the service with the test constructor
+		IndexedMaterialsDatabase database = new IndexedMaterialsDatabase(
+				userTestFile, defaultTestFile);
+		database.start();
+
+		// Make sure it loaded all of the materials, including the components
+		List<Material> databaseMaterials = database.getMaterials();
+		assertEquals(materials.size(), databaseMaterials.size());
+		for (Material material : materials) {
+			assertTrue(databaseMaterials.contains(material));
+		}
+		// The same instances should be returned every time
+		assertSame(databaseMaterials.get(0), database.getMaterials().get(0));
+		assertSame(databaseMaterials.get(0),
+				database.getMaterial(databaseMaterials.get(0).getName()));
+
+		// Add, update and delete materials
+		Material co2 = TestMaterialFactory.createCO2();
+		co2.setName("CO2_2");
+		database.addMaterial(co2);
+		Material h2o = TestMaterialFactory.createH2O();
+		h2o.setProperty("molar mass (g/mol)", 20.0);
+		database.updateMaterial(h2o);
+		database.deleteMaterial("Ferrite");
+		databaseMaterials = database.getMaterials();
+		assertEquals(materials.size(), databaseMaterials.size());
+		assertTrue(databaseMaterials.contains(co2));
+		assertTrue(databaseMaterials.contains(h2o));
+		assertNull(database.getMaterial("Ferrite"));
+		// The changes should be in the journal, not in the user database
+		assertTrue(journalFile.exists());
+
+		// Change a material directly, which is saved when the service stops
+		database.getMaterial("Fe").setProperty("M (amu)", 56.0);
+
+		// Restart the service and make sure the changes were kept
+		database.stop();
+		database.start();
+		List<Material> reloadedMaterials = database.getMaterials();
+		assertEquals(databaseMaterials.size(), reloadedMaterials.size());
+		for (Material material : databaseMaterials) {
+			assertTrue(reloadedMaterials.contains(material));
+		}
+		assertEquals(56.0, database.getMaterial("Fe").getProperty("M (amu)"),
+				0.0);
+
+		// Restore the defaults and make sure they persist
+		database.restoreDefaults();
+		reloadedMaterials = database.getMaterials();
+		assertEquals(materials.size(), reloadedMaterials.size());
+		for (Material material : materials) {
+			assertTrue(reloadedMaterials.contains(material));
+		}
+		assertFalse(journalFile.exists());
+		database.stop();
+		database.start();
+		reloadedMaterials = database.getMaterials();
+		for (Material material : materials) {
+			assertTrue(reloadedMaterials.contains(material));
+		}
+
+		// Check the implementation of IElementSource
+		assertEquals(reloadedMaterials.size(), database.getElements().size());
+		assertEquals(reloadedMaterials.get(0), database.getElements().get(0));
+		assertTrue(database.getTableFormat() instanceof MaterialWritableTableFormat);
+
+		database.stop();
+
+		return;
+	}
+
+	/**
+	 * This operation checks the searches by name, by property and by element.
+	 */
+	@Test
+	public void checkSearches() {
+
+		IndexedMaterialsDatabase database = new IndexedMaterialsDatabase(
+				userTestFile, defaultTestFile);
+		database.start();
+
+		// Prefixes are not case sensitive and the results are sorted
+		List<Material> found = database.findMaterials("fe");
+		assertEquals(2, found.size());
+		assertEquals("Fe", found.get(0).getName());
+		assertEquals("Ferrite", found.get(1).getName());
+		assertEquals(0, database.findMaterials("Cu").size());
+		assertEquals(materials.size(), database.findMaterials("").size());
+
+		// Ranges include their ends and skip materials without the property
+		found = database.findMaterials("M (amu)", 55.0, 55.93);
+		assertEquals(3, found.size());
+		assertEquals(0, database.findMaterials("Nothing", 0.0, 1.0).size());
+
+		// The isotopes are sorted by isotopic number
+		List<Material> isotopes = database.getIsotopes("Fe");
+		assertEquals(3, isotopes.size());
+		assertEquals("Fe", isotopes.get(0).getName());
+		assertEquals("54Fe", isotopes.get(1).getName());
+		assertEquals("56Fe", isotopes.get(2).getName());
+		assertTrue(database.getIsotopes("U").isEmpty());
+
+		// Searches should see changes
+		database.addMaterial(createElement("57Fe", 56.94));
+		database.deleteMaterial("Ferrite");
+		assertEquals(4, database.getIsotopes("Fe").size());
+		assertEquals(1, database.findMaterials("fe").size());
+		assertEquals(3, database.findMaterials("M (amu)", 55.0, 57.0).size());
+
+		database.stop();
+
+		return;
+	}
+
+	/**
+	 * This operation checks that a long journal is folded into the user
+	 * database when the service stops.
+	 */
+	@Test
+	public void checkCompaction() {
+
+		IndexedMaterialsDatabase database = new IndexedMaterialsDatabase(
+				userTestFile, defaultTestFile);
+		database.start();
+
+		// Update a material enough times for the journal to get long
+		Material material = createElement("Ti", 47.87);
+		for (int i = 0; i < 300; i++) {
+			material.setProperty("M (amu)", 47.0 + i);
+			database.updateMaterial(material);
+		}
+		database.stop();
+
+		// The journal should be gone and the user database up to date
+		assertFalse(journalFile.exists());
+		database.start();
+		assertEquals(materials.size() + 1, database.getMaterials().size());
+		assertEquals(346.0, database.getMaterial("Ti").getProperty("M (amu)"),
+				0.0);
+		database.stop();
+
+		return;
+	}
+
+	/**
+	 * This operation creates an elemental material.
+	 *
+	 * @param name
+	 *            the name of the material
+	 * @param mass
+	 *            the atomic mass
+	 * @return the material
+	 */
+	private Material createElement(String name, double mass) {
+		Material element = new Material();
+		element.setName(name);
+		element.setProperty("M (amu)", mass);
+		return element;
+	}
+}
@@ -24,6 +24,7 @@ import javax.xml.bind.Marshaller;
 
 import org.eclipse.ice.datastructures.ICEObject.ICEList;
 import org.eclipse.ice.datastructures.form.Material;
+import org.eclipse.ice.datastructures.jaxbclassprovider.JAXBContextRegistry;
 
 /**
  * This class converts the materials database from CSV (defaultMatDB.csv) to XML
@@ -95,11 +96,11 @@ public class CSVDBToXMLConverter {
 		ICEList<Material> xmlList = new ICEList<Material>();
 		xmlList.setList(materials);
 
-		// Create the necessary JAXB equipment to dump the file
-		JAXBContext jaxbContext = JAXBContext.newInstance(ICEList.class,
+		// Get the necessary JAXB equipment to dump the file
+		JAXBContext jaxbContext = JAXBContextRegistry.getContext(ICEList.class,
 				Material.class);
-		Marshaller jaxbMarshaller = jaxbContext.createMarshaller();
-		jaxbMarshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+		Marshaller jaxbMarshaller = JAXBContextRegistry.getMarshaller(
+				jaxbContext, true);
 		// Dump the file
 		jaxbMarshaller.marshal(xmlList, xmlFile);
 		
@@ -0,0 +1,1023 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.materials;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.core.runtime.FileLocator;
+import org.eclipse.ice.datastructures.ICEObject.ICEList;
+import org.eclipse.ice.datastructures.form.Material;
+import org.eclipse.ice.datastructures.form.MaterialStack;
+import org.eclipse.ice.datastructures.jaxbclassprovider.JAXBContextRegistry;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.service.component.ComponentContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ca.odell.glazedlists.EventList;
+import ca.odell.glazedlists.GlazedLists;
+import ca.odell.glazedlists.gui.TableFormat;
+
+/**
+ * This realization of the IMaterialDatabase interface keeps the materials in
+ * an indexed, column-oriented store instead of a map of Materials. It reads
+ * the same XML files as the {@link XMLMaterialsDatabase} and is used in the
+ * same way, with start() and stop() at the beginning and end of its
+ * lifecycle.
+ *
+ * <ul>
+ * <li>The database is only read when it is first used, with a streaming
+ * parser instead of JAXB for everything but the components of
+ * composites.</li>
+ * <li>The value of each property is stored in one array per property, with
+ * NaN where a material does not have the property. The property names are
+ * stored once and shared by all the Materials created from the store.</li>
+ * <li>The Materials are only created when they are requested and are then
+ * kept, so the same instance is returned every time, like the
+ * XMLMaterialsDatabase does. The list of all materials, the name index and
+ * the isotopes of each element are kept until the database changes.</li>
+ * <li>Changes are appended to a journal next to the user database instead of
+ * rewriting the whole file. The journal is folded into the user database
+ * when it gets long.</li>
+ * </ul>
+ *
+ * Searches only see the values that were stored with addMaterial() or
+ * updateMaterial(). Changes made directly to a Material from the database are
+ * saved when the service is stopped, like before.
+ */
+public class IndexedMaterialsDatabase implements IMaterialsDatabase {
+
+	/**
+	 * Logger for handling event messages and other information.
+	 */
+	private static final Logger logger = LoggerFactory
+			.getLogger(IndexedMaterialsDatabase.class);
+
+	/**
+	 * The number of journal records after which the journal is folded into
+	 * the user database when the service stops.
+	 */
+	private static final int maxJournalRecords = 256;
+
+	/**
+	 * The journal record types.
+	 */
+	private static final String updateRecord = "update",
+			deleteRecord = "delete";
+
+	/**
+	 * The encoding of the journal.
+	 */
+	private static final String encoding = "UTF-8";
+
+	/**
+	 * This file contains the most recent version of the database that the user
+	 * has modified.
+	 */
+	private File userDatabase;
+
+	/**
+	 * This file contains the raw, unmodified version of the database that has
+	 * not been modified.
+	 */
+	private File defaultDatabase;
+
+	/**
+	 * The journal of the changes made since the user database was last
+	 * written.
+	 */
+	private File journal;
+
+	/**
+	 * This context is used to create all of the JAXB related utilities for
+	 * marshalling and unmarshalling the files.
+	 */
+	private JAXBContext jaxbContext;
+
+	/**
+	 * True if the database has been read since the service started.
+	 */
+	private boolean loaded;
+
+	/**
+	 * The number of records in the journal.
+	 */
+	private int journalRecords;
+
+	/**
+	 * The number of material slots in use, including deleted materials, and
+	 * the number of materials that are not deleted.
+	 */
+	private int size, liveSize;
+
+	/**
+	 * The name of the material in each slot, or null if it was deleted.
+	 */
+	private String[] names;
+
+	/**
+	 * The names of the properties. Each name is stored once and used as the
+	 * key of the property in all of the Materials created by the store.
+	 */
+	private ArrayList<String> propertyNames;
+
+	/**
+	 * The column of each property name.
+	 */
+	private HashMap<String, Integer> propertyColumns;
+
+	/**
+	 * The value of each property for each slot, or NaN if the material does
+	 * not have the property.
+	 */
+	private ArrayList<double[]> columns;
+
+	/**
+	 * The components of the composite materials, by slot.
+	 */
+	private HashMap<Integer, List<MaterialStack>> components;
+
+	/**
+	 * The Materials that have been created or stored for each slot, or null if
+	 * none was requested yet.
+	 */
+	private Material[] materials;
+
+	/**
+	 * The slot of each material, keyed by name.
+	 */
+	private HashMap<String, Integer> slots;
+
+	/**
+	 * The slots sorted by the lower case name of the material, followed by the
+	 * name, for searches by prefix. Created when needed.
+	 */
+	private TreeMap<String, Integer> nameIndex;
+
+	/**
+	 * The list of all materials. Created when needed.
+	 */
+	private List<Material> materialList;
+
+	/**
+	 * The isotopes of each element, keyed by elemental name. Filled when
+	 * needed.
+	 */
+	private HashMap<String, List<Material>> isotopes;
+
+	/**
+	 * The constructor
+	 */
+	public IndexedMaterialsDatabase() {
+		// Nothing TODO
+	}
+
+	/**
+	 * The test constructor. This should ONLY be used for testing. It overrides
+	 * the work performed by the default constructor to locate the database
+	 * files with values provided by the caller.
+	 *
+	 * @param testUserXMLDatabase
+	 *            The XML file that contains the materials.
+	 * @param testDefaultXMLDatabase
+	 *            The XML file that contains the materials that should be
+	 *            considered the default list.
+	 */
+	public IndexedMaterialsDatabase(File testUserXMLDatabase,
+			File testDefaultXMLDatabase) {
+
+		// Assign the database files
+		userDatabase = testUserXMLDatabase;
+		defaultDatabase = testDefaultXMLDatabase;
+
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.ice.materials.IMaterialDatabase#getMaterials()
+	 */
+	@Override
+	public synchronized List<Material> getMaterials() {
+		load();
+		if (materialList == null) {
+			ArrayList<Material> list = new ArrayList<Material>(liveSize);
+			for (int i = 0; i < size; i++) {
+				if (names[i] != null) {
+					list.add(getMaterial(i));
+				}
+			}
+			materialList = Collections.unmodifiableList(list);
+		}
+		return materialList;
+	}
+
+	/**
+	 * This operation returns the material with the given name.
+	 *
+	 * @param name
+	 *            the name of the material
+	 * @return the material, or null if it is not in the database
+	 */
+	public synchronized Material getMaterial(String name) {
+		load();
+		Integer slot = (name != null) ? slots.get(name) : null;
+		return (slot != null) ? getMaterial(slot) : null;
+	}
+
+	/**
+	 * This operation returns the materials whose names start with the given
+	 * prefix, ignoring case, sorted by name. It is meant to look materials up
+	 * as their names are typed.
+	 *
+	 * @param prefix
+	 *            the beginning of the names
+	 * @return the materials
+	 */
+	public synchronized List<Material> findMaterials(String prefix) {
+
+		load();
+
+		// Build the index if needed
+		if (nameIndex == null) {
+			nameIndex = new TreeMap<String, Integer>();
+			for (int i = 0; i < size; i++) {
+				if (names[i] != null) {
+					nameIndex.put(getIndexKey(names[i]), i);
+				}
+			}
+		}
+
+		// All of the keys that start with the prefix are between the prefix
+		// and the prefix followed by the largest character.
+		String lowerPrefix = (prefix != null) ? prefix.toLowerCase() : "";
+		ArrayList<Material> found = new ArrayList<Material>();
+		for (Integer slot : nameIndex.subMap(lowerPrefix,
+				lowerPrefix + Character.MAX_VALUE).values()) {
+			found.add(getMaterial(slot));
+		}
+
+		return found;
+	}
+
+	/**
+	 * This operation returns the materials for which a property is in a range.
+	 *
+	 * @param property
+	 *            the name of the property
+	 * @param min
+	 *            the smallest value of the property
+	 * @param max
+	 *            the largest value of the property
+	 * @return the materials, in the order of the database
+	 */
+	public synchronized List<Material> findMaterials(String property,
+			double min, double max) {
+
+		load();
+
+		ArrayList<Material> found = new ArrayList<Material>();
+		Integer column = propertyColumns.get(property);
+		if (column != null) {
+			double[] values = columns.get(column);
+			for (int i = 0; i < size; i++) {
+				// NaNs are never in the range
+				if (names[i] != null && values[i] >= min && values[i] <= max) {
+					found.add(getMaterial(i));
+				}
+			}
+		}
+
+		return found;
+	}
+
+	/**
+	 * This operation returns the isotopes of an element, which are the
+	 * elemental materials with the same elemental name, sorted by isotopic
+	 * number. The natural element, whose isotopic number is zero, is first.
+	 *
+	 * @param elementalName
+	 *            the name of the element, like "Fe"
+	 * @return the isotopes
+	 */
+	public synchronized List<Material> getIsotopes(String elementalName) {
+
+		load();
+
+		// Find the isotopes of all of the elements at once
+		if (isotopes == null) {
+			isotopes = new HashMap<String, List<Material>>();
+			for (int i = 0; i < size; i++) {
+				if (names[i] != null && !components.containsKey(i)) {
+					Material material = getMaterial(i);
+					String element = material.getElementalName();
+					List<Material> elementIsotopes = isotopes.get(element);
+					if (elementIsotopes == null) {
+						elementIsotopes = new ArrayList<Material>();
+						isotopes.put(element, elementIsotopes);
+					}
+					elementIsotopes.add(material);
+				}
+			}
+			for (List<Material> elementIsotopes : isotopes.values()) {
+				Collections.sort(elementIsotopes, new Comparator<Material>() {
+					@Override
+					public int compare(Material first, Material second) {
+						int firstNumber = first.getIsotopicNumber();
+						int secondNumber = second.getIsotopicNumber();
+						return (firstNumber < secondNumber) ? -1
+								: ((firstNumber == secondNumber) ? 0 : 1);
+					}
+				});
+			}
+		}
+
+		List<Material> elementIsotopes = isotopes.get(elementalName);
+		return (elementIsotopes != null) ? Collections
+				.unmodifiableList(elementIsotopes) : Collections
+				.<Material> emptyList();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.ice.materials.IMaterialDatabase#addMaterial(org.eclipse.ice
+	 * .materials.Material)
+	 */
+	@Override
+	public synchronized void addMaterial(Material material) {
+		if (material != null) {
+			load();
+			store(material);
+			writeJournal(updateRecord, marshal(material));
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.ice.materials.IMaterialDatabase#deleteMaterial(java.lang.
+	 * String)
+	 */
+	@Override
+	public synchronized void deleteMaterial(String name) {
+		if (name != null) {
+			load();
+			if (remove(name)) {
+				writeJournal(deleteRecord, name);
+			}
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.ice.materials.IMaterialDatabase#deleteMaterial(org.eclipse
+	 * .ice.materials.Material)
+	 */
+	@Override
+	public void deleteMaterial(Material material) {
+		if (material != null) {
+			deleteMaterial(material.getName());
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.ice.materials.IMaterialDatabase#updateMaterial(org.eclipse
+	 * .ice.materials.Material)
+	 */
+	@Override
+	public void updateMaterial(Material material) {
+		addMaterial(material);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see org.eclipse.ice.materials.IMaterialDatabase#restoreDefaults()
+	 */
+	@Override
+	public synchronized void restoreDefaults() {
+
+		// Copy the default database over the user database and drop the
+		// journal. It will be loaded again when it is next used.
+		try {
+			Files.copy(defaultDatabase.toPath(), userDatabase.toPath(),
+					StandardCopyOption.REPLACE_EXISTING);
+			Files.deleteIfExists(journal.toPath());
+		} catch (IOException e) {
+			logger.error(getClass().getName() + " Exception!", e);
+		}
+		loaded = false;
+
+		return;
+	}
+
+	/**
+	 * This operation starts the service. The database is read when it is
+	 * first used.
+	 */
+	public synchronized void start() {
+
+		// Get the shared JAXB context to manipulate the files
+		try {
+			jaxbContext = JAXBContextRegistry.getContext(ICEList.class,
+					Material.class, MaterialStack.class);
+		} catch (JAXBException e) {
+			logger.error("Unable to initialize JAXB!", e);
+		}
+
+		// The journal is next to the user database
+		journal = new File(userDatabase.getPath() + ".journal");
+		loaded = false;
+
+		logger.info("Started!");
+	}
+
+	/**
+	 * The OSGi-based start operation that performs framework-specific start
+	 * tasks to determine the location of the database files.
+	 *
+	 * @param context
+	 *            The component context
+	 */
+	public void start(ComponentContext context) {
+
+		try {
+			// Get the file URLs from from the bundle
+			BundleContext bundleContext = context.getBundleContext();
+			Bundle bundle = bundleContext.getBundle();
+			URL userDBURL = bundle.getEntry("data/userMatDB.xml");
+			URL defaultDBURL = bundle.getEntry("data/defaultMatDB.xml");
+			// Set the file references by converting the bundle:// URLs to
+			// file:// URLs.
+			userDatabase = new File(FileLocator.toFileURL(userDBURL).getPath());
+			defaultDatabase = new File(FileLocator.toFileURL(defaultDBURL)
+					.getPath());
+
+			// Once the files are set, just call the other start operation
+			start();
+		} catch (IOException e) {
+			logger.error("Unable to start the materials database service!", e);
+		}
+	}
+
+	/**
+	 * This operation stops the service. It saves the changes made directly to
+	 * the Materials from the database and folds the journal into the user
+	 * database if the journal is long.
+	 */
+	public synchronized void stop() {
+
+		if (loaded) {
+			// Journal the Materials that were changed directly
+			for (int i = 0; i < size; i++) {
+				Material material = materials[i];
+				if (names[i] != null && material != null
+						&& !material.equals(createMaterial(i))) {
+					if (material.getName().equals(names[i])) {
+						addMaterial(material);
+					} else {
+						// It was renamed
+						remove(names[i]);
+						writeJournal(deleteRecord, names[i]);
+						addMaterial(material);
+					}
+				}
+			}
+
+			// Fold the journal into the user database if it is long
+			if (journalRecords > maxJournalRecords) {
+				writeDatabase();
+			}
+		}
+		loaded = false;
+
+		logger.info("Service stopped!");
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.ice.datastructures.ICEObject.IElementSource#getElements()
+	 */
+	@Override
+	public EventList<Material> getElements() {
+		// Create a new event list and return it using the standard factory
+		// method for GlazedLists.
+		return GlazedLists.eventList(getMaterials());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see
+	 * org.eclipse.ice.datastructures.ICEObject.IElementSource#getTableFormat()
+	 */
+	@Override
+	public synchronized TableFormat<Material> getTableFormat() {
+
+		MaterialWritableTableFormat format = null;
+
+		// Build and return a table format from the properties of the first
+		// material if there are materials in the database
+		load();
+		for (int i = 0; i < size && format == null; i++) {
+			if (names[i] != null) {
+				ArrayList<String> propNames = new ArrayList<String>(
+						getMaterial(i).getProperties().keySet());
+				format = new MaterialWritableTableFormat(propNames);
+			}
+		}
+
+		return format;
+	}
+
+	/**
+	 * This operation reads the database if it has not been read since the
+	 * service started. It reads the user database, or the default database if
+	 * there is no user database, and then applies the journal.
+	 */
+	private void load() {
+
+		if (loaded) {
+			return;
+		}
+
+		// Clear the store
+		size = 0;
+		liveSize = 0;
+		names = new String[64];
+		materials = new Material[64];
+		propertyNames = new ArrayList<String>();
+		propertyColumns = new HashMap<String, Integer>();
+		columns = new ArrayList<double[]>();
+		components = new HashMap<Integer, List<MaterialStack>>();
+		slots = new HashMap<String, Integer>();
+		invalidate();
+		loaded = true;
+
+		// Read the database
+		File fileToLoad = (userDatabase.exists() && userDatabase.length() > 0) ? userDatabase
+				: defaultDatabase;
+		long start = System.nanoTime();
+		try {
+			readDatabase(fileToLoad);
+		} catch (IOException | XMLStreamException | JAXBException e) {
+			logger.error(getClass().getName() + " Exception!", e);
+		}
+
+		// Apply the journal
+		journalRecords = 0;
+		if (journal.exists()) {
+			try {
+				readJournal();
+			} catch (IOException | JAXBException e) {
+				logger.error(getClass().getName() + " Exception!", e);
+			}
+		}
+
+		logger.info("IndexedMaterialsDatabase Message: Loaded " + liveSize
+				+ " materials from " + fileToLoad.getName() + " and "
+				+ journalRecords + " journal records in "
+				+ (System.nanoTime() - start) / 1.0e6 + " ms.");
+
+		return;
+	}
+
+	/**
+	 * This operation reads a database file into the store. Only the
+	 * components of composite materials are read with JAXB.
+	 *
+	 * @param file
+	 *            the database file
+	 * @throws IOException
+	 * @throws XMLStreamException
+	 * @throws JAXBException
+	 */
+	private void readDatabase(File file) throws IOException,
+			XMLStreamException, JAXBException {
+
+		// Local Declarations
+		String name = null, key = null;
+		ArrayList<String> keys = new ArrayList<String>();
+		ArrayList<Double> values = new ArrayList<Double>();
+		List<MaterialStack> stacks = new ArrayList<MaterialStack>();
+		boolean inComponents = false;
+		Unmarshaller unmarshaller = null;
+
+		InputStream stream = new FileInputStream(file);
+		XMLStreamReader reader = XMLInputFactory.newInstance()
+				.createXMLStreamReader(stream);
+		try {
+			int event = reader.next();
+			while (event != XMLStreamConstants.END_DOCUMENT) {
+				boolean consumed = false;
+				if (event == XMLStreamConstants.START_ELEMENT) {
+					String element = reader.getLocalName();
+					if ("ListElement".equals(element)) {
+						// A new material
+						name = null;
+						keys.clear();
+						values.clear();
+						stacks = new ArrayList<MaterialStack>();
+					} else if ("name".equals(element)) {
+						name = reader.getElementText();
+					} else if ("key".equals(element)) {
+						key = reader.getElementText();
+					} else if ("components".equals(element)) {
+						inComponents = true;
+					} else if ("value".equals(element) && inComponents) {
+						// The stacks are read with JAXB, which leaves the
+						// reader after the end of the value
+						if (unmarshaller == null) {
+							unmarshaller = jaxbContext.createUnmarshaller();
+						}
+						stacks.add(unmarshaller.unmarshal(reader,
+								MaterialStack.class).getValue());
+						consumed = true;
+					} else if ("value".equals(element)) {
+						keys.add(key);
+						values.add(Double.valueOf(reader.getElementText()));
+					}
+				} else if (event == XMLStreamConstants.END_ELEMENT) {
+					String element = reader.getLocalName();
+					if ("components".equals(element)) {
+						inComponents = false;
+					} else if ("ListElement".equals(element) && name != null) {
+						// Store the material
+						int slot = getSlot(name);
+						for (int i = 0; i < keys.size(); i++) {
+							columns.get(getColumn(keys.get(i)))[slot] = values
+									.get(i);
+						}
+						if (!stacks.isEmpty()) {
+							components.put(slot, stacks);
+						}
+					}
+				}
+				// JAXB leaves the reader on the event after the stack
+				event = consumed ? reader.getEventType() : reader.next();
+			}
+		} finally {
+			reader.close();
+			stream.close();
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation applies the records of the journal to the store.
+	 *
+	 * @throws IOException
+	 * @throws JAXBException
+	 */
+	private void readJournal() throws IOException, JAXBException {
+
+		Unmarshaller unmarshaller = jaxbContext.createUnmarshaller();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(
+				new FileInputStream(journal), encoding));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				int tab = line.indexOf('\t');
+				if (tab < 0) {
+					continue;
+				}
+				String type = line.substring(0, tab);
+				String data = line.substring(tab + 1);
+				if (updateRecord.equals(type)) {
+					store((Material) unmarshaller.unmarshal(new StringReader(
+							data)));
+				} else if (deleteRecord.equals(type)) {
+					remove(URLDecoder.decode(data, encoding));
+				}
+				journalRecords++;
+			}
+		} finally {
+			reader.close();
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation appends a record to the journal.
+	 *
+	 * @param type
+	 *            the type of the record
+	 * @param data
+	 *            the material as XML for updates or its name for deletes
+	 */
+	private void writeJournal(String type, String data) {
+
+		if (data == null) {
+			return;
+		}
+
+		try {
+			Writer writer = new BufferedWriter(new OutputStreamWriter(
+					new FileOutputStream(journal, true), encoding));
+			try {
+				writer.write(type);
+				writer.write('\t');
+				writer.write(deleteRecord.equals(type) ? URLEncoder.encode(
+						data, encoding) : data);
+				writer.write('\n');
+			} finally {
+				writer.close();
+			}
+			journalRecords++;
+		} catch (IOException e) {
+			logger.error("IndexedMaterialsDatabase Message: "
+					+ "Error writing the journal!");
+			logger.error(getClass().getName() + " Exception!", e);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation writes the whole database to the user database file and
+	 * deletes the journal.
+	 */
+	private void writeDatabase() {
+
+		try {
+			// Get the necessary JAXB equipment to dump the file
+			Marshaller jaxbMarshaller = JAXBContextRegistry.getMarshaller(
+					jaxbContext, true);
+			// Create the ICEList of Materials
+			ICEList<Material> materialsList = new ICEList<Material>();
+			materialsList.setList(new ArrayList<Material>(getMaterials()));
+			// And dump it into the file
+			jaxbMarshaller.marshal(materialsList, userDatabase);
+			Files.deleteIfExists(journal.toPath());
+			journalRecords = 0;
+		} catch (JAXBException | IOException e) {
+			logger.error("IndexedMaterialsDatabase Message: "
+					+ "Error writing database!");
+			logger.error(getClass().getName() + " Exception!", e);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation marshals a material to XML on a single line for the
+	 * journal.
+	 *
+	 * @param material
+	 *            the material
+	 * @return the XML, or null if it could not be marshalled
+	 */
+	private String marshal(Material material) {
+
+		String xml = null;
+
+		try {
+			StringWriter writer = new StringWriter();
+			Marshaller marshaller = jaxbContext.createMarshaller();
+			marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+			marshaller.marshal(material, writer);
+			// Line breaks in names are written as character references so
+			// that each record stays on one line
+			xml = writer.toString().replace("\r", "&#13;")
+					.replace("\n", "&#10;");
+		} catch (JAXBException e) {
+			logger.error(getClass().getName() + " Exception!", e);
+		}
+
+		return xml;
+	}
+
+	/**
+	 * This operation stores a material, replacing the material with the same
+	 * name if there is one. The material is kept and returned by the
+	 * database.
+	 *
+	 * @param material
+	 *            the material
+	 */
+	private void store(Material material) {
+
+		int slot = getSlot(material.getName());
+
+		// Replace its properties and components
+		for (double[] column : columns) {
+			column[slot] = Double.NaN;
+		}
+		for (Map.Entry<String, Double> property : material.getProperties()
+				.entrySet()) {
+			columns.get(getColumn(property.getKey()))[slot] = property
+					.getValue();
+		}
+		List<MaterialStack> stacks = new ArrayList<MaterialStack>();
+		for (MaterialStack stack : material.getComponents()) {
+			stacks.add(new MaterialStack(stack.getMaterial(), stack.getAmount()));
+		}
+		if (stacks.isEmpty()) {
+			components.remove(slot);
+		} else {
+			components.put(slot, stacks);
+		}
+
+		materials[slot] = material;
+		invalidate();
+
+		return;
+	}
+
+	/**
+	 * This operation removes a material from the store.
+	 *
+	 * @param name
+	 *            the name of the material
+	 * @return true if it was in the store, false otherwise
+	 */
+	private boolean remove(String name) {
+
+		Integer slot = slots.remove(name);
+		if (slot == null) {
+			return false;
+		}
+
+		names[slot] = null;
+		materials[slot] = null;
+		components.remove(slot);
+		liveSize--;
+		invalidate();
+
+		return true;
+	}
+
+	/**
+	 * This operation returns the slot of a material, adding an empty slot at
+	 * the end of the store if it is not in the store.
+	 *
+	 * @param name
+	 *            the name of the material
+	 * @return the slot
+	 */
+	private int getSlot(String name) {
+
+		Integer slot = slots.get(name);
+		if (slot != null) {
+			return slot;
+		}
+
+		// Grow the arrays if needed
+		if (size == names.length) {
+			int capacity = 2 * names.length;
+			names = Arrays.copyOf(names, capacity);
+			materials = Arrays.copyOf(materials, capacity);
+			for (int i = 0; i < columns.size(); i++) {
+				double[] column = Arrays.copyOf(columns.get(i), capacity);
+				Arrays.fill(column, size, capacity, Double.NaN);
+				columns.set(i, column);
+			}
+		}
+
+		names[size] = name;
+		slots.put(name, size);
+		liveSize++;
+		invalidate();
+
+		return size++;
+	}
+
+	/**
+	 * This operation returns the column of a property, adding it if needed.
+	 *
+	 * @param property
+	 *            the name of the property
+	 * @return the column
+	 */
+	private int getColumn(String property) {
+		Integer column = propertyColumns.get(property);
+		if (column == null) {
+			column = columns.size();
+			propertyNames.add(property);
+			propertyColumns.put(property, column);
+			double[] values = new double[names.length];
+			Arrays.fill(values, Double.NaN);
+			columns.add(values);
+		}
+		return column;
+	}
+
+	/**
+	 * This operation returns the Material of a slot, creating it if needed.
+	 *
+	 * @param slot
+	 *            the slot
+	 * @return the Material
+	 */
+	private Material getMaterial(int slot) {
+		if (materials[slot] == null) {
+			materials[slot] = createMaterial(slot);
+		}
+		return materials[slot];
+	}
+
+	/**
+	 * This operation creates a new Material from the values in a slot.
+	 *
+	 * @param slot
+	 *            the slot
+	 * @return the Material
+	 */
+	private Material createMaterial(int slot) {
+
+		Material material = new Material();
+		material.setName(names[slot]);
+		for (int i = 0; i < columns.size(); i++) {
+			double value = columns.get(i)[slot];
+			if (!Double.isNaN(value)) {
+				material.setProperty(propertyNames.get(i), value);
+			}
+		}
+		List<MaterialStack> stacks = components.get(slot);
+		if (stacks != null) {
+			for (MaterialStack stack : stacks) {
+				material.addComponent(new MaterialStack(stack.getMaterial(),
+						stack.getAmount()));
+			}
+		}
+
+		return material;
+	}
+
+	/**
+	 * This operation returns the key of a name in the name index.
+	 *
+	 * @param name
+	 *            the name
+	 * @return the key
+	 */
+	private String getIndexKey(String name) {
+		return name.toLowerCase() + '\0' + name;
+	}
+
+	/**
+	 * This operation drops the list, index and isotopes built from the store
+	 * after it changes.
+	 */
+	private void invalidate() {
+		materialList = null;
+		nameIndex = null;
+		isotopes = null;
+	}
+}
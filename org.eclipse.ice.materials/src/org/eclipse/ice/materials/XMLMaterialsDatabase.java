@@ -29,6 +29,7 @@ import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.ice.datastructures.ICEObject.ICEList;
 import org.eclipse.ice.datastructures.form.Material;
 import org.eclipse.ice.datastructures.form.MaterialStack;
+import org.eclipse.ice.datastructures.jaxbclassprovider.JAXBContextRegistry;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
 import org.osgi.service.component.ComponentContext;
@@ -194,8 +195,9 @@ public class XMLMaterialsDatabase implements IMaterialsDatabase {
 	 */
 	private void loadDatabase(File fileToLoad) {
 		try {
-			// Create the necessary JAXB equipment to load the file
-			Unmarshaller jaxbUnmarshaller = jaxbContext.createUnmarshaller();
+			// Get the necessary JAXB equipment to load the file
+			Unmarshaller jaxbUnmarshaller = JAXBContextRegistry
+					.getUnmarshaller(jaxbContext);
 			// And unmarshall it into the list
 			ICEList<Material> rawList = (ICEList<Material>) jaxbUnmarshaller
 					.unmarshal(fileToLoad);
@@ -216,9 +218,9 @@ public class XMLMaterialsDatabase implements IMaterialsDatabase {
 	private void writeDatabase() {
 
 		try {
-			// Create the necessary JAXB equipment to dump the file
-			Marshaller jaxbMarshaller = jaxbContext.createMarshaller();
-			jaxbMarshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+			// Get the necessary JAXB equipment to dump the file
+			Marshaller jaxbMarshaller = JAXBContextRegistry.getMarshaller(
+					jaxbContext, true);
 			// Create the ICEList of Materials
 			ICEList<Material> materialsList = new ICEList<Material>();
 			materialsList.setList(new ArrayList<Material>(getMaterials()));
@@ -251,10 +253,10 @@ public class XMLMaterialsDatabase implements IMaterialsDatabase {
 		// Local Declarations
 		File fileToLoad;
 
-		// Create the JAXB context to manipulate the files
+		// Get the shared JAXB context to manipulate the files
 		try {
-			jaxbContext = JAXBContext
-					.newInstance(ICEList.class, Material.class, MaterialStack.class);
+			jaxbContext = JAXBContextRegistry.getContext(ICEList.class,
+					Material.class, MaterialStack.class);
 		} catch (JAXBException e) {
 			// Complain to the logger service
 			if (logger != null) {
@@ -13,7 +13,9 @@
 package org.eclipse.ice.nek5000.test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -26,6 +28,7 @@ import org.eclipse.ice.datastructures.ICEObject.Component;
 import org.eclipse.ice.datastructures.form.DataComponent;
 import org.eclipse.ice.datastructures.form.MeshComponent;
 import org.eclipse.ice.nek5000.NekReader;
+import org.eclipse.ice.nek5000.ProblemProperties;
 import org.eclipse.ice.viz.service.mesh.datastructures.BoundaryCondition;
 import org.eclipse.ice.viz.service.mesh.datastructures.Quad;
 import org.junit.Test;
@@ -2047,4 +2050,78 @@ public class NekReaderTester {
 		return;
 		
 	}
+
+	/**
+	 * Tests that the memory-mapped mode of the NekReader produces the same
+	 * Components and ProblemProperties as reading the examples line by line.
+	 */
+	@Test
+	public void checkMemoryMapped() {
+
+		String separator = System.getProperty("file.separator");
+		String userDir = System.getProperty("user.home") + separator
+				+ "ICETests" + separator + "nek5000Data";
+		String[] examples = { "conj_ht.rea", "eddy_uv.rea", "kov.rea",
+				"ray_dd.rea", "ray_nn.rea", "v2d.rea" };
+
+		// Check the mode flag
+		NekReader reader = new NekReader();
+		NekReader mappedReader = new NekReader();
+		assertFalse(mappedReader.isMemoryMapped());
+		mappedReader.setMemoryMapped(true);
+		assertTrue(mappedReader.isMemoryMapped());
+
+		// An invalid file should still return null
+		try {
+			assertNull(mappedReader.loadREAFile(null));
+		} catch (IOException e) {
+			fail("Failed to read from fake Nek input file");
+			e.printStackTrace();
+		}
+
+		for (String example : examples) {
+
+			// Load the example both ways
+			File testFile = new File(userDir + separator + example);
+			ArrayList<Component> components = null;
+			ArrayList<Component> mappedComponents = null;
+			try {
+				components = reader.loadREAFile(testFile);
+				mappedComponents = mappedReader.loadREAFile(testFile);
+			} catch (IOException e) {
+				fail("Failed to read from Nek input file: "
+						+ testFile.toString());
+				e.printStackTrace();
+			}
+
+			// Every Component should be the same, including the Quads, Edges,
+			// Vertices and BoundaryConditions of the mesh
+			assertEquals(components.size(), mappedComponents.size());
+			for (int i = 0; i < components.size(); i++) {
+				assertEquals(example, components.get(i),
+						mappedComponents.get(i));
+			}
+			MeshComponent mesh = (MeshComponent) components.get(4);
+			MeshComponent mappedMesh = (MeshComponent) mappedComponents.get(4);
+			assertEquals(mesh.getPolygons().size(), mappedMesh.getPolygons()
+					.size());
+			assertEquals(mesh.getEdges(), mappedMesh.getEdges());
+			assertEquals(mesh.getVertices(), mappedMesh.getVertices());
+
+			// So should the problem properties
+			ProblemProperties properties = reader.getLastProperties();
+			ProblemProperties mappedProperties = mappedReader
+					.getLastProperties();
+			assertEquals(properties.getNumDimensions(),
+					mappedProperties.getNumDimensions());
+			assertEquals(properties.getNumThermalElements(),
+					mappedProperties.getNumThermalElements());
+			assertEquals(properties.getNumFluidElements(),
+					mappedProperties.getNumFluidElements());
+			assertEquals(properties.getNumPassiveScalars(),
+					mappedProperties.getNumPassiveScalars());
+		}
+
+		return;
+	}
 }
@@ -12,7 +12,9 @@
  *******************************************************************************/
 package org.eclipse.ice.nek5000.test;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -23,7 +25,9 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import org.eclipse.ice.datastructures.ICEObject.Component;
 import org.eclipse.ice.nek5000.NekReader;
@@ -1077,4 +1081,86 @@ public class NekWriterTester {
 		return;
 	}
 
+	/**
+	 * Checks that streaming a reafile writes exactly the same bytes as writing
+	 * it section by section for every example. The ICE header at the end of
+	 * the file is not compared, as it contains the time at which the file was
+	 * written.
+	 */
+	@Test
+	public void checkStreaming() {
+
+		String separator = System.getProperty("file.separator");
+		String userDir = System.getProperty("user.home") + separator
+				+ "ICETests" + separator + "nek5000Data";
+		String[] examples = { "conj_ht", "eddy_uv", "kov", "ray_dd", "ray_nn",
+				"v2d" };
+		int[][] elements = { { 64, 32 }, { 256, 256 }, { 8, 8 }, { 3, 3 },
+				{ 3, 3 }, { 20, 20 } };
+		NekReader reader = new NekReader();
+
+		// Check the mode flag
+		NekWriter writer = new NekWriter();
+		NekWriter streamingWriter = new NekWriter();
+		assertFalse(streamingWriter.isStreaming());
+		streamingWriter.setStreaming(true);
+		assertTrue(streamingWriter.isStreaming());
+
+		for (int i = 0; i < examples.length; i++) {
+
+			File exampleFile = new File(userDir + separator + examples[i]
+					+ ".rea");
+			File outputFile = new File(userDir + separator + examples[i]
+					+ "_WriterTest.rea");
+			File streamedFile = new File(userDir + separator + examples[i]
+					+ "_StreamingWriterTest.rea");
+			ProblemProperties properties = new ProblemProperties(2,
+					elements[i][0], elements[i][1], 0);
+
+			// Write the example both ways
+			byte[] bytes = null;
+			byte[] streamedBytes = null;
+			try {
+				ArrayList<Component> components = reader
+						.loadREAFile(exampleFile);
+				outputFile.createNewFile();
+				streamedFile.createNewFile();
+				writer.writeReaFile(components, outputFile, properties);
+				streamingWriter.writeReaFile(components, streamedFile,
+						properties);
+				bytes = Files.readAllBytes(outputFile.toPath());
+				streamedBytes = Files.readAllBytes(streamedFile.toPath());
+			} catch (IOException e) {
+				e.printStackTrace();
+				fail("Failed to write " + examples[i] + " both ways");
+			}
+
+			// Compare everything before the ICE header
+			int length = getICEHeaderStart(bytes);
+			assertTrue(length > 0);
+			assertEquals(examples[i], length, getICEHeaderStart(streamedBytes));
+			assertArrayEquals(examples[i], Arrays.copyOf(bytes, length),
+					Arrays.copyOf(streamedBytes, length));
+
+			// Delete the test output files
+			outputFile.delete();
+			streamedFile.delete();
+		}
+
+		return;
+	}
+
+	/**
+	 * Finds where the ICE header starts in the bytes of a reafile.
+	 * 
+	 * @param bytes
+	 *            The bytes of the reafile
+	 * @return The index of the first byte of the ICE header, or -1 if there
+	 *         is none
+	 */
+	private int getICEHeaderStart(byte[] bytes) {
+		return new String(bytes).lastIndexOf("C *** Nek5000 reafile "
+				+ "generated by ICE ***");
+	}
+
 }
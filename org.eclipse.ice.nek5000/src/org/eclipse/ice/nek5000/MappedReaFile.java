@@ -0,0 +1,546 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.nek5000;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.Charset;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * MappedReaFile provides access to the lines of a Nek5000 .rea file that has
+ * been mapped into memory. The file is scanned once when it is mapped to
+ * record the offset of every line and the lines that start with '*', which are
+ * the section headers of the file. Lines can be decoded into Strings on
+ * demand, but numbers can also be read straight from the mapped bytes, which
+ * lets the NekReader parse the mesh and boundary condition sections without
+ * creating a String for every line and token.
+ *
+ * The lines are the same as those returned by NekReader.readFileLines(): the
+ * file is split at each newline character, bytes are decoded as ISO-8859-1
+ * and trailing empty lines are dropped.
+ *
+ * The absolute get operations of the mapped buffer are used everywhere, so the
+ * lines can be read by several threads at once.
+ */
+class MappedReaFile {
+
+	/**
+	 * The charset used to decode lines. Each byte is one character, exactly
+	 * as in NekReader.readFileLines().
+	 */
+	private static final Charset charset = Charset.forName("ISO-8859-1");
+
+	/**
+	 * The largest power of ten that can be used in the fast path of
+	 * parseFloat(). Every power of ten up to 10^10 is exact as a float.
+	 */
+	private static final float[] powersOfTen = { 1e0f, 1e1f, 1e2f, 1e3f,
+			1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f };
+
+	/**
+	 * The contents of the file.
+	 */
+	private final ByteBuffer buffer;
+
+	/**
+	 * The offset of the first byte of each line. The array has one more
+	 * element than there are lines, and the last element is one past the
+	 * newline that ends the last line.
+	 */
+	private final int[] lineStarts;
+
+	/**
+	 * The number of lines in the file.
+	 */
+	private final int numLines;
+
+	/**
+	 * The indices of the lines whose first non-blank character is '*'.
+	 */
+	private final ArrayList<Integer> headerLines;
+
+	/**
+	 * The ranges of lines that are hidden from the list returned by
+	 * getLines(), stored as pairs of the first line and one past the last
+	 * line.
+	 */
+	private final ArrayList<int[]> skippedRanges;
+
+	/**
+	 * The constructor. It maps the file into memory and scans it for lines.
+	 *
+	 * @param file
+	 *            The reafile to map.
+	 * @throws IOException
+	 *             Thrown when the file cannot be opened or mapped, or when it
+	 *             is too large to be mapped as a single buffer
+	 */
+	public MappedReaFile(File file) throws IOException {
+
+		// Map the file
+		FileInputStream fileStream = new FileInputStream(file);
+		try {
+			FileChannel channel = fileStream.getChannel();
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException("MappedReaFile Message: "
+						+ file.getName() + " is too large to be mapped.");
+			}
+			buffer = channel.map(MapMode.READ_ONLY, 0, size);
+		} finally {
+			fileStream.close();
+		}
+
+		// Find the start of each line and the section headers
+		int length = buffer.limit();
+		int[] starts = new int[Math.max(16, length / 32)];
+		int count = 0;
+		boolean atLineStart = true;
+		headerLines = new ArrayList<Integer>();
+		starts[count++] = 0;
+		for (int i = 0; i < length; i++) {
+			byte currByte = buffer.get(i);
+			if (currByte == '\n') {
+				if (count == starts.length) {
+					starts = Arrays.copyOf(starts, count * 2);
+				}
+				starts[count++] = i + 1;
+				atLineStart = true;
+			} else if (atLineStart && !isBlank(currByte)) {
+				if (currByte == '*') {
+					headerLines.add(count - 1);
+				}
+				atLineStart = false;
+			}
+		}
+
+		// Close the last line if the file does not end with a newline
+		if (starts[count - 1] != length || length == 0) {
+			if (count == starts.length) {
+				starts = Arrays.copyOf(starts, count + 1);
+			}
+			starts[count++] = length + 1;
+		}
+		int lines = count - 1;
+
+		// Drop trailing empty lines, like String.split() does, but keep a
+		// single empty line for an empty file
+		while (lines > 1 && starts[lines] - starts[lines - 1] <= 1) {
+			lines--;
+		}
+		numLines = lines;
+		lineStarts = starts;
+
+		skippedRanges = new ArrayList<int[]>();
+
+		return;
+	}
+
+	/**
+	 * This operation returns the number of lines in the file.
+	 *
+	 * @return The number of lines.
+	 */
+	public int getNumLines() {
+		return numLines;
+	}
+
+	/**
+	 * This operation returns the indices of the lines whose first non-blank
+	 * character is '*'. These are the section headers of the reafile.
+	 *
+	 * @return The indices of the header lines, in increasing order.
+	 */
+	public List<Integer> getHeaderLines() {
+		return headerLines;
+	}
+
+	/**
+	 * This operation returns the offset of the first byte of a line.
+	 *
+	 * @param line
+	 *            The index of the line.
+	 * @return The offset of the first byte of the line.
+	 */
+	public int getLineStart(int line) {
+		checkLine(line);
+		return lineStarts[line];
+	}
+
+	/**
+	 * This operation returns the offset one past the last byte of a line,
+	 * excluding the newline that ends it.
+	 *
+	 * @param line
+	 *            The index of the line.
+	 * @return The offset one past the last byte of the line.
+	 */
+	public int getLineEnd(int line) {
+		checkLine(line);
+		return lineStarts[line + 1] - 1;
+	}
+
+	/**
+	 * This operation decodes a line into a String.
+	 *
+	 * @param line
+	 *            The index of the line.
+	 * @return The line, without the newline that ends it.
+	 */
+	public String getLine(int line) {
+		return getString(getLineStart(line), getLineEnd(line));
+	}
+
+	/**
+	 * This operation decodes a range of bytes into a String.
+	 *
+	 * @param start
+	 *            The offset of the first byte.
+	 * @param end
+	 *            The offset one past the last byte.
+	 * @return The decoded String.
+	 */
+	public String getString(int start, int end) {
+		byte[] bytes = new byte[end - start];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = buffer.get(start + i);
+		}
+		return new String(bytes, charset);
+	}
+
+	/**
+	 * This operation hides a range of lines from the list returned by
+	 * getLines(). Hidden lines appear in that list as empty Strings. This is
+	 * used for the large sections of the file that are parsed directly from
+	 * the mapped bytes, so that the sections that are parsed as Strings do
+	 * not decode them.
+	 *
+	 * @param first
+	 *            The first line to hide.
+	 * @param end
+	 *            One past the last line to hide.
+	 */
+	public void skipLines(int first, int end) {
+		if (first < end) {
+			skippedRanges.add(new int[] { first, end });
+		}
+		return;
+	}
+
+	/**
+	 * This operation returns the lines of the file as a list of Strings.
+	 * Lines are decoded each time they are retrieved, and lines that were
+	 * hidden with skipLines() are returned as empty Strings.
+	 *
+	 * @return A read-only list of the lines of the file.
+	 */
+	public List<String> getLines() {
+		return new AbstractList<String>() {
+			@Override
+			public String get(int index) {
+				for (int[] range : skippedRanges) {
+					if (index >= range[0] && index < range[1]) {
+						return "";
+					}
+				}
+				return getLine(index);
+			}
+
+			@Override
+			public int size() {
+				return numLines;
+			}
+		};
+	}
+
+	/**
+	 * This operation finds the whitespace-separated tokens of a line. The
+	 * offsets of the first tokens are stored in the arrays, up to their
+	 * length, and the total number of tokens is returned.
+	 *
+	 * @param line
+	 *            The index of the line.
+	 * @param starts
+	 *            An array that is filled with the offset of the first byte of
+	 *            each token.
+	 * @param ends
+	 *            An array that is filled with the offset one past the last
+	 *            byte of each token.
+	 * @return The number of tokens in the line, which may be larger than the
+	 *         length of the arrays.
+	 */
+	public int tokenize(int line, int[] starts, int[] ends) {
+
+		int end = getLineEnd(line);
+		int count = 0;
+		int i = getLineStart(line);
+		while (i < end) {
+			// Skip the whitespace
+			while (i < end && isBlank(buffer.get(i))) {
+				i++;
+			}
+			if (i == end) {
+				break;
+			}
+			// Find the end of the token
+			int tokenStart = i;
+			while (i < end && !isBlank(buffer.get(i))) {
+				i++;
+			}
+			if (count < starts.length) {
+				starts[count] = tokenStart;
+				ends[count] = i;
+			}
+			count++;
+		}
+
+		return count;
+	}
+
+	/**
+	 * This operation checks whether a line contains a sequence of ASCII
+	 * characters.
+	 *
+	 * @param line
+	 *            The index of the line.
+	 * @param pattern
+	 *            The characters to find.
+	 * @return True if the line contains the characters, false otherwise.
+	 */
+	public boolean lineContains(int line, String pattern) {
+
+		int start = getLineStart(line);
+		int last = getLineEnd(line) - pattern.length();
+		for (int i = start; i <= last; i++) {
+			int j = 0;
+			while (j < pattern.length()
+					&& buffer.get(i + j) == (byte) pattern.charAt(j)) {
+				j++;
+			}
+			if (j == pattern.length()) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * This operation checks whether a token matches a String.
+	 *
+	 * @param start
+	 *            The offset of the first byte of the token.
+	 * @param end
+	 *            The offset one past the last byte of the token.
+	 * @param value
+	 *            The String to compare.
+	 * @return True if the token and the String contain the same characters.
+	 */
+	public boolean tokenEquals(int start, int end, String value) {
+
+		if (end - start != value.length()) {
+			return false;
+		}
+		for (int i = 0; i < value.length(); i++) {
+			if ((buffer.get(start + i) & 0xff) != value.charAt(i)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * This operation returns a byte of the file.
+	 *
+	 * @param offset
+	 *            The offset of the byte.
+	 * @return The byte.
+	 */
+	public byte getByte(int offset) {
+		return buffer.get(offset);
+	}
+
+	/**
+	 * This operation parses a token as a float. It returns exactly the same
+	 * value as Float.parseFloat(). Plain decimal numbers with at most seven
+	 * significant digits and a small exponent, which covers nearly every
+	 * number in a reafile, are converted directly from the bytes. Anything
+	 * else is decoded and handed to Float.parseFloat().
+	 *
+	 * @param start
+	 *            The offset of the first byte of the token.
+	 * @param end
+	 *            The offset one past the last byte of the token.
+	 * @return The value of the token.
+	 * @throws NumberFormatException
+	 *             Thrown when the token is not a number
+	 */
+	public float parseFloat(int start, int end) {
+
+		int i = start;
+		boolean negative = false;
+		long mantissa = 0;
+		int numDigits = 0;
+		int exponent = 0;
+		boolean valid = true;
+
+		// Read the sign
+		if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+			negative = (buffer.get(i) == '-');
+			i++;
+		}
+
+		// Read the integer and fraction digits, keeping at most 18 of them
+		boolean seenDigit = false, seenPoint = false;
+		for (; i < end; i++) {
+			byte currByte = buffer.get(i);
+			if (currByte >= '0' && currByte <= '9') {
+				seenDigit = true;
+				if (numDigits < 18) {
+					mantissa = mantissa * 10 + (currByte - '0');
+					if (mantissa > 0) {
+						numDigits++;
+					}
+					if (seenPoint) {
+						exponent--;
+					}
+				} else {
+					valid = false;
+				}
+			} else if (currByte == '.' && !seenPoint) {
+				seenPoint = true;
+			} else {
+				break;
+			}
+		}
+
+		// Read the exponent
+		if (valid && seenDigit && i < end
+				&& (buffer.get(i) == 'e' || buffer.get(i) == 'E')) {
+			i++;
+			boolean negativeExp = false;
+			if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+				negativeExp = (buffer.get(i) == '-');
+				i++;
+			}
+			int expValue = 0;
+			int expDigits = 0;
+			for (; i < end && buffer.get(i) >= '0' && buffer.get(i) <= '9'; i++) {
+				if (expValue < 1000) {
+					expValue = expValue * 10 + (buffer.get(i) - '0');
+				}
+				expDigits++;
+			}
+			valid = (expDigits > 0);
+			exponent += (negativeExp ? -expValue : expValue);
+		}
+		valid = valid && seenDigit && i == end;
+
+		// Remove trailing zeros from the mantissa
+		while (valid && mantissa != 0 && mantissa % 10 == 0) {
+			mantissa /= 10;
+			exponent++;
+		}
+
+		// A float holds any integer up to 2^24 and any power of ten up to
+		// 10^10 exactly, so one multiplication or division is correctly
+		// rounded. Otherwise let the JDK handle it.
+		float value;
+		if (valid && mantissa == 0) {
+			value = 0.0f;
+		} else if (valid && mantissa <= (1 << 24) && exponent >= -10
+				&& exponent <= 10) {
+			value = (exponent >= 0) ? (float) mantissa * powersOfTen[exponent]
+					: (float) mantissa / powersOfTen[-exponent];
+		} else {
+			return Float.parseFloat(getString(start, end));
+		}
+
+		return negative ? -value : value;
+	}
+
+	/**
+	 * This operation parses a token as an int. It returns exactly the same
+	 * value as Integer.parseInt().
+	 *
+	 * @param start
+	 *            The offset of the first byte of the token.
+	 * @param end
+	 *            The offset one past the last byte of the token.
+	 * @return The value of the token.
+	 * @throws NumberFormatException
+	 *             Thrown when the token is not an integer
+	 */
+	public int parseInt(int start, int end) {
+
+		int i = start;
+		boolean negative = false;
+		if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+			negative = (buffer.get(i) == '-');
+			i++;
+		}
+
+		// Let the JDK handle anything that is not a short string of digits
+		if (i == end || end - i > 9) {
+			return Integer.parseInt(getString(start, end));
+		}
+		int value = 0;
+		for (; i < end; i++) {
+			byte currByte = buffer.get(i);
+			if (currByte < '0' || currByte > '9') {
+				return Integer.parseInt(getString(start, end));
+			}
+			value = value * 10 + (currByte - '0');
+		}
+
+		return negative ? -value : value;
+	}
+
+	/**
+	 * This operation checks that a line index is valid.
+	 *
+	 * @param line
+	 *            The index of the line.
+	 * @throws IndexOutOfBoundsException
+	 *             Thrown when the line does not exist
+	 */
+	private void checkLine(int line) {
+		if (line < 0 || line >= numLines) {
+			throw new IndexOutOfBoundsException("Line: " + line + ", Lines: "
+					+ numLines);
+		}
+		return;
+	}
+
+	/**
+	 * This operation checks whether a byte is whitespace, as matched by the
+	 * "\\s" regular expression used by the NekReader to split lines.
+	 *
+	 * @param value
+	 *            The byte to check.
+	 * @return True if the byte is whitespace, false otherwise.
+	 */
+	private static boolean isBlank(byte value) {
+		return value == ' ' || value == '\t' || value == '\r' || value == '\n'
+				|| value == 0x0B || value == '\f';
+	}
+}
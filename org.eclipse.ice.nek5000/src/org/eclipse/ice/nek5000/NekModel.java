@@ -281,6 +281,7 @@ public class NekModel extends Item {
 		// Load the components from the file
 		File file = new File(name);
 		reader = new NekReader();
+		reader.setMemoryMapped(true);
 		ArrayList<Component> components = reader.loadREAFile(file);
 		ArrayList<Component> existingComponents = form.getComponents();
 
@@ -352,6 +353,7 @@ public class NekModel extends Item {
 
 		// Setup the writer
 		writer = new NekWriter();
+		writer.setStreaming(true);
 		// Create the file
 		File reaFile = new File(outputFilePath);
 		try {
@@ -19,6 +19,12 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.eclipse.ice.datastructures.ICEObject.Component;
 import org.eclipse.ice.datastructures.form.AllowedValueType;
@@ -28,8 +34,11 @@ import org.eclipse.ice.datastructures.form.MeshComponent;
 import org.eclipse.ice.viz.service.mesh.datastructures.BoundaryCondition;
 import org.eclipse.ice.viz.service.mesh.datastructures.BoundaryConditionType;
 import org.eclipse.ice.viz.service.mesh.datastructures.Edge;
+import org.eclipse.ice.viz.service.mesh.datastructures.Polygon;
 import org.eclipse.ice.viz.service.mesh.datastructures.Quad;
 import org.eclipse.ice.viz.service.mesh.datastructures.Vertex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * NekReader class is responsible for reading in the contents of a Nek5000 .rea
@@ -54,6 +63,12 @@ import org.eclipse.ice.viz.service.mesh.datastructures.Vertex;
  * 
  * Components are created and returned in the sequential order specified above.
  * 
+ * The reader can also memory-map the reafile (see setMemoryMapped()). In that
+ * mode the file is scanned once to find its sections, and the elements and
+ * boundary conditions of the mesh are parsed directly from the mapped bytes by
+ * a pool of threads, in chunks of consecutive lines. The other sections are
+ * read exactly as before. Both modes produce the same Components.
+ * 
  * The component IDs start at id = 2, as an example selection DataComponent (for
  * toggling between Nek examples) is deliberately placed at the beginning of the
  * NekModel Form (id = 1) when the Form is created.
@@ -63,6 +78,12 @@ import org.eclipse.ice.viz.service.mesh.datastructures.Vertex;
  */
 public class NekReader {
 
+	/**
+	 * Logger for handling event messages and other information.
+	 */
+	private static final Logger logger = LoggerFactory
+			.getLogger(NekReader.class);
+
 	/**
 	 * Number of dimensions the problem is based in, defined by the NDIM
 	 * parameter in a .rea file, located on the line before the MESH COMPONENT
@@ -107,6 +128,18 @@ public class NekReader {
 	 */
 	private ProblemProperties properties;
 
+	/**
+	 * True if reafiles should be memory-mapped and their mesh parsed in
+	 * parallel, false if they should be read line by line.
+	 */
+	private boolean memoryMapped;
+
+	/**
+	 * The smallest number of elements or boundary condition lines parsed by
+	 * a single task when the reafile is memory-mapped.
+	 */
+	private static final int minChunkSize = 256;
+
 	/**
 	 * Nullary constructor.
 	 */
@@ -138,17 +171,57 @@ public class NekReader {
 			return null;
 		}
 
-		ArrayList<Component> components = new ArrayList<Component>();
+		// Read the mapped file if requested. If its mesh cannot be parsed
+		// that way, read the file line by line, which handles (or reports)
+		// malformed input as it always has.
+		if (memoryMapped) {
+			try {
+				MappedReaFile mappedFile = new MappedReaFile(reaFile);
+				return loadComponents(mappedFile.getLines(), mappedFile);
+			} catch (RuntimeException e) {
+				logger.warn("NekReader Message: The mesh in "
+						+ reaFile.getName() + " could not be read from the "
+						+ "mapped file. Reading it line by line instead.", e);
+			}
+		}
 
 		// Read lines into an ArrayList of Strings
 		ArrayList<String> lines = readFileLines(reaFile);
 
+		return loadComponents(lines, null);
+	}
+
+	/**
+	 * Loads the Components from the lines of a reafile.
+	 * 
+	 * @param lines
+	 *            Lines of the reafile as a List of Strings.
+	 * @param mappedFile
+	 *            The mapped reafile if the mesh should be parsed from the
+	 *            mapped bytes, or null if it should be parsed from the lines.
+	 * @return ArrayList containing all the reafile input as Components.
+	 * @throws IOException
+	 *             Thrown when the parallel parsing of the mesh is interrupted
+	 */
+	private ArrayList<Component> loadComponents(List<String> lines,
+			MappedReaFile mappedFile) throws IOException {
+
+		ArrayList<Component> components = new ArrayList<Component>();
+
+		// Locate the mesh sections of a mapped file first so that the other
+		// sections do not decode them
+		int[] meshSections = null;
+		if (mappedFile != null) {
+			meshSections = locateMeshSections(mappedFile);
+		}
+
 		// Load the input components
 		DataComponent parameters = loadParameters(lines);
 		DataComponent passiveScalarData = loadPassiveScalarData(lines);
 		DataComponent switches = loadLogicalSwitches(lines);
 		DataComponent preNekAxes = loadPreNekAxes(lines);
-		MeshComponent mesh = loadMesh(lines);
+		MeshComponent mesh = (mappedFile != null) ? loadMappedMesh(
+				mappedFile, meshSections) : loadMesh(lines);
 		MeshComponent curvedSideData = loadCurvedSideData(lines);
 		DataComponent presolveRestartOpts = loadPresolveRestartOpts(lines);
 		DataComponent initialConditions = loadInitialConditions(lines);
@@ -182,6 +255,29 @@ public class NekReader {
 		return components;
 	}
 
+	/**
+	 * Sets whether reafiles are memory-mapped and their mesh parsed in
+	 * parallel by loadREAFile(). This is much faster and uses much less
+	 * memory for large meshes. It is off by default.
+	 * 
+	 * @param mapped
+	 *            True if reafiles should be memory-mapped, false if they
+	 *            should be read line by line.
+	 */
+	public void setMemoryMapped(boolean mapped) {
+		memoryMapped = mapped;
+	}
+
+	/**
+	 * Returns whether reafiles are memory-mapped by loadREAFile().
+	 * 
+	 * @return True if reafiles are memory-mapped, false if they are read line
+	 *         by line.
+	 */
+	public boolean isMemoryMapped() {
+		return memoryMapped;
+	}
+
 	/**
 	 * Utility class to read in a reafile and return its contents as an
 	 * ArrayList of Strings, broken at each newline character.
@@ -228,7 +324,7 @@ public class NekReader {
 	 * @return A DataComponent of Entries representing the contents of the
 	 *         PARAMETERS section.
 	 */
-	private DataComponent loadParameters(ArrayList<String> reaLines) {
+	private DataComponent loadParameters(List<String> reaLines) {
 
 		// Create a parameters component to add entries
 		DataComponent parameters = new DataComponent();
@@ -315,7 +411,7 @@ public class NekReader {
 	 * @return A DataComponent of Entries representing the contents of the
 	 *         PASSIVE SCALAR DATA section.
 	 */
-	private DataComponent loadPassiveScalarData(ArrayList<String> reaLines) {
+	private DataComponent loadPassiveScalarData(List<String> reaLines) {
 
 		// Create a passive scalar component to add entries
 		DataComponent passiveScalarData = new DataComponent();
@@ -393,7 +489,7 @@ public class NekReader {
 	 * @return A DataComponent of Entries representing the contents of the
 	 *         LOGICAL SWITCHES section.
 	 */
-	private DataComponent loadLogicalSwitches(ArrayList<String> reaLines) {
+	private DataComponent loadLogicalSwitches(List<String> reaLines) {
 
 		// Create a switches component to add entries
 		DataComponent switches = new DataComponent();
@@ -524,7 +620,7 @@ public class NekReader {
 	 * @return A DataComponent of Entries representing the contents of the
 	 *         PRE-NEK AXES section.
 	 */
-	private DataComponent loadPreNekAxes(ArrayList<String> reaLines) {
+	private DataComponent loadPreNekAxes(List<String> reaLines) {
 
 		// Create a PreNek Axes component to add entries
 		DataComponent preNekAxes = new DataComponent();
@@ -595,7 +691,7 @@ public class NekReader {
 	 *         defined in the problem, with a set of BoundaryConditions
 	 *         associated to each Quad.
 	 **/
-	private MeshComponent loadMesh(ArrayList<String> reaLines) {
+	private MeshComponent loadMesh(List<String> reaLines) {
 
 		// Local declarations for file reading
 		String currLine;
@@ -870,6 +966,515 @@ public class NekReader {
 		return mesh;
 	}
 
+	/**
+	 * Locates the MESH DATA and BOUNDARY CONDITIONS sections of a mapped
+	 * reafile among its header lines and reads the NEL,NDIM,NELV line. The
+	 * element and boundary condition lines are hidden from the lines of the
+	 * file that are read as Strings, as loadMappedMesh() parses them directly
+	 * from the mapped bytes.
+	 * 
+	 * @param reaFile
+	 *            The mapped reafile.
+	 * @return An array of line indices. Element 0 is the first line of the
+	 *         elements, element 1 is the first line of the fluid boundary
+	 *         conditions and element 2 is the first line of the thermal
+	 *         boundary conditions, or -1 if the section was not found. Any
+	 *         remaining elements are the first lines of the passive scalar
+	 *         boundary condition sets.
+	 */
+	private int[] locateMeshSections(MappedReaFile reaFile) {
+
+		// Local declarations
+		int meshLine = -1, fluidLine = -1, thermalLine = -1;
+		ArrayList<Integer> scalarLines = new ArrayList<Integer>();
+		ArrayList<String> numbersLine;
+		String header;
+
+		// Search the section headers
+		for (int line : reaFile.getHeaderLines()) {
+
+			header = reaFile.getLine(line);
+
+			// Search for the mesh data heading and read the element counts
+			if (meshLine < 0
+					&& (header.contains("**MESH DATA**") || header
+							.contains("*** MESH DATA ***"))
+					&& line + 1 < reaFile.getNumLines()
+					&& reaFile.getLine(line + 1).contains("NEL,NDIM,NELV")) {
+
+				numbersLine = (ArrayList<String>) parseLine(String.class,
+						reaFile.getLine(line + 1));
+				numThermalElements = Integer.parseInt(numbersLine.get(0));
+				numDimensions = Integer.parseInt(numbersLine.get(1));
+				numFluidElements = Integer.parseInt(numbersLine.get(2));
+
+				meshLine = line + 2;
+				reaFile.skipLines(meshLine, meshLine + numThermalElements
+						* (numDimensions + 1));
+			}
+
+			// Search for the boundary condition headings
+			else if (header.contains("***** FLUID   BOUNDARY CONDITIONS *****")) {
+				fluidLine = line + 1;
+				reaFile.skipLines(fluidLine, fluidLine + numFluidElements * 4);
+			} else if (header
+					.contains("***** THERMAL BOUNDARY CONDITIONS *****")) {
+				thermalLine = line + 1;
+				reaFile.skipLines(thermalLine, thermalLine
+						+ numThermalElements * 4);
+			} else if (header.contains("PASSIVE SCALAR")
+					&& header.contains("BOUNDARY CONDITIONS")) {
+				scalarLines.add(line + 1);
+				reaFile.skipLines(line + 1, line + 1 + numThermalElements * 4);
+			}
+		}
+
+		// Collect the line numbers
+		int[] sections = new int[3 + scalarLines.size()];
+		sections[0] = meshLine;
+		sections[1] = fluidLine;
+		sections[2] = thermalLine;
+		for (int i = 0; i < scalarLines.size(); i++) {
+			sections[3 + i] = scalarLines.get(i);
+		}
+
+		return sections;
+	}
+
+	/**
+	 * Loads the MESH DATA section of a mapped reafile and returns the contents
+	 * as a MeshComponent of Quads. This produces the same Quads, Edges,
+	 * Vertices and BoundaryConditions as loadMesh(), but the elements and
+	 * boundary conditions are parsed from the mapped bytes in chunks of
+	 * consecutive lines by a pool of threads. The passive scalar boundary
+	 * condition sets are assigned to the Quads with the IDs 1 to NPSCAL.
+	 * 
+	 * @param reaFile
+	 *            The mapped reafile.
+	 * @param sections
+	 *            The first lines of the sections, as returned by
+	 *            locateMeshSections().
+	 * @return MeshComponent containing the definition of all mesh elements
+	 *         defined in the problem, with a set of BoundaryConditions
+	 *         associated to each Quad.
+	 * @throws IOException
+	 *             Thrown when the parsing threads are interrupted
+	 * @throws IllegalStateException
+	 *             Thrown when an element or boundary condition is malformed
+	 */
+	private MeshComponent loadMappedMesh(final MappedReaFile reaFile,
+			int[] sections) throws IOException {
+
+		// Create a mesh component
+		MeshComponent mesh = new MeshComponent();
+		mesh.setName("Mesh Data");
+		mesh.setDescription("Elements contained in the Mesh section of a "
+				+ "Nek5000 reafile");
+		mesh.setId(6);
+
+		// Stop here if there is no mesh
+		final int meshLine = sections[0];
+		if (meshLine < 0 || numThermalElements <= 0) {
+			return mesh;
+		}
+
+		// Make sure the elements are in the file and find the number of
+		// vertices from the first one
+		if (numDimensions < 2
+				|| meshLine + numThermalElements * (numDimensions + 1) > reaFile
+						.getNumLines()) {
+			throw new IllegalStateException("NekReader Message: The mesh "
+					+ "data does not contain " + numThermalElements
+					+ " elements.");
+		}
+		final int numVertices = reaFile.tokenize(meshLine + 1, new int[0],
+				new int[0]);
+		if (numVertices < 4) {
+			throw new IllegalStateException("NekReader Message: Elements "
+					+ "must have at least 4 vertices.");
+		}
+
+		int numThreads = Runtime.getRuntime().availableProcessors();
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		try {
+			// Load the boundary conditions that will be assigned to the edges
+			final HashMap<Integer, BoundaryCondition> fluidBoundaryConditions = loadMappedBoundaryConditions(
+					reaFile, sections[1], numFluidElements * 4, executor);
+			final HashMap<Integer, BoundaryCondition> thermalBoundaryConditions = loadMappedBoundaryConditions(
+					reaFile, sections[2], numThermalElements * 4, executor);
+			final ArrayList<HashMap<Integer, BoundaryCondition>> scalarBoundaryConditions = new ArrayList<HashMap<Integer, BoundaryCondition>>();
+			for (int i = 3; i < sections.length; i++) {
+				scalarBoundaryConditions.add(loadMappedBoundaryConditions(
+						reaFile, sections[i], numThermalElements * 4,
+						executor));
+			}
+
+			// Build the quads in chunks of consecutive elements
+			final Quad[] quads = new Quad[numThermalElements];
+			int chunkSize = getChunkSize(numThermalElements, numThreads);
+			ArrayList<Future<?>> chunks = new ArrayList<Future<?>>();
+			for (int first = 0; first < numThermalElements; first += chunkSize) {
+				final int from = first;
+				final int to = Math.min(first + chunkSize, numThermalElements);
+				chunks.add(executor.submit(new Runnable() {
+					@Override
+					public void run() {
+						buildMappedQuads(reaFile, meshLine, from, to,
+								numVertices, quads, fluidBoundaryConditions,
+								thermalBoundaryConditions,
+								scalarBoundaryConditions);
+					}
+				}));
+			}
+			waitForChunks(chunks);
+
+			// Add the quads to the mesh in order. They are added as one list
+			// so that the listeners of the mesh are notified once.
+			mesh.setPolygons(new ArrayList<Polygon>(Arrays.asList(quads)));
+		} finally {
+			executor.shutdownNow();
+		}
+
+		// Return the Mesh Component containing mesh elements/quads with a
+		// set of (2 + NPSCAL) boundary conditions associated to each edge
+		return mesh;
+	}
+
+	/**
+	 * Builds the Quads of a range of elements of a mapped reafile. Vertex,
+	 * Edge and Quad IDs are computed from the element index, as every element
+	 * has the same number of vertices and four edges.
+	 * 
+	 * @param reaFile
+	 *            The mapped reafile.
+	 * @param meshLine
+	 *            The first line of the elements.
+	 * @param from
+	 *            The index of the first element to build.
+	 * @param to
+	 *            One past the index of the last element to build.
+	 * @param numVertices
+	 *            The number of vertices of each element.
+	 * @param quads
+	 *            The array of all Quads, in which the built Quads are stored.
+	 * @param fluidBoundaryConditions
+	 *            The fluid boundary conditions keyed on edge ID.
+	 * @param thermalBoundaryConditions
+	 *            The thermal boundary conditions keyed on edge ID.
+	 * @param scalarBoundaryConditions
+	 *            The sets of passive scalar boundary conditions keyed on edge
+	 *            ID.
+	 */
+	private void buildMappedQuads(MappedReaFile reaFile, int meshLine,
+			int from, int to, int numVertices, Quad[] quads,
+			HashMap<Integer, BoundaryCondition> fluidBoundaryConditions,
+			HashMap<Integer, BoundaryCondition> thermalBoundaryConditions,
+			ArrayList<HashMap<Integer, BoundaryCondition>> scalarBoundaryConditions) {
+
+		// Local declarations
+		int[] starts = new int[Math.max(8, numVertices)];
+		int[] ends = new int[starts.length];
+		float[][] coordinates = new float[numDimensions][numVertices];
+		String materialId;
+		int groupNum;
+		int line, count, edgeId;
+		ArrayList<Vertex> vertices;
+		ArrayList<Vertex> vertexCombo;
+		ArrayList<Edge> edges;
+		Vertex vertex;
+		Edge edge;
+		Quad quad;
+
+		for (int i = from; i < to; i++) {
+
+			// Make sure the current line is the beginning of an element
+			line = meshLine + i * (numDimensions + 1);
+			if (!reaFile.lineContains(line, "ELEMENT")) {
+				throw new IllegalStateException("NekReader Message: Line "
+						+ (line + 1) + " is not the beginning of an element.");
+			}
+
+			// Grab the material ID and group number
+			count = reaFile.tokenize(line, starts, ends);
+			checkTokens(count, 4, line);
+			if (reaFile.getByte(ends[3] - 1) == ']') {
+				checkTokens(count, 6, line);
+				materialId = reaFile.getString(starts[3], ends[3] - 1);
+				groupNum = reaFile.parseInt(starts[5], ends[5]);
+			} else {
+				checkTokens(count, 7, line);
+				materialId = reaFile.getString(starts[3], ends[3]);
+				groupNum = reaFile.parseInt(starts[6], ends[6]);
+			}
+
+			// Parse as many lines as there are dimensions
+			for (int k = 0; k < numDimensions; k++) {
+				count = reaFile.tokenize(line + k + 1, starts, ends);
+				if (count != numVertices) {
+					throw new IllegalStateException("NekReader Message: Line "
+							+ (line + k + 2) + " does not contain "
+							+ numVertices + " coordinates.");
+				}
+				for (int j = 0; j < numVertices; j++) {
+					coordinates[k][j] = reaFile.parseFloat(starts[j], ends[j]);
+				}
+			}
+
+			// Construct a set of vertices
+			vertices = new ArrayList<Vertex>(numVertices);
+			for (int k = 0; k < numVertices; k++) {
+				vertex = new Vertex(coordinates[0][k], coordinates[1][k], 0f);
+				vertex.setId(i * numVertices + k + 1);
+				vertices.add(vertex);
+			}
+
+			// Construct the edges, connecting vertices 1 + 2, 2 + 3, 3 + 4
+			// and 4 + 1
+			edges = new ArrayList<Edge>(4);
+			for (int k = 0; k < 4; k++) {
+				vertexCombo = new ArrayList<Vertex>(2);
+				vertexCombo.add(vertices.get(k));
+				vertexCombo.add(vertices.get((k + 1) % 4));
+				edge = new Edge(vertexCombo);
+				edge.setId(4 * i + k + 1);
+				edges.add(edge);
+			}
+
+			// Create the new quad
+			quad = new Quad(edges, vertices);
+			quad.setPolygonProperties(materialId, groupNum);
+
+			// Set the boundary conditions of the quad by edge ID
+			for (int k = 0; k < 4; k++) {
+				edgeId = 4 * i + k + 1;
+				if (ifFlow) {
+					quad.setFluidBoundaryCondition(edgeId,
+							fluidBoundaryConditions.get(edgeId));
+				}
+				if (ifHeat) {
+					quad.setThermalBoundaryCondition(edgeId,
+							thermalBoundaryConditions.get(edgeId));
+				}
+				for (int ii = 1; ii <= numPassiveScalars
+						&& ii <= scalarBoundaryConditions.size(); ii++) {
+					quad.setOtherBoundaryCondition(edgeId, ii,
+							scalarBoundaryConditions.get(ii - 1).get(edgeId));
+				}
+			}
+
+			quad.setId(i + 1);
+			quads[i] = quad;
+		}
+
+		return;
+	}
+
+	/**
+	 * Loads a set of boundary conditions from a mapped reafile. The lines are
+	 * parsed in chunks by the executor, and the boundary conditions are then
+	 * keyed on their unique edge IDs in the order of the file.
+	 * 
+	 * @param reaFile
+	 *            The mapped reafile.
+	 * @param firstLine
+	 *            The first line of the boundary conditions, or -1 if the
+	 *            section is not in the file.
+	 * @param numLines
+	 *            The number of boundary condition lines.
+	 * @param executor
+	 *            The executor that parses the chunks.
+	 * @return A HashMap of BoundaryConditions keyed on unique edge IDs.
+	 * @throws IOException
+	 *             Thrown when the parsing threads are interrupted
+	 */
+	private HashMap<Integer, BoundaryCondition> loadMappedBoundaryConditions(
+			final MappedReaFile reaFile, final int firstLine, int numLines,
+			ExecutorService executor) throws IOException {
+
+		HashMap<Integer, BoundaryCondition> boundaryConditions = new HashMap<Integer, BoundaryCondition>();
+
+		// Make sure the section is in the file
+		if (firstLine < 0) {
+			return boundaryConditions;
+		} else if (firstLine + numLines > reaFile.getNumLines()) {
+			throw new IllegalStateException("NekReader Message: The "
+					+ "boundary conditions on line " + firstLine
+					+ " do not contain " + numLines + " lines.");
+		}
+
+		// Parse the lines in chunks
+		final int[] edgeIds = new int[numLines];
+		final BoundaryCondition[] conditions = new BoundaryCondition[numLines];
+		int chunkSize = getChunkSize(numLines, Runtime.getRuntime()
+				.availableProcessors());
+		ArrayList<Future<?>> chunks = new ArrayList<Future<?>>();
+		for (int first = 0; first < numLines; first += chunkSize) {
+			final int from = first;
+			final int to = Math.min(first + chunkSize, numLines);
+			chunks.add(executor.submit(new Runnable() {
+				@Override
+				public void run() {
+					buildMappedBoundaryConditions(reaFile, firstLine, from,
+							to, edgeIds, conditions);
+				}
+			}));
+		}
+		waitForChunks(chunks);
+
+		// Key them on the edge IDs
+		for (int i = 0; i < numLines; i++) {
+			boundaryConditions.put(edgeIds[i], conditions[i]);
+		}
+
+		return boundaryConditions;
+	}
+
+	/**
+	 * Builds the BoundaryConditions of a range of lines of a mapped reafile.
+	 * Each line is read like buildBoundaryConditionPair() reads it.
+	 * 
+	 * @param reaFile
+	 *            The mapped reafile.
+	 * @param firstLine
+	 *            The first line of the boundary conditions.
+	 * @param from
+	 *            The index of the first boundary condition to build.
+	 * @param to
+	 *            One past the index of the last boundary condition to build.
+	 * @param edgeIds
+	 *            The array in which the unique edge IDs are stored.
+	 * @param conditions
+	 *            The array in which the BoundaryConditions are stored.
+	 */
+	private void buildMappedBoundaryConditions(MappedReaFile reaFile,
+			int firstLine, int from, int to, int[] edgeIds,
+			BoundaryCondition[] conditions) {
+
+		// Local declarations
+		int[] starts = new int[8];
+		int[] ends = new int[8];
+		float[] boundaryValues = new float[7];
+		ArrayList<Float> values;
+		BoundaryCondition condition;
+		BoundaryConditionType type;
+		int line, count;
+
+		// The types already seen in this chunk, to avoid decoding their ids
+		ArrayList<String> typeIds = new ArrayList<String>();
+		ArrayList<BoundaryConditionType> types = new ArrayList<BoundaryConditionType>();
+
+		for (int j = from; j < to; j++) {
+
+			// Extract values from current boundary condition
+			line = firstLine + j;
+			count = reaFile.tokenize(line, starts, ends);
+			checkTokens(count, 8, line);
+			for (int k = 1; k <= 7; k++) {
+				boundaryValues[k - 1] = reaFile.parseFloat(starts[k], ends[k]);
+			}
+
+			// Get the edge ID
+			edgeIds[j] = (int) (4 * (boundaryValues[0] - 1) + boundaryValues[1]);
+
+			// Get the boundary condition type
+			type = null;
+			int typeIndex = 0;
+			while (typeIndex < typeIds.size()
+					&& !reaFile.tokenEquals(starts[0], ends[0],
+							typeIds.get(typeIndex))) {
+				typeIndex++;
+			}
+			if (typeIndex < typeIds.size()) {
+				type = types.get(typeIndex);
+			} else {
+				String rawType = reaFile.getString(starts[0], ends[0]);
+				type = BoundaryConditionType.fromId(rawType);
+				typeIds.add(rawType);
+				types.add(type);
+			}
+
+			// Create the boundary condition object
+			condition = new BoundaryCondition();
+			condition.setType(type);
+			values = new ArrayList<Float>(5);
+			for (int k = 2; k < 7; k++) {
+				values.add(boundaryValues[k]);
+			}
+			condition.setValues(values);
+			conditions[j] = condition;
+		}
+
+		return;
+	}
+
+	/**
+	 * Computes the number of elements or lines parsed by each task so that
+	 * every thread gets a few tasks.
+	 * 
+	 * @param size
+	 *            The total number of elements or lines.
+	 * @param numThreads
+	 *            The number of threads.
+	 * @return The number of elements or lines in each chunk.
+	 */
+	private static int getChunkSize(int size, int numThreads) {
+		return Math.max(minChunkSize, size / (4 * numThreads) + 1);
+	}
+
+	/**
+	 * Waits for chunks of a mapped reafile to be parsed. Exceptions thrown
+	 * while parsing a chunk are rethrown.
+	 * 
+	 * @param chunks
+	 *            The Futures of the parsing tasks.
+	 * @throws IOException
+	 *             Thrown when the thread is interrupted while waiting
+	 */
+	private static void waitForChunks(List<Future<?>> chunks)
+			throws IOException {
+
+		try {
+			for (Future<?> chunk : chunks) {
+				chunk.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("NekReader Message: Reading the mesh was "
+					+ "interrupted.", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+
+		return;
+	}
+
+	/**
+	 * Makes sure a line of a mapped reafile has enough values.
+	 * 
+	 * @param count
+	 *            The number of values in the line.
+	 * @param needed
+	 *            The number of values needed.
+	 * @param line
+	 *            The index of the line.
+	 * @throws IllegalStateException
+	 *             Thrown when the line does not have enough values
+	 */
+	private static void checkTokens(int count, int needed, int line) {
+		if (count < needed) {
+			throw new IllegalStateException("NekReader Message: Line "
+					+ (line + 1) + " contains " + count + " values, but "
+					+ needed + " are needed.");
+		}
+		return;
+	}
+
 	/**
 	 * Loads the CURVED SIDES section of a reafile and returns the contents as a
 	 * MeshComponent of Quads.
@@ -879,7 +1484,7 @@ public class NekReader {
 	 * @return A DataComponent of Entries representing the contents of the
 	 *         CURVED SIDE DATA section.
 	 */
-	private MeshComponent loadCurvedSideData(ArrayList<String> reaLines) {
+	private MeshComponent loadCurvedSideData(List<String> reaLines) {
 
 		MeshComponent curvedSides = new MeshComponent();
 		curvedSides.setName("Curved Side Data");
@@ -912,7 +1517,7 @@ public class NekReader {
 	 *         passive scalar boundary conditions, where N is defined by NPSCAL
 	 *         in the PARAMETERS section (ie. this.numPassiveScalars)
 	 **/
-	private ArrayList<Object> loadBoundaryConditions(ArrayList<String> reaLines) {
+	private ArrayList<Object> loadBoundaryConditions(List<String> reaLines) {
 
 		// Local declarations
 		ArrayList<Object> currCondition;
@@ -1048,7 +1653,7 @@ public class NekReader {
 	 * @return A DataComponent of Entries representing the contents of the
 	 *         PRESOLVE/RESTART OPTIONS section.
 	 */
-	private DataComponent loadPresolveRestartOpts(ArrayList<String> reaLines) {
+	private DataComponent loadPresolveRestartOpts(List<String> reaLines) {
 
 		// Create a presolve/restart component to add entries
 		DataComponent presolveRestart = new DataComponent();
@@ -1120,7 +1725,7 @@ public class NekReader {
 	 * @return A DataComponent of Entries representing the contents of the
 	 *         INITIAL CONDITIONS section.
 	 */
-	private DataComponent loadInitialConditions(ArrayList<String> reaLines) {
+	private DataComponent loadInitialConditions(List<String> reaLines) {
 
 		// Create an initial conditions component to add entries
 		DataComponent initialConditions = new DataComponent();
@@ -1178,7 +1783,7 @@ public class NekReader {
 	 * @return A DataComponent of Entries representing the contents of the DRIVE
 	 *         FORCE DATA section.
 	 */
-	private DataComponent loadDriveForceData(ArrayList<String> reaLines) {
+	private DataComponent loadDriveForceData(List<String> reaLines) {
 
 		// Create a drive force data component to add entries
 		DataComponent driveForceData = new DataComponent();
@@ -1239,7 +1844,7 @@ public class NekReader {
 	 * @return A DataComponent of Entries representing the contents of the
 	 *         VARIABLE PROPERTY DATA section.
 	 */
-	private DataComponent loadVarPropertyData(ArrayList<String> reaLines) {
+	private DataComponent loadVarPropertyData(List<String> reaLines) {
 
 		// Create a variable property data component to add entries
 		DataComponent varPropertyData = new DataComponent();
@@ -1297,7 +1902,7 @@ public class NekReader {
 	 * @return A DataComponent of Entries representing the contents of the
 	 *         HISTORY AND INTEGRAL DATA section.
 	 */
-	private DataComponent loadHistoryIntegralData(ArrayList<String> reaLines) {
+	private DataComponent loadHistoryIntegralData(List<String> reaLines) {
 
 		// Create a history and integral data component to add entries
 		DataComponent historyIntegralData = new DataComponent();
@@ -1371,7 +1976,7 @@ public class NekReader {
 	 * @return A DataComponent of Entries representing the contents of the
 	 *         OUTPUT FIELD SPECIFICATION section.
 	 */
-	private DataComponent loadOutputFieldSpec(ArrayList<String> reaLines) {
+	private DataComponent loadOutputFieldSpec(List<String> reaLines) {
 
 		// Create a output field spec component to add entries
 		DataComponent outputFieldSpec = new DataComponent();
@@ -1456,7 +2061,7 @@ public class NekReader {
 	 * @return A DataComponent of Entries representing the contents of the
 	 *         OBJECT SPECIFICATION section.
 	 */
-	private DataComponent loadObjectSpec(ArrayList<String> reaLines) {
+	private DataComponent loadObjectSpec(List<String> reaLines) {
 
 		// Create a object specification component to add entries
 		DataComponent objectSpec = new DataComponent();
@@ -1636,7 +2241,7 @@ public class NekReader {
 	 *         and the associated BoundaryCondition in the second element.
 	 */
 	private ArrayList<Object> buildBoundaryConditionPair(
-			ArrayList<String> reaLines, int i, int j) {
+			List<String> reaLines, int i, int j) {
 
 		// Local declarations
 		String currLine;
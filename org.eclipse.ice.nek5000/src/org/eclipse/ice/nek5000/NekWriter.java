@@ -31,9 +31,11 @@ import org.eclipse.ice.datastructures.form.emf.EMFComponent;
 import org.eclipse.ice.viz.service.mesh.datastructures.BoundaryCondition;
 import org.eclipse.ice.viz.service.mesh.datastructures.BoundaryConditionType;
 import org.eclipse.ice.viz.service.mesh.datastructures.Edge;
+import org.eclipse.ice.viz.service.mesh.datastructures.Polygon;
 import org.eclipse.ice.viz.service.mesh.datastructures.Quad;
-import org.eclipse.ice.viz.service.mesh.datastructures.Vertex;
+import org.eclipse.ice.viz.service.mesh.datastructures.Vertex;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
@@ -41,16 +43,31 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.channels.Channels;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * This class is responsible for writing the contents of a Component collection
  * into a file appropriate to be used as a Nek5000 .rea file.
  * 
+ * The writer can also stream the reafile (see setStreaming()). In that mode
+ * the file is written through a single large buffer, and the lines of the
+ * mesh elements and boundary conditions are formatted by a pool of threads,
+ * in chunks of consecutive elements, into reusable buffers that are written
+ * in order. Both modes write exactly the same bytes. Streaming is only used
+ * when the problem has no passive scalars.
+ * 
  * @author Anna Wojtowicz
  * 
  */
@@ -69,6 +86,41 @@ public class NekWriter implements IComponentVisitor {
 	 */
 	private ProblemProperties properties;
 
+	/**
+	 * True if reafiles should be streamed and their mesh formatted in
+	 * parallel, false if each section should be written on its own.
+	 */
+	private boolean streaming;
+
+	/**
+	 * The size of the buffer through which a reafile is streamed.
+	 */
+	private static final int streamBufferSize = 1 << 20;
+
+	/**
+	 * The smallest number of elements formatted by a single task when the
+	 * reafile is streamed.
+	 */
+	private static final int minChunkSize = 256;
+
+	/**
+	 * The format of the coordinates of the mesh elements.
+	 */
+	private static final String coordinateFormat = "%9.6G";
+
+	/**
+	 * The format of the values of the boundary conditions.
+	 */
+	private static final String boundaryValueFormat = "%14.7G";
+
+	/**
+	 * The mesh sections that are formatted in chunks when the reafile is
+	 * streamed.
+	 */
+	private enum MeshSection {
+		Elements, FluidBoundaryConditions, ThermalBoundaryConditions
+	}
+
 	/**
 	 * Nullary constructor
 	 */
@@ -115,8 +167,18 @@ public class NekWriter implements IComponentVisitor {
 			// Set the problem properties
 			this.properties = properties;
 
-			// Set the output stream to the output file
-			stream = new FileOutputStream(outputFile);
+			// Set the output stream to the output file. The streamed path
+			// does not handle passive scalars, so the others still use the
+			// section by section path.
+			boolean streamed = streaming
+					&& properties.getNumPassiveScalars() == 0;
+			if (streamed) {
+				stream = new BufferedOutputStream(
+						Channels.newOutputStream(new FileOutputStream(
+								outputFile).getChannel()), streamBufferSize);
+			} else {
+				stream = new FileOutputStream(outputFile);
+			}
 
 			// Verify all the Components are valid and then add componentMap Map
 			for (int i = 0; i < components.size(); i++) {
@@ -129,7 +191,11 @@ public class NekWriter implements IComponentVisitor {
 			writePassiveScalarData(stream);
 			writeLogicalSwitches(stream);
 			writePreNekAxes(stream);
-			writeMesh(stream);
+			if (streamed) {
+				writeStreamedMesh(stream);
+			} else {
+				writeMesh(stream);
+			}
 			writePresolveRestartOpts(stream);
 			writeInitialConditions(stream);
 			writeDriveForceData(stream);
@@ -147,6 +213,29 @@ public class NekWriter implements IComponentVisitor {
 		return;
 	}
 
+	/**
+	 * Sets whether reafiles are streamed through a single buffer by
+	 * writeReaFile(), with their mesh formatted in parallel. This is much
+	 * faster for large meshes and writes the same bytes. It is off by default.
+	 * 
+	 * @param stream
+	 *            True if reafiles should be streamed, false if each section
+	 *            should be written on its own.
+	 */
+	public void setStreaming(boolean stream) {
+		streaming = stream;
+	}
+
+	/**
+	 * Returns whether reafiles are streamed by writeReaFile().
+	 * 
+	 * @return True if reafiles are streamed, false if each section is written
+	 *         on its own.
+	 */
+	public boolean isStreaming() {
+		return streaming;
+	}
+
 	/**
 	 * Writes an ICE header at the top of the reafile, providing the date, time
 	 * and hostname where the file was generated.
@@ -586,6 +675,255 @@ public class NekWriter implements IComponentVisitor {
 		return;
 	}
 
+	/**
+	 * Writes the MESH DATA MeshComponent, the curved side data and the
+	 * boundary conditions to the specified OutputStream exactly like
+	 * writeMesh(...), for problems without passive scalars. The boundary
+	 * conditions are counted first so that the header can be written before
+	 * the elements, and the lines of each section are then formatted in
+	 * chunks by a pool of threads and written in order.
+	 * 
+	 * @param stream
+	 *            The OutputStream to write to
+	 * @throws IOException
+	 *             Thrown when writing to OutputStream fails
+	 */
+	private void writeStreamedMesh(OutputStream stream) throws IOException {
+
+		// Local declarations
+		MeshComponent mesh = (MeshComponent) componentMap.get("Mesh Data");
+		ArrayList<Polygon> quads = mesh.getPolygons();
+		int numFluidBCs = 0;
+		int numThermalBCs = 0;
+		Quad currQuad;
+		ArrayList<Edge> currEdges;
+		int currEdgeId;
+		int numThreads = Runtime.getRuntime().availableProcessors();
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+
+		// Count the fluid and thermal boundary conditions
+		for (int i = 0; i < quads.size(); i++) {
+			currQuad = (Quad) quads.get(i);
+			currEdges = currQuad.getEdges();
+			for (int j = 0; j < 4; j++) {
+				currEdgeId = currEdges.get(j).getId();
+				if (currQuad.getFluidBoundaryCondition(currEdgeId).getType() != BoundaryConditionType.None) {
+					numFluidBCs++;
+				}
+				if (currQuad.getThermalBoundaryCondition(currEdgeId)
+						.getType() != BoundaryConditionType.None) {
+					numThermalBCs++;
+				}
+			}
+		}
+
+		// Update the ProblemProperties if any mesh element counts changed
+		updateProperties(properties.getNumDimensions(),
+				numThermalBCs == 0 ? properties.getNumThermalElements()
+						: numThermalBCs / 4,
+				numFluidBCs == 0 ? properties.getNumFluidElements()
+						: numFluidBCs / 4, 0);
+
+		try {
+			// Write the header and the elements
+			String meshHeader = String
+					.format("  *** MESH DATA ***\n"
+							+ "      %3d      %3d      %3d           NEL,NDIM,NELV\n",
+							properties.getNumThermalElements(),
+							properties.getNumDimensions(),
+							properties.getNumFluidElements());
+			stream.write(meshHeader.getBytes());
+			writeChunks(stream, quads, MeshSection.Elements, executor,
+					numThreads);
+
+			// Write curved side data
+			writeCurvedSideData(stream);
+
+			// Write the boundary conditions, with the same headers as
+			// writeBoundaryConditions(...)
+			stream.write("  ***** BOUNDARY CONDITIONS *****\n".getBytes());
+			if (numFluidBCs > 0) {
+				stream.write("  ***** FLUID   BOUNDARY CONDITIONS *****\n"
+						.getBytes());
+				writeChunks(stream, quads, MeshSection.FluidBoundaryConditions,
+						executor, numThreads);
+			} else {
+				stream.write("  ***** NO FLUID   BOUNDARY CONDITIONS *****\n"
+						.getBytes());
+			}
+			if (numThermalBCs > 0) {
+				stream.write("  ***** THERMAL BOUNDARY CONDITIONS *****\n"
+						.getBytes());
+				writeChunks(stream, quads,
+						MeshSection.ThermalBoundaryConditions, executor,
+						numThreads);
+			} else {
+				stream.write("  ***** NO THERMAL BOUNDARY CONDITIONS *****\n"
+						.getBytes());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		return;
+	}
+
+	/**
+	 * Formats the lines of a mesh section in chunks of consecutive elements
+	 * and writes them to the specified OutputStream in order. At most a few
+	 * chunks per thread are formatted ahead of the one being written, and
+	 * their buffers are reused for the following chunks.
+	 * 
+	 * @param stream
+	 *            The OutputStream to write to
+	 * @param quads
+	 *            The elements of the mesh
+	 * @param section
+	 *            The mesh section to write
+	 * @param executor
+	 *            The executor that formats the chunks
+	 * @param numThreads
+	 *            The number of threads of the executor
+	 * @throws IOException
+	 *             Thrown when writing to OutputStream fails or the thread is
+	 *             interrupted
+	 */
+	private void writeChunks(OutputStream stream, final List<Polygon> quads,
+			final MeshSection section, ExecutorService executor,
+			int numThreads) throws IOException {
+
+		// Local declarations
+		final int chunkSize = Math.max(minChunkSize, quads.size()
+				/ (4 * numThreads) + 1);
+		int numChunks = (quads.size() + chunkSize - 1) / chunkSize;
+		int maxPending = 2 * numThreads;
+		ArrayDeque<ReaLineBuffer> freeBuffers = new ArrayDeque<ReaLineBuffer>();
+		ArrayDeque<Future<ReaLineBuffer>> pending = new ArrayDeque<Future<ReaLineBuffer>>();
+		int nextChunk = 0;
+		ReaLineBuffer buffer;
+
+		try {
+			for (int i = 0; i < numChunks; i++) {
+
+				// Keep the pool busy with the next chunks
+				while (pending.size() < maxPending && nextChunk < numChunks) {
+					final int first = nextChunk * chunkSize;
+					final int last = Math.min(quads.size(), first + chunkSize);
+					final ReaLineBuffer chunkBuffer = freeBuffers.isEmpty() ? new ReaLineBuffer(
+							(last - first) * 128) : freeBuffers.pop();
+					pending.add(executor.submit(new Callable<ReaLineBuffer>() {
+						@Override
+						public ReaLineBuffer call() {
+							formatChunk(quads, first, last, section, chunkBuffer);
+							return chunkBuffer;
+						}
+					}));
+					nextChunk++;
+				}
+
+				// Write the oldest chunk and recycle its buffer
+				buffer = pending.poll().get();
+				buffer.writeTo(stream);
+				buffer.reset();
+				freeBuffers.push(buffer);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("NekWriter Message: Writing the mesh was "
+					+ "interrupted.", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+
+		return;
+	}
+
+	/**
+	 * Formats the lines of a mesh section for a chunk of consecutive elements,
+	 * with the same formats as writeMesh(...).
+	 * 
+	 * @param quads
+	 *            The elements of the mesh
+	 * @param first
+	 *            The index of the first element of the chunk
+	 * @param last
+	 *            The index after the last element of the chunk
+	 * @param section
+	 *            The mesh section to format
+	 * @param buffer
+	 *            The buffer to format the lines into
+	 */
+	private static void formatChunk(List<Polygon> quads, int first, int last,
+			MeshSection section, ReaLineBuffer buffer) {
+
+		// Local declarations
+		Quad currQuad;
+		ArrayList<Vertex> currVertices;
+		ArrayList<Edge> currEdges;
+		int currEdgeId;
+		BoundaryCondition currBC;
+		ArrayList<Float> currBCValues;
+
+		for (int i = first; i < last; i++) {
+
+			currQuad = (Quad) quads.get(i);
+
+			if (section == MeshSection.Elements) {
+				// FORMAT: "           ELEMENT%6s [ %4s]  GROUP   %5s\n"
+				buffer.append("           ELEMENT");
+				buffer.append(String.valueOf(i + 1), 6, false);
+				buffer.append(" [ ");
+				buffer.append(currQuad.getPolygonProperties().getMaterialId(),
+						4, false);
+				buffer.append("]  GROUP   ");
+				buffer.append(String.valueOf(currQuad.getPolygonProperties()
+						.getGroupNum()), 5, false);
+				buffer.append("\n");
+
+				// FORMAT: " %9.6G     %9.6G     %9.6G     %9.6G\n", first the
+				// x and then the y coordinates
+				currVertices = currQuad.getVertices();
+				for (int k = 0; k < 2; k++) {
+					for (int l = 0; l < 4; l++) {
+						buffer.append(l == 0 ? " " : "     ");
+						buffer.append(currVertices.get(l).getLocation()[k],
+								coordinateFormat);
+					}
+					buffer.append("\n");
+				}
+			} else {
+				currEdges = currQuad.getEdges();
+				for (int j = 0; j < 4; j++) {
+					currEdgeId = currEdges.get(j).getId();
+					currBC = (section == MeshSection.FluidBoundaryConditions) ? currQuad
+							.getFluidBoundaryCondition(currEdgeId) : currQuad
+							.getThermalBoundaryCondition(currEdgeId);
+					if (currBC.getType() != BoundaryConditionType.None) {
+						// FORMAT: " %-3s%3d%3d%14.7G%14.7G%14.7G%14.7G%14.7G\n"
+						currBCValues = currBC.getValues();
+						buffer.append(" ");
+						buffer.append(currBC.getType().id, 3, true);
+						buffer.append(i + 1, 3);
+						buffer.append(j + 1, 3);
+						for (int k = 0; k < 5; k++) {
+							buffer.append(currBCValues.get(k),
+									boundaryValueFormat);
+						}
+						buffer.append("\n");
+					}
+				}
+			}
+		}
+
+		return;
+	}
+
 	/**
 	 * Grabs the CURVED SIDE DATA MeshComponent from the componentMap and writes
 	 * the contents to the specified OutputStream.
@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.nek5000;
+
+import java.io.ByteArrayOutputStream;
+import java.text.DecimalFormatSymbols;
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * ReaLineBuffer is a reusable buffer into which the NekWriter formats the
+ * lines of a reafile. It produces exactly the same bytes as String.format()
+ * followed by String.getBytes() for the conversions used by the NekWriter,
+ * which are padded Strings, padded ints and floats in the %G conversion.
+ *
+ * Strings and ints are formatted directly into the buffer. Floats are
+ * formatted with String.format(), but the bytes of each distinct value are
+ * cached, as the same coordinates and boundary condition values appear many
+ * times in a mesh.
+ *
+ * A buffer is not thread-safe. It is meant to be used by one thread at a time
+ * and reset between uses, which keeps its array and its caches.
+ */
+class ReaLineBuffer extends ByteArrayOutputStream {
+
+	/**
+	 * The largest number of values cached for each float format before the
+	 * cache is cleared.
+	 */
+	private static final int maxCacheSize = 1 << 16;
+
+	/**
+	 * The formatted bytes of float values keyed on their raw bits, by format.
+	 */
+	private final HashMap<String, HashMap<Integer, byte[]>> floatCaches;
+
+	/**
+	 * True if the default locale formats ints with the ASCII digits, in which
+	 * case they are formatted directly into the buffer.
+	 */
+	private final boolean asciiDigits;
+
+	/**
+	 * The constructor.
+	 *
+	 * @param size
+	 *            The initial size of the buffer in bytes.
+	 */
+	public ReaLineBuffer(int size) {
+		super(size);
+		floatCaches = new HashMap<String, HashMap<Integer, byte[]>>();
+		asciiDigits = DecimalFormatSymbols.getInstance(
+				Locale.getDefault(Locale.Category.FORMAT)).getZeroDigit() == '0';
+	}
+
+	/**
+	 * This operation appends a String without padding.
+	 *
+	 * @param value
+	 *            The String to append.
+	 */
+	public void append(String value) {
+		byte[] bytes = value.getBytes();
+		write(bytes, 0, bytes.length);
+	}
+
+	/**
+	 * This operation appends a String padded with spaces, like the %s
+	 * conversion of String.format() with a width.
+	 *
+	 * @param value
+	 *            The String to append. Null is appended as "null".
+	 * @param width
+	 *            The minimum number of characters.
+	 * @param leftJustify
+	 *            True if the padding goes after the String, like the '-' flag,
+	 *            false if it goes before.
+	 */
+	public void append(String value, int width, boolean leftJustify) {
+
+		String string = String.valueOf(value);
+		if (leftJustify) {
+			append(string);
+		}
+		for (int i = string.length(); i < width; i++) {
+			write(' ');
+		}
+		if (!leftJustify) {
+			append(string);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation appends an int right-justified in a field, like the %d
+	 * conversion of String.format() with a width.
+	 *
+	 * @param value
+	 *            The int to append.
+	 * @param width
+	 *            The minimum number of characters.
+	 */
+	public void append(int value, int width) {
+
+		// Let the JDK localize the digits if the locale needs it
+		if (!asciiDigits) {
+			append(String.format("%" + width + "d", value));
+			return;
+		}
+
+		// Find the digits, from the last to the first
+		long magnitude = Math.abs((long) value);
+		byte[] digits = new byte[20];
+		int numDigits = 0;
+		do {
+			digits[numDigits++] = (byte) ('0' + magnitude % 10);
+			magnitude /= 10;
+		} while (magnitude > 0);
+
+		// Pad, then write the sign and digits
+		int length = numDigits + (value < 0 ? 1 : 0);
+		for (int i = length; i < width; i++) {
+			write(' ');
+		}
+		if (value < 0) {
+			write('-');
+		}
+		for (int i = numDigits - 1; i >= 0; i--) {
+			write(digits[i]);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation appends a float formatted by String.format() with a
+	 * single float conversion.
+	 *
+	 * @param value
+	 *            The float to append.
+	 * @param format
+	 *            The format, for example "%14.7G".
+	 */
+	public void append(float value, String format) {
+
+		// Get the cache for this format
+		HashMap<Integer, byte[]> cache = floatCaches.get(format);
+		if (cache == null) {
+			cache = new HashMap<Integer, byte[]>();
+			floatCaches.put(format, cache);
+		}
+
+		// Format the value if it has not been seen yet
+		Integer bits = Float.floatToRawIntBits(value);
+		byte[] bytes = cache.get(bits);
+		if (bytes == null) {
+			if (cache.size() >= maxCacheSize) {
+				cache.clear();
+			}
+			bytes = String.format(format, value).getBytes();
+			cache.put(bits, bytes);
+		}
+		write(bytes, 0, bytes.length);
+
+		return;
+	}
+}
@@ -23,6 +23,8 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.ArrayList;
 
@@ -41,6 +43,7 @@ import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Path;
+import org.eclipse.ice.datastructures.ICEObject.Identifiable;
 import org.eclipse.ice.datastructures.form.Form;
 import org.eclipse.ice.datastructures.jaxbclassprovider.ICEJAXBClassProvider;
 import org.eclipse.ice.item.Item;
@@ -285,6 +288,64 @@ public class XMLPersistenceProviderTester {
 		return;
 	}
 
+	/**
+	 * This operation checks that the XMLPersistenceProvider can write Items in
+	 * the compressed format, that repeated updates of the same Item are
+	 * coalesced and that the compressed files can be loaded again.
+	 */
+	@Test
+	public void checkFormats() throws CoreException, IOException {
+
+		// Create a MOOSE item
+		MOOSEModelBuilder builder = new MOOSEModelBuilder();
+		Item item = builder.build(project);
+		item.setId(6);
+		String name = item.getName().replace(" ", "_") + "_" + item.getId()
+				+ ".xml";
+
+		try {
+			// Switch to the compressed format and update the Item many times
+			xmlpp.setFormat(XMLPersistenceProvider.GZIP_FORMAT);
+			assertEquals(XMLPersistenceProvider.GZIP_FORMAT,
+					xmlpp.getFormat());
+			for (int i = 0; i < 100; i++) {
+				assertTrue(xmlpp.updateItem(item));
+			}
+
+			// Wait while the file is persisted.
+			pause(2);
+			assertTrue(checkPersistedFile(name));
+
+			// The file should be compressed
+			InputStream stream = project.getFile(name).getContents(true);
+			try {
+				assertEquals(0x1f, stream.read());
+				assertEquals(0x8b, stream.read());
+			} finally {
+				stream.close();
+			}
+
+			// Load the Item and check it
+			Item loadedItem = xmlpp.loadItem(6);
+			assertNotNull(loadedItem);
+			loadedItem.setProject(project);
+			assertEquals(item, loadedItem);
+		} finally {
+			xmlpp.setFormat(XMLPersistenceProvider.XML_FORMAT);
+		}
+
+		// Bad formats should be rejected
+		try {
+			xmlpp.setFormat("yaml");
+			fail();
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+		assertEquals(XMLPersistenceProvider.XML_FORMAT, xmlpp.getFormat());
+
+		return;
+	}
+
 	/**
 	 * This operation checks the load operation to make sure that the
 	 * XMLPersistenceProvider can properly load Items from the workspace. It
@@ -369,6 +430,24 @@ public class XMLPersistenceProviderTester {
 		}
 		assertEquals(1, passedCount);
 
+		// The headers should describe the same Items without loading them.
+		// Load them twice so that the second call uses the index.
+		for (int i = 0; i < 2; i++) {
+			ArrayList<Identifiable> headers = xmlpp.loadItemHeaders();
+			assertNotNull(headers);
+			passedCount = 0;
+			for (Identifiable header : headers) {
+				if ((header.getId() == 4 && header.getName().equals(
+						MOOSEModelBuilder.name))
+						|| (header.getId() == 5 && header.getName().equals(
+								"VIBE Launcher"))) {
+					passedCount++;
+				}
+			}
+			assertEquals(2, passedCount);
+			pause(2);
+		}
+
 		return;
 	}
 
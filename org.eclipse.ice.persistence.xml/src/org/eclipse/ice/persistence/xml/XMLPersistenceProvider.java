@@ -12,21 +12,46 @@
  *******************************************************************************/
 package org.eclipse.ice.persistence.xml;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import javax.naming.OperationNotSupportedException;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -35,10 +60,14 @@ import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
-import org.eclipse.ice.core.iCore.IPersistenceProvider;
+import org.eclipse.core.runtime.QualifiedName;
+import org.eclipse.ice.core.iCore.ILazyPersistenceProvider;
+import org.eclipse.ice.datastructures.ICEObject.ICEObject;
+import org.eclipse.ice.datastructures.ICEObject.Identifiable;
 import org.eclipse.ice.datastructures.form.Entry;
 import org.eclipse.ice.datastructures.form.Form;
 import org.eclipse.ice.datastructures.jaxbclassprovider.IJAXBClassProvider;
+import org.eclipse.ice.datastructures.jaxbclassprovider.JAXBContextRegistry;
 import org.eclipse.ice.io.serializable.IReader;
 import org.eclipse.ice.io.serializable.IWriter;
 import org.eclipse.ice.item.Item;
@@ -61,6 +90,28 @@ import org.slf4j.LoggerFactory;
  * blocking.
  * 
  * Items that are loaded by the provider are not constructed with a project.
+ * loadItems() unmarshals the Item files in parallel on a pool of worker
+ * threads. The provider also keeps a small index of the id, name, description
+ * and builder of each Item in the project space so that loadItemHeaders() can
+ * describe all of the Items without unmarshalling them. Headers for files that
+ * are missing from the index or that changed outside of ICE are read from the
+ * attributes of the root element of the file.
+ * 
+ * Persistence tasks are written behind. Only the most recent pending task for
+ * an Item (or for a file in the case of the IWriter interface) is kept, so an
+ * Item that is updated many times while the event loop is busy is only written
+ * once. Submitting a task blocks while the queue is full instead of failing.
+ * Files are written to a temporary file that is then moved over the old file,
+ * so a crash never leaves a partially written Item behind.
+ * 
+ * The format of the Item files can be selected for each project by calling
+ * setFormat(). The default XML_FORMAT is pretty-printed XML, COMPACT_FORMAT is
+ * XML without any formatting and GZIP_FORMAT is compact XML compressed with
+ * GZIP. COMPACT_FORMAT is the fastest to write and read. GZIP_FORMAT trades
+ * extra CPU time on every write and read for much smaller files, so it is
+ * only worth using when disk space or I/O bandwidth is the bottleneck. The
+ * format of each file is detected when it is read, so changing the format
+ * does not require converting the existing files.
  * 
  * This provider should always be started AFTER all of the Items are registered
  * with it because registering Items while it is running would require stopping
@@ -76,8 +127,8 @@ import org.slf4j.LoggerFactory;
  * @author Jay Jay Billings
  * 
  */
-public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
-		IReader, IWriter {
+public class XMLPersistenceProvider implements ILazyPersistenceProvider,
+		Runnable, IReader, IWriter {
 
 	/**
 	 * Logger for handling event messages and other information.
@@ -91,6 +142,34 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	 */
 	AtomicBoolean runFlag = new AtomicBoolean();
 
+	/**
+	 * The name of the pretty-printed XML format. This is the default.
+	 */
+	public static final String XML_FORMAT = "xml";
+
+	/**
+	 * The name of the XML format without indentation or line breaks.
+	 */
+	public static final String COMPACT_FORMAT = "compact";
+
+	/**
+	 * The name of the GZIP compressed XML format. It is slower to write and
+	 * read than COMPACT_FORMAT, but the files are much smaller.
+	 */
+	public static final String GZIP_FORMAT = "gzip";
+
+	/**
+	 * The key of the persistent project property that stores the format.
+	 */
+	private static final QualifiedName formatProperty = new QualifiedName(
+			"org.eclipse.ice.persistence.xml", "format");
+
+	/**
+	 * The format in which Items are written. It is one of XML_FORMAT,
+	 * COMPACT_FORMAT or GZIP_FORMAT.
+	 */
+	private volatile String format = XML_FORMAT;
+
 	/**
 	 * This is a private class used to store queue events. The Item or its id
 	 * are stored along with one of the words "persist" or "delete" to denote
@@ -119,6 +198,11 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 		 * The file to which the Form should be written.
 		 */
 		public IFile file;
+		/**
+		 * The key used to coalesce the task with other tasks for the same
+		 * Item or file. It is the id of the Item or the path of the file.
+		 */
+		public Object key;
 	}
 
 	/**
@@ -128,6 +212,13 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	ArrayBlockingQueue<QueuedTask> taskQueue = new ArrayBlockingQueue<QueuedTask>(
 			1024);
 
+	/**
+	 * The most recent pending task for each key. A task is only added to the
+	 * queue if there is not already a pending task with the same key, in which
+	 * case it replaces that task and the event loop performs it instead.
+	 */
+	private ConcurrentHashMap<Object, QueuedTask> pendingTasks = new ConcurrentHashMap<Object, QueuedTask>();
+
 	/**
 	 * A private thread on which the event loop is run. The runnable for this
 	 * thread is the current instance of this class. All work is processed on
@@ -154,6 +245,59 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	 */
 	private Hashtable<Integer, String> itemIdMap = new Hashtable<Integer, String>();
 
+	/**
+	 * The name of the file in the project space that stores the Item headers.
+	 */
+	private static final String indexFileName = ".itemIndex";
+
+	/**
+	 * The version of the index file format.
+	 */
+	private static final int indexVersion = 1;
+
+	/**
+	 * The headers of all persisted Items keyed by id. This map is updated when
+	 * Items are persisted or deleted and it is written to the index file when
+	 * the event loop is idle.
+	 */
+	private ConcurrentHashMap<Integer, ItemHeader> headerMap = new ConcurrentHashMap<Integer, ItemHeader>();
+
+	/**
+	 * True if the header map has changed since the index file was written.
+	 */
+	private AtomicBoolean indexDirty = new AtomicBoolean(false);
+
+	/**
+	 * This is a private class used to store the header of a persisted Item in
+	 * the index.
+	 */
+	private static class ItemHeader {
+		/**
+		 * The id of the Item.
+		 */
+		public int id;
+		/**
+		 * The name of the file in which the Item is stored.
+		 */
+		public String fileName;
+		/**
+		 * The local time stamp of the file when the header was recorded.
+		 */
+		public long timeStamp;
+		/**
+		 * The name of the Item.
+		 */
+		public String name;
+		/**
+		 * The description of the Item.
+		 */
+		public String description;
+		/**
+		 * The name of the builder of the Item.
+		 */
+		public String builderName;
+	}
+
 	/**
 	 * The list of IJAXBClassProviders to be used in the construction of the
 	 * JAXBContext.
@@ -288,7 +432,8 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 
 	/**
 	 * This operation creates the JAXBContext used by the provider to create XML
-	 * (un)marshallers.
+	 * (un)marshallers. The context is shared through the JAXBContextRegistry so
+	 * that it is only built once for a given set of classes.
 	 * 
 	 * @throws JAXBException
 	 *             An exception indicating that the JAXB Context could not be
@@ -297,7 +442,6 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	private void createJAXBContext() throws JAXBException {
 		// Make an array to store the class list of registered Items
 		ArrayList<Class> classList = new ArrayList<Class>();
-		Class[] classArray = {};
 		// Create the list of classes for the JAXBContext
 		for (Item refItem : referenceItems) {
 			classList.add(refItem.getClass());
@@ -314,8 +458,8 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 			classList.addAll(provider.getClasses());
 		}
 
-		// Create new JAXB class context and unmarshaller
-		context = JAXBContext.newInstance(classList.toArray(classArray));
+		// Get the JAXB class context
+		context = JAXBContextRegistry.getContext(classList);
 	}
 
 	/**
@@ -341,6 +485,16 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 		// Create the JAXB context
 		createJAXBContext();
 
+		// Get the format of the project
+		try {
+			String projectFormat = project.getPersistentProperty(formatProperty);
+			if (projectFormat != null) {
+				setFormat(projectFormat);
+			}
+		} catch (CoreException | IllegalArgumentException e) {
+			logger.error(getClass().getName() + " Exception!", e);
+		}
+
 		// Get the names and ids for all of the Items that have been persisted.
 		loadItemIdMap();
 
@@ -358,8 +512,9 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	/**
 	 * This operation is called to stop the XMLPersistenceProvider by the OSGi
 	 * Declarative Services engine. It throws the run flag to shut down the
-	 * event loop and waits until it has processed all of its request or for one
-	 * minute, whichever is sooner.
+	 * event loop, which writes all of the pending tasks before it quits, and
+	 * waits until it has processed all of its request or for one minute,
+	 * whichever is sooner.
 	 */
 	public void stop() {
 
@@ -424,61 +579,197 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	}
 
 	/**
-	 * This operation returns an output stream containing the XML representation
-	 * of an Item stored in a QueuedTask.
+	 * This operation sets the format in which Items are written and stores it
+	 * in the project so that it is used the next time the provider starts.
+	 * 
+	 * @param newFormat
+	 *            One of XML_FORMAT, COMPACT_FORMAT or GZIP_FORMAT.
+	 */
+	public void setFormat(String newFormat) {
+
+		// Check the format
+		if (!XML_FORMAT.equals(newFormat) && !COMPACT_FORMAT.equals(newFormat)
+				&& !GZIP_FORMAT.equals(newFormat)) {
+			throw new IllegalArgumentException("XMLPersistenceProvider Error: "
+					+ "Unknown persistence format " + newFormat + ".");
+		}
+
+		// Set it and store it with the project
+		format = newFormat;
+		if (project != null && project.isOpen()) {
+			try {
+				project.setPersistentProperty(formatProperty, newFormat);
+			} catch (CoreException e) {
+				logger.error(getClass().getName() + " Exception!", e);
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation returns the format in which Items are written.
+	 * 
+	 * @return One of XML_FORMAT, COMPACT_FORMAT or GZIP_FORMAT.
+	 */
+	public String getFormat() {
+		return format;
+	}
+
+	/**
+	 * This operation returns an output stream containing the representation
+	 * of an object in the given format.
 	 * 
 	 * @param obj
 	 *            the object to write to the stream
-	 * @return the output stream containing the Item as XML
+	 * @param fileFormat
+	 *            the format of the stream
+	 * @return the output stream containing the object, or null if the object
+	 *         could not be written
 	 */
-	private ByteArrayOutputStream createXMLStream(Object obj) {
+	private ByteArrayOutputStream createXMLStream(Object obj, String fileFormat) {
 		// Get the XML
 		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		OutputStream stream = outputStream;
 		// Create the marshaller and write the item
 		Marshaller marshaller;
 		try {
-			marshaller = context.createMarshaller();
-			marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT,
-					Boolean.TRUE);
-			marshaller.marshal(obj, outputStream);
-		} catch (JAXBException e) {
+			if (GZIP_FORMAT.equals(fileFormat)) {
+				stream = new GZIPOutputStream(outputStream);
+			}
+			marshaller = JAXBContextRegistry.getMarshaller(context,
+					XML_FORMAT.equals(fileFormat));
+			marshaller.marshal(obj, stream);
+			stream.close();
+		} catch (JAXBException | IOException e) {
 			// Complain
 			logger.error(getClass().getName() + " Exception!",e);
 			logger.info("XMLPersistenceProvider Message: "
 					+ "Failed to execute persistence task for " + obj);
+			// A partial stream must never replace the last good file
+			return null;
 		}
 		return outputStream;
 	}
 
 	/**
-	 * This operation writes the specified object to the file in XML.
+	 * This operation writes the specified object to the file.
 	 * 
 	 * @param obj
 	 *            The object to be written
 	 * @param file
 	 *            The file to where it should be written
+	 * @param fileFormat
+	 *            The format in which it should be written
+	 * @return True if the object was written, false if it could not be
+	 *         marshalled and the file was left alone
+	 */
+	private boolean writeFile(Object obj, IFile file, String fileFormat) {
+		// Create an output stream containing the XML and write it
+		ByteArrayOutputStream stream = createXMLStream(obj, fileFormat);
+		if (stream == null) {
+			return false;
+		}
+		writeContents(file, stream.toByteArray());
+		return true;
+	}
+
+	/**
+	 * This operation replaces the contents of a file. If the file is stored on
+	 * the local file system, the contents are written to a temporary file next
+	 * to it that is then moved over the file so that the old contents are
+	 * never lost if the write fails.
+	 * 
+	 * @param file
+	 *            The file to write
+	 * @param bytes
+	 *            The new contents of the file
 	 */
-	private void writeFile(Object obj, IFile file) {
-		// Create an output stream containing the XML.
-		ByteArrayOutputStream outputStream = createXMLStream(obj);
-		// Convert it to an input stream so it can be pushed to file
-		ByteArrayInputStream inputStream = new ByteArrayInputStream(
-				outputStream.toByteArray());
+	private void writeContents(IFile file, byte[] bytes) {
+
+		// Local Declarations
+		File target = (file.getLocation() != null) ? file.getLocation()
+				.toFile() : null;
+		File tmpFile = null;
+
 		try {
-			// Update the output file if it already exists
-			if (file.exists()) {
-				file.setContents(inputStream, IResource.FORCE, null);
+			if (target != null && target.getParentFile() != null
+					&& target.getParentFile().isDirectory()) {
+				// Write and sync the temporary file
+				tmpFile = new File(target.getParentFile(), "."
+						+ target.getName() + ".tmp");
+				FileOutputStream tmpStream = new FileOutputStream(tmpFile);
+				try {
+					tmpStream.write(bytes);
+					tmpStream.getFD().sync();
+				} finally {
+					tmpStream.close();
+				}
+				// Move it over the target
+				try {
+					Files.move(tmpFile.toPath(), target.toPath(),
+							StandardCopyOption.REPLACE_EXISTING,
+							StandardCopyOption.ATOMIC_MOVE);
+				} catch (AtomicMoveNotSupportedException e) {
+					Files.move(tmpFile.toPath(), target.toPath(),
+							StandardCopyOption.REPLACE_EXISTING);
+				}
+				// Let the workspace know about the change
+				file.refreshLocal(IResource.DEPTH_ZERO, null);
 			} else {
-				// Or create it from scratch
-				file.create(inputStream, IResource.FORCE, null);
+				// Otherwise go through the workspace
+				ByteArrayInputStream inputStream = new ByteArrayInputStream(
+						bytes);
+				if (file.exists()) {
+					// Update the output file if it already exists
+					file.setContents(inputStream, IResource.FORCE, null);
+				} else {
+					// Or create it from scratch
+					file.create(inputStream, IResource.FORCE, null);
+				}
 			}
-		} catch (CoreException e) {
+		} catch (IOException | CoreException e) {
 			// Complain
 			logger.error(getClass().getName() + " Exception!",e);
+			if (tmpFile != null && tmpFile.exists()) {
+				tmpFile.delete();
+			}
 		}
 		return;
 	}
 
+	/**
+	 * This operation opens the contents of a file that was written in any of
+	 * the formats supported by the provider.
+	 * 
+	 * @param file
+	 *            The file to read
+	 * @return A stream of the XML in the file. It must be closed by the caller.
+	 * @throws CoreException
+	 *             An exception indicating that the file could not be opened.
+	 * @throws IOException
+	 *             An exception indicating that the file could not be read.
+	 */
+	private InputStream openContents(IFile file) throws CoreException,
+			IOException {
+
+		// Local Declarations
+		InputStream stream = new BufferedInputStream(file.getContents(true));
+		int first, second;
+
+		// Check for the GZIP magic number
+		stream.mark(2);
+		first = stream.read();
+		second = stream.read();
+		stream.reset();
+		if (first == (GZIPInputStream.GZIP_MAGIC & 0xff)
+				&& second == (GZIPInputStream.GZIP_MAGIC >> 8)) {
+			stream = new GZIPInputStream(stream);
+		}
+
+		return stream;
+	}
+
 	/**
 	 * A utility operation for processing tasks in the event loop.
 	 * 
@@ -506,19 +797,23 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 				// Process persists
 				if ("persist".equals(currentTask.task)
 						&& !(currentTask.item instanceof ReactorAnalyzer)) {
-					// Send the Item off to be written to the file
-					writeFile(currentTask.item, file);
-					// Update the item id map
-					itemIdMap.put(currentTask.item.getId(), file.getName());
+					// Send the Item off to be written to the file and update
+					// the item id map and the index if it was written
+					if (writeFile(currentTask.item, file, format)) {
+						itemIdMap.put(currentTask.item.getId(), file.getName());
+						updateHeader(currentTask.item, file);
+					}
 				} else if ("delete".equals(currentTask.task) && file.exists()) {
 					// Handle deletes
 					file.delete(true, null);
-					// Update the item id map
+					// Update the item id map and the index
 					itemIdMap.remove(currentTask.item.getId());
+					headerMap.remove(currentTask.item.getId());
+					indexDirty.set(true);
 				} else if ("write".equals(currentTask.task)) {
 					// Deal with simple Form write requests from the IWriter
 					// interface.
-					writeFile(currentTask.form, currentTask.file);
+					writeFile(currentTask.form, currentTask.file, XML_FORMAT);
 				}
 			} else {
 				// Otherwise sleep for a bit
@@ -550,6 +845,16 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 			try {
 				// Grab the next task
 				QueuedTask currentTask = taskQueue.poll(2, TimeUnit.SECONDS);
+				// Bring the index up to date while there is nothing to do
+				if (currentTask == null) {
+					writeIndex();
+				} else {
+					// Replace the task with the latest one for its key
+					currentTask = pendingTasks.remove(currentTask.key);
+					if (currentTask == null) {
+						continue;
+					}
+				}
 				// Process it
 				processTask(currentTask);
 			} catch (InterruptedException e) {
@@ -558,6 +863,17 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 			}
 		}
 
+		// Write the tasks that are still pending so that stop() does not lose
+		// them, then save the index before quitting
+		QueuedTask currentTask;
+		while ((currentTask = taskQueue.poll()) != null) {
+			currentTask = pendingTasks.remove(currentTask.key);
+			if (currentTask != null) {
+				processTask(currentTask);
+			}
+		}
+		writeIndex();
+
 	}
 
 	/**
@@ -584,32 +900,33 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 			// Setup the task
 			task.item = item;
 			task.task = taskName;
-			// Submit the task
-			try {
-				taskQueue.add(task);
-			} catch (Exception exception) {
-				// Complain
-				exception.printStackTrace();
-				retVal = false;
-			}
+			task.key = item.getId();
 		} else if (form != null && file != null) {
 			// Otherwise submit the task if the Form and IFile are good (for the
 			// IWriter interface). Setup the task.
 			task.task = taskName;
 			task.form = form;
 			task.file = file;
-			// Submit the task
+			task.key = file.getFullPath().toString();
+		} else {
+			// The submission was invalid
+			return false;
+		}
+
+		// Replace the pending task for the key or queue this one if there is
+		// none. Queueing blocks while the queue is full.
+		if (pendingTasks.put(task.key, task) == null) {
 			try {
-				taskQueue.add(task);
-			} catch (Exception exception) {
+				taskQueue.put(task);
+			} catch (InterruptedException e) {
 				// Complain
-				exception.printStackTrace();
+				logger.error(getClass().getName() + " Exception!", e);
+				pendingTasks.remove(task.key);
+				Thread.currentThread().interrupt();
 				retVal = false;
 			}
-		} else {
-			// The submission was invalid
-			retVal = false;
 		}
+
 		return retVal;
 	}
 
@@ -647,17 +964,22 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 			// If the map contains the item, load it.
 			fileName = itemIdMap.get(itemID);
 			if (fileName != null) {
-				// Create the unmarshaller and load the item
-				Unmarshaller unmarshaller = context.createUnmarshaller();
-				item = (Item) unmarshaller.unmarshal(project.getFile(fileName)
-						.getContents());
+				// Get the unmarshaller and load the item
+				Unmarshaller unmarshaller = JAXBContextRegistry
+						.getUnmarshaller(context);
+				InputStream stream = openContents(project.getFile(fileName));
+				try {
+					item = (Item) unmarshaller.unmarshal(stream);
+				} finally {
+					stream.close();
+				}
 			}
 		} catch (CoreException e) {
 			// Complain
 			logger.error(getClass().getName() + " Exception!",e);
 			// Null out the Item so that it can't be returned uninitialized
 			item = null;
-		} catch (JAXBException e) {
+		} catch (JAXBException | IOException e) {
 			// Complain
 			logger.error(getClass().getName() + " Exception!",e);
 			// Null out the Item so that it can't be returned uninitialized
@@ -701,7 +1023,8 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	}
 
 	/**
-	 * This operation loads all of the Items that this provider can find.
+	 * This operation loads all of the Items that this provider can find. The
+	 * Item files are independent, so they are unmarshalled in parallel.
 	 * 
 	 * @return A list of all of the Items that this persistence provider was
 	 *         able to load from the project space.
@@ -712,17 +1035,306 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 		// Local Declarations
 		ArrayList<Item> items = new ArrayList<Item>();
 		Set<Integer> keys = itemIdMap.keySet();
-		Item item = null;
+		List<Callable<Item>> tasks = new ArrayList<Callable<Item>>();
+
+		// Create a task to load each Item
+		for (final int id : keys) {
+			tasks.add(new Callable<Item>() {
+				@Override
+				public Item call() {
+					return loadItem(id);
+				}
+			});
+		}
 
 		// Load them all
-		for (int id : keys) {
-			item = loadItem(id);
-			items.add(item);
-		}
+		items.addAll(invokeAll(tasks));
 
 		return items;
 	}
 
+	/**
+	 * This operation returns the headers of all of the Items that this provider
+	 * can find without loading the Items. Headers are taken from the index if
+	 * it is current and read from the Item files otherwise.
+	 * 
+	 * @return A list of ICEObjects with the id, name and description of each
+	 *         Item.
+	 */
+	@Override
+	public ArrayList<Identifiable> loadItemHeaders() {
+
+		// Local Declarations
+		ArrayList<Identifiable> headers = new ArrayList<Identifiable>();
+		Map<Integer, ItemHeader> index = readIndex();
+		List<Callable<ItemHeader>> tasks = new ArrayList<Callable<ItemHeader>>();
+
+		// Use the index entries that still match the files
+		for (Map.Entry<Integer, String> entry : itemIdMap.entrySet()) {
+			final int id = entry.getKey();
+			final IFile file = project.getFile(entry.getValue());
+			ItemHeader header = index.get(id);
+			if (header != null && header.fileName.equals(file.getName())
+					&& header.timeStamp == file.getLocalTimeStamp()) {
+				headerMap.put(id, header);
+			} else {
+				// Otherwise read the header from the file
+				tasks.add(new Callable<ItemHeader>() {
+					@Override
+					public ItemHeader call() {
+						return readHeader(id, file);
+					}
+				});
+			}
+		}
+
+		// Read the missing headers and save them
+		if (!tasks.isEmpty()) {
+			for (ItemHeader header : invokeAll(tasks)) {
+				if (header != null) {
+					headerMap.put(header.id, header);
+				}
+			}
+			indexDirty.set(true);
+		}
+		if (index.size() != headerMap.size()) {
+			indexDirty.set(true);
+		}
+
+		// Create the headers
+		for (ItemHeader header : headerMap.values()) {
+			ICEObject headerObject = new ICEObject();
+			headerObject.setId(header.id);
+			headerObject.setName(header.name);
+			headerObject.setDescription(header.description);
+			headers.add(headerObject);
+		}
+
+		return headers;
+	}
+
+	/**
+	 * This operation runs the tasks on a pool of worker threads and returns
+	 * their results in order. Tasks that fail return null.
+	 * 
+	 * @param tasks
+	 *            The tasks to run.
+	 * @return The results of the tasks.
+	 */
+	private <T> List<T> invokeAll(List<Callable<T>> tasks) {
+
+		// Local Declarations
+		List<T> results = new ArrayList<T>(tasks.size());
+		int poolSize = Math.min(tasks.size(), Runtime.getRuntime()
+				.availableProcessors());
+		ExecutorService executor;
+
+		// Don't bother with threads for a single task
+		if (poolSize <= 1) {
+			for (Callable<T> task : tasks) {
+				try {
+					results.add(task.call());
+				} catch (Exception e) {
+					logger.error(getClass().getName() + " Exception!", e);
+					results.add(null);
+				}
+			}
+			return results;
+		}
+
+		executor = Executors.newFixedThreadPool(poolSize);
+		try {
+			for (Future<T> future : executor.invokeAll(tasks)) {
+				try {
+					results.add(future.get());
+				} catch (ExecutionException e) {
+					logger.error(getClass().getName() + " Exception!", e);
+					results.add(null);
+				}
+			}
+		} catch (InterruptedException e) {
+			logger.error(getClass().getName() + " Exception!", e);
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdown();
+		}
+
+		return results;
+	}
+
+	/**
+	 * This operation reads the header of an Item from the attributes of the
+	 * root element of its file without unmarshalling the rest of it.
+	 * 
+	 * @param id
+	 *            The id of the Item.
+	 * @param file
+	 *            The file that contains the Item.
+	 * @return The header or null if it could not be read.
+	 */
+	private ItemHeader readHeader(int id, IFile file) {
+
+		// Local Declarations
+		ItemHeader header = null;
+		XMLStreamReader reader = null;
+		InputStream stream = null;
+
+		try {
+			stream = openContents(file);
+			reader = XMLInputFactory.newInstance().createXMLStreamReader(
+					stream);
+			// Skip to the root element
+			while (reader.hasNext()
+					&& reader.next() != XMLStreamConstants.START_ELEMENT) {
+				continue;
+			}
+			if (reader.isStartElement()) {
+				header = new ItemHeader();
+				header.id = id;
+				header.fileName = file.getName();
+				header.timeStamp = file.getLocalTimeStamp();
+				header.name = reader.getAttributeValue(null, "name");
+				header.description = reader.getAttributeValue(null,
+						"description");
+				header.builderName = reader.getAttributeValue(null,
+						"builderName");
+			}
+		} catch (CoreException | XMLStreamException | IOException e) {
+			logger.error(getClass().getName() + " Exception!", e);
+		} finally {
+			try {
+				if (reader != null) {
+					reader.close();
+				}
+				if (stream != null) {
+					stream.close();
+				}
+			} catch (XMLStreamException | IOException e) {
+				logger.error(getClass().getName() + " Exception!", e);
+			}
+		}
+
+		return header;
+	}
+
+	/**
+	 * This operation records the header of an Item that was just written.
+	 * 
+	 * @param item
+	 *            The Item that was written.
+	 * @param file
+	 *            The file to which it was written.
+	 */
+	private void updateHeader(Item item, IFile file) {
+
+		ItemHeader header = new ItemHeader();
+		header.id = item.getId();
+		header.fileName = file.getName();
+		header.timeStamp = file.getLocalTimeStamp();
+		header.name = item.getName();
+		header.description = item.getDescription();
+		header.builderName = item.getItemBuilderName();
+		headerMap.put(header.id, header);
+		indexDirty.set(true);
+
+		return;
+	}
+
+	/**
+	 * This operation reads the index file from the project space.
+	 * 
+	 * @return The headers in the index keyed by id. The map is empty if the
+	 *         index does not exist or could not be read.
+	 */
+	private Map<Integer, ItemHeader> readIndex() {
+
+		// Local Declarations
+		Map<Integer, ItemHeader> index = new HashMap<Integer, ItemHeader>();
+		IFile indexFile = project.getFile(indexFileName);
+		DataInputStream stream = null;
+
+		if (!indexFile.exists()) {
+			return index;
+		}
+
+		try {
+			stream = new DataInputStream(new BufferedInputStream(
+					indexFile.getContents(true)));
+			if (stream.readInt() == indexVersion) {
+				int size = stream.readInt();
+				for (int i = 0; i < size; i++) {
+					ItemHeader header = new ItemHeader();
+					header.id = stream.readInt();
+					header.fileName = stream.readUTF();
+					header.timeStamp = stream.readLong();
+					header.name = stream.readUTF();
+					header.description = stream.readUTF();
+					header.builderName = stream.readUTF();
+					index.put(header.id, header);
+				}
+			}
+		} catch (CoreException | IOException e) {
+			// A broken index is rebuilt from the Item files
+			logger.info("XMLPersistenceProvider Message: "
+					+ "Unable to read the Item index. It will be rebuilt.");
+			index.clear();
+		} finally {
+			try {
+				if (stream != null) {
+					stream.close();
+				}
+			} catch (IOException e) {
+				logger.error(getClass().getName() + " Exception!", e);
+			}
+		}
+
+		return index;
+	}
+
+	/**
+	 * This operation writes the index file to the project space if the headers
+	 * have changed since it was last written.
+	 */
+	private void writeIndex() {
+
+		// Local Declarations
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		DataOutputStream stream = new DataOutputStream(outputStream);
+		IFile indexFile;
+
+		if (project == null || !indexDirty.getAndSet(false)) {
+			return;
+		}
+
+		try {
+			// Dump the headers
+			List<ItemHeader> headers = new ArrayList<ItemHeader>(
+					headerMap.values());
+			stream.writeInt(indexVersion);
+			stream.writeInt(headers.size());
+			for (ItemHeader header : headers) {
+				stream.writeInt(header.id);
+				stream.writeUTF(header.fileName);
+				stream.writeLong(header.timeStamp);
+				stream.writeUTF(header.name != null ? header.name : "");
+				stream.writeUTF(header.description != null ? header.description
+						: "");
+				stream.writeUTF(header.builderName != null ? header.builderName
+						: "");
+			}
+			stream.flush();
+
+			// Write the index file
+			indexFile = project.getFile(indexFileName);
+			writeContents(indexFile, outputStream.toByteArray());
+		} catch (IOException e) {
+			logger.error(getClass().getName() + " Exception!", e);
+			indexDirty.set(true);
+		}
+
+		return;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -776,8 +1388,9 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 		Form form = null;
 
 		try {
-			// Create the marshaller
-			Unmarshaller unmarshaller = context.createUnmarshaller();
+			// Get the unmarshaller
+			Unmarshaller unmarshaller = JAXBContextRegistry
+					.getUnmarshaller(context);
 			// Grab the form
 			form = (Form) unmarshaller.unmarshal(file.getContents());
 		} catch (JAXBException e) {
@@ -14,11 +14,15 @@ package org.eclipse.ice.reactor.sfr.test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.net.URI;
 
+import org.eclipse.ice.io.hdf.LazyHdfFile;
+import org.eclipse.ice.reactor.sfr.base.SFRData;
 import org.eclipse.ice.reactor.sfr.base.SFReactorIOHandler;
 import org.eclipse.ice.reactor.sfr.core.SFReactor;
 import org.junit.Ignore;
@@ -256,4 +260,54 @@ public class SFReactorIOHandlerTester {
 
 		return;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Checks that a reactor read lazily from an open file is the same as the
+	 * one that was written, even when the cache of the file can only keep the
+	 * data of one component.
+	 */
+	@Test
+	public void checkLazyRead() {
+
+		// Input/Output files for this test.
+		String s = System.getProperty("file.separator");
+		String path = System.getProperty("user.dir") + s
+				+ "ICEIOTestDirectory" + s + "lazyFromJava.h5";
+		URI uri = new File(path).toURI();
+
+		// Write a small random reactor.
+		SFReactorFactory factory = new SFReactorFactory();
+		SFReactorIOHandler handler = new SFReactorIOHandler();
+		SFReactor reactor = factory.generatePopulatedFullCoreReactor(0, 0, 3,
+				5, 5, 42, true, true);
+		reactor.setName("Arcturus");
+		handler.writeHDF5(uri, reactor);
+
+		// Read it from a file that keeps at most one data point.
+		LazyHdfFile file = new LazyHdfFile(uri, 1);
+		assertTrue(file.isOpen());
+		SFReactor loadedReactor = handler.readHDF5(file);
+		assertEquals(0, file.getNumberOfLoadedParts());
+
+		// Reading all of the data should only keep the last component's data.
+		assertEquals(reactor, loadedReactor);
+		assertEquals(1, file.getNumberOfLoadedParts());
+
+		// A changed component keeps the data it read and is no longer
+		// unloaded when others are read.
+		reactor.addData(new SFRData("Detached"), 0.0);
+		loadedReactor.addData(new SFRData("Detached"), 0.0);
+		assertEquals(reactor, loadedReactor);
+		assertEquals(reactor, loadedReactor);
+
+		// A closed file cannot be read.
+		file.close();
+		assertFalse(file.isOpen());
+		assertNull(handler.readHDF5(file));
+
+		// Delete the .h5 file produced by this test.
+		new File(path).delete();
+
+		return;
+	}
+}
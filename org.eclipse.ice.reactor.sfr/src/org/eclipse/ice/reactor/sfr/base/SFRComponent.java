@@ -29,6 +29,8 @@ import org.eclipse.ice.datastructures.ICEObject.IUpdateableListener;
 import org.eclipse.ice.datastructures.ICEObject.Identifiable;
 import org.eclipse.ice.datastructures.componentVisitor.IComponentVisitor;
 import org.eclipse.ice.datastructures.componentVisitor.IReactorComponent;
+import org.eclipse.ice.io.hdf.ILazyHdfReadable;
+import org.eclipse.ice.io.hdf.LazyHdfFile;
 
 /**
  * <p >
@@ -42,6 +44,12 @@ import org.eclipse.ice.datastructures.componentVisitor.IReactorComponent;
  * <p >
  * This class implements the ICE Component interface.
  * </p>
+ * <p >
+ * The data of the components of the grids read by SFReactorIOHandler from a
+ * {@link LazyHdfFile} is only read when it is first needed, and it is dropped
+ * again when the cache of the file is full. Once data is added to or removed
+ * from the component, it is read and kept in memory.
+ * </p>
  * 
  * @author Anna Wojtowicz
  */
@@ -109,6 +117,25 @@ public class SFRComponent implements IReactorComponent, IDataProvider {
 	 */
 	private List<IUpdateableListener> listeners;
 
+	/**
+	 * <p>
+	 * The file the data is read from when it is needed and the part of the
+	 * file with the data, or null if the data is in memory.
+	 * </p>
+	 * 
+	 */
+	private LazyHdfFile lazyFile;
+	private LazyData lazyData;
+
+	/**
+	 * <p>
+	 * True while the data is read from the file. It is only used while the
+	 * file is locked.
+	 * </p>
+	 * 
+	 */
+	private boolean loading;
+
 	/**
 	 * <p>
 	 * Nullary constructor.
@@ -328,6 +355,9 @@ public class SFRComponent implements IReactorComponent, IDataProvider {
 		if (data == null || time < 0) {
 			return;
 		}
+		// The data will no longer be the same as in the file.
+		detach();
+
 		// Get the name of the feature in the data.
 		String feature = data.getFeature();
 
@@ -353,8 +383,9 @@ public class SFRComponent implements IReactorComponent, IDataProvider {
 		}
 
 		// We have either found or created a FeatureSet. Add the data to it and
-		// notify listeners if the data has changed.
-		if (featureSet.addIData(data)) {
+		// notify listeners if the data has changed, unless it is read from
+		// the file.
+		if (featureSet.addIData(data) && !loading) {
 			notifyListeners();
 		}
 		return;
@@ -378,6 +409,8 @@ public class SFRComponent implements IReactorComponent, IDataProvider {
 		if (feature == null) {
 			return;
 		}
+		detach();
+
 		// Whether or not we have removed data.
 		boolean updated = false;
 
@@ -493,6 +526,12 @@ public class SFRComponent implements IReactorComponent, IDataProvider {
 			// Cast the other object to an SFRComponent.
 			SFRComponent component = (SFRComponent) otherObject;
 
+			// Read the data of both, keeping this data if reading the other
+			// data drops it from the cache.
+			TreeMap<Double, HashMap<String, FeatureSet>> tree = load();
+			TreeMap<Double, HashMap<String, FeatureSet>> otherTree = component
+					.load();
+
 			// Compare all the variables. Save the biggest for last (Java should
 			// short-circuit the logical operators as soon as it detects a
 			// mismatch).
@@ -500,8 +539,8 @@ public class SFRComponent implements IReactorComponent, IDataProvider {
 					&& name.equals(component.name)
 					&& description.equals(component.description)
 					&& timeUnits.equals(component.timeUnits)
-					&& sourceInfo.equals(component.sourceInfo) && dataTree
-					.equals(component.dataTree));
+					&& sourceInfo.equals(component.sourceInfo) && tree
+					.equals(otherTree));
 		}
 
 		return equals;
@@ -528,7 +567,7 @@ public class SFRComponent implements IReactorComponent, IDataProvider {
 		hash += 31 * sourceInfo.hashCode();
 		hash += 31 * time;
 		hash += 31 * timeUnits.hashCode();
-		hash += 31 * dataTree.hashCode();
+		hash += 31 * load().hashCode();
 
 		return hash;
 	}
@@ -578,7 +617,15 @@ public class SFRComponent implements IReactorComponent, IDataProvider {
 		time = component.time;
 		timeUnits = component.timeUnits;
 
-		// Copy the data tree used to store IData.
+		// Copy the data tree used to store IData. It replaces the data in the
+		// file, if any.
+		TreeMap<Double, HashMap<String, FeatureSet>> otherTree = component
+				.load();
+		if (lazyFile != null) {
+			lazyFile.release(lazyData);
+			lazyFile = null;
+			lazyData = null;
+		}
 		dataTree = new TreeMap<Double, HashMap<String, FeatureSet>>();
 
 		// FIXME - The corresponding LWR code also does a shallow copy here.
@@ -586,7 +633,7 @@ public class SFRComponent implements IReactorComponent, IDataProvider {
 		// documentation is sort of lying about deep copying.
 
 		// Perform a shallow copy on the data tree.
-		for (Entry<Double, HashMap<String, FeatureSet>> entry : component.dataTree
+		for (Entry<Double, HashMap<String, FeatureSet>> entry : otherTree
 				.entrySet()) {
 			dataTree.put(entry.getKey(), entry.getValue());
 		}
@@ -709,7 +756,7 @@ public class SFRComponent implements IReactorComponent, IDataProvider {
 		Set<String> featureNames = new HashSet<String>();
 
 		// Loop over all of the lists of FeatureSets.
-		for (HashMap<String, FeatureSet> featureSetMap : dataTree.values()) {
+		for (HashMap<String, FeatureSet> featureSetMap : load().values()) {
 
 			// Add all of the features (keys) from this key set.
 			featureNames.addAll(featureSetMap.keySet());
@@ -733,7 +780,7 @@ public class SFRComponent implements IReactorComponent, IDataProvider {
 	public int getNumberOfTimeSteps() {
 
 		// Return the size of the data tree ( which is keyed on time values).
-		return dataTree.size();
+		return load().size();
 	}
 
 	/**
@@ -775,7 +822,7 @@ public class SFRComponent implements IReactorComponent, IDataProvider {
 		if (feature != null) {
 
 			// Get the list of FeatureSets at the current time.
-			HashMap<String, FeatureSet> featureSetMap = dataTree.get(time);
+			HashMap<String, FeatureSet> featureSetMap = load().get(time);
 
 			// If the time is in the data tree, find the FeatureSet with the
 			// requested name.
@@ -809,7 +856,7 @@ public class SFRComponent implements IReactorComponent, IDataProvider {
 		ArrayList<String> features = new ArrayList<String>();
 
 		// Get the list of FeatureSets at the current time.
-		HashMap<String, FeatureSet> featureSets = dataTree.get(time);
+		HashMap<String, FeatureSet> featureSets = load().get(time);
 
 		// If the time is in the data tree, add all of the corresponding feature
 		// names to the list.
@@ -834,7 +881,7 @@ public class SFRComponent implements IReactorComponent, IDataProvider {
 		ArrayList<Double> times = new ArrayList<Double>();
 
 		// Add each time in the data tree to the list.
-		for (double time : dataTree.keySet()) {
+		for (double time : load().keySet()) {
 			times.add(time);
 		}
 
@@ -856,7 +903,7 @@ public class SFRComponent implements IReactorComponent, IDataProvider {
 	public int getTimeStep(double time) {
 
 		// Initialize an iterator over the data tree's keys and a counter.
-		Iterator<Double> iter = dataTree.keySet().iterator();
+		Iterator<Double> iter = load().keySet().iterator();
 		int counter = 0;
 
 		// Loop over the keys in the data tree.
@@ -894,4 +941,128 @@ public class SFRComponent implements IReactorComponent, IDataProvider {
 
 	}
 
+	/**
+	 * Sets the file that the data is read from when it is first needed. The
+	 * data that the component already has is dropped.
+	 * 
+	 * @param file
+	 *            The open file.
+	 * @param reader
+	 *            The reader that adds the data from the file to the
+	 *            component.
+	 */
+	void setLazyReader(LazyHdfFile file, LazyReader reader) {
+		if (lazyFile != null) {
+			lazyFile.release(lazyData);
+		}
+		dataTree = new TreeMap<Double, HashMap<String, FeatureSet>>();
+		lazyFile = file;
+		lazyData = new LazyData(reader);
+	}
+
+	/**
+	 * Reads the data from the file if it is read lazily and it is not in
+	 * memory. The data is taken while the file is still locked, so other parts
+	 * of the file that are read meanwhile cannot unload it before the caller
+	 * has it. Unloading replaces the data instead of clearing it.
+	 * 
+	 * @return The data.
+	 */
+	private TreeMap<Double, HashMap<String, FeatureSet>> load() {
+		LazyHdfFile file = lazyFile;
+		if (file == null) {
+			return dataTree;
+		}
+		synchronized (file) {
+			if (!loading) {
+				file.load(lazyData);
+			}
+			return dataTree;
+		}
+	}
+
+	/**
+	 * Reads the data from the file if it is read lazily and then keeps it in
+	 * memory, so that it can be changed.
+	 */
+	private void detach() {
+		LazyHdfFile file = lazyFile;
+		if (file != null) {
+			synchronized (file) {
+				if (!loading) {
+					file.detach(lazyData);
+					lazyFile = null;
+					lazyData = null;
+				}
+			}
+		}
+	}
+
+	/**
+	 * A reader of the data of components from a LazyHdfFile.
+	 */
+	interface LazyReader {
+
+		/**
+		 * Adds the data in the file to the component. It is called while the
+		 * file is locked.
+		 * 
+		 * @param file
+		 *            The open file.
+		 * @param component
+		 *            The component, which has no data.
+		 * @return True if the data was read, false otherwise.
+		 */
+		public boolean read(LazyHdfFile file, SFRComponent component);
+	}
+
+	/**
+	 * The part of a LazyHdfFile with the data of the component. Its size is
+	 * the number of pieces of data.
+	 */
+	private final class LazyData implements ILazyHdfReadable {
+
+		/**
+		 * The reader of the data.
+		 */
+		private final LazyReader reader;
+
+		/**
+		 * The constructor.
+		 * 
+		 * @param reader
+		 *            The reader of the data.
+		 */
+		private LazyData(LazyReader reader) {
+			this.reader = reader;
+		}
+
+		@Override
+		public long load(LazyHdfFile file) {
+			loading = true;
+			try {
+				if (!reader.read(file, SFRComponent.this)) {
+					dataTree = new TreeMap<Double, HashMap<String, FeatureSet>>();
+					return -1;
+				}
+				long size = 0;
+				for (HashMap<String, FeatureSet> featureSetMap : dataTree
+						.values()) {
+					for (FeatureSet featureSet : featureSetMap.values()) {
+						size += featureSet.getData().size();
+					}
+				}
+				return size;
+			} finally {
+				loading = false;
+			}
+		}
+
+		@Override
+		public void unload() {
+			// Replace the tree so that code that still holds it can finish
+			dataTree = new TreeMap<Double, HashMap<String, FeatureSet>>();
+		}
+	}
+
 }
\ No newline at end of file
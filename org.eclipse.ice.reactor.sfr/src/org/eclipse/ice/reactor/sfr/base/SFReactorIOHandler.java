@@ -26,8 +26,10 @@ import ncsa.hdf.hdf5lib.HDF5Constants;
 import ncsa.hdf.hdf5lib.exceptions.HDF5Exception;
 import ncsa.hdf.hdf5lib.exceptions.HDF5LibraryException;
 import ncsa.hdf.hdf5lib.structs.H5O_info_t;
+import ncsa.hdf.object.h5.H5File;
 
 import org.eclipse.ice.analysistool.IData;
+import org.eclipse.ice.io.hdf.LazyHdfFile;
 import org.eclipse.ice.reactor.sfr.core.AssemblyType;
 import org.eclipse.ice.reactor.sfr.core.Material;
 import org.eclipse.ice.reactor.sfr.core.MaterialBlock;
@@ -98,22 +100,13 @@ public class SFReactorIOHandler {
 		// HDF5 constants. Writing out "HDF5Constants." every time is annoying.
 		int H5P_DEFAULT = HDF5Constants.H5P_DEFAULT; // Default flag.
 		int H5F_ACC_RDONLY = HDF5Constants.H5F_ACC_RDONLY; // Open read-only.
-		int H5T_NATIVE_INT = HDF5Constants.H5T_NATIVE_INT; // int
-		int H5T_NATIVE_DOUBLE = HDF5Constants.H5T_NATIVE_DOUBLE; // double
-		int H5O_TYPE_GROUP = HDF5Constants.H5O_TYPE_GROUP;
 
 		// The status of the previous HDF5 operation. Generally, if it is
 		// negative, there was some error.
 		int status;
 
-		// Other IDs for HDF5 components.
-		int fileId, groupId;
-
-		// A stack representing the currently opened groups.
-		Stack<Integer> groupIds = new Stack<Integer>();
-
-		Integer[] intBuffer = new Integer[1];
-		Double[] doubleBuffer = new Double[1];
+		// The ID of the file.
+		int fileId;
 
 		try {
 			// Open the H5 file with read-only access.
@@ -123,267 +116,154 @@ public class SFReactorIOHandler {
 			}
 			fileId = status;
 
-			// Currently, we only support a single reactor.
-			groupId = groupIds.push(openGroup(fileId, "/SFReactor"));
-
-			// Get the size of the reactor in the file and initialize it.
-			int size = (Integer) readAttribute(groupId, "size", H5T_NATIVE_INT,
-					intBuffer);
-			reactor = new SFReactor(size);
-
-			/* ---- Read the reactor's attributes. ---- */
-			// Attributes inherited from SFRComponent.
-			readSFRComponent(reactor, groupId);
-
-			// Attributes inherited from SFRComposite.
-			// none
-
-			// SFReactor-specific attributes.
-			// size has already been read.
-			reactor.setLatticePitch((Double) readAttribute(groupId,
-					"latticePitch", H5T_NATIVE_DOUBLE, doubleBuffer));
-			reactor.setOuterFlatToFlat((Double) readAttribute(groupId,
-					"outerFlatToFlat", H5T_NATIVE_DOUBLE, doubleBuffer));
-			/* ---------------------------------------- */
-
-			/* ---- Read the reactor's Pin Assemblies. ---- */
-			List<AssemblyType> pinAssemblyTypes = new ArrayList<AssemblyType>();
-			pinAssemblyTypes.add(AssemblyType.Fuel);
-			pinAssemblyTypes.add(AssemblyType.Control);
-			pinAssemblyTypes.add(AssemblyType.Shield);
-			pinAssemblyTypes.add(AssemblyType.Test);
-
-			for (AssemblyType assemblyType : pinAssemblyTypes) {
-				// Open the group for this assembly type.
-				groupId = groupIds.push(openGroup(groupIds.peek(),
-						assemblyType.toString()));
-
-				// Loop over the child groups in this assembly type's group.
-				// These groups should have the assembly names.
-				for (String assemblyName : getChildNames(groupId,
-						H5O_TYPE_GROUP)) {
-
-					// Open the group for this assembly.
-					groupId = groupIds.push(openGroup(groupIds.peek(),
-							assemblyName));
-
-					// Read the name, pinType, and size of the assembly.
-					PinType pinType = PinType.valueOf((Integer) readAttribute(
-							groupId, "pinType", H5T_NATIVE_INT, intBuffer));
-					size = (Integer) readAttribute(groupId, "size",
-							H5T_NATIVE_INT, intBuffer);
-
-					// Initialize the assembly.
-					PinAssembly assembly = new PinAssembly(assemblyName,
-							pinType, size);
-
-					/* --- Read the assembly's attributes. --- */
-					// Attributes inherited from SFRComponent.
-					readSFRComponent(assembly, groupId);
-
-					// Attributes inherited from SFRComposite.
-					// none
-
-					// Attributes inherited from SFRAssembly.
-					// size has already been read.
-					assembly.setDuctThickness((Double) readAttribute(groupId,
-							"ductThickness", H5T_NATIVE_DOUBLE, doubleBuffer));
-
-					// PinAssembly-specific attributes.
-					assembly.setPinPitch((Double) readAttribute(groupId,
-							"pinPitch", H5T_NATIVE_DOUBLE, doubleBuffer));
-					// pinType has already been read.
-					assembly.setInnerDuctFlatToFlat((Double) readAttribute(
-							groupId, "innerDuctFlatToFlat", H5T_NATIVE_DOUBLE,
-							doubleBuffer));
-					assembly.setInnerDuctThickness((Double) readAttribute(
-							groupId, "innerDuctThickness", H5T_NATIVE_DOUBLE,
-							doubleBuffer));
-					/* --------------------------------------- */
-
-					/* --- Read the assembly's reactor locations. --- */
-					// Add the assembly to the reactor.
-					reactor.addAssembly(assemblyType, assembly);
-
-					// Set the assembly's locations in the reactor.
-					for (int location : readLocationData(groupId)) {
-						reactor.setAssemblyLocation(assemblyType, assemblyName,
-								location / reactor.getSize(), location
-										% reactor.getSize());
-					}
-					/* ---------------------------------------------- */
-
-					/* --- Read the assembly's pins. --- */
-					// Open the group that holds the pins.
-					groupId = groupIds.push(openGroup(groupId, "Pins"));
-
-					// Loop over the child groups in this assembly's Pins group.
-					// These groups should have the pin names.
-					for (String pinName : getChildNames(groupId, H5O_TYPE_GROUP)) {
-
-						// Open the group for this pin.
-						groupId = groupIds.push(openGroup(groupIds.peek(),
-								pinName));
-
-						// So we don't waste time creating default properties
-						// for the pin that will soon be replaced, we should
-						// first read in the physical structure of the pin.
-						Ring cladding = null;
-						Material fillGas = null;
-						TreeSet<MaterialBlock> materialBlocks = null;
-
-						/* -- Read in the cladding. -- */
-						groupId = openGroup(groupId, "cladding");
-						cladding = readRing(groupId);
-						closeGroup(groupId);
-						/* --------------------------- */
-
-						/* -- Read in the fill gas. -- */
-						// Initialize the container for the fill gas.
-						fillGas = new Material();
-
-						// Read the material's attributes.
-						groupId = openGroup(groupIds.peek(), "fillGas");
-						readSFRComponent(fillGas, groupId);
-						closeGroup(groupId);
-						/* --------------------------- */
-
-						/* -- Read in the material blocks. -- */
-						// Initialize the container for the material blocks.
-						materialBlocks = new TreeSet<MaterialBlock>();
-
-						// Open the material blocks group.
-						groupId = groupIds.push(openGroup(groupIds.peek(),
-								"materialBlocks"));
-
-						// Loop over the child groups of materialBlocks. They
-						// correspond to individual MaterialBlocks in the
-						// TreeSet.
-						for (String groupName : getChildNames(groupIds.peek(),
-								H5O_TYPE_GROUP)) {
-							// Initialize a MaterialBlock.
-							MaterialBlock block = new MaterialBlock();
-
-							// Open the MaterialBlock's group.
-							groupId = groupIds.push(openGroup(groupIds.peek(),
-									groupName));
-
-							// Read the block's SFRComponent attributes.
-							readSFRComponent(block, groupId);
-
-							// Read the block's other attributes.
-							block.setVertPosition((Double) readAttribute(
-									groupId, "vertPosition", H5T_NATIVE_DOUBLE,
-									doubleBuffer));
-
-							/* - Read the block's rings. - */
-
-							// Open the Rings group.
-							groupId = groupIds
-									.push(openGroup(groupId, "Rings"));
-
-							// Loop over the child groups of the block. They
-							// correspond to individual rings in the block's
-							// TreeSet.
-							for (String ringGroupName : getChildNames(groupId,
-									H5O_TYPE_GROUP)) {
-								groupId = openGroup(groupIds.peek(),
-										ringGroupName);
-								block.addRing(readRing(groupId));
-								closeGroup(groupId);
-							}
+			// Read the reactor from the file.
+			reactor = readReactor(fileId, null);
 
-							// Close the Rings group.
-							closeGroup(groupIds.pop());
-							/* --------------------------- */
-
-							// Close the MaterialBlock's group.
-							closeGroup(groupIds.pop());
-
-							// Add the block to materialBlocks (TreeSet).
-							materialBlocks.add(block);
-						}
+			// Close the H5file.
+			status = H5.H5Fclose(fileId);
+			if (status < 0) {
+				throwException("Closing file \"" + path + "\"", status);
+			}
+		} catch (HDF5LibraryException e) {
+			logger.error(getClass().getName() + " Exception!",e);
+		} catch (HDF5Exception e) {
+			logger.error(getClass().getName() + " Exception!",e);
+		} catch (NullPointerException e) {
+			logger.error(getClass().getName() + " Exception!",e);
+		}
 
-						// Close the material blocks group.
-						closeGroup(groupIds.pop());
-						/* ---------------------------------- */
+		// Return the loaded SFReactor.
+		return reactor;
+	}
 
-						// Initialize the pin.
-						SFRPin pin = new SFRPin(pinName, cladding, fillGas,
-								materialBlocks);
+	/**
+	 * Reads data from an HDF5 file that is kept open into a SFReactor. The
+	 * assemblies, pins, rods and their locations are read immediately, but the
+	 * data of the grids of the assemblies is read from the file when it is
+	 * first needed. The file should be closed when the reactor is no longer
+	 * used.
+	 *
+	 * @param file
+	 *            The open file.
+	 * @return A valid {@link SFReactor} if the file could be read,
+	 *         {@code null} if the file is not open.
+	 */
+	public SFReactor readHDF5(LazyHdfFile file) {
 
-						// Get the pin's groupId.
-						groupId = groupIds.peek();
+		// The SFReactor that will receive the data from the file.
+		SFReactor reactor = null;
 
-						/* -- Read in the Pin's other attributes. -- */
-						// Attributes inherited from SFRComponent.
-						readSFRComponent(pin, groupId);
+		// Check the parameters.
+		if (file == null) {
+			return reactor;
+		}
 
-						// Pin-specific attributes.
-						// none
-						/* ----------------------------------------- */
+		// Lock the file while the reactor is read.
+		synchronized (file) {
+			H5File h5File = file.getH5File();
+			if (h5File == null) {
+				return reactor;
+			}
+			try {
+				reactor = readReactor(h5File.getFID(), file);
+			} catch (HDF5LibraryException e) {
+				logger.error(getClass().getName() + " Exception!", e);
+			} catch (HDF5Exception e) {
+				logger.error(getClass().getName() + " Exception!", e);
+			} catch (NullPointerException e) {
+				logger.error(getClass().getName() + " Exception!", e);
+			}
+		}
 
-						/* -- Read the pin's assembly locations. -- */
-						// Add the pin to the assembly.
-						assembly.addPin(pin);
+		// Return the loaded SFReactor.
+		return reactor;
+	}
 
-						// Set the pin's locations in the assembly.
-						for (int location : readLocationData(groupId)) {
-							assembly.setPinLocation(pinName, location / size,
-									location % size);
-						}
-						/* ---------------------------------------- */
+	/**
+	 * Reads the reactor from an open HDF5 file.
+	 *
+	 * @param fileId
+	 *            The ID of the open file.
+	 * @param file
+	 *            The file to read the data of the grids from when it is
+	 *            needed, or null to read it now.
+	 * @return The reactor.
+	 * @throws NullPointerException
+	 * @throws HDF5Exception
+	 */
+	private SFReactor readReactor(int fileId, LazyHdfFile file)
+			throws NullPointerException, HDF5Exception {
 
-						// Close the group for this pin.
-						closeGroup(groupIds.pop());
-					}
+		// HDF5 constants. Writing out "HDF5Constants." every time is annoying.
+		int H5T_NATIVE_INT = HDF5Constants.H5T_NATIVE_INT; // int
+		int H5T_NATIVE_DOUBLE = HDF5Constants.H5T_NATIVE_DOUBLE; // double
+		int H5O_TYPE_GROUP = HDF5Constants.H5O_TYPE_GROUP;
 
-					// Close the group that holds the pins.
-					closeGroup(groupIds.pop());
-					/* --------------------------------- */
+		// The SFReactor that will receive the data from the file.
+		SFReactor reactor;
 
-					/* --- Read the assembly's GridData. --- */
-					groupId = groupIds.peek();
+		// The ID of the current group.
+		int groupId;
 
-					List<SFRComponent> gridData = new ArrayList<SFRComponent>();
-					for (int row = 0; row < assembly.getSize(); row++) {
-						for (int column = 0; column < assembly.getSize(); column++) {
-							gridData.add(assembly.getDataProviderByLocation(
-									row, column));
-						}
-					}
-					readGridData(gridData, groupId);
-					/* -------------------------------------- */
-
-					// Close the group for this assembly.
-					closeGroup(groupIds.pop());
-				}
+		// A stack representing the currently opened groups.
+		Stack<Integer> groupIds = new Stack<Integer>();
 
-				// Close the group for this assembly type.
-				closeGroup(groupIds.pop());
-			}
-			/* -------------------------------------------- */
+		Integer[] intBuffer = new Integer[1];
+		Double[] doubleBuffer = new Double[1];
 
-			/* ---- Read the reactor's Reflector Assemblies. ---- */
+		// Currently, we only support a single reactor.
+		groupId = groupIds.push(openGroup(fileId, "/SFReactor"));
+
+		// Get the size of the reactor in the file and initialize it.
+		int size = (Integer) readAttribute(groupId, "size", H5T_NATIVE_INT,
+				intBuffer);
+		reactor = new SFReactor(size);
+
+		/* ---- Read the reactor's attributes. ---- */
+		// Attributes inherited from SFRComponent.
+		readSFRComponent(reactor, groupId);
+
+		// Attributes inherited from SFRComposite.
+		// none
+
+		// SFReactor-specific attributes.
+		// size has already been read.
+		reactor.setLatticePitch((Double) readAttribute(groupId,
+				"latticePitch", H5T_NATIVE_DOUBLE, doubleBuffer));
+		reactor.setOuterFlatToFlat((Double) readAttribute(groupId,
+				"outerFlatToFlat", H5T_NATIVE_DOUBLE, doubleBuffer));
+		/* ---------------------------------------- */
+
+		/* ---- Read the reactor's Pin Assemblies. ---- */
+		List<AssemblyType> pinAssemblyTypes = new ArrayList<AssemblyType>();
+		pinAssemblyTypes.add(AssemblyType.Fuel);
+		pinAssemblyTypes.add(AssemblyType.Control);
+		pinAssemblyTypes.add(AssemblyType.Shield);
+		pinAssemblyTypes.add(AssemblyType.Test);
+
+		for (AssemblyType assemblyType : pinAssemblyTypes) {
 			// Open the group for this assembly type.
 			groupId = groupIds.push(openGroup(groupIds.peek(),
-					AssemblyType.Reflector.toString()));
+					assemblyType.toString()));
 
 			// Loop over the child groups in this assembly type's group.
 			// These groups should have the assembly names.
-			for (String assemblyName : getChildNames(groupId, H5O_TYPE_GROUP)) {
+			for (String assemblyName : getChildNames(groupId,
+					H5O_TYPE_GROUP)) {
 
 				// Open the group for this assembly.
-				groupId = groupIds
-						.push(openGroup(groupIds.peek(), assemblyName));
+				groupId = groupIds.push(openGroup(groupIds.peek(),
+						assemblyName));
 
-				// Read the name, rodType, and size of the assembly.
-				size = (Integer) readAttribute(groupId, "size", H5T_NATIVE_INT,
-						intBuffer);
+				// Read the name, pinType, and size of the assembly.
+				PinType pinType = PinType.valueOf((Integer) readAttribute(
+						groupId, "pinType", H5T_NATIVE_INT, intBuffer));
+				size = (Integer) readAttribute(groupId, "size",
+						H5T_NATIVE_INT, intBuffer);
 
 				// Initialize the assembly.
-				ReflectorAssembly assembly = new ReflectorAssembly(
-						assemblyName, size);
+				PinAssembly assembly = new PinAssembly(assemblyName,
+						pinType, size);
 
 				/* --- Read the assembly's attributes. --- */
 				// Attributes inherited from SFRComponent.
@@ -397,71 +277,156 @@ public class SFReactorIOHandler {
 				assembly.setDuctThickness((Double) readAttribute(groupId,
 						"ductThickness", H5T_NATIVE_DOUBLE, doubleBuffer));
 
-				// ReflectorAssembly-specific attributes.
-				assembly.setRodPitch((Double) readAttribute(groupId,
-						"rodPitch", H5T_NATIVE_DOUBLE, doubleBuffer));
+				// PinAssembly-specific attributes.
+				assembly.setPinPitch((Double) readAttribute(groupId,
+						"pinPitch", H5T_NATIVE_DOUBLE, doubleBuffer));
+				// pinType has already been read.
+				assembly.setInnerDuctFlatToFlat((Double) readAttribute(
+						groupId, "innerDuctFlatToFlat", H5T_NATIVE_DOUBLE,
+						doubleBuffer));
+				assembly.setInnerDuctThickness((Double) readAttribute(
+						groupId, "innerDuctThickness", H5T_NATIVE_DOUBLE,
+						doubleBuffer));
 				/* --------------------------------------- */
 
 				/* --- Read the assembly's reactor locations. --- */
 				// Add the assembly to the reactor.
-				reactor.addAssembly(AssemblyType.Reflector, assembly);
+				reactor.addAssembly(assemblyType, assembly);
 
 				// Set the assembly's locations in the reactor.
 				for (int location : readLocationData(groupId)) {
-					reactor.setAssemblyLocation(AssemblyType.Reflector,
-							assemblyName, location / reactor.getSize(),
-							location % reactor.getSize());
+					reactor.setAssemblyLocation(assemblyType, assemblyName,
+							location / reactor.getSize(), location
+									% reactor.getSize());
 				}
 				/* ---------------------------------------------- */
 
-				/* --- Read the assembly's rods. --- */
-				// Open the group that holds the rods.
-				groupId = groupIds.push(openGroup(groupId, "Rods"));
-
-				// Loop over the child groups in this assembly's Rods group.
-				// These groups should have the rod names.
-				for (String rodName : getChildNames(groupId, H5O_TYPE_GROUP)) {
-
-					// Open the group for this rod.
-					groupId = groupIds
-							.push(openGroup(groupIds.peek(), rodName));
+				/* --- Read the assembly's pins. --- */
+				// Open the group that holds the pins.
+				groupId = groupIds.push(openGroup(groupId, "Pins"));
 
-					// Initialize the rod.
-					SFRRod rod = new SFRRod(rodName);
+				// Loop over the child groups in this assembly's Pins group.
+				// These groups should have the pin names.
+				for (String pinName : getChildNames(groupId, H5O_TYPE_GROUP)) {
 
-					/* -- Read in the Rod's other attributes. -- */
-					// Attributes inherited from SFRComponent.
-					readSFRComponent(rod, groupId);
+					// Open the group for this pin.
+					groupId = groupIds.push(openGroup(groupIds.peek(),
+							pinName));
+
+					// So we don't waste time creating default properties
+					// for the pin that will soon be replaced, we should
+					// first read in the physical structure of the pin.
+					Ring cladding = null;
+					Material fillGas = null;
+					TreeSet<MaterialBlock> materialBlocks = null;
+
+					/* -- Read in the cladding. -- */
+					groupId = openGroup(groupId, "cladding");
+					cladding = readRing(groupId);
+					closeGroup(groupId);
+					/* --------------------------- */
 
-					// Rod-specific attributes.
-					// none
-					/* ----------------------------------------- */
+					/* -- Read in the fill gas. -- */
+					// Initialize the container for the fill gas.
+					fillGas = new Material();
 
-					/* -- Read in the reflector. -- */
-					groupId = openGroup(groupId, "reflector");
-					rod.setReflector(readRing(groupId));
+					// Read the material's attributes.
+					groupId = openGroup(groupIds.peek(), "fillGas");
+					readSFRComponent(fillGas, groupId);
 					closeGroup(groupId);
 					/* --------------------------- */
 
-					// Get the rod's groupId back.
+					/* -- Read in the material blocks. -- */
+					// Initialize the container for the material blocks.
+					materialBlocks = new TreeSet<MaterialBlock>();
+
+					// Open the material blocks group.
+					groupId = groupIds.push(openGroup(groupIds.peek(),
+							"materialBlocks"));
+
+					// Loop over the child groups of materialBlocks. They
+					// correspond to individual MaterialBlocks in the
+					// TreeSet.
+					for (String groupName : getChildNames(groupIds.peek(),
+							H5O_TYPE_GROUP)) {
+						// Initialize a MaterialBlock.
+						MaterialBlock block = new MaterialBlock();
+
+						// Open the MaterialBlock's group.
+						groupId = groupIds.push(openGroup(groupIds.peek(),
+								groupName));
+
+						// Read the block's SFRComponent attributes.
+						readSFRComponent(block, groupId);
+
+						// Read the block's other attributes.
+						block.setVertPosition((Double) readAttribute(
+								groupId, "vertPosition", H5T_NATIVE_DOUBLE,
+								doubleBuffer));
+
+						/* - Read the block's rings. - */
+
+						// Open the Rings group.
+						groupId = groupIds
+								.push(openGroup(groupId, "Rings"));
+
+						// Loop over the child groups of the block. They
+						// correspond to individual rings in the block's
+						// TreeSet.
+						for (String ringGroupName : getChildNames(groupId,
+								H5O_TYPE_GROUP)) {
+							groupId = openGroup(groupIds.peek(),
+									ringGroupName);
+							block.addRing(readRing(groupId));
+							closeGroup(groupId);
+						}
+
+						// Close the Rings group.
+						closeGroup(groupIds.pop());
+						/* --------------------------- */
+
+						// Close the MaterialBlock's group.
+						closeGroup(groupIds.pop());
+
+						// Add the block to materialBlocks (TreeSet).
+						materialBlocks.add(block);
+					}
+
+					// Close the material blocks group.
+					closeGroup(groupIds.pop());
+					/* ---------------------------------- */
+
+					// Initialize the pin.
+					SFRPin pin = new SFRPin(pinName, cladding, fillGas,
+							materialBlocks);
+
+					// Get the pin's groupId.
 					groupId = groupIds.peek();
 
-					/* -- Read the rod's assembly locations. -- */
-					// Add the rod to the assembly.
-					assembly.addRod(rod);
+					/* -- Read in the Pin's other attributes. -- */
+					// Attributes inherited from SFRComponent.
+					readSFRComponent(pin, groupId);
+
+					// Pin-specific attributes.
+					// none
+					/* ----------------------------------------- */
+
+					/* -- Read the pin's assembly locations. -- */
+					// Add the pin to the assembly.
+					assembly.addPin(pin);
 
-					// Set the rod's locations in the assembly.
+					// Set the pin's locations in the assembly.
 					for (int location : readLocationData(groupId)) {
-						assembly.setRodLocation(rodName, location / size,
+						assembly.setPinLocation(pinName, location / size,
 								location % size);
 					}
 					/* ---------------------------------------- */
 
-					// Close the group for this rod.
+					// Close the group for this pin.
 					closeGroup(groupIds.pop());
 				}
 
-				// Close the group that holds the rods.
+				// Close the group that holds the pins.
 				closeGroup(groupIds.pop());
 				/* --------------------------------- */
 
@@ -471,11 +436,12 @@ public class SFReactorIOHandler {
 				List<SFRComponent> gridData = new ArrayList<SFRComponent>();
 				for (int row = 0; row < assembly.getSize(); row++) {
 					for (int column = 0; column < assembly.getSize(); column++) {
-						gridData.add(assembly.getDataProviderByLocation(row,
-								column));
+						gridData.add(assembly.getDataProviderByLocation(
+								row, column));
 					}
 				}
-				readGridData(gridData, groupId);
+				readGridData(gridData, groupId, "/SFReactor/"
+						+ assemblyType + "/" + assemblyName, file);
 				/* -------------------------------------- */
 
 				// Close the group for this assembly.
@@ -484,25 +450,135 @@ public class SFReactorIOHandler {
 
 			// Close the group for this assembly type.
 			closeGroup(groupIds.pop());
-			/* -------------------------------------------------- */
+		}
+		/* -------------------------------------------- */
+
+		/* ---- Read the reactor's Reflector Assemblies. ---- */
+		// Open the group for this assembly type.
+		groupId = groupIds.push(openGroup(groupIds.peek(),
+				AssemblyType.Reflector.toString()));
+
+		// Loop over the child groups in this assembly type's group.
+		// These groups should have the assembly names.
+		for (String assemblyName : getChildNames(groupId, H5O_TYPE_GROUP)) {
+
+			// Open the group for this assembly.
+			groupId = groupIds
+					.push(openGroup(groupIds.peek(), assemblyName));
 
-			// Close the reactor's group.
+			// Read the name, rodType, and size of the assembly.
+			size = (Integer) readAttribute(groupId, "size", H5T_NATIVE_INT,
+					intBuffer);
+
+			// Initialize the assembly.
+			ReflectorAssembly assembly = new ReflectorAssembly(
+					assemblyName, size);
+
+			/* --- Read the assembly's attributes. --- */
+			// Attributes inherited from SFRComponent.
+			readSFRComponent(assembly, groupId);
+
+			// Attributes inherited from SFRComposite.
+			// none
+
+			// Attributes inherited from SFRAssembly.
+			// size has already been read.
+			assembly.setDuctThickness((Double) readAttribute(groupId,
+					"ductThickness", H5T_NATIVE_DOUBLE, doubleBuffer));
+
+			// ReflectorAssembly-specific attributes.
+			assembly.setRodPitch((Double) readAttribute(groupId,
+					"rodPitch", H5T_NATIVE_DOUBLE, doubleBuffer));
+			/* --------------------------------------- */
+
+			/* --- Read the assembly's reactor locations. --- */
+			// Add the assembly to the reactor.
+			reactor.addAssembly(AssemblyType.Reflector, assembly);
+
+			// Set the assembly's locations in the reactor.
+			for (int location : readLocationData(groupId)) {
+				reactor.setAssemblyLocation(AssemblyType.Reflector,
+						assemblyName, location / reactor.getSize(),
+						location % reactor.getSize());
+			}
+			/* ---------------------------------------------- */
+
+			/* --- Read the assembly's rods. --- */
+			// Open the group that holds the rods.
+			groupId = groupIds.push(openGroup(groupId, "Rods"));
+
+			// Loop over the child groups in this assembly's Rods group.
+			// These groups should have the rod names.
+			for (String rodName : getChildNames(groupId, H5O_TYPE_GROUP)) {
+
+				// Open the group for this rod.
+				groupId = groupIds
+						.push(openGroup(groupIds.peek(), rodName));
+
+				// Initialize the rod.
+				SFRRod rod = new SFRRod(rodName);
+
+				/* -- Read in the Rod's other attributes. -- */
+				// Attributes inherited from SFRComponent.
+				readSFRComponent(rod, groupId);
+
+				// Rod-specific attributes.
+				// none
+				/* ----------------------------------------- */
+
+				/* -- Read in the reflector. -- */
+				groupId = openGroup(groupId, "reflector");
+				rod.setReflector(readRing(groupId));
+				closeGroup(groupId);
+				/* --------------------------- */
+
+				// Get the rod's groupId back.
+				groupId = groupIds.peek();
+
+				/* -- Read the rod's assembly locations. -- */
+				// Add the rod to the assembly.
+				assembly.addRod(rod);
+
+				// Set the rod's locations in the assembly.
+				for (int location : readLocationData(groupId)) {
+					assembly.setRodLocation(rodName, location / size,
+							location % size);
+				}
+				/* ---------------------------------------- */
+
+				// Close the group for this rod.
+				closeGroup(groupIds.pop());
+			}
+
+			// Close the group that holds the rods.
 			closeGroup(groupIds.pop());
+			/* --------------------------------- */
 
-			// Close the H5file.
-			status = H5.H5Fclose(fileId);
-			if (status < 0) {
-				throwException("Closing file \"" + path + "\"", status);
+			/* --- Read the assembly's GridData. --- */
+			groupId = groupIds.peek();
+
+			List<SFRComponent> gridData = new ArrayList<SFRComponent>();
+			for (int row = 0; row < assembly.getSize(); row++) {
+				for (int column = 0; column < assembly.getSize(); column++) {
+					gridData.add(assembly.getDataProviderByLocation(row,
+							column));
+				}
 			}
-		} catch (HDF5LibraryException e) {
-			logger.error(getClass().getName() + " Exception!",e);
-		} catch (HDF5Exception e) {
-			logger.error(getClass().getName() + " Exception!",e);
-		} catch (NullPointerException e) {
-			logger.error(getClass().getName() + " Exception!",e);
+			readGridData(gridData, groupId, "/SFReactor/"
+					+ AssemblyType.Reflector + "/" + assemblyName, file);
+			/* -------------------------------------- */
+
+			// Close the group for this assembly.
+			closeGroup(groupIds.pop());
 		}
 
-		// Return the loaded SFReactor.
+		// Close the group for this assembly type.
+		closeGroup(groupIds.pop());
+		/* -------------------------------------------------- */
+
+		// Close the reactor's group.
+		closeGroup(groupIds.pop());
+
 		return reactor;
 	}
 
@@ -1579,11 +1655,30 @@ public class SFReactorIOHandler {
 	 *            A List of IDataProviders to read the data into.
 	 * @param groupId
 	 *            The ID of the parent HDF5 Group, which should be open.
+	 * @param path
+	 *            The path of the parent HDF5 Group in the file.
+	 * @param file
+	 *            The file to read the data from when it is needed, or null to
+	 *            read it now.
 	 * @throws NullPointerException
 	 * @throws HDF5Exception
 	 */
-	private void readGridData(List<SFRComponent> providers, int groupId)
-			throws NullPointerException, HDF5Exception {
+	private void readGridData(List<SFRComponent> providers, int groupId,
+			String path, LazyHdfFile file) throws NullPointerException,
+			HDF5Exception {
+
+		// If there is a file, only remember where the data of each
+		// IDataProvider is.
+		if (file != null) {
+			for (int i = 0; i < providers.size(); i++) {
+				SFRComponent provider = providers.get(i);
+				if (provider != null) {
+					provider.setLazyReader(file, new DataProviderReader(path
+							+ "/GridData/" + i));
+				}
+			}
+			return;
+		}
 
 		// Open the GridData Group.
 		int gridDataGroupId = openGroup(groupId, "GridData");
@@ -2020,4 +2115,44 @@ public class SFReactorIOHandler {
 		return ring;
 	}
 
-}
\ No newline at end of file
+
+	/**
+	 * Reads the data of an IDataProvider from its group in a lazily read file.
+	 */
+	private final class DataProviderReader implements SFRComponent.LazyReader {
+
+		/**
+		 * The path of the group of the IDataProvider.
+		 */
+		private final String path;
+
+		/**
+		 * The constructor.
+		 *
+		 * @param path
+		 *            The path of the group of the IDataProvider.
+		 */
+		private DataProviderReader(String path) {
+			this.path = path;
+		}
+
+		@Override
+		public boolean read(LazyHdfFile file, SFRComponent component) {
+			try {
+				int providerGroupId = openGroup(file.getH5File().getFID(),
+						path);
+				try {
+					readDataProvider(component, providerGroupId);
+				} finally {
+					closeGroup(providerGroupId);
+				}
+				return true;
+			} catch (HDF5Exception e) {
+				logger.error(getClass().getName() + " Exception!", e);
+			} catch (NullPointerException e) {
+				logger.error(getClass().getName() + " Exception!", e);
+			}
+			return false;
+		}
+	}
+}
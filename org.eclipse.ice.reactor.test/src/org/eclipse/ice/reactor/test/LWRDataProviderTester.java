@@ -14,9 +14,14 @@ package org.eclipse.ice.reactor.test;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
+
+import org.eclipse.ice.analysistool.IData;
 import org.eclipse.ice.reactor.LWRData;
 import org.eclipse.ice.reactor.LWRDataProvider;
 import org.junit.Test;
@@ -379,4 +384,82 @@ public class LWRDataProviderTester {
 		assertFalse(object.hashCode() == unEqualObject.hashCode());
 
 	}
-}
\ No newline at end of file
+
+	/**
+	 * <p>
+	 * Checks the data added without LWRData and the IData created from the
+	 * stored data.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkBulkData() {
+
+		// Local Declarations
+		LWRDataProvider provider = new LWRDataProvider();
+		int nPins = 100;
+		double[] times = { 2.0, 1.0, 3.0 };
+
+		// Add the same pins with different values at each time
+		for (double time : times) {
+			for (int i = 0; i < nPins; i++) {
+				provider.addData("Pin Powers", time * i, 0.01, i, 2.0 * i,
+						0.0, "W", time);
+			}
+			provider.addData(null, time, 0.0, 0.0, 0.0, 0.0, null, time);
+		}
+
+		// Check the times and features
+		assertEquals(3, provider.getNumberOfTimeSteps());
+		assertEquals(1.0, provider.getTimes().get(0), 0.0);
+		assertEquals(3.0, provider.getTimes().get(2), 0.0);
+		assertEquals(1, provider.getTimeStep(2.0));
+		assertEquals(-1, provider.getTimeStep(2.5));
+		assertEquals(2, provider.getFeatureList().size());
+		assertEquals("Pin Powers", provider.getFeatureList().get(0));
+		assertEquals("Feature 1", provider.getFeatureList().get(1));
+
+		// Check the IData, which should be the same as the equivalent LWRData
+		provider.setTime(2.0);
+		ArrayList<IData> data = provider.getDataAtCurrentTime("Pin Powers");
+		assertEquals(nPins, data.size());
+		LWRData pin = new LWRData("Pin Powers");
+		pin.setValue(2.0 * 5);
+		pin.setUncertainty(0.01);
+		pin.setUnits("W");
+		ArrayList<Double> position = new ArrayList<Double>();
+		position.add(5.0);
+		position.add(10.0);
+		position.add(0.0);
+		pin.setPosition(position);
+		assertEquals(pin, data.get(5));
+		assertEquals("seconds", provider.getDataAtCurrentTime("Feature 1")
+				.get(0).getUnits());
+
+		// The IData should be kept until the time or the data changes
+		assertSame(data, provider.getDataAtCurrentTime("Pin Powers"));
+		provider.setTime(1.0);
+		provider.setTime(2.0);
+		ArrayList<IData> newData = provider.getDataAtCurrentTime("Pin Powers");
+		assertNotSame(data, newData);
+		assertEquals(data, newData);
+		provider.addData("Pin Powers", 1.0, 0.0, 0.0, 0.0, 1.0, "W", 2.0);
+		assertEquals(nPins + 1, provider.getDataAtCurrentTime("Pin Powers")
+				.size());
+
+		// Copies should be equal and independent
+		LWRDataProvider copy = (LWRDataProvider) provider.clone();
+		assertEquals(provider, copy);
+		assertEquals(provider.hashCode(), copy.hashCode());
+		copy.addData("Pin Powers", 1.0, 0.0, 0.0, 0.0, 2.0, "W", 1.0);
+		assertFalse(provider.equals(copy));
+		provider.setTime(1.0);
+		assertEquals(nPins, provider.getDataAtCurrentTime("Pin Powers").size());
+
+		// Removing a feature should remove it from the list of features
+		provider.removeAllDataFromFeature("Feature 1");
+		assertEquals(1, provider.getFeatureList().size());
+		assertEquals(3, provider.getNumberOfTimeSteps());
+
+	}
+}
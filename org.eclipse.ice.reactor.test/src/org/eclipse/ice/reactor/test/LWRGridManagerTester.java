@@ -1307,6 +1307,102 @@ public class LWRGridManagerTester {
 
 	}
 
+	/**
+	 * <p>
+	 * This operation checks the bulk layout of the data in HDF5 files, which
+	 * is read in full and for a range of times.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkBulkHDF5Readables() {
+
+		// Local Declarations
+		int size = 5;
+		LWRGridManager component = new LWRGridManager(size);
+		LWRGridManager newComponent = new LWRGridManager(size);
+		String name = "Bulky";
+		H5Group subGroup = null;
+		GridLocation location1 = new GridLocation(0, 1);
+		GridLocation location2 = new GridLocation(2, 2);
+		GridLocation location3 = new GridLocation(4, 0);
+
+		// Setup the component. The third location has no data.
+		component.setName(name);
+		component.addComponent(new LWRComponent("Component 1"), location1);
+		component.addComponent(new LWRComponent("Component 2"), location2);
+		component.addComponent(new LWRComponent("Component 3"), location3);
+		for (int i = 0; i < 3; i++) {
+			double time = 1.0 + i;
+			for (int j = 0; j < 4; j++) {
+				location1.getLWRDataProvider().addData("Feature 1", i + j,
+						0.5, 0.0, 1.0, j, "Units 1", time);
+				location2.getLWRDataProvider().addData("Feature 2", i * j,
+						0.0, 1.0, 1.0, j, "Units 2", time);
+			}
+		}
+		// A feature that is only at one time and location
+		location2.getLWRDataProvider().addData("Feature 3", 7.0, 0.0, 0.0,
+				0.0, 0.0, "Units 1", 2.0);
+
+		// Setup the HDF5 File
+		String separator = System.getProperty("file.separator");
+		File dataFile = new File(System.getProperty("user.dir") + separator
+				+ "test.h5");
+		URI uri = dataFile.toURI();
+		H5File h5File = HdfFileFactory.createH5File(uri);
+		try {
+			h5File.open();
+			H5Group parentH5Group = (H5Group) ((javax.swing.tree.DefaultMutableTreeNode) h5File
+					.getRootNode()).getUserObject();
+			subGroup = (H5Group) h5File.createGroup(name, parentH5Group);
+			assertTrue(component.writeAttributes(h5File, subGroup));
+			assertTrue(component.writeDatasets(h5File, subGroup, true));
+
+			// Close the file and then reopen it
+			h5File.close();
+			h5File.open();
+			parentH5Group = (H5Group) ((javax.swing.tree.DefaultMutableTreeNode) h5File
+					.getRootNode()).getUserObject();
+			subGroup = (H5Group) parentH5Group.getMemberList().get(0);
+
+			// Read everything
+			assertTrue(newComponent.readAttributes(subGroup));
+			assertTrue(newComponent.readDatasets(subGroup));
+			assertTrue(component.equals(newComponent));
+
+			// Read the second time step only
+			assertTrue(newComponent.readAttributes(subGroup));
+			assertTrue(newComponent.readDatasets(subGroup, 1.5, 2.5));
+			assertFalse(component.equals(newComponent));
+			GridLocation location = newComponent.getGridLocationsAtName(
+					"Component 2").get(0);
+			assertEquals(1, location.getLWRDataProvider().getTimes().size());
+			assertEquals(2.0,
+					location.getLWRDataProvider().getTimes().get(0), 0.0);
+			location.getLWRDataProvider().setTime(2.0);
+			location2.getLWRDataProvider().setTime(2.0);
+			assertEquals(1, location.getLWRDataProvider()
+					.getDataAtCurrentTime("Feature 3").size());
+			assertEquals(location2.getLWRDataProvider()
+					.getDataAtCurrentTime("Feature 3"), location
+					.getLWRDataProvider().getDataAtCurrentTime("Feature 3"));
+			assertEquals(4, location.getLWRDataProvider()
+					.getDataAtCurrentTime("Feature 2").size());
+			assertEquals(location2.getLWRDataProvider()
+					.getDataAtCurrentTime("Feature 2"), location
+					.getLWRDataProvider().getDataAtCurrentTime("Feature 2"));
+
+			h5File.close();
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail();
+		}
+
+		dataFile.delete();
+
+	}
+
 	/**
 	 * <p>
 	 * Removes the test.h5 file after the tests fails (to keep the workspace
@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.reactor.test.pwr;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+
+import ncsa.hdf.object.h5.H5File;
+import ncsa.hdf.object.h5.H5Group;
+
+import org.eclipse.ice.io.hdf.HdfFileFactory;
+import org.eclipse.ice.io.hdf.LazyHdfFile;
+import org.eclipse.ice.reactor.LWRComponentReader;
+import org.eclipse.ice.reactor.LWRComponentWriter;
+import org.eclipse.ice.reactor.LWRGridManager;
+import org.eclipse.ice.reactor.pwr.PressurizedWaterReactor;
+
+/**
+ * This class times writing and reading a full-core PWR with 193 assemblies
+ * and pin powers at several time steps, in the default layout and in the bulk
+ * layout of the LWRGridManager, with and without lazy reads. It prints the
+ * times and the file sizes. It is not part of the test suite and is launched
+ * by hand. The reactors read back are checked by
+ * {@link PWReactorHDF5LayoutTester}.
+ */
+public class PWReactorHDF5Benchmark {
+
+	/**
+	 * The size of the assemblies, the number of axial levels and the number
+	 * of time steps.
+	 */
+	private static final int nPins = 17, nAxial = 4, nTimes = 4;
+
+	/**
+	 * The number of assemblies in each row of the core, which adds up to 193.
+	 */
+	private static final int[] rowWidths = { 7, 11, 13, 13, 15, 15, 15, 15,
+			15, 15, 15, 13, 13, 11, 7 };
+
+	/**
+	 * The main operation. It writes the file to the system's temporary
+	 * directory and deletes it afterward.
+	 *
+	 * @param args
+	 *            Not used.
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+
+		PressurizedWaterReactor reactor = PWReactorHDF5LayoutTester
+				.createReactor(rowWidths, nPins, nAxial, nTimes);
+		File dataFile = File.createTempFile("PWReactorHDF5Benchmark", ".h5");
+		URI uri = dataFile.toURI();
+		LWRComponentWriter writer = new LWRComponentWriter();
+		LWRComponentReader reader = new LWRComponentReader();
+		long start;
+
+		try {
+			for (boolean bulk : new boolean[] { false, true }) {
+				String layout = (bulk ? "bulk" : "default");
+
+				// Time the write and a full read
+				writer.setBulkDataLayout(bulk);
+				start = System.nanoTime();
+				writer.write(reactor, uri);
+				double writeTime = (System.nanoTime() - start) / 1.0e6;
+				start = System.nanoTime();
+				reader.read(uri);
+				double readTime = (System.nanoTime() - start) / 1.0e6;
+				System.out.println("PWReactorHDF5Benchmark Message: " + layout
+						+ " layout, " + nTimes * 193 * nAxial * nPins * nPins
+						+ " points, write = " + writeTime + " ms, read = "
+						+ readTime + " ms, file = " + dataFile.length() / 1024
+						+ " KB");
+
+				// Time a lazy read of the skeleton and the loads of all of the
+				// data through equals(), keeping at most 10 assemblies
+				LazyHdfFile file = new LazyHdfFile(uri, 10 * nTimes * nAxial
+						* nPins * nPins);
+				start = System.nanoTime();
+				PressurizedWaterReactor newReactor = (PressurizedWaterReactor) reader
+						.read(file);
+				double lazyTime = (System.nanoTime() - start) / 1.0e6;
+				start = System.nanoTime();
+				reactor.equals(newReactor);
+				double loadTime = (System.nanoTime() - start) / 1.0e6;
+				file.close();
+				System.out.println("PWReactorHDF5Benchmark Message: " + layout
+						+ " layout, lazy read = " + lazyTime
+						+ " ms, equals with loads = " + loadTime + " ms");
+			}
+
+			// Time a read of the last time step of the bulk layout with the
+			// grid manager
+			H5File h5File = HdfFileFactory.openH5File(uri);
+			H5Group rootH5Group = (H5Group) ((javax.swing.tree.DefaultMutableTreeNode) h5File
+					.getRootNode()).getUserObject();
+			H5Group h5Group = PWReactorHDF5LayoutTester.findGroup(rootH5Group,
+					"Fuel Assembly Grid");
+			LWRGridManager manager = new LWRGridManager(rowWidths.length);
+			double lastTime = (nTimes - 1) * 100.0;
+			start = System.nanoTime();
+			manager.readAttributes(h5Group);
+			manager.readDatasets(h5Group, lastTime, lastTime);
+			double stepTime = (System.nanoTime() - start) / 1.0e6;
+			HdfFileFactory.closeH5File(h5File);
+			System.out.println("PWReactorHDF5Benchmark Message: "
+					+ "bulk layout, read of one time step = " + stepTime
+					+ " ms");
+		} finally {
+			dataFile.delete();
+		}
+
+		return;
+	}
+}
@@ -0,0 +1,355 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.reactor.test.pwr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import ncsa.hdf.object.HObject;
+import ncsa.hdf.object.h5.H5File;
+import ncsa.hdf.object.h5.H5Group;
+
+import org.eclipse.ice.io.hdf.HdfFileFactory;
+import org.eclipse.ice.io.hdf.LazyHdfFile;
+import org.eclipse.ice.reactor.AssemblyType;
+import org.eclipse.ice.reactor.GridLocation;
+import org.eclipse.ice.reactor.LWRComponentReader;
+import org.eclipse.ice.reactor.LWRComponentWriter;
+import org.eclipse.ice.reactor.LWRDataProvider;
+import org.eclipse.ice.reactor.LWRGridManager;
+import org.eclipse.ice.reactor.pwr.FuelAssembly;
+import org.eclipse.ice.reactor.pwr.PressurizedWaterReactor;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * This class writes and reads a small PWR core with pin powers at several time
+ * steps in the default layout and in the bulk layout of the LWRGridManager,
+ * with and without lazy reads, and checks that the reactors read back are the
+ * same. The times for a full core are measured by {@link PWReactorHDF5Benchmark}.
+ */
+public class PWReactorHDF5LayoutTester {
+
+	/**
+	 * The size of the core and of the assemblies, the number of axial levels
+	 * and the number of time steps.
+	 */
+	private static final int coreSize = 5, nPins = 17, nAxial = 2,
+			nTimes = 3;
+
+	/**
+	 * The number of assemblies in each row of the core, which adds up to 21.
+	 */
+	private static final int[] rowWidths = { 3, 5, 5, 5, 3 };
+
+	/**
+	 * The location of an assembly in the middle of the core.
+	 */
+	private static final int center = coreSize / 2;
+
+	/**
+	 * The reactor.
+	 */
+	private static PressurizedWaterReactor reactor;
+
+	/**
+	 * The test file.
+	 */
+	private static File dataFile;
+
+	/**
+	 * This operation creates the reactor and its pin powers.
+	 */
+	@BeforeClass
+	public static void beforeClass() {
+
+		reactor = createReactor(rowWidths, nPins, nAxial, nTimes);
+
+		String separator = System.getProperty("file.separator");
+		dataFile = new File(System.getProperty("user.dir") + separator
+				+ "layout.h5");
+
+		return;
+	}
+
+	/**
+	 * This operation checks the default layout.
+	 */
+	@Test
+	public void checkDefaultLayout() {
+		checkLayout(false);
+	}
+
+	/**
+	 * This operation checks the bulk layout, including a read of a single
+	 * time step with the grid manager.
+	 */
+	@Test
+	public void checkBulkLayout() {
+
+		checkLayout(true);
+
+		// Read the last time step of the fuel assembly grid manager
+		H5File h5File = HdfFileFactory.openH5File(dataFile.toURI());
+		H5Group rootH5Group = (H5Group) ((javax.swing.tree.DefaultMutableTreeNode) h5File
+				.getRootNode()).getUserObject();
+		H5Group h5Group = findGroup(rootH5Group, "Fuel Assembly Grid");
+		assertNotNull(h5Group);
+		LWRGridManager manager = new LWRGridManager(coreSize);
+		double lastTime = (nTimes - 1) * 100.0;
+		assertTrue(manager.readAttributes(h5Group));
+		assertTrue(manager.readDatasets(h5Group, lastTime, lastTime));
+		HdfFileFactory.closeH5File(h5File);
+
+		// Check one of the assemblies
+		LWRDataProvider provider = reactor.getAssemblyDataProviderAtLocation(
+				AssemblyType.Fuel, center, center);
+		provider.setTime(lastTime);
+		LWRDataProvider newProvider = manager
+				.getDataProviderAtLocation(new GridLocation(center, center));
+		newProvider.setTime(lastTime);
+		assertEquals(1, newProvider.getTimes().size());
+		assertEquals(nAxial * nPins * nPins, newProvider
+				.getDataAtCurrentTime("Pin Power").size());
+		assertEquals(provider.getDataAtCurrentTime("Pin Power"),
+				newProvider.getDataAtCurrentTime("Pin Power"));
+		// The reactor is shared with the other tests
+		provider.setTime(0.0);
+
+		return;
+	}
+
+	/**
+	 * This operation checks lazy reads of both layouts and that the cache of
+	 * the file stays within its capacity.
+	 */
+	@Test
+	public void checkLazyRead() {
+
+		// Keep the data of at most 5 assemblies
+		int nPoints = nTimes * nAxial * nPins * nPins;
+		LWRComponentWriter writer = new LWRComponentWriter();
+		LWRComponentReader reader = new LWRComponentReader();
+		URI uri = dataFile.toURI();
+
+		for (boolean bulk : new boolean[] { false, true }) {
+			writer.setBulkDataLayout(bulk);
+			assertTrue(writer.write(reactor, uri));
+
+			// Read the skeleton
+			LazyHdfFile file = new LazyHdfFile(uri, 5 * nPoints);
+			assertTrue(file.isOpen());
+			PressurizedWaterReactor newReactor = (PressurizedWaterReactor) reader
+					.read(file);
+			assertNotNull(newReactor);
+			assertEquals(0, file.getNumberOfLoadedParts());
+
+			// Read all of the data through equals()
+			assertTrue(reactor.equals(newReactor));
+			assertTrue(file.getNumberOfLoadedParts() <= 5);
+
+			// The data that was read is kept after the file is closed
+			LWRDataProvider newProvider = newReactor
+					.getAssemblyDataProviderAtLocation(AssemblyType.Fuel,
+							center, center);
+			assertEquals(nTimes, newProvider.getTimes().size());
+			file.close();
+			assertFalse(file.isOpen());
+			assertEquals(nTimes, newProvider.getTimes().size());
+			assertEquals(reactor.getAssemblyDataProviderAtLocation(
+					AssemblyType.Fuel, center, center), newProvider);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation reads the data of different assemblies on several threads
+	 * while the cache of the file only holds a few of them, so the parts are
+	 * constantly unloaded by the other threads, and checks that every read
+	 * gets all of the data.
+	 */
+	@Test
+	public void checkConcurrentLazyRead() throws InterruptedException {
+
+		// Keep the data of at most 2 assemblies
+		final int nPoints = nAxial * nPins * nPins;
+		LWRComponentWriter writer = new LWRComponentWriter();
+		URI uri = dataFile.toURI();
+		assertTrue(writer.write(reactor, uri));
+		LazyHdfFile file = new LazyHdfFile(uri, 2 * nTimes * nPoints);
+		final PressurizedWaterReactor newReactor = (PressurizedWaterReactor) new LWRComponentReader()
+				.read(file);
+		assertNotNull(newReactor);
+
+		// Each thread reads the assemblies of its own rows several times
+		final int nThreads = 4, nPasses = 5;
+		final AtomicInteger failures = new AtomicInteger();
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int t = 0; t < nThreads; t++) {
+			final int firstRow = t % coreSize;
+			Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int pass = 0; pass < nPasses; pass++) {
+						for (int row = firstRow; row < coreSize; row += nThreads) {
+							int first = (coreSize - rowWidths[row]) / 2;
+							for (int column = first; column < first
+									+ rowWidths[row]; column++) {
+								LWRDataProvider provider = newReactor
+										.getAssemblyDataProviderAtLocation(
+												AssemblyType.Fuel, row,
+												column);
+								if (provider.getTimes().size() != nTimes
+										|| provider.getDataAtCurrentTime(
+												"Pin Power").size() != nPoints) {
+									failures.incrementAndGet();
+								}
+							}
+						}
+					}
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		file.close();
+
+		assertEquals(0, failures.get());
+
+		return;
+	}
+
+	/**
+	 * This operation removes the test file.
+	 */
+	@AfterClass
+	public static void afterClass() {
+		if (dataFile.exists()) {
+			dataFile.delete();
+		}
+	}
+
+	/**
+	 * This operation creates a PWR with one fuel assembly at every location
+	 * of a round core and random pin powers at each time step. It is shared
+	 * with {@link PWReactorHDF5Benchmark}.
+	 *
+	 * @param rowWidths
+	 *            the number of assemblies in each row of the core, which also
+	 *            sets the size of the core
+	 * @param nPins
+	 *            the number of pins on each side of an assembly
+	 * @param nAxial
+	 *            the number of axial levels
+	 * @param nTimes
+	 *            the number of time steps, 100 s apart
+	 * @return the reactor
+	 */
+	static PressurizedWaterReactor createReactor(int[] rowWidths, int nPins,
+			int nAxial, int nTimes) {
+
+		// Put one assembly at every location of the core
+		int size = rowWidths.length;
+		PressurizedWaterReactor newReactor = new PressurizedWaterReactor(size);
+		newReactor.setName("Core");
+		FuelAssembly assembly = new FuelAssembly("Assembly", nPins);
+		newReactor.addAssembly(AssemblyType.Fuel, assembly);
+		Random random = new Random(1);
+		for (int row = 0; row < size; row++) {
+			int first = (size - rowWidths[row]) / 2;
+			for (int column = first; column < first + rowWidths[row]; column++) {
+				newReactor.setAssemblyLocation(AssemblyType.Fuel,
+						assembly.getName(), row, column);
+
+				// Add the pin powers at each time step
+				LWRDataProvider provider = newReactor
+						.getAssemblyDataProviderAtLocation(AssemblyType.Fuel,
+								row, column);
+				for (int t = 0; t < nTimes; t++) {
+					for (int k = 0; k < nAxial; k++) {
+						for (int i = 0; i < nPins; i++) {
+							for (int j = 0; j < nPins; j++) {
+								provider.addData("Pin Power",
+										random.nextDouble(), 0.01, i, j, k,
+										"W", t * 100.0);
+							}
+						}
+					}
+				}
+			}
+		}
+
+		return newReactor;
+	}
+
+	/**
+	 * This operation writes and reads the reactor with a layout and checks
+	 * that the reactor read back is the same.
+	 *
+	 * @param bulk
+	 *            true to write the bulk layout
+	 */
+	private void checkLayout(boolean bulk) {
+
+		LWRComponentWriter writer = new LWRComponentWriter();
+		writer.setBulkDataLayout(bulk);
+		URI uri = dataFile.toURI();
+
+		assertTrue(writer.write(reactor, uri));
+		PressurizedWaterReactor newReactor = (PressurizedWaterReactor) new LWRComponentReader()
+				.read(uri);
+		assertNotNull(newReactor);
+		assertTrue(reactor.equals(newReactor));
+
+		return;
+	}
+
+	/**
+	 * This operation finds a group by name below the given group.
+	 *
+	 * @param h5Group
+	 *            the group to search
+	 * @param name
+	 *            the name of the group
+	 * @return the group, or null if it was not found
+	 */
+	static H5Group findGroup(H5Group h5Group, String name) {
+		for (HObject member : h5Group.getMemberList()) {
+			if (member instanceof H5Group) {
+				H5Group group = (H5Group) member;
+				if (name.equals(group.getName())) {
+					return group;
+				}
+				group = findGroup(group, name);
+				if (group != null) {
+					return group;
+				}
+			}
+		}
+		return null;
+	}
+}
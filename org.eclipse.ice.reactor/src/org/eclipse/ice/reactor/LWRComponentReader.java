@@ -23,6 +23,7 @@ import org.eclipse.ice.io.hdf.HdfFileFactory;
 import org.eclipse.ice.io.hdf.HdfReaderFactory;
 import org.eclipse.ice.io.hdf.IHdfReadable;
 import org.eclipse.ice.io.hdf.IHdfReader;
+import org.eclipse.ice.io.hdf.LazyHdfFile;
 import org.eclipse.ice.reactor.bwr.BWReactor;
 import org.eclipse.ice.reactor.pwr.ControlBank;
 import org.eclipse.ice.reactor.pwr.FuelAssembly;
@@ -40,6 +41,11 @@ import org.eclipse.ice.reactor.pwr.RodClusterAssembly;
  * populate that list accordingly to any part of a Reactor or its delegated
  * classes that inherit from LWRComponent.
  * </p>
+ * <p>
+ * The tree can also be read from a {@link LazyHdfFile}. Then the components,
+ * grids and labels are read immediately, but the data of the LWRDataProviders
+ * of the grids is read from the file when it is first needed.
+ * </p>
  * 
  * @author Scott Forest Hull II
  */
@@ -124,7 +130,7 @@ public class LWRComponentReader implements IHdfReader {
 		H5Group h5Group = HdfReaderFactory.getChildH5Group(rootH5Group, 0);
 
 		// Read the group into the iHdfReadable
-		IHdfReadable iHdfReadable = this.read(h5Group);
+		IHdfReadable iHdfReadable = this.read(h5Group, null);
 
 		// Close the file
 		HdfFileFactory.closeH5File(h5File);
@@ -134,6 +140,49 @@ public class LWRComponentReader implements IHdfReader {
 
 	}
 
+	/**
+	 * <p>
+	 * Reads the tree from a file that is kept open, so that the data of the
+	 * LWRDataProviders of the grids is only read when it is first needed. The
+	 * file should be closed when the tree is no longer used.
+	 * </p>
+	 * 
+	 * @param file
+	 *            <p>
+	 *            The open file.
+	 *            </p>
+	 * @return <p>
+	 *         The top level IHdfReadable, or null if the file is not open.
+	 *         </p>
+	 */
+	public IHdfReadable read(LazyHdfFile file) {
+
+		// Check the file
+		if (file == null) {
+			return null;
+		}
+
+		// Lock the file while the tree is read
+		synchronized (file) {
+			H5File h5File = file.getH5File();
+			if (h5File == null) {
+				return null;
+			}
+
+			// Get the first child group from the root group
+			H5Group rootH5Group = (H5Group) ((javax.swing.tree.DefaultMutableTreeNode) h5File
+					.getRootNode()).getUserObject();
+			if (rootH5Group == null) {
+				return null;
+			}
+			H5Group h5Group = HdfReaderFactory.getChildH5Group(rootH5Group, 0);
+
+			// Read the group into the iHdfReadable
+			return this.read(h5Group, file);
+		}
+
+	}
+
 	/**
 	 * <p>
 	 * Returns a clone of the LWRComponent instance corresponding to the
@@ -169,12 +218,17 @@ public class LWRComponentReader implements IHdfReader {
 	 *            <p>
 	 *            The H5Group to be read.
 	 *            </p>
+	 * @param file
+	 *            <p>
+	 *            The file to read the data of the grids from when it is
+	 *            needed, or null to read it now.
+	 *            </p>
 	 * @return <p>
 	 *         An IHdfReadable that has been populated by the provided H5Group
 	 *         and its child H5Groups and Datasets.
 	 *         </p>
 	 */
-	private IHdfReadable read(H5Group h5Group) {
+	private IHdfReadable read(H5Group h5Group, LazyHdfFile file) {
 
 		IHdfReadable iHdfReadable = null;
 
@@ -195,8 +249,13 @@ public class LWRComponentReader implements IHdfReader {
 			// Read in the attributes
 			iHdfReadable.readAttributes(h5Group);
 
-			// Read in the datasets
-			iHdfReadable.readDatasets(h5Group);
+			// Read in the datasets. The data of the grids is read later if
+			// there is a file.
+			if (file != null && iHdfReadable instanceof LWRGridManager) {
+				((LWRGridManager) iHdfReadable).readDatasets(h5Group, file);
+			} else {
+				iHdfReadable.readDatasets(h5Group);
+			}
 
 			// Get a list of child groups
 			ArrayList<H5Group> childGroupList = HdfReaderFactory
@@ -209,7 +268,7 @@ public class LWRComponentReader implements IHdfReader {
 				for (H5Group group : childGroupList) {
 
 					// Create and populate a child from the child group
-					IHdfReadable child = this.read(group);
+					IHdfReadable child = this.read(group, file);
 
 					// Read the child into the readable
 					iHdfReadable.readChild(child);
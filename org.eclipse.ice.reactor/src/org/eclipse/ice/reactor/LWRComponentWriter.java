@@ -36,6 +36,46 @@ import org.eclipse.ice.io.hdf.IHdfWriter;
  */
 public class LWRComponentWriter implements IHdfWriter {
 
+	/**
+	 * <p>
+	 * True if the data of the LWRDataProviders of LWRGridManagers is written
+	 * in the bulk layout.
+	 * </p>
+	 */
+	private boolean bulkDataLayout = false;
+
+	/**
+	 * <p>
+	 * Sets whether this writer writes the data of the LWRDataProviders of
+	 * LWRGridManagers in the bulk layout, with one table per feature, or with
+	 * a group per time step for each location. Both layouts can always be
+	 * read.
+	 * </p>
+	 * 
+	 * @param bulk
+	 *            <p>
+	 *            True to write the bulk layout, false to write the layout
+	 *            with a group per time step.
+	 *            </p>
+	 */
+	public void setBulkDataLayout(boolean bulk) {
+		bulkDataLayout = bulk;
+	}
+
+	/**
+	 * <p>
+	 * Returns true if this writer writes the data of the LWRDataProviders in
+	 * the bulk layout.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         True if the bulk layout is written, false otherwise.
+	 *         </p>
+	 */
+	public boolean isBulkDataLayout() {
+		return bulkDataLayout;
+	}
+
 	/**
 	 * (non-Javadoc)
 	 * 
@@ -118,8 +158,14 @@ public class LWRComponentWriter implements IHdfWriter {
 		// Write the attributes for this LWRComponent
 		flag &= iHdfWriteable.writeAttributes(h5File, h5Group);
 
-		// Write the datasets for this LWRComponent
-		flag &= iHdfWriteable.writeDatasets(h5File, h5Group);
+		// Write the datasets for this LWRComponent, in the layout of this
+		// writer for grid managers
+		if (iHdfWriteable instanceof LWRGridManager) {
+			flag &= ((LWRGridManager) iHdfWriteable).writeDatasets(h5File,
+					h5Group, bulkDataLayout);
+		} else {
+			flag &= iHdfWriteable.writeDatasets(h5File, h5Group);
+		}
 
 		// Get the children of iHdfWriteable
 		ArrayList<IHdfWriteable> children = iHdfWriteable
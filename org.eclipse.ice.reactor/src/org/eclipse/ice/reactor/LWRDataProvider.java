@@ -13,12 +13,18 @@
 package org.eclipse.ice.reactor;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.TreeMap;
 
 import org.eclipse.ice.analysistool.IData;
 import org.eclipse.ice.analysistool.IDataProvider;
+import org.eclipse.ice.io.hdf.ILazyHdfReadable;
+import org.eclipse.ice.io.hdf.LazyHdfFile;
 
 /**
  * <p>
@@ -26,18 +32,34 @@ import org.eclipse.ice.analysistool.IDataProvider;
  * point data, usually for material decompositions or powers, that can be used
  * to store and display changes in value overtime across different features.
  * </p>
+ * <p>
+ * The data is stored by columns instead of as LWRData. Each feature at each
+ * time has one array of values, uncertainties, units and each coordinate of
+ * the positions. Feature and unit names are stored once. The position,
+ * uncertainty and unit columns are shared with the same feature at the
+ * previous time when they are equal, which is usually the case for the same
+ * pins at different times. The IData of a feature is only created when
+ * getDataAtCurrentTime() is called, and it is kept until the time changes.
+ * Changes to the returned IData are not stored in the provider.
+ * </p>
+ * <p>
+ * The data of a provider read by LWRGridManager from a {@link LazyHdfFile}
+ * is only read when it is first needed, and it is dropped again when the
+ * cache of the file is full. Once data is added to or removed from the
+ * provider, it is read and kept in memory.
+ * </p>
  * 
  * @author Scott Forest Hull II
  */
 public class LWRDataProvider implements IDataProvider {
 	/**
 	 * <p>
-	 * A TreeMap implementation of IData and features. Keep in mind that there
-	 * can be multiple IData for the same feature.
+	 * The columns of each feature at each time, in the order the features
+	 * were added at that time.
 	 * </p>
 	 * 
 	 */
-	private TreeMap<Double, ArrayList<FeatureSet>> dataTree;
+	private TreeMap<Double, ArrayList<FeatureColumns>> dataTree;
 	/**
 	 * <p>
 	 * The current time step. Can not be less than 0, and must be strictly less
@@ -62,6 +84,71 @@ public class LWRDataProvider implements IDataProvider {
 	 */
 	private String timeUnit;
 
+	/**
+	 * <p>
+	 * The single instances of the feature and unit names, keyed by name.
+	 * </p>
+	 * 
+	 */
+	private HashMap<String, String> names;
+
+	/**
+	 * <p>
+	 * The columns added to since they were last compacted, and the time they
+	 * were last added to.
+	 * </p>
+	 * 
+	 */
+	private ArrayList<FeatureColumns> pendingColumns;
+	private double lastAddedTime;
+
+	/**
+	 * <p>
+	 * The last compacted columns of each feature, which the next compacted
+	 * columns of the feature can share columns with.
+	 * </p>
+	 * 
+	 */
+	private HashMap<String, FeatureColumns> lastCompactedColumns;
+
+	/**
+	 * <p>
+	 * The times and the features at all times, or null if they changed since
+	 * they were last requested.
+	 * </p>
+	 * 
+	 */
+	private ArrayList<Double> times;
+	private double[] timeArray;
+	private ArrayList<String> featureList;
+
+	/**
+	 * <p>
+	 * The IData of the features at the current time that were requested.
+	 * </p>
+	 * 
+	 */
+	private IdentityHashMap<FeatureColumns, ArrayList<IData>> views;
+
+	/**
+	 * <p>
+	 * The file the data is read from when it is needed and the part of the
+	 * file with the data, or null if the data is in memory.
+	 * </p>
+	 * 
+	 */
+	private LazyHdfFile lazyFile;
+	private LazyData lazyData;
+
+	/**
+	 * <p>
+	 * True while the data is read from the file. It is only used while the
+	 * file is locked.
+	 * </p>
+	 * 
+	 */
+	private boolean loading;
+
 	/**
 	 * <p>
 	 * The constructor.
@@ -70,7 +157,7 @@ public class LWRDataProvider implements IDataProvider {
 	 */
 	public LWRDataProvider() {
 		// Setup TreeMap
-		this.dataTree = new TreeMap<Double, ArrayList<FeatureSet>>();
+		this.dataTree = new TreeMap<Double, ArrayList<FeatureColumns>>();
 
 		// Setup Source
 		this.sourceInfo = "No Source Available";
@@ -78,6 +165,13 @@ public class LWRDataProvider implements IDataProvider {
 		// Setup time
 		this.time = 0;
 		this.timeUnit = "seconds";
+
+		// Setup the dictionaries and caches
+		this.names = new HashMap<String, String>();
+		this.pendingColumns = new ArrayList<FeatureColumns>();
+		this.lastAddedTime = -1.0;
+		this.lastCompactedColumns = new HashMap<String, FeatureColumns>();
+		this.views = new IdentityHashMap<FeatureColumns, ArrayList<IData>>();
 	}
 
 	/**
@@ -102,6 +196,8 @@ public class LWRDataProvider implements IDataProvider {
 	 * <p>
 	 * Adds a IData piece, keyed on the feature and timeStep, to the dataTree.
 	 * If the feature exists in the tree, it will append to the end of the list.
+	 * The values of the data are copied, so later changes to it are not stored
+	 * in the provider.
 	 * </p>
 	 * 
 	 * @param data
@@ -112,53 +208,117 @@ public class LWRDataProvider implements IDataProvider {
 	 */
 	public void addData(LWRData data, double time) {
 
+		// Return if the passed parameters are incorrect
+		if (data == null || time < 0) {
+			return;
+		}
+
+		ArrayList<Double> position = data.getPosition();
+		addData(data.getFeature(), data.getValue(), data.getUncertainty(),
+				position.get(0), position.get(1), position.get(2),
+				data.getUnits(), time);
+
+	}
+
+	/**
+	 * <p>
+	 * Adds a piece of data, keyed on the feature and timeStep, to the
+	 * dataTree. This is the same as adding an LWRData with the same values,
+	 * but it does not create one. Readers should use it when they add many
+	 * pieces of data.
+	 * </p>
+	 * 
+	 * @param feature
+	 *            <p>
+	 *            The feature. It is "Feature 1" if it is null or empty.
+	 *            </p>
+	 * @param value
+	 *            <p>
+	 *            The value.
+	 *            </p>
+	 * @param uncertainty
+	 *            <p>
+	 *            The uncertainty.
+	 *            </p>
+	 * @param x
+	 *            <p>
+	 *            The first coordinate of the position.
+	 *            </p>
+	 * @param y
+	 *            <p>
+	 *            The second coordinate of the position.
+	 *            </p>
+	 * @param z
+	 *            <p>
+	 *            The third coordinate of the position.
+	 *            </p>
+	 * @param units
+	 *            <p>
+	 *            The units. They are "seconds" if they are null or empty.
+	 *            </p>
+	 * @param time
+	 *            <p>
+	 *            The time. It can not be less than 0.
+	 *            </p>
+	 */
+	public void addData(String feature, double value, double uncertainty,
+			double x, double y, double z, String units, double time) {
+
 		// Local Declarations
-		ArrayList<FeatureSet> featureSetList;
-		FeatureSet set;
-		boolean featureExistsFlag = false;
+		ArrayList<FeatureColumns> featureColumnsList;
+		FeatureColumns columns = null;
 
 		// Return if the passed parameters are incorrect
-		if (data == null || time < 0) {
+		if (time < 0) {
 			return;
 		}
 
-		featureSetList = this.dataTree.get(time);
+		// The data will no longer be the same as in the file
+		detach();
 
-		// If the timestep does not exist in the list, add it to the list
-		if (featureSetList == null) {
-			featureSetList = new ArrayList<FeatureSet>();
-			set = new FeatureSet(data.getFeature());
-			set.addIData(data);
-			featureSetList.add(set);
-			this.dataTree.put(time, featureSetList);
+		// Use the same defaults as LWRData
+		feature = getName(feature, "Feature 1");
+		units = getName(units, "seconds");
 
+		// The columns of the last time are usually complete when data is
+		// added at another time, so compact them
+		if (time != lastAddedTime) {
+			compact();
+			lastAddedTime = time;
 		}
 
-		// Otherwise, the timestep exists and needs to append to the current
-		// running list
-		else {
+		featureColumnsList = this.dataTree.get(time);
 
-			// Append to the current FeatureSet if it exists
-			for (int i = 0; i < featureSetList.size(); i++) {
-				// IF the featureset is the same name as the data, add it
-				if (featureSetList.get(i).getName().equals(data.getFeature())) {
-					featureSetList.get(i).addIData(data);
-					featureExistsFlag = true;
+		// If the timestep does not exist in the list, add it to the list
+		if (featureColumnsList == null) {
+			featureColumnsList = new ArrayList<FeatureColumns>();
+			this.dataTree.put(time, featureColumnsList);
+			this.times = null;
+			this.timeArray = null;
+		} else {
+			// Otherwise, append to the current columns if they exist
+			for (int i = 0; i < featureColumnsList.size(); i++) {
+				if (featureColumnsList.get(i).feature == feature) {
+					columns = featureColumnsList.get(i);
 					break;
 				}
 			}
+		}
 
-			// If the featureSet does not exist, then add it
-			if (!featureExistsFlag) {
-				// If it does not, add it
-				set = new FeatureSet(data.getFeature());
-				set.addIData(data);
-
-				// Add it to the list of sets
-				featureSetList.add(set);
-			}
+		// If the columns do not exist, then add them
+		if (columns == null) {
+			columns = new FeatureColumns(feature, 8);
+			featureColumnsList.add(columns);
+			this.featureList = null;
+		}
 
+		// Add the data
+		if (!columns.pending) {
+			columns.pending = true;
+			pendingColumns.add(columns);
 		}
+		columns.add(value, uncertainty, x, y, z, units);
+		views.remove(columns);
 
 	}
 
@@ -181,23 +341,31 @@ public class LWRDataProvider implements IDataProvider {
 		if (feature == null) {
 			return;
 		}
-		// Get the iterator
-		Iterator<Double> iter;
-		iter = this.dataTree.keySet().iterator();
+		detach();
 
 		// Iterate over the list of all timesteps and remove all the features
-		while (iter.hasNext()) {
-			ArrayList<FeatureSet> list = this.dataTree.get(iter.next());
+		for (ArrayList<FeatureColumns> list : this.dataTree.values()) {
 
-			// If the FeatureSet with the feature name exists, remove it
+			// If the columns with the feature name exist, remove them
 			for (int i = 0; i < list.size(); i++) {
-				if (list.get(i).getName().equals(feature)) {
-					list.remove(i);
-					break; // Break from for loop, otherwise really bad things
-							// will happen
+				if (list.get(i).feature.equals(feature)) {
+					FeatureColumns columns = list.remove(i);
+					if (columns.pending) {
+						columns.pending = false;
+						for (int j = 0; j < pendingColumns.size(); j++) {
+							if (pendingColumns.get(j) == columns) {
+								pendingColumns.remove(j);
+								break;
+							}
+						}
+					}
+					views.remove(columns);
+					break;
 				}
 			}
 		}
+		lastCompactedColumns.remove(feature);
+		this.featureList = null;
 
 	}
 
@@ -213,26 +381,43 @@ public class LWRDataProvider implements IDataProvider {
 	 */
 	public void copy(LWRDataProvider otherObject) {
 
-		// Local Declarations
-		Iterator<Double> iter;
-
 		// If null, return
 		if (otherObject == null) {
 			return;
 		}
-		// Copy dataTree
-		this.dataTree.clear();
 
-		// Setup the iterator
-		iter = otherObject.dataTree.keySet().iterator();
-
-		// Currently, this will only shallow copy the ArrayList on value. IData
-		// will have to implement copy and clone routines for it to be a deep
-		// copy
-		while (iter.hasNext()) {
-			Double key = iter.next();
-			this.dataTree.put(key, otherObject.dataTree.get(key));
+		// Copy dataTree. The columns are compacted first so that the copies
+		// share the columns that the originals share. This data replaces the
+		// data in the file, if any.
+		TreeMap<Double, ArrayList<FeatureColumns>> otherTree = otherObject
+				.load();
+		if (this.lazyFile != null) {
+			this.lazyFile.release(this.lazyData);
+			this.lazyFile = null;
+			this.lazyData = null;
+		}
+		otherObject.compact();
+		this.dataTree.clear();
+		this.names.clear();
+		this.pendingColumns.clear();
+		this.lastCompactedColumns.clear();
+		this.views.clear();
+		IdentityHashMap<Object, Object> copies = new IdentityHashMap<Object, Object>();
+		for (Map.Entry<Double, ArrayList<FeatureColumns>> entry : otherTree
+				.entrySet()) {
+			ArrayList<FeatureColumns> list = new ArrayList<FeatureColumns>();
+			for (FeatureColumns columns : entry.getValue()) {
+				FeatureColumns copy = columns.copy(copies);
+				list.add(copy);
+				this.lastCompactedColumns.put(copy.feature, copy);
+			}
+			this.dataTree.put(entry.getKey(), list);
 		}
+		this.names.putAll(otherObject.names);
+		this.lastAddedTime = -1.0;
+		this.times = null;
+		this.timeArray = null;
+		this.featureList = null;
 
 		// Copy Time info
 		this.time = otherObject.time;
@@ -311,8 +496,14 @@ public class LWRDataProvider implements IDataProvider {
 		if (otherObject != null && otherObject instanceof LWRDataProvider) {
 			component = (LWRDataProvider) otherObject;
 
+			// Read the data of both, keeping this data if reading the other
+			// data drops it from the cache
+			TreeMap<Double, ArrayList<FeatureColumns>> tree = load();
+			TreeMap<Double, ArrayList<FeatureColumns>> otherTree = component
+					.load();
+
 			// Check values
-			retVal = (this.dataTree.equals(component.dataTree)
+			retVal = (tree.equals(otherTree)
 					&& this.time == component.time
 					&& this.sourceInfo.equals(component.sourceInfo) && this.timeUnit
 					.equals(component.timeUnit));
@@ -338,7 +529,7 @@ public class LWRDataProvider implements IDataProvider {
 		int hash = 31;
 
 		// Calculate IDataProvider info
-		hash += 31 * this.dataTree.hashCode();
+		hash += 31 * load().hashCode();
 		hash += 31 * this.time;
 		hash += 31 * this.sourceInfo.hashCode();
 		hash += 31 * this.timeUnit.hashCode();
@@ -354,33 +545,21 @@ public class LWRDataProvider implements IDataProvider {
 	@Override
 	public ArrayList<String> getFeatureList() {
 
-		// Local Declarations
-		ArrayList<String> featureList = new ArrayList<String>();
-		HashMap<String, Integer> map = new HashMap<String, Integer>();
-
-		// Get the iterator
-		Iterator<Double> iter;
-		iter = this.dataTree.keySet().iterator();
-
-		// Iterate over the list of all timesteps get one unique feature
-		while (iter.hasNext()) {
-			ArrayList<FeatureSet> list = this.dataTree.get(iter.next());
-
-			// If the map does not have the feature name, add it
-			for (int i = 0; i < list.size(); i++) {
-				if (map.get(list.get(i).getName()) == null) {
-					map.put(list.get(i).getName(), 1);
+		// Find the features at all times in the order they were added if they
+		// changed
+		TreeMap<Double, ArrayList<FeatureColumns>> tree = load();
+		if (this.featureList == null) {
+			LinkedHashSet<String> features = new LinkedHashSet<String>();
+			for (ArrayList<FeatureColumns> list : tree.values()) {
+				for (int i = 0; i < list.size(); i++) {
+					features.add(list.get(i).feature);
 				}
 			}
+			this.featureList = new ArrayList<String>(features);
 		}
 
-		// Append to featureList
-		for (String name : map.keySet()) {
-			featureList.add(name);
-		}
-
-		// Return the featureList
-		return featureList;
+		// Return a copy of the featureList
+		return new ArrayList<String>(this.featureList);
 
 	}
 
@@ -390,7 +569,7 @@ public class LWRDataProvider implements IDataProvider {
 	@Override
 	public int getNumberOfTimeSteps() {
 
-		return this.dataTree.size();
+		return load().size();
 	}
 
 	/*
@@ -399,6 +578,10 @@ public class LWRDataProvider implements IDataProvider {
 	@Override
 	public void setTime(double step) {
 		if (step >= 0.0) {
+			// Drop the IData of the previous time
+			if (step != this.time) {
+				this.views.clear();
+			}
 			this.time = step;
 		}
 
@@ -415,15 +598,26 @@ public class LWRDataProvider implements IDataProvider {
 			return new ArrayList<IData>();
 		}
 		// Locate the list
-		ArrayList<FeatureSet> list = this.dataTree.get(this.time);
+		ArrayList<FeatureColumns> list = load().get(this.time);
 
 		if (list != null) {
 			// If the list exists, return the iData
 			for (int i = 0; i < list.size(); i++) {
-				if (list.get(i).getName().equals(feature)) {
-
-					// Return the reference to the list of iData
-					return list.get(i).getIData();
+				FeatureColumns columns = list.get(i);
+				if (columns.feature.equals(feature)) {
+
+					// Create the iData if it was not requested since the
+					// time or the feature changed
+					ArrayList<IData> iData = views.get(columns);
+					if (iData == null) {
+						iData = new ArrayList<IData>(columns.size);
+						for (int j = 0; j < columns.size; j++) {
+							iData.add(columns.get(j));
+						}
+						views.put(columns, iData);
+					}
+
+					return iData;
 				}
 			}
 		}
@@ -450,10 +644,10 @@ public class LWRDataProvider implements IDataProvider {
 
 		// Local Declarations
 		ArrayList<String> features = new ArrayList<String>();
-		ArrayList<FeatureSet> list = null;
+		ArrayList<FeatureColumns> list = null;
 
 		// Get the list at the time
-		list = this.dataTree.get(this.time);
+		list = load().get(this.time);
 
 		// If the time does not exist, return empty
 		if (list == null) {
@@ -461,7 +655,7 @@ public class LWRDataProvider implements IDataProvider {
 		}
 		// Get the features
 		for (int i = 0; i < list.size(); i++) {
-			features.add(list.get(i).getName());
+			features.add(list.get(i).feature);
 		}
 
 		return features;
@@ -474,19 +668,14 @@ public class LWRDataProvider implements IDataProvider {
 	@Override
 	public ArrayList<Double> getTimes() {
 
-		// Local Declarations
-		ArrayList<Double> times = new ArrayList<Double>();
-
-		// Get the iterator
-		Iterator<Double> iter = this.dataTree.keySet().iterator();
-
-		// Add the times to the arraylist
-		while (iter.hasNext()) {
-			times.add(iter.next());
+		// Get the times if they changed
+		TreeMap<Double, ArrayList<FeatureColumns>> tree = load();
+		if (this.times == null) {
+			this.times = new ArrayList<Double>(tree.keySet());
 		}
 
-		// Return the list of times
-		return times;
+		// Return a copy of the list of times
+		return new ArrayList<Double>(this.times);
 
 	}
 
@@ -496,23 +685,19 @@ public class LWRDataProvider implements IDataProvider {
 	@Override
 	public int getTimeStep(double time) {
 
-		// Get the iterator
-		Iterator<Double> iter = this.dataTree.keySet().iterator();
-		int counter = 0;
-
-		// Iterate the list
-		while (iter.hasNext()) {
-
-			// If the time is there, return the index
-			if (iter.next().equals(time)) {
-				return counter;
+		// Get the sorted times if they changed
+		TreeMap<Double, ArrayList<FeatureColumns>> tree = load();
+		if (this.timeArray == null) {
+			this.timeArray = new double[tree.size()];
+			int counter = 0;
+			for (Double key : tree.keySet()) {
+				this.timeArray[counter++] = key;
 			}
-			counter++;
-
 		}
 
-		// Time not found!
-		return -1;
+		// Search for the time. Return -1 if it is not found.
+		int index = Arrays.binarySearch(this.timeArray, time);
+		return (index >= 0) ? index : -1;
 
 	}
 
@@ -539,4 +724,599 @@ public class LWRDataProvider implements IDataProvider {
 
 		return this.time;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * <p>
+	 * Returns the number of pieces of data of a feature at a time. This is
+	 * used by the bulk HDF5 layout of LWRGridManager.
+	 * </p>
+	 * 
+	 * @param feature
+	 *            <p>
+	 *            The feature.
+	 *            </p>
+	 * @param time
+	 *            <p>
+	 *            The time.
+	 *            </p>
+	 * @return <p>
+	 *         The number of pieces of data, or 0 if there are none.
+	 *         </p>
+	 */
+	int getNumberOfData(String feature, double time) {
+		FeatureColumns columns = getColumns(feature, time);
+		return (columns != null) ? columns.size : 0;
+	}
+
+	/**
+	 * <p>
+	 * Copies the data of a feature at a time into rows of a table with the
+	 * value, uncertainty, the three coordinates of the position and the index
+	 * of the units in a list of units. This is used by the bulk HDF5 layout of
+	 * LWRGridManager.
+	 * </p>
+	 * 
+	 * @param feature
+	 *            <p>
+	 *            The feature.
+	 *            </p>
+	 * @param time
+	 *            <p>
+	 *            The time.
+	 *            </p>
+	 * @param table
+	 *            <p>
+	 *            The table, with six values per row.
+	 *            </p>
+	 * @param row
+	 *            <p>
+	 *            The first row to copy the data into.
+	 *            </p>
+	 * @param unitIds
+	 *            <p>
+	 *            The indices of the units. Units that are not in it are
+	 *            added to it and to the list of units.
+	 *            </p>
+	 * @param units
+	 *            <p>
+	 *            The list of units.
+	 *            </p>
+	 * @return <p>
+	 *         The number of rows that were copied.
+	 *         </p>
+	 */
+	int getData(String feature, double time, double[] table, int row,
+			Map<String, Integer> unitIds, List<String> units) {
+
+		FeatureColumns columns = getColumns(feature, time);
+		if (columns == null) {
+			return 0;
+		}
+
+		// The units of the data are usually the same, so only look them up
+		// when they change
+		String lastUnits = null;
+		int unitId = 0;
+		for (int i = 0, j = 6 * row; i < columns.size; i++, j += 6) {
+			if (columns.units[i] != lastUnits) {
+				lastUnits = columns.units[i];
+				Integer id = unitIds.get(lastUnits);
+				if (id == null) {
+					id = units.size();
+					units.add(lastUnits);
+					unitIds.put(lastUnits, id);
+				}
+				unitId = id;
+			}
+			table[j] = columns.values[i];
+			table[j + 1] = columns.uncertainties[i];
+			table[j + 2] = columns.x[i];
+			table[j + 3] = columns.y[i];
+			table[j + 4] = columns.z[i];
+			table[j + 5] = unitId;
+		}
+
+		return columns.size;
+	}
+
+	/**
+	 * <p>
+	 * Returns the columns of a feature at a time.
+	 * </p>
+	 * 
+	 * @param feature
+	 *            <p>
+	 *            The feature.
+	 *            </p>
+	 * @param time
+	 *            <p>
+	 *            The time.
+	 *            </p>
+	 * @return <p>
+	 *         The columns, or null if there are none.
+	 *         </p>
+	 */
+	private FeatureColumns getColumns(String feature, double time) {
+		ArrayList<FeatureColumns> list = load().get(time);
+		if (list != null && feature != null) {
+			for (int i = 0; i < list.size(); i++) {
+				if (list.get(i).feature.equals(feature)) {
+					return list.get(i);
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * <p>
+	 * Sets the file that the data is read from when it is first needed. The
+	 * data that the provider already has is dropped.
+	 * </p>
+	 * 
+	 * @param file
+	 *            <p>
+	 *            The open file.
+	 *            </p>
+	 * @param reader
+	 *            <p>
+	 *            The reader that adds the data from the file to the provider.
+	 *            </p>
+	 */
+	void setLazyReader(LazyHdfFile file, LazyReader reader) {
+		if (this.lazyFile != null) {
+			this.lazyFile.release(this.lazyData);
+		}
+		clear();
+		this.lazyFile = file;
+		this.lazyData = new LazyData(reader);
+	}
+
+	/**
+	 * <p>
+	 * Reads the data from the file if it is read lazily and it is not in
+	 * memory. The data is taken while the file is still locked, so other
+	 * parts of the file that are read meanwhile cannot unload it before the
+	 * caller has it. Unloading replaces the data instead of clearing it.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The data.
+	 *         </p>
+	 */
+	private TreeMap<Double, ArrayList<FeatureColumns>> load() {
+		LazyHdfFile file = this.lazyFile;
+		if (file == null) {
+			return this.dataTree;
+		}
+		synchronized (file) {
+			if (!this.loading) {
+				file.load(this.lazyData);
+			}
+			return this.dataTree;
+		}
+	}
+
+	/**
+	 * <p>
+	 * Reads the data from the file if it is read lazily and then keeps it in
+	 * memory, so that it can be changed.
+	 * </p>
+	 * 
+	 */
+	private void detach() {
+		LazyHdfFile file = this.lazyFile;
+		if (file != null) {
+			synchronized (file) {
+				if (!this.loading) {
+					file.detach(this.lazyData);
+					this.lazyFile = null;
+					this.lazyData = null;
+				}
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * Removes all of the data. The collections are replaced instead of
+	 * cleared, so code that still holds them can finish with the old data.
+	 * </p>
+	 * 
+	 */
+	private void clear() {
+		this.dataTree = new TreeMap<Double, ArrayList<FeatureColumns>>();
+		this.names = new HashMap<String, String>();
+		this.pendingColumns = new ArrayList<FeatureColumns>();
+		this.lastAddedTime = -1.0;
+		this.lastCompactedColumns = new HashMap<String, FeatureColumns>();
+		this.views = new IdentityHashMap<FeatureColumns, ArrayList<IData>>();
+		this.times = null;
+		this.timeArray = null;
+		this.featureList = null;
+	}
+
+	/**
+	 * <p>
+	 * Returns the single instance of a feature or unit name after trimming
+	 * it, or the default if it is null or empty.
+	 * </p>
+	 * 
+	 * @param name
+	 *            <p>
+	 *            The name.
+	 *            </p>
+	 * @param defaultName
+	 *            <p>
+	 *            The default name.
+	 *            </p>
+	 * @return <p>
+	 *         The single instance of the name.
+	 *         </p>
+	 */
+	private String getName(String name, String defaultName) {
+
+		// Trim it like LWRData does
+		name = (name != null && !name.trim().isEmpty()) ? name.trim()
+				: defaultName;
+
+		String instance = this.names.get(name);
+		if (instance == null) {
+			instance = name;
+			this.names.put(name, name);
+		}
+
+		return instance;
+	}
+
+	/**
+	 * <p>
+	 * Trims the columns added to since they were last compacted and shares
+	 * their position, uncertainty and unit columns with the last compacted
+	 * columns of the same feature if they are equal.
+	 * </p>
+	 * 
+	 */
+	private void compact() {
+
+		for (FeatureColumns columns : this.pendingColumns) {
+			columns.pending = false;
+			columns.trim();
+			FeatureColumns previous = this.lastCompactedColumns
+					.get(columns.feature);
+			if (previous != null && previous != columns) {
+				columns.share(previous);
+			}
+			this.lastCompactedColumns.put(columns.feature, columns);
+		}
+		this.pendingColumns.clear();
+
+	}
+
+	/**
+	 * <p>
+	 * A reader of the data of providers from a LazyHdfFile.
+	 * </p>
+	 * 
+	 */
+	interface LazyReader {
+
+		/**
+		 * <p>
+		 * Adds the data in the file to the provider. It is called while the
+		 * file is locked.
+		 * </p>
+		 * 
+		 * @param file
+		 *            <p>
+		 *            The open file.
+		 *            </p>
+		 * @param provider
+		 *            <p>
+		 *            The provider, which has no data.
+		 *            </p>
+		 * @return <p>
+		 *         True if the data was read, false otherwise.
+		 *         </p>
+		 */
+		public boolean read(LazyHdfFile file, LWRDataProvider provider);
+	}
+
+	/**
+	 * <p>
+	 * The part of a LazyHdfFile with the data of the provider. Its size is
+	 * the number of pieces of data.
+	 * </p>
+	 * 
+	 */
+	private final class LazyData implements ILazyHdfReadable {
+
+		/**
+		 * <p>
+		 * The reader of the data.
+		 * </p>
+		 * 
+		 */
+		private final LazyReader reader;
+
+		/**
+		 * <p>
+		 * The constructor.
+		 * </p>
+		 * 
+		 * @param reader
+		 *            <p>
+		 *            The reader of the data.
+		 *            </p>
+		 */
+		private LazyData(LazyReader reader) {
+			this.reader = reader;
+		}
+
+		@Override
+		public long load(LazyHdfFile file) {
+			loading = true;
+			try {
+				if (!reader.read(file, LWRDataProvider.this)) {
+					clear();
+					return -1;
+				}
+				compact();
+				long size = 0;
+				for (ArrayList<FeatureColumns> list : dataTree.values()) {
+					for (int i = 0; i < list.size(); i++) {
+						size += list.get(i).size;
+					}
+				}
+				return size;
+			} finally {
+				loading = false;
+			}
+		}
+
+		@Override
+		public void unload() {
+			clear();
+		}
+	}
+
+	/**
+	 * <p>
+	 * The columns of a feature at one time.
+	 * </p>
+	 * <p>
+	 * The arrays may be shared with other columns after they are trimmed, in
+	 * which case their length is the size. They are copied before data is
+	 * added, so shared arrays are never changed.
+	 * </p>
+	 * 
+	 */
+	private static final class FeatureColumns {
+
+		/**
+		 * <p>
+		 * The feature.
+		 * </p>
+		 * 
+		 */
+		private final String feature;
+
+		/**
+		 * <p>
+		 * The number of pieces of data.
+		 * </p>
+		 * 
+		 */
+		private int size;
+
+		/**
+		 * <p>
+		 * The values, uncertainties and coordinates of the positions.
+		 * </p>
+		 * 
+		 */
+		private double[] values, uncertainties, x, y, z;
+
+		/**
+		 * <p>
+		 * The units.
+		 * </p>
+		 * 
+		 */
+		private String[] units;
+
+		/**
+		 * <p>
+		 * True if data was added since the columns were last compacted.
+		 * </p>
+		 * 
+		 */
+		private boolean pending;
+
+		/**
+		 * <p>
+		 * The constructor.
+		 * </p>
+		 * 
+		 * @param feature
+		 *            <p>
+		 *            The feature.
+		 *            </p>
+		 * @param capacity
+		 *            <p>
+		 *            The initial length of the arrays.
+		 *            </p>
+		 */
+		private FeatureColumns(String feature, int capacity) {
+			this.feature = feature;
+			resize(capacity);
+		}
+
+		/**
+		 * <p>
+		 * Adds a piece of data.
+		 * </p>
+		 * 
+		 */
+		private void add(double value, double uncertainty, double px,
+				double py, double pz, String unit) {
+			if (size == values.length) {
+				resize(2 * size + 8);
+			}
+			values[size] = value;
+			uncertainties[size] = uncertainty;
+			x[size] = px;
+			y[size] = py;
+			z[size] = pz;
+			units[size] = unit;
+			size++;
+		}
+
+		/**
+		 * <p>
+		 * Returns a piece of data as an LWRData.
+		 * </p>
+		 * 
+		 */
+		private LWRData get(int i) {
+			LWRData data = new LWRData(feature);
+			data.setValue(values[i]);
+			data.setUncertainty(uncertainties[i]);
+			data.setUnits(units[i]);
+			ArrayList<Double> position = new ArrayList<Double>(3);
+			position.add(x[i]);
+			position.add(y[i]);
+			position.add(z[i]);
+			data.setPosition(position);
+			return data;
+		}
+
+		/**
+		 * <p>
+		 * Copies the arrays into new arrays of the given length.
+		 * </p>
+		 * 
+		 */
+		private void resize(int length) {
+			if (values == null) {
+				values = new double[length];
+				uncertainties = new double[length];
+				x = new double[length];
+				y = new double[length];
+				z = new double[length];
+				units = new String[length];
+			} else {
+				values = Arrays.copyOf(values, length);
+				uncertainties = Arrays.copyOf(uncertainties, length);
+				x = Arrays.copyOf(x, length);
+				y = Arrays.copyOf(y, length);
+				z = Arrays.copyOf(z, length);
+				units = Arrays.copyOf(units, length);
+			}
+		}
+
+		/**
+		 * <p>
+		 * Makes the length of the arrays equal to the size.
+		 * </p>
+		 * 
+		 */
+		private void trim() {
+			if (values.length != size) {
+				resize(size);
+			}
+		}
+
+		/**
+		 * <p>
+		 * Uses the arrays of other trimmed columns instead of equal arrays of
+		 * these trimmed columns.
+		 * </p>
+		 * 
+		 */
+		private void share(FeatureColumns other) {
+			if (other.size == size) {
+				uncertainties = Arrays.equals(uncertainties,
+						other.uncertainties) ? other.uncertainties
+						: uncertainties;
+				x = Arrays.equals(x, other.x) ? other.x : x;
+				y = Arrays.equals(y, other.y) ? other.y : y;
+				z = Arrays.equals(z, other.z) ? other.z : z;
+				units = Arrays.equals(units, other.units) ? other.units
+						: units;
+			}
+		}
+
+		/**
+		 * <p>
+		 * Returns a copy of these trimmed columns. Arrays that were already
+		 * copied for other columns are shared like the originals are.
+		 * </p>
+		 * 
+		 */
+		private FeatureColumns copy(IdentityHashMap<Object, Object> copies) {
+			FeatureColumns copy = new FeatureColumns(feature, 0);
+			copy.size = size;
+			copy.values = values.clone();
+			copy.uncertainties = (double[]) copyOf(uncertainties, copies);
+			copy.x = (double[]) copyOf(x, copies);
+			copy.y = (double[]) copyOf(y, copies);
+			copy.z = (double[]) copyOf(z, copies);
+			copy.units = (String[]) copyOf(units, copies);
+			return copy;
+		}
+
+		/**
+		 * <p>
+		 * Returns the copy of an array, making it if it was not made yet.
+		 * </p>
+		 * 
+		 */
+		private static Object copyOf(Object array,
+				IdentityHashMap<Object, Object> copies) {
+			Object copy = copies.get(array);
+			if (copy == null) {
+				copy = (array instanceof double[]) ? ((double[]) array)
+						.clone() : ((String[]) array).clone();
+				copies.put(array, copy);
+			}
+			return copy;
+		}
+
+		@Override
+		public boolean equals(Object otherObject) {
+			if (this == otherObject) {
+				return true;
+			}
+			if (!(otherObject instanceof FeatureColumns)) {
+				return false;
+			}
+			FeatureColumns other = (FeatureColumns) otherObject;
+			if (!feature.equals(other.feature) || size != other.size) {
+				return false;
+			}
+			for (int i = 0; i < size; i++) {
+				if (values[i] != other.values[i]
+						|| uncertainties[i] != other.uncertainties[i]
+						|| Double.compare(x[i], other.x[i]) != 0
+						|| Double.compare(y[i], other.y[i]) != 0
+						|| Double.compare(z[i], other.z[i]) != 0
+						|| !units[i].equals(other.units[i])) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public int hashCode() {
+			int hash = 31 + feature.hashCode();
+			for (int i = 0; i < size; i++) {
+				long bits = Double.doubleToLongBits(values[i]);
+				hash = 31 * hash + (int) (bits ^ (bits >>> 32));
+				hash = 31 * hash + units[i].hashCode();
+			}
+			return hash;
+		}
+	}
+}
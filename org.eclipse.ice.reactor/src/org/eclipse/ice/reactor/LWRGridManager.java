@@ -13,9 +13,13 @@
 package org.eclipse.ice.reactor;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.TreeSet;
 
 import ncsa.hdf.object.Dataset;
 import ncsa.hdf.object.Datatype;
@@ -24,10 +28,10 @@ import ncsa.hdf.object.h5.H5Datatype;
 import ncsa.hdf.object.h5.H5File;
 import ncsa.hdf.object.h5.H5Group;
 
-import org.eclipse.ice.analysistool.IData;
 import org.eclipse.ice.datastructures.ICEObject.Component;
 import org.eclipse.ice.io.hdf.HdfReaderFactory;
 import org.eclipse.ice.io.hdf.HdfWriterFactory;
+import org.eclipse.ice.io.hdf.LazyHdfFile;
 
 /**
  * <p>
@@ -41,6 +45,17 @@ import org.eclipse.ice.io.hdf.HdfWriterFactory;
  * time instead of using LWRComponent's IDataProvider directly. Please see
  * GridLocation for more details on the usage of this delegation class.
  * </p>
+ * <p>
+ * The data of the LWRDataProviders can be written in two layouts. By default,
+ * each time step of each location has its own group with two small datasets
+ * per feature. In the bulk layout, which is enabled with
+ * {@link LWRComponentWriter#setBulkDataLayout(boolean)}, each feature has one chunked and
+ * compressed table with the data at all times and locations, one time step
+ * after the other, and an index of where the data of each time step and
+ * location starts. The units, features, times and locations are stored once.
+ * Both layouts can be read, and the bulk layout can be read for a range of
+ * times without reading the other times.
+ * </p>
  *
  * @author Scott Forest Hull II
  */
@@ -72,6 +87,23 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 	private String headTableString = " headTable";
 	private String dataTableString = " dataTable";
 
+	// Names for the groups and datasets of the bulk layout
+	private String bulkDataH5GroupName = "Bulk Positions";
+	private String bulkLocationsTableName = "Locations Table";
+	private String bulkTimesTableName = "Times Table";
+	private String bulkFeaturesTableName = "Features Table";
+	private String bulkDataTablePrefix = "Data Table ";
+	private String bulkIndexTablePrefix = "Index Table ";
+
+	/**
+	 * <p>
+	 * The number of rows in each chunk of the bulk data tables, and the gzip
+	 * compression level of the tables.
+	 * </p>
+	 *
+	 */
+	private static final int bulkChunkRows = 4096, bulkCompressionLevel = 1;
+
 	/**
 	 * <p>
 	 * The Constructor.
@@ -376,6 +408,36 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 	 */
 	@Override
 	public boolean writeDatasets(H5File h5File, H5Group h5Group) {
+		return writeDatasets(h5File, h5Group, false);
+	}
+
+	/**
+	 * <p>
+	 * Writes the datasets of this LWRGridManager with the data of its
+	 * LWRDataProviders in the bulk layout, with one table per feature, or with
+	 * a group per time step for each location. Both layouts can always be
+	 * read.
+	 * </p>
+	 *
+	 * @param h5File
+	 *            <p>
+	 *            The H5File to write to.
+	 *            </p>
+	 * @param h5Group
+	 *            <p>
+	 *            The H5Group of this LWRGridManager.
+	 *            </p>
+	 * @param bulkDataLayout
+	 *            <p>
+	 *            True to write the bulk layout, false to write the layout
+	 *            with a group per time step.
+	 *            </p>
+	 * @return <p>
+	 *         True if successful, false otherwise.
+	 *         </p>
+	 */
+	public boolean writeDatasets(H5File h5File, H5Group h5Group,
+			boolean bulkDataLayout) {
 
 		// Return if the file or group is null
 		if (h5File == null || h5Group == null) {
@@ -388,7 +450,8 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 		if (this.lWRComponents.isEmpty()) {
 			return true;
 		}
-		return this.writeFeatureSets(h5File, h5Group);
+		return bulkDataLayout ? this.writeBulkFeatureSets(h5File, h5Group)
+				: this.writeFeatureSets(h5File, h5Group);
 	}
 
 	/**
@@ -409,6 +472,7 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 		}
 		// Gather all units and put into a table later.
 		ArrayList<String> unitsList = new ArrayList<String>();
+		HashMap<String, Integer> unitIds = new HashMap<String, Integer>();
 		ArrayList<String> positionNames = new ArrayList<String>();
 		H5Group mainH5Group = null;
 
@@ -481,7 +545,7 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 
 			// Write the data at the individual time steps. If false, return
 			if (!this.writeTimeAtFeatureSet(dataH5Group, h5File, provider,
-					unitsList)) {
+					unitsList, unitIds)) {
 
 				// Reset time
 				location.getLWRDataProvider().setTime(previousTime);
@@ -570,14 +634,18 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 	 * @return True if successful, false otherwise.
 	 */
 	private boolean writeTimeAtFeatureSet(H5Group dataH5Group, H5File h5File,
-			LWRDataProvider provider, ArrayList<String> unitsList) {
+			LWRDataProvider provider, ArrayList<String> unitsList,
+			HashMap<String, Integer> unitIds) {
+
+		// Get the times once, since setting the time does not change them
+		ArrayList<Double> times = provider.getTimes();
 
 		// Iterate over the dataTree and create timesteps for each key in
 		// the tree
-		for (int w = 0; w < provider.getTimes().size(); w++) {
+		for (int w = 0; w < times.size(); w++) {
 
 			// Get the time
-			double time = provider.getTimes().get(w);
+			double time = times.get(w);
 
 			// Set the time in order to get the FeatureSet
 			provider.setTime(time);
@@ -596,49 +664,31 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 			// Create a Compound Dataset for each timeStep to represent the
 			// collection of FeatureSets. This contains the list of Feature
 			// Sets
-			for (int i = 0; i < provider.getFeaturesAtCurrentTime().size(); i++) {
-
-				// Get the FeatureSet
-				ArrayList<IData> set = provider.getDataAtCurrentTime(provider
-						.getFeatureList().get(i));
+			ArrayList<String> features = provider.getFeaturesAtCurrentTime();
+			for (int i = 0; i < features.size(); i++) {
 
-				// Get the number of IDatas stored on the FeatureSet
-				int iDataSize = set.size();
+				// Get the data of the feature without creating IData. The
+				// table has the value, uncertainty, position and units id.
+				String feature = features.get(i);
+				int iDataSize = provider.getNumberOfData(feature, time);
+				double[] table = new double[6 * iDataSize];
+				provider.getData(feature, time, table, 0, unitIds, unitsList);
 
 				// Create a 2D array n x 5
-				double[][] dataList = new double[iDataSize][5];
+				double[] dataList = new double[5 * iDataSize];
 
 				// Create a head data table
-				long[][] headData = new long[iDataSize][2];
+				long[] headData = new long[2 * iDataSize];
 
-				// Iterate over the IDatas to fill out the arrays listed
-				// above
-				for (int j = 0; j < set.size(); j++) {
-					// Get the iData at the location
-					IData iData = set.get(j);
+				// Iterate over the rows to fill out the arrays listed above
+				for (int j = 0; j < iDataSize; j++) {
 
-					// Set value and uncertainty
-					dataList[j][0] = iData.getValue();
-					dataList[j][1] = iData.getUncertainty();
+					// Set value, uncertainty and position
+					System.arraycopy(table, 6 * j, dataList, 5 * j, 5);
 
-					// Get the position
-					ArrayList<Double> pos = iData.getPosition();
-					dataList[j][2] = pos.get(0).doubleValue();
-					dataList[j][3] = pos.get(1);
-					dataList[j][4] = pos.get(2);
-
-					// If the unitsList does not contain the units, add them!
-					if (!unitsList.contains(iData.getUnits())) {
-						unitsList.add(iData.getUnits());
-
-					}
-
-					// Once this is done, append to the headList. Note that
-					// this is to be externalized out of this loop in the
-					// future
 					// Set the dataList id and the unitsList id
-					headData[j][0] = j;
-					headData[j][1] = unitsList.indexOf(iData.getUnits());
+					headData[2 * j] = j;
+					headData[2 * j + 1] = (long) table[6 * j + 5];
 
 				}
 
@@ -658,16 +708,14 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 							Datatype.NATIVE);
 
 					// Create the simple dataset - dataList
-					Dataset dataSet1 = h5File.createScalarDS(set.get(0)
-							.getFeature() + this.dataTableString,
-							timeStepH5Group, dataTypeDouble, dimsData, null,
-							null, 0, dataList);
+					Dataset dataSet1 = h5File.createScalarDS(feature
+							+ this.dataTableString, timeStepH5Group,
+							dataTypeDouble, dimsData, null, null, 0, dataList);
 
 					// Create the simple dataset - headData
-					Dataset dataSet2 = h5File.createScalarDS(set.get(0)
-							.getFeature() + this.headTableString,
-							timeStepH5Group, dataTypeLong, dimsHead, null,
-							null, 0, headData);
+					Dataset dataSet2 = h5File.createScalarDS(feature
+							+ this.headTableString, timeStepH5Group,
+							dataTypeLong, dimsHead, null, null, 0, headData);
 
 					dataSet1.init();
 					dataSet2.init();
@@ -691,6 +739,90 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 	 */
 	@Override
 	public boolean readDatasets(H5Group h5Group) {
+		return readDatasets(h5Group, 0.0, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * <p>
+	 * Reads the datasets like readDatasets(H5Group), but only reads the data
+	 * of the LWRDataProviders between two times. The bulk layout only reads
+	 * the rows of the tables at those times.
+	 * </p>
+	 *
+	 * @param h5Group
+	 *            <p>
+	 *            The group to read.
+	 *            </p>
+	 * @param startTime
+	 *            <p>
+	 *            The first time to read.
+	 *            </p>
+	 * @param endTime
+	 *            <p>
+	 *            The last time to read.
+	 *            </p>
+	 * @return <p>
+	 *         True if the operation was successful, false otherwise.
+	 *         </p>
+	 */
+	public boolean readDatasets(H5Group h5Group, double startTime,
+			double endTime) {
+		return readDatasets(h5Group, startTime, endTime, null);
+	}
+
+	/**
+	 * <p>
+	 * Reads the datasets like readDatasets(H5Group), but the data of each
+	 * LWRDataProvider is only read from the file when it is first needed. The
+	 * file must stay open until then, and it should be locked while the
+	 * datasets are read.
+	 * </p>
+	 *
+	 * @param h5Group
+	 *            <p>
+	 *            The group to read.
+	 *            </p>
+	 * @param file
+	 *            <p>
+	 *            The open file that has the group.
+	 *            </p>
+	 * @return <p>
+	 *         True if the operation was successful, false otherwise.
+	 *         </p>
+	 */
+	public boolean readDatasets(H5Group h5Group, LazyHdfFile file) {
+		return readDatasets(h5Group, 0.0, Double.POSITIVE_INFINITY, file);
+	}
+
+	/**
+	 * <p>
+	 * Reads the datasets between two times, and reads the data of the
+	 * LWRDataProviders lazily if there is a file.
+	 * </p>
+	 *
+	 * @param h5Group
+	 *            <p>
+	 *            The group to read.
+	 *            </p>
+	 * @param startTime
+	 *            <p>
+	 *            The first time to read.
+	 *            </p>
+	 * @param endTime
+	 *            <p>
+	 *            The last time to read.
+	 *            </p>
+	 * @param file
+	 *            <p>
+	 *            The file to read the data from when it is needed, or null to
+	 *            read it now.
+	 *            </p>
+	 * @return <p>
+	 *         True if the operation was successful, false otherwise.
+	 *         </p>
+	 */
+	private boolean readDatasets(H5Group h5Group, double startTime,
+			double endTime, LazyHdfFile file) {
 
 		// Call super
 		boolean flag = super.readDatasets(h5Group);
@@ -698,6 +830,16 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 		if (!flag) {
 			return false;
 		}
+
+		// Read the bulk layout if it was used
+		if (hasMember(h5Group, this.bulkDataH5GroupName)) {
+			H5Group bulkH5Group = HdfReaderFactory.getChildH5Group(h5Group,
+					this.bulkDataH5GroupName);
+			this.lWRComponents.clear();
+			return this.readBulkFeatureSets(bulkH5Group, startTime, endTime,
+					file);
+		}
+
 		// Open the Positions dataSet
 		H5Group dataH5Group = HdfReaderFactory.getChildH5Group(h5Group,
 				this.dataH5GroupName);
@@ -805,16 +947,23 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 			if (arrayStrings == null && position.getNumberOfMembersInFile() > 1) {
 				return false;
 			}
+			// Read the data when it is needed if there is a file
+			LWRDataProvider provider = location.getLWRDataProvider();
+			if (file != null) {
+				provider.setLazyReader(file, new GroupReader(position,
+						arrayStrings));
+				continue;
+			}
+
 			// Iterate over ONLY the groups
 			ArrayList<H5Group> timeStepsMemberList = HdfReaderFactory
 					.getChildH5Groups(position);
-			LWRDataProvider provider = location.getLWRDataProvider();
 
 			// Pass the LWRDataProvider, the groups, and the array of units to
 			// read the time steps at the feature.
 			// Return if the operation returns false
 			if (!this.readTimeStepsAtFeature(provider, timeStepsMemberList,
-					arrayStrings)) {
+					arrayStrings, startTime, endTime)) {
 				return false;
 			}
 
@@ -835,10 +984,15 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 	 *            The time steps on that group
 	 * @param arrayStrings
 	 *            An array of strings used to specify the unit list.
+	 * @param startTime
+	 *            The first time to read.
+	 * @param endTime
+	 *            The last time to read.
 	 * @return True if the operation was successful, false otherwise.
 	 */
 	private boolean readTimeStepsAtFeature(LWRDataProvider provider,
-			ArrayList<H5Group> timeStepsMemberList, String[] arrayStrings) {
+			ArrayList<H5Group> timeStepsMemberList, String[] arrayStrings,
+			double startTime, double endTime) {
 
 		// Iterate over the time groups
 		for (int j = 0; j < timeStepsMemberList.size(); j++) {
@@ -847,6 +1001,11 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 			double time = HdfReaderFactory.readDoubleAttribute(timeGroup,
 					"time");
 
+			// Skip the times that were not requested
+			if (time < startTime || time > endTime) {
+				continue;
+			}
+
 			ArrayList<HObject> memberList = HdfReaderFactory
 					.getChildH5Members(timeGroup);
 
@@ -884,42 +1043,33 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 				long dataColSize = featureGroupData.getDims()[1];
 				long headColSize = featureGroupHead.getDims()[1];
 
-				// Convert the data to a readable format
+				// Convert the data to a readable format. The datasets do not
+				// need to keep it.
 				double[] dataArray = (double[]) dataListData;
 				long[] headArray = (long[]) headListData;
+				featureGroupData.clearData();
+				featureGroupHead.clearData();
 
 				// Iterate over the list and grab values as necessary
 
 				// Counts the iterations in the following value grabber
 				int counter = 0;
 
-				// Iterate over the values and create the correct LWRData
-				// Iterate by columnsize
+				// Iterate over the values and add them to the provider
+				// without creating LWRData. Iterate by columnsize
 				for (int l = 0; l < dataArray.length; l += dataColSize) {
 
-					// Create the data and setup basic attributes
-					LWRData lwrdata = new LWRData(featureName);
-					lwrdata.setValue(dataArray[l]);
-					lwrdata.setUncertainty(dataArray[l + 1]);
-
 					// This states: At position X in the array of string
 					// units, give me the headArray's second (or last)
 					// column value for each row.
 					// The last column value should represent the unitsID,
 					// or the id to represent the units
-					lwrdata.setUnits(arrayStrings[(int) headArray[(int) ((counter) * headColSize) + 1]]);
-
-					// Setup position
-					ArrayList<Double> positionss = new ArrayList<Double>();
-					positionss.add(dataArray[l + 2]);
-					positionss.add(dataArray[l + 3]);
-					positionss.add(dataArray[l + 4]);
-
-					// Set position
-					lwrdata.setPosition(positionss);
+					String units = arrayStrings[(int) headArray[(int) ((counter) * headColSize) + 1]];
 
-					// Add the lwrdata to the location
-					provider.addData(lwrdata, time);
+					// Add the value, uncertainty and position to the location
+					provider.addData(featureName, dataArray[l],
+							dataArray[l + 1], dataArray[l + 2],
+							dataArray[l + 3], dataArray[l + 4], units, time);
 
 					counter++;
 				}
@@ -933,6 +1083,361 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 
 	}
 
+	/**
+	 * Writes the data of all locations in the bulk layout. Each feature has a
+	 * table with the value, uncertainty, position and units id of its data at
+	 * all times and locations, sorted by time and then by location, and an
+	 * index with the first row of each time and location. The tables are
+	 * written one time step at a time.
+	 *
+	 * @param h5File
+	 *            The h5file
+	 * @param h5Group
+	 *            The group of the manager
+	 * @return True if successful, false otherwise.
+	 */
+	private boolean writeBulkFeatureSets(H5File h5File, H5Group h5Group) {
+
+		// Local Declarations
+		int nLocations = this.lWRComponents.size();
+		LWRDataProvider[] providers = new LWRDataProvider[nLocations];
+		int[] locationData = new int[3 * nLocations];
+		ArrayList<String> positionNames = new ArrayList<String>();
+		HashMap<String, Integer> positionIds = new HashMap<String, Integer>();
+		TreeSet<Double> timeSet = new TreeSet<Double>();
+		LinkedHashSet<String> featureSet = new LinkedHashSet<String>();
+		ArrayList<String> unitsList = new ArrayList<String>();
+		HashMap<String, Integer> unitIds = new HashMap<String, Integer>();
+
+		// Store the row, column and name of each location and gather the
+		// times and features of the data
+		int l = 0;
+		for (Map.Entry<GridLocation, String> entry : this.lWRComponents
+				.entrySet()) {
+			Integer positionId = positionIds.get(entry.getValue());
+			if (positionId == null) {
+				positionId = positionNames.size();
+				positionNames.add(entry.getValue());
+				positionIds.put(entry.getValue(), positionId);
+			}
+			locationData[3 * l] = entry.getKey().getRow();
+			locationData[3 * l + 1] = entry.getKey().getColumn();
+			locationData[3 * l + 2] = positionId;
+			providers[l] = entry.getKey().getLWRDataProvider();
+			timeSet.addAll(providers[l].getTimes());
+			featureSet.addAll(providers[l].getFeatureList());
+			l++;
+		}
+		double[] times = new double[timeSet.size()];
+		int t = 0;
+		for (Double time : timeSet) {
+			times[t++] = time;
+		}
+		ArrayList<String> features = new ArrayList<String>(featureSet);
+
+		try {
+			// Create the group and the datatypes
+			H5Group bulkH5Group = HdfWriterFactory.createH5Group(h5File,
+					this.bulkDataH5GroupName, h5Group);
+			Datatype dataTypeDouble = HdfWriterFactory
+					.createFloatH5Datatype(h5File);
+			Datatype dataTypeInteger = HdfWriterFactory
+					.createIntegerH5Datatype(h5File);
+			Datatype dataTypeLong = h5File.createDatatype(
+					Datatype.CLASS_INTEGER, 8, Datatype.NATIVE,
+					Datatype.NATIVE);
+
+			// Write the locations and times
+			long[] dimsLocations = { nLocations, 3 };
+			h5File.createScalarDS(this.bulkLocationsTableName, bulkH5Group,
+					dataTypeInteger, dimsLocations, null, null, 0,
+					locationData).init();
+			if (times.length > 0) {
+				long[] dimsTimes = { times.length };
+				h5File.createScalarDS(this.bulkTimesTableName, bulkH5Group,
+						dataTypeDouble, dimsTimes, null, null, 0, times)
+						.init();
+			}
+
+			// Write the table and index of each feature
+			for (int f = 0; f < features.size(); f++) {
+				String feature = features.get(f);
+
+				// Find the first row of each time and location
+				long[] index = new long[times.length * nLocations + 1];
+				for (t = 0; t < times.length; t++) {
+					for (l = 0; l < nLocations; l++) {
+						int i = t * nLocations + l;
+						index[i + 1] = index[i]
+								+ providers[l].getNumberOfData(feature,
+										times[t]);
+					}
+				}
+				long nRows = index[index.length - 1];
+				long[] dimsIndex = { index.length };
+				h5File.createScalarDS(this.bulkIndexTablePrefix + f,
+						bulkH5Group, dataTypeLong, dimsIndex, null, null, 0,
+						index).init();
+				if (nRows == 0) {
+					continue;
+				}
+
+				// Create the chunked, compressed table
+				long[] dimsData = { nRows, 6 };
+				long[] chunks = { Math.min(nRows, bulkChunkRows), 6 };
+				Dataset dataSet = h5File.createScalarDS(
+						this.bulkDataTablePrefix + f, bulkH5Group,
+						dataTypeDouble, dimsData, null, chunks,
+						bulkCompressionLevel, null);
+				dataSet.init();
+				long[] start = dataSet.getStartDims();
+				long[] selected = dataSet.getSelectedDims();
+
+				// Write the rows of each time step into its hyperslab
+				for (t = 0; t < times.length; t++) {
+					long firstRow = index[t * nLocations];
+					int rows = (int) (index[(t + 1) * nLocations] - firstRow);
+					if (rows > 0) {
+						double[] block = new double[6 * rows];
+						int row = 0;
+						for (l = 0; l < nLocations; l++) {
+							row += providers[l].getData(feature, times[t],
+									block, row, unitIds, unitsList);
+						}
+						start[0] = firstRow;
+						start[1] = 0;
+						selected[0] = rows;
+						selected[1] = 6;
+						dataSet.write(block);
+					}
+				}
+			}
+
+			// Write the names
+			writeStringTable(h5File, bulkH5Group,
+					"Simple Position Names Table", positionNames);
+			writeStringTable(h5File, bulkH5Group, "Units Table", unitsList);
+			writeStringTable(h5File, bulkH5Group,
+					this.bulkFeaturesTableName, features);
+
+		} catch (Exception e) {
+			// Break and return
+			logger.error(getClass().getName() + " Exception!", e);
+			return false;
+		}
+
+		return true;
+
+	}
+
+	/**
+	 * Reads the data of all locations from the bulk layout. Only the rows of
+	 * the times between the start and end times are read, one time step at a
+	 * time.
+	 *
+	 * @param bulkH5Group
+	 *            The group of the bulk layout
+	 * @param startTime
+	 *            The first time to read.
+	 * @param endTime
+	 *            The last time to read.
+	 * @param file
+	 *            The file to read the data from when it is needed, or null
+	 *            to read it now.
+	 * @return True if successful, false otherwise.
+	 */
+	private boolean readBulkFeatureSets(H5Group bulkH5Group, double startTime,
+			double endTime, LazyHdfFile file) {
+
+		try {
+			// Read the names, times and locations
+			String[] positionNames = readStringTable(bulkH5Group,
+					"Simple Position Names Table");
+			String[] units = readStringTable(bulkH5Group, "Units Table");
+			String[] features = readStringTable(bulkH5Group,
+					this.bulkFeaturesTableName);
+			Dataset timesSet = HdfReaderFactory.getDataset(bulkH5Group,
+					this.bulkTimesTableName);
+			double[] times = (timesSet != null) ? (double[]) timesSet
+					.getData() : new double[0];
+			Dataset locationsSet = HdfReaderFactory.getDataset(bulkH5Group,
+					this.bulkLocationsTableName);
+			if (locationsSet == null) {
+				logger.error("LWRGridManager Message: "
+						+ "Can't find dataset for reading the locations.");
+				return false;
+			}
+			int[] locationData = (int[]) locationsSet.getData();
+
+			// Create the locations
+			int nLocations = locationData.length / 3;
+			LWRDataProvider[] providers = new LWRDataProvider[nLocations];
+			for (int l = 0; l < nLocations; l++) {
+				GridLocation location = new GridLocation(locationData[3 * l],
+						locationData[3 * l + 1]);
+				this.lWRComponents.put(location,
+						positionNames[locationData[3 * l + 2]]);
+				providers[l] = location.getLWRDataProvider();
+			}
+
+			// Read the data of each location when it is needed if there is a
+			// file. The indices are small, so they are read now.
+			if (file != null) {
+				Dataset[] dataSets = new Dataset[features.length];
+				long[][] indices = new long[features.length][];
+				for (int f = 0; f < features.length; f++) {
+					dataSets[f] = HdfReaderFactory.getDataset(bulkH5Group,
+							this.bulkDataTablePrefix + f);
+					if (dataSets[f] != null) {
+						dataSets[f].init();
+						indices[f] = (long[]) HdfReaderFactory.getDataset(
+								bulkH5Group, this.bulkIndexTablePrefix + f)
+								.getData();
+					}
+				}
+				for (int l = 0; l < nLocations; l++) {
+					providers[l].setLazyReader(file, new BulkReader(features,
+							units, times, dataSets, indices, l, nLocations));
+				}
+				return true;
+			}
+
+			// Find the time steps to read. The times are sorted.
+			int firstStep = 0;
+			while (firstStep < times.length && times[firstStep] < startTime) {
+				firstStep++;
+			}
+			int endStep = firstStep;
+			while (endStep < times.length && times[endStep] <= endTime) {
+				endStep++;
+			}
+
+			// Read the rows of each feature one time step at a time
+			for (int f = 0; f < features.length; f++) {
+				Dataset dataSet = HdfReaderFactory.getDataset(bulkH5Group,
+						this.bulkDataTablePrefix + f);
+				if (dataSet == null) {
+					continue;
+				}
+				long[] index = (long[]) HdfReaderFactory.getDataset(
+						bulkH5Group, this.bulkIndexTablePrefix + f).getData();
+				dataSet.init();
+				long[] start = dataSet.getStartDims();
+				long[] selected = dataSet.getSelectedDims();
+				for (int t = firstStep; t < endStep; t++) {
+					long firstRow = index[t * nLocations];
+					int rows = (int) (index[(t + 1) * nLocations] - firstRow);
+					if (rows == 0) {
+						continue;
+					}
+					start[0] = firstRow;
+					start[1] = 0;
+					selected[0] = rows;
+					selected[1] = 6;
+					double[] block = (double[]) dataSet.read();
+
+					// Add the rows to the providers of their locations
+					int j = 0;
+					for (int l = 0; l < nLocations; l++) {
+						int i = t * nLocations + l;
+						long locationRows = index[i + 1] - index[i];
+						for (long k = 0; k < locationRows; k++, j += 6) {
+							providers[l].addData(features[f], block[j],
+									block[j + 1], block[j + 2], block[j + 3],
+									block[j + 4], units[(int) block[j + 5]],
+									times[t]);
+						}
+					}
+				}
+			}
+
+		} catch (Exception e) {
+			logger.error(getClass().getName() + " Exception!", e);
+			return false;
+		}
+
+		return true;
+
+	}
+
+	/**
+	 * Writes a table of strings if it is not empty.
+	 *
+	 * @param h5File
+	 *            The h5file
+	 * @param h5Group
+	 *            The group to write it in
+	 * @param name
+	 *            The name of the table
+	 * @param strings
+	 *            The strings
+	 * @throws Exception
+	 */
+	private void writeStringTable(H5File h5File, H5Group h5Group, String name,
+			List<String> strings) throws Exception {
+
+		if (strings.isEmpty()) {
+			return;
+		}
+
+		// Setup the string datatype for the longest string
+		int maxLength = 1;
+		for (String string : strings) {
+			maxLength = Math.max(string.length(), maxLength);
+		}
+		H5Datatype datatypeString = (H5Datatype) h5File.createDatatype(
+				Datatype.CLASS_STRING, maxLength, Datatype.NATIVE,
+				Datatype.NATIVE);
+
+		// Write the table
+		long[] dimsStrings = { strings.size() };
+		Dataset dataSet = h5File.createScalarDS(name, h5Group,
+				datatypeString, dimsStrings, null, null, 0, null);
+		dataSet.write(strings.toArray(new String[strings.size()]));
+		dataSet.init();
+
+		return;
+	}
+
+	/**
+	 * Reads a table of strings.
+	 *
+	 * @param h5Group
+	 *            The group to read it from
+	 * @param name
+	 *            The name of the table
+	 * @return The strings, or an empty array if there is no table.
+	 * @throws Exception
+	 */
+	private String[] readStringTable(H5Group h5Group, String name)
+			throws Exception {
+		Dataset dataSet = hasMember(h5Group, name) ? HdfReaderFactory
+				.getDataset(h5Group, name) : null;
+		return (dataSet != null) ? (String[]) dataSet.getData()
+				: new String[0];
+	}
+
+	/**
+	 * This operation checks if a group has a member with the given name
+	 * without asking the library for a missing object.
+	 *
+	 * @param h5Group
+	 *            The group
+	 * @param name
+	 *            The name of the member
+	 * @return True if the member exists, false otherwise.
+	 */
+	private boolean hasMember(H5Group h5Group, String name) {
+		if (h5Group != null) {
+			for (HObject member : h5Group.getMemberList()) {
+				if (name.equals(member.getName())) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
 	/*
 	 * Overrides a method from LWRComponent.
 	 */
@@ -1034,4 +1539,130 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 
 	}
 
-}
\ No newline at end of file
+
+	/**
+	 * Reads the data of a location from its group in a lazily read file.
+	 */
+	private final class GroupReader implements LWRDataProvider.LazyReader {
+
+		/**
+		 * The group of the location and the units table.
+		 */
+		private final H5Group position;
+		private final String[] units;
+
+		/**
+		 * The constructor.
+		 *
+		 * @param position
+		 *            The group of the location
+		 * @param units
+		 *            The units table
+		 */
+		private GroupReader(H5Group position, String[] units) {
+			this.position = position;
+			this.units = units;
+		}
+
+		@Override
+		public boolean read(LazyHdfFile file, LWRDataProvider provider) {
+			return readTimeStepsAtFeature(provider,
+					HdfReaderFactory.getChildH5Groups(position), units, 0.0,
+					Double.POSITIVE_INFINITY);
+		}
+	}
+
+	/**
+	 * Reads the data of a location from the bulk tables of a lazily read
+	 * file.
+	 */
+	private final class BulkReader implements LWRDataProvider.LazyReader {
+
+		/**
+		 * The features, units and times.
+		 */
+		private final String[] features, units;
+		private final double[] times;
+
+		/**
+		 * The table and index of each feature. The table is null if the
+		 * feature has no data.
+		 */
+		private final Dataset[] dataSets;
+		private final long[][] indices;
+
+		/**
+		 * The index of the location and the number of locations.
+		 */
+		private final int location, nLocations;
+
+		/**
+		 * The constructor.
+		 *
+		 * @param features
+		 *            The features
+		 * @param units
+		 *            The units
+		 * @param times
+		 *            The times
+		 * @param dataSets
+		 *            The tables of the features, which are shared by the
+		 *            readers of all locations
+		 * @param indices
+		 *            The indices of the features
+		 * @param location
+		 *            The index of the location
+		 * @param nLocations
+		 *            The number of locations
+		 */
+		private BulkReader(String[] features, String[] units, double[] times,
+				Dataset[] dataSets, long[][] indices, int location,
+				int nLocations) {
+			this.features = features;
+			this.units = units;
+			this.times = times;
+			this.dataSets = dataSets;
+			this.indices = indices;
+			this.location = location;
+			this.nLocations = nLocations;
+		}
+
+		@Override
+		public boolean read(LazyHdfFile file, LWRDataProvider provider) {
+
+			try {
+				// Read the rows of the location at each time step
+				for (int f = 0; f < features.length; f++) {
+					if (dataSets[f] == null) {
+						continue;
+					}
+					long[] start = dataSets[f].getStartDims();
+					long[] selected = dataSets[f].getSelectedDims();
+					for (int t = 0; t < times.length; t++) {
+						int i = t * nLocations + location;
+						int rows = (int) (indices[f][i + 1] - indices[f][i]);
+						if (rows == 0) {
+							continue;
+						}
+						start[0] = indices[f][i];
+						start[1] = 0;
+						selected[0] = rows;
+						selected[1] = 6;
+						double[] block = (double[]) dataSets[f].read();
+						for (int j = 0; j < 6 * rows; j += 6) {
+							provider.addData(features[f], block[j],
+									block[j + 1], block[j + 2], block[j + 3],
+									block[j + 4], units[(int) block[j + 5]],
+									times[t]);
+						}
+					}
+				}
+			} catch (Exception e) {
+				logger.error(getClass().getName() + " Exception!", e);
+				return false;
+			}
+
+			return true;
+		}
+	}
+}
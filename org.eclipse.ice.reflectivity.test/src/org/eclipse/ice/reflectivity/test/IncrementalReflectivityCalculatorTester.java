@@ -0,0 +1,227 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - 
+ *   Jay Jay Billings, John Ankner
+ *******************************************************************************/
+package org.eclipse.ice.reflectivity.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import org.eclipse.ice.reflectivity.IncrementalReflectivityCalculator;
+import org.eclipse.ice.reflectivity.ReflectivityCalculator;
+import org.eclipse.ice.reflectivity.ReflectivityProfile;
+import org.eclipse.ice.reflectivity.Slab;
+import org.junit.Test;
+
+/**
+ * This class tests
+ * {@link org.eclipse.ice.reflectivity.IncrementalReflectivityCalculator}.
+ */
+public class IncrementalReflectivityCalculatorTester {
+
+	/**
+	 * The resolution and wavelength of the profiles.
+	 */
+	private static final double deltaQ0 = 0.0002, deltaQ1ByQ = 0.03,
+			wavelength = 4.25;
+
+	/**
+	 * This operation checks that the profiles are the same as those of the
+	 * ReflectivityCalculator as the slabs are edited, and that only the tiles
+	 * of the edited slab and its neighbors are generated again.
+	 */
+	@Test
+	public void testGetReflectivityProfile() {
+
+		// Local Declarations
+		IncrementalReflectivityCalculator incrementalCalculator = new IncrementalReflectivityCalculator();
+		double[] waveVector = createWaveVector(400);
+		Slab[] slabs = createSlabs(5);
+		int numRough = 41;
+
+		// The first profile generates the tiles of every slab
+		checkProfile(incrementalCalculator, slabs, numRough, waveVector);
+		assertEquals(5, incrementalCalculator.getNumberOfTileGenerations());
+
+		// Calculating it again does not generate any tiles
+		checkProfile(incrementalCalculator, slabs, numRough, waveVector);
+		assertEquals(5, incrementalCalculator.getNumberOfTileGenerations());
+
+		// Editing an inner slab generates the tiles of it and its neighbors
+		slabs[2].thickness = 500.0;
+		checkProfile(incrementalCalculator, slabs, numRough, waveVector);
+		assertEquals(8, incrementalCalculator.getNumberOfTileGenerations());
+		slabs[2].interfaceWidth = 12.0;
+		checkProfile(incrementalCalculator, slabs, numRough, waveVector);
+		assertEquals(11, incrementalCalculator.getNumberOfTileGenerations());
+
+		// Editing the top and bottom slabs resumes the recursion from
+		// different depths
+		slabs[1].scatteringLength = 7.0e-6;
+		checkProfile(incrementalCalculator, slabs, numRough, waveVector);
+		slabs[4].interfaceWidth = 15.0;
+		checkProfile(incrementalCalculator, slabs, numRough, waveVector);
+
+		// Adding and removing slabs on top
+		Slab[] longerSlabs = createSlabs(9);
+		System.arraycopy(slabs, 1, longerSlabs, 5, 4);
+		checkProfile(incrementalCalculator, longerSlabs, numRough, waveVector);
+		checkProfile(incrementalCalculator, slabs, numRough, waveVector);
+		int generations = (int) incrementalCalculator
+				.getNumberOfTileGenerations();
+
+		// Changing the resolution or wavelength does not generate any tiles
+		checkProfile(incrementalCalculator, slabs, numRough,
+				createWaveVector(300));
+		assertEquals(generations,
+				incrementalCalculator.getNumberOfTileGenerations());
+
+		// Changing the roughness starts over, and it also works without
+		// roughness
+		checkProfile(incrementalCalculator, slabs, 21, waveVector);
+		assertEquals(5, incrementalCalculator.getNumberOfTileGenerations());
+		checkProfile(incrementalCalculator, slabs, 1, waveVector);
+		slabs[1].scatteringLength = 7.0e-6;
+		checkProfile(incrementalCalculator, slabs, 1, waveVector);
+
+		return;
+	}
+
+	/**
+	 * This operation times the calculation of a 50 layer stack after an edit
+	 * of one layer.
+	 */
+	@Test
+	public void testEditTiming() {
+
+		// Local Declarations
+		IncrementalReflectivityCalculator incrementalCalculator = new IncrementalReflectivityCalculator();
+		ReflectivityCalculator calculator = new ReflectivityCalculator();
+		double[] waveVector = createWaveVector(400);
+		Slab[] slabs = createSlabs(50);
+		int numRough = 41, nRuns = 10;
+		long start, fullTime = 0, incrementalTime = 0;
+
+		incrementalCalculator.getReflectivityProfile(slabs, numRough,
+				deltaQ0, deltaQ1ByQ, wavelength, waveVector);
+		for (int i = 0; i <= nRuns; i++) {
+			slabs[25].thickness = 100.0 + i;
+
+			// Both profiles are needed for the RQ^4 data without the cache
+			start = System.nanoTime();
+			calculator.getReflectivityProfile(slabs, numRough, deltaQ0,
+					deltaQ1ByQ, wavelength, waveVector, false);
+			calculator.getReflectivityProfile(slabs, numRough, deltaQ0,
+					deltaQ1ByQ, wavelength, waveVector, true);
+			fullTime = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			assertNotNull(incrementalCalculator.getReflectivityProfile(slabs,
+					numRough, deltaQ0, deltaQ1ByQ, wavelength, waveVector));
+			incrementalTime = System.nanoTime() - start;
+		}
+
+		System.out.println("IncrementalReflectivityCalculatorTester Message: "
+				+ "Edit of a 50 layer stack took " + fullTime / 1.0e6
+				+ " ms without the cache and " + incrementalTime / 1.0e6
+				+ " ms with it.");
+
+		return;
+	}
+
+	/**
+	 * This operation checks that a profile of the incremental calculator is
+	 * the same as the one of the ReflectivityCalculator.
+	 * 
+	 * @param incrementalCalculator
+	 *            the incremental calculator
+	 * @param slabs
+	 *            the slabs
+	 * @param numRough
+	 *            the number of layers of roughness
+	 * @param waveVector
+	 *            the wave vector
+	 */
+	private void checkProfile(
+			IncrementalReflectivityCalculator incrementalCalculator,
+			Slab[] slabs, int numRough, double[] waveVector) {
+
+		ReflectivityProfile profile = incrementalCalculator
+				.getReflectivityProfile(slabs, numRough, deltaQ0, deltaQ1ByQ,
+						wavelength, waveVector);
+		ReflectivityProfile reference = new ReflectivityCalculator()
+				.getReflectivityProfile(slabs, numRough, deltaQ0, deltaQ1ByQ,
+						wavelength, waveVector, false);
+
+		assertEquals(reference.reflectivity.length,
+				profile.reflectivity.length);
+		for (int i = 0; i < reference.reflectivity.length; i++) {
+			assertEquals(reference.reflectivity[i], profile.reflectivity[i],
+					0.0);
+		}
+		assertEquals(reference.depth.length, profile.depth.length);
+		for (int i = 0; i < reference.depth.length; i++) {
+			assertEquals(reference.depth[i], profile.depth[i], 0.0);
+			assertEquals(reference.scatteringDensity[i],
+					profile.scatteringDensity[i], 0.0);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation creates an evenly spaced wave vector.
+	 * 
+	 * @param numPoints
+	 *            the number of points
+	 * @return the wave vector
+	 */
+	private double[] createWaveVector(int numPoints) {
+		double[] waveVector = new double[numPoints];
+		for (int i = 0; i < numPoints; i++) {
+			waveVector[i] = 0.008 + 0.2 * i / numPoints;
+		}
+		return waveVector;
+	}
+
+	/**
+	 * This operation creates a stack of alternating nickel and silicon oxide
+	 * slabs between air and a silicon substrate.
+	 * 
+	 * @param numSlabs
+	 *            the number of slabs, including the air and substrate
+	 * @return the slabs
+	 */
+	private Slab[] createSlabs(int numSlabs) {
+
+		Slab[] slabs = new Slab[numSlabs];
+		slabs[0] = new Slab();
+		slabs[0].thickness = 200.0;
+		for (int i = 1; i < numSlabs; i++) {
+			slabs[i] = new Slab();
+			slabs[i].trueAbsLength = 2.27931868269305E-09;
+			slabs[i].incAbsLength = 4.74626235093697E-09;
+			if (i % 2 == 1) {
+				slabs[i].scatteringLength = 9.31e-6;
+				slabs[i].thickness = 80.0;
+				slabs[i].interfaceWidth = 4.3 * 2.35;
+			} else {
+				slabs[i].scatteringLength = (0.00000554 + 0.00000585) / 2.0;
+				slabs[i].thickness = 42.0;
+				slabs[i].interfaceWidth = 7.0 * 2.35;
+			}
+		}
+		slabs[numSlabs - 1].scatteringLength = 2.070e-6;
+		slabs[numSlabs - 1].thickness = 100.0;
+		slabs[numSlabs - 1].interfaceWidth = 17.5;
+
+		return slabs;
+	}
+}
@@ -337,6 +337,65 @@ public class ReflectivityCalculatorTester {
 		return;
 	}
 
+	/**
+	 * This class tests
+	 * {@link ReflectivityCalculator#getModSqrdSpecRef(double[], double, Tile[], double[])}
+	 * against the single point version for a full wave vector. It also prints
+	 * the time taken by both versions.
+	 */
+	@Test
+	public void testGetSpecRefSqrdModArray() {
+
+		// Load the tiles
+		Form form = reader.read(project.getFile("getSpecRefSqrdMod_q841.csv"));
+		ListComponent<String[]> lines = (ListComponent<String[]>) form
+				.getComponent(1);
+		Tile[] tiles = loadTiles(lines);
+		double wavelength = Double.valueOf(lines.get(0)[1]);
+
+		// Create a wave vector like the extended one used for the convolution
+		int numPoints = ReflectivityCalculator.maxPoints;
+		double[] waveVector = new double[numPoints];
+		waveVector[0] = 1.0e-10;
+		for (int i = 1; i < numPoints; i++) {
+			waveVector[i] = 0.3 * i / numPoints;
+		}
+
+		// Compute the reflectivity with both versions
+		ReflectivityCalculator calculator = new ReflectivityCalculator();
+		double[] specRefSqrd = new double[numPoints];
+		double[] refSpecRefSqrd = new double[numPoints];
+		long pointTime = 0, arrayTime = 0, start;
+		for (int i = 0; i < 4; i++) {
+			start = System.nanoTime();
+			for (int j = 0; j < numPoints; j++) {
+				refSpecRefSqrd[j] = calculator.getModSqrdSpecRef(
+						waveVector[j], wavelength, tiles);
+			}
+			pointTime = System.nanoTime() - start;
+			start = System.nanoTime();
+			calculator.getModSqrdSpecRef(waveVector, wavelength, tiles,
+					specRefSqrd);
+			arrayTime = System.nanoTime() - start;
+		}
+		System.out.println("ReflectivityCalculatorTester Message: "
+				+ numPoints + " points, single point = " + pointTime / 1.0e6
+				+ " ms, array = " + arrayTime / 1.0e6 + " ms");
+
+		// Check the results
+		for (int i = 0; i < numPoints; i++) {
+			assertEquals(refSpecRefSqrd[i], specRefSqrd[i], 1.0e-12);
+		}
+
+		// No wavelength means no reflectivity
+		calculator.getModSqrdSpecRef(waveVector, 0.0, tiles, specRefSqrd);
+		for (int i = 0; i < numPoints; i++) {
+			assertEquals(0.0, specRefSqrd[i], 0.0);
+		}
+
+		return;
+	}
+
 	/**
 	 * This operation loads the set of Tiles from the reference file, ignoring
 	 * the first and second lines that store the reference values.
@@ -0,0 +1,346 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - 
+ *   Jay Jay Billings, John Ankner
+ *******************************************************************************/
+package org.eclipse.ice.reflectivity.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+
+import org.apache.commons.math.MathException;
+import org.eclipse.ice.reflectivity.ReflectivityCalculator;
+import org.eclipse.ice.reflectivity.ReflectivityFitter;
+import org.eclipse.ice.reflectivity.ReflectivityProfile;
+import org.eclipse.ice.reflectivity.ResolutionKernel;
+import org.eclipse.ice.reflectivity.Slab;
+import org.eclipse.ice.reflectivity.Tile;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * This class tests {@link org.eclipse.ice.reflectivity.ReflectivityFitter}
+ * and {@link org.eclipse.ice.reflectivity.ResolutionKernel} with data
+ * calculated from the same nickel on silicon system as the
+ * ReflectivityCalculatorTester, so it does not need the workspace.
+ */
+public class ReflectivityFitterTester {
+
+	/**
+	 * The resolution and wavelength of the data.
+	 */
+	private static final double deltaQ0 = 0.0002, deltaQ1ByQ = 0.03,
+			wavelength = 4.25;
+
+	/**
+	 * The number of steps in the interfaces.
+	 */
+	private static final int numRough = 41;
+
+	/**
+	 * The wave vector.
+	 */
+	private static double[] waveVector;
+
+	/**
+	 * The reflectivity of the system and its error bars.
+	 */
+	private static double[] reflectivity, error;
+
+	/**
+	 * This operation calculates the data for the test.
+	 * 
+	 * @throws MathException
+	 */
+	@BeforeClass
+	public static void setUpBeforeClass() throws MathException {
+
+		waveVector = new double[400];
+		for (int i = 0; i < waveVector.length; i++) {
+			waveVector[i] = 0.008 + 0.0005 * i;
+		}
+		ReflectivityProfile profile = new ReflectivityCalculator()
+				.getReflectivityProfile(getSlabs(), numRough, deltaQ0,
+						deltaQ1ByQ, wavelength, waveVector, false);
+		reflectivity = profile.reflectivity;
+		error = new double[reflectivity.length];
+		for (int i = 0; i < error.length; i++) {
+			error[i] = 0.05 * reflectivity[i];
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation checks that the precomputed resolution kernel smears the
+	 * reflectivity exactly like the convolution in the calculator.
+	 * 
+	 * @throws MathException
+	 */
+	@Test
+	public void testResolutionKernel() throws MathException {
+
+		// Generate the tiles
+		ReflectivityCalculator calculator = new ReflectivityCalculator();
+		double[] zInt = new double[ReflectivityCalculator.maxRoughSize];
+		double[] rufInt = new double[ReflectivityCalculator.maxRoughSize];
+		calculator.getInterfacialProfile(numRough, zInt, rufInt);
+		Tile[] tiles = calculator.generateTiles(getSlabs(), numRough, zInt,
+				rufInt);
+		ResolutionKernel kernel = new ResolutionKernel(waveVector, deltaQ0,
+				deltaQ1ByQ);
+
+		// Compute the unsmeared reflectivity on the extended wave vector and
+		// smear it with the kernel.
+		double[] extendedWaveVector = kernel.getExtendedWaveVector();
+		double[] extendedReflectivity = new double[extendedWaveVector.length];
+		calculator.getModSqrdSpecRef(extendedWaveVector, wavelength, tiles,
+				extendedReflectivity);
+		double[] smeared = new double[waveVector.length];
+		kernel.convolute(extendedReflectivity, smeared);
+
+		// It should be the same as the calculator's
+		double[] reference = calculator.convoluteReflectivity(deltaQ0,
+				deltaQ1ByQ, wavelength, false, waveVector, tiles);
+		for (int i = 0; i < waveVector.length; i++) {
+			assertEquals(reference[i], smeared[i], 0.0);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation checks that the fitter calculates the same reflectivity
+	 * as the calculator and that its parameters are checked.
+	 * 
+	 * @throws MathException
+	 */
+	@Test
+	public void testGetReflectivity() throws MathException {
+
+		ReflectivityFitter fitter = new ReflectivityFitter(getSlabs(),
+				numRough, deltaQ0, deltaQ1ByQ, wavelength, waveVector,
+				reflectivity, error);
+		fitter.addParameter(2, ReflectivityFitter.Parameter.Thickness, 450.0,
+				650.0);
+		assertEquals(551.0, fitter.getValues()[0], 0.0);
+
+		// The reflectivity at the true values is the same as the data.
+		double[] fitReflectivity = fitter
+				.getReflectivity(new double[] { 551.0 });
+		for (int i = 0; i < reflectivity.length; i++) {
+			assertEquals(reflectivity[i], fitReflectivity[i], 0.0);
+		}
+		assertEquals(0.0, fitter.getChiSquared(fitReflectivity), 0.0);
+
+		// Bad parameters should be rejected
+		try {
+			fitter.addParameter(5, ReflectivityFitter.Parameter.Roughness,
+					1.0, 2.0);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+		try {
+			fitter.addParameter(1, ReflectivityFitter.Parameter.Roughness,
+					2.0, 1.0);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation checks that the fitter calculates the same reflectivity
+	 * as the calculator when there is only one layer of roughness and the
+	 * slabs are used as the tiles.
+	 * 
+	 * @throws MathException
+	 */
+	@Test
+	public void testGetReflectivityWithoutRoughness() throws MathException {
+
+		// Use an incident medium that needs to be corrected for, like D2O
+		Slab[] slabs = getSlabs();
+		slabs[0].scatteringLength = 6.36e-6;
+		double[] expected = new ReflectivityCalculator()
+				.getReflectivityProfile(slabs, 1, deltaQ0, deltaQ1ByQ,
+						wavelength, waveVector, false).reflectivity;
+		slabs = getSlabs();
+		slabs[0].scatteringLength = 6.36e-6;
+		ReflectivityFitter fitter = new ReflectivityFitter(slabs, 1, deltaQ0,
+				deltaQ1ByQ, wavelength, waveVector, expected, error);
+		fitter.addParameter(2, ReflectivityFitter.Parameter.Thickness, 450.0,
+				650.0);
+
+		double[] fitReflectivity = fitter
+				.getReflectivity(new double[] { 551.0 });
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], fitReflectivity[i], 0.0);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation checks that the Levenberg-Marquardt fit recovers the
+	 * thicknesses and the roughness of the substrate.
+	 * 
+	 * @throws MathException
+	 */
+	@Test
+	public void testFitLevenbergMarquardt() throws MathException {
+
+		ReflectivityFitter fitter = createFitter();
+		double startChiSquared = fitter.getChiSquared(fitter
+				.getReflectivity(fitter.getValues()));
+
+		long start = System.nanoTime();
+		double chiSquared = fitter.fitLevenbergMarquardt(50, 1.0e-10);
+		double time = (System.nanoTime() - start) / 1.0e6;
+		System.out.println("ReflectivityFitterTester Message: "
+				+ "Levenberg-Marquardt fit took " + time + " ms for "
+				+ fitter.getNumberOfEvaluations() + " evaluations.");
+
+		// Check the fit
+		assertTrue(chiSquared < 1.0e-6 * startChiSquared);
+		double[] values = fitter.getValues();
+		assertEquals(22.0, values[0], 1.0e-3);
+		assertEquals(551.0, values[1], 1.0e-3);
+		assertEquals(17.5, values[2], 1.0e-3);
+
+		// The slabs should have the fitted values
+		Slab[] slabs = fitter.getSlabs();
+		assertEquals(values[0], slabs[1].thickness, 0.0);
+		assertEquals(values[1], slabs[2].thickness, 0.0);
+		assertEquals(values[2], slabs[4].interfaceWidth, 0.0);
+
+		checkHistory(fitter.getHistory(), chiSquared);
+
+		return;
+	}
+
+	/**
+	 * This operation checks that the differential evolution fit improves the
+	 * starting values.
+	 * 
+	 * @throws MathException
+	 */
+	@Test
+	public void testFitDifferentialEvolution() throws MathException {
+
+		ReflectivityFitter fitter = createFitter();
+		double startChiSquared = fitter.getChiSquared(fitter
+				.getReflectivity(fitter.getValues()));
+
+		long start = System.nanoTime();
+		double chiSquared = fitter.fitDifferentialEvolution(10, 1.0e-6, 1);
+		double time = (System.nanoTime() - start) / 1.0e6;
+		System.out.println("ReflectivityFitterTester Message: "
+				+ "Differential evolution fit took " + time + " ms for "
+				+ fitter.getNumberOfEvaluations() + " evaluations.");
+
+		// The fit can only get better
+		assertTrue(chiSquared < startChiSquared);
+		checkHistory(fitter.getHistory(), chiSquared);
+
+		return;
+	}
+
+	/**
+	 * This operation checks that the history of a fit ends with its chi
+	 * squared and never gets worse.
+	 * 
+	 * @param history
+	 *            the history of the fit
+	 * @param chiSquared
+	 *            the chi squared at the end of the fit
+	 */
+	private void checkHistory(ArrayList<double[]> history, double chiSquared) {
+		assertTrue(history.size() > 1);
+		for (int i = 1; i < history.size(); i++) {
+			assertEquals(i, history.get(i)[0], 0.0);
+			assertTrue(history.get(i)[1] <= history.get(i - 1)[1]);
+			assertTrue(history.get(i)[2] > history.get(i - 1)[2]);
+		}
+		assertEquals(chiSquared, history.get(history.size() - 1)[1], 0.0);
+	}
+
+	/**
+	 * This operation creates a fitter that starts away from the true
+	 * thicknesses of the nickel oxide and nickel layers and the roughness of
+	 * the substrate.
+	 * 
+	 * @return the fitter
+	 * @throws MathException
+	 */
+	private ReflectivityFitter createFitter() throws MathException {
+		Slab[] slabs = getSlabs();
+		slabs[1].thickness = 26.0;
+		slabs[2].thickness = 520.0;
+		slabs[4].interfaceWidth = 14.0;
+		ReflectivityFitter fitter = new ReflectivityFitter(slabs, numRough,
+				deltaQ0, deltaQ1ByQ, wavelength, waveVector, reflectivity,
+				error);
+		fitter.addParameter(1, ReflectivityFitter.Parameter.Thickness, 10.0,
+				40.0);
+		fitter.addParameter(2, ReflectivityFitter.Parameter.Thickness, 450.0,
+				650.0);
+		fitter.addParameter(4, ReflectivityFitter.Parameter.Roughness, 5.0,
+				30.0);
+		return fitter;
+	}
+
+	/**
+	 * This operation creates the slabs of the nickel on silicon system.
+	 * 
+	 * @return the slabs
+	 */
+	private static Slab[] getSlabs() {
+
+		Slab air = new Slab();
+		air.thickness = 200.0;
+		air.interfaceWidth = 0.0;
+
+		Slab niOx = new Slab();
+		niOx.scatteringLength = (0.00000686 + 0.00000715) / 2.0;
+		niOx.trueAbsLength = 2.27931868269305E-09;
+		niOx.incAbsLength = 4.74626235093697E-09;
+		niOx.thickness = 22.0;
+		niOx.interfaceWidth = 4.0 * 2.35;
+
+		Slab ni = new Slab();
+		ni.scatteringLength = 9.31e-6;
+		ni.trueAbsLength = 2.27931868269305E-09;
+		ni.incAbsLength = 4.74626235093697E-09;
+		ni.thickness = 551.0;
+		ni.interfaceWidth = 4.3 * 2.35;
+
+		Slab siNiOx = new Slab();
+		siNiOx.scatteringLength = (0.00000554 + 0.00000585) / 2.0;
+		siNiOx.trueAbsLength = 2.27931868269305E-09;
+		siNiOx.incAbsLength = 4.74626235093697E-09;
+		siNiOx.thickness = 42.0;
+		siNiOx.interfaceWidth = 7.0 * 2.35;
+
+		Slab si = new Slab();
+		si.scatteringLength = 2.070e-6;
+		si.trueAbsLength = 4.74981478870069E-11;
+		si.incAbsLength = 1.99769988072137E-12;
+		si.thickness = 100.0;
+		si.interfaceWidth = 17.5;
+
+		return new Slab[] { air, niOx, ni, siNiOx, si };
+	}
+}
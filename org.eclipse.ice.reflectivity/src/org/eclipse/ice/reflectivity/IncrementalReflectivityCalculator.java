@@ -0,0 +1,255 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation -
+ *   Jay Jay Billings
+ *******************************************************************************/
+package org.eclipse.ice.reflectivity;
+
+import java.util.Arrays;
+
+import org.apache.commons.math.MathException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class computes the same reflectivity profiles as
+ * {@link ReflectivityCalculator#getReflectivityProfile(Slab[], int, double, double, double, double[], boolean)}
+ * , but it keeps what it computed for the previous stack and only computes
+ * again what depends on the slabs, parameters or wave vector that changed:
+ * <ul>
+ * <li>The tiles of each slab are cached by a {@link TileCache}, so changing
+ * one slab only generates the tiles of that slab and its neighbors again.</li>
+ * <li>The resolution function is kept until the wave vector or the resolution
+ * changes.</li>
+ * <li>The state of the Parratt recursion, which starts at the bottom of the
+ * stack, is stored every few tiles. When the tiles change, the recursion
+ * resumes from the deepest state below the changed tiles.</li>
+ * </ul>
+ * The RQ^4 reflectivity is not computed. It is the reflectivity of the
+ * profile multiplied by Q^4.
+ *
+ * This class is thread-safe.
+ */
+public class IncrementalReflectivityCalculator {
+
+	/**
+	 * Logger for handling event messages and other information.
+	 */
+	private static final Logger logger = LoggerFactory
+			.getLogger(IncrementalReflectivityCalculator.class);
+
+	/**
+	 * The calculator.
+	 */
+	private final ReflectivityCalculator calculator;
+
+	/**
+	 * The number of layers of roughness requested for the tile cache.
+	 */
+	private int numRough;
+
+	/**
+	 * The tile cache for the number of layers of roughness.
+	 */
+	private TileCache tileCache;
+
+	/**
+	 * The wave vector and resolution of the resolution function.
+	 */
+	private double[] waveVector;
+	private double deltaQ0, deltaQ1ByQ;
+
+	/**
+	 * The resolution function.
+	 */
+	private ResolutionKernel kernel;
+
+	/**
+	 * The tiles and wavelength of the unconvoluted reflectivity.
+	 */
+	private Tile[] tiles;
+	private double wavelength;
+
+	/**
+	 * The unconvoluted reflectivity on the extended wave vector of the
+	 * resolution function.
+	 */
+	private double[] extendedReflectivity;
+
+	/**
+	 * The stored states of the Parratt recursion for the tiles.
+	 */
+	private double[][] checkpoints;
+
+	/**
+	 * The number of tiles between the stored states.
+	 */
+	private int interval;
+
+	/**
+	 * The constructor.
+	 */
+	public IncrementalReflectivityCalculator() {
+		calculator = new ReflectivityCalculator();
+		numRough = -1;
+	}
+
+	/**
+	 * This operation returns the reflectivity profile for the given wave vector
+	 * and set of slabs that define the material.
+	 *
+	 * @param slabs
+	 *            the slabs that define the material. They are not modified.
+	 * @param numRough
+	 *            the number of layers of roughness
+	 * @param deltaQ0
+	 *            the zeroth order term of the Q resolution Taylor expansion
+	 * @param deltaQ1ByQ
+	 *            the first order term of the Q resolution Taylor expansion
+	 * @param wavelength
+	 *            the wavelength of the incident neutrons
+	 * @param waveVector
+	 *            the wave vector
+	 * @return The reflectivity profile, or null if the tiles could not be
+	 *         generated.
+	 */
+	public synchronized ReflectivityProfile getReflectivityProfile(
+			Slab[] slabs, int numRough, double deltaQ0, double deltaQ1ByQ,
+			double wavelength, double[] waveVector) {
+
+		ReflectivityProfile profile = new ReflectivityProfile();
+
+		try {
+			// Get the tile cache for the roughness. The states are stored
+			// about once per slab.
+			if (tileCache == null || numRough != this.numRough) {
+				tileCache = new TileCache(numRough);
+				this.numRough = numRough;
+				interval = tileCache.getNumRough() + 2;
+				tiles = null;
+			}
+
+			// Copy the slabs and correct them for the incident medium. If they
+			// are used as the tiles, they are un-corrected like in
+			// getReflectivityProfile().
+			Slab[] stack = new Slab[slabs.length];
+			double qCCorr = slabs[0].scatteringLength;
+			boolean unCorrect = (tileCache.getNumRough() == 1);
+			for (int i = 0; i < slabs.length; i++) {
+				stack[i] = new Slab();
+				stack[i].scatteringLength = slabs[i].scatteringLength - qCCorr;
+				if (unCorrect) {
+					stack[i].scatteringLength += qCCorr;
+				}
+				stack[i].trueAbsLength = slabs[i].trueAbsLength;
+				stack[i].incAbsLength = slabs[i].incAbsLength;
+				stack[i].thickness = slabs[i].thickness;
+				stack[i].interfaceWidth = slabs[i].interfaceWidth;
+			}
+			Tile[] newTiles = tileCache.getTiles(stack);
+
+			// Compute the resolution function again if the data changed
+			boolean sameKernel = kernel != null
+					&& deltaQ0 == this.deltaQ0
+					&& deltaQ1ByQ == this.deltaQ1ByQ
+					&& Arrays.equals(waveVector, this.waveVector);
+			if (!sameKernel) {
+				kernel = new ResolutionKernel(waveVector, deltaQ0, deltaQ1ByQ);
+				this.waveVector = waveVector.clone();
+				this.deltaQ0 = deltaQ0;
+				this.deltaQ1ByQ = deltaQ1ByQ;
+			}
+
+			// Find how many tiles at the bottom of the stack are the same
+			int sameDepth = 0;
+			if (sameKernel && wavelength == this.wavelength && tiles != null) {
+				sameDepth = getSameDepth(newTiles);
+			} else {
+				tiles = null;
+			}
+
+			// Compute the reflectivity again if the tiles changed, from the
+			// deepest stored state below the change
+			if (tiles == null || sameDepth < Math.max(tiles.length,
+					newTiles.length)) {
+				double[] extendedWaveVector = kernel.getExtendedWaveVector();
+				int numCheckpoints = (newTiles.length - 1) / interval + 1;
+				if (tiles == null) {
+					checkpoints = new double[numCheckpoints][];
+				} else if (checkpoints.length != numCheckpoints) {
+					checkpoints = Arrays.copyOf(checkpoints, numCheckpoints);
+				}
+				for (int i = 0; i < numCheckpoints; i++) {
+					if (checkpoints[i] == null) {
+						checkpoints[i] = new double[4 * extendedWaveVector.length];
+					}
+				}
+				int resumeDepth = (sameDepth > 0) ? ((sameDepth - 1) / interval)
+						* interval
+						: 0;
+				extendedReflectivity = new double[extendedWaveVector.length];
+				calculator.getModSqrdSpecRef(extendedWaveVector, wavelength,
+						newTiles, extendedReflectivity, checkpoints, interval,
+						resumeDepth);
+				tiles = newTiles;
+				this.wavelength = wavelength;
+			}
+
+			// Convolute it and get the scattering profile
+			double[] reflectivity = new double[waveVector.length];
+			kernel.convolute(extendedReflectivity, reflectivity);
+			ScatteringDensityProfile scatteringProfile = calculator
+					.getScatteringDensityProfile(newTiles);
+
+			// Put everything into the reflectivity profile
+			profile.depth = scatteringProfile.depth;
+			profile.reflectivity = reflectivity;
+			profile.waveVector = waveVector;
+			profile.scatteringDensity = scatteringProfile.scatteringDensity;
+
+		} catch (MathException e) {
+			// Complain
+			logger.error(getClass().getName() + " Exception!", e);
+			// Null out the profile so no bad data is returned
+			profile = null;
+		}
+
+		return profile;
+	}
+
+	/**
+	 * This operation returns the number of times that the tiles of a slab were
+	 * generated since the number of layers of roughness last changed.
+	 *
+	 * @return the number of generations
+	 */
+	public synchronized long getNumberOfTileGenerations() {
+		return (tileCache != null) ? tileCache.getNumberOfGenerations() : 0;
+	}
+
+	/**
+	 * This operation returns the number of tiles at the bottom of the stack
+	 * that are the same objects as those of the unconvoluted reflectivity.
+	 * Tiles from the cache are never modified.
+	 *
+	 * @param newTiles
+	 *            the tiles
+	 * @return the number of tiles that are the same
+	 */
+	private int getSameDepth(Tile[] newTiles) {
+		int depth = 0;
+		int maxDepth = Math.min(tiles.length, newTiles.length);
+		while (depth < maxDepth
+				&& tiles[tiles.length - 1 - depth] == newTiles[newTiles.length
+						- 1 - depth]) {
+			depth++;
+		}
+		return depth;
+	}
+}
@@ -13,6 +13,11 @@
  *******************************************************************************/
 package org.eclipse.ice.reflectivity;
 
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
 import org.apache.commons.math.MathException;
 import org.apache.commons.math.complex.Complex;
 import org.apache.commons.math.special.Erf;
@@ -53,6 +58,18 @@ public class ReflectivityCalculator {
 	 */
 	private static final double cE = 1.665;
 
+	/**
+	 * The pool that computes the reflectivity of the wave vector points in
+	 * parallel, shared by all calculators.
+	 */
+	private static final ForkJoinPool pool = new ForkJoinPool();
+
+	/**
+	 * The number of wave vector points below which the Parratt recursion is
+	 * not split between threads any further.
+	 */
+	private static final int pointThreshold = 128;
+
 	/**
 	 * This operation returns the value of the squared modulus of the specular
 	 * reflectivity for a single wave vector Q.
@@ -128,6 +145,341 @@ public class ReflectivityCalculator {
 		return modSqrdSpecRef;
 	}
 
+	/**
+	 * This operation computes the squared modulus of the specular reflectivity
+	 * for every wave vector Q in an array. It gives the same results as
+	 * {@link #getModSqrdSpecRef(double, double, Tile[])} for each Q, but it
+	 * works with the real and imaginary parts directly, layer by layer over
+	 * blocks of Q that are computed in parallel, instead of creating Complex
+	 * numbers for each layer and Q.
+	 *
+	 * @param waveVector
+	 *            the values of the wave vector
+	 * @param wavelength
+	 *            the wavelength of the incident neutrons
+	 * @param tiles
+	 *            the list of Tiles that contains the physical parameters needed
+	 *            for the calculation, including the scattering densities,
+	 *            absorption parameters and thicknesses.
+	 * @param modSqrdSpecRef
+	 *            OUTPUT - the squared modulus of the specular reflectivity for
+	 *            each Q. This array must be at least as long as the wave
+	 *            vector.
+	 */
+	public void getModSqrdSpecRef(double[] waveVector, double wavelength,
+			Tile[] tiles, double[] modSqrdSpecRef) {
+		getModSqrdSpecRef(waveVector, wavelength, tiles, modSqrdSpecRef,
+				null, 1, 0);
+	}
+
+	/**
+	 * This operation computes the squared modulus of the specular reflectivity
+	 * for every wave vector Q in an array like
+	 * {@link #getModSqrdSpecRef(double[], double, Tile[], double[])}, but it
+	 * stores the state of the recursion every few tiles and can resume it from
+	 * a stored state. Since the recursion starts at the bottom, the state at a
+	 * depth only depends on the tiles below it, so when the top of the stack
+	 * changes the recursion can resume from the deepest state below the
+	 * change.
+	 *
+	 * @param waveVector
+	 *            the values of the wave vector
+	 * @param wavelength
+	 *            the wavelength of the incident neutrons
+	 * @param tiles
+	 *            the tiles
+	 * @param modSqrdSpecRef
+	 *            OUTPUT - the squared modulus of the specular reflectivity for
+	 *            each Q
+	 * @param checkpoints
+	 *            the states of the recursion, each 4 * waveVector.length long,
+	 *            before the tile that is interval * i tiles above the bottom
+	 *            tile for the ith state. The states above the resumed one are
+	 *            overwritten. If it is null, no state is stored.
+	 * @param interval
+	 *            the number of tiles between the states
+	 * @param resumeDepth
+	 *            the number of tiles above the bottom tile of the state from
+	 *            which the recursion resumes, which must be a multiple of the
+	 *            interval, or 0 to start from the bottom.
+	 */
+	void getModSqrdSpecRef(double[] waveVector, double wavelength,
+			Tile[] tiles, double[] modSqrdSpecRef, double[][] checkpoints,
+			int interval, int resumeDepth) {
+
+		int numPoints = waveVector.length;
+
+		// There is no reflectivity without a wavelength
+		if (wavelength <= 0.0) {
+			Arrays.fill(modSqrdSpecRef, 0, numPoints, 0.0);
+			return;
+		}
+
+		// Compute the Q independent terms of each tile once
+		int nLayers = tiles.length;
+		double[] qCSq = new double[nLayers];
+		double[] betaNm1 = new double[nLayers];
+		double[] thickness = new double[nLayers];
+		for (int i = 0; i < nLayers; i++) {
+			Tile tile = tiles[i];
+			qCSq[i] = 16.0 * Math.PI * tile.scatteringLength;
+			betaNm1[i] = 4.0 * Math.PI
+					* (tile.trueAbsLength + tile.incAbsLength / wavelength);
+			thickness[i] = tile.thickness;
+		}
+
+		// Run the recursion. If this is already called from a pool, like by
+		// the ReflectivityFitter, split it between the threads of that pool.
+		ParrattTask task = new ParrattTask(waveVector, qCSq, betaNm1,
+				thickness, modSqrdSpecRef, new double[4 * numPoints],
+				checkpoints, interval, resumeDepth, 0, numPoints);
+		if (ForkJoinTask.inForkJoinPool()) {
+			task.invoke();
+		} else {
+			pool.invoke(task);
+		}
+
+		return;
+	}
+
+	/**
+	 * This class runs the Parratt recursion of
+	 * {@link ReflectivityCalculator#getModSqrdSpecRef(double, double, Tile[])}
+	 * for a range of wave vector points, splitting the range between the
+	 * threads of the pool. The complex operations are written out in the same
+	 * order as in the Complex class so that the results are the same.
+	 */
+	private static class ParrattTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The wave vector and the Q independent terms of each tile.
+		 */
+		private final double[] waveVector, qCSq, betaNm1, thickness;
+
+		/**
+		 * The squared moduli of the specular reflectivity.
+		 */
+		private final double[] modSqrdSpecRef;
+
+		/**
+		 * The state of the recursion for each point: the real and imaginary
+		 * parts of the normal component of Q in the previous layer, followed by
+		 * those of the reflectivity amplitude, each numPoints long.
+		 */
+		private final double[] state;
+
+		/**
+		 * The stored states of the recursion, or null.
+		 */
+		private final double[][] checkpoints;
+
+		/**
+		 * The number of tiles between the stored states and the depth from
+		 * which the recursion resumes.
+		 */
+		private final int interval, resumeDepth;
+
+		/**
+		 * The range of points of this task.
+		 */
+		private final int start, end;
+
+		public ParrattTask(double[] waveVector, double[] qCSq,
+				double[] betaNm1, double[] thickness,
+				double[] modSqrdSpecRef, double[] state,
+				double[][] checkpoints, int interval, int resumeDepth,
+				int start, int end) {
+			this.waveVector = waveVector;
+			this.qCSq = qCSq;
+			this.betaNm1 = betaNm1;
+			this.thickness = thickness;
+			this.modSqrdSpecRef = modSqrdSpecRef;
+			this.state = state;
+			this.checkpoints = checkpoints;
+			this.interval = interval;
+			this.resumeDepth = resumeDepth;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+
+			// Split the range until it is small enough
+			if (end - start > pointThreshold) {
+				int middle = (start + end) >>> 1;
+				invokeAll(new ParrattTask(waveVector, qCSq, betaNm1,
+						thickness, modSqrdSpecRef, state, checkpoints,
+						interval, resumeDepth, start, middle),
+						new ParrattTask(waveVector, qCSq, betaNm1, thickness,
+								modSqrdSpecRef, state, checkpoints, interval,
+								resumeDepth, middle, end));
+				return;
+			}
+
+			// The offsets of the state arrays
+			int numPoints = waveVector.length;
+			int qIm = numPoints, rRe = 2 * numPoints, rIm = 3 * numPoints;
+			int nLayers = qCSq.length;
+
+			// Starting point--no reflected beam in bottom-most (bulk) layer,
+			// unless the recursion resumes from a stored state
+			if (resumeDepth == 0) {
+				for (int p = start; p < end; p++) {
+					double q = waveVector[p];
+					sqrt(q * q - qCSq[nLayers - 1],
+							-2.0 * betaNm1[nLayers - 1], state, p, qIm + p);
+					state[rRe + p] = 0.0;
+					state[rIm + p] = 0.0;
+				}
+			} else {
+				copyState(checkpoints[resumeDepth / interval], state);
+			}
+
+			// Loop through to calculate recursion formula described in
+			// Parratt. Start at the bottom and work up, one layer at a time
+			// for all of the points.
+			for (int i = nLayers - 1 - resumeDepth; i > 0; i--) {
+				// Store the state if needed. The resumed state is already
+				// stored.
+				int depth = nLayers - 1 - i;
+				if (checkpoints != null && depth % interval == 0
+						&& (depth > resumeDepth || resumeDepth == 0)) {
+					copyState(state, checkpoints[depth / interval]);
+				}
+				double qCSqNm1 = qCSq[i - 1];
+				double twoBetaNm1 = -2.0 * betaNm1[i - 1];
+				double halfThickness = -0.5 * thickness[i - 1];
+				for (int p = start; p < end; p++) {
+					// Calculate the normal component of Q for layer and
+					// layer-1
+					double qNRe = state[p], qNIm = state[qIm + p];
+					double q = waveVector[p];
+					sqrt(q * q - qCSqNm1, twoBetaNm1, state, p, qIm + p);
+					double qNm1Re = state[p], qNm1Im = state[qIm + p];
+
+					// Calculate phase factor, e^(-0.5*d*qNm1)
+					double expReal = Math.exp(qNm1Im * halfThickness);
+					double phase = qNm1Re * halfThickness;
+					double aRe = expReal * Math.cos(phase);
+					double aIm = expReal * Math.sin(phase);
+
+					// CDiv(qNm1-qN,qNm1+qN)
+					double numRe = qNm1Re - qNRe, numIm = qNm1Im - qNIm;
+					double denRe = qNm1Re + qNRe, denIm = qNm1Im + qNIm;
+					double fRe, fIm;
+					if (Math.abs(denRe) < Math.abs(denIm)) {
+						double ratio = denRe / denIm;
+						double denominator = denRe * ratio + denIm;
+						fRe = (numRe * ratio + numIm) / denominator;
+						fIm = (numIm * ratio - numRe) / denominator;
+					} else {
+						double ratio = denIm / denRe;
+						double denominator = denIm * ratio + denRe;
+						fRe = (numIm * ratio + numRe) / denominator;
+						fIm = (numIm - numRe * ratio) / denominator;
+					}
+
+					// Calculate the reflectivity amplitude.
+					// CMult(aNm1Sq, CMult(aNm1Sq, CDiv(CAdd(rNNp1, fNm1N),
+					// CAdd(CMult(rNNp1, fNm1N), CReal(1)))))
+					double rNNp1Re = state[rRe + p], rNNp1Im = state[rIm + p];
+					double yRe = rNNp1Re * fRe - rNNp1Im * fIm + 1.0;
+					double yIm = rNNp1Re * fIm + rNNp1Im * fRe;
+					double zRe = rNNp1Re + fRe, zIm = rNNp1Im + fIm;
+					double zyRe, zyIm;
+					if (Math.abs(yRe) < Math.abs(yIm)) {
+						double ratio = yRe / yIm;
+						double denominator = yRe * ratio + yIm;
+						zyRe = (zRe * ratio + zIm) / denominator;
+						zyIm = (zIm * ratio - zRe) / denominator;
+					} else {
+						double ratio = yIm / yRe;
+						double denominator = yIm * ratio + yRe;
+						zyRe = (zIm * ratio + zRe) / denominator;
+						zyIm = (zIm - zRe * ratio) / denominator;
+					}
+					double aSqRe = aRe * aRe - aIm * aIm;
+					double aSqIm = aRe * aIm + aIm * aRe;
+					// Carry over to the next iteration
+					state[rRe + p] = aSqRe * zyRe - aSqIm * zyIm;
+					state[rIm + p] = aSqRe * zyIm + aSqIm * zyRe;
+				}
+			}
+
+			for (int p = start; p < end; p++) {
+				double re = state[rRe + p], im = state[rIm + p];
+				modSqrdSpecRef[p] = re * re + im * im;
+			}
+
+			return;
+		}
+
+		/**
+		 * This operation copies the state of the points of this task.
+		 *
+		 * @param from
+		 *            the state to copy
+		 * @param to
+		 *            the state that receives the copy
+		 */
+		private void copyState(double[] from, double[] to) {
+			int numPoints = waveVector.length;
+			for (int offset = 0; offset < 4 * numPoints; offset += numPoints) {
+				System.arraycopy(from, offset + start, to, offset + start, end
+						- start);
+			}
+		}
+
+		/**
+		 * This operation computes the square root of a complex number like
+		 * Complex.sqrt() and stores its real and imaginary parts in the state.
+		 *
+		 * @param real
+		 *            the real part
+		 * @param imaginary
+		 *            the imaginary part
+		 * @param state
+		 *            the array that receives the square root
+		 * @param realIndex
+		 *            the index of the real part of the square root
+		 * @param imaginaryIndex
+		 *            the index of the imaginary part of the square root
+		 */
+		private static void sqrt(double real, double imaginary,
+				double[] state, int realIndex, int imaginaryIndex) {
+
+			if (real == 0.0 && imaginary == 0.0) {
+				state[realIndex] = 0.0;
+				state[imaginaryIndex] = 0.0;
+				return;
+			}
+
+			// The modulus, computed like Complex.abs()
+			double abs;
+			if (Math.abs(real) < Math.abs(imaginary)) {
+				double ratio = real / imaginary;
+				abs = Math.abs(imaginary) * Math.sqrt(1.0 + ratio * ratio);
+			} else {
+				double ratio = imaginary / real;
+				abs = Math.abs(real) * Math.sqrt(1.0 + ratio * ratio);
+			}
+
+			double t = Math.sqrt((Math.abs(real) + abs) / 2.0);
+			if (real >= 0.0) {
+				state[realIndex] = t;
+				state[imaginaryIndex] = imaginary / (2.0 * t);
+			} else {
+				state[realIndex] = Math.abs(imaginary) / (2.0 * t);
+				state[imaginaryIndex] = (imaginary >= 0.0 ? 1.0 : -1.0) * t;
+			}
+
+			return;
+		}
+	}
+
 	/**
 	 * This operation convolutes the data in refFit with a Gaussian resolution
 	 * function in q, calculated from theta, delThe, and delLamOLam.
@@ -634,55 +986,22 @@ public class ReflectivityCalculator {
 			double wavelength, boolean getRQ4, double[] waveVector, Tile[] tiles) {
 
 		// Local Declarations
-		double qEff = 0.0;
-		int numPoints = waveVector.length, numLowPoints = 0, numHighPoints = 0;
+		int numPoints = waveVector.length;
 		double[] reflectivity = new double[numPoints];
 
-		// Determine the length of the high- and low-Q extensions
-		numLowPoints = getLowExtensionLength(waveVector, deltaQ0, deltaQ1ByQ,
-				numPoints);
-		numHighPoints = getHighExtensionLength(waveVector, deltaQ0, deltaQ1ByQ,
-				numPoints);
-
-		// Extend the wave vector in a temporary array
-		double[] tempWaveVector = new double[numLowPoints + numHighPoints
-				+ numPoints];
-		double waveVecStep = waveVector[1] - waveVector[0];
-		for (int i = 0; i < numLowPoints; i++) {
-			tempWaveVector[i] = waveVector[0] - waveVecStep
-					* ((double) numLowPoints + 1 - i);
-		}
-		for (int i = 0; i < numPoints; i++) {
-			tempWaveVector[numLowPoints + i] = waveVector[i];
-		}
-		waveVecStep = waveVector[numPoints - 1] - waveVector[numPoints - 2];
-		for (int i = 0; i < numHighPoints; i++) {
-			tempWaveVector[i + numLowPoints + numPoints] = waveVector[numPoints - 1]
-					+ waveVecStep * (i);
-		}
+		// Extend the wave vector and find the resolution function
+		ResolutionKernel kernel = new ResolutionKernel(waveVector, deltaQ0,
+				deltaQ1ByQ);
+		double[] tempWaveVector = kernel.getExtendedWaveVector();
 
-		// Create a temporary array to hold the extended reflectivity.
-		double[] tempReflectivity = new double[numPoints + numLowPoints
-				+ numHighPoints];
 		// Generate reflectivity values for convolution.
 		// Calculate perfect-resolution reflectivity on extended wave vector
-		for (int i = 0; i < numPoints + numLowPoints + numHighPoints; i++) {
-			if (tempWaveVector[i] < 1.0e-10) {
-				qEff = 1.0e-10;
-			} else {
-				qEff = tempWaveVector[i];
-			}
-			tempReflectivity[i] = getModSqrdSpecRef(qEff, wavelength, tiles);
-		}
+		double[] tempReflectivity = new double[tempWaveVector.length];
+		getModSqrdSpecRef(tempWaveVector, wavelength, tiles, tempReflectivity);
 
 		// Convolve with instrumental resolution
-		convolute(tempWaveVector, deltaQ0, deltaQ1ByQ, wavelength, numPoints,
-				numLowPoints, numHighPoints, tempReflectivity);
+		kernel.convolute(tempReflectivity, reflectivity);
 
-		// Transfer the results to the reflectivity array.
-		for (int i = 0; i < numPoints; i++) {
-			reflectivity[i] = tempReflectivity[i];
-		}
 		// Calculate RQ^4 if needed. FIXME! This is not covered by the current
 		// tests and should actually be a separate function!
 		if (getRQ4) {
@@ -0,0 +1,820 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation -
+ *   Jay Jay Billings
+ *******************************************************************************/
+package org.eclipse.ice.reflectivity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.math.MathException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This class fits the parameters of a stack of slabs to measured reflectivity
+ * data, either with the Levenberg-Marquardt algorithm or with differential
+ * evolution. The fitted parameters are added with
+ * {@link #addParameter(int, Parameter, double, double)} and each one is kept
+ * between its bounds.
+ *
+ * The reflectivity of a stack is computed like by
+ * {@link ReflectivityCalculator#getReflectivityProfile(Slab[], int, double, double, double, double[], boolean)}
+ * , but the resolution function of the data is computed only once, the tiles
+ * are cached by a {@link TileCache} and the candidate stacks of each
+ * iteration are evaluated in parallel.
+ *
+ * The convergence of each fit is recorded as the chi squared value, the
+ * number of evaluations and the number of evaluations per second after each
+ * iteration.
+ */
+public class ReflectivityFitter {
+
+	/**
+	 * The slab properties that can be fitted.
+	 */
+	public enum Parameter {
+		Thickness, Roughness, ScatteringLength, TrueAbsorption, IncoherentAbsorption
+	}
+
+	/**
+	 * Logger for handling event messages and other information.
+	 */
+	private static final Logger logger = LoggerFactory
+			.getLogger(ReflectivityFitter.class);
+
+	/**
+	 * The pool that evaluates the candidate stacks in parallel, shared by all
+	 * fitters.
+	 */
+	private static final ForkJoinPool pool = new ForkJoinPool();
+
+	/**
+	 * The step, relative to the range of the parameter, used to compute the
+	 * derivatives for the Levenberg-Marquardt algorithm.
+	 */
+	private static final double derivativeStep = 1.0e-6;
+
+	/**
+	 * The initial slabs. They are not modified.
+	 */
+	private final Slab[] slabs;
+
+	/**
+	 * The wavelength of the incident neutrons.
+	 */
+	private final double wavelength;
+
+	/**
+	 * The wave vector of the data.
+	 */
+	private final double[] waveVector;
+
+	/**
+	 * The resolution function of the data.
+	 */
+	private final ResolutionKernel kernel;
+
+	/**
+	 * The measured reflectivity.
+	 */
+	private final double[] data;
+
+	/**
+	 * The inverse of the error of each measured point, or 1.0 if it has no
+	 * error.
+	 */
+	private final double[] weights;
+
+	/**
+	 * The index of the slab of each fitted parameter.
+	 */
+	private final ArrayList<Integer> parameterSlabs;
+
+	/**
+	 * The property of each fitted parameter.
+	 */
+	private final ArrayList<Parameter> parameters;
+
+	/**
+	 * The lower and upper bounds of each fitted parameter.
+	 */
+	private final ArrayList<double[]> bounds;
+
+	/**
+	 * The cache of the tiles of the interfaces of each slab.
+	 */
+	private final TileCache tileCache;
+
+	/**
+	 * The calculator.
+	 */
+	private final ReflectivityCalculator calculator;
+
+	/**
+	 * The number of stacks evaluated so far.
+	 */
+	private final AtomicLong evaluations;
+
+	/**
+	 * The best values of the parameters found so far.
+	 */
+	private double[] values;
+
+	/**
+	 * The iteration, chi squared value, number of evaluations and number of
+	 * evaluations per second after each iteration of the last fit.
+	 */
+	private final ArrayList<double[]> history;
+
+	/**
+	 * The constructor.
+	 *
+	 * @param slabs
+	 *            the slabs that define the material, with the initial values
+	 *            of the parameters. They are not modified by the fit.
+	 * @param numRough
+	 *            the number of layers of roughness
+	 * @param deltaQ0
+	 *            the zeroth order term of the Q resolution Taylor expansion
+	 * @param deltaQ1ByQ
+	 *            the first order term of the Q resolution Taylor expansion
+	 * @param wavelength
+	 *            the wavelength of the incident neutrons
+	 * @param waveVector
+	 *            the wave vector of the data
+	 * @param data
+	 *            the measured reflectivity at each point of the wave vector
+	 * @param error
+	 *            the error of each measured point
+	 * @throws MathException
+	 *             Thrown if the interfacial profile cannot be calculated
+	 */
+	public ReflectivityFitter(Slab[] slabs, int numRough, double deltaQ0,
+			double deltaQ1ByQ, double wavelength, double[] waveVector,
+			double[] data, double[] error) throws MathException {
+
+		this.slabs = slabs;
+		this.wavelength = wavelength;
+		this.waveVector = waveVector;
+		this.data = data;
+		calculator = new ReflectivityCalculator();
+		tileCache = new TileCache(numRough);
+
+		// Precompute the resolution function and the weights of the data
+		kernel = new ResolutionKernel(waveVector, deltaQ0, deltaQ1ByQ);
+		weights = new double[data.length];
+		for (int i = 0; i < data.length; i++) {
+			weights[i] = (error[i] > 0.0) ? 1.0 / error[i] : 1.0;
+		}
+
+		parameterSlabs = new ArrayList<Integer>();
+		parameters = new ArrayList<Parameter>();
+		bounds = new ArrayList<double[]>();
+		values = new double[0];
+		evaluations = new AtomicLong();
+		history = new ArrayList<double[]>();
+	}
+
+	/**
+	 * This operation adds a parameter to the fit. Its initial value is the
+	 * value of the slab, kept between the bounds.
+	 *
+	 * @param slab
+	 *            the index of the slab
+	 * @param parameter
+	 *            the property of the slab to fit
+	 * @param min
+	 *            the lower bound of the parameter
+	 * @param max
+	 *            the upper bound of the parameter
+	 * @throws IllegalArgumentException
+	 *             Thrown if the slab does not exist or if the bounds are not
+	 *             increasing
+	 */
+	public void addParameter(int slab, Parameter parameter, double min,
+			double max) throws IllegalArgumentException {
+
+		if (slab < 0 || slab >= slabs.length || !(min < max)) {
+			throw new IllegalArgumentException("ReflectivityFitter Message: "
+					+ "Invalid parameter " + parameter + " of slab " + slab
+					+ " in [" + min + ", " + max + "].");
+		}
+
+		parameterSlabs.add(slab);
+		parameters.add(parameter);
+		bounds.add(new double[] { min, max });
+		values = Arrays.copyOf(values, values.length + 1);
+		values[values.length - 1] = Math.min(max,
+				Math.max(min, getValue(slabs[slab], parameter)));
+
+		return;
+	}
+
+	/**
+	 * This operation returns the current values of the fitted parameters, in
+	 * the order in which they were added. After a fit, they are the best
+	 * values found.
+	 *
+	 * @return the values
+	 */
+	public double[] getValues() {
+		return values.clone();
+	}
+
+	/**
+	 * This operation returns a copy of the slabs with the current values of
+	 * the fitted parameters.
+	 *
+	 * @return the fitted slabs
+	 */
+	public Slab[] getSlabs() {
+		return createSlabs(values);
+	}
+
+	/**
+	 * This operation returns the number of stacks evaluated so far.
+	 *
+	 * @return the number of evaluations
+	 */
+	public long getNumberOfEvaluations() {
+		return evaluations.get();
+	}
+
+	/**
+	 * This operation returns the convergence history of the last fit. Each
+	 * element holds the iteration, the best chi squared value, the number of
+	 * evaluations since the start of the fit and the number of evaluations
+	 * per second.
+	 *
+	 * @return the history
+	 */
+	public ArrayList<double[]> getHistory() {
+		return new ArrayList<double[]>(history);
+	}
+
+	/**
+	 * This operation computes the reflectivity of the stack with the given
+	 * values of the parameters, convoluted with the resolution function.
+	 *
+	 * @param values
+	 *            the values of the fitted parameters
+	 * @return the reflectivity at each point of the wave vector, or null if
+	 *         the tiles could not be generated
+	 */
+	public double[] getReflectivity(double[] values) {
+
+		double[] reflectivity = null;
+
+		try {
+			// Create the slabs and correct the refractive indices for the
+			// incident medium. If they are used as the tiles, they are
+			// un-corrected like in getReflectivityProfile().
+			Slab[] stack = createSlabs(values);
+			double qCCorr = stack[0].scatteringLength;
+			boolean unCorrect = (tileCache.getNumRough() == 1);
+			for (int i = 0; i < stack.length; i++) {
+				stack[i].scatteringLength -= qCCorr;
+				if (unCorrect) {
+					stack[i].scatteringLength += qCCorr;
+				}
+			}
+
+			// Get the tiles and compute the reflectivity
+			Tile[] tiles = tileCache.getTiles(stack);
+			double[] extendedWaveVector = kernel.getExtendedWaveVector();
+			double[] extendedReflectivity = new double[extendedWaveVector.length];
+			calculator.getModSqrdSpecRef(extendedWaveVector, wavelength, tiles,
+					extendedReflectivity);
+			reflectivity = new double[waveVector.length];
+			kernel.convolute(extendedReflectivity, reflectivity);
+		} catch (MathException e) {
+			logger.error(getClass().getName() + " Exception!", e);
+		}
+		evaluations.incrementAndGet();
+
+		return reflectivity;
+	}
+
+	/**
+	 * This operation returns the chi squared value of a reflectivity, which is
+	 * the sum of the squared differences with the data divided by the error.
+	 *
+	 * @param reflectivity
+	 *            the reflectivity at each point of the wave vector
+	 * @return the chi squared value, or infinity if the reflectivity is null
+	 */
+	public double getChiSquared(double[] reflectivity) {
+		if (reflectivity == null) {
+			return Double.POSITIVE_INFINITY;
+		}
+		double chiSquared = 0.0;
+		for (int i = 0; i < data.length; i++) {
+			double residual = (reflectivity[i] - data[i]) * weights[i];
+			chiSquared += residual * residual;
+		}
+		// NaNs would otherwise be accepted as improvements
+		return Double.isNaN(chiSquared) ? Double.POSITIVE_INFINITY
+				: chiSquared;
+	}
+
+	/**
+	 * This operation fits the parameters with the Levenberg-Marquardt
+	 * algorithm. The derivatives are computed with finite differences and the
+	 * steps for several damping factors are tried at once in each iteration.
+	 *
+	 * @param maxIterations
+	 *            the largest number of iterations
+	 * @param tolerance
+	 *            the relative decrease of the chi squared value below which
+	 *            the fit is converged
+	 * @return the best chi squared value
+	 */
+	public double fitLevenbergMarquardt(int maxIterations, double tolerance) {
+
+		// Local Declarations
+		int nParams = values.length;
+		long start = System.nanoTime(), firstEvaluation = evaluations.get();
+		double[] u = normalize(values);
+		double[] reflectivity = getReflectivity(values);
+		double chiSquared = getChiSquared(reflectivity);
+		double lambda = 1.0e-3;
+		double[] dampings = { 0.1, 1.0, 10.0, 100.0 };
+
+		history.clear();
+		record(0, chiSquared, start, firstEvaluation);
+
+		for (int iteration = 1; iteration <= maxIterations && nParams > 0
+				&& reflectivity != null; iteration++) {
+
+			// Compute the derivatives, evaluating the perturbed stacks in
+			// parallel
+			double[][] candidates = new double[nParams][];
+			double[] steps = new double[nParams];
+			for (int j = 0; j < nParams; j++) {
+				candidates[j] = u.clone();
+				steps[j] = (u[j] + derivativeStep <= 1.0) ? derivativeStep
+						: -derivativeStep;
+				candidates[j][j] += steps[j];
+			}
+			double[][] perturbed = evaluate(candidates);
+			double[][] jacobian = new double[nParams][data.length];
+			for (int j = 0; j < nParams; j++) {
+				if (perturbed[j] == null) {
+					continue;
+				}
+				for (int i = 0; i < data.length; i++) {
+					jacobian[j][i] = (perturbed[j][i] - reflectivity[i])
+							* weights[i] / steps[j];
+				}
+			}
+
+			// Compute the normal equations J^T J and J^T r
+			double[][] alpha = new double[nParams][nParams];
+			double[] beta = new double[nParams];
+			for (int j = 0; j < nParams; j++) {
+				for (int k = 0; k <= j; k++) {
+					double sum = 0.0;
+					for (int i = 0; i < data.length; i++) {
+						sum += jacobian[j][i] * jacobian[k][i];
+					}
+					alpha[j][k] = sum;
+					alpha[k][j] = sum;
+				}
+				double sum = 0.0;
+				for (int i = 0; i < data.length; i++) {
+					sum -= jacobian[j][i] * (reflectivity[i] - data[i])
+							* weights[i];
+				}
+				beta[j] = sum;
+			}
+
+			// Try the steps for several damping factors at once until one of
+			// them lowers the chi squared value
+			boolean improved = false;
+			double[][] steppedValues = new double[dampings.length][];
+			for (int attempt = 0; attempt < 5 && !improved; attempt++) {
+				for (int d = 0; d < dampings.length; d++) {
+					steppedValues[d] = clamp(add(u,
+							solve(alpha, beta, lambda * dampings[d])));
+				}
+				double[][] trials = evaluate(steppedValues);
+				int best = -1;
+				double bestChiSquared = chiSquared;
+				for (int d = 0; d < dampings.length; d++) {
+					double trialChiSquared = getChiSquared(trials[d]);
+					if (trialChiSquared < bestChiSquared) {
+						best = d;
+						bestChiSquared = trialChiSquared;
+					}
+				}
+				if (best >= 0) {
+					// Start the next iteration with less damping than the
+					// best step
+					improved = true;
+					lambda *= dampings[best] / 10.0;
+					u = steppedValues[best];
+					reflectivity = trials[best];
+					double decrease = (chiSquared - bestChiSquared)
+							/ chiSquared;
+					chiSquared = bestChiSquared;
+					values = denormalize(u);
+					record(iteration, chiSquared, start, firstEvaluation);
+					if (decrease < tolerance) {
+						return chiSquared;
+					}
+				} else {
+					lambda *= 1000.0;
+				}
+			}
+
+			// Stop if no step helps
+			if (!improved) {
+				break;
+			}
+		}
+
+		return chiSquared;
+	}
+
+	/**
+	 * This operation fits the parameters with differential evolution, using
+	 * the rand/1/bin strategy. The population is started around the whole
+	 * range of the parameters, with the current values as one of its members,
+	 * and the trial members of each generation are evaluated in parallel.
+	 *
+	 * @param maxGenerations
+	 *            the largest number of generations
+	 * @param tolerance
+	 *            the relative spread of the chi squared values of the
+	 *            population below which the fit is converged
+	 * @param seed
+	 *            the seed of the random number generator
+	 * @return the best chi squared value
+	 */
+	public double fitDifferentialEvolution(int maxGenerations,
+			double tolerance, long seed) {
+
+		// Local Declarations
+		int nParams = values.length;
+		int size = Math.max(15, 10 * nParams);
+		double weight = 0.7, crossover = 0.9;
+		Random random = new Random(seed);
+		long start = System.nanoTime(), firstEvaluation = evaluations.get();
+
+		// Create the population
+		double[][] population = new double[size][];
+		population[0] = normalize(values);
+		for (int m = 1; m < size; m++) {
+			population[m] = new double[nParams];
+			for (int j = 0; j < nParams; j++) {
+				population[m][j] = random.nextDouble();
+			}
+		}
+		double[] chiSquared = new double[size];
+		double[][] reflectivities = evaluate(population);
+		int best = 0;
+		for (int m = 0; m < size; m++) {
+			chiSquared[m] = getChiSquared(reflectivities[m]);
+			if (chiSquared[m] < chiSquared[best]) {
+				best = m;
+			}
+		}
+
+		history.clear();
+		record(0, chiSquared[best], start, firstEvaluation);
+
+		double[][] trials = new double[size][];
+		for (int generation = 1; generation <= maxGenerations
+				&& nParams > 0; generation++) {
+
+			// Create the trial members
+			for (int m = 0; m < size; m++) {
+				int a, b, c;
+				do {
+					a = random.nextInt(size);
+				} while (a == m);
+				do {
+					b = random.nextInt(size);
+				} while (b == m || b == a);
+				do {
+					c = random.nextInt(size);
+				} while (c == m || c == a || c == b);
+				int forced = random.nextInt(nParams);
+				trials[m] = population[m].clone();
+				for (int j = 0; j < nParams; j++) {
+					if (j == forced || random.nextDouble() < crossover) {
+						trials[m][j] = population[a][j] + weight
+								* (population[b][j] - population[c][j]);
+					}
+				}
+				trials[m] = clamp(trials[m]);
+			}
+
+			// Evaluate them and keep the better members
+			reflectivities = evaluate(trials);
+			double worst = 0.0;
+			for (int m = 0; m < size; m++) {
+				double trialChiSquared = getChiSquared(reflectivities[m]);
+				if (trialChiSquared <= chiSquared[m]) {
+					population[m] = trials[m];
+					chiSquared[m] = trialChiSquared;
+				}
+				if (chiSquared[m] < chiSquared[best]) {
+					best = m;
+				}
+				worst = Math.max(worst, chiSquared[m]);
+			}
+			values = denormalize(population[best]);
+			record(generation, chiSquared[best], start, firstEvaluation);
+
+			// Stop when the population has gathered around the best member
+			if (worst - chiSquared[best] <= tolerance * chiSquared[best]) {
+				break;
+			}
+		}
+		values = denormalize(population[best]);
+
+		return chiSquared[best];
+	}
+
+	/**
+	 * This operation computes the reflectivity of several candidates in
+	 * parallel.
+	 *
+	 * @param candidates
+	 *            the normalized values of the parameters of each candidate
+	 * @return the reflectivity of each candidate
+	 */
+	private double[][] evaluate(double[][] candidates) {
+		double[][] reflectivities = new double[candidates.length][];
+		pool.invoke(new EvaluationTask(candidates, reflectivities, 0,
+				candidates.length));
+		return reflectivities;
+	}
+
+	/**
+	 * This class computes the reflectivity of a range of candidates, splitting
+	 * the range between the threads of the pool.
+	 */
+	private class EvaluationTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The normalized values of the candidates and their reflectivities.
+		 */
+		private final double[][] candidates, reflectivities;
+
+		/**
+		 * The range of candidates of this task.
+		 */
+		private final int start, end;
+
+		public EvaluationTask(double[][] candidates,
+				double[][] reflectivities, int start, int end) {
+			this.candidates = candidates;
+			this.reflectivities = reflectivities;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - start > 1) {
+				int middle = (start + end) >>> 1;
+				invokeAll(new EvaluationTask(candidates, reflectivities,
+						start, middle), new EvaluationTask(candidates,
+						reflectivities, middle, end));
+			} else if (end > start) {
+				reflectivities[start] = getReflectivity(denormalize(candidates[start]));
+			}
+			return;
+		}
+	}
+
+	/**
+	 * This operation copies the slabs and sets the values of the fitted
+	 * parameters.
+	 *
+	 * @param values
+	 *            the values of the parameters
+	 * @return the new slabs
+	 */
+	private Slab[] createSlabs(double[] values) {
+		Slab[] stack = new Slab[slabs.length];
+		for (int i = 0; i < slabs.length; i++) {
+			stack[i] = new Slab();
+			stack[i].scatteringLength = slabs[i].scatteringLength;
+			stack[i].trueAbsLength = slabs[i].trueAbsLength;
+			stack[i].incAbsLength = slabs[i].incAbsLength;
+			stack[i].thickness = slabs[i].thickness;
+			stack[i].interfaceWidth = slabs[i].interfaceWidth;
+		}
+		for (int j = 0; j < values.length; j++) {
+			Slab slab = stack[parameterSlabs.get(j)];
+			switch (parameters.get(j)) {
+			case Thickness:
+				slab.thickness = values[j];
+				break;
+			case Roughness:
+				slab.interfaceWidth = values[j];
+				break;
+			case ScatteringLength:
+				slab.scatteringLength = values[j];
+				break;
+			case TrueAbsorption:
+				slab.trueAbsLength = values[j];
+				break;
+			case IncoherentAbsorption:
+				slab.incAbsLength = values[j];
+				break;
+			}
+		}
+		return stack;
+	}
+
+	/**
+	 * This operation returns the value of a property of a slab.
+	 *
+	 * @param slab
+	 *            the slab
+	 * @param parameter
+	 *            the property
+	 * @return the value
+	 */
+	private double getValue(Slab slab, Parameter parameter) {
+		switch (parameter) {
+		case Thickness:
+			return slab.thickness;
+		case Roughness:
+			return slab.interfaceWidth;
+		case ScatteringLength:
+			return slab.scatteringLength;
+		case TrueAbsorption:
+			return slab.trueAbsLength;
+		default:
+			return slab.incAbsLength;
+		}
+	}
+
+	/**
+	 * This operation maps the values of the parameters from their bounds to
+	 * [0,1], so that the parameters have similar scales.
+	 *
+	 * @param values
+	 *            the values of the parameters
+	 * @return the normalized values
+	 */
+	private double[] normalize(double[] values) {
+		double[] u = new double[values.length];
+		for (int j = 0; j < values.length; j++) {
+			double[] range = bounds.get(j);
+			u[j] = (values[j] - range[0]) / (range[1] - range[0]);
+		}
+		return u;
+	}
+
+	/**
+	 * This operation maps normalized values back to the bounds of the
+	 * parameters.
+	 *
+	 * @param u
+	 *            the normalized values
+	 * @return the values of the parameters
+	 */
+	private double[] denormalize(double[] u) {
+		double[] values = new double[u.length];
+		for (int j = 0; j < u.length; j++) {
+			double[] range = bounds.get(j);
+			values[j] = range[0] + u[j] * (range[1] - range[0]);
+		}
+		return values;
+	}
+
+	/**
+	 * This operation keeps normalized values in [0,1].
+	 *
+	 * @param u
+	 *            the normalized values, which are modified
+	 * @return the normalized values
+	 */
+	private double[] clamp(double[] u) {
+		for (int j = 0; j < u.length; j++) {
+			u[j] = Math.min(1.0, Math.max(0.0, u[j]));
+		}
+		return u;
+	}
+
+	/**
+	 * This operation adds two vectors.
+	 *
+	 * @param u
+	 *            the first vector
+	 * @param delta
+	 *            the second vector
+	 * @return the sum
+	 */
+	private double[] add(double[] u, double[] delta) {
+		double[] sum = new double[u.length];
+		for (int j = 0; j < u.length; j++) {
+			sum[j] = u[j] + delta[j];
+		}
+		return sum;
+	}
+
+	/**
+	 * This operation solves the damped normal equations (alpha + lambda *
+	 * diag(alpha)) delta = beta by Gaussian elimination with partial pivoting.
+	 *
+	 * @param alpha
+	 *            the matrix J^T J
+	 * @param beta
+	 *            the vector -J^T r
+	 * @param lambda
+	 *            the damping factor
+	 * @return the step, which is zero where the system is singular
+	 */
+	private double[] solve(double[][] alpha, double[] beta, double lambda) {
+
+		// Create the augmented matrix
+		int n = beta.length;
+		double[][] a = new double[n][n + 1];
+		for (int j = 0; j < n; j++) {
+			System.arraycopy(alpha[j], 0, a[j], 0, n);
+			a[j][j] += lambda * (alpha[j][j] > 0.0 ? alpha[j][j] : 1.0);
+			a[j][n] = beta[j];
+		}
+
+		// Eliminate
+		for (int k = 0; k < n; k++) {
+			int pivot = k;
+			for (int j = k + 1; j < n; j++) {
+				if (Math.abs(a[j][k]) > Math.abs(a[pivot][k])) {
+					pivot = j;
+				}
+			}
+			double[] row = a[k];
+			a[k] = a[pivot];
+			a[pivot] = row;
+			if (a[k][k] == 0.0) {
+				continue;
+			}
+			for (int j = k + 1; j < n; j++) {
+				double factor = a[j][k] / a[k][k];
+				for (int l = k; l <= n; l++) {
+					a[j][l] -= factor * a[k][l];
+				}
+			}
+		}
+
+		// Substitute back
+		double[] delta = new double[n];
+		for (int k = n - 1; k >= 0; k--) {
+			if (a[k][k] == 0.0) {
+				continue;
+			}
+			double sum = a[k][n];
+			for (int l = k + 1; l < n; l++) {
+				sum -= a[k][l] * delta[l];
+			}
+			delta[k] = sum / a[k][k];
+		}
+
+		return delta;
+	}
+
+	/**
+	 * This operation records an iteration in the history.
+	 *
+	 * @param iteration
+	 *            the iteration
+	 * @param chiSquared
+	 *            the best chi squared value
+	 * @param start
+	 *            the start time of the fit in nanoseconds
+	 * @param firstEvaluation
+	 *            the number of evaluations at the start of the fit
+	 */
+	private void record(int iteration, double chiSquared, long start,
+			long firstEvaluation) {
+		long count = evaluations.get() - firstEvaluation;
+		double seconds = (System.nanoTime() - start) / 1.0e9;
+		history.add(new double[] { iteration, chiSquared, count,
+				seconds > 0.0 ? count / seconds : 0.0 });
+		logger.info("ReflectivityFitter Message: Iteration " + iteration
+				+ ", chi squared = " + chiSquared + ", " + count
+				+ " evaluations.");
+	}
+}
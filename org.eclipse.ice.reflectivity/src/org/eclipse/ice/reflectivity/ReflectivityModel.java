@@ -16,12 +16,22 @@ import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlTransient;
 
+import org.apache.commons.math.MathException;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.ice.csv.CSVParser;
+import org.eclipse.ice.datastructures.ICEObject.IUpdateable;
 import org.eclipse.ice.datastructures.ICEObject.ListComponent;
 import org.eclipse.ice.datastructures.form.AllowedValueType;
 import org.eclipse.ice.datastructures.form.DataComponent;
@@ -31,7 +41,6 @@ import org.eclipse.ice.datastructures.form.FormStatus;
 import org.eclipse.ice.datastructures.form.Material;
 import org.eclipse.ice.datastructures.form.ResourceComponent;
 import org.eclipse.ice.datastructures.resource.VizResource;
-import org.eclipse.ice.io.csv.CSVReader;
 import org.eclipse.ice.item.model.Model;
 import org.eclipse.ice.materials.IMaterialsDatabase;
 import org.eclipse.ice.materials.MaterialWritableTableFormat;
@@ -55,6 +64,11 @@ public class ReflectivityModel extends Model {
 	 */
 	private final String processActionName = "Calculate Reflectivity";
 
+	/**
+	 * The process action name for fitting the layers to the data.
+	 */
+	private final String fitActionName = "Fit Reflectivity";
+
 	/**
 	 * The name for the wave vector entry.
 	 */
@@ -80,6 +94,26 @@ public class ReflectivityModel extends Model {
 	 */
 	private static final String WaveLengthEntryName = "Wave Length";
 
+	/**
+	 * The fit method entry name.
+	 */
+	private static final String FitMethodEntryName = "Fit Method";
+
+	/**
+	 * The fit iterations entry name.
+	 */
+	private static final String FitIterationsEntryName = "Fit Iterations";
+
+	/**
+	 * The Levenberg-Marquardt fit method.
+	 */
+	private static final String LevenbergMarquardt = "Levenberg-Marquardt";
+
+	/**
+	 * The differential evolution fit method.
+	 */
+	private static final String DifferentialEvolution = "Differential Evolution";
+
 	/**
 	 * The entry name for the chi squared analysis entry
 	 */
@@ -113,6 +147,80 @@ public class ReflectivityModel extends Model {
 	 */
 	public static final int outputCompId = 4;
 
+	/**
+	 * Identification number for the resource that contains the convergence of
+	 * the last fit.
+	 */
+	private static final int fitResourceId = 4;
+
+	/**
+	 * The time in milliseconds to wait after an edit of the material list
+	 * before calculating the reflectivity again, so that a burst of edits
+	 * only triggers one calculation.
+	 */
+	private static final long recalculationDelay = 150;
+
+	/**
+	 * The thread that calculates the reflectivity after edits, shared by all
+	 * of the models.
+	 */
+	private static final ScheduledExecutorService recalculationExecutor = Executors
+			.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable,
+							"Reflectivity Recalculation");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+
+	/**
+	 * The calculator that keeps the tiles and reflectivity of the last
+	 * calculation, so that edits only compute what changed.
+	 */
+	@XmlTransient
+	private IncrementalReflectivityCalculator incrementalCalculator;
+
+	/**
+	 * The calculation scheduled after the last edit, or null if there is
+	 * none.
+	 */
+	@XmlTransient
+	private ScheduledFuture<?> pendingRecalculation;
+
+	/**
+	 * True if the reflectivity has been calculated, after which it is
+	 * calculated again when the material list is edited.
+	 */
+	@XmlTransient
+	private volatile boolean calculated;
+
+	/**
+	 * True while the layers are fitted to the data. Edits of the material list
+	 * made by the fit are not calculated again.
+	 */
+	@XmlTransient
+	private volatile boolean fitting;
+
+	/**
+	 * The material list that this model listens to, which changes when a Form
+	 * is loaded or submitted.
+	 */
+	@XmlTransient
+	private ListComponent<Material> listenedMatList;
+
+	/**
+	 * The name and modification stamp of the last data file that was read and
+	 * the wave vector, data and error that were read from it.
+	 */
+	@XmlTransient
+	private String userDataFileName;
+	@XmlTransient
+	private long userDataStamp;
+	@XmlTransient
+	private double[][] cachedUserData;
+
 	/**
 	 * The constructor.
 	 */
@@ -135,12 +243,14 @@ public class ReflectivityModel extends Model {
 	/**
 	 * If the action name is ReflectivityModel.processActionName, then
 	 * calculates the reflectivity and scattering density profiles for the
-	 * material layers and input fields.
+	 * material layers and input fields. Calls are serialized, so a
+	 * recalculation after an edit never overlaps a calculation or fit started
+	 * by the user.
 	 *
 	 * @see {@link org.eclipse.ice.item.Item#process(String)}
 	 */
 	@Override
-	public FormStatus process(String actionName) {
+	public synchronized FormStatus process(String actionName) {
 
 		// Local Declarations. Return this value to display the process status
 		// on the form.
@@ -148,24 +258,8 @@ public class ReflectivityModel extends Model {
 
 		if (actionName.equals(processActionName)) {
 
-			// Get the material list from the form.
-			ListComponent<Material> matList = (ListComponent<Material>) form
-					.getComponent(matListId);
-			ArrayList<Slab> slabs = new ArrayList<Slab>();
-
 			// Create the slabs from the materials
-			for (Material mat : matList) {
-				Slab slab = new Slab();
-				slab.thickness = mat.getProperty("Thickness (A)");
-				slab.interfaceWidth = mat.getProperty("Roughness (A)");
-				slab.scatteringLength = mat
-						.getProperty(Material.SCAT_LENGTH_DENSITY);
-				slab.trueAbsLength = mat
-						.getProperty(Material.MASS_ABS_COHERENT);
-				slab.incAbsLength = mat
-						.getProperty(Material.MASS_ABS_INCOHERENT);
-				slabs.add(slab);
-			}
+			ArrayList<Slab> slabs = createSlabs();
 
 			// Get the roughness from the form.
 			int numRough = Integer
@@ -190,50 +284,30 @@ public class ReflectivityModel extends Model {
 			// Get the wave vector, r data, and error bars from the file picker
 			// in the paramters
 			// component.
-			double[] waveVector;
-			double[] rData;
-			double[] error;
-			String fileName = ((DataComponent) form.getComponent(paramsCompId))
-					.retrieveEntry(WaveEntryName).getValue();
-
-			// Get the file that should have been pulled into the local project.
-			IFile userDataFile = project.getFile(fileName);
-
-			// Get the reader and read in the values.
-			Form dataForm = new CSVReader().read(userDataFile);
-			ListComponent<String[]> userData = (ListComponent<String[]>) dataForm
-					.getComponent(1);
-
-			// Pull the data from the form into an array.
-			waveVector = new double[userData.size()];
-			rData = new double[userData.size()];
-			error = new double[userData.size()];
-			for (int i = 0; i < userData.size(); i++) {
-				String[] dataLine = userData.get(i);
-				double waveDataPoint = Double.parseDouble(dataLine[0]);
-				waveVector[i] = waveDataPoint;
-				double rDataPoint = Double.parseDouble(dataLine[1]);
-				rData[i] = rDataPoint;
-				double errorDataPoint = Double.parseDouble(dataLine[2]);
-				error[i] = errorDataPoint;
+			double[][] userData = loadUserData();
+			double[] waveVector = userData[0];
+			double[] rData = userData[1];
+			double[] error = userData[2];
+
+			// Calculate the reflectivity, only computing again the tiles and
+			// reflectivity that changed since the last calculation
+			ReflectivityProfile profile = getIncrementalCalculator()
+					.getReflectivityProfile(
+							slabs.toArray(new Slab[slabs.size()]), numRough,
+							deltaQ0, deltaQ1ByQ, wavelength, waveVector);
+			if (profile == null) {
+				return FormStatus.InfoError;
 			}
 
-			// Calculate the reflectivity - first is regular R calculation
-			ReflectivityCalculator calculator = new ReflectivityCalculator();
-			ReflectivityProfile profile = calculator.getReflectivityProfile(
-					slabs.toArray(new Slab[slabs.size()]), numRough, deltaQ0,
-					deltaQ1ByQ, wavelength, waveVector, false);
-
-			// The second profile is for the QR^4 data model
-			ReflectivityProfile rq4Profile = calculator.getReflectivityProfile(
-					slabs.toArray(new Slab[slabs.size()]), numRough, deltaQ0,
-					deltaQ1ByQ, wavelength, waveVector, true);
-
-			// Get the data from the profile
+			// Get the data from the profile. The QR^4 data model is the same
+			// reflectivity multiplied by Q^4.
 			double[] reflectivity = profile.reflectivity;
 			double[] scatDensity = profile.scatteringDensity;
 			double[] depth = profile.depth;
-			double[] rq4 = rq4Profile.reflectivity;
+			double[] rq4 = new double[reflectivity.length];
+			for (int i = 0; i < reflectivity.length; i++) {
+				rq4[i] = Math.pow(waveVector[i], 4.0) * reflectivity[i];
+			}
 			double[] rq4Data = new double[rq4.length];
 
 			// Get the chi squared analysis from the data and calculate rq4
@@ -421,8 +495,13 @@ public class ReflectivityModel extends Model {
 			// Return processed if the value has not already been set.
 			if (retVal == null) {
 				retVal = FormStatus.Processed;
+				calculated = true;
 			}
 
+			// Fit the layers to the data
+		} else if (actionName.equals(fitActionName)) {
+			retVal = fit();
+
 			// Some other process action.
 		} else {
 			retVal = super.process(actionName);
@@ -432,6 +511,333 @@ public class ReflectivityModel extends Model {
 		return retVal;
 	}
 
+	/**
+	 * This operation fits the thickness, roughness and scattering length
+	 * density of the layers below the incident medium to the data, within 50%
+	 * of their current values. Values of zero and the thickness of the
+	 * substrate are not fitted. The fitted values are put in the material
+	 * list, the reflectivity is calculated again with them and the chi
+	 * squared value and number of evaluations per second of each iteration of
+	 * the fit are written to a file in the resource component.
+	 *
+	 * @return the status of the fit
+	 */
+	private FormStatus fit() {
+
+		// Do not calculate the edits made by the fit
+		fitting = true;
+		try {
+			return fitLayers();
+		} finally {
+			fitting = false;
+		}
+	}
+
+	/**
+	 * This operation does the work of fit().
+	 *
+	 * @return the status of the fit
+	 */
+	private FormStatus fitLayers() {
+
+		// Get the parameters from the form
+		DataComponent paramComponent = (DataComponent) form
+				.getComponent(paramsCompId);
+		int numRough = Integer.parseInt(paramComponent.retrieveEntry(
+				RoughnessEntryName).getValue());
+		double deltaQ0 = Double.parseDouble(paramComponent.retrieveEntry(
+				deltaQ0EntryName).getValue());
+		double deltaQ1ByQ = Double.parseDouble(paramComponent.retrieveEntry(
+				deltaQ1ByQEntryName).getValue());
+		double wavelength = Double.parseDouble(paramComponent.retrieveEntry(
+				WaveLengthEntryName).getValue());
+
+		// Models saved before the fit was added do not have its entries, so
+		// use their defaults
+		String method = LevenbergMarquardt;
+		int iterations = 50;
+		Entry methodEntry = paramComponent.retrieveEntry(FitMethodEntryName);
+		if (methodEntry != null) {
+			method = methodEntry.getValue();
+		}
+		Entry iterationsEntry = paramComponent
+				.retrieveEntry(FitIterationsEntryName);
+		if (iterationsEntry != null) {
+			iterations = Integer.parseInt(iterationsEntry.getValue());
+		}
+
+		// Get the slabs and the data
+		ArrayList<Slab> slabList = createSlabs();
+		Slab[] slabs = slabList.toArray(new Slab[slabList.size()]);
+		double[][] userData = loadUserData();
+
+		// Create the fitter and add the parameters
+		ReflectivityFitter fitter;
+		try {
+			fitter = new ReflectivityFitter(slabs, numRough, deltaQ0,
+					deltaQ1ByQ, wavelength, userData[0], userData[1],
+					userData[2]);
+		} catch (MathException e) {
+			logger.error(getClass().getName() + " Exception!", e);
+			return FormStatus.InfoError;
+		}
+		for (int i = 1; i < slabs.length; i++) {
+			if (i < slabs.length - 1) {
+				addFitParameter(fitter, i,
+						ReflectivityFitter.Parameter.Thickness,
+						slabs[i].thickness);
+			}
+			addFitParameter(fitter, i, ReflectivityFitter.Parameter.Roughness,
+					slabs[i].interfaceWidth);
+			addFitParameter(fitter, i,
+					ReflectivityFitter.Parameter.ScatteringLength,
+					slabs[i].scatteringLength);
+		}
+
+		// Fit
+		if (DifferentialEvolution.equals(method)) {
+			fitter.fitDifferentialEvolution(iterations, 1.0e-6, 1);
+		} else {
+			fitter.fitLevenbergMarquardt(iterations, 1.0e-6);
+		}
+
+		// Put the fitted values in the materials
+		ListComponent<Material> matList = (ListComponent<Material>) form
+				.getComponent(matListId);
+		Slab[] fittedSlabs = fitter.getSlabs();
+		for (int i = 0; i < fittedSlabs.length; i++) {
+			Material mat = matList.get(i);
+			mat.setProperty("Thickness (A)", fittedSlabs[i].thickness);
+			mat.setProperty("Roughness (A)", fittedSlabs[i].interfaceWidth);
+			mat.setProperty(Material.SCAT_LENGTH_DENSITY,
+					fittedSlabs[i].scatteringLength);
+		}
+
+		// Calculate the reflectivity with the fitted values
+		FormStatus retVal = process(processActionName);
+
+		// Create the csv data for the convergence of the fit
+		StringBuilder fitData = new StringBuilder(
+				"Iteration,ChiSquared,Evaluations,EvaluationsPerSecond\n"
+						+ "#units,N,X2,N,s-1\n");
+		for (double[] iteration : fitter.getHistory()) {
+			fitData.append((int) iteration[0]).append(",")
+					.append(iteration[1]).append(",")
+					.append((long) iteration[2]).append(",")
+					.append(iteration[3]).append("\n");
+		}
+		ByteArrayInputStream fitStream = new ByteArrayInputStream(fitData
+				.toString().getBytes());
+
+		// Write it to the fit file, after the other results
+		ResourceComponent resources = (ResourceComponent) form
+				.getComponent(resourceCompId);
+		IFile fitFile = project.getFile("reflectivityModel_" + form.getId()
+				+ "_fit.csv");
+		try {
+			if (fitFile.exists()) {
+				fitFile.setContents(new BufferedInputStream(fitStream), true,
+						false, null);
+			} else {
+				fitFile.create(fitStream, true, null);
+			}
+			if (!hasResource(resources, fitResourceId)) {
+				VizResource fitSource = new VizResource(fitFile.getLocation()
+						.toFile());
+				fitSource.setName("Fit Convergence File");
+				fitSource.setId(fitResourceId);
+				fitSource.setDescription("Chi squared and evaluations per "
+						+ "second of each iteration of the fit");
+				resources.addResource(fitSource);
+			}
+		} catch (CoreException | IOException e) {
+			logger.error("ReflectivityModel Error: "
+					+ "Problem writing the fit file!");
+			logger.error(getClass().getName() + " Exception!", e);
+			retVal = FormStatus.InfoError;
+		}
+
+		return retVal;
+	}
+
+	/**
+	 * This operation checks whether a resource component holds a resource.
+	 *
+	 * @param resources
+	 *            the resource component
+	 * @param id
+	 *            the id of the resource
+	 * @return true if the component has a resource with the id
+	 */
+	private boolean hasResource(ResourceComponent resources, int id) {
+		for (int i = 0; i < resources.size(); i++) {
+			if (resources.get(i).getId() == id) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * This operation adds a parameter to a fit with bounds at 50% of its value
+	 * on either side, unless the value is zero.
+	 *
+	 * @param fitter
+	 *            the fitter
+	 * @param slab
+	 *            the index of the slab
+	 * @param parameter
+	 *            the property of the slab
+	 * @param value
+	 *            the current value
+	 */
+	private void addFitParameter(ReflectivityFitter fitter, int slab,
+			ReflectivityFitter.Parameter parameter, double value) {
+		if (value != 0.0) {
+			fitter.addParameter(slab, parameter, value - 0.5 * Math.abs(value),
+					value + 0.5 * Math.abs(value));
+		}
+	}
+
+	/**
+	 * This operation calculates the reflectivity again, after a short delay,
+	 * when the material list is edited after the reflectivity has been
+	 * calculated. Edits made during the delay postpone the calculation, so a
+	 * burst of edits only triggers one calculation.
+	 *
+	 * @see org.eclipse.ice.item.Item#update(IUpdateable)
+	 */
+	@Override
+	public void update(IUpdateable component) {
+
+		if (calculated && !fitting
+				&& component == form.getComponent(matListId)) {
+			synchronized (recalculationExecutor) {
+				if (pendingRecalculation != null) {
+					pendingRecalculation.cancel(false);
+				}
+				pendingRecalculation = recalculationExecutor.schedule(
+						new Runnable() {
+							@Override
+							public void run() {
+								if (!fitting) {
+									process(processActionName);
+								}
+							}
+						}, recalculationDelay, TimeUnit.MILLISECONDS);
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation makes this model listen to the material list of its
+	 * current Form, so that edits are calculated again.
+	 */
+	private void listenToMaterials() {
+		ListComponent<Material> matList = (ListComponent<Material>) form
+				.getComponent(matListId);
+		if (matList != null && matList != listenedMatList) {
+			if (listenedMatList != null) {
+				listenedMatList.unregister(this);
+			}
+			matList.register(this);
+			listenedMatList = matList;
+		}
+	}
+
+	/**
+	 * This operation returns the calculator that keeps the results of the last
+	 * calculation, creating it if needed.
+	 *
+	 * @return the calculator
+	 */
+	private synchronized IncrementalReflectivityCalculator getIncrementalCalculator() {
+		if (incrementalCalculator == null) {
+			incrementalCalculator = new IncrementalReflectivityCalculator();
+		}
+		return incrementalCalculator;
+	}
+
+	/**
+	 * This operation creates the slabs from the materials in the material
+	 * list.
+	 *
+	 * @return the slabs, one per material
+	 */
+	private ArrayList<Slab> createSlabs() {
+
+		// Get the material list from the form.
+		ListComponent<Material> matList = (ListComponent<Material>) form
+				.getComponent(matListId);
+		ArrayList<Slab> slabs = new ArrayList<Slab>();
+
+		// Create the slabs from the materials
+		for (Material mat : matList) {
+			Slab slab = new Slab();
+			slab.thickness = mat.getProperty("Thickness (A)");
+			slab.interfaceWidth = mat.getProperty("Roughness (A)");
+			slab.scatteringLength = mat
+					.getProperty(Material.SCAT_LENGTH_DENSITY);
+			slab.trueAbsLength = mat.getProperty(Material.MASS_ABS_COHERENT);
+			slab.incAbsLength = mat.getProperty(Material.MASS_ABS_INCOHERENT);
+			slabs.add(slab);
+		}
+
+		return slabs;
+	}
+
+	/**
+	 * This operation reads the wave vector, the reflectivity data and its
+	 * error bars from the file in the wave vector entry. The file is only read
+	 * again if it is a different file or if it was modified.
+	 *
+	 * @return the wave vector, the data and the error, in that order
+	 */
+	private synchronized double[][] loadUserData() {
+
+		String fileName = ((DataComponent) form.getComponent(paramsCompId))
+				.retrieveEntry(WaveEntryName).getValue();
+
+		// Get the file that should have been pulled into the local project.
+		IFile userDataFile = project.getFile(fileName);
+		long stamp = userDataFile.getModificationStamp();
+		if (cachedUserData != null && fileName.equals(userDataFileName)
+				&& stamp == userDataStamp) {
+			return cachedUserData;
+		}
+
+		// Parse the wave vector, the data and the error straight from the
+		// columns of the file, which does not have a header. Local files are
+		// read directly and the rest are read from their contents.
+		CSVParser parser = new CSVParser(false);
+		boolean parsed = false;
+		IPath location = userDataFile.getLocation();
+		if (location != null && location.toFile().isFile()) {
+			parsed = parser.parse(location.toFile());
+		} else {
+			try {
+				parsed = parser.parse(CSVParser.read(userDataFile
+						.getContents()));
+			} catch (CoreException | IOException e) {
+				logger.error(getClass().getName() + " Exception!", e);
+			}
+		}
+		if (!parsed || parser.getNumberOfColumns() < 3) {
+			throw new IllegalArgumentException("ReflectivityModel Message: "
+					+ "The file " + fileName + " does not have three columns "
+					+ "of data.");
+		}
+
+		cachedUserData = new double[][] { parser.getColumn(0),
+				parser.getColumn(1), parser.getColumn(2) };
+		userDataFileName = fileName;
+		userDataStamp = stamp;
+
+		return cachedUserData;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 *
@@ -537,6 +943,40 @@ public class ReflectivityModel extends Model {
 		waveEntry.setDescription("The wavelength of the neutron beam.");
 		paramComponent.addEntry(waveEntry);
 
+		// Add an entry for the fit method
+		Entry fitMethodEntry = new Entry() {
+			@Override
+			protected void setup() {
+				allowedValueType = AllowedValueType.Discrete;
+				allowedValues.add(LevenbergMarquardt);
+				allowedValues.add(DifferentialEvolution);
+				defaultValue = LevenbergMarquardt;
+				return;
+			}
+		};
+		fitMethodEntry.setId(6);
+		fitMethodEntry.setName(FitMethodEntryName);
+		fitMethodEntry
+				.setDescription("The method used to fit the layers to the data.");
+		paramComponent.addEntry(fitMethodEntry);
+
+		// Add an entry for the number of fit iterations
+		Entry fitIterationsEntry = new Entry() {
+			@Override
+			protected void setup() {
+				allowedValueType = AllowedValueType.Continuous;
+				allowedValues.add("1");
+				allowedValues.add("10000");
+				defaultValue = "50";
+				return;
+			}
+		};
+		fitIterationsEntry.setId(7);
+		fitIterationsEntry.setName(FitIterationsEntryName);
+		fitIterationsEntry.setDescription("The largest number of iterations, "
+				+ "or generations, of the fit.");
+		paramComponent.addEntry(fitIterationsEntry);
+
 		// Configure a list of property names for the materials
 		ArrayList<String> names = new ArrayList<String>();
 		names.add("Material ID");
@@ -560,8 +1000,10 @@ public class ReflectivityModel extends Model {
 		// imagine.
 		fillMaterialList(matList);
 
-		// Make sure to put it in the form!
+		// Make sure to put it in the form! Listen to it so that edits can be
+		// calculated again.
 		form.addComponent(matList);
+		listenToMaterials();
 
 		// Create a component to hold the output
 		ResourceComponent resources = new ResourceComponent();
@@ -597,6 +1039,7 @@ public class ReflectivityModel extends Model {
 		// Put the action name in the form so that the reflectivity can be
 		// calculated.
 		allowedActions.add(0, processActionName);
+		allowedActions.add(1, fitActionName);
 
 		return;
 	}
@@ -713,8 +1156,10 @@ public class ReflectivityModel extends Model {
 	 */
 	@Override
 	public FormStatus submitForm(Form preparedForm) {
-		// Get the form status from the model
+		// Get the form status from the model. Listen to the material list of
+		// the submitted Form.
 		FormStatus status = super.submitForm(preparedForm);
+		listenToMaterials();
 		// If it is good, process
 		if (status.equals(FormStatus.ReadyToProcess)) {
 			// Get the status from processing and process the item
@@ -761,6 +1206,9 @@ public class ReflectivityModel extends Model {
 			matList.setElementSource(database);
 		}
 
+		// Listen to the list, which is a new one if the Form was loaded
+		listenToMaterials();
+
 		return;
 	}
 
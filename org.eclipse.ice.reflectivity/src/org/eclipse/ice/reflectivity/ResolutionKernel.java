@@ -0,0 +1,215 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - 
+ *   Jay Jay Billings
+ *******************************************************************************/
+package org.eclipse.ice.reflectivity;
+
+import java.util.Arrays;
+
+/**
+ * This class stores the Gaussian resolution function used by
+ * {@link ReflectivityCalculator#convolute(double[], double, double, double, int, int, int, double[])}
+ * for one wave vector. It extends the wave vector at both ends the same way as
+ * {@link ReflectivityCalculator#convoluteReflectivity(double, double, double, boolean, double[], Tile[])}
+ * and computes the weights of the neighbors of each point once, so that the
+ * reflectivity of many material stacks can be convoluted for the same data
+ * without evaluating the exponentials again. The convoluted values are the
+ * same as those of convolute().
+ */
+public class ResolutionKernel {
+
+	/**
+	 * The number of points in the wave vector.
+	 */
+	private final int numPoints;
+
+	/**
+	 * The number of points in the low-Q extension of the wave vector.
+	 */
+	private final int numLowPoints;
+
+	/**
+	 * The extended wave vector, with the values below 1.0e-10 raised to
+	 * 1.0e-10 like in convoluteReflectivity().
+	 */
+	private final double[] extendedWaveVector;
+
+	/**
+	 * The index of the first weight of each point in the offsets and weights
+	 * arrays. It has one more element than there are points.
+	 */
+	private final int[] firstWeights;
+
+	/**
+	 * The offset, in the extended wave vector, of the neighbor of each
+	 * weight.
+	 */
+	private final int[] offsets;
+
+	/**
+	 * The weights of the neighbors of each point, in the order in which
+	 * convolute() adds them up.
+	 */
+	private final double[] weights;
+
+	/**
+	 * The integrated intensity of the resolution function at each point.
+	 */
+	private final double[] norms;
+
+	/**
+	 * The constructor.
+	 *
+	 * @param waveVector
+	 *            the wave vector (Q)
+	 * @param deltaQ0
+	 *            the zeroth order term of a Taylor expansion of the
+	 *            reflectometer resolution function dQ = dQ_0 + (dQ/Q)_1 x Q +
+	 *            ...
+	 * @param deltaQ1ByQ
+	 *            the first order term of the Q resolution Taylor expansion
+	 */
+	public ResolutionKernel(double[] waveVector, double deltaQ0,
+			double deltaQ1ByQ) {
+
+		// Determine the length of the high- and low-Q extensions
+		ReflectivityCalculator calculator = new ReflectivityCalculator();
+		numPoints = waveVector.length;
+		numLowPoints = calculator.getLowExtensionLength(waveVector, deltaQ0,
+				deltaQ1ByQ, numPoints);
+		int numHighPoints = calculator.getHighExtensionLength(waveVector,
+				deltaQ0, deltaQ1ByQ, numPoints);
+
+		// Extend the wave vector
+		double[] tempWaveVector = new double[numLowPoints + numHighPoints
+				+ numPoints];
+		double waveVecStep = waveVector[1] - waveVector[0];
+		for (int i = 0; i < numLowPoints; i++) {
+			tempWaveVector[i] = waveVector[0] - waveVecStep
+					* ((double) numLowPoints + 1 - i);
+		}
+		for (int i = 0; i < numPoints; i++) {
+			tempWaveVector[numLowPoints + i] = waveVector[i];
+		}
+		waveVecStep = waveVector[numPoints - 1] - waveVector[numPoints - 2];
+		for (int i = 0; i < numHighPoints; i++) {
+			tempWaveVector[i + numLowPoints + numPoints] = waveVector[numPoints - 1]
+					+ waveVecStep * (i);
+		}
+
+		// Find the weights of the neighbors of each point the same way as
+		// convolute()
+		double ln2 = Math.log(2.0);
+		double qEff, qRes, rExp, rNorm;
+		int[] tempOffsets = new int[16 * numPoints];
+		double[] tempWeights = new double[16 * numPoints];
+		int numWeights = 0, nStep;
+		boolean lFinish, hFinish;
+		firstWeights = new int[numPoints + 1];
+		norms = new double[numPoints];
+		for (int i = numLowPoints; i <= numLowPoints + numPoints - 1; i++) {
+			firstWeights[i - numLowPoints] = numWeights;
+			// Calculate resolution width and initialize resolution loop
+			if (tempWaveVector[i] < 1.0e-10) {
+				qEff = 1.0e-10;
+			} else {
+				qEff = tempWaveVector[i];
+			}
+			double qDel = deltaQ0 + qEff * deltaQ1ByQ;
+			double twSgSq = 2.0 * qDel * qDel / (8.0 * ln2);
+			if (twSgSq < 1.0e-10) {
+				twSgSq = 1.0e-10;
+			}
+			rNorm = 1.0;
+			nStep = 1;
+			// Check if exponent term becomes < 0.001 and loop until it does so
+			lFinish = false;
+			hFinish = false;
+			while (!lFinish && !hFinish) {
+				// Make sure there is room for two more weights
+				if (numWeights + 2 > tempWeights.length) {
+					tempOffsets = Arrays.copyOf(tempOffsets,
+							2 * tempOffsets.length);
+					tempWeights = Arrays.copyOf(tempWeights,
+							2 * tempWeights.length);
+				}
+				// Evaluate the low-q side
+				qRes = tempWaveVector[i - nStep] - tempWaveVector[i];
+				if (qRes * qRes / twSgSq < 6.908) {
+					rExp = Math.exp(-qRes * qRes / twSgSq);
+					rNorm = rNorm + rExp;
+					tempOffsets[numWeights] = -nStep;
+					tempWeights[numWeights++] = rExp;
+				} else {
+					lFinish = true;
+				}
+				// Evaluate high-q side
+				qRes = tempWaveVector[i + nStep] - tempWaveVector[i];
+				if (qRes * qRes / twSgSq < 6.908) {
+					rExp = Math.exp(-qRes * qRes / twSgSq);
+					rNorm = rNorm + rExp;
+					tempOffsets[numWeights] = nStep;
+					tempWeights[numWeights++] = rExp;
+				} else {
+					hFinish = true;
+				}
+				nStep++;
+			}
+			norms[i - numLowPoints] = rNorm;
+		}
+		firstWeights[numPoints] = numWeights;
+		offsets = Arrays.copyOf(tempOffsets, numWeights);
+		weights = Arrays.copyOf(tempWeights, numWeights);
+
+		// Raise the wave vector to the smallest value used by the calculation
+		extendedWaveVector = tempWaveVector;
+		for (int i = 0; i < extendedWaveVector.length; i++) {
+			if (extendedWaveVector[i] < 1.0e-10) {
+				extendedWaveVector[i] = 1.0e-10;
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation returns the extended wave vector at which the
+	 * perfect-resolution reflectivity must be calculated before it is
+	 * convoluted. It should not be modified.
+	 *
+	 * @return the extended wave vector
+	 */
+	public double[] getExtendedWaveVector() {
+		return extendedWaveVector;
+	}
+
+	/**
+	 * This operation convolutes the perfect-resolution reflectivity with the
+	 * resolution function.
+	 *
+	 * @param extendedReflectivity
+	 *            the reflectivity at each point of the extended wave vector
+	 * @param reflectivity
+	 *            OUTPUT - the convoluted reflectivity at each point of the
+	 *            wave vector. It must be at least as long as the wave vector.
+	 */
+	public void convolute(double[] extendedReflectivity, double[] reflectivity) {
+		for (int i = 0; i < numPoints; i++) {
+			int point = i + numLowPoints;
+			double value = extendedReflectivity[point];
+			for (int j = firstWeights[i]; j < firstWeights[i + 1]; j++) {
+				value = value + weights[j]
+						* extendedReflectivity[point + offsets[j]];
+			}
+			reflectivity[i] = value / norms[i];
+		}
+		return;
+	}
+}
@@ -0,0 +1,245 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation -
+ *   Jay Jay Billings
+ *******************************************************************************/
+package org.eclipse.ice.reflectivity;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.math.MathException;
+
+/**
+ * This class generates the tiles of stacks of slabs like
+ * {@link ReflectivityCalculator#generateTiles(Slab[], int, double[], double[])}
+ * , but the tiles of each slab are generated from that slab and its neighbors
+ * only and they are cached. The tiles of a slab are the same as long as the
+ * slab and its neighbors do not change, so when one slab of a stack changes
+ * only the tiles of that slab and its two neighbors are generated again.
+ *
+ * The slabs must already be corrected for the incident medium. The cache is
+ * thread-safe.
+ */
+public class TileCache {
+
+	/**
+	 * The number of tile sets cached for each slab.
+	 */
+	private static final int cacheSize = 64;
+
+	/**
+	 * The number of layers of roughness, made odd like in
+	 * getReflectivityProfile().
+	 */
+	private final int numRough;
+
+	/**
+	 * The interfacial profile.
+	 */
+	private final double[] zInt, rufInt;
+
+	/**
+	 * The calculator that generates the tiles.
+	 */
+	private final ReflectivityCalculator calculator;
+
+	/**
+	 * The tiles cached for the interfaces of each slab, keyed on the
+	 * properties of the slabs they depend on.
+	 */
+	private final ArrayList<Map<SlabKey, Tile[]>> tileCaches;
+
+	/**
+	 * The number of times that the tiles of a slab were generated.
+	 */
+	private final AtomicLong generations;
+
+	/**
+	 * The constructor.
+	 *
+	 * @param numRough
+	 *            the number of layers of roughness
+	 * @throws MathException
+	 *             Thrown if the interfacial profile cannot be calculated
+	 */
+	public TileCache(int numRough) throws MathException {
+
+		calculator = new ReflectivityCalculator();
+
+		// Generate the interfacial profile, then make sure that numRough is
+		// an odd number like getReflectivityProfile() does
+		zInt = new double[ReflectivityCalculator.maxRoughSize];
+		rufInt = new double[ReflectivityCalculator.maxRoughSize];
+		calculator.getInterfacialProfile(numRough, zInt, rufInt);
+		if (numRough < 2) {
+			numRough = 1;
+		} else if (numRough % 2 == 0) {
+			numRough++;
+		}
+		this.numRough = numRough;
+
+		tileCaches = new ArrayList<Map<SlabKey, Tile[]>>();
+		generations = new AtomicLong();
+	}
+
+	/**
+	 * This operation returns the number of layers of roughness, which is odd.
+	 *
+	 * @return the number of layers of roughness
+	 */
+	public int getNumRough() {
+		return numRough;
+	}
+
+	/**
+	 * This operation returns the number of times that the tiles of a slab were
+	 * generated instead of being found in the cache.
+	 *
+	 * @return the number of generations
+	 */
+	public long getNumberOfGenerations() {
+		return generations.get();
+	}
+
+	/**
+	 * This operation returns the tiles of a stack of corrected slabs. They are
+	 * the same as those of generateTiles() for the whole stack.
+	 *
+	 * @param stack
+	 *            the slabs, with the refractive indices corrected for the
+	 *            incident medium
+	 * @return the tiles, or the slabs themselves if there is only one layer
+	 *         of roughness
+	 * @throws MathException
+	 *             Thrown if the error function cannot be calculated
+	 */
+	public Tile[] getTiles(Slab[] stack) throws MathException {
+
+		// Use the slabs directly if there is no roughness, and do not bother
+		// with the cache if there are no inner slabs
+		int nSlabs = stack.length;
+		if (numRough == 1) {
+			return stack;
+		} else if (nSlabs < 3) {
+			generations.incrementAndGet();
+			return calculator.generateTiles(stack, numRough, zInt, rufInt);
+		}
+
+		// The number of tiles of the top and bottom interfaces and of each
+		// inner slab, like in generateTiles()
+		int half = numRough / 2 + 1, inner = numRough + 2;
+		Tile[] tiles = new Tile[2 + 2 * half + (nSlabs - 2) * inner];
+		int nTiles = 0;
+		for (int i = 0; i < nSlabs; i++) {
+			// Find the slabs that the tiles depend on and where the tiles are
+			// in the tiles of those slabs
+			int first, length, offset;
+			if (i == 0) {
+				first = 0;
+				length = 1 + half;
+				offset = 0;
+			} else if (i == nSlabs - 1) {
+				first = nSlabs - 3;
+				length = half + 1;
+				offset = 1 + half + inner;
+			} else {
+				first = i - 1;
+				length = inner;
+				offset = 1 + half;
+			}
+			Slab[] window = Arrays.copyOfRange(stack, first, first + 3);
+
+			// Generate them if they are not cached. The key only includes the
+			// slabs that the tiles depend on.
+			SlabKey key = (i == 0) ? new SlabKey(window, 0, 2)
+					: (i == nSlabs - 1) ? new SlabKey(window, 1, 3)
+							: new SlabKey(window, 0, 3);
+			Map<SlabKey, Tile[]> cache = getCache(i);
+			Tile[] slabTiles = cache.get(key);
+			if (slabTiles == null) {
+				generations.incrementAndGet();
+				slabTiles = Arrays.copyOfRange(calculator.generateTiles(
+						window, numRough, zInt, rufInt), offset, offset
+						+ length);
+				cache.put(key, slabTiles);
+			}
+			System.arraycopy(slabTiles, 0, tiles, nTiles, length);
+			nTiles += length;
+		}
+
+		return tiles;
+	}
+
+	/**
+	 * This operation returns the cache of the tiles of a slab, creating it if
+	 * the stack has more slabs than before.
+	 *
+	 * @param slab
+	 *            the index of the slab
+	 * @return the cache
+	 */
+	private Map<SlabKey, Tile[]> getCache(int slab) {
+		synchronized (tileCaches) {
+			while (tileCaches.size() <= slab) {
+				tileCaches.add(Collections
+						.synchronizedMap(new LinkedHashMap<SlabKey, Tile[]>(
+								16, 0.75f, true) {
+							private static final long serialVersionUID = 1L;
+
+							@Override
+							protected boolean removeEldestEntry(
+									Map.Entry<SlabKey, Tile[]> eldest) {
+								return size() > cacheSize;
+							}
+						}));
+			}
+			return tileCaches.get(slab);
+		}
+	}
+
+	/**
+	 * This class is the key of the tile caches. It holds the properties of a
+	 * range of slabs.
+	 */
+	private static class SlabKey {
+
+		/**
+		 * The properties of the slabs.
+		 */
+		private final double[] properties;
+
+		public SlabKey(Slab[] slabs, int start, int end) {
+			properties = new double[5 * (end - start)];
+			for (int i = start; i < end; i++) {
+				int offset = 5 * (i - start);
+				properties[offset] = slabs[i].scatteringLength;
+				properties[offset + 1] = slabs[i].trueAbsLength;
+				properties[offset + 2] = slabs[i].incAbsLength;
+				properties[offset + 3] = slabs[i].thickness;
+				properties[offset + 4] = slabs[i].interfaceWidth;
+			}
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			return other instanceof SlabKey
+					&& Arrays.equals(properties, ((SlabKey) other).properties);
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(properties);
+		}
+	}
+}
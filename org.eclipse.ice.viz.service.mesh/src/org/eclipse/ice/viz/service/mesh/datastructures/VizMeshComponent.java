@@ -539,13 +539,22 @@ public class VizMeshComponent extends VizObject implements IMeshPart {
 			// thoroughly (call it with a list of polygons where some are new
 			// and some old polygons are gone).
 
-			for (Polygon polygon : polygons) {
-				addPolygon(polygon);
+			// Add the polygons without sending a notification for each one,
+			// then notify listeners once if any of them were added.
+			int size = this.polygons.size();
+			copying.set(true);
+			try {
+				for (Polygon polygon : polygons) {
+					addPolygon(polygon);
+				}
+			} finally {
+				copying.set(false);
+			}
+			if (this.polygons.size() != size) {
+				notifyListeners();
 			}
 		}
 
-		// Notifying listeners is handled by addPolygon().
-
 		return;
 	}
 
@@ -13,18 +13,18 @@
  *******************************************************************************/
 package org.eclipse.ice.viz.service.csv;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.net.URI;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-import org.apache.commons.beanutils.ConvertUtils;
+import org.eclipse.ice.csv.CSVParser;
 import org.eclipse.ice.viz.service.AbstractPlot;
 import org.eclipse.ice.viz.service.IPlot;
 import org.eclipse.ice.viz.service.ISeries;
@@ -180,44 +180,20 @@ public class CSVPlot extends AbstractPlot {
 		String plotName = file.getName();
 		setPlotTitle(plotName);
 
-		// Configure the list
-		ArrayList<String[]> lines = new ArrayList<String[]>();
-
+		// Parse the numbers in the file straight into columns. The file is
+		// read into memory and never mapped because MOOSE may still be
+		// appending to it or rewriting it.
+		CSVParser parser = new CSVParser(true);
+		String[] seriesNames = null;
 		try {
-			// Grab the contents of the file
-			BufferedReader reader = new BufferedReader(new FileReader(file));
-			String line = null;
-			while ((line = reader.readLine()) != null) {
-				// Skip lines that pure comments
-				if (!line.startsWith("#")) {
-					// Clip the line if it has a comment symbol in it to be
-					// everything before the symbol
-					if (line.contains("#")) {
-						int index = line.indexOf("#");
-						line = line.substring(0, index);
-					}
-					// Clean up any crap on the line
-					String[] lineArray = line.trim().split(",");
-					String[] trimmedLine = new String[lineArray.length];
-					// And clean up any crap on each split piece
-					for (int i = 0; i < lineArray.length; i++) {
-						trimmedLine[i] = lineArray[i].trim();
-					}
-					// Put the lines in the list
-					lines.add(trimmedLine);
-				}
+			if (parser.parse(CSVParser.read(new FileInputStream(file)))) {
+				seriesNames = parser.getHeader();
 			}
-
-			reader.close();
-
 		} catch (IOException e) {
-			// Complain
-			logger.error(getClass().getName()
-					+ " Exception! Could not read in data from file: "
-					+ file.getName() + ".", e);
+			logger.error(getClass().getName() + " Exception!", e);
 		}
 
-		if (!lines.isEmpty()) {
+		if (seriesNames != null && seriesNames.length > 0) {
 
 			// TODO- Some sort of implementation to read in the style
 			// configurations for the plot, axes, and series. How to go about
@@ -225,10 +201,8 @@ public class CSVPlot extends AbstractPlot {
 			// utilized without some sort of recognition here of the style
 			// attributes!
 
-			// Assume that the first line has information about the data
-			String[] seriesNames = lines.remove(0);
-
 			// Creates the series that contain the data loaded from the file.
+			// The first line has the names of the series.
 			CSVSeries[] series = new CSVSeries[seriesNames.length];
 			for (int i = 0; i < seriesNames.length; i++) {
 				series[i] = new CSVSeries();
@@ -242,13 +216,9 @@ public class CSVPlot extends AbstractPlot {
 				series[1].setEnabled(true);
 			}
 
-			// Load the data as doubles
-			for (int i = 0; i < lines.size(); i++) {
-				double[] values = (double[]) ConvertUtils.convert(lines.get(i),
-						Double.TYPE);
-				for (int j = 0; j < values.length; j++) {
-					series[j].add(values[j]);
-				}
+			// Add the data to each series at once
+			for (int j = 0; j < series.length; j++) {
+				series[j].addAll(new DoubleList(parser.getColumn(j)));
 			}
 
 			// Just set the first series as the independent series for now
@@ -300,4 +270,43 @@ public class CSVPlot extends AbstractPlot {
 		return changed;
 	}
 
+	/**
+	 * A read-only List view of a column of numbers, so that the whole column
+	 * can be added to a series at once. Each number is only boxed when the
+	 * series reads it.
+	 */
+	private static class DoubleList extends AbstractList<Double> {
+
+		/**
+		 * The numbers.
+		 */
+		private final double[] values;
+
+		/**
+		 * The constructor.
+		 * 
+		 * @param values
+		 *            The numbers.
+		 */
+		private DoubleList(double[] values) {
+			this.values = values;
+		}
+
+		/*
+		 * Implements a method from AbstractList.
+		 */
+		@Override
+		public Double get(int index) {
+			return values[index];
+		}
+
+		/*
+		 * Implements a method from AbstractCollection.
+		 */
+		@Override
+		public int size() {
+			return values.length;
+		}
+	}
+
 }